@@ -166,6 +166,9 @@ public class SynonymSearcher {
         wb.WIKI_URL     = wb.parameters.getWikiURL();
         d.wiki_url_tf.setText(wb.WIKI_URL);
         
+        // links of pages from the file links_graph_<lang> (see LinksGraph)
+        session.loadLinksGraph(wb.parameters.getLinksGraph());
+        
         wb.INITIAL_NODE = wb.parameters.getNode();
         ((SynonymPanel)wb.synonymTextPanel).syn_word.setText(wb.INITIAL_NODE);
     }
@@ -39,6 +39,10 @@ public class BrowserParameters extends Parameters implements Constants {
     /** Start node */
     private Map<String,String>  node;
     
+    /** File with links of pages created by LinksGraph.save(), 
+     * if it is empty then the tables pagelinks, categorylinks are used */
+    private Map<String,String>  links_graph;
+    
     /** enabling of dump result of work to log directory */
     private boolean  b_log_dump2dir;
     
@@ -62,6 +66,7 @@ public class BrowserParameters extends Parameters implements Constants {
         pass    = new HashMap<String, String>();
         wiki_url= new HashMap<String, String>();
         node    = new HashMap<String, String>();
+        links_graph = new HashMap<String, String>();
         
         System.out.print("Loading browser parameters... ");
         getParameters();
@@ -158,6 +163,9 @@ public class BrowserParameters extends Parameters implements Constants {
             
             defaults.put("pass_" + LANG_CODE[i], "");
             pass.    put(          LANG_CODE[i], "");
+            
+            defaults.put("links_graph_" + LANG_CODE[i], "");
+            links_graph.put(              LANG_CODE[i], "");
         }
 
         defaults.put("b_log_dump2dir", "0");     // disable log by default
@@ -179,6 +187,7 @@ public class BrowserParameters extends Parameters implements Constants {
             pass.    put(lang_code, properties.getProperty("pass_" +  lang_code));
             wiki_url.put(lang_code, properties.getProperty("wiki_url_"+lang_code));
             node.    put(lang_code, properties.getProperty("node_" +  lang_code));
+            links_graph.put(lang_code, properties.getProperty("links_graph_" + lang_code));
             
             enc_java    = properties.getProperty("enc_java");
             enc_ui      = properties.getProperty("enc_ui");
@@ -216,6 +225,7 @@ public class BrowserParameters extends Parameters implements Constants {
         properties.put("pass_"+lang_code, pass.get(lang_code));
         properties.put("node_"+lang_code, node.get(lang_code));
         properties.put("wiki_url_"+lang_code, wiki_url.get(lang_code));
+        properties.put("links_graph_"+lang_code, links_graph.get(lang_code));
         
         properties.put("enc_java",  enc_java);
         properties.put("enc_ui",    enc_ui);
@@ -305,6 +315,9 @@ public class BrowserParameters extends Parameters implements Constants {
     public String getWikiURL() {return wiki_url.get(lang_code);    }
     public void   setWikiURL(String s){wiki_url.put(lang_code, s);saveParameters();}
     
+    public String getLinksGraph() {return links_graph.get(lang_code);    }
+    public void   setLinksGraph(String s){links_graph.put(lang_code, s);saveParameters();}
+    
     
     public void     setEnableLog(boolean enable) {
         b_log_dump2dir = enable; saveParameters();
@@ -9,6 +9,7 @@ package wikokit.base.wikipedia.language;
 
 import wikokit.base.wikt.multi.ru.name.LanguageTypeRu;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
@@ -281,8 +282,8 @@ public class LanguageType {
     /** The set of unknown language codes, which were found during parsing.
      * There is only one message for one unknown language code (for concise logging).
      */
-    private static Set<String> unknown_lang_code = new HashSet<String>();
-    private static Set<String> unknown_lang_name = new HashSet<String>();
+    private static Set<String> unknown_lang_code = Collections.synchronizedSet(new HashSet<String>());
+    private static Set<String> unknown_lang_name = Collections.synchronizedSet(new HashSet<String>());
 
     /** Checks weather exists the unknown language code 'code'. */
     public static boolean hasUnknownLangCode(String code) {
@@ -13,6 +13,8 @@ import wikokit.base.wikipedia.util.StringUtil;
 
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 //import java.util.regex.PatternSyntaxException;
 
 /** Converts wiki-texts to texts without [[]], interwiki, <code>..</code>, etc.
@@ -60,12 +62,15 @@ public class WikiParser {
     //private final static Pattern ptrn_site_name  = Pattern.compile("[-./_!*'():~a-z%0-9A-Z]+");
     
     /** Hostname (without spaces) contains the dot '.' at least once, except the last symbol. */
-    private final static Pattern ptrn_site_name  = Pattern.compile("(\\A|\\s)\\S+?[.]\\S+?[^.]([\\s,!?]|\\z)");
+    final static Pattern ptrn_site_name  = Pattern.compile("(\\A|\\s)\\S+?[.]\\S+?[^.]([\\s,!?]|\\z)");
     //      final static Pattern ptrn_site_name  = Pattern.compile("\\b\\S+?[.]\\S+?[^.]\\b");
     //      final static Pattern ptrn_site_name  = Pattern.compile("\\b.+?[.]+.+?[^.]\\b");
     
     private final static StringBuffer   NULL_STRINGBUFFER = new StringBuffer("");
     
+    /** Patterns of removeXMLTag(), tag -> pattern "<tag>.+?</tag>". */
+    private final static Map<String, Pattern> tag_patterns = new ConcurrentHashMap<String, Pattern>();
+    
     /** Creates a new instance of WikiParser */
     //public WikiParser() {    }
     
@@ -114,7 +119,11 @@ public class WikiParser {
         if(null == tag || tag.length() == 0)
             return text;
         
-        Pattern p = Pattern.compile("<"+tag+">.+?</"+tag+">", Pattern.DOTALL);
+        Pattern p = tag_patterns.get(tag);
+        if(null == p) {
+            p = Pattern.compile("<"+tag+">.+?</"+tag+">", Pattern.DOTALL);
+            tag_patterns.put(tag, p);
+        }
         Matcher m = p.matcher(text.toString());
         
         return new StringBuffer(m.replaceAll(""));
@@ -421,12 +430,29 @@ public class WikiParser {
      * 3. Expands wiki links by removing brackets. There are two cases: 
      * (1) remove brackets, e.g. [[run]] -> run and <br> 
      * (2) [[run|running]] -> running, or [[Russian language|Russian]] -> Russian, 
-     * i.e. the visible (to reader) words will remain.
+     * i.e. the visible (to reader) words will remain.<br><br>
+     * 
+     * The text is parsed in one char buffer by WikiTokenizer.
      */
     public static StringBuffer convertWikiToText(
             StringBuffer wiki_text,
             LanguageType lang, 
             boolean b_remove_not_expand_iwiki)
+    {
+        return WikiTokenizer.convertWikiToText(wiki_text, lang, b_remove_not_expand_iwiki);
+    }
+    
+    /** Removes / expands interwiki, removes categories, expands wiki links 
+     * by the chain of regular expressions (the text is copied at every step).
+     * It is slower than convertWikiToText(), the result is the same, 
+     * it is used to test WikiTokenizer.
+     * 
+     * @see #convertWikiToText(StringBuffer, LanguageType, boolean)
+     */
+    public static StringBuffer convertWikiToTextByRegex(
+            StringBuffer wiki_text,
+            LanguageType lang, 
+            boolean b_remove_not_expand_iwiki)
     {
         // StringBuffer result = WikiParser.removeInterwiki(wiki_text);
         // or
@@ -0,0 +1,379 @@
+/* WikiStructure.java - one-pass index of headers, templates and links of a wiki text.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Index of the structure of a wiki text: positions of headers "== Header ==",
+ * templates "{{name|...}}" (with nesting) and links "[[target|text]]".<br><br>
+ *
+ * The text is scanned once by scan(), then parsers of one section of
+ * an entry (definitions, semantic relations, translations, images) get
+ * positions of headers and templates from the index, instead of
+ * matching of the whole text by a regular expression for every header.<br><br>
+ *
+ * Positions are offsets in the scanned text, so the text should not be
+ * changed after the scanning.
+ */
+public class WikiStructure {
+
+    private final static Header[]   NULL_HEADER_ARRAY   = new Header[0];
+    private final static Template[] NULL_TEMPLATE_ARRAY = new Template[0];
+    private final static Link[]     NULL_LINK_ARRAY     = new Link[0];
+
+    /** Header "=== name ===", the line starts from '=' (or from spaces and '='). */
+    public static class Header {
+
+        private final String name;
+        private final int level_left, level_right;
+        private final int start, content_start;
+
+        /** true if there are spaces before the first '=' in the line. */
+        private final boolean b_indent;
+
+        Header(String _name, int _level_left, int _level_right, int _start, int _content_start, boolean _b_indent) {
+            name          = _name;
+            level_left    = _level_left;
+            level_right   = _level_right;
+            start         = _start;
+            content_start = _content_start;
+            b_indent      = _b_indent;
+        }
+
+        /** Gets name of the header without '=' and spaces around,
+         * spaces inside the name are replaced by one space,
+         * e.g. "Coordinate terms" for "==== Coordinate  terms ====". */
+        public String getName() {
+            return name;
+        }
+
+        /** Gets level of the header, i.e. number of '=' (the minimum
+         * of the left and right numbers), e.g. 4 for "==== Синонимы ====". */
+        public int getLevel() {
+            return Math.min(level_left, level_right);
+        }
+
+        /** Gets number of '=' before the name. */
+        public int getLevelLeft() {
+            return level_left;
+        }
+
+        /** Gets number of '=' after the name. */
+        public int getLevelRight() {
+            return level_right;
+        }
+
+        /** Gets position of the first '=' of the header. */
+        public int getStart() {
+            return start;
+        }
+
+        /** Gets position of the text after the header: after the last
+         * newline of the spaces and empty lines following the header,
+         * i.e. the position of m.end() for the regular expression
+         * "==\s*name\s*==\s*\n". It is equal to the length of the text,
+         * if there is no text after the header.
+         */
+        public int getContentStart() {
+            return content_start;
+        }
+    }
+
+    /** Template "{{name|parameters}}". */
+    public static class Template {
+
+        private final String name;
+        private final int start, depth;
+        private int end = -1;
+
+        Template(String _name, int _start, int _depth) {
+            name  = _name;
+            start = _start;
+            depth = _depth;
+        }
+
+        /** Gets name of the template (text till the first '|', trimmed). */
+        public String getName() {
+            return name;
+        }
+
+        /** Gets position of "{{". */
+        public int getStart() {
+            return start;
+        }
+
+        /** Gets position after the closing "}}",
+         * or -1 if the template is not closed till the end of the text. */
+        public int getEnd() {
+            return end;
+        }
+
+        /** Gets number of templates which contain this template,
+         * 0 for the top-level template. */
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    /** Wiki link "[[target|text]]". */
+    public static class Link {
+
+        private final String target;
+        private final int start;
+        private int end = -1;
+
+        Link(String _target, int _start) {
+            target = _target;
+            start  = _start;
+        }
+
+        /** Gets target of the link (text till the first '|', trimmed). */
+        public String getTarget() {
+            return target;
+        }
+
+        /** Gets position of "[[". */
+        public int getStart() {
+            return start;
+        }
+
+        /** Gets position after the closing "]]",
+         * or -1 if the link is not closed till the end of the text. */
+        public int getEnd() {
+            return end;
+        }
+    }
+
+    private final Header[]   headers;
+    private final Template[] templates;
+    private final Link[]     links;
+
+    private WikiStructure(Header[] _headers, Template[] _templates, Link[] _links) {
+        headers   = _headers;
+        templates = _templates;
+        links     = _links;
+    }
+
+    /** Gets all headers in the order of the text. */
+    public Header[] getHeaders() {
+        return headers;
+    }
+
+    /** Gets all templates in the order of their beginnings in the text. */
+    public Template[] getTemplates() {
+        return templates;
+    }
+
+    /** Gets all links in the order of their beginnings in the text. */
+    public Link[] getLinks() {
+        return links;
+    }
+
+    /** Gets the first header with the name 'name', the numbers of '='
+     * before and after the name are in the range [min_level, max_level],
+     * i.e. the header found by "(?m)^={min,max}\s*name\s*={min,max}\s*$".
+     *
+     * @return null if there is no such header
+     */
+    public Header getHeader(String name, int min_level, int max_level) {
+        for(Header h : headers) {
+            if(!h.b_indent &&
+               h.level_left  >= min_level && h.level_left  <= max_level &&
+               h.level_right >= min_level && h.level_right <= max_level &&
+               h.name.equals(name))
+                return h;
+        }
+        return null;
+    }
+
+    /** Gets the first header with the name 'name' as getHeader(), but the
+     * number of '=' before the name could be greater than max_level and
+     * there could be spaces before the header, i.e. the header found by
+     * the regular expression without the begin of line,
+     * e.g. "===?=?\s*name\s*===?=?\s*\n" for levels 2-4.
+     *
+     * @return null if there is no such header
+     */
+    public Header getHeaderLoose(String name, int min_level, int max_level) {
+        for(Header h : headers) {
+            if(h.level_left  >= min_level &&
+               h.level_right >= min_level && h.level_right <= max_level &&
+               h.name.equals(name))
+                return h;
+        }
+        return null;
+    }
+
+    /** Gets templates with the name 'name' in the order of the text.
+     *
+     * @return empty array if there is no such template
+     */
+    public Template[] getTemplates(String name) {
+        List<Template> result = null;
+        for(Template t : templates) {
+            if(t.name.equals(name)) {
+                if(null == result)
+                    result = new ArrayList<Template>();
+                result.add(t);
+            }
+        }
+        if(null == result)
+            return NULL_TEMPLATE_ARRAY;
+        return result.toArray(NULL_TEMPLATE_ARRAY);
+    }
+
+    /** Whitespace as \s in regular expressions: [ \t\n\x0B\f\r]. */
+    private static boolean isSpace(char c) {
+        return ' ' == c || '\t' == c || '\n' == c || '\u000B' == c || '\f' == c || '\r' == c;
+    }
+
+    /** Gets text from 'start' till 'end' without spaces around,
+     * spaces inside are replaced by one space. */
+    private static String getName(CharSequence text, int start, int end) {
+        while(start < end && isSpace(text.charAt(start)))
+            start ++;
+        while(end > start && isSpace(text.charAt(end-1)))
+            end --;
+
+        StringBuilder s = null;
+        for(int i=start; i<end; i++) {
+            if(isSpace(text.charAt(i)) && (' ' != text.charAt(i) || isSpace(text.charAt(i+1)))) {
+                s = new StringBuilder(end - start);
+                break;
+            }
+        }
+        if(null == s)
+            return text.subSequence(start, end).toString();
+
+        for(int i=start; i<end; i++) {
+            char c = text.charAt(i);
+            if(isSpace(c)) {
+                if(' ' != s.charAt(s.length()-1))
+                    s.append(' ');
+            } else
+                s.append(c);
+        }
+        return s.toString();
+    }
+
+    /** Gets end of the name of template or link, i.e. position of the first
+     * '|' or the next brackets "{{", "}}", "[[", "]]". */
+    private static int getNameEnd(CharSequence text, int start) {
+        int len = text.length();
+        for(int i=start; i<len; i++) {
+            char c = text.charAt(i);
+            if('|' == c)
+                return i;
+            if(i+1 < len && c == text.charAt(i+1) && ('{' == c || '}' == c || '[' == c || ']' == c))
+                return i;
+        }
+        return len;
+    }
+
+    /** Parses the header started from '=' at the position 'start'.
+     *
+     * @return null if the line is not a header, e.g. there is no '=' at the end
+     */
+    private static Header parseHeader(CharSequence text, int start, boolean b_indent) {
+        int len = text.length();
+
+        int left = start;
+        while(left < len && '=' == text.charAt(left))
+            left ++;
+
+        int eol = left;
+        while(eol < len && '\n' != text.charAt(eol))
+            eol ++;
+
+        int right = eol;        // skip spaces at the end of the line
+        while(right > left && isSpace(text.charAt(right-1)))
+            right --;
+        int right_end = right;
+        while(right > left && '=' == text.charAt(right-1))
+            right --;
+
+        if(right == right_end || right == left)
+            return null;        // "=== name" or "======"
+
+        String name = getName(text, left, right);
+        if(0 == name.length())
+            return null;
+
+        // the text after the last newline of spaces and empty lines
+        int content_start = len;
+        for(int i=right_end; i<len && isSpace(text.charAt(i)); i++) {
+            if('\n' == text.charAt(i))
+                content_start = i + 1;
+        }
+        return new Header(name, left - start, right_end - right, start, content_start, b_indent);
+    }
+
+    /** Scans the text and creates the index of headers, templates and links.
+     * Templates and links are found by pairs of brackets, unclosed brackets
+     * are skipped, e.g. "}}" without "{{".
+     */
+    public static WikiStructure scan(CharSequence text) {
+
+        List<Header>   headers   = new ArrayList<Header>();
+        List<Template> templates = new ArrayList<Template>();
+        List<Link>     links     = new ArrayList<Link>();
+
+        List<Template> open_templates = new ArrayList<Template>();
+        List<Link>     open_links     = new ArrayList<Link>();
+
+        int len = text.length();
+        int i = 0;
+        while(i < len) {
+            char c = text.charAt(i);
+
+            if(0 == i || '\n' == text.charAt(i-1)) {
+                int j = i;      // spaces before the header
+                while(j < len && (' ' == text.charAt(j) || '\t' == text.charAt(j)))
+                    j ++;
+                if(j < len && '=' == text.charAt(j)) {
+                    Header h = parseHeader(text, j, j > i);
+                    if(null != h)
+                        headers.add(h);
+                }
+            }
+
+            if(i+1 < len && c == text.charAt(i+1)) {
+                if('{' == c) {
+                    Template t = new Template(getName(text, i+2, getNameEnd(text, i+2)), i, open_templates.size());
+                    templates.add(t);
+                    open_templates.add(t);
+                    i += 2;
+                    continue;
+                }
+                if('}' == c && !open_templates.isEmpty()) {
+                    open_templates.remove(open_templates.size()-1).end = i + 2;
+                    i += 2;
+                    continue;
+                }
+                if('[' == c) {
+                    Link l = new Link(getName(text, i+2, getNameEnd(text, i+2)), i);
+                    links.add(l);
+                    open_links.add(l);
+                    i += 2;
+                    continue;
+                }
+                if(']' == c && !open_links.isEmpty()) {
+                    open_links.remove(open_links.size()-1).end = i + 2;
+                    i += 2;
+                    continue;
+                }
+            }
+            i ++;
+        }
+
+        return new WikiStructure(
+                headers.isEmpty()   ? NULL_HEADER_ARRAY   : headers.toArray(NULL_HEADER_ARRAY),
+                templates.isEmpty() ? NULL_TEMPLATE_ARRAY : templates.toArray(NULL_TEMPLATE_ARRAY),
+                links.isEmpty()     ? NULL_LINK_ARRAY     : links.toArray(NULL_LINK_ARRAY));
+    }
+}
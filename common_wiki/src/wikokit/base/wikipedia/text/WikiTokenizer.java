@@ -0,0 +1,914 @@
+/* WikiTokenizer.java - converter of wiki texts to plain texts in one buffer.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.text;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.language.WikimediaSisterProject;
+import wikokit.base.wikipedia.util.StringUtil;
+
+import java.util.Arrays;
+
+/** Converts wiki-texts to texts without [[]], interwiki, {{templates}},
+ * &lt;code>..&lt;/code>, etc. in one char buffer, it gives the same text as
+ * the chain of regular expressions WikiParser.convertWikiToTextByRegex(),
+ * but the text is not copied at every step.<br><br>
+ *
+ * The source text is copied once to the buffer, then the markup is removed
+ * in place in the same order as by the chain of regular expressions:
+ * <PRE>
+ * 1. &lt;!-- comments -->, &lt;pre>, &lt;source>, &lt;code>; texts of
+ *    &lt;ref>...&lt;/ref> are moved to the end of the text;
+ * 2. {{templates}} (two nested levels), {| tables |}, acute accent (Russian);
+ * 3. '''bold''', ''italic'';
+ * 4. [[Image:...|description]] ([[Изображение:...]] for Russian);
+ * 5. [[wiki links]], [http://site hyperlinks].
+ * </PRE>
+ * Each kind of markup is one pass over the buffer, and the pass is skipped
+ * if the text has no such markup. So the result is the same also for broken
+ * markup, when boundaries of different elements are crossed, e.g.
+ * "{{a|&lt;!-- }} -->b}}", "''a '''b'' c'''" or "{{{{a}}{b}}".
+ * The passes 3 and 5 are applied within one line, as the regular
+ * expressions without DOTALL.
+ */
+public class WikiTokenizer {
+
+    private final static StringBuffer NULL_STRINGBUFFER = new StringBuffer("");
+
+    private final static char[] COMMENT     = "<!--".toCharArray();
+    private final static char[] COMMENT_END = "-->".toCharArray();
+    private final static char[] PRE         = "<pre>".toCharArray();
+    private final static char[] PRE_END     = "</pre>".toCharArray();
+    private final static char[] SOURCE      = "<source".toCharArray();
+    private final static char[] SOURCE_END  = "</source>".toCharArray();
+    private final static char[] CODE        = "<code>".toCharArray();
+    private final static char[] CODE_END    = "</code>".toCharArray();
+    private final static char[] REF         = "<ref>".toCharArray();
+    private final static char[] REF_END     = "</ref>".toCharArray();
+    private final static char[] HTTP        = "http://".toCharArray();
+    private final static char[] TEMPLATE    = "{{".toCharArray();
+
+    private final static char[] IMAGE_EN    = "[[Image:".toCharArray();
+    private final static char[] IMAGE_RU    = "[[Изображение:".toCharArray();
+
+    private final static String w_tables_closed_too_many = "Warning (WikiTokenizer.convertWikiToText()): number of opened brackets '{|' < than closed brackets '|}'";
+    private final static String w_tables_opened_too_many = "Warning (WikiTokenizer.convertWikiToText()): number of opened brackets '{|' > than closed brackets '|}'";
+    private final static String w_image_opened_too_many  = "Warning (WikiTokenizer.convertWikiToText()): number of opened brackets '[[' > than closed brackets ']]' in image";
+
+    private final boolean b_remove_not_expand_iwiki;
+
+    /** Remove [[Category:...]] (English) or [[Категория:...]] (Russian). */
+    private final boolean b_category_en, b_category_ru;
+
+    /** Remove acute accent (Russian). */
+    private final boolean b_remove_accent;
+
+    /** Parse [[Image:...]] (English and Russian), [[Изображение:...]] (Russian). */
+    private final boolean b_image_en, b_image_ru;
+
+    /** The text, there are n characters in the buffer. */
+    private char[] out;
+    private int n;
+
+    /** Current position and the end of the parsed line in the buffer 'out',
+     * and the position of the line terminator (or n, for the last line). */
+    private int rd, rd_end, line_end;
+
+    /** Texts of references &lt;ref>...&lt;/ref>, they are moved to the end of the text. */
+    private StringBuilder refs;
+
+    /** Number of opened tables {|, it is negative if there are too many closed |}. */
+    private int n_table;
+
+    /** Position of the first opened table in the buffer 'out'. */
+    private int table_start;
+
+    /** Number of opened brackets [[ in the image [[Image:...]], 0 - outside image. */
+    private int n_image;
+
+    /** Position of the image description (text after the last pipe |) in the buffer. */
+    private int image_start;
+
+    /** End of the last token [[, ]] or | in the image. */
+    private int image_last;
+
+    /** True if the image has pipe |, i.e. there is a description. */
+    private boolean b_image_desc;
+
+    /** True if [[ was found in the image, i.e. next pipes belong to the description. */
+    private boolean b_image_desc_started;
+
+    private WikiTokenizer(LanguageType lang, boolean _b_remove_not_expand_iwiki)
+    {
+        b_remove_not_expand_iwiki = _b_remove_not_expand_iwiki;
+
+        b_category_en   = lang.equals("en") || lang.equals("simple");
+        b_category_ru   = lang.equals("ru");
+        b_remove_accent = lang == LanguageType.ru;
+        b_image_en      = lang == LanguageType.ru || lang == LanguageType.en || lang == LanguageType.simple;
+        b_image_ru      = lang == LanguageType.ru;
+    }
+
+    /** Removes / expands interwiki, removes categories, templates, tables,
+     * expands wiki links and hyperlinks, see WikiParser.convertWikiToText().
+     *
+     * @param b_remove_not_expand_iwiki if true then removes interwiki,
+     * e.g. "[[et:Talvepalee]] text" -> " text"; else expands interwiki by
+     * removing interwiki brackets and language code,
+     * e.g. "[[et:Talvepalee]] text" -> "Talvepalee text".
+     *
+     * @param  lang defines parsed wiki language, it is needed to remove
+     * category for the selected language, e.g. English (Category).
+     */
+    public static StringBuffer convertWikiToText(
+            StringBuffer wiki_text,
+            LanguageType lang,
+            boolean b_remove_not_expand_iwiki)
+    {
+        if(null == wiki_text || 0 == wiki_text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+
+        WikiTokenizer t = new WikiTokenizer(lang, b_remove_not_expand_iwiki);
+        return t.convert(wiki_text);
+    }
+
+    private StringBuffer convert(StringBuffer wiki_text) {
+
+        n = wiki_text.length();
+        out = new char[n + 16];
+        wiki_text.getChars(0, n, out, 0);
+
+        // 1. elements are removed one kind after another, as by the regular expressions
+        removeElements(COMMENT, COMMENT_END);
+        removeElements(PRE,     PRE_END);
+        removeElements(SOURCE,  SOURCE_END);
+        removeElements(CODE,    CODE_END);
+        moveReferences();
+
+        // 2. templates, tables, acute accent
+        removeTemplates();
+        removeTemplates();      // {{template in {{template}}}}
+        removeTables();
+        if(b_remove_accent)
+            removeAcuteAccent();
+
+        // 3. bold, italic
+        parseLines(true);
+
+        // 4. images
+        if(b_image_en)
+            parseImages(IMAGE_EN);
+        if(b_image_ru)
+            parseImages(IMAGE_RU);
+
+        // 5. wiki links, hyperlinks
+        parseLines(false);
+
+        // trim
+        int b = 0, e = n;
+        while(b < e && out[b] <= ' ')
+            b ++;
+        while(e > b && out[e-1] <= ' ')
+            e --;
+
+        e = replaceCharFromXML(b, e);
+        return new StringBuffer(e - b).append(out, b, e - b);
+    }
+
+
+    // 1. Elements and references
+
+    /** Removes elements which start with 'start' and end with 'end'
+     * (e.g. &lt;!-- comments -->) in place, as the regular expression
+     * "start.+?end" with DOTALL.
+     */
+    private void removeElements(char[] start, char[] end) {
+
+        int i = indexOf(out, 0, n, start);
+        int w = i, r = i;   // write and read positions
+        while(-1 != i) {
+            int j = indexOf(out, i + start.length + 1, n, end);
+            if(-1 == j)
+                break;
+            System.arraycopy(out, r, out, w, i - r);
+            w += i - r;
+            r = j + end.length;
+            i = indexOf(out, r, n, start);
+        }
+        if(-1 != r)
+            cut(w, r);
+    }
+
+    /** Removes the text out[w, r) which is before the rest of the text. */
+    private void cut(int w, int r) {
+        System.arraycopy(out, r, out, w, n - r);
+        n -= r - w;
+    }
+
+    /** Moves texts of references &lt;ref>...&lt;/ref> to the end of the text,
+     * see ReferenceParser.expandMoveToEndOfText().
+     */
+    private void moveReferences() {
+
+        int i = indexOf(out, 0, n, REF);
+        int w = i, r = i;   // write and read positions
+        while(-1 != i) {
+            int j = findReferenceEnd(out, i, n);
+            if(-1 == j) {
+                i = indexOf(out, i + 1, n, REF);
+                continue;
+            }
+            System.arraycopy(out, r, out, w, i - r);
+            w += i - r;
+            addReference(out, i + REF.length, j);
+            r = j + REF_END.length;
+            i = indexOf(out, r, n, REF);
+        }
+        if(-1 == r)
+            return;
+        cut(w, r);
+
+        if(null != refs && refs.length() > 0) {
+            int len = refs.length();
+            if(n + 2 + len > out.length)
+                out = Arrays.copyOf(out, n + 2 + len + 16);
+            out[n++] = '\n';
+            out[n++] = '\n';
+            refs.getChars(0, len, out, n);
+            n += len;
+        }
+        refs = null;
+    }
+
+    private static boolean startsWith(char[] s, int i, int end, char[] prefix) {
+        if(i + prefix.length > end)
+            return false;
+        for(int k=0; k<prefix.length; k++)
+            if(s[i + k] != prefix[k])
+                return false;
+        return true;
+    }
+
+    /** Gets position of the first 'what' found in s[from, end), or -1. */
+    private static int indexOf(char[] s, int from, int end, char[] what) {
+        char c0 = what[0];
+        for(int i = from; i + what.length <= end; i++) {
+            if(c0 == s[i] && startsWith(s, i, end, what))
+                return i;
+        }
+        return -1;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return '\n' == c || '\r' == c || '\u0085' == c || '\u2028' == c || '\u2029' == c;
+    }
+
+    /** Gets end of the reference &lt;ref>...&lt;/ref> (at the position i)
+     * within one line.
+     *
+     * @return position of &lt;/ref>, or -1 if there is no reference at i
+     */
+    private static int findReferenceEnd(char[] s, int i, int end) {
+
+        int from = i + REF.length;
+        for(int j = from; j < end; j++) {
+            if(isLineTerminator(s[j]))
+                return -1;
+            if(j > from && '<' == s[j] && startsWith(s, j, end, REF_END))
+                return j;
+        }
+        return -1;
+    }
+
+    /** Adds text of the reference to the end of text: templates
+     * are removed, also URL like http://... which are not in brackets.
+     *
+     * If the reference contains a template, e.g. &lt;ref>{{cite book |..&lt;/ref>
+     * then the whole reference will be deleted.
+     */
+    private void addReference(char[] s, int from, int to) {
+
+        if(null == refs)
+            refs = new StringBuilder();
+
+        char[] r = s;
+        int i = from, end = to;
+        for(int k = from; k < to; k++) {
+            if('$' == s[k] || '\\' == s[k]) {  // as ReferenceParser.expandMoveToEndOfText()
+                r = StringUtil.escapeCharDollarAndBackslash(new String(s, from, to - from)).
+                                    toString().toCharArray();
+                i = 0;
+                end = r.length;
+                break;
+            }
+        }
+
+        int start = refs.length();
+        while(i < end) {
+            char c = r[i];
+            if('{' == c && i+1 < end && '{' == r[i+1]) {
+                int j = findTemplateEnd(r, i, end);
+                if(-1 != j) {
+                    i = j;
+                    continue;
+                }
+            }
+            refs.append(c);
+            i ++;
+        }
+        removeHTTPURL(start);
+    }
+
+    /** Removes URL like http://... till the space in refs[start, ...),
+     * as the regular expression "\\bhttp://.+?(\\s|$)".
+     */
+    private void removeHTTPURL(int start) {
+
+        int len = refs.length();
+        int w = start;
+        int i = start;
+        while(i < len) {
+            char c = refs.charAt(i);
+            if('h' == c && i + HTTP.length < len &&
+               (i == start || !isWordCharBefore(start, i)) &&
+               startsWithHTTP(i))
+            {
+                int j = getHTTPURLEnd(i + HTTP.length, len);
+                if(-1 != j) {
+                    i = j;
+                    continue;
+                }
+            }
+            refs.setCharAt(w++, c);
+            i ++;
+        }
+        refs.setLength(w);
+    }
+
+    /** Gets end of the URL in refs, the text of URL after "http://" starts
+     * at 'from': one character at least till the whitespace (it is removed
+     * too) or till the end of text.
+     *
+     * @return position after the URL, or -1 if there is no URL
+     */
+    private int getHTTPURLEnd(int from, int len) {
+
+        if(isLineTerminator(refs.charAt(from)))
+            return -1;
+        for(int j = from + 1; j < len; j++) {
+            char c = refs.charAt(j);
+            if(isWhitespace(c))
+                return j + 1;
+            if(isLineTerminator(c))     // '\u0085' etc., $ is before the last one only
+                return j + 1 == len ? j : -1;
+        }
+        return len;
+    }
+
+    private boolean startsWithHTTP(int i) {
+        for(int k=0; k<HTTP.length; k++)
+            if(refs.charAt(i + k) != HTTP[k])
+                return false;
+        return true;
+    }
+
+    /** Returns true if the character before refs[i] is a word character
+     * for the word boundary \\b of java.util.regex: letter, digit, '_', or
+     * non-spacing mark after a letter or digit (refs[start, i) is the text).
+     */
+    private boolean isWordCharBefore(int start, int i) {
+        int c = Character.codePointBefore(refs, i);
+        if('_' == c || Character.isLetterOrDigit(c))
+            return true;
+        if(Character.getType(c) != Character.NON_SPACING_MARK)
+            return false;
+        for(int k = i - 1; k >= start; k--) {
+            c = refs.charAt(k);
+            if(Character.isLetterOrDigit(c))
+                return true;
+            if(Character.getType(c) != Character.NON_SPACING_MARK)
+                return false;
+        }
+        return false;
+    }
+
+    /** Regular expression \s. */
+    private static boolean isWhitespace(char c) {
+        return ' ' == c || '\t' == c || '\n' == c || '\u000B' == c || '\f' == c || '\r' == c;
+    }
+
+    /** Gets end of the template {{...}} at the position i, as the regular
+     * expression "\\{\\{([^\\{]+?)\\}\\}" with DOTALL of
+     * WikiParser.parseCurlyBrackets(): the template contains one character
+     * at least and does not contain '{'.
+     *
+     * @return position after }}, or -1 if there is no template at i
+     */
+    private static int findTemplateEnd(char[] s, int i, int end) {
+
+        for(int j = i + 2; j < end; j++) {
+            char c = s[j];
+            if('{' == c)
+                return -1;
+            if('}' == c && j > i + 2 && j+1 < end && '}' == s[j+1])
+                return j + 2;
+        }
+        return -1;
+    }
+
+
+    // 2. Templates, tables, acute accent
+
+    /** Removes templates {{...}} in place, one level of nested templates is
+     * removed, see WikiParser.parseCurlyBrackets().
+     */
+    private void removeTemplates() {
+
+        int i = indexOf(out, 0, n, TEMPLATE);
+        int w = i, r = i;   // write and read positions
+        while(-1 != i) {
+            int j = findTemplateEnd(out, i, n);
+            if(-1 == j) {
+                i = indexOf(out, i + 1, n, TEMPLATE);
+                continue;
+            }
+            System.arraycopy(out, r, out, w, i - r);
+            w += i - r;
+            r = j;
+            i = indexOf(out, r, n, TEMPLATE);
+        }
+        if(-1 != r)
+            cut(w, r);
+    }
+
+    /** Writes the character at the position n, which is not after
+     * the read position. */
+    private void emit(char c) {
+        out[n++] = c;
+    }
+
+    /** Removes tables, and embedded tables also, e.g.
+     * "{| table 1 \n {| A table in the table 1 \n|}|}",
+     * see TableParser.removeWikiTables().
+     */
+    private void removeTables() {
+
+        int end = n;
+        int i = 0;
+        while(i + 1 < end && !('{' == out[i] && '|' == out[i+1]) && !('|' == out[i] && '}' == out[i+1]))
+            i ++;
+        if(i + 1 >= end)
+            return;
+
+        n = i;
+        while(i < end) {
+            char c = out[i];
+            if('{' == c && i+1 < end && '|' == out[i+1]) {
+                openTable();
+                i += 2;
+            } else if('|' == c && i+1 < end && '}' == out[i+1]) {
+                closeTable();
+                i += 2;
+            } else {
+                emit(c);
+                i ++;
+            }
+        }
+
+        if(n_table < 0) {
+            System.out.println(w_tables_closed_too_many);
+        } else if(n_table > 0) {
+            System.out.println(w_tables_opened_too_many);
+        }
+    }
+
+    private void openTable() {
+        if(0 == n_table) {      // first opened bracket
+            table_start = n;
+        } else {
+            emit('{');
+            emit('|');
+        }
+        n_table ++;
+    }
+
+    private void closeTable() {
+        n_table --;
+        if(0 == n_table) {      // the table is removed
+            n = table_start;
+        } else {
+            emit('|');
+            emit('}');
+            if(n_table < 0)
+                System.out.println(w_tables_closed_too_many);
+        }
+    }
+
+    /** Removes sign of acute accent (Russian), see WikiParser.removeAcuteAccent(). */
+    private void removeAcuteAccent() {
+        int w = 0;
+        for(int i = 0; i < n; i++) {
+            if('\u0301' != out[i])
+                out[w++] = out[i];
+        }
+        n = w;
+    }
+
+
+    // 4. Images
+
+    /** Removes Image tags [[Image:...]] and remains the description of the
+     * image (text after the last pipe), see ImageParser.parseImageDescription().
+     *
+     * @param image_start_tag "[[Image:" or "[[Изображение:"
+     */
+    private void parseImages(char[] image_start_tag) {
+
+        int i = indexOf(out, 0, n, image_start_tag);
+        if(-1 == i)
+            return;
+
+        int end = n;
+        n = i;
+        n_image = 0;
+        while(i < end) {
+            char c = out[i];
+            if(n_image > 0) {
+                if('|' == c) {
+                    imagePipe();
+                    i ++;
+                    continue;
+                }
+                if('[' == c && i+1 < end && '[' == out[i+1]) {
+                    n_image ++;
+                    b_image_desc_started = true;
+                    emit('[');
+                    emit('[');
+                    image_last = n;
+                    i += 2;
+                    continue;
+                }
+                if(']' == c && i+1 < end && ']' == out[i+1]) {
+                    closeImageBrackets();
+                    i += 2;
+                    continue;
+                }
+            } else if('[' == c && startsWith(out, i, end, image_start_tag)) {
+                openImage();
+                i += image_start_tag.length;
+                continue;
+            }
+            emit(c);
+            i ++;
+        }
+
+        if(n_image > 0)
+            System.out.println(w_image_opened_too_many);
+    }
+
+    private void openImage() {
+        n_image = 1;
+        image_start = image_last = n;
+        b_image_desc = false;
+        b_image_desc_started = false;
+    }
+
+    private void imagePipe() {
+        b_image_desc = true;
+        if(b_image_desc_started) {      // pipe within desc, e.g. Image:a.jpg|[[Lemma|Word]]
+            emit('|');
+        } else {                        // start new candidate of description
+            n = image_start;
+        }
+        image_last = n;
+    }
+
+    private void closeImageBrackets() {
+        n_image --;
+        if(n_image > 0) {
+            emit(']');
+            emit(']');
+            image_last = n;
+        } else {
+            if(!b_image_desc)           // [[Image:...]] without description
+                n = image_last;
+        }
+    }
+
+
+    // 3, 5. Line markup
+
+    /** Parses line markup in each line of the buffer.
+     *
+     * @param b_bounds if true then parses '''bold''' and ''italic'' (3),
+     * else [[wiki links]] and [http://site hyperlinks] (5)
+     */
+    private void parseLines(boolean b_bounds) {
+
+        int w = 0;
+        rd = 0;
+        while(rd < n) {
+            line_end = rd;
+            while(line_end < n && !isLineTerminator(out[line_end]))
+                line_end ++;
+
+            // the line is moved from [rd, line_end) to w
+            int line = w;
+            rd_end = line_end;
+            if(b_bounds) {
+                w = parseBounds(line, 3);   // '''bold'''
+
+                rd = line;
+                rd_end = w;
+                w = parseBounds(line, 2);   // ''italic''
+            } else {
+                w = parseDoubleBrackets(line);
+
+                rd = line;
+                rd_end = w;
+                w = parseSingleBrackets(line);
+            }
+
+            if(line_end < n)
+                out[w++] = out[line_end];   // line terminator
+            rd = line_end + 1;
+        }
+        n = w;
+    }
+
+    /** Makes place for len characters at w, the text after rd is moved
+     * if it is needed. */
+    private void makeRoom(int w, int len) {
+        int delta = w + len - rd;
+        if(delta <= 0)
+            return;
+
+        if(n + delta > out.length)
+            out = Arrays.copyOf(out, 2 * (n + delta) + 16);
+        System.arraycopy(out, rd, out, rd + delta, n - rd);
+        n       += delta;
+        rd      += delta;
+        rd_end  += delta;
+        line_end+= delta;
+    }
+
+    /** Writes the string s at w, returns the end of written text. */
+    private int put(int w, String s) {
+        int len = s.length();
+        makeRoom(w, len);
+        s.getChars(0, len, out, w);
+        return w + len;
+    }
+
+    /** Writes the text out[from, to) at w, as Matcher.appendReplacement()
+     * with the text escaped by StringUtil.escapeCharDollarAndBackslash(). */
+    private int putText(int w, int from, int to) {
+        for(int k = from; k < to; k++) {
+            if('\\' == out[k]) {
+                String s = StringUtil.unescapeCharDollarAndBackslash(
+                            StringUtil.escapeCharDollarAndBackslash(
+                                new String(out, from, to - from)).toString());
+                return put(w, s);
+            }
+        }
+        System.arraycopy(out, from, out, w, to - from);
+        return w + to - from;
+    }
+
+    private boolean isRepeated(int i, int k, char c) {
+        if(i + k > rd_end)
+            return false;
+        for(int j = i; j < i + k; j++)
+            if(c != out[j])
+                return false;
+        return true;
+    }
+
+    /** Gets position of the first k characters c from the position 'from', or -1. */
+    private int findRepeated(int from, int k, char c) {
+        for(int j = from; j + k <= rd_end; j++)
+            if(isRepeated(j, k, c))
+                return j;
+        return -1;
+    }
+
+    /** Removes k apostrophes used in pairs, e.g. ''italics'' -> italics,
+     * see WikiParser.parseDoubleApostrophe() and parseTripleApostrophe().
+     *
+     * @return end of the line
+     */
+    private int parseBounds(int w, int k) {
+
+        while(rd < rd_end) {
+            if('\'' == out[rd] && isRepeated(rd, k, '\'')) {
+                int j = findRepeated(rd + k + 1, k, '\'');
+                if(-1 != j) {
+                    int from = rd + k;
+                    rd = j + k;
+                    w = putText(w, from, j);
+                    continue;
+                }
+            }
+            out[w++] = out[rd++];
+        }
+        return w;
+    }
+
+    /** Removes and expands interwiki, categories, and wiki links,
+     * see WikiParser.parseDoubleBrackets().
+     *
+     * @return end of the line
+     */
+    private int parseDoubleBrackets(int w) {
+
+        while(rd < rd_end) {
+            if('[' == out[rd] && isRepeated(rd, 2, '[')) {
+                int j = findRepeated(rd + 3, 2, ']');
+                if(-1 != j) {
+                    int from = rd + 2;
+                    int match_start = rd;
+                    rd = j + 2;
+
+                    int colon = -1, pipe = -1;
+                    for(int k = from; k < j; k++) {
+                        char c = out[k];
+                        if(':' == c) {
+                            colon = k;
+                            break;
+                        }
+                        if('|' == c && -1 == pipe)
+                            pipe = k;
+                    }
+
+                    if(-1 != colon) {
+                        String g = new String(out, from, j - from);
+                        String s = expandColonLink(g);
+                        if(null == s) {         // the link remains as it is
+                            System.arraycopy(out, match_start, out, w, rd - match_start);
+                            w += rd - match_start;
+                        } else
+                            w = put(w, s);
+
+                    } else if(-1 != pipe) {     // [[run|running]] -> running
+                        w = putText(w, pipe + 1, j);
+                    } else {                    // [[run]] -> run
+                        w = putText(w, from, j);
+                    }
+                    continue;
+                }
+            }
+            out[w++] = out[rd++];
+        }
+        return w;
+    }
+
+    /** Expands wiki link with colon, e.g. category, interwiki or link to
+     * Wikimedia sister project.
+     *
+     * @param g text within [[brackets]]
+     * @return text to replace the link, or null if the link remains
+     */
+    private String expandColonLink(String g) {
+
+        g = StringUtil.escapeCharDollarAndBackslash(g).toString();
+        String before = StringUtil.getTextBeforeFirstColumn(g);
+        String after  = StringUtil.getTextAfterFirstColumn(g);
+
+        if( (b_category_en && before.equalsIgnoreCase("Category")) ||
+            (b_category_ru && before.equalsIgnoreCase("Категория")))
+            return "";
+
+        if(WikimediaSisterProject.existsCode(before))
+            return StringUtil.unescapeCharDollarAndBackslash(
+                        WikimediaSisterProject.getLinkText(before, after));
+
+        if(LanguageType.has(before))    // interwiki
+            return b_remove_not_expand_iwiki ? "" :
+                        StringUtil.unescapeCharDollarAndBackslash(after);
+
+        return null;
+    }
+
+    /** Expands / removes hyperlinks. Expands hyperlinks with text, e.g.
+     * "[http:site name of site]" -> " name of site".
+     * Removes links without text, e.g. [www.site],
+     * see WikiParser.parseSingleBrackets().
+     *
+     * @return end of the line
+     */
+    private int parseSingleBrackets(int w) {
+
+        while(rd < rd_end) {
+            if('[' == out[rd]) {
+                int j = -1;
+                for(int k = rd + 2; k < rd_end; k++) {
+                    if(']' == out[k]) {
+                        j = k;
+                        break;
+                    }
+                }
+                if(-1 != j) {
+                    int from = rd + 1;
+                    rd = j + 1;
+
+                    int space = -1;
+                    for(int k = from; k < j; k++) {
+                        if(' ' == out[k]) {
+                            space = k;
+                            break;
+                        }
+                    }
+                    if(-1 != space) {
+                        // text is escaped and appended as is, see WikiParser.parseSingleBrackets()
+                        String g = StringUtil.escapeCharDollarAndBackslash(
+                                        new String(out, space + 1, j - space - 1)).toString();
+                        g = WikiParser.ptrn_site_name.matcher(g).replaceAll(" ").trim();
+                        if(g.length() > 0) {
+                            w = put(w, " ");    // *[http://www.site.com text] -> * SPACE text
+                            w = put(w, g);
+                        }
+                    }
+                    continue;
+                }
+            }
+            out[w++] = out[rd++];
+        }
+        return w;
+    }
+
+
+    // 6. XML characters
+
+    /** Replaces characters &lt;, >, &, ", their expansions &amp;lt; etc.
+     * by space, and &lt;br> by newline in out[b, e), see
+     * XMLTagsParser.replaceCharFromXML().
+     *
+     * @return end of the text
+     */
+    private int replaceCharFromXML(int b, int e) {
+
+        int w = b;
+        for(int i = b; i < e; i++) {
+            char c = out[i];
+            if (' ' == c || '\'' == c || !XMLTag.existsGlyph(c)) {
+                out[w++] = c;
+
+            } else if ('<' == c) {
+                int len = getBRNewlineTagLength(i, e);
+                if (len > 0) {
+                    out[w++] = '\n';
+                    i += len - 1;
+                } else
+                    out[w++] = ' ';
+
+            } else if ('&' == c) {
+                i += Math.max(0, getAmpersandTagLength(i, e) - 1);
+                out[w++] = ' ';
+
+            } else
+                out[w++] = ' ';
+        }
+        return w;
+    }
+
+    /** Gets length of &lt;br />, &lt;br/> or &lt;br> at the position i,
+     * or 0, see XMLTagsParser.isBRNewlineTag(). */
+    private int getBRNewlineTagLength(int i, int e) {
+
+        if(i + 4 > e || 'b' != out[i+1] || 'r' != out[i+2])
+            return 0;
+
+        char ch3 = out[i+3];
+        if('>' == ch3)
+            return 4;
+        if(i + 4 < e) {
+            if('/' == ch3 && '>' == out[i+4])
+                return 5;
+            if(i + 5 < e && ' ' == ch3 && '/' == out[i+4] && '>' == out[i+5])
+                return 6;
+        }
+        return 0;
+    }
+
+    /** Gets length of &amp;lt; &amp;gt; &amp;amp; &amp;quot; &amp;#039;
+     * &amp;nbsp; &amp;ndash; or &amp;mdash; at the position i, or 0,
+     * see XMLTagsParser.isAmpersandTag(). */
+    private int getAmpersandTagLength(int i, int e) {
+
+        if(i + 4 > e)
+            return 0;
+
+        int max = Math.min(e, i + 7);   // the longest tag &ndash; has length 7
+        for(int j = i + 1; j < max; j++) {
+            if(';' == out[j]) {
+                int len = j - i + 1;
+                return XMLTag.existsTag(new String(out, i, len)) ? len : 0;
+            }
+        }
+        return 0;
+    }
+}
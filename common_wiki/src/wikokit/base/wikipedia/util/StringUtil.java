@@ -184,6 +184,28 @@ public class StringUtil {
         return result;
     }
     
+    /** Gets the text which Matcher.appendReplacement() appends for the 
+     * replacement string, i.e. removes escaping backslashes, e.g. "\\$" -> "$".
+     * 
+     * The replacement escaped by escapeCharDollarAndBackslash() gives 
+     * the source text, except the backslash before the dollar: "\$" -> "$".
+     */
+    public static String unescapeCharDollarAndBackslash(String text){
+        if (null == text || -1 == text.indexOf('\\')) {
+            return text;
+        }
+        int len = text.length();
+        StringBuilder result = new StringBuilder(len);
+        for(int i=0; i<len; i++) {
+            char c = text.charAt(i);
+            if ('\\' == c && i+1 < len) {
+                c = text.charAt(++i);
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+    
     
     /** Substitutes spaces by underscore character */
     public static String spaceToUnderscore(String text) {
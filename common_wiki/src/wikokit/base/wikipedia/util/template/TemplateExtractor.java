@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import wikokit.base.wikipedia.text.WikiStructure;
 import wikokit.base.wikipedia.util.StringUtil;
 
 /** Set of functions to extract {{template data|from the text}} with known location (position) in text.
@@ -154,13 +155,22 @@ public class TemplateExtractor {
      */    
     public static TemplateExtractor getFirstTemplateByName(String page_title, String template_name, String text) {
         
-        String s = "{{" + template_name + "|";
-        int len = s.length();
-        
-        int start_pos = text.indexOf(s);
+        int start_pos = text.indexOf("{{" + template_name + "|");
         if(-1 == start_pos)        // ^ start_pos
             return null;
         
+        return getTemplateByNameAt(template_name, text, start_pos);
+    }
+    
+    /** Gets parameters of the template {{template_name|parameters...}}
+     * which starts at the position 'start_pos' of the source string 'text'.
+     * 
+     * @return null if the template is not closed or have empty parameters
+     */
+    private static TemplateExtractor getTemplateByNameAt(String template_name, String text, int start_pos) {
+        
+        int len = template_name.length() + 3;  // "{{" + template_name + "|"
+        
         int end_pos = text.indexOf("}}", start_pos + len);
         if(-1 == end_pos)        // ^ end_pos
             return null;
@@ -233,6 +243,40 @@ public class TemplateExtractor {
         return ((TemplateExtractor[])result.toArray(NULL_TE_ARRAY));
     }
     
+    /** Gets array of templates {{template_name|parameters...}} as
+     * getAllTemplatesByName(page_title, template_name, text), but positions of
+     * templates are taken from the index of the text, so the text is not
+     * searched and copied for each template.
+     * 
+     * @param ws index of templates of the source text, see WikiStructure.scan(text)
+     * @return empty array TemplateExtractor[] if this template is absent in the source text or have empty parameters
+     */
+    public static TemplateExtractor[] getAllTemplatesByName(String page_title, String template_name, String text, WikiStructure ws) {
+        
+        String s = "{{" + template_name + "|";
+        int end_pos = -1;
+        
+        Collection<TemplateExtractor> result = null;
+        for(WikiStructure.Template wt : ws.getTemplates(template_name)) {
+            int start_pos = wt.getStart();
+            if(start_pos <= end_pos || !text.startsWith(s, start_pos))
+                continue;   // nested in the previous template or "{{template_name}}"
+            
+            TemplateExtractor t = getTemplateByNameAt(template_name, text, start_pos);
+            if(null == t)
+                break;      // the same as getAllTemplatesByName(): stop at the template without parameters
+            
+            if(null == result)
+                result = new ArrayList<>();
+            result.add( t );
+            end_pos = t.end_pos;
+        }
+        
+        if(null == result)
+            return NULL_TE_ARRAY;
+        return ((TemplateExtractor[])result.toArray(NULL_TE_ARRAY));
+    }
+    
     /** Removes substring {{template text}} from the source 'text', trims result string.
      * !Attention: variable 'te' should be created by function getFirstTemplate().
      * 
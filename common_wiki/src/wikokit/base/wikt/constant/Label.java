@@ -7,6 +7,7 @@
 package wikokit.base.wikt.constant;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import wikokit.base.wikipedia.language.LanguageType;
@@ -162,7 +163,7 @@ public abstract class Label {
     /** The set of unknown labels, which were found during parsing.
      * It should be only one message for one unknown label (for concise logging).
      */
-    private static Set<String> unknown_label = new HashSet<String>();
+    private static Set<String> unknown_label = Collections.synchronizedSet(new HashSet<String>());
 
     /** Checks weather exists the unknown label 'label'. */
     public static boolean hasUnknownLabel(String label) {
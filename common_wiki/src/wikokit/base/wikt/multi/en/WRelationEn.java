@@ -11,6 +11,7 @@ import wikokit.base.wikt.constant.Relation;
 import wikokit.base.wikt.word.WRelation;
 
 import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.text.WikiStructure;
 import wikokit.base.wikt.util.POSText;
 import wikokit.base.wikt.util.WikiText;
 
@@ -39,53 +40,9 @@ public class WRelationEn {
 
     private final static Map<Relation, WRelation[]> NULL_MAP_RELATION_WRELATION_ARRAY = new HashMap<Relation, WRelation[]>();
 
-    /** Gets position after       ====Synonyms==== */
-    private final static Pattern ptrn_synonymy = Pattern.compile(
-                      "(?m)^={3,5}\\s*Synonyms\\s*={3,5}\\s*$");
-
-    /** Gets position after       ====Antonyms==== */
-    private final static Pattern ptrn_antonymy = Pattern.compile(
-                      "(?m)^={3,5}\\s*Antonyms\\s*={3,5}\\s*$");
-
-    /** Gets position after       ====Hypernyms==== */
-    private final static Pattern ptrn_hypernymy = Pattern.compile(
-                      "(?m)^={3,5}\\s*Hypernyms\\s*={3,5}\\s*$");
-
-    /** Gets position after       ====Hyponyms==== */
-    private final static Pattern ptrn_hyponymy = Pattern.compile(
-                      "(?m)^={3,5}\\s*Hyponyms\\s*={3,5}\\s*$");
-    
-    /** Gets position after       ====Holonyms==== */
-    private final static Pattern ptrn_holonymy = Pattern.compile(
-                      "(?m)^={3,5}\\s*Holonyms\\s*={3,5}\\s*$");
-
-    /** Gets position after       ====Meronyms==== */
-    private final static Pattern ptrn_meronymy = Pattern.compile(
-                      "(?m)^={3,5}\\s*Meronyms\\s*={3,5}\\s*$");
-
-    /** Gets position after       ====Troponyms==== */
-    private final static Pattern ptrn_troponymy = Pattern.compile(
-                      "(?m)^={3,5}\\s*Troponyms\\s*={3,5}\\s*$");
-
-    /** Gets position after       ====Coordinate terms==== */
-    private final static Pattern ptrn_coordinate_term = Pattern.compile(
-                      "(?m)^={3,5}\\s*Coordinate\\s+terms\\s*={3,5}\\s*$");
-    
-    /** Gets position after       ====See also==== */
-    private final static Pattern ptrn_see_also = Pattern.compile(
-                      "(?m)^={3,5}\\s*See\\s+also\\s*={3,5}\\s*$");
-
-    /** Gets position after       ====Derived terms==== */
-    private final static Pattern ptrn_derived_terms = Pattern.compile(
-                      "(?m)^={3,5}\\s*Derived\\s+terms\\s*={3,5}\\s*$");
-
-    /** Gets position after       ====Related terms==== */
-    private final static Pattern ptrn_related_terms = Pattern.compile(
-                      "(?m)^={3,5}\\s*Related\\s+terms\\s*={3,5}\\s*$");
-    
-    /** Gets position after       ====Translations==== */
-    private final static Pattern ptrn_translations = Pattern.compile(
-                      "(?m)^={3,5}\\s*Translations\\s*={3,5}\\s*$");
+    /** Headers of relations, e.g. ====Synonyms====, levels 3-5, i.e. the
+     * header found by "(?m)^={3,5}\s*Synonyms\s*={3,5}\s*$" */
+    private final static int RELATION_MIN_LEVEL = 3, RELATION_MAX_LEVEL = 5;
 
     /** The begin of any list of semantic relations: "* " */
     private final static Pattern ptrn_line_start = Pattern.compile(
@@ -131,106 +88,71 @@ public class WRelationEn {
         }
 
         // gets text till ====Translations====
-        String text = null;
-        Matcher m = ptrn_translations.matcher(text_source_sb.toString());
-        if(!m.find())              // the section Translations is absent!
-            text = text_source_sb.toString();
-        else
-            text = text_source_sb.substring(0, m.start());
+        WikiStructure ws = pt.getStructure();   // headers are found once for all relations
+        String text = substrTillFirstHeader(text_source_sb.toString(), ws, "Translations");
 
         Map<Relation, WRelation[]> m_rel = new HashMap<Relation, WRelation[]>();        
         WRelation[] r;
         
         // synonymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_synonymy, Relation.synonymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Synonyms", Relation.synonymy);
         if(0 < r.length) m_rel.put(Relation.synonymy, r);
 
         // antonymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_antonymy, Relation.antonymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Antonyms", Relation.antonymy);
         if(0 < r.length) m_rel.put(Relation.antonymy, r);
 
         // hypernymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_hypernymy, Relation.hypernymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Hypernyms", Relation.hypernymy);
         if(0 < r.length) m_rel.put(Relation.hypernymy, r);
 
         // hyponymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_hyponymy, Relation.hyponymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Hyponyms", Relation.hyponymy);
         if(0 < r.length) m_rel.put(Relation.hyponymy, r);
 
         // holonymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_holonymy, Relation.holonymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Holonyms", Relation.holonymy);
         if(0 < r.length) m_rel.put(Relation.holonymy, r);
 
         // meronymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_meronymy, Relation.meronymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Meronyms", Relation.meronymy);
         if(0 < r.length) m_rel.put(Relation.meronymy, r);
 
         // troponymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_troponymy, Relation.meronymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Troponyms", Relation.meronymy);
         if(0 < r.length) m_rel.put(Relation.troponymy, r);
         
         // coordinate_term
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_coordinate_term, Relation.meronymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Coordinate terms", Relation.meronymy);
         if(0 < r.length) m_rel.put(Relation.coordinate_term, r);
         
         // gets text till min(====Derived terms====, ====Related terms====),
         //      since "See also" can be used not only for semanticrelations,
         //      but also for etymologically related words
-        text = WRelationEn.substrTillFirstMatch(text, ptrn_derived_terms,
-                                                      ptrn_related_terms);
-
-        /*boolean b_found = false;
-        int pos1, pos2;
-        pos1 = pos2 = text.length();
-
-        m = ptrn_derived_terms.matcher(text);
-        if(m.find()) {
-            pos1 = m.start();
-            b_found = true;
-        }
+        text = substrTillFirstHeader(text, ws, "Derived terms", "Related terms");
 
-        m = ptrn_related_terms.matcher(text);
-        if(m.find()) {
-            pos2 = m.start();
-            b_found = true;
-        }
-
-        if(b_found)
-            text = text.substring(0, Math.min(pos1, pos2));
-*/
         // otherwise_related (see also)
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_see_also, Relation.meronymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "See also", Relation.meronymy);
         if(0 < r.length) m_rel.put(Relation.otherwise_related, r);
 
         return m_rel;
     }
 
-    /** Gets text till the first match defined by patterns ptrn1 and ptr2.
-     * If match fails then return the source text string.
+    /** Gets text till the first header (levels 3-5) with one of the names.
+     * If the headers are absent then return the source text string.
+     *
+     * @param ws    index of headers of the text
      */
-    public static String substrTillFirstMatch (
-                    String text, Pattern  ptrn1, Pattern  ptrn2)
+    private static String substrTillFirstHeader (
+                    String text, WikiStructure ws, String... names)
     {
-        boolean b_found = false;
-        int pos1, pos2;
-        pos1 = pos2 = text.length();
-
-        Matcher m = ptrn1.matcher(text);
-        if(m.find()) {
-            pos1 = m.start();
-            b_found = true;
-        }
-
-        m = ptrn2.matcher(text);
-        if(m.find()) {
-            pos2 = m.start();
-            b_found = true;
+        int pos = text.length();
+        for(String name : names) {
+            WikiStructure.Header h = ws.getHeader(name, RELATION_MIN_LEVEL, RELATION_MAX_LEVEL);
+            if(null != h)
+                pos = Math.min(pos, h.getStart());
         }
-
-        if(b_found)
-            return text.substring(0, Math.min(pos1, pos2));
-
-        return text;
+        return text.substring(0, pos);
     }
     
     /** Parses text (related to the POS), creates and fill array of
@@ -240,7 +162,8 @@ public class WRelationEn {
      * @param page_title    word which are described in this article 'text'
      * @param lang_section  language of this section of an article
      * @param text          text of wiki article related to one POS
-     * @param relation_header_pattern regular expression to find the header of semantic relation
+     * @param ws            index of headers of the text
+     * @param relation_header name of the header of semantic relation, e.g. "Synonyms"
      * @param relation type of parsing relation, e.g. synonymy
      * @return an empty array if relations are absent
      */
@@ -248,25 +171,25 @@ public class WRelationEn {
                     LanguageType wikt_lang,
                     String page_title,
                     String text,
-                    Pattern  relation_header_pattern,
+                    WikiStructure ws,
+                    String   relation_header,
                     Relation relation)
     {
         // e.g.: 
         // ====Synonyms====                         // ==== Level IV. Relation ====
         
         // 1. gets position in text after e.g. ====Synonyms====
-        Matcher m = relation_header_pattern.matcher(text);
-        boolean b_next = m.find();
+        WikiStructure.Header h = ws.getHeader(relation_header, RELATION_MIN_LEVEL, RELATION_MAX_LEVEL);
 
-        if(!b_next) {   // the section is absent!
+        if(null == h) {   // the section is absent!
             //System.out.println("Warning in WRelationRu.parse(): The article '"+
             //            page_title + "' has no section ====Synonyms====.");
             return NULL_WRELATION_ARRAY;
         }
 
         // 1. get text till (1) next header or (2) empty line
-        String relation_text = StringUtilRegular.getTextTillFirstHeaderOrEmptyLine(m.end()+1, text);
-        if(0 == relation_text.length()) {                                   // skip \n => +1
+        String relation_text = StringUtilRegular.getTextTillFirstHeaderOrEmptyLine(h.getContentStart(), text);
+        if(0 == relation_text.length()) {
             return NULL_WRELATION_ARRAY;
         }
 
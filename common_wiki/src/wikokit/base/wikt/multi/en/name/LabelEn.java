@@ -9,6 +9,7 @@ package wikokit.base.wikt.multi.en.name;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Set;
 import wikokit.base.wikt.constant.Label;
@@ -32,20 +33,20 @@ import wikokit.base.wikt.constant.LabelCategory;
  */
 public final class LabelEn extends Label {       
     
-    protected final static Map<String, Label> short_name2label = new HashMap<String, Label>();
-    protected final static Map<Label, String> label2short_name = new HashMap<Label, String>();
+    protected final static Map<String, Label> short_name2label = Collections.synchronizedMap(new HashMap<String, Label>());
+    protected final static Map<Label, String> label2short_name = Collections.synchronizedMap(new HashMap<Label, String>());
     
-    protected final static Map<String, Label> name2label = new HashMap<String, Label>();
-    protected final static Map<Label, String> label2name = new HashMap<Label, String>();
+    protected final static Map<String, Label> name2label = Collections.synchronizedMap(new HashMap<String, Label>());
+    protected final static Map<Label, String> label2name = Collections.synchronizedMap(new HashMap<Label, String>());
     
     /** If there are more than one context label (synonyms,  short name label): <synonymic_label, source_main_unique_label> */
-    private static Map<String, Label> multiple_synonym2label = new HashMap<String, Label>();
+    private static Map<String, Label> multiple_synonym2label = Collections.synchronizedMap(new HashMap<String, Label>());
     
     
     /** Category associated with this label. */
     private final LabelCategory category;
     //                                                                    LabelEn in fact
-    private static Map<Label, LabelCategory> label2category = new HashMap<Label, LabelCategory>();
+    private static Map<Label, LabelCategory> label2category = Collections.synchronizedMap(new HashMap<Label, LabelCategory>());
     
     /** Constructor for static context labels listed in this file below.
      */
@@ -12,6 +12,7 @@ import java.util.Collection;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import wikokit.base.wikt.constant.Image;
+import wikokit.base.wikipedia.text.WikiStructure;
 import wikokit.base.wikipedia.util.template.TemplateExtractor;
 import wikokit.base.wikt.word.WMeaning;
 
@@ -33,9 +34,9 @@ public final class ImageParserRu {
     
     static class MeaningNumberInCaption {
         
-        static public String caption_without_number;
+        public String caption_without_number;
         
-        static public int meaning_number;
+        public int meaning_number;
                                                           //       \[\d+\]
         private final static Pattern ptrn_digit = Pattern.compile("\\[(\\d+)\\]");
         
@@ -45,7 +46,7 @@ public final class ImageParserRu {
          * 
          * @return true if [meaning number] was found in the caption
          */
-        static public boolean parse(String caption) {
+        public boolean parse(String caption) {
             
             // "3rd object's caption [3]" -> "3rd object's caption"
             
@@ -106,16 +107,23 @@ public final class ImageParserRu {
      * @return 
      */
     public static Image[] getFilenameAndCaptionFromText(String page_title, String text) {
+        return getFilenameAndCaptionFromText(page_title, text, WikiStructure.scan(text));
+    }
+    
+    /** Gets information about images as getFilenameAndCaptionFromText(page_title, text),
+     * image templates are found by the index of templates 'ws' of the text.
+     */
+    public static Image[] getFilenameAndCaptionFromText(String page_title, String text, WikiStructure ws) {
         
         // 1. modern variant: template case {{илл|filename|caption [meaning number]}}
         String _filename, _caption;
                 
         String template_name = "илл";
-        TemplateExtractor[] te = TemplateExtractor.getAllTemplatesByName(page_title, template_name, text);
+        TemplateExtractor[] te = TemplateExtractor.getAllTemplatesByName(page_title, template_name, text, ws);
         
         if(0 == te.length) {
             template_name = "илл."; // synonym templates: "илл" and "илл."
-            te = TemplateExtractor.getAllTemplatesByName(page_title, template_name, text);
+            te = TemplateExtractor.getAllTemplatesByName(page_title, template_name, text, ws);
             if(0 == te.length)
                 return NULL_IMAGE_ARRAY;
         }
@@ -166,9 +174,10 @@ public final class ImageParserRu {
                 if(_caption.length() > 4 &&     // at least len("word [N]") > 4 &&
                        -1 == _meaning_number)   // there is no parameter 'meaning number'
                 {
-                    if(ImageParserRu.MeaningNumberInCaption.parse(_caption)) {
-                        _meaning_number = ImageParserRu.MeaningNumberInCaption.meaning_number;
-                        _caption        = ImageParserRu.MeaningNumberInCaption.caption_without_number;
+                    MeaningNumberInCaption caption_number = new MeaningNumberInCaption();
+                    if(caption_number.parse(_caption)) {
+                        _meaning_number = caption_number.meaning_number;
+                        _caption        = caption_number.caption_without_number;
                     }
                 }
             }
@@ -12,17 +12,16 @@ import wikokit.base.wikt.multi.en.name.LabelEn;
 import wikokit.base.wikt.word.WMeaning;
 import wikokit.base.wikt.word.WQuote;
 import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.text.WikiStructure;
 import wikokit.base.wikt.util.POSText;
 import wikokit.base.wikt.util.Definition;
 
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
-
 import java.util.List;
 import java.util.ArrayList;
 import wikokit.base.wikt.constant.Label;
 import wikokit.base.wikt.constant.Image;
 import wikokit.base.wikt.util.LabelsText;
+import wikokit.base.wikt.util.ParseMetrics;
 
 /** Meaning consists of <PRE>
  * # Definition (preceded by "#", which causes automatic numbering).
@@ -32,9 +31,9 @@ public class WMeaningRu {
     
     private final static WMeaning[] NULL_WMEANING_ARRAY = new WMeaning[0];
 
-    /** Gets position after ==== Значение ==== */
-    private final static Pattern ptrn_meaning_4th_level = Pattern.compile(
-            "====?\\s*Значение\\s*====?\\s*\\n");
+    /** Header ==== Значение ==== of levels 3-4, i.e. the header found by
+     * "====?\s*Значение\s*====?\s*\n" */
+    private final static int MEANING_MIN_LEVEL = 3, MEANING_MAX_LEVEL = 4;
 
     
     /** Parses text (related to the POS), creates and fill array of meanings (WMeaning).
@@ -61,7 +60,7 @@ public class WMeaningRu {
         }
         
         // 0. gets all pictures from templates: {{илл|}}
-        Image[] images = ImageParserRu.getFilenameAndCaptionFromText(page_title, text.toString());
+        Image[] images = ImageParserRu.getFilenameAndCaptionFromText(page_title, text.toString(), pt.getStructure());
         //if(images[index].filename is valid    and 
         //            .caption is presented and
         //            .meaning_number == index) {
@@ -69,10 +68,9 @@ public class WMeaningRu {
         //}
         
         // 1. gets position in text after ==== Значение ====
-        Matcher m = ptrn_meaning_4th_level.matcher(text.toString());
-        boolean b_next = m.find();
+        WikiStructure.Header h = pt.getStructure().getHeaderLoose("Значение", MEANING_MIN_LEVEL, MEANING_MAX_LEVEL);
 
-        if(!b_next) {   // there is no definition section!
+        if(null == h) {   // there is no definition section!
             //System.out.println("Warning in WMeaningRu.parse(): The article '" +
             //            page_title + "', language section '" +
             //            lang_section.toString() + "' has no section ==== Значение ====.");
@@ -80,7 +78,7 @@ public class WMeaningRu {
         }
         
         int len = text.length();
-        int prev_eol = m.end();         // previous end of line
+        int prev_eol = h.getContentStart(); // previous end of line
         
         if(len < prev_eol+3 || text.substring(prev_eol,prev_eol+3).equalsIgnoreCase("==="))
             return NULL_WMEANING_ARRAY; // the definition section is empty!
@@ -157,7 +155,9 @@ public class WMeaningRu {
         if(line.startsWith("{{морфема"))
             return null;    // skip now, todo (parse) in future
 
+        long t = ParseMetrics.start();
         LabelsText label_text = LabelRu.extractLabelsTrimText(page_title, line);
+        ParseMetrics.stop("parse.meaning.label", t);
         if(null == label_text)
             return null;
         line = label_text.getText();
@@ -172,7 +172,9 @@ public class WMeaningRu {
         //WikiWord[] ww = WikiWord.getWikiWords(page_title, new StringBuffer(wiki_definition));
 
         // 5. extract quotations
-        WQuote[] quote = WQuoteRu.getQuotes(page_title, line);        
+        t = ParseMetrics.start();
+        WQuote[] quote = WQuoteRu.getQuotes(page_title, line);
+        ParseMetrics.stop("parse.meaning.quote", t);
 
         return new WMeaning(page_title, label_text.getLabels(), wiki_definition, quote, false);
     }
@@ -11,6 +11,7 @@ import wikokit.base.wikt.constant.Relation;
 import wikokit.base.wikt.word.WRelation;
 
 import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.text.WikiStructure;
 import wikokit.base.wikt.util.POSText;
 import wikokit.base.wikt.util.WikiText;
 
@@ -41,14 +42,9 @@ public class WRelationRu {
 
     private final static Map<Relation, WRelation[]> NULL_MAP_RELATION_WRELATION_ARRAY = new HashMap<Relation, WRelation[]>();
 
-    /** Gets position after ==== Синонимы ==== */
-    private final static Pattern ptrn_synonymy  = Pattern.compile("===?=?\\s*Синонимы\\s*===?=?\\s*\\n");
-    private final static Pattern ptrn_antonymy  = Pattern.compile("===?=?\\s*Антонимы\\s*===?=?\\s*\\n");
-    private final static Pattern ptrn_hypernymy = Pattern.compile("===?=?\\s*Гиперонимы\\s*===?=?\\s*\\n");
-    private final static Pattern ptrn_hyponymy  = Pattern.compile("===?=?\\s*Гипонимы\\s*===?=?\\s*\\n");
-    private final static Pattern ptrn_coordinate_term = Pattern.compile("===?=?\\s*Согипонимы\\s*===?=?\\s*\\n");
-    private final static Pattern ptrn_holonymy  = Pattern.compile("===?=?\\s*Холонимы\\s*===?=?\\s*\\n");
-    private final static Pattern ptrn_meronymy  = Pattern.compile("===?=?\\s*Меронимы\\s*===?=?\\s*\\n");
+    /** Headers of relations: ==== Синонимы ====, levels 2-4,
+     * e.g. the header found by "===?=?\s*Синонимы\s*===?=?\s*\n" */
+    private final static int RELATION_MIN_LEVEL = 2, RELATION_MAX_LEVEL = 4;
     
     /** Two main patterns for synonyms with labels */
     // private final static Pattern ptrn_labels  = Pattern.compile("(?<label>[^:]+):(?<word>.+)");
@@ -93,35 +89,36 @@ public class WRelationRu {
         
         Map<Relation, WRelation[]> m_rel = new HashMap<Relation, WRelation[]>();
         String text = text_source_sb.toString();
+        WikiStructure ws = pt.getStructure();   // headers are found once for all relations
 
         WRelation[] r;
 
         // synonymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_synonymy, Relation.synonymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Синонимы", Relation.synonymy);
         if(0 < r.length) m_rel.put(Relation.synonymy, r);
         
         // antonymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_antonymy, Relation.antonymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Антонимы", Relation.antonymy);
         if(0 < r.length) m_rel.put(Relation.antonymy, r);
 
         // hypernymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_hypernymy, Relation.hypernymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Гиперонимы", Relation.hypernymy);
         if(0 < r.length) m_rel.put(Relation.hypernymy, r);
 
         // hyponymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_hyponymy, Relation.hyponymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Гипонимы", Relation.hyponymy);
         if(0 < r.length) m_rel.put(Relation.hyponymy, r);
         
         // coordinate term
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_coordinate_term, Relation.coordinate_term);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Согипонимы", Relation.coordinate_term);
         if(0 < r.length) m_rel.put(Relation.coordinate_term, r);
                 
         // holonymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_holonymy, Relation.holonymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Холонимы", Relation.holonymy);
         if(0 < r.length) m_rel.put(Relation.holonymy, r);
 
         // meronymy
-        r = parseOneKindOfRelation (wikt_lang, page_title, text, ptrn_meronymy, Relation.meronymy);
+        r = parseOneKindOfRelation (wikt_lang, page_title, text, ws, "Меронимы", Relation.meronymy);
         if(0 < r.length) m_rel.put(Relation.meronymy, r);
         
         return m_rel;
@@ -134,7 +131,8 @@ public class WRelationRu {
      * @param page_title    word which are described in this article 'text'
      * @param lang_section  language of this section of an article
      * @param text          text of wiki article related to one POS
-     * @param relation_header_pattern regular expression to find the header of semantic relation
+     * @param ws            index of headers of the text
+     * @param relation_header name of the header of semantic relation, e.g. "Синонимы"
      * @param relation type of parsing relation, e.g. synonymy
      * @return an empty array if relations are absent
      */
@@ -142,24 +140,24 @@ public class WRelationRu {
                     LanguageType wikt_lang,
                     String page_title,
                     String text,
-                    Pattern  relation_header_pattern,
+                    WikiStructure ws,
+                    String   relation_header,
                     Relation relation)
     {
         // ===Семантические свойства===
         // ====Синонимы====                         // ==== Level IV. Relation ====
 
         // 1. gets position in text after e.g. ====Синонимы====
-        Matcher m = relation_header_pattern.matcher(text);
-        boolean b_next = m.find();
+        WikiStructure.Header h = ws.getHeaderLoose(relation_header, RELATION_MIN_LEVEL, RELATION_MAX_LEVEL);
 
-        if(!b_next) {   // the section is absent!
+        if(null == h) {   // the section is absent!
             //System.out.println("Warning in WRelationRu.parse(): The article '"+
             //            page_title + "' has no section ====Синонимы====.");
             return NULL_WRELATION_ARRAY;
         }
 
         // 1. get text till (1) next header or (2) empty line
-        String relation_text = StringUtilRegular.getTextTillFirstHeaderOrEmptyLine(m.end(), text);
+        String relation_text = StringUtilRegular.getTextTillFirstHeaderOrEmptyLine(h.getContentStart(), text);
         if(0 == relation_text.length()) {
             return NULL_WRELATION_ARRAY;
         }
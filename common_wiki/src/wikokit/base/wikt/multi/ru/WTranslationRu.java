@@ -8,6 +8,7 @@
 package wikokit.base.wikt.multi.ru;
 
 import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.text.WikiStructure;
 import wikokit.base.wikipedia.util.StringUtilRegular;
 import wikokit.base.wikt.util.POSText;
 import wikokit.base.wikt.word.WTranslation;
@@ -28,9 +29,9 @@ public class WTranslationRu {
     private final static WTranslation[]      NULL_WTRANSLATION_ARRAY      = new WTranslation[0];
     private final static WTranslationEntry[] NULL_WTRANSLATIONENTRY_ARRAY = new WTranslationEntry[0];
 
-    /** Gets position after === Перевод === */
-    private final static Pattern ptrn_translation_3th_level = Pattern.compile(
-            "===?\\s*Перевод\\s*===?\\s*\\n");
+    /** Header === Перевод === of levels 2-3, i.e. the header found by
+     * "===?\s*Перевод\s*===?\s*\n" */
+    private final static int TRANSLATION_MIN_LEVEL = 2, TRANSLATION_MAX_LEVEL = 3;
 
     
     /** Gets a header of translation box template "{{перев-блок|header"
@@ -69,10 +70,9 @@ public class WTranslationRu {
 
         // 1. gets position in text after === Перевод ===
         String text_source = text_source_sb.toString();
-        Matcher m = ptrn_translation_3th_level.matcher(text_source_sb);
-        boolean b_next = m.find();
+        WikiStructure.Header h = pt.getStructure().getHeaderLoose("Перевод", TRANSLATION_MIN_LEVEL, TRANSLATION_MAX_LEVEL);
 
-        if(!b_next) {   // there is no translation section!
+        if(null == h) {   // there is no translation section!
             //if(lang_section == LanguageType.ru) // too often warning, so skip it
                 //System.out.println("Warning in WTranslationRu.parse(): The Russian word '"+
                 //        page_title + "' has no section === Перевод ===.");
@@ -88,7 +88,7 @@ public class WTranslationRu {
 
         // x = gets position of the next 2nd or 3rd level block == See also or Bibliography ==
         // gets text till x of the last brackets: "}}"
-        String text = StringUtilRegular.getTextTillFirstHeaderPosition(m.end(), text_source);
+        String text = StringUtilRegular.getTextTillFirstHeaderPosition(h.getContentStart(), text_source);
         
         int len = text.length();
         if(0 == len) {
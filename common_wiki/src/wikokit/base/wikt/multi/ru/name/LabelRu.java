@@ -10,6 +10,7 @@ package wikokit.base.wikt.multi.ru.name;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,17 +32,17 @@ import wikokit.base.wikt.util.LabelsText;
  */
 public final class LabelRu extends LabelLocal  {
     
-    protected final static Map<String, Label> short_name2label = new HashMap<String, Label>();
-    protected final static Map<Label, String> label2short_name = new HashMap<Label, String>();
+    protected final static Map<String, Label> short_name2label = Collections.synchronizedMap(new HashMap<String, Label>());
+    protected final static Map<Label, String> label2short_name = Collections.synchronizedMap(new HashMap<Label, String>());
     
-    protected final static Map<String, Label> name2label = new HashMap<String, Label>();
-    protected final static Map<Label, String> label2name = new HashMap<Label, String>();
+    protected final static Map<String, Label> name2label = Collections.synchronizedMap(new HashMap<String, Label>());
+    protected final static Map<Label, String> label2name = Collections.synchronizedMap(new HashMap<Label, String>());
     
     /** If there are more than one context label (synonyms,  short name label): <synonymic_label, source_main_unique_label> */
-    private static Map<String, Label> multiple_synonym2label = new HashMap<String, Label>();
+    private static Map<String, Label> multiple_synonym2label = Collections.synchronizedMap(new HashMap<String, Label>());
     
     /** Label translation: from English label to local label */
-    protected static Map<Label, Label> translation_en2local = new HashMap<Label, Label>();
+    protected static Map<Label, Label> translation_en2local = Collections.synchronizedMap(new HashMap<Label, Label>());
     
     private final static Label[] NULL_LABEL_ARRAY = new Label[0];
     private final static List<Label> NULL_LABEL_LIST = new ArrayList<>(0);
@@ -298,11 +299,20 @@ public final class LabelRu extends LabelLocal  {
         if(null == str || str.length() == 0)
             return null;
                 
-        if(LabelRu.hasShortName( str ))
-            return LabelRu.getByShortName( str );
-        
       //return new LabelEn(page_title, str, LabelCategory.unknown); // let's create new context label
-        return new LabelRu(page_title, str);                        // let's create new context label
+        return getOrCreate(page_title, str);
+    }
+    
+    /** Gets known label by the short name or creates new context label.
+     * The check and the creation are done atomically, since pages 
+     * can be parsed by several threads (see wikt.parser.ParsePipeline).
+     */
+    private static synchronized Label getOrCreate(String page_title, String short_name)
+    {
+        if(LabelRu.hasShortName( short_name ))
+            return LabelRu.getByShortName( short_name );
+        
+        return new LabelRu(page_title, short_name);     // let's create new context label
     }
     
     
@@ -436,12 +446,8 @@ public final class LabelRu extends LabelLocal  {
             if (result_labels.length>0) {
                 _labels.add(result_labels[0]);
             } else {
-                if(LabelRu.hasShortName( l )) {
-                    _labels.add(LabelRu.getByShortName( l ));
-                } else {
-                    // if this is an unusual label, then add it to the table of labels
-                    _labels.add( new LabelRu( page_title, l ) );    // let's create new context label
-                }
+                // if this is an unusual label, then add it to the table of labels
+                _labels.add( getOrCreate( page_title, l ) );
             }
         }
         
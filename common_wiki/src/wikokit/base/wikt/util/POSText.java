@@ -8,6 +8,7 @@ package wikokit.base.wikt.util;
 
 //import wikt.constant.POSType;
 import wikokit.base.wikt.constant.POS;
+import wikokit.base.wikipedia.text.WikiStructure;
 
 /** Data structure consists of a POS code and the corresponding text.  */
 public class POSText {
@@ -21,6 +22,10 @@ public class POSText {
     /** Text */
     private StringBuffer text;
     
+    /** Index of headers and templates of the text, it is created by the
+     * first call of getStructure() and shared by parsers of this POS section. */
+    private WikiStructure structure;
+    
     public POSText() {}
     
     /*public POSText(POSType _pos) { //, StringBuffer _text) {
@@ -48,4 +53,13 @@ public class POSText {
         return text;
     }
 
+    /** Gets index of headers and templates of the text, the text is scanned
+     * only once (for definitions, relations, translations, etc.).
+     */
+    public WikiStructure getStructure() {
+        if(null == structure)
+            structure = WikiStructure.scan(text);
+        return structure;
+    }
+
 }
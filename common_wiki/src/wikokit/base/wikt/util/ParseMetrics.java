@@ -0,0 +1,400 @@
+/* ParseMetrics.java - timers of parsing stages, counters and the slowest pages,
+ *                     periodic progress in JSON lines.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.util;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Metrics of the Wiktionary parsing: timers of stages (reading of the text,
+ * parsing of languages, POS, meanings, relations, translations, storing to
+ * the tables), counters of rows, the top-N slowest pages.<br><br>
+ *
+ * The metrics are switched off by default, then start() returns 0 and
+ * stop() returns at once. If the metrics are opened, then one boundary
+ * of a stage costs one System.nanoTime() and a few atomic additions,
+ * so the metrics can be used in production runs. The functions are
+ * thread-safe (pages are parsed by several threads, see ParsePipeline).<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * ParseMetrics.open("parse_metrics.jsonl", 60, 20);  // progress every 60 sec, 20 slowest pages
+ * ...
+ * long t = ParseMetrics.start();
+ * TPage tpage = TPage.getOrInsert(...);
+ * t = ParseMetrics.stop("store.page", t);         // the next stage starts now
+ * TLangPOS lang_pos = TLangPOS.insert(...);
+ * ParseMetrics.stop("store.lang_pos", t);
+ * ...
+ * ParseMetrics.close();   // the last line of progress, prints the slowest pages
+ * </PRE>
+ *
+ * One line of the file (the stage "parse" is shortened):
+ * <PRE>
+ * {"time_s":60.0,"pages":15230,"pages_per_s":253.8,"stages":{"parse":{"n":15230,"total_s":21.4,
+ *  "mean_us":1405,"p50_us":1024,"p90_us":4096,"p99_us":16384,"max_us":91234},...},"counters":{"rows.quote":5120,...}}
+ * </PRE>
+ * Percentiles are upper bounds of log2 buckets of the histogram (in microseconds).
+ */
+public class ParseMetrics {
+
+    /** Metrics of the current run, null if the metrics are switched off. */
+    private static volatile ParseMetrics metrics;
+
+    /** Number of buckets of the histogram: bucket i contains durations
+     * less than 2^i microseconds. */
+    private static final int BUCKETS = 40;
+
+    /** Timer of one stage: number of calls, total and max time, histogram. */
+    private static class Stage {
+        final LongAdder n     = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong max_nanos = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        void add(long t) {
+            n.increment();
+            nanos.add(t);
+            histogram.incrementAndGet(Math.min(BUCKETS - 1,
+                                      64 - Long.numberOfLeadingZeros(t / 1000)));
+            long max = max_nanos.get();
+            while(t > max && !max_nanos.compareAndSet(max, t))
+                max = max_nanos.get();
+        }
+
+        /** Gets the upper bound (in microseconds) of the bucket which contains
+         * the quantile q, e.g. 0.99. */
+        long getPercentile(double q) {
+            long total = 0;
+            long[] h = new long[BUCKETS];
+            for(int i=0; i<BUCKETS; i++) {
+                h[i] = histogram.get(i);
+                total += h[i];
+            }
+            long rank = (long)Math.ceil(q * total);
+            long sum = 0;
+            for(int i=0; i<BUCKETS; i++) {
+                sum += h[i];
+                if(sum >= rank && sum > 0)
+                    return 1L << i;
+            }
+            return 0;
+        }
+    }
+
+    /** Page with the time of parsing and storing. */
+    private static class SlowPage implements Comparable<SlowPage> {
+        final String page_title;
+        final long nanos;
+
+        SlowPage(String _page_title, long _nanos) {
+            page_title = _page_title;
+            nanos      = _nanos;
+        }
+
+        @Override
+        public int compareTo(SlowPage other) {
+            return Long.compare(nanos, other.nanos);
+        }
+    }
+
+    /** Stage name -> timer. */
+    private final ConcurrentHashMap<String, Stage> stages = new ConcurrentHashMap<String, Stage>();
+
+    /** Counter name -> value, e.g. number of rows written to the table. */
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<String, LongAdder>();
+
+    private final LongAdder n_pages = new LongAdder();
+
+    /** The slowest pages, the fastest of them is the head of the queue. */
+    private final PriorityQueue<SlowPage> slowest = new PriorityQueue<SlowPage>();
+    private final int n_slowest;
+
+    /** Time of the fastest page in the full queue of the slowest pages,
+     * faster pages are skipped without locking. */
+    private volatile long slowest_threshold;
+
+    private final long t_start = System.nanoTime();
+
+    /** JSON lines file, null if the progress is not written. */
+    private final PrintWriter out;
+    private final Timer timer;
+
+    private ParseMetrics(PrintWriter _out, int period_sec, int _n_slowest) {
+        out       = _out;
+        n_slowest = _n_slowest;
+
+        if(null != out && period_sec > 0) {
+            timer = new Timer("parse-metrics", true);
+            long period = period_sec * 1000L;
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() { writeProgress(false); }
+            }, period, period);
+        } else
+            timer = null;
+    }
+
+    /** Switches on the metrics.
+     *
+     * @param filepath   file of the progress (JSON lines), null - the progress
+     *                   is not written, the metrics are printed by close() only
+     * @param period_sec period of the progress lines in seconds
+     * @param n_slowest  number of the slowest pages in the report
+     * @return false if the file is not opened, the metrics are switched on anyway
+     */
+    public static boolean open(String filepath, int period_sec, int n_slowest) {
+        PrintWriter out = null;
+        boolean b_opened = true;
+        if(null != filepath) {
+            try {
+                out = new PrintWriter(new OutputStreamWriter(
+                            new FileOutputStream(filepath, true), "UTF-8"));
+            } catch(IOException ex) {
+                System.out.println("Error (ParseMetrics.open()):: file '" + filepath + "' " + ex.getMessage());
+                b_opened = false;
+            }
+        }
+        close();
+        metrics = new ParseMetrics(out, period_sec, n_slowest);
+        return b_opened;
+    }
+
+    /** Writes the last progress line, prints the slowest pages and switches
+     * off the metrics. */
+    public static void close() {
+        ParseMetrics m = metrics;
+        if(null == m)
+            return;
+        metrics = null;
+
+        if(null != m.timer)
+            m.timer.cancel();
+        m.writeProgress(true);
+        if(null != m.out) {
+            synchronized(m.out) {   // the timer task could be running now
+                m.out.close();
+            }
+        }
+
+        List<SlowPage> pages = m.getSlowest();
+        if(!pages.isEmpty()) {
+            System.out.println("The slowest pages (parsing and storing, ms):");
+            for(SlowPage p : pages)
+                System.out.println("  " + p.nanos / 1000000 + "\t" + p.page_title);
+        }
+    }
+
+    /** Returns true if the metrics are switched on. */
+    public static boolean isOpen() {
+        return null != metrics;
+    }
+
+    /** Gets start time of a stage, 0 if the metrics are switched off. */
+    public static long start() {
+        return null == metrics ? 0 : System.nanoTime();
+    }
+
+    /** Adds the duration of the stage (from t_start to now) to the timer.
+     *
+     * @param stage   name of the stage, e.g. "parse.meaning", "store.relation"
+     * @param t_start result of start() or of the previous stop()
+     * @return current time, i.e. start time of the next stage, 0 if the metrics are switched off
+     */
+    public static long stop(String stage, long t_start) {
+        ParseMetrics m = metrics;
+        if(null == m || 0 == t_start)
+            return 0;
+        long t = System.nanoTime();
+        m.getStage(stage).add(t - t_start);
+        return t;
+    }
+
+    /** Adds n to the counter, e.g. number of rows written to the table. */
+    public static void count(String counter, long n) {
+        ParseMetrics m = metrics;
+        if(null == m)
+            return;
+        LongAdder c = m.counters.get(counter);
+        if(null == c) {
+            c = new LongAdder();
+            LongAdder prev = m.counters.putIfAbsent(counter, c);
+            if(null != prev)
+                c = prev;
+        }
+        c.add(n);
+    }
+
+    /** Counts the row written to the table if it is not null, e.g.
+     * return ParseMetrics.countRow("rows.meaning", insertBulk(...));
+     *
+     * @param counter   name of the counter, "rows." + table name
+     * @param row       inserted record, null if the insertion failed
+     * @return the row
+     */
+    public static <T> T countRow(String counter, T row) {
+        if(null != row && null != metrics)
+            count(counter, 1);
+        return row;
+    }
+
+    /** Counts the parsed page, stores it in the list of the slowest pages
+     * if it is slow.
+     *
+     * @param nanos time of parsing and storing of the page
+     */
+    public static void page(String page_title, long nanos) {
+        ParseMetrics m = metrics;
+        if(null == m)
+            return;
+        m.n_pages.increment();
+        if(0 == m.n_slowest || nanos <= m.slowest_threshold)
+            return;
+
+        synchronized(m.slowest) {
+            m.slowest.add(new SlowPage(page_title, nanos));
+            if(m.slowest.size() > m.n_slowest)
+                m.slowest.poll();
+            if(m.slowest.size() == m.n_slowest)
+                m.slowest_threshold = m.slowest.peek().nanos;
+        }
+    }
+
+    private Stage getStage(String name) {
+        Stage s = stages.get(name);
+        if(null == s) {
+            s = new Stage();
+            Stage prev = stages.putIfAbsent(name, s);
+            if(null != prev)
+                s = prev;
+        }
+        return s;
+    }
+
+    /** Gets the slowest pages, the slowest is the first. */
+    private List<SlowPage> getSlowest() {
+        List<SlowPage> list;
+        synchronized(slowest) {
+            list = new ArrayList<SlowPage>(slowest);
+        }
+        Collections.sort(list, Collections.reverseOrder());
+        return list;
+    }
+
+    /** Writes one JSON line with all timers and counters,
+     * the last line contains the slowest pages also. */
+    private void writeProgress(boolean b_last) {
+        if(null == out)
+            return;
+        String line = toJSON(b_last);
+        synchronized(out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    /** Gets the metrics as one line of JSON.
+     *
+     * @param b_slowest if true, then the slowest pages are added
+     */
+    String toJSON(boolean b_slowest) {
+        double time_s = (System.nanoTime() - t_start) / 1e9;
+        long pages = n_pages.sum();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"time_s\":").append(round(time_s));
+        sb.append(",\"pages\":").append(pages);
+        sb.append(",\"pages_per_s\":").append(time_s > 0 ? round(pages / time_s) : 0);
+
+        sb.append(",\"stages\":{");
+        boolean b_first = true;
+        for(Map.Entry<String, Stage> e : new TreeMap<String, Stage>(stages).entrySet()) {
+            Stage s = e.getValue();
+            long n = s.n.sum();
+            long nanos = s.nanos.sum();
+            if(!b_first)
+                sb.append(",");
+            b_first = false;
+            appendString(sb, e.getKey());
+            sb.append(":{\"n\":").append(n);
+            sb.append(",\"total_s\":").append(round(nanos / 1e9));
+            sb.append(",\"mean_us\":").append(0 == n ? 0 : nanos / n / 1000);
+            sb.append(",\"p50_us\":").append(s.getPercentile(0.5));
+            sb.append(",\"p90_us\":").append(s.getPercentile(0.9));
+            sb.append(",\"p99_us\":").append(s.getPercentile(0.99));
+            sb.append(",\"max_us\":").append(s.max_nanos.get() / 1000);
+            sb.append("}");
+        }
+        sb.append("}");
+
+        sb.append(",\"counters\":{");
+        b_first = true;
+        for(Map.Entry<String, LongAdder> e : new TreeMap<String, LongAdder>(counters).entrySet()) {
+            if(!b_first)
+                sb.append(",");
+            b_first = false;
+            appendString(sb, e.getKey());
+            sb.append(":").append(e.getValue().sum());
+        }
+        sb.append("}");
+
+        if(b_slowest) {
+            sb.append(",\"slowest\":[");
+            b_first = true;
+            for(SlowPage p : getSlowest()) {
+                if(!b_first)
+                    sb.append(",");
+                b_first = false;
+                sb.append("{\"page\":");
+                appendString(sb, p.page_title);
+                sb.append(",\"ms\":").append(p.nanos / 1000000).append("}");
+            }
+            sb.append("]");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /** Gets metrics of the current run as JSON line, null if the metrics are switched off. */
+    public static String getJSON() {
+        ParseMetrics m = metrics;
+        return null == m ? null : m.toJSON(true);
+    }
+
+    private static double round(double d) {
+        return Math.round(d * 10) / 10.0;
+    }
+
+    /** Appends the string in quotes, escapes quotes, backslashes and control characters. */
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for(int i=0; i<s.length(); i++) {
+            char c = s.charAt(i);
+            if('"' == c || '\\' == c)
+                sb.append('\\').append(c);
+            else if(c < 0x20)
+                sb.append(String.format("\\u%04x", (int)c));
+            else
+                sb.append(c);
+        }
+        sb.append('"');
+    }
+}
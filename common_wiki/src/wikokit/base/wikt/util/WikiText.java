@@ -27,6 +27,7 @@ public class WikiText {
     private WikiWord[] wiki_words;
 
     private final static WikiText[] NULL_WIKITEXT_ARRAY = new WikiText[0];
+    private final static WikiWord[] NULL_WIKIWORD_ARRAY = new WikiWord[0];
 
     /** Split by comma and semicolon */
     private final static Pattern ptrn_comma_semicolon = Pattern.compile(
@@ -83,8 +84,10 @@ public class WikiText {
         }
         StringBuffer sb = new StringBuffer(_wikified_text);
         
-        String      s = WikiWord.parseDoubleBrackets(page_title, sb).toString();
-        WikiWord[] ww = WikiWord.getWikiWords(page_title, sb);
+        List<WikiWord> ww_list = new ArrayList<WikiWord>();
+        String      s = WikiWord.parseDoubleBrackets(page_title, sb, ww_list).toString();
+        WikiWord[] ww = ww_list.isEmpty() ? NULL_WIKIWORD_ARRAY : 
+                        (WikiWord[])ww_list.toArray(NULL_WIKIWORD_ARRAY);
         
         if(s.length() == _wikified_text.length())
             _wikified_text = null; // wikified text is NULL if "text" hasn't any wikification
@@ -125,6 +125,76 @@ public class WikiWord {
         return sb;
     }
     
+    /** Removes brackets of wiki links and extracts wiki words in one pass,
+     * it gives the same results as parseDoubleBrackets(page_title, text) and 
+     * getWikiWords(page_title, text) together, but the text is scanned once.
+     *
+     * @param page_title    word which are described in this article 'text'
+     * @param text          source wikified definition text
+     * @param wiki_words    (result) wiki words are added to this list
+     * @return text without wikification, e.g. "running" for "[[run|running]]"
+     */
+    public static StringBuffer parseDoubleBrackets (
+            String page_title,
+            StringBuffer text,
+            List<WikiWord> wiki_words)
+    {
+        if(null == text || 0 == text.length()) {
+            return NULL_STRINGBUFFER;
+        }
+        
+        String s = text.toString();
+        int len = s.length();
+        StringBuffer sb = new StringBuffer(len);
+        
+        int last = 0;   // end of the text which is appended to sb
+        int i = s.indexOf("[[");
+        while(-1 != i) {
+            int end = getDoubleBracketsEnd(s, i);
+            if(-1 == end) {
+                i = s.indexOf("[[", i + 1);
+                continue;
+            }
+            // g: text within [[brackets]]
+            String g = s.substring(i + 2, end);
+            if(-1 != g.indexOf('$') || -1 != g.indexOf('\\'))
+                g = StringUtil.escapeCharDollarAndBackslash(g).toString();
+            
+            sb.append(s, last, i);
+            int pipe = g.indexOf('|');
+            if(-1 != pipe) {
+                String before = g.substring(0, pipe);
+                String after  = g.substring(pipe + 1);
+                sb.append(StringUtil.unescapeCharDollarAndBackslash(after));
+                wiki_words.add(new WikiWord(before, after, null));
+            } else {
+                // [[run]]ing -> run, running
+                sb.append(StringUtil.unescapeCharDollarAndBackslash(g));
+                String suffix = StringUtil.getTextTillSpaceOrPuctuationMark(end + 2, s);
+                wiki_words.add(new WikiWord(g, g.concat(suffix), null));
+            }
+            last = end + 2;
+            i = s.indexOf("[[", last);
+        }
+        sb.append(s, last, len);
+        return sb;
+    }
+    
+    /** Gets position of "]]" which closes "[[" at the position i 
+     * within one line (as the regular expression "\\[\\[(.+?)\\]\\]"), 
+     * or -1 if there is no such brackets. */
+    private static int getDoubleBracketsEnd(String s, int i) {
+        int len = s.length();
+        for(int j = i + 2; j + 1 < len; j++) {
+            char c = s.charAt(j);
+            if('\n' == c || '\r' == c || '\u0085' == c || '\u2028' == c || '\u2029' == c)
+                return -1;
+            if(']' == c && j > i + 2 && ']' == s.charAt(j + 1))
+                return j;
+        }
+        return -1;
+    }
+    
     /** Extract wiki links (word_link and word_visible) from wiki texts.
      * There are the visible to reader words (word_visible) and internal links (word_link).
      *
@@ -8,6 +8,7 @@ package wikokit.base.wikt.word;
 
 //import wikt.constant.POS;
 import wikokit.base.wikt.util.LangText;
+import wikokit.base.wikt.util.ParseMetrics;
 //import wikt.util.POSText;
 import wikokit.base.wikipedia.language.LanguageType;
 
@@ -64,7 +65,9 @@ public class WLanguage {
                     StringBuffer text)
     {
         // = Level I. Language =
+        long t = ParseMetrics.start();
         LangText[] lang_sections = splitToLanguageSections(wikt_lang, page_title, text);
+        ParseMetrics.stop("parse.language", t);
         
         if(0==lang_sections.length) {
             return NULL_WLANGUAGE_ARRAY;
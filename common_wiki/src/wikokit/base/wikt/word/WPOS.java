@@ -9,6 +9,7 @@ package wikokit.base.wikt.word;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikt.util.POSText;
 import wikokit.base.wikt.util.LangText;
+import wikokit.base.wikt.util.ParseMetrics;
 
 import wikokit.base.wikt.constant.POS;
 import wikokit.base.wikt.constant.Relation;
@@ -129,7 +130,9 @@ public class WPOS {
                     LangText lang_section)
     {
         // == Level II. Part of speech ==
+        long t = ParseMetrics.start();
         POSText[] pt = WPOS.splitToPOSSections(wikt_lang, page_title, lang_section);
+        t = ParseMetrics.stop("parse.pos", t);
 
         if(0==pt.length) {
             return NULL_WPOS_ARRAY;
@@ -140,12 +143,15 @@ public class WPOS {
             wpos[j] = new WPOS();
             wpos[j].pos_type = pt[j].getPOSType();
             wpos[j].meaning = WMeaning.parse(wikt_lang, page_title, lang_section.getLanguage(), pt[j]);
+            t = ParseMetrics.stop("parse.meaning", t);
             
             // === III. Semantic relations ==
             wpos[j].relation = WRelation.parse(wikt_lang, page_title, lang_section.getLanguage(), pt[j]);
+            t = ParseMetrics.stop("parse.relation", t);
 
             // === III. Translations ==
             wpos[j].translation = WTranslation.parse(wikt_lang, page_title, lang_section.getLanguage(), pt[j]);
+            t = ParseMetrics.stop("parse.translation", t);
         }
         
         return wpos;
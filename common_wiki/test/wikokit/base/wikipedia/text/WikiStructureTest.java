@@ -0,0 +1,127 @@
+package wikokit.base.wikipedia.text;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import junit.framework.TestCase;
+
+public class WikiStructureTest extends TestCase {
+
+    public WikiStructureTest(String testName) {
+        super(testName);
+    }
+
+    private final static String text_ru =
+            "{{сущ ru m a|основа=дом}}\n" +
+            "\n" +
+            "==== Значение ====\n" +
+            "# [[здание]] {{илл|Дом.jpg|Дом [1]}}\n" +
+            "\n" +
+            "==== Синонимы ====\n" +
+            "# [[здание]], [[строение]]\n" +
+            "\n" +
+            " ==== Антонимы ====\n" +
+            "# -\n" +
+            "\n" +
+            "=== Перевод ===\n" +
+            "{{перев-блок|\n" +
+            "|en={{t|house}}, [[home|home]]\n" +
+            "}}\n";
+
+    public void testScan_headers() {
+        System.out.println("scan_headers");
+
+        WikiStructure.Header[] h = WikiStructure.scan(text_ru).getHeaders();
+        assertEquals(4, h.length);
+
+        assertEquals("Значение", h[0].getName());
+        assertEquals(4, h[0].getLevel());
+        assertEquals(text_ru.indexOf("==== Значение"), h[0].getStart());
+        assertEquals(text_ru.indexOf("# [[здание]] {{илл"), h[0].getContentStart());
+
+        assertEquals("Антонимы", h[2].getName());
+        assertEquals(3, h[3].getLevel());
+    }
+
+    public void testGetHeader_the_same_as_regex() {
+        System.out.println("getHeader_the_same_as_regex");
+
+        WikiStructure ws = WikiStructure.scan(text_ru);
+        String[] names = {"Значение", "Синонимы", "Антонимы", "Перевод"};
+        for(String name : names) {
+            Matcher m = Pattern.compile("===?=?\\s*" + name + "\\s*===?=?\\s*\\n").matcher(text_ru);
+            assertTrue(m.find());
+
+            WikiStructure.Header h = ws.getHeaderLoose(name, 2, 4);
+            assertNotNull(h);
+            assertEquals(m.end(), h.getContentStart());
+        }
+        assertNull(ws.getHeaderLoose("Гипонимы", 2, 4));
+        assertNull(ws.getHeaderLoose("Перевод", 4, 4));
+
+        // header with spaces before '=' is found only by getHeaderLoose()
+        assertNull(ws.getHeader("Антонимы", 3, 5));
+        assertNotNull(ws.getHeader("Синонимы", 3, 5));
+    }
+
+    public void testGetHeader_en() {
+        System.out.println("getHeader_en");
+
+        String text = "# definition\n" +
+                      "=====Coordinate  terms=====  \n" +
+                      "* [[a]]\n" +
+                      "======See also======\n" +
+                      "* [[b]]";
+        WikiStructure ws = WikiStructure.scan(text);
+
+        WikiStructure.Header h = ws.getHeader("Coordinate terms", 3, 5);
+        assertNotNull(h);
+        assertEquals(text.indexOf("* [[a]]"), h.getContentStart());
+
+        assertNull(ws.getHeader("See also", 3, 5));      // level 6
+        assertEquals(6, ws.getHeaders()[1].getLevel());
+    }
+
+    public void testScan_templates_and_links() {
+        System.out.println("scan_templates_and_links");
+
+        WikiStructure ws = WikiStructure.scan(text_ru);
+
+        WikiStructure.Template[] t = ws.getTemplates();
+        assertEquals(4, t.length);
+        assertEquals("сущ ru m a", t[0].getName());
+        assertEquals(0, t[0].getStart());
+        assertEquals(text_ru.indexOf('\n'), t[0].getEnd());
+
+        assertEquals("перев-блок", t[2].getName());
+        assertEquals(0, t[2].getDepth());
+        assertEquals("t", t[3].getName());
+        assertEquals(1, t[3].getDepth());
+        assertEquals(text_ru.length() - 1, t[2].getEnd());
+
+        assertEquals(1, ws.getTemplates("илл").length);
+        assertEquals(0, ws.getTemplates("ил").length);
+
+        WikiStructure.Link[] l = ws.getLinks();
+        assertEquals(4, l.length);
+        assertEquals("здание", l[0].getTarget());
+        assertEquals("home", l[3].getTarget());
+        assertEquals(text_ru.indexOf("[[home"), l[3].getStart());
+        assertEquals(text_ru.indexOf("\n}}"), l[3].getEnd());
+    }
+
+    public void testScan_unclosed() {
+        System.out.println("scan_unclosed");
+
+        WikiStructure ws = WikiStructure.scan("}} {{a|{{b}} [[c| ]] d\n=== x");
+        WikiStructure.Template[] t = ws.getTemplates();
+        assertEquals(2, t.length);
+        assertEquals(-1, t[0].getEnd());
+        assertEquals(12, t[1].getEnd());
+        assertEquals(1, ws.getLinks().length);
+        assertEquals(0, ws.getHeaders().length);        // "=== x" without '=' at the end
+
+        ws = WikiStructure.scan("");
+        assertEquals(0, ws.getHeaders().length);
+        assertEquals(0, ws.getTemplates().length);
+    }
+}
@@ -0,0 +1,243 @@
+package wikokit.base.wikipedia.text;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.util.WikiWord;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import junit.framework.TestCase;
+
+/** Compares WikiTokenizer with the chain of regular expressions
+ * WikiParser.convertWikiToTextByRegex(), the results should be the same.
+ * The texts are the source texts of WikiParserTest (they are read from
+ * its source file) and the texts with other and broken markup below.
+ */
+public class WikiTokenizerTest extends TestCase {
+
+    /** Source file of WikiParserTest, relative to the module directory. */
+    private final static String WIKI_PARSER_TEST = "test/wikokit/base/wikipedia/text/WikiParserTest.java";
+
+    /** Assignment of the source text in WikiParserTest: wiki_text = new StringBuffer("..." + "...") */
+    private final static Pattern ptrn_wiki_text = Pattern.compile(
+            "\\bwiki_text(?:_source)?\\s*=\\s*(?:new\\s+StringBuffer\\s*\\(\\s*)?\"");
+
+    /** Other texts with markup, also with broken markup. */
+    private final static String[] corpus = {
+        "",
+        "  \n\n",
+        "  word1\n\nword2  \n\n",
+        "[[et:Talvepalee]] \ntext [[csh:also interwiki]] word",
+        "text [[ru:Амир Хосров Дехлеви]] \nword [[ettd:non interwiki]]",
+        "[[Category:Russia]] text [[Категория:Россия]]",
+        "a <code>x+y</code> b <code>\n z </code> c",
+        "a<!-- comment\n -->b <!---->c",
+        "a <pre>\n<xml/>\n</pre> b <source lang=\"java\">int i;</source> c",
+        "[[w:Wikipedia:Interwikimedia_links|text to expand]] [[wikt:run]] [[:de:Hauptseite]]",
+        "The '''Winter Palace''' ([http://example.com Russian]:",
+        "The '''Winter Palace''' ''bold'' ([http://example.com]:",
+        "* [http://shop.evanpike.com/keyword/cherry+blossom Photo Gallery] Sakura\n",
+        "[http://a.b a.site.com text www.site.com]",
+        "''Bold [[wiktionary:pale|pale]] text. ''<ref>{{cite book |last= Axell |year=2002 " +
+            "| pages=p. 16 }}</ref>\n A special ceremony before going to combat usually took place.",
+        "word1<ref>Ref text.</ref> — word2.",
+        "abc<ref>http://tank.uw link text</ref> text",
+        "a<ref>one {{a|{{b}}}} two</ref> b<ref>three</ref>\n{{x|<ref>in template</ref>}}c",
+        "{{stub}} {{a|{{b}}}} {{a|{{b|{{c}}}}}} {{}} {{}}} {{{param}}} {{a {{b}} c",
+        "{{Infobox\n| name = {{lang|ru|Москва}}\n| image = x.jpg\n}}\ntext",
+        "a {| text1 \n {| table in table \n|}|} b |} c {| d",
+        "a {{Infobox|x=1|}} {|\n| c\n|} b",
+        "{{Taxobox\n| color = lightgreen\n}}\n\n" +
+            "[[Image:Castle Himeji sakura02.jpg|thumb|290px|Hanami parties at [[Himeji Castle]].]]\n\n" +
+            "'''Sakura''' or '''Cherry Blossom''' is the [[Japanese language|Japanese]] name for " +
+            "decorative [[cherry]] trees, ''Prunus serrulata'', and their [[flower|blossoms]].\n\n" +
+            "Sakura are object of the Japanese traditional [[custom]] of ''[[Hanami]]'' or ''Flower viewing''.\n\n" +
+            "==See also==\n\n* [[Hanami]]\n\n[[Category:Japan]]\n\n\n",
+        "{{Фильм\n| РусНаз      = Через тернии к звёздам\n}}\n" +
+            "[[Изображение:Через-тернии-к-звёздам 2.jpg|thumb|«Через тернии к звёздам»]]\n" +
+            "'''«Че́рез те́рнии к звёздам»''' — [[научная фантастика|научно-фантастический]] " +
+            "фильм [[режиссёр]]а [[Викторов, Ричард Николаевич|Ричарда Викторова]].\n\n" +
+            "== Сюжет ==\n\n{{сюжет}}\n[[XXIII]] век. [[Земля (планета)|Землю]]\n" +
+            "* [[Елена Метёлкина]] — ''Нийя''\n{{викицитатник}}\n" +
+            "* [http://ternii.film.ru/ Официальный сайт фильма]\n\n" +
+            "[[Категория:Киностудия им. М. Горького]]\n[[en:Per Aspera Ad Astra (film)]]",
+        "[[Image:a.jpg]] [[Image:b.jpg|thumb|[[Lemma|Word]] and [[c]]]] [[Image:c.jpg|x",
+        "'''''bold italic''''' '''a ''b'' c''' ''a '''b''' c'' '''' ''' '''x",
+        "[[a|b|c]] [[a:b|c]] [[Foo:[[bar]]]] [[run]]ning [[ [x] ]] [[\n]] [[]]]",
+        "&lt;b&gt; &amp; &quot; &nbsp; &mdash;<br>a<br/>b<br />c<br d \"e\" 'f'",
+        "a $1 \\ [[b $2|c \\$ d]] ''e \\\\ f'' [http://x.com g $ h\\]",
+        "a\r\nb '''c\r\nd''' [[e\r\nf]]",
+        // crossed boundaries of elements
+        "{{a|<!-- }} -->b}}c",
+        "a<!-- {{ -->b}}c {{d<!-- }} -->e",
+        "''a '''b'' c''' d",
+        "'''a ''b''' c'' d",
+        "[[a|''b]] c''",
+        "''[[a|b'']] c",
+        "a <code>{{b</code>}} c",
+        "{{a|<code>}}</code>b}}c",
+        "<ref>a {{b</ref>}}c",
+        "a<ref>{{b|</ref>}} c",
+        "{| a <!-- |} --> b |} c",
+        "[[Image:a.jpg|{{b|c]]}} d",
+        "[[Image:a.jpg|b <!-- ]] --> c]] d",
+        "[http://a.b ''c] d''",
+        "[[a|[http://b.c d]]] e",
+        "'''a [[b|c''' d]]",
+        "<ref><pre>a</ref></pre> b",
+        "{<!-- a -->{b}} c",
+        "{{{{a}}{b}} c",
+        "{{{}}|}}|} a",
+        "[[{{b}}Image:a.jpg|c]] d",
+        "[{| b |}[Image:a.jpg|c]] d",
+        "[[''Image:a.jpg''|b]] c",
+        "[[Image:a.jpg|'''b|c''']] d",
+        "[[Im\u0301age:a.jpg|b]] c",
+        "[[Изображение:a.jpg|[[Image:b.jpg|c]]]] d",
+        "[[Image:a.jpg[[b|]]c]] d",
+        "a<ref>Иhttp://b.c d</ref> e<ref>е\u0301http://f.g h</ref>",
+        "a<ref>b http://c d</ref> e<ref>f http://g </ref>",
+    };
+
+    private final static LanguageType[] langs = {
+        LanguageType.en, LanguageType.simple, LanguageType.ru };
+
+    public WikiTokenizerTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    /** Reads the source texts (wiki_text) of WikiParserTest from its source file. */
+    private static List<String> readWikiParserTestTexts() throws IOException {
+        String src = new String(Files.readAllBytes(new File(WIKI_PARSER_TEST).toPath()), Charset.forName("UTF-8"));
+        List<String> texts = new ArrayList<String>();
+        Matcher m = ptrn_wiki_text.matcher(src);
+        while(m.find()) {
+            // "..." + "..." + ...
+            StringBuilder text = new StringBuilder();
+            int i = m.end() - 1;
+            while(i < src.length() && '"' == src.charAt(i)) {
+                i = readStringLiteral(src, i + 1, text);
+                while(i < src.length() && (Character.isWhitespace(src.charAt(i)) || '+' == src.charAt(i)))
+                    i ++;
+            }
+            texts.add(text.toString());
+        }
+        return texts;
+    }
+
+    /** Appends the Java string literal which starts at i (after the quote)
+     * to the text, returns the position after the closing quote. */
+    private static int readStringLiteral(String src, int i, StringBuilder text) {
+        while('"' != src.charAt(i)) {
+            char c = src.charAt(i ++);
+            if('\\' != c) {
+                text.append(c);
+                continue;
+            }
+            c = src.charAt(i ++);
+            switch(c) {
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'u': text.append((char)Integer.parseInt(src.substring(i, i + 4), 16));
+                          i += 4; break;
+                default:  text.append(c);       // \\ \" \'
+            }
+        }
+        return i + 1;
+    }
+
+    /** Gets the texts of WikiParserTest and the corpus. */
+    private static List<String> getTexts() throws IOException {
+        List<String> texts = readWikiParserTestTexts();
+        assertTrue(texts.size() > 70);
+        texts.addAll(Arrays.asList(corpus));
+        return texts;
+    }
+
+    public void testConvertWikiToText_the_same_as_regex() throws IOException {
+        System.out.println("convertWikiToText_the_same_as_regex");
+
+        for(String text : getTexts()) {
+            for(LanguageType lang : langs) {
+                for(boolean b_remove_not_expand_iwiki : new boolean[] {true, false}) {
+
+                    String expResult = WikiParser.convertWikiToTextByRegex(
+                            new StringBuffer(text), lang, b_remove_not_expand_iwiki).toString();
+                    String result = WikiTokenizer.convertWikiToText(
+                            new StringBuffer(text), lang, b_remove_not_expand_iwiki).toString();
+
+                    assertEquals("lang=" + lang + " text=" + text, expResult, result);
+                }
+            }
+        }
+    }
+
+    /** One pass WikiWord.parseDoubleBrackets() with the list of wiki words
+     * (it is used by WikiText) gives the same text and wiki words as
+     * WikiWord.parseDoubleBrackets() and WikiWord.getWikiWords(). */
+    public void testParseDoubleBrackets_the_same_wiki_words() throws IOException {
+        System.out.println("parseDoubleBrackets_the_same_wiki_words");
+        String page_title = "word";
+
+        for(String text : getTexts()) {
+            String     expResult = WikiWord.parseDoubleBrackets(page_title, new StringBuffer(text)).toString();
+            WikiWord[] ww        = WikiWord.getWikiWords(page_title, new StringBuffer(text));
+
+            List<WikiWord> ww_result = new ArrayList<WikiWord>();
+            String result = WikiWord.parseDoubleBrackets(page_title, new StringBuffer(text), ww_result).toString();
+
+            assertEquals("text=" + text, expResult, result);
+            assertEquals("text=" + text, ww.length, ww_result.size());
+            for(int i=0; i<ww.length; i++) {
+                assertEquals("text=" + text, ww[i].getWordLink(),    ww_result.get(i).getWordLink());
+                assertEquals("text=" + text, ww[i].getWordVisible(), ww_result.get(i).getWordVisible());
+            }
+        }
+    }
+
+    public void testConvertWikiToText_templates() {
+        System.out.println("convertWikiToText_templates");
+        StringBuffer wiki_text, result;
+
+        // two nested levels are removed, as two calls of WikiParser.parseCurlyBrackets()
+        wiki_text = new StringBuffer("a{{b|{{c}}}}d{{e|{{f|{{g}}}}}}h");
+        result = WikiTokenizer.convertWikiToText(wiki_text, LanguageType.en, true);
+        assertEquals("ad{{e|}}h", result.toString());
+
+        // references are moved to the end of text, also from templates
+        wiki_text = new StringBuffer("a{{b|<ref>c</ref>}} d<ref>e {{f}}</ref>.");
+        result = WikiTokenizer.convertWikiToText(wiki_text, LanguageType.en, true);
+        assertEquals("a d.\n\nce", result.toString());
+    }
+
+    public void testConvertWikiToText_tables() {
+        System.out.println("convertWikiToText_tables");
+        StringBuffer wiki_text, result;
+
+        wiki_text = new StringBuffer("a {| text1 \n {| table in table \n|}|} b");
+        result = WikiTokenizer.convertWikiToText(wiki_text, LanguageType.en, true);
+        assertEquals("a  b", result.toString());
+
+        // end of infobox {{...|}} is not the end of table
+        wiki_text = new StringBuffer("a {{Infobox|x=1|}} {|\n| c\n|} b");
+        result = WikiTokenizer.convertWikiToText(wiki_text, LanguageType.en, true);
+        assertEquals("a   b", result.toString());
+    }
+}
@@ -4,6 +4,7 @@
  */
 package wikokit.base.wikipedia.util.template;
 
+import wikokit.base.wikipedia.text.WikiStructure;
 import wikokit.base.wikipedia.util.template.TemplateExtractor;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -198,6 +199,34 @@ public class TemplateExtractorTest {
         str = TemplateExtractor.extractTextWithoutTemplate(str,  te_all[0]);
         assertEquals(str, text_without_template);
     }
+    
+    @Test
+    public void testgetAllTemplatesByName_with_index() {
+        System.out.println("getAllTemplatesByName_with_index");
+        String page_title, text;
+        
+        page_title      = "page_title_is_getAllTemplatesByName_with_index";
+        String template_name = "t";
+        text = "012345{{t|param one}}\n"  +
+               "{{tt|x}}{{t}}{{t|111|222}}end";
+        
+        TemplateExtractor[] te_all = TemplateExtractor.getAllTemplatesByName(page_title, template_name, text,
+                                                                             WikiStructure.scan(text));
+        assertEquals(2, te_all.length);
+        
+        String[] params1 = {"param one"};
+        TemplateExtractor expResult1 = new TemplateExtractor(template_name, params1, 6, 20);
+        assertTrue( TemplateExtractor.equals( expResult1, te_all[0]) );
+        
+        String[] params2 = {"111", "222"};
+        TemplateExtractor expResult2 = new TemplateExtractor(template_name, params2, 35, 47);
+        assertTrue( TemplateExtractor.equals( expResult2, te_all[1]) );
+        
+        // the same templates as without the index
+        TemplateExtractor[] te_old = TemplateExtractor.getAllTemplatesByName(page_title, template_name, text);
+        assertEquals(te_old.length, te_all.length);
+        assertArrayEquals(te_old[1].getTemplateParameters(), te_all[1].getTemplateParameters());
+    }
     // ------------------------------------- eo testing getFirstTemplateByName()
     
     
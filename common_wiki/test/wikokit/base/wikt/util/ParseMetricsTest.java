@@ -0,0 +1,84 @@
+
+package wikokit.base.wikt.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+public class ParseMetricsTest {
+
+    public ParseMetricsTest() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+        ParseMetrics.close();
+    }
+
+    @Test
+    public void testStart_switched_off() {
+        System.out.println("start_switched_off");
+        assertFalse(ParseMetrics.isOpen());
+        assertEquals(0, ParseMetrics.start());
+        assertEquals(0, ParseMetrics.stop("parse", ParseMetrics.start()));
+        ParseMetrics.count("rows.quote", 1);
+        ParseMetrics.page("test", 1);
+        assertNull(ParseMetrics.getJSON());
+    }
+
+    @Test
+    public void testStop_stages_and_counters() {
+        System.out.println("stop_stages_and_counters");
+        assertTrue(ParseMetrics.open(null, 0, 2));
+        assertTrue(ParseMetrics.isOpen());
+
+        long t = ParseMetrics.start();
+        assertTrue(t != 0);
+        t = ParseMetrics.stop("store.page", t);
+        assertTrue(t != 0);
+        ParseMetrics.stop("store.lang_pos", t);
+        ParseMetrics.stop("store.page", ParseMetrics.start());
+        ParseMetrics.count("rows.quote", 3);
+        ParseMetrics.count("rows.quote", 2);
+
+        String json = ParseMetrics.getJSON();
+        assertTrue(json.contains("\"store.page\":{\"n\":2,"));
+        assertTrue(json.contains("\"store.lang_pos\":{\"n\":1,"));
+        assertTrue(json.contains("\"counters\":{\"rows.quote\":5}"));
+    }
+
+    @Test
+    public void testCountRow() {
+        System.out.println("countRow");
+        Object row = new Object();
+        assertSame(row, ParseMetrics.countRow("rows.page", row));  // switched off
+
+        ParseMetrics.open(null, 0, 0);
+        assertSame(row, ParseMetrics.countRow("rows.page", row));
+        assertNull(ParseMetrics.countRow("rows.page", null));       // insertion failed
+        ParseMetrics.countRow("rows.meaning", row);
+        ParseMetrics.count("rows.meaning", 0);                      // INSERT IGNORE of existing row
+
+        assertTrue(ParseMetrics.getJSON().contains("\"counters\":{\"rows.meaning\":1,\"rows.page\":1}"));
+    }
+
+    @Test
+    public void testPage_slowest() {
+        System.out.println("page_slowest");
+        ParseMetrics.open(null, 0, 2);
+        ParseMetrics.page("fast", 1000000);
+        ParseMetrics.page("slowest", 9000000);
+        ParseMetrics.page("\"quoted\"", 5000000);
+        ParseMetrics.page("faster", 2000000);
+
+        String json = ParseMetrics.getJSON();
+        assertTrue(json.contains("\"pages\":4,"));
+        assertTrue(json.endsWith("\"slowest\":[{\"page\":\"slowest\",\"ms\":9},{\"page\":\"\\\"quoted\\\"\",\"ms\":5}]}"));
+    }
+}
@@ -3,6 +3,8 @@ package wikokit.base.wikt.util;
 
 //import wikt.util.WikiWord;
 import wikokit.base.wikt.util.WikiWord;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -120,4 +122,32 @@ public class WikiWordTest {
         }
     }
 
+    /** One pass parseDoubleBrackets() with the list of wiki words should give
+     * the same result as parseDoubleBrackets() and getWikiWords(). */
+    @Test
+    public void testParseDoubleBrackets_wiki_words() {
+        System.out.println("parseDoubleBrackets_wiki_words");
+        String page_title = "god";
+        String[] texts = {
+            "A [[supernatural|test1]], typically [[immortal]] being with [[superior]] [[power]]s.",
+            "[[ферментативный]] [[процесс]] [[глюкоза|глюкозы]] в [[клетка]]х, [[АТФ]]",
+            "no links [[ ]] [[a\nb]] [[]]] [[[x]] [[a|b|c]]",
+            "dollar [[a$b|c$d]] and [[e\\$f]] backslash [[g\\h]]"
+        };
+        for(String text : texts) {
+            StringBuffer expResult = WikiWord.parseDoubleBrackets(page_title, new StringBuffer(text));
+            WikiWord[]   ww        = WikiWord.getWikiWords(page_title, new StringBuffer(text));
+
+            List<WikiWord> ww_result = new ArrayList<WikiWord>();
+            StringBuffer result = WikiWord.parseDoubleBrackets(page_title, new StringBuffer(text), ww_result);
+
+            assertEquals(expResult.toString(), result.toString());
+            assertEquals(ww.length, ww_result.size());
+            for(int i=0; i<ww.length; i++) {
+                assertEquals(ww[i].getWordLink().toString(),    ww_result.get(i).getWordLink().toString());
+                assertEquals(ww[i].getWordVisible().toString(), ww_result.get(i).getWordVisible().toString());
+            }
+        }
+    }
+
 }
\ No newline at end of file
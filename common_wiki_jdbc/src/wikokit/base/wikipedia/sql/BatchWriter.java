@@ -0,0 +1,243 @@
+/* BatchWriter.java - prepared statements, JDBC batches and transactions
+ *                    for fast filling of a database.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.sql;
+
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Batch-writer mode of the connection: reusable prepared statements
+ * (one per SQL string), JDBC batches for rows which IDs are not needed,
+ * generated keys instead of "SELECT LAST_INSERT_ID()" and
+ * one transaction per commit_pages pages.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * conn.openBatchWriter(1000, 500);
+ * for(...) {
+ *     Keeper.storeToDB(conn, word, native_lang); // T*.insert() use conn.getBatchWriter()
+ *     conn.getBatchWriter().endPage();
+ * }
+ * conn.closeBatchWriter();                       // flush, commit, statistics
+ * </PRE>
+ *
+ * Rows are added to a batch only for tables which are not read during
+ * parsing (e.g. 'relation', 'translation_entry'), since pending rows
+ * are invisible for SELECT until the batch is executed.
+ */
+public class BatchWriter {
+
+    private final Connect connect;
+
+    /** Number of pages stored in one transaction. */
+    private final int commit_pages;
+
+    /** Max number of rows in a JDBC batch of one statement. */
+    private final int batch_size;
+
+    /** Auto-commit mode of the connection before the batch writer was opened. */
+    private final boolean prev_auto_commit;
+
+    /** Statements with generated keys, SQL string -> statement. */
+    private final Map<String, PreparedStatement> sql2insert = new LinkedHashMap<String, PreparedStatement>();
+
+    /** Statements for batches, SQL string -> statement. */
+    private final Map<String, PreparedStatement> sql2batch = new LinkedHashMap<String, PreparedStatement>();
+
+    /** Number of rows added to the batch, but not executed yet, SQL string -> number. */
+    private final Map<String, Integer> sql2pending = new LinkedHashMap<String, Integer>();
+
+    /** Table of the batch statement (for statistics), SQL string -> table name. */
+    private final Map<String, String> sql2table = new LinkedHashMap<String, String>();
+
+    /** Number of rows inserted into the table, table name -> number. */
+    private final Map<String, Long> table2rows = new LinkedHashMap<String, Long>();
+
+    /** Time spent (in nanoseconds) on writing to the table, table name -> time. */
+    private final Map<String, Long> table2nanos = new LinkedHashMap<String, Long>();
+
+    private int n_pages;
+    private final long t_start;
+
+    /** Opens batch writer, switches off auto-commit mode of the connection.
+     *
+     * @param commit_pages  number of pages stored in one transaction
+     * @param batch_size    max number of rows in a JDBC batch
+     */
+    BatchWriter(Connect _connect, int _commit_pages, int _batch_size) throws SQLException {
+        connect         = _connect;
+        commit_pages    = _commit_pages;
+        batch_size      = _batch_size;
+
+        prev_auto_commit = connect.conn.getAutoCommit();
+        connect.conn.setAutoCommit(false);
+        t_start = System.currentTimeMillis();
+    }
+
+    /** Gets (or creates once) prepared statement which returns generated keys. */
+    public PreparedStatement prepareInsert(String sql) throws SQLException {
+
+        PreparedStatement ps = sql2insert.get(sql);
+        if(null == ps) {
+            ps = connect.conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            sql2insert.put(sql, ps);
+        }
+        return ps;
+    }
+
+    /** Gets (or creates once) prepared statement for JDBC batches. */
+    public PreparedStatement prepareBatch(String sql) throws SQLException {
+
+        PreparedStatement ps = sql2batch.get(sql);
+        if(null == ps) {
+            ps = connect.conn.prepareStatement(sql);
+            sql2batch.put(sql, ps);
+            sql2pending.put(sql, 0);
+        }
+        return ps;
+    }
+
+    /** Executes the insert statement (parameters should be set before),
+     * gets generated ID.
+     *
+     * @param table name of the table (for statistics)
+     * @param ps    statement created by prepareInsert()
+     * @return ID of inserted record, or 0 if the record was not inserted
+     */
+    public int insert(String table, PreparedStatement ps) throws SQLException {
+
+        long t = System.nanoTime();
+        int id = 0;
+        if(ps.executeUpdate() > 0) {
+            ResultSet rs = ps.getGeneratedKeys();
+            try {
+                if (rs.next ())
+                    id = rs.getInt(1);
+            } finally {
+                rs.close();
+            }
+        }
+        count(table, 1, System.nanoTime() - t);
+        return id;
+    }
+
+    /** Adds the row (parameters should be set before) to the batch,
+     * executes the batch if it is full.
+     *
+     * @param table name of the table (for statistics)
+     * @param sql   SQL string which was passed to prepareBatch()
+     */
+    public void addBatch(String table, String sql) throws SQLException {
+
+        PreparedStatement ps = sql2batch.get(sql);
+        sql2table.put(sql, table);
+        long t = System.nanoTime();
+        ps.addBatch();
+
+        int pending = sql2pending.get(sql) + 1;
+        if(pending >= batch_size) {
+            executeBatch(sql, ps);
+            pending = 0;
+        }
+        sql2pending.put(sql, pending);
+        count(table, 1, System.nanoTime() - t);
+    }
+
+    /** Should be called after storing of each page,
+     * commits the transaction every commit_pages pages.
+     */
+    public void endPage() {
+        n_pages ++;
+        if(0 == n_pages % commit_pages)
+            flush();
+    }
+
+    /** Executes all batches, commits the transaction. */
+    public void flush() {
+        try {
+            for(Map.Entry<String, PreparedStatement> e : sql2batch.entrySet()) {
+                if(sql2pending.get(e.getKey()) > 0) {
+                    long t = System.nanoTime();
+                    executeBatch(e.getKey(), e.getValue());
+                    sql2pending.put(e.getKey(), 0);
+                    count(sql2table.get(e.getKey()), 0, System.nanoTime() - t);
+                }
+            }
+            long t = System.nanoTime();
+            connect.conn.commit();
+            count("commit", 0, System.nanoTime() - t);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (BatchWriter.flush()):: n_pages=" + n_pages + " " + ex.getMessage());
+        }
+    }
+
+    private void executeBatch(String sql, PreparedStatement ps) throws SQLException {
+        try {
+            ps.executeBatch();
+        } catch(BatchUpdateException ex) { // some rows could be stored, let's continue
+            System.out.println("BatchUpdateException (BatchWriter.executeBatch()):: sql='" + sql + "' " + ex.getMessage());
+        } finally {
+            ps.clearBatch();
+        }
+    }
+
+    /** Flushes data, closes statements, restores auto-commit mode,
+     * prints throughput statistics. */
+    void close() {
+        flush();
+
+        closeAll(sql2insert);
+        closeAll(sql2batch);
+        try {
+            connect.conn.setAutoCommit(prev_auto_commit);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (BatchWriter.close()):: " + ex.getMessage());
+        }
+        printThroughput();
+    }
+
+    private static void closeAll(Map<String, PreparedStatement> statements) {
+        for(PreparedStatement ps : statements.values()) {
+            try { ps.close(); } catch (SQLException sqlEx) { }
+        }
+        statements.clear();
+    }
+
+    private void count(String table, int rows, long nanos) {
+        Long r = table2rows.get(table);
+        table2rows.put(table, null == r ? rows : r + rows);
+
+        Long n = table2nanos.get(table);
+        table2nanos.put(table, null == n ? nanos : n + nanos);
+    }
+
+    /** Gets number of rows written to the table. */
+    public long getRowCount(String table) {
+        Long r = table2rows.get(table);
+        return null == r ? 0 : r;
+    }
+
+    /** Prints number of rows, rows per second (wall time) and
+     * rows per second of database time for each table.
+     */
+    public void printThroughput() {
+
+        float t_work = (System.currentTimeMillis() - t_start)/1000f; // in sec
+        System.out.println("\nBatchWriter: pages=" + n_pages + ", time sec:" + t_work);
+
+        for(String table : table2rows.keySet()) {
+            long  rows    = table2rows.get(table);
+            float db_sec  = table2nanos.get(table) / 1e9f;
+            System.out.printf("  %-20s rows=%d, rows/s=%.1f, db time sec=%.1f, rows/s (db time)=%.1f\n",
+                    table, rows,
+                    t_work > 0 ? rows / t_work : 0f,
+                    db_sec,
+                    db_sec > 0 ? rows / db_sec : 0f);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/* BulkLoader.java - client-side IDs and per-table files for LOAD DATA INFILE
+ *                   (MySQL) or .import (SQLite), for fast filling of an
+ *                   empty database.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.sql;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Bulk-load mode of the connection: rows are not inserted into the database,
+ * but they are written to the files (one file per table), IDs are assigned
+ * in-process (the database should be empty), lookups like "SELECT id ...
+ * WHERE text=..." are replaced by in-memory dictionaries.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * conn.openBulkLoader("bulk");
+ * BulkLoader loader = conn.getBulkLoader();
+ * loader.addTable("page", "page_title,word_count", "INDEX `idx_page_title` (`page_title`(7))");
+ * for(...) {
+ *     int id = loader.nextID("page");                 // T*.insert() use conn.getBulkLoader()
+ *     loader.writeRow("page", id, "apple", 1);
+ * }
+ * conn.closeBulkLoader();      // closes files, writes the load script
+ * </PRE>
+ *
+ * The script load.sql (MySQL) drops secondary indexes, loads the files and
+ * creates the indexes again:
+ * <PRE>
+ * mysql --local-infile=1 wikt_parsed_db &lt; bulk/load.sql
+ * </PRE>
+ * The script load.sqlite is for the sqlite3 command line shell:
+ * <PRE>
+ * sqlite3 wikt_parsed.sqlite &lt; bulk/load.sqlite
+ * </PRE>
+ *
+ * MySQL files are in the default format of LOAD DATA (tab separated,
+ * backslash escaping, NULL is \N), SQLite files are in the CSV format
+ * (NULL is written as the unquoted marker \N, a string which starts with
+ * backslash is written with one more backslash, and both are restored by
+ * UPDATE after .import, so empty strings stay empty).
+ * Strings are written in the same encoding as they are sent to the database
+ * by the connection (see Connect.enc).
+ */
+public class BulkLoader {
+
+    private final Connect connect;
+
+    /** Directory with the files. */
+    private final File dir;
+
+    /** True for MySQL (LOAD DATA), false for SQLite (.import). */
+    private final boolean is_mysql;
+
+    /** Marker of NULL in the CSV file (SQLite). */
+    final static String SQLITE_NULL = "\\N";
+
+    /** Table of the bulk loader. */
+    private static class Table {
+        final String name;
+
+        /** Column names separated by comma, the first column is 'id'. */
+        final String columns;
+
+        /** Definitions of secondary indexes, e.g. "INDEX `idx_text` (`text`(12))". */
+        final String[] indexes;
+
+        /** Last assigned ID. */
+        int last_id;
+
+        long rows;
+
+        /** Columns where the NULL marker or a string with the extra backslash
+         * was written, they are restored after .import (it is needed for SQLite). */
+        final boolean[] has_marker;
+
+        Writer out;
+
+        /** Rows of the table are written at close (see setRowSource()). */
+        Iterable<Object[]> row_source;
+
+        Table(String _name, String _columns, String[] _indexes) {
+            name    = _name;
+            columns = _columns;
+            indexes = _indexes;
+            has_marker = new boolean[_columns.split(",").length];
+        }
+    }
+
+    private final Map<String, Table> tables = new LinkedHashMap<String, Table>();
+
+    /** In-memory dictionaries, name of dictionary -> dictionary. */
+    private final Map<String, Map<?, ?>> dictionaries = new HashMap<String, Map<?, ?>>();
+
+    private final long t_start;
+
+    /** Opens bulk loader, the files will be created in the directory dir.
+     */
+    BulkLoader(Connect _connect, String _dir) throws IOException {
+        connect  = _connect;
+        dir      = new File(_dir);
+        is_mysql = connect.isMySQL();
+
+        if(!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("The directory can't be created: " + dir.getAbsolutePath());
+        t_start = System.currentTimeMillis();
+    }
+
+    /** Declares the table which rows are written by the bulk loader.
+     *
+     * @param table     name of the table
+     * @param columns   column names separated by comma, without 'id'
+     * @param indexes   definitions of secondary indexes of the table
+     *                  which are created after the data are loaded,
+     *                  e.g. "INDEX `idx_text` (`text`(12))"
+     */
+    public void addTable(String table, String columns, String... indexes) {
+        if(!tables.containsKey(table))
+            tables.put(table, new Table(table, "id," + columns, indexes));
+    }
+
+    /** Returns true if the table is declared by addTable(). */
+    public boolean hasTable(String table) {
+        return tables.containsKey(table);
+    }
+
+    /** Gets next ID of the table (IDs start from 1, like AUTO_INCREMENT). */
+    public int nextID(String table) {
+        return ++ getTable(table).last_id;
+    }
+
+    /** Gets (or creates once) in-memory dictionary, e.g. text -> ID.
+     * Insertion order is kept.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getDictionary(String name) {
+        Map<K, V> m = (Map<K, V>)dictionaries.get(name);
+        if(null == m) {
+            m = new LinkedHashMap<K, V>();
+            dictionaries.put(name, m);
+        }
+        return m;
+    }
+
+    /** Sets rows which will be written to the file at close,
+     * it is needed for rows which can be updated during parsing.
+     *
+     * @param rows values of columns (with ID) declared by addTable()
+     */
+    public void setRowSource(String table, Iterable<Object[]> rows) {
+        getTable(table).row_source = rows;
+    }
+
+    /** Writes a row to the file of the table.
+     *
+     * @param values values of columns (with ID) declared by addTable(),
+     *               String, Number, Boolean or null
+     */
+    public void writeRow(String table, Object... values) {
+        Table t = getTable(table);
+        try {
+            if(null == t.out)
+                t.out = new BufferedWriter(new OutputStreamWriter(
+                            new FileOutputStream(getFile(t)), "ISO8859_1"), 1 << 16);
+            writeRow(t, values);
+        } catch(IOException ex) {
+            System.out.println("IOException (BulkLoader.writeRow()):: table=" + table + " " + ex.getMessage());
+        }
+    }
+
+    private void writeRow(Table t, Object[] values) throws IOException {
+        Writer out = t.out;
+        for(int i=0; i<values.length; i++) {
+            if(i > 0)
+                out.write(is_mysql ? '\t' : ',');
+
+            Object v = values[i];
+            if(null == v) {
+                out.write(is_mysql ? "\\N" : SQLITE_NULL);
+                t.has_marker[i] = true;
+            } else if(v instanceof Boolean) {
+                out.write((Boolean)v ? '1' : '0');
+            } else if(v instanceof Number) {
+                out.write(v.toString());
+            } else {
+                String s = connect.enc.EncodeToDB(v.toString());
+                if(is_mysql) {
+                    writeEscapedTSV(out, s);
+                } else {
+                    if(s.startsWith("\\")) {    // "\N" -> "\\N", it is not the NULL marker
+                        s = "\\" + s;
+                        t.has_marker[i] = true;
+                    }
+                    writeEscapedCSV(out, s);
+                }
+            }
+        }
+        out.write('\n');
+        t.rows ++;
+    }
+
+    /** Escapes string for LOAD DATA INFILE (FIELDS ESCAPED BY '\\'). */
+    private static void writeEscapedTSV(Writer out, String s) throws IOException {
+        for(int i=0; i<s.length(); i++) {
+            char c = s.charAt(i);
+            switch(c) {
+                case '\\': out.write("\\\\"); break;
+                case '\t': out.write("\\t");  break;
+                case '\n': out.write("\\n");  break;
+                case '\r': out.write("\\r");  break;
+                case '\0': out.write("\\0");  break;
+                default:   out.write(c);
+            }
+        }
+    }
+
+    /** Quotes string for .import in the CSV mode. */
+    private static void writeEscapedCSV(Writer out, String s) throws IOException {
+        out.write('"');
+        for(int i=0; i<s.length(); i++) {
+            char c = s.charAt(i);
+            if('"' == c)
+                out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private Table getTable(String table) {
+        Table t = tables.get(table);
+        if(null == t)
+            throw new IllegalArgumentException("BulkLoader: unknown table '" + table + "', see addTable()");
+        return t;
+    }
+
+    private File getFile(Table t) {
+        return new File(dir, t.name + (is_mysql ? ".tsv" : ".csv"));
+    }
+
+    /** Gets number of rows written to the table. */
+    public long getRowCount(String table) {
+        Table t = tables.get(table);
+        return null == t ? 0 : t.rows;
+    }
+
+    /** Writes the deferred rows, closes files, writes the load script,
+     * prints statistics.
+     */
+    void close() {
+        for(Table t : tables.values()) {
+            if(null != t.row_source) {
+                for(Object[] row : t.row_source)
+                    writeRow(t.name, row);
+                t.row_source = null;
+            }
+            if(null != t.out) {
+                try {
+                    t.out.close();
+                } catch(IOException ex) {
+                    System.out.println("IOException (BulkLoader.close()):: table=" + t.name + " " + ex.getMessage());
+                }
+                t.out = null;
+            }
+        }
+        dictionaries.clear();
+
+        try {
+            if(is_mysql)
+                writeScript(new File(dir, "load.sql"),    getMySQLScript());
+            else
+                writeScript(new File(dir, "load.sqlite"), getSQLiteScript());
+        } catch(IOException ex) {
+            System.out.println("IOException (BulkLoader.close()):: " + ex.getMessage());
+        }
+        printStatistics();
+    }
+
+    private static void writeScript(File file, List<String> lines) throws IOException {
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            for(String line : lines) {
+                out.write(line);
+                out.write('\n');
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Gets index name from the definition, e.g.
+     * "UNIQUE INDEX `name` (`a`, `b`)" -> "name".
+     */
+    static String getIndexName(String index) {
+        int start = index.indexOf('`');
+        int end = index.indexOf('`', start + 1);
+        return index.substring(start + 1, end);
+    }
+
+    /** Generates MySQL script: disables checks, drops secondary indexes,
+     * loads the files, creates the indexes.
+     */
+    List<String> getMySQLScript() {
+        List<String> lines = new ArrayList<String>();
+        lines.add("SET UNIQUE_CHECKS=0;");
+        lines.add("SET FOREIGN_KEY_CHECKS=0;");
+
+        for(Table t : tables.values()) {
+            if(0 == t.rows)
+                continue;
+            lines.add("");
+            lines.add("-- " + t.name + ": " + t.rows + " rows");
+            for(String index : t.indexes)
+                lines.add("ALTER TABLE `" + t.name + "` DROP INDEX `" + getIndexName(index) + "`;");
+
+            lines.add("LOAD DATA LOCAL INFILE '" + getFile(t).getAbsolutePath().replace("\\", "/") +
+                      "' INTO TABLE `" + t.name + "` CHARACTER SET latin1 (" + t.columns + ");");
+
+            if(t.indexes.length > 0) {
+                StringBuilder sb = new StringBuilder();
+                sb.append("ALTER TABLE `").append(t.name).append("`");
+                for(int i=0; i<t.indexes.length; i++) {
+                    sb.append(0 == i ? " ADD " : ", ADD ");
+                    sb.append(t.indexes[i]);
+                }
+                lines.add(sb.append(";").toString());
+            }
+            lines.add("ALTER TABLE `" + t.name + "` AUTO_INCREMENT=" + (t.last_id + 1) + ";");
+        }
+        lines.add("");
+        lines.add("SET UNIQUE_CHECKS=1;");
+        lines.add("SET FOREIGN_KEY_CHECKS=1;");
+        return lines;
+    }
+
+    /** Generates script for the sqlite3 shell: imports the files,
+     * restores NULL values (the marker \N) and removes the extra backslash
+     * of strings. Indexes of the SQLite database are not changed.
+     */
+    List<String> getSQLiteScript() {
+        List<String> lines = new ArrayList<String>();
+        lines.add("PRAGMA synchronous=OFF;");
+        lines.add("PRAGMA journal_mode=OFF;");
+        lines.add(".mode csv");
+
+        for(Table t : tables.values()) {
+            if(0 == t.rows)
+                continue;
+            lines.add("");
+            lines.add("-- " + t.name + ": " + t.rows + " rows");
+            lines.add(".import '" + getFile(t).getAbsolutePath().replace("\\", "/") + "' " + t.name);
+
+            String[] columns = t.columns.split(",");
+            for(int i=0; i<columns.length; i++) {
+                if(t.has_marker[i])
+                    lines.add("UPDATE " + t.name + " SET " + columns[i] + "=CASE WHEN " + columns[i] + "='" + SQLITE_NULL +
+                              "' THEN NULL ELSE substr(" + columns[i] + ",2) END WHERE " + columns[i] + " GLOB '\\*';");
+            }
+        }
+        return lines;
+    }
+
+    /** Prints number of rows per table. */
+    public void printStatistics() {
+
+        float t_work = (System.currentTimeMillis() - t_start)/1000f; // in sec
+        System.out.println("\nBulkLoader: directory=" + dir.getAbsolutePath() + ", time sec:" + t_work);
+
+        for(Table t : tables.values())
+            System.out.printf("  %-20s rows=%d, last id=%d\n", t.name, t.rows, t.last_id);
+
+        System.out.println("Load the data by the script: " +
+                new File(dir, is_mysql ? "load.sql" : "load.sqlite").getAbsolutePath());
+    }
+}
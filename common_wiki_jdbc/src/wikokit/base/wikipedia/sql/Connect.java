@@ -7,6 +7,8 @@
 package wikokit.base.wikipedia.sql;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import wikokit.base.wikipedia.language.Encodings;
@@ -23,7 +25,7 @@ public class Connect {
     
     /** stores encoding values for database and user interface */
     public      Encodings  enc;
-    public static PageTableBase  page_table;
+    public final static PageTableBase page_table = new PageTableBase(); // stateless, shared by connections (and threads)
     public      Connection conn;      // non static variable, because can be used two or more connections 
                                         // (to Russian, English and other wikipedias)
 
@@ -43,6 +45,28 @@ public class Connect {
     /** It's true for SQLite and false for MySQL. */
     private     boolean is_sqlite;
     
+    /** SQLite database is opened in read-only mode (e.g. by ConnectPool). */
+    private     boolean is_read_only;
+    
+    /** Prepared statements, batches and transactions, it is null
+     * if the batch-writer mode is off. */
+    private     BatchWriter batch_writer;
+    
+    /** Client-side IDs and files for LOAD DATA INFILE, it is null
+     * if the bulk-load mode is off. */
+    private     BulkLoader bulk_loader;
+    
+    /** Caches of records by natural keys for T*.getOrInsert(), it is null
+     * if the lookup-cache mode is off. */
+    private     LookupCache lookup_cache;
+    
+    /** Prepared statements of the read functions (T*.get()) by SQL template. */
+    private final StatementCache statement_cache = new StatementCache(this);
+    
+    /** Result of PageFilter.exists() for this connection, it is null
+     * if the table 'page_filter' was not checked yet. */
+    private     Boolean page_filter_exists;
+    
     
     // debug constant parameters
     
@@ -142,7 +166,6 @@ public class Connect {
 
     public Connect() {
         enc        = new Encodings();
-        page_table = new PageTableBase();
     }
 
     /** Gets database name (MySQL), or file name (SQLite). */
@@ -171,12 +194,29 @@ public class Connect {
      *               native language, e.g. Russian in Russian Wiktionary.
      */
     public void OpenSQLite(String _sqlite_filepath, LanguageType _lang, boolean brelease) {
+        OpenSQLite(_sqlite_filepath, _lang, brelease, false);
+    }
+    
+    /** Opens SQLite connection, the database could be opened in read-only mode,
+     * then several connections can read the database file concurrently.
+     *
+     * @param read_only if true, then SQLITE_OPEN_READONLY flag is used
+     * @see #OpenSQLite(String, LanguageType, boolean)
+     */
+    public void OpenSQLite(String _sqlite_filepath, LanguageType _lang, boolean brelease,
+                           boolean read_only) {
 
         lang    = _lang;
         sqlite_filepath = _sqlite_filepath;
         is_sqlite = true;
+        is_read_only = read_only;
         OpenSQLite(brelease, sqlite_filepath);
     }
+    
+    /** True if SQLite database is opened in read-only mode. */
+    public boolean isReadOnly() {
+        return is_read_only;
+    }
 
     /** Opens MySQL connection. 
      *
@@ -228,6 +268,7 @@ public class Connect {
     
     private void Open() { 
         conn = null;
+        page_filter_exists = null;
         String classname = "com.mysql.cj.jdbc.Driver"; // "com.mysql.jdbc.Driver"; ~
         try {
             Class.forName(classname).newInstance(); 
@@ -281,6 +322,122 @@ public class Connect {
         }
     }
 
+    /** Switches on the batch-writer mode: T*.insert() functions will use 
+     * prepared statements and JDBC batches, the data are committed 
+     * every commit_pages pages.
+     *
+     * @param commit_pages  number of pages stored in one transaction
+     * @param batch_size    max number of rows in a JDBC batch
+     */
+    public void openBatchWriter(int commit_pages, int batch_size) {
+        if(null != batch_writer)
+            return;
+        try {
+            batch_writer = new BatchWriter(this, commit_pages, batch_size);
+        } catch(SQLException ex) {
+            System.err.println("Exception (Connect.openBatchWriter()): " + ex.getMessage());
+        }
+    }
+    
+    /** Gets batch writer, it is null if the batch-writer mode is off. */
+    public BatchWriter getBatchWriter() {
+        return batch_writer;
+    }
+    
+    /** Flushes and commits the data, switches off the batch-writer mode. */
+    public void closeBatchWriter() {
+        if(null == batch_writer)
+            return;
+        batch_writer.close();
+        batch_writer = null;
+    }
+    
+    /** Switches on the bulk-load mode: T*.insert() functions will write 
+     * rows to the files in the directory dir instead of the database, 
+     * IDs are assigned in-process. It can be used only if the tables 
+     * are empty.
+     *
+     * @param dir  directory for the files and the load script
+     * @see BulkLoader
+     */
+    public void openBulkLoader(String dir) {
+        if(null != bulk_loader)
+            return;
+        try {
+            bulk_loader = new BulkLoader(this, dir);
+        } catch(IOException ex) {
+            System.err.println("Exception (Connect.openBulkLoader()): " + ex.getMessage());
+        }
+    }
+    
+    /** Gets bulk loader, it is null if the bulk-load mode is off. */
+    public BulkLoader getBulkLoader() {
+        return bulk_loader;
+    }
+    
+    /** Writes the rest of data and the load script, switches off 
+     * the bulk-load mode. */
+    public void closeBulkLoader() {
+        if(null == bulk_loader)
+            return;
+        bulk_loader.close();
+        bulk_loader = null;
+    }
+    
+    /** Switches on the lookup-cache mode: T*.getOrInsert() functions will 
+     * search records of small repetitive tables (page, inflection, 
+     * quot_author, etc.) in the in-process cache before SELECT.
+     *
+     * @param capacity  max number of records of one table in the cache
+     * @see LookupCache
+     */
+    public void openLookupCache(int capacity) {
+        if(null != lookup_cache)
+            return;
+        lookup_cache = new LookupCache(capacity);
+    }
+    
+    /** Gets lookup cache, it is null if the lookup-cache mode is off. */
+    public LookupCache getLookupCache() {
+        return lookup_cache;
+    }
+    
+    /** Prints hit rates, switches off the lookup-cache mode. */
+    public void closeLookupCache() {
+        if(null == lookup_cache)
+            return;
+        lookup_cache.printStatistics();
+        lookup_cache = null;
+    }
+    
+    /** Gets the prepared statement for the SQL template from the cache 
+     * of the connection. The statement should not be closed by the caller.
+     *
+     * @param sql  SQL template with parameters '?'
+     * @see StatementCache
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return statement_cache.prepare(sql);
+    }
+    
+    /** Gets the cache of prepared statements of the connection. */
+    public StatementCache getStatementCache() {
+        return statement_cache;
+    }
+    
+    /** Gets the cached result of PageFilter.exists(), it is null if
+     * the table 'page_filter' was not checked yet. */
+    public Boolean getPageFilterExists() {
+        return page_filter_exists;
+    }
+    
+    /** Caches the result of PageFilter.exists(), null resets the cache,
+     * e.g. after the table 'page_filter' is changed by other connection.
+     */
+    public void setPageFilterExists(Boolean b) {
+        page_filter_exists = b;
+    }
+
     public static void testSQLite() {
 
  
@@ -325,6 +482,7 @@ public class Connect {
 
     private void OpenSQLite(boolean brelease, String sqlite_filename) {
         conn = null;
+        page_filter_exists = null;
         String classname = "org.sqlite.JDBC";
 
         try {
@@ -337,7 +495,12 @@ public class Connect {
 
             String s = "jdbc:sqlite:" + result_filepath;   //s = "jdbc:sqlite:/" + result_filepath;
             System.out.println("DriverManager.getConnection(" + s + ")");
-            conn = DriverManager.getConnection(s);
+            if(is_read_only) {
+                Properties prop = new Properties();
+                prop.setProperty("open_mode", "1"); // SQLITE_OPEN_READONLY, see org.sqlite.SQLiteConfig.setReadOnly()
+                conn = DriverManager.getConnection(s, prop);
+            } else
+                conn = DriverManager.getConnection(s);
 
             //conn = DriverManager.getConnection("jdbc:sqlite://"+db_host+"/"+db_name, user, pass);
             // ?autoReconnect=true&useUnbufferedInput=false
@@ -367,6 +530,11 @@ public class Connect {
 
     public void Close()
     {
+        closeBatchWriter();
+        closeBulkLoader();
+        closeLookupCache();
+        statement_cache.close();
+        page_filter_exists = null;
         if (conn != null) {
             try {
                 conn.close ();
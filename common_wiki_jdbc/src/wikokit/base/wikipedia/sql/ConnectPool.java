@@ -0,0 +1,167 @@
+/* ConnectPool.java - pool of connections to one database for concurrent readers.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.sql;
+
+import wikokit.base.wikipedia.language.LanguageType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/** Pooled mode: N connections (Connect objects) to one MySQL database
+ * or N read-only handles of one SQLite file. One Connect object is not
+ * thread-safe (connection, statement cache, batch writer), so a thread leases
+ * the Connect for the time of one call and returns it to the pool.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * ConnectPool pool = ConnectPool.openSQLite(8, Connect.RUWIKT_SQLITE, LanguageType.ru, false);
+ * Connect c = pool.lease();
+ * TLang.createFastMaps(c);     // static maps should be created before the threads start
+ * TPOS.createFastMaps(c);
+ * TRelationType.createFastMaps(c);
+ * pool.release(c);
+ *
+ * // in any thread, the connection is taken from the pool for the time of the call:
+ * String[] definitions = WTMeaning.getDefinitionsByPageLang(pool, "дом", LanguageType.ru);
+ *
+ * pool.close();
+ * </PRE>
+ */
+public class ConnectPool {
+
+    /** All connections of the pool. */
+    private final List<Connect> all;
+
+    /** Connections which are not leased now. */
+    private final BlockingQueue<Connect> idle;
+
+    /** Connections which are leased now (compared by identity), release()
+     * accepts only them. */
+    private final Set<Connect> leased;
+
+    /** Creates the pool of opened connections.
+     *
+     * @throws IllegalArgumentException if there are no connections
+     */
+    ConnectPool(List<Connect> _all) {
+        if(_all.isEmpty())
+            throw new IllegalArgumentException("ConnectPool: n_connections should be > 0");
+        all    = _all;
+        idle   = new ArrayBlockingQueue<Connect>(all.size(), false, all);
+        leased = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Connect, Boolean>()));
+    }
+
+    /** Opens n_connections to the MySQL database.
+     *
+     * @return null if the database is unavailable
+     * @throws IllegalArgumentException if n_connections &lt; 1
+     * @see Connect#Open(String, String, String, String, LanguageType)
+     */
+    public static ConnectPool openMySQL(int n_connections,
+                                        String db_host, String db_name, String user, String pass,
+                                        LanguageType lang) {
+        List<Connect> all = new ArrayList<Connect>(n_connections);
+        for(int i=0; i<n_connections; i++) {
+            Connect c = new Connect();
+            c.Open(db_host, db_name, user, pass, lang);
+            if(null == c.conn) {
+                System.out.println("Error (ConnectPool.openMySQL()):: connection " + i + " is not opened.");
+                closeAll(all);
+                return null;
+            }
+            all.add(c);
+        }
+        return new ConnectPool(all);
+    }
+
+    /** Opens n_connections to the SQLite database in read-only mode.
+     *
+     * @return null if the database is unavailable
+     * @throws IllegalArgumentException if n_connections &lt; 1
+     * @see Connect#OpenSQLite(String, LanguageType, boolean, boolean)
+     */
+    public static ConnectPool openSQLite(int n_connections,
+                                         String sqlite_filepath, LanguageType lang, boolean brelease) {
+        List<Connect> all = new ArrayList<Connect>(n_connections);
+        for(int i=0; i<n_connections; i++) {
+            Connect c = new Connect();
+            c.OpenSQLite(sqlite_filepath, lang, brelease, true);
+            if(null == c.conn) {
+                System.out.println("Error (ConnectPool.openSQLite()):: connection " + i + " is not opened.");
+                closeAll(all);
+                return null;
+            }
+            all.add(c);
+        }
+        return new ConnectPool(all);
+    }
+
+    /** Gets number of connections in the pool. */
+    public int size() {
+        return all.size();
+    }
+
+    /** Gets number of connections which are not leased now. */
+    public int getIdleNumber() {
+        return idle.size();
+    }
+
+    /** Takes the connection from the pool, waits if all connections are leased.
+     * The connection should be returned by release() in finally block.
+     */
+    public Connect lease() {
+        boolean b_interrupted = false;
+        try {
+            while(true) {
+                try {
+                    Connect c = idle.take();
+                    leased.add(c);
+                    return c;
+                } catch(InterruptedException ex) {
+                    b_interrupted = true;   // the lease is short, so wait it
+                }
+            }
+        } finally {
+            if(b_interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Returns the connection to the pool.
+     *
+     * @throws IllegalArgumentException if the connection is not leased
+     * from this pool or it is released twice
+     */
+    public void release(Connect connect) {
+        if(null == connect)
+            return;
+        if(!leased.remove(connect))
+            throw new IllegalArgumentException("ConnectPool: the connection is not leased from this pool or it is released twice");
+        idle.add(connect);
+    }
+
+    /** Closes all connections, the leased connections should be released before. */
+    public void close() {
+        if(!leased.isEmpty())
+            System.out.println("Warning (ConnectPool.close()):: " + leased.size() +
+                               " connections are not released.");
+        leased.clear();
+        closeAll(all);
+        idle.clear();
+    }
+
+    private static void closeAll(List<Connect> list) {
+        for(Connect c : list)
+            c.Close();
+        list.clear();
+    }
+}
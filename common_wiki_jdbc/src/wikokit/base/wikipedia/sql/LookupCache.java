@@ -0,0 +1,162 @@
+/* LookupCache.java - size-capped LRU caches of small repetitive tables
+ *                    (dimension tables) by natural keys.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.sql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Lookup-cache mode of the connection: T*.getOrInsert() functions search
+ * the record in the cache by the natural key (e.g. page title, inflected form,
+ * author's name) before "SELECT id ... WHERE text=...", found and inserted
+ * records are stored to the cache.<br><br>
+ *
+ * There is one LRU cache per table, the number of records of one table
+ * is limited by 'capacity'. Number of hits and misses is counted for each
+ * table.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * conn.openLookupCache(100000);
+ * for(...) {
+ *     Keeper.storeToDB(conn, word, native_lang); // T*.getOrInsert() use conn.getLookupCache()
+ * }
+ * conn.closeLookupCache();                       // prints hit rates
+ * </PRE>
+ *
+ * The cache is valid only if the tables are not changed by other connections
+ * during the work of the cache. Records are deleted from the cache by
+ * T*.delete(), the updated records (e.g. TPage.setIsInWiktionary()) are
+ * updated in the cache too.
+ */
+public class LookupCache {
+
+    /** Cache of one table: access-ordered map with counters. */
+    private static class Table extends LinkedHashMap<Object, Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        long hits, misses, evictions;
+
+        Table(int _capacity) {
+            super(16, 0.75f, true);
+            capacity = _capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+            if(size() <= capacity)
+                return false;
+            evictions ++;
+            return true;
+        }
+    }
+
+    /** Max number of records of one table in the cache. */
+    private final int capacity;
+
+    /** Caches of tables, table name -> cache. */
+    private final Map<String, Table> tables = new LinkedHashMap<String, Table>();
+
+    /** Creates empty caches.
+     *
+     * @param capacity  max number of records of one table in the cache
+     */
+    LookupCache(int _capacity) {
+        capacity = _capacity;
+    }
+
+    private Table getTable(String table) {
+        Table t = tables.get(table);
+        if(null == t) {
+            t = new Table(capacity);
+            tables.put(table, t);
+        }
+        return t;
+    }
+
+    /** Gets record of the table by the natural key, counts a hit or a miss.
+     *
+     * @param key   natural key, e.g. page title; composite keys are lists
+     *              of values, e.g. Arrays.asList(year_id, author_id, title)
+     * @return null if the record is absent in the cache
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <V> V get(String table, Object key) {
+        Table t = getTable(table);
+        Object value = t.get(key);
+        if(null == value)
+            t.misses ++;
+        else
+            t.hits ++;
+        return (V)value;
+    }
+
+    /** Stores the record of the table by the natural key, the least recently
+     * used record of the table is removed if the cache is full.
+     */
+    public synchronized void put(String table, Object key, Object value) {
+        if(null != value)
+            getTable(table).put(key, value);
+    }
+
+    /** Removes the record of the table from the cache. */
+    public synchronized void remove(String table, Object key) {
+        Table t = tables.get(table);
+        if(null != t)
+            t.remove(key);
+    }
+
+    /** Removes all records of the table from the cache,
+     * e.g. if a record is deleted by ID and the natural key is unknown. */
+    public synchronized void clear(String table) {
+        Table t = tables.get(table);
+        if(null != t)
+            t.clear();
+    }
+
+    /** Gets number of the records found in the cache of the table. */
+    public synchronized long getHits(String table) {
+        Table t = tables.get(table);
+        return null == t ? 0 : t.hits;
+    }
+
+    /** Gets number of the records which were not found in the cache of the table. */
+    public synchronized long getMisses(String table) {
+        Table t = tables.get(table);
+        return null == t ? 0 : t.misses;
+    }
+
+    /** Gets part of lookups of the table answered by the cache, from 0 to 1. */
+    public synchronized float getHitRate(String table) {
+        Table t = tables.get(table);
+        if(null == t || 0 == t.hits + t.misses)
+            return 0f;
+        return t.hits / (float)(t.hits + t.misses);
+    }
+
+    /** Gets number of records of the table in the cache. */
+    public synchronized int size(String table) {
+        Table t = tables.get(table);
+        return null == t ? 0 : t.size();
+    }
+
+    /** Prints number of hits, misses, hit rate and evictions for each table. */
+    public synchronized void printStatistics() {
+
+        System.out.println("\nLookupCache: capacity=" + capacity + " records per table");
+        for(String table : tables.keySet()) {
+            Table t = tables.get(table);
+            System.out.printf("  %-20s hits=%d, misses=%d, hit rate=%.1f%%, evictions=%d, size=%d\n",
+                    table, t.hits, t.misses,
+                    0 == t.hits + t.misses ? 0f : 100f * t.hits / (t.hits + t.misses),
+                    t.evictions, t.size());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/* StatementCache.java - prepared statements of the connection,
+ *                       one statement per SQL template.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikipedia.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Prepared statements of the connection by SQL template with parameters,
+ * e.g. "SELECT id FROM page WHERE page_title=?". The read functions
+ * (TPage.get(), TLangPOS.get(), etc.) are called millions times with the same
+ * SQL, so the statement is prepared (and the query plan is built by SQLite)
+ * only once per connection, the values are bound by setInt() and setString()
+ * without escaping.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * PreparedStatement ps = connect.prepare("SELECT id FROM page WHERE page_title=?");
+ * ps.setString(1, page_title);
+ * ResultSet rs = ps.executeQuery();
+ * try {
+ *     ...
+ * } finally {
+ *     rs.close();    // the statement is not closed, it is closed by connect.Close()
+ * }
+ * </PRE>
+ *
+ * The statement should be executed and its result set should be closed before
+ * the next call with the same SQL template, i.e. the same statement can not
+ * be used by nested calls (nested SELECT in the loop over result set).<br><br>
+ *
+ * MySQL Connector/J prepares statements at the client side by default, the server-side
+ * statements are used with "useServerPrepStmts=true" in the database URL.
+ */
+public class StatementCache {
+
+    private final Connect connect;
+
+    /** Connection of the cached statements, the statements are closed
+     * if the connection is reopened. */
+    private Connection conn;
+
+    /** SQL template -> prepared statement. */
+    private final Map<String, PreparedStatement> sql2statement =
+                                new LinkedHashMap<String, PreparedStatement>();
+
+    /** Number of prepared and reused statements. */
+    private long n_prepared, n_reused;
+
+    StatementCache(Connect _connect) {
+        connect = _connect;
+    }
+
+    /** Gets the prepared statement from the cache, prepares and stores it
+     * if it is absent.
+     *
+     * @param sql  SQL template with parameters '?'
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+
+        if(conn != connect.conn) {  // e.g. ReOpen()
+            close();
+            conn = connect.conn;
+        }
+
+        PreparedStatement ps = sql2statement.get(sql);
+        if(null != ps) {
+            n_reused ++;
+            return ps;
+        }
+
+        ps = conn.prepareStatement(sql);
+        sql2statement.put(sql, ps);
+        n_prepared ++;
+        return ps;
+    }
+
+    /** Gets number of cached statements. */
+    public int size() {
+        return sql2statement.size();
+    }
+
+    /** Gets number of statements prepared by the cache. */
+    public long getPreparedNumber() {
+        return n_prepared;
+    }
+
+    /** Gets number of calls when the statement was taken from the cache. */
+    public long getReusedNumber() {
+        return n_reused;
+    }
+
+    /** Closes all statements. */
+    void close() {
+        for(PreparedStatement ps : sql2statement.values()) {
+            try {
+                ps.close();
+            } catch(SQLException ex) { /* ignore close errors */ }
+        }
+        sql2statement.clear();
+        conn = null;
+    }
+}
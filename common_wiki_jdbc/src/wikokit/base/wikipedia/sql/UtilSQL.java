@@ -50,6 +50,35 @@ public class UtilSQL {
             System.out.println("SQLException (MSRMeanSemrelXX.dropTable()): sql='" + str_sql + "' " + ex.getMessage());
         }
     }
+
+    /** Creates statement with forward-only cursor. MySQL driver streams
+     * rows one by one (fetch size = Integer.MIN_VALUE) instead of reading
+     * the whole result set into memory. Other queries can not be executed
+     * by this connection until the result set is closed.
+     */
+    public static Statement createStreamingStatement (Connect connect) throws SQLException {
+        Statement s = connect.conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if(connect.isMySQL())
+            s.setFetchSize(Integer.MIN_VALUE);
+        return s;
+    }
+
+    /** Checks whether the table exists in the database. */
+    public static boolean hasTable (Connect connect, String table_name) {
+
+        boolean b = false;
+        try {
+            ResultSet rs = connect.conn.getMetaData().getTables(connect.conn.getCatalog(), null, table_name, null);
+            try {
+                b = rs.next();
+            } finally {
+                rs.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (UtilSQL.hasTable()):: table = "+ table_name +"; msg = " + ex.getMessage());
+        }
+        return b;
+    }
     
 
 }
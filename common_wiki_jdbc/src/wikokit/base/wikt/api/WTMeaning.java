@@ -13,6 +13,7 @@ import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikt.sql.TMeaning;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.ConnectPool;
 import wikokit.base.wikt.constant.POS;
 
 import java.util.List;
@@ -108,6 +109,45 @@ public class WTMeaning {
         return meanings_counter;
     }
 
+    /** Gets list of definitions by lang_pos.
+     * The connection is leased from the pool for the time of the call.
+     */
+    public static String[] getDefinitionsByLangPOS(ConnectPool pool,
+            TLangPOS lang_pos) {
+        Connect connect = pool.lease();
+        try {
+            return getDefinitionsByLangPOS(connect, lang_pos);
+        } finally {
+            pool.release(connect);
+        }
+    }
+
+    /** Gets list of definitions by page_title (for all available POS).
+     * The connection is leased from the pool for the time of the call.
+     */
+    public static String[] getDefinitionsByPageLang(ConnectPool pool,
+            String page_title,LanguageType lang) {
+        Connect connect = pool.lease();
+        try {
+            return getDefinitionsByPageLang(connect, page_title, lang);
+        } finally {
+            pool.release(connect);
+        }
+    }
+
+    /** Counts number of meanings (definitions, senses) for the given LangPOS.
+     * The connection is leased from the pool for the time of the call.
+     */
+    public static int countMeanings(ConnectPool pool,
+            TLangPOS lang_pos) {
+        Connect connect = pool.lease();
+        try {
+            return countMeanings(connect, lang_pos);
+        } finally {
+            pool.release(connect);
+        }
+    }
+
 
     /** Checks whether the article 'page_title' has any definitions. */
     /*public static boolean hasDefinition(Connect connect,
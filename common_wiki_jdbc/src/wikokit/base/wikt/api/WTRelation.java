@@ -12,6 +12,7 @@ import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikt.sql.TRelation;
 import wikokit.base.wikt.sql.TMeaning;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.ConnectPool;
 import wikokit.base.wikt.constant.Relation;
 
 import java.util.List;
@@ -83,4 +84,30 @@ public class WTRelation {
 
         return n_rels;
     }
+
+    /** Gets list of semantic relations by lang_pos for each meaning.
+     * The connection is leased from the pool for the time of the call.
+     */
+    public static String[] getForEachMeaningByPageLang(ConnectPool pool,
+            TLangPOS lang_pos,Relation rel_type) {
+        Connect connect = pool.lease();
+        try {
+            return getForEachMeaningByPageLang(connect, lang_pos, rel_type);
+        } finally {
+            pool.release(connect);
+        }
+    }
+
+    /** Gets the number of semantic relations by lang_pos.
+     * The connection is leased from the pool for the time of the call.
+     */
+    public static int getNumberByPageLang(ConnectPool pool,
+            TLangPOS lang_pos) {
+        Connect connect = pool.lease();
+        try {
+            return getNumberByPageLang(connect, lang_pos);
+        } finally {
+            pool.release(connect);
+        }
+    }
 }
@@ -0,0 +1,458 @@
+/* WTSnapshot.java - read-only memory-mapped snapshot of the parsed Wiktionary.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.api;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.util.StringUtil;
+import wikokit.base.wikt.constant.POS;
+import wikokit.base.wikt.constant.Relation;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Read-only snapshot of the parsed Wiktionary database, which is mapped
+ * into memory, so the high-level functions (definitions, semantic relations,
+ * translations) work without the database connection and without
+ * the loading of the whole file.<br><br>
+ *
+ * The snapshot is written by WTSnapshotWriter.export(). Functions of
+ * the snapshot correspond to WTMeaning.getDefinitionsByPageLang(),
+ * WTRelation.getForEachMeaningByPageLang() and WTTranslation.translate().
+ * The snapshot could be used by several threads.<br><br>
+ *
+ * Format of the file (int is big-endian, string is offset and length
+ * of UTF-8 bytes in the heap, length -1 for null):
+ * <PRE>
+ * header       FILE_MAGIC, VERSION, string native_lang, n_lang, n_pos, n_rel,
+ *              n_page, n_lang_pos, n_meaning, n_relation, n_direct, n_backward, heap_start
+ * names        string[n_lang] codes of languages, string[n_pos] POS, string[n_rel] relations
+ *                  (by ID in the tables lang, part_of_speech, relation_type)
+ * page         (string title, first_lang_pos, first_backward) [n_page + 1], sorted by title
+ * lang_pos     (page, lang_id, pos_id, first_meaning, first_direct) [n_lang_pos + 1]
+ * meaning      (string definition, first_relation) [n_meaning + 1]
+ * relation     (relation_type_id, string text) [n_relation]
+ * direct       (lang_id, page) [n_direct] - translations of the lang_pos
+ * backward     (lang_id, lang_pos) [n_backward] - lang_pos with translation into the page
+ * heap         UTF-8 strings
+ * </PRE>
+ * The last record in page, lang_pos and meaning is the end of the last group
+ * of child records.
+ */
+public class WTSnapshot {
+
+    /** Signature of the file. */
+    public final static int FILE_MAGIC = 0x57545350;   // "WTSP"
+    public final static int VERSION = 1;
+
+    /** Size of the header in bytes, and size of records in ints. */
+    final static int HEADER_SIZE   = 14 * 4;
+    final static int PAGE_INTS     = 4;
+    final static int LANG_POS_INTS = 5;
+    final static int MEANING_INTS  = 3;
+    final static int RELATION_INTS = 3;
+    final static int TRANS_INTS    = 2;
+
+    private final static String[] NULL_STRING_ARRAY = new String[0];
+    private final static int[] NULL_INT_ARRAY = new int[0];
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer buf;
+
+    private final LanguageType native_lang;
+
+    /** Languages, POS and relation types by ID in the database. */
+    private final LanguageType[]   langs;
+    private final POS[]            poses;
+    private final Relation[]       relations;
+
+    private final int n_page;
+
+    /** Offsets of the sections in the file. */
+    private final int page_start, lang_pos_start, meaning_start,
+                      relation_start, direct_start, backward_start, heap_start;
+
+    private WTSnapshot(ByteBuffer _buf) throws IOException {
+        buf = _buf;
+
+        if(buf.capacity() < HEADER_SIZE || FILE_MAGIC != buf.getInt(0))
+            throw new IOException("The file is not a snapshot stored by WTSnapshotWriter");
+        if(VERSION != buf.getInt(4))
+            throw new IOException("Unknown version of the snapshot: " + buf.getInt(4));
+
+        heap_start = buf.getInt(52);
+        native_lang = LanguageType.get(getString(buf.getInt(8), buf.getInt(12)));
+
+        int n_lang = buf.getInt(16);
+        int n_pos  = buf.getInt(20);
+        int n_rel  = buf.getInt(24);
+        n_page     = buf.getInt(28);
+        int n_lang_pos = buf.getInt(32);
+        int n_meaning  = buf.getInt(36);
+        int n_relation = buf.getInt(40);
+        int n_direct   = buf.getInt(44);
+
+        int pos = HEADER_SIZE;
+        langs = new LanguageType[n_lang];
+        for(int i=0; i<n_lang; i++, pos += 8) {
+            String code = getString(buf.getInt(pos), buf.getInt(pos + 4));
+            if(null != code && LanguageType.has(code))
+                langs[i] = LanguageType.get(code);
+        }
+
+        poses = new POS[n_pos];
+        for(int i=0; i<n_pos; i++, pos += 8) {
+            String name = getString(buf.getInt(pos), buf.getInt(pos + 4));
+            if(null != name)
+                poses[i] = POS.get(name);
+        }
+
+        relations = new Relation[n_rel];
+        for(int i=0; i<n_rel; i++, pos += 8) {
+            String name = getString(buf.getInt(pos), buf.getInt(pos + 4));
+            if(null != name)
+                relations[i] = Relation.get(name);
+        }
+
+        page_start      = pos;
+        lang_pos_start  = page_start     + 4 * PAGE_INTS     * (n_page + 1);
+        meaning_start   = lang_pos_start + 4 * LANG_POS_INTS * (n_lang_pos + 1);
+        relation_start  = meaning_start  + 4 * MEANING_INTS  * (n_meaning + 1);
+        direct_start    = relation_start + 4 * RELATION_INTS * n_relation;
+        backward_start  = direct_start   + 4 * TRANS_INTS    * n_direct;
+    }
+
+    /** Maps the snapshot file into memory (the file should be less than 2 GB). */
+    public static WTSnapshot open(String filename) throws IOException {
+        RandomAccessFile f = new RandomAccessFile(filename, "r");
+        try {
+            FileChannel ch = f.getChannel();
+            return new WTSnapshot(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        } finally {
+            f.close();  // the mapping remains valid
+        }
+    }
+
+    /** Gets language of Wiktionary edition, e.g. Russian in Russian Wiktionary. */
+    public LanguageType getNativeLanguage() {
+        return native_lang;
+    }
+
+    /** Gets number of pages. */
+    public int getPageCount() {
+        return n_page;
+    }
+
+    /** Decodes the string from the heap, returns null for length -1. */
+    private String getString(int off, int len) {
+        if(len < 0)
+            return null;
+
+        byte[] b = new byte[len];
+        ByteBuffer d = buf.duplicate();
+        d.position(heap_start + off);
+        d.get(b);
+        return new String(b, UTF8);
+    }
+
+    /** Compares the string in the heap (UTF-8) with the string s
+     * as String.compareTo() does (by UTF-16 chars), without decoding.
+     */
+    private int compareTo(int off, int len, String s) {
+        int i = heap_start + off;
+        int end = i + len;
+        int k = 0;
+        int s_len = s.length();
+        char low = 0;   // the second char of the surrogate pair
+
+        while((i < end || 0 != low) && k < s_len) {
+            char c;
+            if(0 != low) {
+                c = low;
+                low = 0;
+            } else {
+                int b = buf.get(i++) & 0xFF;
+                if(b < 0x80) {
+                    c = (char)b;
+                } else if(b < 0xE0) {
+                    c = (char)(((b & 0x1F) << 6) | (buf.get(i++) & 0x3F));
+                } else if(b < 0xF0) {
+                    c = (char)(((b & 0x0F) << 12) | ((buf.get(i++) & 0x3F) << 6)
+                                                   | (buf.get(i++) & 0x3F));
+                } else {
+                    int cp = ((b & 0x07) << 18) | ((buf.get(i++) & 0x3F) << 12)
+                           | ((buf.get(i++) & 0x3F) << 6) | (buf.get(i++) & 0x3F);
+                    c   = Character.highSurrogate(cp);
+                    low = Character.lowSurrogate(cp);
+                }
+            }
+            char sc = s.charAt(k++);
+            if(c != sc)
+                return c - sc;
+        }
+        if(i < end || 0 != low)
+            return 1;
+        return k < s_len ? -1 : 0;
+    }
+
+    private int pageInt(int page, int field) {
+        return buf.getInt(page_start + 4 * (PAGE_INTS * page + field));
+    }
+
+    private int langPOSInt(int lang_pos, int field) {
+        return buf.getInt(lang_pos_start + 4 * (LANG_POS_INTS * lang_pos + field));
+    }
+
+    private int meaningInt(int meaning, int field) {
+        return buf.getInt(meaning_start + 4 * (MEANING_INTS * meaning + field));
+    }
+
+    private LanguageType getLang(int lang_id) {
+        return lang_id >= 0 && lang_id < langs.length ? langs[lang_id] : null;
+    }
+
+    /** Gets index of the page by the title (binary search),
+     * returns -1 if there is no such page.
+     */
+    public int getPageIndex(String page_title) {
+        int lo = 0, hi = n_page - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareTo(pageInt(mid, 0), pageInt(mid, 1), page_title);
+            if(cmp < 0)
+                lo = mid + 1;
+            else if(cmp > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /** Gets title of the page by index. */
+    public String getPageTitle(int page) {
+        return getString(pageInt(page, 0), pageInt(page, 1));
+    }
+
+    /** Gets indexes of lang_pos of the page in the given language,
+     * e.g. noun and verb "run" in English.
+     */
+    public int[] getLangPOS(String page_title, LanguageType lang) {
+        int page = getPageIndex(page_title);
+        if(-1 == page)
+            return NULL_INT_ARRAY;
+
+        int first = pageInt(page,     2);
+        int last  = pageInt(page + 1, 2);
+        int n = 0;
+        int[] result = new int[last - first];
+        for(int lp=first; lp<last; lp++) {
+            if(lang == getLang(langPOSInt(lp, 1)))
+                result[n++] = lp;
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /** Gets part of speech of the lang_pos, or null if it is unknown. */
+    public POS getPOS(int lang_pos) {
+        int pos_id = langPOSInt(lang_pos, 2);
+        return pos_id >= 0 && pos_id < poses.length ? poses[pos_id] : null;
+    }
+
+    /** Gets title of the page of the lang_pos. */
+    public String getPageTitleByLangPOS(int lang_pos) {
+        return getPageTitle(langPOSInt(lang_pos, 0));
+    }
+
+    /** Gets list of definitions by page_title (for all available POS),
+     * see WTMeaning.getDefinitionsByPageLang().
+     */
+    public String[] getDefinitionsByPageLang(String page_title, LanguageType lang) {
+
+        List<String> definitions = new ArrayList<String>();
+        for(int lp : getLangPOS(page_title, lang)) {
+            int last = langPOSInt(lp + 1, 3);
+            for(int m=langPOSInt(lp, 3); m<last; m++) {
+                String text = getString(meaningInt(m, 0), meaningInt(m, 1));
+                if(null != text)
+                    definitions.add(text);
+            }
+        }
+
+        if(definitions.size() > 0)
+            return (String[])definitions.toArray(NULL_STRING_ARRAY);
+        return NULL_STRING_ARRAY;
+    }
+
+    /** Gets list of semantic relations for each meaning of the lang_pos,
+     * with empty "" elements for absent relations,
+     * see WTRelation.getForEachMeaningByPageLang().
+     *
+     * @param lang_pos  index of lang_pos, see getLangPOS()
+     * @return zero length array, if there is no at all relations of this kind
+     */
+    public String[] getForEachMeaningByPageLang(int lang_pos, Relation rel_type) {
+
+        List<String> relations_lists = new ArrayList<String>();
+        boolean b_relation = false;
+
+        int last_m = langPOSInt(lang_pos + 1, 3);
+        for(int m=langPOSInt(lang_pos, 3); m<last_m; m++) {
+
+            StringBuilder list = new StringBuilder();
+            int last_r = meaningInt(m + 1, 2);
+            for(int r=meaningInt(m, 2); r<last_r; r++) {
+                int pos = relation_start + 4 * RELATION_INTS * r;
+                int rel_id = buf.getInt(pos);
+                if(rel_id >= 0 && rel_id < relations.length && relations[rel_id] == rel_type) {
+                    if(list.length() > 0)
+                        list.append(", ");
+                    list.append(getString(buf.getInt(pos + 4), buf.getInt(pos + 8)));
+                    b_relation = true;  // at least one relation exists.
+                }
+            }
+            relations_lists.add(list.toString());   // "" corresponds to the absent list: "# - "
+        }
+
+        if(!b_relation)
+            return NULL_STRING_ARRAY;
+        return (String[])relations_lists.toArray(NULL_STRING_ARRAY);
+    }
+
+    /** Gets the number of semantic relations of all types for all meanings
+     * of the lang_pos, see WTRelation.getNumberByPageLang().
+     */
+    public int getNumberByPageLang(int lang_pos) {
+        int first = meaningInt(langPOSInt(lang_pos, 3),     2);
+        int last  = meaningInt(langPOSInt(lang_pos + 1, 3), 2);
+        return last - first;
+    }
+
+    /** Translates the word from the native language to a target language,
+     * see WTTranslation.getDirectTranslation().
+     */
+    public String [] getDirectTranslation(LanguageType target_lang, String word) {
+
+        if(native_lang == target_lang) {
+            System.out.println("Error (WTSnapshot.getDirectTranslation()):: How to translate from "+target_lang+" to "+target_lang+"?");
+            return NULL_STRING_ARRAY;
+        }
+
+        List<String> translations = new ArrayList<String>();
+        for(int lp : getLangPOS(word, native_lang)) {
+            int last = langPOSInt(lp + 1, 4);
+            for(int t=langPOSInt(lp, 4); t<last; t++) {
+                int pos = direct_start + 4 * TRANS_INTS * t;
+                if(target_lang == getLang(buf.getInt(pos)))
+                    translations.add(getPageTitle(buf.getInt(pos + 4)));
+            }
+        }
+        if(0 == translations.size())
+            return NULL_STRING_ARRAY;
+
+        return((String[])(StringUtil.getUnique(translations)).toArray(NULL_STRING_ARRAY));
+    }
+
+    /** Translates the word from a foreign language to the native language,
+     * see WTTranslation.getBackwardTranslation().
+     */
+    public String [] getBackwardTranslation(LanguageType foreign_lang, String word) {
+
+        if(native_lang == foreign_lang) {
+            System.out.println("Error (WTSnapshot.getBackwardTranslation()):: How to translate from "+foreign_lang+" to "+foreign_lang+"?");
+            return NULL_STRING_ARRAY;
+        }
+
+        int page = getPageIndex(word);
+        if(-1 == page)
+            return NULL_STRING_ARRAY;
+
+        Set<Integer> pages = new LinkedHashSet<Integer>();
+        int last = pageInt(page + 1, 3);
+        for(int t=pageInt(page, 3); t<last; t++) {
+            int pos = backward_start + 4 * TRANS_INTS * t;
+            if(foreign_lang != getLang(buf.getInt(pos)))
+                continue;
+            int lp = buf.getInt(pos + 4);
+            if(native_lang == getLang(langPOSInt(lp, 1)))
+                pages.add(langPOSInt(lp, 0));
+        }
+        if(0 == pages.size())
+            return NULL_STRING_ARRAY;
+
+        List<String> translations = new ArrayList<String>(pages.size());
+        for(int p : pages)
+            translations.add(getPageTitle(p));
+
+        return((String[])(StringUtil.getUnique(translations)).toArray(NULL_STRING_ARRAY));
+    }
+
+    /** Translates the word from a foreign language to the native language. */
+    private String [] fromForeignIntoNative(LanguageType foreign_lang, String word) {
+
+        String[] backward = getBackwardTranslation(foreign_lang, word);
+
+        String[] meanings = getDefinitionsByPageLang(word, foreign_lang);
+        return StringUtil.addORCaseSensitive(backward, meanings);
+    }
+
+    /** Translates the words from the native language to a foreign language. */
+    private String [] fromNativeIntoForeign(LanguageType foreign_lang, String[] native_words) {
+
+        Set<String> trans_set = new LinkedHashSet<String>();
+        for(String w : native_words) {
+            for(String t : getDirectTranslation(foreign_lang, w))
+                trans_set.add(t);
+        }
+        return (String[])trans_set.toArray(NULL_STRING_ARRAY);
+    }
+
+    /** Translates the word from source to target language,
+     * see WTTranslation.translate().
+     */
+    public String [] translate(LanguageType source_lang, LanguageType target_lang, String word) {
+
+        boolean from_native = source_lang == native_lang;
+        boolean into_native = target_lang == native_lang;
+
+        if(from_native && !into_native)         // 1. from native language into foreign
+            return getDirectTranslation(target_lang, word);
+
+        if(!from_native && into_native)         // 2. from foreign into native
+            return fromForeignIntoNative(source_lang, word);
+
+        if(!from_native && !into_native) {      // 3. from foreign into another foreign
+            String[] native_words = getBackwardTranslation(source_lang, word);
+            return fromNativeIntoForeign(target_lang, native_words);
+        }
+        return NULL_STRING_ARRAY;
+    }
+
+    /** Translates the word from source to target language (codes of languages). */
+    public String [] translate(String source_lang, String target_lang, String word) {
+
+        if(!LanguageType.has(source_lang)) {
+            System.out.println("Error (WTSnapshot.translate(3 strings)):: uknown source language code:"+source_lang);
+            return NULL_STRING_ARRAY;
+        }
+
+        if(!LanguageType.has(target_lang)) {
+            System.out.println("Error (WTSnapshot.translate(3 strings)):: uknown target language code:"+target_lang);
+            return NULL_STRING_ARRAY;
+        }
+
+        return translate(LanguageType.get(source_lang), LanguageType.get(target_lang), word);
+    }
+}
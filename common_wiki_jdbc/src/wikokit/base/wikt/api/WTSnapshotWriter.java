@@ -0,0 +1,560 @@
+/* WTSnapshotWriter.java - exports the parsed Wiktionary database
+ * to the read-only snapshot file.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.api;
+
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.UtilSQL;
+
+import java.io.*;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/** Writer of the snapshot of the parsed Wiktionary (see WTSnapshot).<br><br>
+ *
+ * Rows are added with their IDs in the database (in any order of tables),
+ * strings are appended to the temporary string heap at once.
+ * write() sorts pages by title, groups records by the parent record
+ * (page -> lang_pos -> meaning -> relation) and stores the file.<br><br>
+ *
+ * Usage: WTSnapshotWriter.export(ruwikt_parsed_conn, "ruwikt.snapshot");
+ */
+public class WTSnapshotWriter {
+
+    private final static int INIT_SIZE = 1024;
+
+    private final LanguageType native_lang;
+
+    /** Temporary file with the string heap (UTF-8). */
+    private final File heap_file;
+    private final DataOutputStream heap;
+    private int heap_size = 0;
+
+    /** Names of languages (codes), POS and relation types by ID in the database:
+     * offset and length of the string in the heap. */
+    private int[][] lang_name = new int[0][];
+    private int[][] pos_name  = new int[0][];
+    private int[][] rel_name  = new int[0][];
+
+    private int n_page = 0;
+    private int[]    page_id    = new int[INIT_SIZE];
+    private String[] page_title = new String[INIT_SIZE];
+    private int[]    page_title_off = new int[INIT_SIZE];
+    private int[]    page_title_len = new int[INIT_SIZE];
+
+    private int n_lang_pos = 0;
+    private int[] lang_pos_id      = new int[INIT_SIZE];
+    private int[] lang_pos_page_id = new int[INIT_SIZE];
+    private int[] lang_pos_lang_id = new int[INIT_SIZE];
+    private int[] lang_pos_pos_id  = new int[INIT_SIZE];
+
+    private int n_meaning = 0;
+    private int[] meaning_id          = new int[INIT_SIZE];
+    private int[] meaning_lang_pos_id = new int[INIT_SIZE];
+    private int[] meaning_def_off     = new int[INIT_SIZE];
+    private int[] meaning_def_len     = new int[INIT_SIZE];
+
+    private int n_relation = 0;
+    private int[] relation_meaning_id = new int[INIT_SIZE];
+    private int[] relation_type_id    = new int[INIT_SIZE];
+    private int[] relation_text_off   = new int[INIT_SIZE];
+    private int[] relation_text_len   = new int[INIT_SIZE];
+
+    private int n_trans = 0;
+    private int[] trans_lang_pos_id = new int[INIT_SIZE];
+    private int[] trans_lang_id     = new int[INIT_SIZE];
+    private int[] trans_page_id     = new int[INIT_SIZE];
+
+    /** Creates writer, the temporary heap file is created in the directory dir.
+     *
+     * @param native_lang  language of Wiktionary edition, e.g. Russian in Russian Wiktionary
+     */
+    public WTSnapshotWriter(LanguageType _native_lang, File dir) throws IOException {
+        native_lang = _native_lang;
+        heap_file   = File.createTempFile("wt_snapshot_heap", ".tmp", dir);
+        heap        = new DataOutputStream(new BufferedOutputStream(
+                                        new FileOutputStream(heap_file), 1 << 16));
+    }
+
+    /** Appends the string to the heap.
+     * @return offset and length of the string in the heap, length is -1 for null
+     */
+    private int[] addString(String s) throws IOException {
+        if(null == s)
+            return new int[] {0, -1};
+
+        byte[] b = s.getBytes("UTF-8");
+        int off = heap_size;
+        heap.write(b);
+        heap_size += b.length;
+        return new int[] {off, b.length};
+    }
+
+    private static int[][] setName(int[][] names, int id, int[] name) {
+        if(id >= names.length) {
+            int old = names.length;
+            names = Arrays.copyOf(names, id + 1);
+            for(int i=old; i<names.length; i++)
+                names[i] = new int[] {0, -1};
+        }
+        names[id] = name;
+        return names;
+    }
+
+    private static int[] grow(int[] a, int n) {
+        return n < a.length ? a : Arrays.copyOf(a, 2 * a.length);
+    }
+
+    /** Adds the language code (e.g. "ru") with ID from the table 'lang'. */
+    public void addLang(int id, String code) throws IOException {
+        lang_name = setName(lang_name, id, addString(code));
+    }
+
+    /** Adds name of the part of speech with ID from the table 'part_of_speech'. */
+    public void addPOS(int id, String name) throws IOException {
+        pos_name = setName(pos_name, id, addString(name));
+    }
+
+    /** Adds name of the semantic relation with ID from the table 'relation_type'. */
+    public void addRelationType(int id, String name) throws IOException {
+        rel_name = setName(rel_name, id, addString(name));
+    }
+
+    public void addPage(int id, String title) throws IOException {
+        int[] s = addString(title);
+        if(n_page == page_id.length) {
+            page_title = Arrays.copyOf(page_title, 2 * n_page);
+            page_title_off = Arrays.copyOf(page_title_off, 2 * n_page);
+            page_title_len = Arrays.copyOf(page_title_len, 2 * n_page);
+            page_id = Arrays.copyOf(page_id, 2 * n_page);
+        }
+        page_id   [n_page] = id;
+        page_title[n_page] = title;
+        page_title_off[n_page] = s[0];
+        page_title_len[n_page] = s[1];
+        n_page ++;
+    }
+
+    public void addLangPOS(int id, int page_id, int lang_id, int pos_id) {
+        lang_pos_id      = grow(lang_pos_id,      n_lang_pos);
+        lang_pos_page_id = grow(lang_pos_page_id, n_lang_pos);
+        lang_pos_lang_id = grow(lang_pos_lang_id, n_lang_pos);
+        lang_pos_pos_id  = grow(lang_pos_pos_id,  n_lang_pos);
+        lang_pos_id     [n_lang_pos] = id;
+        lang_pos_page_id[n_lang_pos] = page_id;
+        lang_pos_lang_id[n_lang_pos] = lang_id;
+        lang_pos_pos_id [n_lang_pos] = pos_id;
+        n_lang_pos ++;
+    }
+
+    /** Adds the meaning, definition is null if the meaning has no definition. */
+    public void addMeaning(int id, int lang_pos_id, String definition) throws IOException {
+        int[] s = addString(definition);
+        meaning_id          = grow(meaning_id,          n_meaning);
+        meaning_lang_pos_id = grow(meaning_lang_pos_id, n_meaning);
+        meaning_def_off     = grow(meaning_def_off,     n_meaning);
+        meaning_def_len     = grow(meaning_def_len,     n_meaning);
+        meaning_id         [n_meaning] = id;
+        meaning_lang_pos_id[n_meaning] = lang_pos_id;
+        meaning_def_off    [n_meaning] = s[0];
+        meaning_def_len    [n_meaning] = s[1];
+        n_meaning ++;
+    }
+
+    /** Adds the semantic relation, text is the wiki text of the relation. */
+    public void addRelation(int meaning_id, int relation_type_id, String text) throws IOException {
+        int[] s = addString(text);
+        relation_meaning_id = grow(relation_meaning_id, n_relation);
+        this.relation_type_id = grow(this.relation_type_id, n_relation);
+        relation_text_off   = grow(relation_text_off,   n_relation);
+        relation_text_len   = grow(relation_text_len,   n_relation);
+        relation_meaning_id[n_relation] = meaning_id;
+        this.relation_type_id[n_relation] = relation_type_id;
+        relation_text_off  [n_relation] = s[0];
+        relation_text_len  [n_relation] = s[1];
+        n_relation ++;
+    }
+
+    /** Adds the translation entry with one wikified word.
+     *
+     * @param lang_pos_id   lang_pos with the translation box
+     * @param lang_id       language of the translation
+     * @param page_id       the wikified word of the translation
+     */
+    public void addTranslation(int lang_pos_id, int lang_id, int page_id) {
+        trans_lang_pos_id = grow(trans_lang_pos_id, n_trans);
+        trans_lang_id     = grow(trans_lang_id,     n_trans);
+        trans_page_id     = grow(trans_page_id,     n_trans);
+        trans_lang_pos_id[n_trans] = lang_pos_id;
+        trans_lang_id    [n_trans] = lang_id;
+        trans_page_id    [n_trans] = page_id;
+        n_trans ++;
+    }
+
+    /** Map from ID in the database to the index of added row. */
+    private static class IDIndex {
+        final long[] keys;
+
+        IDIndex(int[] id, int n) {
+            keys = new long[n];
+            for(int i=0; i<n; i++)
+                keys[i] = ((long)id[i] << 32) | i;
+            Arrays.sort(keys);
+        }
+
+        /** Gets index of the row, or -1 if there is no such ID. */
+        int get(int id) {
+            int lo = 0, hi = keys.length - 1;
+            while(lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int mid_id = (int)(keys[mid] >> 32);
+                if(mid_id < id)
+                    lo = mid + 1;
+                else if(mid_id > id)
+                    hi = mid - 1;
+                else
+                    return (int)keys[mid];
+            }
+            return -1;
+        }
+    }
+
+    /** Sorts rows by the parent (group), rows with the same parent keep
+     * the order of addition, rows without parent (group = -1) are skipped.
+     *
+     * @param pos   result: new position of each row, or -1
+     * @return rows in new order
+     */
+    private static int[] groupBy(int[] group, int n, int[] pos) {
+        long[] keys = new long[n];
+        int m = 0;
+        for(int i=0; i<n; i++) {
+            pos[i] = -1;
+            if(group[i] >= 0)
+                keys[m++] = ((long)group[i] << 32) | i;
+        }
+        Arrays.sort(keys, 0, m);
+
+        int[] order = new int[m];
+        for(int k=0; k<m; k++) {
+            order[k] = (int)keys[k];
+            pos[order[k]] = k;
+        }
+        return order;
+    }
+
+    /** Gets index of the first child of each parent (n_parent+1 values),
+     * children are sorted by parent.
+     */
+    private static int[] getFirstChild(int[] child_group, int[] order, int n_parent) {
+        int[] first = new int[n_parent + 1];
+        for(int k : order)
+            first[child_group[k] + 1] ++;
+        for(int i=0; i<n_parent; i++)
+            first[i + 1] += first[i];
+        return first;
+    }
+
+    /** Sorts and stores all added data to the snapshot file. */
+    public void write(String filename) throws IOException {
+
+        heap.close();
+        int[] native_name = addNativeName();
+
+        // pages sorted by title
+        Integer[] sorted = new Integer[n_page];
+        for(int i=0; i<n_page; i++)
+            sorted[i] = i;
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return page_title[a].compareTo(page_title[b]);
+            }
+        });
+        int[] page_pos = new int[n_page];
+        for(int k=0; k<n_page; k++)
+            page_pos[sorted[k]] = k;
+        IDIndex page_index = new IDIndex(page_id, n_page);
+
+        // lang_pos grouped by page
+        int[] lp_group = new int[n_lang_pos];
+        for(int i=0; i<n_lang_pos; i++) {
+            int p = page_index.get(lang_pos_page_id[i]);
+            lp_group[i] = -1 == p ? -1 : page_pos[p];
+        }
+        int[] lp_pos = new int[n_lang_pos];
+        int[] lp_order = groupBy(lp_group, n_lang_pos, lp_pos);
+        IDIndex lp_index = new IDIndex(lang_pos_id, n_lang_pos);
+
+        // meanings grouped by lang_pos
+        int[] m_group = new int[n_meaning];
+        for(int i=0; i<n_meaning; i++)
+            m_group[i] = getPos(lp_index, lp_pos, meaning_lang_pos_id[i]);
+        int[] m_pos = new int[n_meaning];
+        int[] m_order = groupBy(m_group, n_meaning, m_pos);
+        IDIndex m_index = new IDIndex(meaning_id, n_meaning);
+
+        // relations grouped by meaning
+        int[] r_group = new int[n_relation];
+        for(int i=0; i<n_relation; i++)
+            r_group[i] = getPos(m_index, m_pos, relation_meaning_id[i]);
+        int[] r_order = groupBy(r_group, n_relation, new int[n_relation]);
+
+        // translations: direct (grouped by lang_pos) and backward (grouped by page of translation)
+        int[] d_group = new int[n_trans];
+        int[] b_group = new int[n_trans];
+        for(int i=0; i<n_trans; i++) {
+            int lp = getPos(lp_index, lp_pos, trans_lang_pos_id[i]);
+            int p  = page_index.get(trans_page_id[i]);
+            boolean ok = -1 != lp && -1 != p;
+            d_group[i] = ok ? lp : -1;
+            b_group[i] = ok ? page_pos[p] : -1;
+        }
+        int[] d_order = groupBy(d_group, n_trans, new int[n_trans]);
+        int[] b_order = groupBy(b_group, n_trans, new int[n_trans]);
+
+        int[] page_first_lp    = getFirstChild(lp_group, lp_order, n_page);
+        int[] page_first_back  = getFirstChild(b_group,  b_order,  n_page);
+        int n_lp = lp_order.length;
+        int[] lp_first_meaning = getFirstChild(m_group,  m_order,  n_lp);
+        int[] lp_first_direct  = getFirstChild(d_group,  d_order,  n_lp);
+        int[] m_first_relation = getFirstChild(r_group,  r_order,  m_order.length);
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                                        new FileOutputStream(filename), 1 << 16));
+        try {
+            int heap_start = WTSnapshot.HEADER_SIZE + 4 * (
+                    2 * (lang_name.length + pos_name.length + rel_name.length) +
+                    WTSnapshot.PAGE_INTS     * (n_page + 1) +
+                    WTSnapshot.LANG_POS_INTS * (n_lp + 1) +
+                    WTSnapshot.MEANING_INTS  * (m_order.length + 1) +
+                    WTSnapshot.RELATION_INTS * r_order.length +
+                    WTSnapshot.TRANS_INTS    * (d_order.length + b_order.length));
+
+            out.writeInt(WTSnapshot.FILE_MAGIC);
+            out.writeInt(WTSnapshot.VERSION);
+            out.writeInt(native_name[0]);
+            out.writeInt(native_name[1]);
+            out.writeInt(lang_name.length);
+            out.writeInt(pos_name.length);
+            out.writeInt(rel_name.length);
+            out.writeInt(n_page);
+            out.writeInt(n_lp);
+            out.writeInt(m_order.length);
+            out.writeInt(r_order.length);
+            out.writeInt(d_order.length);
+            out.writeInt(b_order.length);
+            out.writeInt(heap_start);
+
+            for(int[][] names : new int[][][] {lang_name, pos_name, rel_name})
+                for(int[] name : names) {
+                    out.writeInt(name[0]);
+                    out.writeInt(name[1]);
+                }
+
+            for(int k=0; k<=n_page; k++) {
+                boolean end = k == n_page;
+                out.writeInt(end ? 0 : page_title_off[sorted[k]]);
+                out.writeInt(end ? 0 : page_title_len[sorted[k]]);
+                out.writeInt(page_first_lp  [k]);
+                out.writeInt(page_first_back[k]);
+            }
+
+            for(int k=0; k<=n_lp; k++) {
+                boolean end = k == n_lp;
+                out.writeInt(end ? -1 : lp_group[lp_order[k]]);
+                out.writeInt(end ? 0  : lang_pos_lang_id[lp_order[k]]);
+                out.writeInt(end ? 0  : lang_pos_pos_id [lp_order[k]]);
+                out.writeInt(lp_first_meaning[k]);
+                out.writeInt(lp_first_direct [k]);
+            }
+
+            for(int k=0; k<=m_order.length; k++) {
+                boolean end = k == m_order.length;
+                out.writeInt(end ? 0  : meaning_def_off[m_order[k]]);
+                out.writeInt(end ? -1 : meaning_def_len[m_order[k]]);
+                out.writeInt(m_first_relation[k]);
+            }
+
+            for(int i : r_order) {
+                out.writeInt(relation_type_id [i]);
+                out.writeInt(relation_text_off[i]);
+                out.writeInt(relation_text_len[i]);
+            }
+
+            for(int i : d_order) {      // direct: language and page of translation
+                out.writeInt(trans_lang_id[i]);
+                out.writeInt(page_pos[page_index.get(trans_page_id[i])]);
+            }
+            for(int i : b_order) {      // backward: language and lang_pos with translation box
+                out.writeInt(trans_lang_id[i]);
+                out.writeInt(d_group[i]);
+            }
+
+            InputStream in = new BufferedInputStream(new FileInputStream(heap_file), 1 << 16);
+            try {
+                byte[] b = new byte[1 << 16];
+                int len;
+                while(-1 != (len = in.read(b)))
+                    out.write(b, 0, len);
+            } finally {
+                in.close();
+            }
+        } finally {
+            out.close();
+            heap_file.delete();
+        }
+    }
+
+    /** Gets new position of the row with the database ID, or -1. */
+    private static int getPos(IDIndex index, int[] pos, int id) {
+        int i = index.get(id);
+        return -1 == i ? -1 : pos[i];
+    }
+
+    /** Appends code of the native language to the closed heap. */
+    private int[] addNativeName() throws IOException {
+        byte[] b = native_lang.getCode().getBytes("UTF-8");
+        OutputStream out = new FileOutputStream(heap_file, true);
+        try {
+            out.write(b);
+        } finally {
+            out.close();
+        }
+        int off = heap_size;
+        heap_size += b.length;
+        return new int[] {off, b.length};
+    }
+
+    /** Query of translation entries with one wikified word
+     * (see TWikiTextWords.getPageForOneWordWikiText()). */
+    private final static String SQL_TRANSLATIONS =
+            "SELECT t.lang_pos_id, te.lang_id, w.page_id " +
+            "FROM translation_entry te " +
+            "JOIN translation t ON t.id = te.translation_id " +
+            "JOIN (SELECT wiki_text_id, MIN(page_id) AS page_id FROM wiki_text_words " +
+                  "GROUP BY wiki_text_id HAVING COUNT(*) = 1) w ON w.wiki_text_id = te.wiki_text_id " +
+            "ORDER BY t.id, te.id";
+
+    /** Exports the parsed Wiktionary database to the snapshot file.
+     * Each table is read by one query with forward-only cursor.
+     *
+     * @return true if the snapshot was written
+     */
+    public static boolean export(Connect connect, String filename) {
+
+        long t_start = System.currentTimeMillis();
+        String str_sql = null;
+        try {
+            File dir = new File(filename).getAbsoluteFile().getParentFile();
+            WTSnapshotWriter w = new WTSnapshotWriter(connect.getNativeLanguage(), dir);
+
+            Statement s = UtilSQL.createStreamingStatement(connect);
+            try {
+                ResultSet rs;
+
+                str_sql = "SELECT id, code FROM lang";
+                rs = s.executeQuery(str_sql);
+                try {
+                    while(rs.next())
+                        w.addLang(rs.getInt(1), Encodings.bytesToUTF8(rs.getBytes(2)));
+                } finally {
+                    rs.close();
+                }
+
+                str_sql = "SELECT id, name FROM part_of_speech";
+                rs = s.executeQuery(str_sql);
+                try {
+                    while(rs.next())
+                        w.addPOS(rs.getInt(1), Encodings.bytesToUTF8(rs.getBytes(2)));
+                } finally {
+                    rs.close();
+                }
+
+                str_sql = "SELECT id, name FROM relation_type";
+                rs = s.executeQuery(str_sql);
+                try {
+                    while(rs.next())
+                        w.addRelationType(rs.getInt(1), Encodings.bytesToUTF8(rs.getBytes(2)));
+                } finally {
+                    rs.close();
+                }
+
+                str_sql = "SELECT id, page_title FROM page ORDER BY id";
+                rs = s.executeQuery(str_sql);
+                try {
+                    while(rs.next())
+                        w.addPage(rs.getInt(1), Encodings.bytesToUTF8(rs.getBytes(2)));
+                } finally {
+                    rs.close();
+                }
+                System.out.println("Pages: " + w.n_page);
+
+                str_sql = "SELECT id, page_id, lang_id, pos_id FROM lang_pos ORDER BY id";
+                rs = s.executeQuery(str_sql);
+                try {
+                    while(rs.next())
+                        w.addLangPOS(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+                } finally {
+                    rs.close();
+                }
+                System.out.println("Lang_pos: " + w.n_lang_pos);
+
+                str_sql = "SELECT m.id, m.lang_pos_id, wt.text FROM meaning m " +
+                          "LEFT JOIN wiki_text wt ON wt.id = m.wiki_text_id ORDER BY m.id";
+                rs = s.executeQuery(str_sql);
+                try {
+                    while(rs.next()) {
+                        byte[] text = rs.getBytes(3);
+                        w.addMeaning(rs.getInt(1), rs.getInt(2),
+                                     null == text ? null : Encodings.bytesToUTF8(text));
+                    }
+                } finally {
+                    rs.close();
+                }
+                System.out.println("Meanings: " + w.n_meaning);
+
+                str_sql = "SELECT r.meaning_id, r.relation_type_id, wt.text FROM relation r " +
+                          "JOIN wiki_text wt ON wt.id = r.wiki_text_id ORDER BY r.id";
+                rs = s.executeQuery(str_sql);
+                try {
+                    while(rs.next())
+                        w.addRelation(rs.getInt(1), rs.getInt(2), Encodings.bytesToUTF8(rs.getBytes(3)));
+                } finally {
+                    rs.close();
+                }
+                System.out.println("Relations: " + w.n_relation);
+
+                str_sql = SQL_TRANSLATIONS;
+                rs = s.executeQuery(str_sql);
+                try {
+                    while(rs.next())
+                        w.addTranslation(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+                } finally {
+                    rs.close();
+                }
+                System.out.println("Translations: " + w.n_trans);
+            } finally {
+                s.close();
+            }
+
+            w.write(filename);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (WTSnapshotWriter.export()):: sql='" + str_sql + "' " + ex.getMessage());
+            return false;
+        } catch(IOException ex) {
+            System.out.println("IOException (WTSnapshotWriter.export()):: file='" + filename + "' " + ex.getMessage());
+            return false;
+        }
+
+        float t_work = (System.currentTimeMillis() - t_start)/1000f; // in sec
+        System.out.println("Snapshot " + filename + " is written, time sec:" + t_work);
+        return true;
+    }
+}
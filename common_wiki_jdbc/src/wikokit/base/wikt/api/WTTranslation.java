@@ -11,6 +11,7 @@ import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikt.sql.TLang;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.ConnectPool;
 import wikokit.base.wikipedia.util.StringUtil;
 
 import java.util.List;
@@ -184,4 +185,56 @@ public class WTTranslation {
                                     LanguageType.get(target_lang), word);
     }
 
+    /** Translates the word from the native language to a target language.
+     * The connection is leased from the pool for the time of the call.
+     */
+    public static String [] getDirectTranslation(ConnectPool pool,
+            LanguageType target_lang,String word) {
+        Connect connect = pool.lease();
+        try {
+            return getDirectTranslation(connect, target_lang, word);
+        } finally {
+            pool.release(connect);
+        }
+    }
+
+    /** Translates the word from a foreign language to the native language.
+     * The connection is leased from the pool for the time of the call.
+     */
+    public static String [] getBackwardTranslation(ConnectPool pool,
+            LanguageType foreign_lang,String word) {
+        Connect connect = pool.lease();
+        try {
+            return getBackwardTranslation(connect, foreign_lang, word);
+        } finally {
+            pool.release(connect);
+        }
+    }
+
+    /** Translates the word from source to target language.
+     * The connection is leased from the pool for the time of the call.
+     */
+    public static String [] translate(ConnectPool pool,
+            LanguageType source_lang,LanguageType target_lang,String word) {
+        Connect connect = pool.lease();
+        try {
+            return translate(connect, source_lang, target_lang, word);
+        } finally {
+            pool.release(connect);
+        }
+    }
+
+    /** Translates the word from source to target language (language codes).
+     * The connection is leased from the pool for the time of the call.
+     */
+    public static String [] translate(ConnectPool pool,
+            String source_lang,String target_lang,String word) {
+        Connect connect = pool.lease();
+        try {
+            return translate(connect, source_lang, target_lang, word);
+        } finally {
+            pool.release(connect);
+        }
+    }
+
 }
@@ -24,13 +24,22 @@ import wikokit.base.wikt.sql.TRelation;
 import wikokit.base.wikt.sql.TMeaning;
 import wikokit.base.wikt.sql.TLang;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
 import wikokit.base.wikt.util.WikiText;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikipedia.language.LanguageType;
 
 import java.util.Map;
 import wikokit.base.wikt.constant.Image;
 import wikokit.base.wikt.sql.TImage;
+import wikokit.base.wikt.sql.TImageMeaning;
+import wikokit.base.wikt.sql.TInflection;
+import wikokit.base.wikt.sql.TPageInflection;
+import wikokit.base.wikt.sql.TTranslationEntry;
+import wikokit.base.wikt.sql.TWikiTextWords;
 import wikokit.base.wikt.sql.label.TLabel;
+import wikokit.base.wikt.sql.label.TLabelMeaning;
 import wikokit.base.wikt.sql.quote.TQuote;
 
 /** Manager stores parsed data to MRD Wiktionary database (wikt_parsed).
@@ -38,7 +47,12 @@ import wikokit.base.wikt.sql.quote.TQuote;
 public class Keeper {
     // private static boolean DEBUG = true;
     
-    /** Stores word data to tables of parsed wiktionary database
+    /** Stores word data to tables of parsed wiktionary database.
+     * In the batch-writer mode the transaction is committed every N pages
+     * (see Connect.openBatchWriter()). Time of writing to the tables is added 
+     * to the stages "store.page", "store.lang_pos", etc. of ParseMetrics,
+     * rows which are really written are counted by T*.insert() functions 
+     * in the counters "rows.page", "rows.lang_pos", "rows.wiki_text", etc.
      *
      * @param conn connection interface to a parsed Wiktionary database
      * @param word data to be stored to a parsed Wiktionary database
@@ -48,6 +62,106 @@ public class Keeper {
     public static void storeToDB(Connect conn, WordBase word,
                                   LanguageType native_lang) {
         
+        long t = ParseMetrics.start();
+        storeWord(conn, word, native_lang);
+        
+        BatchWriter bw = conn.getBatchWriter();
+        if(null != bw)
+            bw.endPage();
+        ParseMetrics.stop("store", t);
+    }
+    
+    /** Deletes rows derived from the page by storeToDB(): 'lang_pos', 'meaning',
+     * 'relation', 'quote', 'label_meaning', 'image_meaning', 'translation', 
+     * 'translation_entry', 'index_native' and 'index_XX', so the page 
+     * could be stored again (the page was changed or removed in the new dump).<br><br>
+     * 
+     * The row of the table 'page' is kept, since it could be referred 
+     * by wikified words of other pages. Shared rows ('wiki_text', 
+     * 'inflection', 'quot_ref', 'label', 'image') are kept also.
+     *
+     * @param conn connection interface to a parsed Wiktionary database
+     * @param page_title        title of the page (with spaces, not underscores)
+     * @param native_lang       native language in the Wiktionary,
+     *                          e.g. Russian language in Russian Wiktionary
+     * @return false if the page is absent in the database
+     */
+    public static boolean deleteFromDB(Connect conn, String page_title,
+                                        LanguageType native_lang) {
+        
+        TPage tpage = TPage.get(conn, page_title);
+        if(null == tpage)
+            return false;
+        
+        TLangPOS[] lang_pos_all = TLangPOS.get(conn, tpage);
+        for(TLangPOS lang_pos : lang_pos_all) {
+            
+            // the word in foreign language, see storeWord()
+            IndexForeign.delete(conn, page_title, null, 
+                                native_lang, lang_pos.getLang().getLanguage());
+            
+            TTranslation[] translations = TTranslation.getByLangPOS(conn, lang_pos);
+            for(TTranslation trans : translations) {
+                TTranslationEntry[] entries = TTranslationEntry.getByTranslation(conn, trans);
+                for(TTranslationEntry e : entries) {
+                    IndexForeign.delete(conn, e.getWikiText().getText(), page_title,
+                                        native_lang, e.getLang().getLanguage());
+                    TTranslationEntry.delete(conn, e);
+                }
+                TTranslation.delete(conn, trans);
+            }
+            
+            TMeaning[] meanings = TMeaning.get(conn, lang_pos);
+            for(TMeaning m : meanings) {
+                TRelation.deleteByMeaning(conn, m);
+                TQuote.deleteByMeaning(conn, m);
+                TLabelMeaning.delete(conn, m);
+                TImageMeaning.delete(conn, m);
+                TMeaning.delete(conn, m);
+            }
+        }
+        TLangPOS.delete(conn, tpage);
+        IndexNative.delete(conn, tpage);
+        return true;
+    }
+    
+    /** Switches on the bulk-load mode of the connection: rows of the tables 
+     * 'page', 'lang_pos', 'meaning', 'relation', 'wiki_text', 'wiki_text_words', 
+     * 'inflection', 'page_inflection', 'translation', 'translation_entry' 
+     * are written to the files in the directory dir, IDs are assigned 
+     * in-process. Other tables (quotes, labels, images, indexes) are filled 
+     * by SQL as usual.<br><br>
+     * 
+     * The parsed database should be empty (see WiktParser.clearDatabase()),
+     * the files should be loaded by the script dir/load.sql 
+     * after Connect.closeBulkLoader().
+     *
+     * @param conn connection interface to a parsed Wiktionary database
+     * @param dir  directory for the files
+     * @see wikokit.base.wikipedia.sql.BulkLoader
+     */
+    public static void openBulkLoader(Connect conn, String dir) {
+        
+        conn.openBulkLoader(dir);
+        BulkLoader bl = conn.getBulkLoader();
+        if(null == bl)
+            return;
+        
+        TPage.addBulkTable(bl);
+        TLangPOS.addBulkTable(bl);
+        TMeaning.addBulkTable(bl);
+        TRelation.addBulkTable(bl);
+        TWikiText.addBulkTable(bl);
+        TWikiTextWords.addBulkTable(bl);
+        TInflection.addBulkTable(bl);
+        TPageInflection.addBulkTable(bl);
+        TTranslation.addBulkTable(bl);
+        TTranslationEntry.addBulkTable(bl);
+    }
+    
+    private static void storeWord(Connect conn, WordBase word,
+                                  LanguageType native_lang) {
+        
         String page_title = word.getPageTitle();
         
         // table 'page', stores page title, gets id of new page
@@ -58,8 +172,10 @@ public class Keeper {
         // to calculate, todo ...
 
         boolean is_in_wiktionary = true;
+        long t = ParseMetrics.start();
         TPage tpage = TPage.getOrInsert(conn, page_title, word_count, wiki_link_count, 
                 is_in_wiktionary, word.getRedirect());
+        t = ParseMetrics.stop("store.page", t);
 
         if(null == tpage) {
             System.out.println("(Keeper.storeToDB()):: TPage.getOrInsert returned null. page_title='" + page_title + "'");
@@ -85,7 +201,9 @@ public class Keeper {
                 // tpage, tlang, tpos, etymology_n: -> into table 'lang_pos', gets id
                 
                 String lemma = "";  // todo ...
+                t = ParseMetrics.start();
                 TLangPOS lang_pos = TLangPOS.insert(conn, tpage, tlang, tpos, etymology_n, lemma);
+                t = ParseMetrics.stop("store.lang_pos", t);
                 etymology_n ++;
 
                 Map<Relation, WRelation[]> m_relations = w_pos.getAllRelations();
@@ -95,21 +213,30 @@ public class Keeper {
                     WMeaning w_meaning = w_meaning_all[i];
                     WikiText definition = w_meaning.getWikiText();
                     TWikiText twiki_text= TWikiText.storeToDB(conn, definition);
+                    t = ParseMetrics.stop("store.wiki_text", t);
                     
                     TMeaning tmeaning = TMeaning.insert(conn, lang_pos, i, twiki_text);
+                    t = ParseMetrics.stop("store.meaning", t);
 
                     TQuote.storeToDB(conn, page_title, tmeaning, tlang, w_meaning.getQuotes());
+                    t = ParseMetrics.stop("store.quote", t);
                     
                     TRelation.storeToDB(conn, tmeaning, i, m_relations);
+                    t = ParseMetrics.stop("store.relation", t);
                     TLabel.storeToDB(conn, page_title, tmeaning, tlang, w_meaning.getLabels());
+                    t = ParseMetrics.stop("store.label", t);
                     
                     Image image = w_meaning.getImage();
-                    if(null != image)
+                    if(null != image) {
                         TImage.storeToDB(conn, page_title, tmeaning, image);
+                        t = ParseMetrics.stop("store.image", t);
+                    }
                     
-                    if(translations.length > i) // not every meaning is happy to have it's own translation
+                    if(translations.length > i) { // not every meaning is happy to have it's own translation
                         TTranslation.storeToDB(conn, native_lang, page_title,
                                             lang_pos, tmeaning, translations[i]);
+                        t = ParseMetrics.stop("store.translation", t);
+                    }
                         
                     twiki_text = null;  // free memory
                     tmeaning = null;
@@ -119,8 +246,10 @@ public class Keeper {
                 if(w_meaning_all.length == 0 && translations.length > 0) {
                     for(int i=0; i<translations.length; i++) {
                         TMeaning tmeaning = TMeaning.insert(conn, lang_pos, i, null);
+                        t = ParseMetrics.stop("store.meaning", t);
                         TTranslation.storeToDB(conn, native_lang, page_title,
                                             lang_pos, tmeaning, translations[i]);
+                        t = ParseMetrics.stop("store.translation", t);
                         tmeaning = null;    // free memory
                     }
                 }
@@ -135,6 +264,7 @@ public class Keeper {
                     } else
                         IndexForeign.insertIfAbsent(conn, page_title, true,
                                                 null, native_lang, lang_type);
+                    t = ParseMetrics.stop("store.index", t);
                 }
                 
                 tpos = null;            // free memory
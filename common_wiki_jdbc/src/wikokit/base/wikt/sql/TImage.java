@@ -11,6 +11,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikt.constant.Image;
 
 /** Operations with the table 'image' in MySQL Wiktionary_parsed database.
@@ -69,9 +70,10 @@ public class TImage {
     }
     
     
-    /** Inserts record into the table 'image', gets last inserted ID.
+    /** Inserts record into the table 'image', gets last inserted ID,
+     * the row is not inserted if the filename exists (unique key).
      * 
-     * INSERT INTO image (filename) VALUES ("some name");
+     * INSERT IGNORE INTO image (filename) VALUES ("some name");
      * @param short_name    label itself
      * @param name          full name of label
      * 
@@ -86,13 +88,13 @@ public class TImage {
         try
         {
             try (Statement s = connect.conn.createStatement ()) {
-                str_sql.append("INSERT INTO image (filename) VALUES (\"");
+                str_sql.append("INSERT IGNORE INTO image (filename) VALUES (\"");
                 
                 String safe_title = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, filename);
                 str_sql.append(safe_title);
                 str_sql.append("\")");
 
-                s.executeUpdate (str_sql.toString(), Statement.RETURN_GENERATED_KEYS);
+                ParseMetrics.count("rows.image", s.executeUpdate (str_sql.toString(), Statement.RETURN_GENERATED_KEYS));
                 ResultSet rs = s.getGeneratedKeys();
                 if (rs.next()){
                     result_id = rs.getInt(1);
@@ -119,8 +121,11 @@ public class TImage {
 
         // 1. if '_image' is new image then add it to the table 'image'
         int image_id = TImage.getIDByFilename(connect, _image.getFilename(), page_title);
-        if(0 == image_id)
+        if(0 == image_id) {
             image_id = TImage.insert (connect, _image.getFilename(), page_title);
+            if(0 == image_id)   // it is inserted by other shard process (INSERT IGNORE)
+                image_id = TImage.getIDByFilename(connect, _image.getFilename(), page_title);
+        }
         
         // 2. add to the table 'image_meaning' the record (_image.id, _meaning.id)
         TImageMeaning.insert( connect, page_title, image_id, _meaning.getID(), _image.getCaption());
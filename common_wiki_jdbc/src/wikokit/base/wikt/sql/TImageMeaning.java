@@ -10,6 +10,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.util.ParseMetrics;
 
 /** Operations with the table 'image_meaning' in MySQL Wiktionary_parsed database.
  * image_meaning - binds together the image and the meaning.
@@ -60,7 +61,7 @@ public class TImageMeaning {
                 
                 str_sql.append("\")");
 
-                s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.image_meaning", s.executeUpdate (str_sql.toString()));
             } finally {
                 s.close();
             }
@@ -69,4 +70,29 @@ public class TImageMeaning {
         }
     }
     
+    /** Deletes rows from the table 'image_meaning' by the meaning_id,
+     * the images (table 'image') are kept.<br><br>
+     * DELETE FROM image_meaning WHERE meaning_id=2;
+     */
+    public static void delete (Connect connect,TMeaning meaning) {
+
+        if(null == meaning) {
+            System.out.println("Error (wikt_parsed TImageMeaning.delete()):: null argument: meaning.");
+            return;
+        }
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                str_sql.append("DELETE FROM image_meaning WHERE meaning_id=");
+                str_sql.append(meaning.getID());
+                s.execute (str_sql.toString());
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (wikt_parsed TImageMeaning.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+    }
+    
 }
@@ -10,7 +10,12 @@ package wikokit.base.wikt.sql;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
+import wikokit.base.wikipedia.sql.LookupCache;
+import wikokit.base.wikt.util.ParseMetrics;
 import java.sql.*;
+import java.util.Map;
 
 /** An operations with the table 'inflection' in MySQL wiktionary_parsed database.
  */
@@ -54,45 +59,63 @@ public class TInflection {
      */
     public static TInflection getOrInsert (Connect connect,String inflected_form,int freq) {
 
-        TInflection i = TInflection.get(connect, inflected_form);
-        if(null == i)
-            i = TInflection.insert(connect, inflected_form, freq);
+        LookupCache cache = connect.getLookupCache();
+        TInflection i = null;
+        if(null != cache)
+            i = cache.get("inflection", inflected_form);
+
+        if(null == i) {
+            i = TInflection.get(connect, inflected_form);
+            if(null == i) {
+                i = TInflection.insert(connect, inflected_form, freq);
+                if(null == i)   // it is inserted by other shard process (INSERT IGNORE)
+                    i = TInflection.get(connect, inflected_form);
+            }
+            if(null != cache)
+                cache.put("inflection", inflected_form, i);
+        }
         return i;
     }
     
-    /** Inserts record into the table 'inflection'.<br><br>
+    /** Inserts record into the table 'inflection', the row is not inserted
+     * if the form exists (unique key).<br><br>
      *
-     * INSERT INTO inflection (freq,inflected_form) VALUES (1,"apple");
+     * INSERT IGNORE INTO inflection (freq,inflected_form) VALUES (1,"apple");
      * 
      * @param text      text (without wikification).
-     * @return inserted record, or null if insertion failed
+     * @return inserted record, or null if insertion failed or the form exists
      */
     public static TInflection insert (Connect connect,String inflected_form,int freq) {
         
         if(inflected_form.length() == 0)
             return null;
         
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.inflection", insertBulk(connect, inflected_form, freq));
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.inflection", insertPrepared(connect, inflected_form, freq));
+        
         StringBuilder str_sql = new StringBuilder();
         TInflection inflexio = null;
         try
         {
             Statement s = connect.conn.createStatement ();
             try {
-                str_sql.append("INSERT INTO inflection (freq,inflected_form) VALUES (");
+                str_sql.append("INSERT IGNORE INTO inflection (freq,inflected_form) VALUES (");
                 str_sql.append(freq);
                 str_sql.append(",\"");
                 String safe_text = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, inflected_form);
                 str_sql.append(safe_text);
                 str_sql.append("\")");
-                s.executeUpdate (str_sql.toString());
-
-                s = connect.conn.createStatement ();
-                ResultSet rs = s.executeQuery ("SELECT LAST_INSERT_ID() as id");
-                try {
-                    if (rs.next ())
-                        inflexio = new TInflection(rs.getInt("id"), inflected_form, freq);
-                } finally {
-                    rs.close();
+                if(s.executeUpdate (str_sql.toString()) > 0) {
+                    ResultSet rs = s.executeQuery ("SELECT LAST_INSERT_ID() as id");
+                    try {
+                        if (rs.next ())
+                            inflexio = new TInflection(rs.getInt("id"), inflected_form, freq);
+                    } finally {
+                        rs.close();
+                    }
                 }
             } finally {
                 s.close();
@@ -100,6 +123,47 @@ public class TInflection {
         }catch(SQLException ex) {
             System.out.println("SQLException (TInflection.insert()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.inflection", inflexio);
+    }
+    
+    private final static String SQL_INSERT = "INSERT IGNORE INTO inflection (freq,inflected_form) VALUES (?,?)";
+    
+    /** Inserts record into the table 'inflection' by the prepared statement 
+     * of the batch writer, see insert().
+     */
+    private static TInflection insertPrepared (Connect connect,String inflected_form,int freq) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TInflection inflexio = null;
+        try {
+            PreparedStatement ps = bw.prepareInsert(SQL_INSERT);
+            ps.setInt   (1, freq);
+            ps.setString(2, connect.enc.EncodeToDB(inflected_form));
+            
+            int id = bw.insert("inflection", ps);
+            if(id > 0)
+                inflexio = new TInflection(id, inflected_form, freq);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TInflection.insertPrepared()):: inflected_form='" + inflected_form + "' " + ex.getMessage());
+        }
+        return inflexio;
+    }
+
+    /** Declares the table 'inflection' in the bulk loader. */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("inflection", "freq,inflected_form",
+                    "INDEX `idx_inflected_form` (`inflected_form`(7))");
+    }
+    
+    /** Writes record of the table 'inflection' by the bulk loader, 
+     * ID is assigned in-process, see insert().
+     */
+    private static TInflection insertBulk (Connect connect,String inflected_form,int freq) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        TInflection inflexio = new TInflection(bl.nextID("inflection"), inflected_form, freq);
+        bl.<String, TInflection>getDictionary("inflection").put(inflected_form, inflexio);
+        bl.writeRow("inflection", inflexio.getID(), freq, inflected_form);
         return inflexio;
     }
 
@@ -110,6 +174,10 @@ public class TInflection {
      */
     public static TInflection get (Connect connect,String inflected_form) {
 
+        BulkLoader bl = connect.getBulkLoader();
+        if(null != bl)
+            return bl.<String, TInflection>getDictionary("inflection").get(inflected_form);
+
         if(inflected_form.length() == 0)
             return null;
         
@@ -201,5 +269,9 @@ public class TInflection {
         } catch(SQLException ex) {
             System.out.println("SQLException (TInflection.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+
+        LookupCache cache = connect.getLookupCache();
+        if(null != cache)
+            cache.remove("inflection", wiki_text.getInflectedForm());
     }
 }
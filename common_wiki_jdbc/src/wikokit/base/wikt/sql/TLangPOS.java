@@ -11,7 +11,11 @@ import wikokit.base.wikt.constant.SoftRedirectType;
 
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikipedia.util.StringUtil;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
+import wikokit.base.wikt.util.ParseMetrics;
 import java.sql.*;
 import wikokit.base.wikt.constant.Relation;
 
@@ -162,6 +166,9 @@ public class TLangPOS {
             return null;
         }
         
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.lang_pos", insertBulk(connect, page, lang, pos, etymology_n, lemma));
+        
         StringBuilder str_sql = new StringBuilder();
         TLangPOS lang_pos = null;
 
@@ -171,6 +178,10 @@ public class TLangPOS {
                     "; the language header is repeated twice or more!'");
             return lang_pos;
         }
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.lang_pos", insertPrepared(connect, page, lang, pos, etymology_n, lemma));
+        
         try
         {
             Statement s = connect.conn.createStatement ();
@@ -213,9 +224,76 @@ public class TLangPOS {
             System.out.println("SQLException (TLangPOS.insert()):: page_title="+page_title+
                     "; sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.lang_pos", lang_pos);
+    }
+    
+    private final static String SQL_INSERT = "INSERT INTO lang_pos (page_id,lang_id,pos_id,etymology_n,lemma) VALUES (?,?,?,?,?)";
+    
+    /** Inserts record into the table 'lang_pos' by the prepared statement 
+     * of the batch writer, see insert().
+     */
+    private static TLangPOS insertPrepared (Connect connect,TPage page,TLang lang,TPOS pos,
+            int etymology_n,String lemma) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TLangPOS lang_pos = null;
+        try {
+            PreparedStatement ps = bw.prepareInsert(SQL_INSERT);
+            ps.setInt(1, page.getID());
+            ps.setInt(2, lang.getID());
+            ps.setInt(3, pos.getID());
+            ps.setInt(4, etymology_n);
+            if(null != lemma && lemma.length() > 0)
+                ps.setString(5, connect.enc.EncodeToDB(StringUtil.spaceToUnderscore(lemma)));
+            else
+                ps.setString(5, "");
+            
+            int id = bw.insert("lang_pos", ps);
+            if(id > 0)
+                lang_pos = new TLangPOS(id, page, lang, pos, etymology_n, lemma);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TLangPOS.insertPrepared()):: page_title="+page.getPageTitle()+
+                    " " + ex.getMessage());
+        }
         return lang_pos;
     }
 
+    /** Declares the table 'lang_pos' in the bulk loader. */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("lang_pos", "page_id,lang_id,pos_id,etymology_n,lemma",
+                    "UNIQUE INDEX `unique_page_lang_pos` (`page_id`,`lang_id`,`pos_id`,`etymology_n`)");
+    }
+    
+    /** Writes record of the table 'lang_pos' by the bulk loader, 
+     * ID is assigned in-process, see insert().
+     * Unique key (page, lang, pos, etymology_n) is checked by the dictionary
+     * instead of getUniqueByPagePOSLangEtymology().
+     */
+    private static TLangPOS insertBulk (Connect connect,TPage page,TLang lang,TPOS pos,
+            int etymology_n,String lemma) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        
+        // page_id (32 bits), lang_id (SMALLINT), pos_id (TINYINT), etymology_n (TINYINT)
+        long key = ((long)page.getID() << 32) | ((long)lang.getID() << 16) | 
+                   ((pos.getID() & 0xFF) << 8) | (etymology_n & 0xFF);
+        Map<Long, Integer> key2id = bl.getDictionary("lang_pos");
+        Integer id = key2id.get(key);
+        if(null != id) {
+            System.out.println("Error (TLangPOS.java insert()):: page_title="+page.getPageTitle()+
+                    "; the language header is repeated twice or more!'");
+            return new TLangPOS(id, page, lang, pos, etymology_n, lemma);
+        }
+        
+        id = bl.nextID("lang_pos");
+        key2id.put(key, id);
+        bl.writeRow("lang_pos", id, page.getID(), lang.getID(), pos.getID(), etymology_n,
+                    null != lemma && lemma.length() > 0 ? StringUtil.spaceToUnderscore(lemma) : "");
+        return new TLangPOS(id, page, lang, pos, etymology_n, lemma);
+    }
+
+    private final static String SQL_GET = "SELECT id,lang_id,pos_id,etymology_n,lemma FROM lang_pos WHERE page_id=? ORDER BY id";
+
     /** Selects rows from the table 'lang_pos' by the page_id.<br><br>
      *
      * SELECT id,lang_id,pos_id,etymology_n,lemma FROM lang_pos WHERE page_id=562 ORDER BY id;
@@ -235,38 +313,31 @@ public class TLangPOS {
             System.out.println("Error (wikt_parsed TLangPOS.get()):: null argument: page.");
             return null;
         }
-        StringBuilder str_sql = new StringBuilder();
         List<TLangPOS> list_lp = null;
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(SQL_GET);
+            ps.setInt(1, page.getID());
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT id,lang_id,pos_id,etymology_n,lemma FROM lang_pos WHERE page_id=");
-                str_sql.append(page.getID());
-                str_sql.append(" ORDER BY id");
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    while (rs.next ())
-                    {
-                        int     id      =                       rs.getInt("id");
-                        TLang   lang    = TLang.getTLangFast(   rs.getInt("lang_id"));
-                        TPOS    pos     = TPOS. getTPOSFast (   rs.getInt("pos_id"));
-                        int etymology_n =                       rs.getInt("etymology_n");
-                        String lemma    = Encodings.bytesToUTF8(rs.getBytes("lemma"));
-
-                        if(null != lang && null != pos) {
-                            if(null == list_lp)
-                                       list_lp = new ArrayList<TLangPOS>();
-                            list_lp.add(new TLangPOS(id, page, lang, pos, etymology_n, lemma));
-                        }
+                while (rs.next ())
+                {
+                    int     id      =                       rs.getInt("id");
+                    TLang   lang    = TLang.getTLangFast(   rs.getInt("lang_id"));
+                    TPOS    pos     = TPOS. getTPOSFast (   rs.getInt("pos_id"));
+                    int etymology_n =                       rs.getInt("etymology_n");
+                    String lemma    = Encodings.bytesToUTF8(rs.getBytes("lemma"));
+
+                    if(null != lang && null != pos) {
+                        if(null == list_lp)
+                                   list_lp = new ArrayList<TLangPOS>();
+                        list_lp.add(new TLangPOS(id, page, lang, pos, etymology_n, lemma));
                     }
-                } finally {
-                    rs.close();
                 }
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TLangPOS.get()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (TLangPOS.get()):: sql='" + SQL_GET + "', page_id=" + page.getID() + " " + ex.getMessage());
         }
         if(null == list_lp)
             return NULL_TLANGPOS_ARRAY;
@@ -10,6 +10,9 @@ package wikokit.base.wikt.sql;
 //import wikipedia.language.Encodings;
 //import wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
+import wikokit.base.wikt.util.ParseMetrics;
 import java.sql.*;
 import wikokit.base.wikt.constant.Relation;
 
@@ -146,6 +149,12 @@ public class TMeaning {
             System.out.println("Error (wikt_parsed TMeaning.insert()):: null argument lang_pos");
             return null;
         }
+        
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.meaning", insertBulk(connect, lang_pos, meaning_n, wiki_text));
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.meaning", insertPrepared(connect, lang_pos, meaning_n, wiki_text));
 
         StringBuilder str_sql = new StringBuilder();
         TMeaning meaning = null;
@@ -191,9 +200,62 @@ public class TMeaning {
         }catch(SQLException ex) {
             System.out.println("SQLException (wikt_parsed TMeaning.java insert()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.meaning", meaning);
+    }
+    
+    private final static String SQL_INSERT = "INSERT INTO meaning (lang_pos_id,meaning_n,wiki_text_id) VALUES (?,?,?)";
+    
+    /** Inserts record into the table 'meaning' by the prepared statement 
+     * of the batch writer, see insert().
+     */
+    private static TMeaning insertPrepared (Connect connect,TLangPOS lang_pos,
+            int meaning_n, TWikiText wiki_text) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TMeaning meaning = null;
+        int wiki_text_id = null == wiki_text ? 0 : wiki_text.getID();
+        try {
+            PreparedStatement ps = bw.prepareInsert(SQL_INSERT);
+            ps.setInt(1, lang_pos.getID());
+            ps.setInt(2, meaning_n);
+            if(null != wiki_text)
+                ps.setInt(3, wiki_text_id);
+            else
+                ps.setNull(3, Types.INTEGER);
+            
+            int id = bw.insert("meaning", ps);
+            if(id > 0)
+                meaning = new TMeaning(id, lang_pos, lang_pos.getID(),
+                                       meaning_n, wiki_text, wiki_text_id);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (wikt_parsed TMeaning.insertPrepared()):: lang_pos_id=" + lang_pos.getID() + " " + ex.getMessage());
+        }
         return meaning;
     }
 
+    /** Declares the table 'meaning' in the bulk loader. */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("meaning", "lang_pos_id,meaning_n,wiki_text_id",
+                    "INDEX `lang_pos_id` (`lang_pos_id`)");
+    }
+    
+    /** Writes record of the table 'meaning' by the bulk loader, 
+     * ID is assigned in-process, see insert().
+     */
+    private static TMeaning insertBulk (Connect connect,TLangPOS lang_pos,
+            int meaning_n, TWikiText wiki_text) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        int wiki_text_id = null == wiki_text ? 0 : wiki_text.getID();
+        int id = bl.nextID("meaning");
+        bl.writeRow("meaning", id, lang_pos.getID(), meaning_n,
+                    null == wiki_text ? null : wiki_text_id);
+        return new TMeaning(id, lang_pos, lang_pos.getID(),
+                            meaning_n, wiki_text, wiki_text_id);
+    }
+
+    private final static String SQL_GET = "SELECT id,meaning_n,wiki_text_id FROM meaning WHERE lang_pos_id=?";
+
     /** Selects rows from the table 'meaning' by the lang_pos_id.
      * SELECT id,meaning_n,wiki_text_id FROM meaning WHERE lang_pos_id=1;
      * @return empty array if data is absent
@@ -204,35 +266,28 @@ public class TMeaning {
             System.out.println("Error (wikt_parsed TMeaning.get()):: null argument lang_pos");
             return null;
         }
-        StringBuilder str_sql = new StringBuilder();
         List<TMeaning> list_meaning = null;
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(SQL_GET);
+            ps.setInt(1, lang_pos.getID());
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT id,meaning_n,wiki_text_id FROM meaning WHERE lang_pos_id=");
-                str_sql.append(lang_pos.getID());
-                //str_sql.append(" ORDER BY id");
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    while (rs.next ())
-                    {
-                        int       id            = rs.getInt("id");
-                        int       meaning_n     = rs.getInt("meaning_n");
-                        int       wiki_text_id  = rs.getInt("wiki_text_id");
-                        TWikiText wiki_text     = wiki_text_id < 1 ? null : TWikiText.getByID(connect, wiki_text_id);
-                        if(null == list_meaning)
-                                   list_meaning = new ArrayList<TMeaning>();
-                        list_meaning.add(new TMeaning(id, lang_pos, lang_pos.getID(),
-                                                      meaning_n, wiki_text, wiki_text_id));
-                    }
-                } finally {
-                    rs.close();
+                while (rs.next ())
+                {
+                    int       id            = rs.getInt("id");
+                    int       meaning_n     = rs.getInt("meaning_n");
+                    int       wiki_text_id  = rs.getInt("wiki_text_id");
+                    TWikiText wiki_text     = wiki_text_id < 1 ? null : TWikiText.getByID(connect, wiki_text_id);
+                    if(null == list_meaning)
+                               list_meaning = new ArrayList<TMeaning>();
+                    list_meaning.add(new TMeaning(id, lang_pos, lang_pos.getID(),
+                                                  meaning_n, wiki_text, wiki_text_id));
                 }
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TMeaning.get()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (TMeaning.get()):: sql='" + SQL_GET + "', lang_pos_id=" + lang_pos.getID() + " " + ex.getMessage());
         }
         if(null == list_meaning)
             return NULL_TMEANING_ARRAY;
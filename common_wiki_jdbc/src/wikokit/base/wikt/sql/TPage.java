@@ -7,8 +7,13 @@
 package wikokit.base.wikt.sql;
 
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
+import wikokit.base.wikipedia.sql.LookupCache;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikt.sql.index.PageFilter;
 
 //import wikt.api.WTMeaning;
 //import wikt.word.*;
@@ -16,6 +21,8 @@ import wikokit.base.wikipedia.language.Encodings;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
 
 import java.sql.*;
 
@@ -54,6 +61,9 @@ public class TPage {
     /** Array of language-POS with this page_title */
     private TLangPOS[] lang_pos;
 
+    /** true, if lang_pos are set or loaded from the database, see getLangPOS(). */
+    private boolean b_lang_pos_loaded;
+
     private final static TPage[]    NULL_TPAGE_ARRAY    = new TPage[0];
     private final static TLangPOS[] NULL_TLANGPOS_ARRAY = new TLangPOS[0];
 
@@ -129,6 +139,17 @@ public class TPage {
      */
     public void setLangPOS(TLangPOS[] _lang_pos) {
         lang_pos = _lang_pos;
+        b_lang_pos_loaded = true;
+    }
+
+    /** Gets array: language and part of speech (with meanings, relations
+     * and translations). The data are loaded from the database by the first
+     * call, e.g. only for the selected word in the word list.
+     */
+    public TLangPOS[] getLangPOS(Connect connect) {
+        if(!b_lang_pos_loaded)
+            setLangPOS(TLangPOS.getRecursive(connect, this));
+        return lang_pos;
     }
     
 
@@ -146,24 +167,38 @@ public class TPage {
                             int _word_count,int _wiki_link_count,
                             boolean _is_in_wiktionary,String _redirect_target) {
         
-        TPage p = TPage.get(connect, _page_title);
+        LookupCache cache = connect.getLookupCache();
+        TPage p = null;
+        if(null != cache)
+            p = cache.get("page", _page_title);
         if(null == p)
+            p = TPage.get(connect, _page_title);
+
+        boolean b_inserted = false;
+        if(null == p) {
             p = TPage.insert(connect, _page_title, _word_count, _wiki_link_count,
                             _is_in_wiktionary, _redirect_target);
-        else {
+            b_inserted = null != p;
+            if(null == p)   // the page is inserted by other shard process (INSERT IGNORE)
+                p = TPage.get(connect, _page_title);
+        }
+        if(null != p && !b_inserted) {
             if( p.is_in_wiktionary != _is_in_wiktionary) {
                 TPage.setIsInWiktionary(connect, _page_title, _is_in_wiktionary);
                 p.is_in_wiktionary = _is_in_wiktionary;
             }
         }
+        if(null != cache)
+            cache.put("page", _page_title, p);
         return p;
     }
 
-    /** Inserts record into the table 'page'.<br><br>
-     * INSERT INTO page (page_title,word_count,wiki_link_count,is_in_wiktionary) VALUES ("apple",1,2,TRUE);
+    /** Inserts record into the table 'page', the row is not inserted if the
+     * title exists (unique key), e.g. it is inserted by other shard process.<br><br>
+     * INSERT IGNORE INTO page (page_title,word_count,wiki_link_count,is_in_wiktionary) VALUES ("apple",1,2,TRUE);
      * 
      * or with redirect:
-     * INSERT INTO page (page_title,word_count,wiki_link_count,is_in_wiktionary,is_redirect,redirect_target) VALUES ("apple",1,2,TRUE,TRUE,"test_neletnwi");
+     * INSERT IGNORE INTO page (page_title,word_count,wiki_link_count,is_in_wiktionary,is_redirect,redirect_target) VALUES ("apple",1,2,TRUE,TRUE,"test_neletnwi");
      * @param page_title   title of wiki page
      * @param word_count   size of the page in words
      * @param wiki_link_count number of wikified words at the page
@@ -174,6 +209,14 @@ public class TPage {
     public static TPage insert (Connect connect,String page_title,int word_count,int wiki_link_count,
             boolean is_in_wiktionary,String redirect_target) {
         
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.page", insertBulk(connect, page_title, word_count, wiki_link_count,
+                                                                 is_in_wiktionary, redirect_target));
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.page", insertPrepared(connect, page_title, word_count, wiki_link_count,
+                                                                     is_in_wiktionary, redirect_target));
+        
         StringBuilder str_sql = new StringBuilder();
         TPage page = null;
         boolean is_redirect = null != redirect_target && redirect_target.length() > 0;
@@ -181,7 +224,7 @@ public class TPage {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                str_sql.append("INSERT INTO page (page_title,word_count,wiki_link_count,is_in_wiktionary");
+                str_sql.append("INSERT IGNORE INTO page (page_title,word_count,wiki_link_count,is_in_wiktionary");
 
                 if(is_redirect)
                     str_sql.append(",is_redirect,redirect_target");
@@ -223,6 +266,88 @@ public class TPage {
         }catch(SQLException ex) {
             System.out.println("SQLException (TPage.insert()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.page", page);
+    }
+    
+    private final static String SQL_INSERT = "INSERT IGNORE INTO page (page_title,word_count,wiki_link_count,is_in_wiktionary,is_redirect,redirect_target) VALUES (?,?,?,?,?,?)";
+    
+    /** Inserts record into the table 'page' by the prepared statement 
+     * of the batch writer, see insert().
+     */
+    private static TPage insertPrepared (Connect connect,String page_title,int word_count,int wiki_link_count,
+            boolean is_in_wiktionary,String redirect_target) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TPage page = null;
+        boolean is_redirect = null != redirect_target && redirect_target.length() > 0;
+        try {
+            PreparedStatement ps = bw.prepareInsert(SQL_INSERT);
+            ps.setString (1, connect.enc.EncodeToDB(page_title));
+            ps.setInt    (2, word_count);
+            ps.setInt    (3, wiki_link_count);
+            ps.setBoolean(4, is_in_wiktionary);
+            if(is_redirect) {
+                ps.setBoolean(5, true);
+                ps.setString (6, connect.enc.EncodeToDB(redirect_target));
+            } else {
+                ps.setNull(5, Types.TINYINT);
+                ps.setNull(6, Types.VARCHAR);
+            }
+            
+            int id = bw.insert("page", ps);
+            if(id > 0)
+                page = new TPage(id, page_title, word_count, wiki_link_count,
+                                 is_in_wiktionary, redirect_target);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TPage.insertPrepared()):: page_title='" + page_title + "' " + ex.getMessage());
+        }
+        return page;
+    }
+
+    /** Declares the table 'page' in the bulk loader. Rows are written
+     * to the file at the end, since 'is_in_wiktionary' can be updated 
+     * during parsing.
+     */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("page", "page_title,word_count,wiki_link_count,is_in_wiktionary,is_redirect,redirect_target",
+                    "INDEX `idx_page_title` (`page_title`(7))");
+        
+        final Map<String, TPage> title2page = bl.getDictionary("page");
+        bl.setRowSource("page", new Iterable<Object[]>() {
+            @Override
+            public Iterator<Object[]> iterator() {
+                final Iterator<TPage> it = title2page.values().iterator();
+                return new Iterator<Object[]>() {
+                    @Override
+                    public boolean hasNext() { return it.hasNext(); }
+                    
+                    @Override
+                    public Object[] next() {
+                        TPage p = it.next();
+                        return new Object[] {p.id, p.page_title, p.word_count, p.wiki_link_count,
+                                p.is_in_wiktionary, p.is_redirect ? Boolean.TRUE : null, p.redirect_target};
+                    }
+                    
+                    @Override
+                    public void remove() { throw new UnsupportedOperationException(); }
+                };
+            }
+        });
+    }
+    
+    /** Creates record in the dictionary of the bulk loader, 
+     * ID is assigned in-process, see insert().
+     */
+    private static TPage insertBulk (Connect connect,String page_title,int word_count,int wiki_link_count,
+            boolean is_in_wiktionary,String redirect_target) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        if(null != redirect_target && 0 == redirect_target.length())
+            redirect_target = null;
+        
+        TPage page = new TPage(bl.nextID("page"), page_title, word_count, wiki_link_count,
+                               is_in_wiktionary, redirect_target);
+        bl.<String, TPage>getDictionary("page").put(page_title, page);
         return page;
     }
 
@@ -236,6 +361,13 @@ public class TPage {
     public static void setIsInWiktionary (Connect connect,String page_title,
                                             boolean is_in_wiktionary)
     {
+        if(null != connect.getBulkLoader()) {
+            TPage page = TPage.get(connect, page_title);
+            if(null != page)
+                page.is_in_wiktionary = is_in_wiktionary;
+            return;
+        }
+        
         StringBuilder str_sql = new StringBuilder();
         try
         {
@@ -257,11 +389,16 @@ public class TPage {
         }catch(SQLException ex) {
             System.out.println("SQLException (wikt_parsed TPage.setIsInWiktionary()):: page_title='"+page_title+"'; sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+
+        LookupCache cache = connect.getLookupCache();
+        if(null != cache)
+            cache.remove("page", page_title);
     }
 
     /** Selects row from the table 'page' by the page_title.
      * (1) Without conversion into the database encoding for SQLite.
      * (2) With conversion for MySQL.
+     * (3) From the dictionary in the bulk-load mode (see Connect.openBulkLoader()).
      *
      *  SELECT id,word_count,wiki_link_count,is_in_wiktionary,is_redirect,redirect_target FROM page WHERE page_title="apple";
      *
@@ -270,60 +407,54 @@ public class TPage {
      */
     public static TPage get (Connect connect,String page_title) {
 
+        BulkLoader bl = connect.getBulkLoader();
+        if(null != bl)
+            return bl.<String, TPage>getDictionary("page").get(page_title);
+
         boolean b_page_title_safe_convertion = connect.isMySQL();
         return get(connect, page_title, b_page_title_safe_convertion);
     }
 
-    /** Selects row from the table 'page' by the page_title.
+    private final static String SQL_GET = "SELECT id,word_count,wiki_link_count,is_in_wiktionary,is_redirect,redirect_target FROM page WHERE page_title=?";
+
+    /** Selects row from the table 'page' by the page_title, 
+     * the statement is taken from the cache of the connection (connect.prepare()).
      *
      *  SELECT id,word_count,wiki_link_count,is_in_wiktionary,is_redirect,redirect_target FROM page WHERE page_title="apple";
      *
      * @param  page_title  title of Wiktionary article
+     * @param  b_page_title_safe_convertion  if true, then the title is encoded to DB (connect.enc)
      * @return null if page_title is absent
      */
     private static TPage get (Connect connect,String page_title,
                               boolean b_page_title_safe_convertion) {
                               
-        StringBuilder str_sql = new StringBuilder();
         TPage tp = null;
 
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(SQL_GET);
+            ps.setString(1, b_page_title_safe_convertion ? connect.enc.EncodeToDB(page_title) : page_title);
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT id,word_count,wiki_link_count,is_in_wiktionary,is_redirect,redirect_target FROM page WHERE page_title=\"");
-
-                if( b_page_title_safe_convertion ) {
-                    String safe_title = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, page_title);
-                    str_sql.append(safe_title);
-                } else {
-                    str_sql.append(page_title);
-                }
-                str_sql.append("\"");
-
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    if (rs.next ())
-                    {
-                        int id              = rs.getInt("id");
-                        int word_count      = rs.getInt("word_count");
-                        int wiki_link_count = rs.getInt("wiki_link_count");
-                        //boolean is_in_wiktionary = rs.getBoolean("is_in_wiktionary");
-                        boolean is_in_wiktionary = 0 != rs.getInt("is_in_wiktionary");
-
-                        boolean is_redirect = 0 != rs.getInt("is_redirect");
-                        String redirect_target = is_redirect ? Encodings.bytesToUTF8(rs.getBytes("redirect_target")) : null;
-
-                        tp = new TPage(id, page_title, word_count, wiki_link_count,
-                                       is_in_wiktionary, redirect_target);
-                    }
-                } finally {
-                    rs.close();
+                if (rs.next ())
+                {
+                    int id              = rs.getInt("id");
+                    int word_count      = rs.getInt("word_count");
+                    int wiki_link_count = rs.getInt("wiki_link_count");
+                    //boolean is_in_wiktionary = rs.getBoolean("is_in_wiktionary");
+                    boolean is_in_wiktionary = 0 != rs.getInt("is_in_wiktionary");
+
+                    boolean is_redirect = 0 != rs.getInt("is_redirect");
+                    String redirect_target = is_redirect ? Encodings.bytesToUTF8(rs.getBytes("redirect_target")) : null;
+
+                    tp = new TPage(id, page_title, word_count, wiki_link_count,
+                                   is_in_wiktionary, redirect_target);
                 }
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TPage.get()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (TPage.get()):: sql='" + SQL_GET + "', page_title='" + page_title + "' " + ex.getMessage());
         }
         return tp;
     }
@@ -371,7 +502,96 @@ public class TPage {
     }
 
     /** Selects row from the table 'page', WHERE page_title starts from 'prefix',
-     * result list is constrained by 'limit'.
+     * result list is constrained by 'limit'.<br><br>
+     *
+     * Filters are taken from the table 'page_filter' (see PageFilter),
+     * so this is one query, e.g. with all filters:
+     * SELECT p.id,p.page_title,... FROM page_filter f JOIN page p ON p.id=f.page_id
+     *   WHERE f.page_title LIKE "zzz%" AND f.is_redirect=0 AND f.has_definition=1 AND f.has_relation=1
+     *   AND (f.lang_mask &amp; 6)&lt;&gt;0 AND EXISTS (SELECT 1 FROM lang_pos lp WHERE lp.page_id=f.page_id AND lp.lang_id IN (1,2))
+     *   ORDER BY f.page_title LIMIT 10;
+     *
+     * Language-POS of found pages are not loaded here, see getLangPOS(Connect).
+     * If there is no table 'page_filter' (old database), then each
+     * found word is loaded and checked.
+     *
+     * @param  limit    constraint of the number of rows returned,
+     *                  if it has a negative value then the constraint is omitted
+     * @param  prefix   the begining of the page_titles
+     * @param  b_skip_redirects return articles without redirects if true
+     * @param  source_lang  pages filtering for words with these languages
+     * @param  b_meaning return articles with definitions
+     * @param  b_sem_rel return articles with semantic relations
+     * @return empty array if there are no such pages
+     */
+    public static TPage[] getByPrefix (
+                                        Connect connect,String prefix,
+                                        int limit, boolean b_skip_redirects,
+                                        TLang source_lang[],
+                                        boolean b_meaning,
+                                        boolean b_sem_rel
+                                       )
+    {
+        if(0==limit)
+            return NULL_TPAGE_ARRAY;
+
+        if(!PageFilter.exists(connect))
+            return getByPrefixAndLoad(connect, prefix, limit, b_skip_redirects,
+                                      source_lang, b_meaning, b_sem_rel);
+
+        StringBuilder str_sql = new StringBuilder();
+        List<TPage> tp_list = new ArrayList<TPage>();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                String safe_prefix = PageTableBase.convertToSafeWithWildCard(connect, prefix);
+                str_sql.append("SELECT p.id,p.page_title,p.word_count,p.wiki_link_count,p.is_in_wiktionary,p.is_redirect,p.redirect_target " +
+                               "FROM page_filter f JOIN page p ON p.id=f.page_id WHERE f.page_title LIKE \"");
+                str_sql.append(safe_prefix);
+                str_sql.append("\"");
+
+                PageFilter.appendWhere(str_sql, b_skip_redirects, source_lang, b_meaning, b_sem_rel);
+
+                str_sql.append(" ORDER BY f.page_title");
+                if(limit > 0) {
+                    str_sql.append(" LIMIT ");
+                    str_sql.append(limit);
+                }
+
+                ResultSet rs = s.executeQuery (str_sql.toString());
+                try {
+                    while (rs.next ())
+                    {
+                        int id              = rs.getInt("id");
+                        int word_count      = rs.getInt("word_count");
+                        int wiki_link_count = rs.getInt("wiki_link_count");
+                        boolean is_in_wiktionary = rs.getBoolean("is_in_wiktionary");
+                        String page_title   = Encodings.bytesToUTF8(rs.getBytes("page_title"));
+
+                        boolean is_redirect = 0 != rs.getInt("is_redirect");
+                        String redirect_target = is_redirect ? Encodings.bytesToUTF8(rs.getBytes("redirect_target")) : null;
+
+                        tp_list.add(new TPage(id, page_title, word_count, wiki_link_count,
+                                              is_in_wiktionary, redirect_target));
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TPage.getByPrefix()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+        if(tp_list.isEmpty())
+            return NULL_TPAGE_ARRAY;
+
+        return ((TPage[])tp_list.toArray(NULL_TPAGE_ARRAY));
+    }
+
+    /** Selects row from the table 'page', WHERE page_title starts from 'prefix',
+     * loads language-POS of each page and checks filters, result list
+     * is constrained by 'limit' (for databases without the table 'page_filter').
      *
      * skip #REDIRECT
      * SELECT id,page_title,word_count,wiki_link_count,is_in_wiktionary FROM page WHERE page_title LIKE 'zzz%' AND is_redirect is NULL LIMIT 1;
@@ -392,7 +612,7 @@ public class TPage {
      *                          codes, e.g. "ru en fr"
      * @return null if page_title is absent
      */
-    public static TPage[] getByPrefix (
+    private static TPage[] getByPrefixAndLoad (
                                         Connect connect,String prefix,
                                         int limit, boolean b_skip_redirects,
                                         TLang source_lang[], // String str_source_lang,
@@ -479,7 +699,7 @@ public class TPage {
                         TPage tp = new TPage(id, page_title, word_count, wiki_link_count,
                                    is_in_wiktionary, redirect_target);
 
-                        tp.lang_pos = TLangPOS.getRecursive(connect, tp);
+                        tp.setLangPOS(TLangPOS.getRecursive(connect, tp));
 
                         boolean b_add = true;
                         if(b_meaning)
@@ -547,6 +767,10 @@ public class TPage {
         } catch(SQLException ex) {
             System.out.println("SQLException (wikt_parsed TPage.java delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+
+        LookupCache cache = connect.getLookupCache();
+        if(null != cache)
+            cache.remove("page", page_title);
     }
 
 
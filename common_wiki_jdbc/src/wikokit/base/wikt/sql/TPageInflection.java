@@ -8,7 +8,12 @@
 package wikokit.base.wikt.sql;
 
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
+import wikokit.base.wikipedia.sql.LookupCache;
+import wikokit.base.wikt.util.ParseMetrics;
 import java.sql.*;
+import java.util.Map;
 
 /** An operations with the table 'page_inflection' in MySQL wiktionary_parsed database.
  */
@@ -52,14 +57,30 @@ public class TPageInflection {
      */
     public static TPageInflection getOrInsert (Connect connect,TPage page,TInflection inflection,int term_freq) {
 
-        TPageInflection pi = TPageInflection.get(connect, page, inflection);
-        if(null == pi)
-            pi = TPageInflection.insert(connect, page, inflection, term_freq);
+        LookupCache cache = connect.getLookupCache();
+        if(null == page || null == inflection)
+            cache = null;           // insert() reports the error
+
+        TPageInflection pi = null;
+        if(null != cache)
+            pi = cache.get("page_inflection", getBulkKey(page, inflection));
+
+        if(null == pi) {
+            pi = TPageInflection.get(connect, page, inflection);
+            if(null == pi) {
+                pi = TPageInflection.insert(connect, page, inflection, term_freq);
+                if(null == pi)  // it is inserted by other shard process (INSERT IGNORE)
+                    pi = TPageInflection.get(connect, page, inflection);
+            }
+            if(null != cache)
+                cache.put("page_inflection", getBulkKey(page, inflection), pi);
+        }
         return pi;
     }
 
-    /** Inserts record into the table 'page_inflection'.<br><br>
-     * INSERT INTO page_inflection (page_id,inflection_id,term_freq) VALUES (1,2,3);
+    /** Inserts record into the table 'page_inflection', the row is not
+     * inserted if the pair (page_id, inflection_id) exists (unique key).<br><br>
+     * INSERT IGNORE INTO page_inflection (page_id,inflection_id,term_freq) VALUES (1,2,3);
      * @param page_id       ID of wiki page
      * @param inflection_id ID of inflectional wordform
      * @param term_freq     term (inflection) frequency
@@ -71,6 +92,12 @@ public class TPageInflection {
             System.out.println("Error (TPageInflection.insert()):: null arguments: page="+page+"; inflection="+inflection);
             return null;
         }
+        
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.page_inflection", insertBulk(connect, page, inflection, term_freq));
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.page_inflection", insertPrepared(connect, page, inflection, term_freq));
 
         StringBuilder str_sql = new StringBuilder();
         TPageInflection page_infl = null;
@@ -78,22 +105,21 @@ public class TPageInflection {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                str_sql.append("INSERT INTO page_inflection (page_id,inflection_id,term_freq) VALUES (");
+                str_sql.append("INSERT IGNORE INTO page_inflection (page_id,inflection_id,term_freq) VALUES (");
                 str_sql.append(page.getID());
                 str_sql.append(",");
                 str_sql.append(inflection.getID());
                 str_sql.append(",");
                 str_sql.append(term_freq);
                 str_sql.append(")");
-                s.executeUpdate (str_sql.toString());
-
-                s = connect.conn.createStatement ();
-                ResultSet rs = s.executeQuery ("SELECT LAST_INSERT_ID() as id");
-                try {
-                    if (rs.next ())
-                        page_infl = new TPageInflection(rs.getInt("id"), page, inflection, term_freq);
-                } finally {
-                    rs.close();
+                if(s.executeUpdate (str_sql.toString()) > 0) {
+                    ResultSet rs = s.executeQuery ("SELECT LAST_INSERT_ID() as id");
+                    try {
+                        if (rs.next ())
+                            page_infl = new TPageInflection(rs.getInt("id"), page, inflection, term_freq);
+                    } finally {
+                        rs.close();
+                    }
                 }
             } finally {
                 s.close();
@@ -101,9 +127,57 @@ public class TPageInflection {
         }catch(SQLException ex) {
             System.out.println("SQLException (wikt_parsed TPageInflection.java insert()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.page_inflection", page_infl);
+    }
+    
+    private final static String SQL_INSERT = "INSERT IGNORE INTO page_inflection (page_id,inflection_id,term_freq) VALUES (?,?,?)";
+    
+    /** Inserts record into the table 'page_inflection' by the prepared statement 
+     * of the batch writer, see insert().
+     */
+    private static TPageInflection insertPrepared (Connect connect,TPage page,TInflection inflection,int term_freq) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TPageInflection page_infl = null;
+        try {
+            PreparedStatement ps = bw.prepareInsert(SQL_INSERT);
+            ps.setInt(1, page.getID());
+            ps.setInt(2, inflection.getID());
+            ps.setInt(3, term_freq);
+            
+            int id = bw.insert("page_inflection", ps);
+            if(id > 0)
+                page_infl = new TPageInflection(id, page, inflection, term_freq);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (wikt_parsed TPageInflection.insertPrepared()):: page_id=" + page.getID() + " " + ex.getMessage());
+        }
         return page_infl;
     }
     
+    /** Declares the table 'page_inflection' in the bulk loader. */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("page_inflection", "page_id,inflection_id,term_freq",
+                    "UNIQUE INDEX `page_inflection_id_id` (`page_id`,`inflection_id`)");
+    }
+    
+    /** Gets key (page_id, inflection_id) of the dictionary of the bulk loader
+     * and of the lookup cache. */
+    private static long getBulkKey(TPage page, TInflection inflection) {
+        return ((long)page.getID() << 32) | (inflection.getID() & 0xFFFFFFFFL);
+    }
+    
+    /** Writes record of the table 'page_inflection' by the bulk loader, 
+     * ID is assigned in-process, see insert().
+     */
+    private static TPageInflection insertBulk (Connect connect,TPage page,TInflection inflection,int term_freq) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        TPageInflection pi = new TPageInflection(bl.nextID("page_inflection"), page, inflection, term_freq);
+        bl.<Long, TPageInflection>getDictionary("page_inflection").put(getBulkKey(page, inflection), pi);
+        bl.writeRow("page_inflection", pi.getID(), page.getID(), inflection.getID(), term_freq);
+        return pi;
+    }
+
     /** Selects unique record from the table 'page_inflection' by page and inflection.<br><br>
      * SELECT id,term_freq FROM page_inflection WHERE page_id=30 AND inflection_id=8;
      * @param page      wiki page
@@ -117,6 +191,10 @@ public class TPageInflection {
             return null;
         }
         
+        BulkLoader bl = connect.getBulkLoader();
+        if(null != bl)
+            return bl.<Long, TPageInflection>getDictionary("page_inflection").get(getBulkKey(page, infl));
+        
         StringBuilder str_sql = new StringBuilder();
         TPageInflection page_infl = null;
         
@@ -209,5 +287,9 @@ public class TPageInflection {
         } catch(SQLException ex) {
             System.out.println("SQLException (TPageInflection.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+
+        LookupCache cache = connect.getLookupCache();
+        if(null != cache && null != page_infl.page && null != page_infl.inflection)
+            cache.remove("page_inflection", getBulkKey(page_infl.page, page_infl.inflection));
     }
 }
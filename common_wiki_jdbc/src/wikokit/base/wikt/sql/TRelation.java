@@ -12,16 +12,23 @@ import wikokit.base.wikt.word.WRelation;
 import wikokit.base.wikt.util.WikiText;
 
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
 import wikokit.base.wikipedia.sql.Statistics;
+import wikokit.base.wikipedia.sql.UtilSQL;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikipedia.language.Encodings;
 
 import java.sql.*;
+import java.io.IOException;
 
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.LinkedHashSet;
 import java.util.Collection;
 import wikokit.base.wikt.constant.Label;
 import wikokit.base.wikt.util.LabelsWikiText;
@@ -167,6 +174,12 @@ public class TRelation {
             return null;
         }
         
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.relation", insertBulk(connect, meaning, wiki_text, relation_type, meaning_summary));
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.relation", insertBatch(connect, meaning, wiki_text, relation_type, meaning_summary));
+        
         StringBuilder str_sql = new StringBuilder();
         TRelation relation = null;
         try
@@ -215,9 +228,63 @@ public class TRelation {
         }catch(SQLException ex) {
             System.out.println("SQLException (TRelation.insert()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.relation", relation);
+    }
+    
+    private final static String SQL_INSERT = "INSERT INTO relation (meaning_id,wiki_text_id,relation_type_id,meaning_summary) VALUES (?,?,?,?)";
+    
+    /** Adds record for the table 'relation' to the JDBC batch of 
+     * the batch writer, see insert(). The table 'relation' is not read 
+     * during parsing, so the ID of the record is not needed.
+     * 
+     * @return relation with ID = 0, since the ID is unknown till the batch execution
+     */
+    private static TRelation insertBatch (Connect connect,
+            TMeaning meaning,TWikiText wiki_text,TRelationType relation_type,
+            String meaning_summary) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TRelation relation = null;
+        try {
+            PreparedStatement ps = bw.prepareBatch(SQL_INSERT);
+            ps.setInt(1, meaning.getID());
+            ps.setInt(2, wiki_text.getID());
+            ps.setInt(3, relation_type.getID());
+            if(null != meaning_summary && meaning_summary.length() > 0)
+                ps.setString(4, connect.enc.EncodeToDB(meaning_summary));
+            else
+                ps.setNull(4, Types.VARCHAR);
+            
+            bw.addBatch("relation", SQL_INSERT);
+            relation = new TRelation(0, meaning, wiki_text, relation_type, meaning_summary);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TRelation.insertBatch()):: meaning_id=" + meaning.getID() + " " + ex.getMessage());
+        }
         return relation;
     }
 
+    /** Declares the table 'relation' in the bulk loader. */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("relation", "meaning_id,wiki_text_id,relation_type_id,meaning_summary",
+                    "INDEX `meaning_id` (`meaning_id`)");
+    }
+    
+    /** Writes record of the table 'relation' by the bulk loader, 
+     * ID is assigned in-process, see insert().
+     */
+    private static TRelation insertBulk (Connect connect,
+            TMeaning meaning,TWikiText wiki_text,TRelationType relation_type,
+            String meaning_summary) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        int id = bl.nextID("relation");
+        bl.writeRow("relation", id, meaning.getID(), wiki_text.getID(), relation_type.getID(),
+                    null != meaning_summary && meaning_summary.length() > 0 ? meaning_summary : null);
+        return new TRelation(id, meaning, wiki_text, relation_type, meaning_summary);
+    }
+
+    private final static String SQL_GET = "SELECT id,wiki_text_id,relation_type_id,meaning_summary FROM relation WHERE meaning_id=?";
+
     /** Selects rows from the table 'relation' by the meaning_id.<br><br>.
      * SELECT id,wiki_text_id,relation_type_id,meaning_summary FROM relation WHERE meaning_id=11;
      * @return empty array if data is absent
@@ -229,40 +296,34 @@ public class TRelation {
             return NULL_TRELATION_ARRAY;
         }
         
-        StringBuilder str_sql = new StringBuilder();
         List<TRelation> list_rel = null;
         
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(SQL_GET);
+            ps.setInt(1, meaning.getID());
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT id,wiki_text_id,relation_type_id,meaning_summary FROM relation WHERE meaning_id=");
-                str_sql.append(meaning.getID());
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    while (rs.next ())
-                    {
-                        int          id =                               rs.getInt("id");
-                        TWikiText    wt = TWikiText.getByID(connect,    rs.getInt("wiki_text_id"));
-                        TRelationType r = TRelationType.getRelationFast(rs.getInt("relation_type_id"));
+                while (rs.next ())
+                {
+                    int          id =                               rs.getInt("id");
+                    TWikiText    wt = TWikiText.getByID(connect,    rs.getInt("wiki_text_id"));
+                    TRelationType r = TRelationType.getRelationFast(rs.getInt("relation_type_id"));
 
-                        if(null != wt && null != r) {
-                            if(null == list_rel)
-                                       list_rel = new ArrayList<TRelation>();
+                    if(null != wt && null != r) {
+                        if(null == list_rel)
+                                   list_rel = new ArrayList<TRelation>();
 
-                            byte[] bb = rs.getBytes("meaning_summary");
-                            String sum = null == bb ? null : Encodings.bytesToUTF8(bb);
+                        byte[] bb = rs.getBytes("meaning_summary");
+                        String sum = null == bb ? null : Encodings.bytesToUTF8(bb);
 
-                            list_rel.add(new TRelation(id, meaning, wt, r, sum));
-                        }
+                        list_rel.add(new TRelation(id, meaning, wt, r, sum));
                     }
-                } finally {
-                    rs.close();
                 }
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (wikt_parsed TRelation.java get()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (wikt_parsed TRelation.java get()):: sql='" + SQL_GET + "', meaning_id=" + meaning.getID() + " " + ex.getMessage());
         }
 
         if(null == list_rel)
@@ -372,103 +433,99 @@ public class TRelation {
         }
     }
 
-    /** Gets all semantic relation (pairs of word).
+    /** Deletes all rows from the table 'relation' by the meaning_id
+     * (including rows with unknown relation type, which are skipped by get()).<br><br>
+     * DELETE FROM relation WHERE meaning_id=11;
+     */
+    public static void deleteByMeaning (Connect connect,TMeaning meaning) {
+
+        if(null == meaning) {
+            System.out.println("Error (wikt_parsed TRelation.deleteByMeaning()):: null argument meaning.");
+            return;
+        }
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                str_sql.append("DELETE FROM relation WHERE meaning_id=");
+                str_sql.append(meaning.getID());
+                s.execute (str_sql.toString());
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (wikt_parsed TRelation.java deleteByMeaning()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+    }
+
+    /** Query of all pairs of words of semantic relations in one pass:
+     * relation -> meaning -> lang_pos -> page (word with the relation) and
+     * relation -> wiki_text_words -> page (the first wikified word of the relation).
+     */
+    private final static String SQL_WORD_PAIRS =
+            "SELECT p1.page_title AS page_title, p2.page_title AS w_rel, r.relation_type_id " +
+            "FROM relation r " +
+            "JOIN meaning m ON m.id = r.meaning_id " +
+            "JOIN lang_pos lp ON lp.id = m.lang_pos_id " +
+            "JOIN page p1 ON p1.id = lp.page_id " +
+            "JOIN (SELECT wiki_text_id, MIN(id) AS id FROM wiki_text_words GROUP BY wiki_text_id) w1 " +
+                "ON w1.wiki_text_id = r.wiki_text_id " +
+            "JOIN wiki_text_words wtw ON wtw.id = w1.id " +
+            "JOIN page p2 ON p2.id = wtw.page_id";
+
+    /** Number of rows between two progress messages. */
+    private final static int PROGRESS_ROWS = 100000;
+
+    /** Prints number of read rows, rows per second and remaining time. */
+    private static void printProgress (int n_cur, int n_total, long t_start,
+                                       String page, String w_rel) {
+        long  t_cur = System.currentTimeMillis() - t_start;
+        float rows_per_sec = 0 == t_cur ? 0 : n_cur * 1000f / t_cur;
+        long  t_remain = 0 == rows_per_sec ? 0 :        // in min
+                            (long)((n_total - n_cur) / rows_per_sec / 60f);
+
+        System.out.printf("%d: [%s, %s], rows/s=%.1f, duration: %d min, remain: %d min\n",
+                n_cur, page, w_rel, rows_per_sec, t_cur/(60*1000), t_remain);
+    }
+
+    /** Gets all semantic relation (pairs of word) by one query.
      * @return pairs of words,
      * e.g. car -> carriage, car -> automobile (synonyms)
      *      car -> vehicle (hyperohym)
      * or empty map, if relations are absent
+     *
+     * @see exportWordPairs(Connect, String) stores pairs to file without a map in memory,
+     * exportWordPairs(Connect, String, Map) stores pairs to file and to the map by one query.
      */
     public static Map<String,List<String>> getAllWordPairs (Connect connect) {
 
-        // for each relation: get page<->wiki_text<->wiki_word + todo: type of relation
-
-        long    t_start;
-        float   t_work;
-
         int n_total = Statistics.Count(connect, "relation");
         System.out.println("Total relations: " + n_total);
         if(-1 == n_total)
             return null;
-        t_start = System.currentTimeMillis();
-        StringBuilder str_sql = new StringBuilder();
-        Map<String,List<String>> m_words = null;
+        long t_start = System.currentTimeMillis();
+        Map<String,Set<String>> m_set = new HashMap<String,Set<String>> ();
+        int n_cur = 0;
 
         try {
-            Statement s = connect.conn.createStatement ();
+            Statement s = UtilSQL.createStreamingStatement(connect);
             try {
-                str_sql.append("SELECT meaning_id,wiki_text_id FROM relation");
-    //str_sql.append("SELECT meaning_id,wiki_text_id FROM relation LIMIT 1000");
-                ResultSet rs = s.executeQuery (str_sql.toString());
+                ResultSet rs = s.executeQuery (SQL_WORD_PAIRS);
                 try {
-                    m_words = new HashMap<String,List<String>> ();
-                    int n_cur = 0;
                     while (rs.next ())
                     {
-                        //int          id =                               rs.getInt("id");
-                        TMeaning      m = TMeaning. getByID( connect,   rs.getInt("meaning_id"));
-                        TWikiText    wt = TWikiText.getByID( connect,   rs.getInt("wiki_text_id"));
-                        //int wiki_text_id =  rs.getInt("wiki_text_id");
-
-                        // skip today
-                        /*
-                        TRelationType r = TRelationType.getRelationFast(rs.getInt("relation_type_id"));
-                        TRelation relation = null;
-                        if(null != m && null != wt) && null != r)
-                            relation = new TRelation(id, m, wt, r);*/
-
-                        String page = null;
-                        if(null != m) {
-                            TLangPOS lang_pos = m.getLangPOS(connect);
-                            if(null != lang_pos) {
-                                TPage tpage = lang_pos.getPage();
-                                if(null != tpage) {
-                                    page = tpage.getPageTitle();
-                                }
-                            }
-                        }
+                        String page  = Encodings.bytesToUTF8(rs.getBytes("page_title"));
+                        String w_rel = Encodings.bytesToUTF8(rs.getBytes("w_rel"));
 
-                        String w_rel = null;    // wiki word relation
-                        if(null != page) {
-                            //TWikiTextWords t_word = TWikiTextWords.getByID(connect, id);
-                            TWikiTextWords t_word = TWikiTextWords.getOneByWikiText(connect, wt);
-                            if(null != t_word) {
-                                TPage tpage = t_word.getPage();
-                                if(null != tpage) {
-                                    w_rel = tpage.getPageTitle();
-                                }
-                            }
-                        }
-
-                        if(null != page && null != w_rel) {
-                            List<String> list_rel = m_words.get(page);
-                            if(null == list_rel) {
-                                list_rel = new ArrayList<String>();
-                                list_rel.add(w_rel);
-                                m_words.put(page, list_rel);
-                            } else {
-                                if(!list_rel.contains(w_rel))
-                                    list_rel.add(w_rel);
-                            }
-                        }
-
-                        if(DEBUG && 0 == ++n_cur % 1000) {   // % 100
-                            //if(n_cur<10900) continue;
-                            long    t_cur, t_remain;
-
-                            t_cur  = System.currentTimeMillis() - t_start;
-                            t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
-                                       // where time for 1 page = t_cur / n_cur
-                                       // in min, since /(60*1000)
-                            t_cur = (long)(t_cur/(60f*1000f));
-                            //t_cur = t_cur/(60f*1000f));
-
-                            System.out.println(n_cur + ": [" + page + ", " + w_rel +
-                                    "], duration: "  + t_cur +   // t_cur/(60f*1000f) +
-                                    " min, remain: " + t_remain +
-                                    " min");
+                        Set<String> set_rel = m_set.get(page);
+                        if(null == set_rel) {
+                            set_rel = new LinkedHashSet<String>();
+                            m_set.put(page, set_rel);
                         }
+                        set_rel.add(w_rel);
 
-
+                        if(DEBUG && 0 == ++n_cur % PROGRESS_ROWS)
+                            printProgress(n_cur, n_total, t_start, page, w_rel);
                     }
                 } finally {
                     rs.close();
@@ -477,18 +534,101 @@ public class TRelation {
                 s.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (wikt_parsed TRelation.java getAllWordPairs()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (wikt_parsed TRelation.java getAllWordPairs()):: sql='" + SQL_WORD_PAIRS + "' " + ex.getMessage());
         }
 
-        long  t_end;
-        t_end  = System.currentTimeMillis();
-        t_work = (t_end - t_start)/1000f; // in sec
+        Map<String,List<String>> m_words = new HashMap<String,List<String>> (m_set.size());
+        for(Map.Entry<String,Set<String>> e : m_set.entrySet())
+            m_words.put(e.getKey(), new ArrayList<String>(e.getValue()));
+
+        float t_work = (System.currentTimeMillis() - t_start)/1000f; // in sec
         System.out.println("\n\nTime sec:" + t_work +
                 "\nTotal relations: " + n_total);
 
         return m_words;
     }
-    
+
+    /** Stores all semantic relations (pairs of words and types of relation)
+     * to the binary edge file (see WordPairFile) for wigraph.
+     * Rows are read by one query with forward-only cursor and written
+     * to the file at once, duplicate pairs are skipped.
+     *
+     * @param filename  edge file, e.g. "relation_pairs.wpr"
+     * @return number of unique pairs of words, or -1 if export failed
+     */
+    public static int exportWordPairs (Connect connect,String filename) {
+        return exportWordPairs(connect, filename, null);
+    }
+
+    /** Stores all semantic relations to the binary edge file (see
+     * exportWordPairs(Connect, String)) and adds the unique pairs of words
+     * to the map, so the map is the same as the result of getAllWordPairs(),
+     * but the query is executed only once.
+     *
+     * @param filename  edge file, e.g. "relation_pairs.wpr"
+     * @param m_words   pairs of words, e.g. car -> carriage, car -> automobile,
+     *                  it is filled from the result set, if it is not null
+     * @return number of unique pairs of words, or -1 if export failed
+     */
+    public static int exportWordPairs (Connect connect,String filename,
+                                       Map<String,List<String>> m_words) {
+
+        int n_total = Statistics.Count(connect, "relation");
+        System.out.println("Total relations: " + n_total);
+        if(-1 == n_total)
+            return -1;
+        long t_start = System.currentTimeMillis();
+        int n_cur = 0;
+
+        WordPairFile file = null;
+        try {
+            file = new WordPairFile(filename);
+            try {
+                Statement s = UtilSQL.createStreamingStatement(connect);
+                try {
+                    ResultSet rs = s.executeQuery (SQL_WORD_PAIRS);
+                    try {
+                        while (rs.next ())
+                        {
+                            String page  = Encodings.bytesToUTF8(rs.getBytes("page_title"));
+                            String w_rel = Encodings.bytesToUTF8(rs.getBytes("w_rel"));
+                            if(file.add(page, w_rel, rs.getInt("relation_type_id")) && null != m_words) {
+                                List<String> list_rel = m_words.get(page);
+                                if(null == list_rel) {
+                                    list_rel = new ArrayList<String>();
+                                    m_words.put(page, list_rel);
+                                }
+                                list_rel.add(w_rel);
+                            }
+
+                            if(DEBUG && 0 == ++n_cur % PROGRESS_ROWS)
+                                printProgress(n_cur, n_total, t_start, page, w_rel);
+                        }
+                    } finally {
+                        rs.close();
+                    }
+                } finally {
+                    s.close();
+                }
+            } finally {
+                file.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (wikt_parsed TRelation.java exportWordPairs()):: sql='" + SQL_WORD_PAIRS + "' " + ex.getMessage());
+            return -1;
+        } catch(IOException ex) {
+            System.out.println("IOException (wikt_parsed TRelation.java exportWordPairs()):: file='" + filename + "' " + ex.getMessage());
+            return -1;
+        }
+
+        long t_work = System.currentTimeMillis() - t_start;
+        System.out.printf("\n\nTime sec:%.1f, rows=%d, rows/s=%.1f, words=%d, pairs=%d\n",
+                t_work/1000f, n_cur, 0 == t_work ? 0f : n_cur * 1000f / t_work,
+                file.getVertexCount(), file.getEdgeCount());
+
+        return file.getEdgeCount();
+    }
+
     /** Gets a word defined by a semantic relation (e.g. the page "car" contains "[[automobile]]"
      * in a section "Synonyms", then the "automobile" will be returned).
      * @param trelation defines relation (e.g. synonymy) and source word (e.g. "car")
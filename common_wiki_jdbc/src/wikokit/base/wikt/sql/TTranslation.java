@@ -15,6 +15,9 @@ import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikt.sql.index.IndexForeign;
 
 import java.sql.*;
@@ -315,6 +318,12 @@ public class TTranslation {
 
         if(null == meaning_summary)
                    meaning_summary = "";
+        
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.translation", insertBulk(connect, lang_pos, meaning_summary, meaning));
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.translation", insertPrepared(connect, lang_pos, meaning_summary, meaning));
 
         StringBuilder str_sql = new StringBuilder();
         TTranslation trans = null;
@@ -356,9 +365,57 @@ public class TTranslation {
         }catch(SQLException ex) {
             System.out.println("SQLException (TTranslation.insert()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.translation", trans);
+    }
+    
+    private final static String SQL_INSERT = "INSERT INTO translation (lang_pos_id,meaning_summary,meaning_id) VALUES (?,?,?)";
+    
+    /** Inserts record into the table 'translation' by the prepared statement 
+     * of the batch writer, see insert().
+     */
+    private static TTranslation insertPrepared (Connect connect,TLangPOS lang_pos,
+            String meaning_summary,TMeaning meaning) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TTranslation trans = null;
+        try {
+            PreparedStatement ps = bw.prepareInsert(SQL_INSERT);
+            ps.setInt   (1, lang_pos.getID());
+            ps.setString(2, connect.enc.EncodeToDB(meaning_summary));
+            if(null != meaning)
+                ps.setInt(3, meaning.getID());
+            else
+                ps.setNull(3, Types.INTEGER);
+            
+            int id = bw.insert("translation", ps);
+            if(id > 0)
+                trans = new TTranslation(id, lang_pos, meaning_summary, meaning);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TTranslation.insertPrepared()):: lang_pos_id=" + lang_pos.getID() + " " + ex.getMessage());
+        }
         return trans;
     }
 
+    /** Declares the table 'translation' in the bulk loader. */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("translation", "lang_pos_id,meaning_summary,meaning_id",
+                    "INDEX `lang_pos_id` (`lang_pos_id`)",
+                    "INDEX `meaning_id` (`meaning_id`)");
+    }
+    
+    /** Writes record of the table 'translation' by the bulk loader, 
+     * ID is assigned in-process, see insert().
+     */
+    private static TTranslation insertBulk (Connect connect,TLangPOS lang_pos,
+            String meaning_summary,TMeaning meaning) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        int id = bl.nextID("translation");
+        bl.writeRow("translation", id, lang_pos.getID(), meaning_summary,
+                    null == meaning ? null : meaning.getID());
+        return new TTranslation(id, lang_pos, meaning_summary, meaning);
+    }
+
     /** Selects rows from the table 'translation' by ID.<br><br>
      * SELECT lang_pos_id,meaning_summary,meaning_id FROM translation WHERE id=1;
      * @return empty array if data is absent
@@ -397,6 +454,8 @@ public class TTranslation {
         return trans;
     }
 
+    private final static String SQL_GET_BY_LANG_POS = "SELECT id,meaning_summary,meaning_id FROM translation WHERE lang_pos_id=?";
+
     /** Selects rows from the table 'translation' by ID.<br><br>
      * SELECT id,meaning_summary,meaning_id FROM translation WHERE lang_pos_id=1;
      * @return empty array if data is absent
@@ -408,37 +467,31 @@ public class TTranslation {
             return NULL_TTRANSLATION_ARRAY;
         }
 
-        StringBuilder str_sql = new StringBuilder();
         List<TTranslation> list_trans = null;
 
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(SQL_GET_BY_LANG_POS);
+            ps.setInt(1, lang_pos.getID());
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT id,meaning_summary,meaning_id FROM translation WHERE lang_pos_id=");
-                str_sql.append(lang_pos.getID());
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    while (rs.next ())
-                    {
-                        int id = rs.getInt("id");
-                        String meaning_summary = Encodings.bytesToUTF8(rs.getBytes("meaning_summary"));
+                while (rs.next ())
+                {
+                    int id = rs.getInt("id");
+                    String meaning_summary = Encodings.bytesToUTF8(rs.getBytes("meaning_summary"));
 
-                        int meaning_id = rs.getInt("meaning_id");
-                        TMeaning meaning = meaning_id < 1 ? null : TMeaning.getByID(connect, meaning_id);
+                    int meaning_id = rs.getInt("meaning_id");
+                    TMeaning meaning = meaning_id < 1 ? null : TMeaning.getByID(connect, meaning_id);
 
-                        if(null == list_trans)
-                            list_trans = new ArrayList<TTranslation>();
-                        list_trans.add(new TTranslation(id, lang_pos, meaning_summary, meaning));
+                    if(null == list_trans)
+                        list_trans = new ArrayList<TTranslation>();
+                    list_trans.add(new TTranslation(id, lang_pos, meaning_summary, meaning));
 
-                    }
-                } finally {
-                    rs.close();
                 }
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TTranslation.getByLangPOS()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (TTranslation.getByLangPOS()):: sql='" + SQL_GET_BY_LANG_POS + "', lang_pos_id=" + lang_pos.getID() + " " + ex.getMessage());
         }
         if(null == list_trans)
             return NULL_TTRANSLATION_ARRAY;
@@ -8,6 +8,9 @@
 package wikokit.base.wikt.sql;
 
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
+import wikokit.base.wikt.util.ParseMetrics;
 import java.sql.*;
 
 import java.util.List;
@@ -78,6 +81,12 @@ public class TTranslationEntry {
             return null;
         }
         
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.translation_entry", insertBulk(connect, trans, lang, wiki_text));
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.translation_entry", insertBatch(connect, trans, lang, wiki_text));
+        
         StringBuilder str_sql = new StringBuilder();
         TTranslationEntry trans_entry = null;
         try
@@ -111,9 +120,54 @@ public class TTranslationEntry {
         }catch(SQLException ex) {
             System.out.println("SQLException (wikt_parsed TTranslationEntry.insert()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.translation_entry", trans_entry);
+    }
+    
+    private final static String SQL_INSERT = "INSERT INTO translation_entry (translation_id,lang_id,wiki_text_id) VALUES (?,?,?)";
+    
+    /** Adds record for the table 'translation_entry' to the JDBC batch of 
+     * the batch writer, see insert(). The table 'translation_entry' is not read 
+     * during parsing, so the ID of the record is not needed.
+     * 
+     * @return translation entry with ID = 0, since the ID is unknown till the batch execution
+     */
+    private static TTranslationEntry insertBatch (Connect connect,TTranslation trans,
+            TLang lang,TWikiText wiki_text) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TTranslationEntry trans_entry = null;
+        try {
+            PreparedStatement ps = bw.prepareBatch(SQL_INSERT);
+            ps.setInt(1, trans.getID());
+            ps.setInt(2, lang.getID());
+            ps.setInt(3, wiki_text.getID());
+            
+            bw.addBatch("translation_entry", SQL_INSERT);
+            trans_entry = new TTranslationEntry(0, trans, lang, wiki_text);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (wikt_parsed TTranslationEntry.insertBatch()):: translation_id=" + trans.getID() + " " + ex.getMessage());
+        }
         return trans_entry;
     }
 
+    /** Declares the table 'translation_entry' in the bulk loader. */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("translation_entry", "translation_id,lang_id,wiki_text_id",
+                    "INDEX `translation_id` (`translation_id`)");
+    }
+    
+    /** Writes record of the table 'translation_entry' by the bulk loader, 
+     * ID is assigned in-process, see insert().
+     */
+    private static TTranslationEntry insertBulk (Connect connect,TTranslation trans,
+            TLang lang,TWikiText wiki_text) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        int id = bl.nextID("translation_entry");
+        bl.writeRow("translation_entry", id, trans.getID(), lang.getID(), wiki_text.getID());
+        return new TTranslationEntry(id, trans, lang, wiki_text);
+    }
+
     /** Selects rows from the table 'translation_entry' by ID.<br><br>
      * SELECT translation_id,lang_id,wiki_text_id FROM translation_entry WHERE id=1;
      * @return empty array if data is absent
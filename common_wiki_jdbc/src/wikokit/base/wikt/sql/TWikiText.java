@@ -13,7 +13,11 @@ import wikokit.base.wikt.util.WikiWord;
 
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
+import wikokit.base.wikt.util.ParseMetrics;
 import java.sql.*;
+import java.util.Map;
 
 /** An operations with the table 'wiki_text' in MySQL wiktionary_parsed database.
  *
@@ -114,6 +118,12 @@ public class TWikiText {
 
         if(text.length() == 0)
             return null;
+        
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.wiki_text", insertBulk(connect, text, wikified_text));
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.wiki_text", insertPrepared(connect, text, wikified_text));
 
         StringBuilder str_sql = new StringBuilder();
         TWikiText wiki_text = null;
@@ -153,16 +163,69 @@ public class TWikiText {
         }catch(SQLException ex) {
             System.out.println("SQLException (wikt_parsed TWikiText.insert()):: text='"+text+"'; sql='" + str_sql.toString() + "' error=" + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.wiki_text", wiki_text);
+    }
+    
+    private final static String SQL_INSERT = "INSERT INTO wiki_text (text,wikified_text) VALUES (?,?)";
+    
+    /** Inserts record into the table 'wiki_text' by the prepared statement 
+     * of the batch writer, see insert().
+     */
+    private static TWikiText insertPrepared (Connect connect, String text, String wikified_text) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TWikiText wiki_text = null;
+        try {
+            PreparedStatement ps = bw.prepareInsert(SQL_INSERT);
+            ps.setString(1, connect.enc.EncodeToDB(text));
+            if(null != wikified_text)
+                ps.setString(2, connect.enc.EncodeToDB(wikified_text));
+            else
+                ps.setNull(2, Types.VARCHAR);
+            
+            int id = bw.insert("wiki_text", ps);
+            if(id > 0)
+                wiki_text = new TWikiText(id, text, wikified_text);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (wikt_parsed TWikiText.insertPrepared()):: text='"+text+"' error=" + ex.getMessage());
+        }
         return wiki_text;
     }
 
+    /** Declares the table 'wiki_text' in the bulk loader. */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("wiki_text", "text,wikified_text",
+                    "INDEX `idx_text` (`text`(12))");
+    }
+    
+    /** Writes record of the table 'wiki_text' by the bulk loader, 
+     * ID is assigned in-process, see insert().
+     */
+    private static TWikiText insertBulk (Connect connect, String text, String wikified_text) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        int id = bl.nextID("wiki_text");
+        bl.<String, Integer>getDictionary("wiki_text").put(text, id);
+        bl.writeRow("wiki_text", id, text, wikified_text);
+        return new TWikiText(id, text, wikified_text);
+    }
+
     /** Selects row from the table 'wiki_text' by a text.<br><br>
      *  SELECT id,wikified_text FROM wiki_text WHERE text="apple";
+     * 
+     * In the bulk-load mode only ID is taken from the dictionary 
+     * (text -> ID), wikified_text is null.
      * @param  text  text (without wikification).
      * @return null if text is absent
      */
     public static TWikiText get (Connect connect,String text) {
 
+        BulkLoader bl = connect.getBulkLoader();
+        if(null != bl) {
+            Integer id = bl.<String, Integer>getDictionary("wiki_text").get(text);
+            return null == id ? null : new TWikiText(id, text, null);
+        }
+
         StringBuilder str_sql = new StringBuilder();
         TWikiText wiki_text = null;
         
@@ -10,10 +10,14 @@ package wikokit.base.wikt.sql;
 import wikokit.base.wikt.util.WikiWord;
 
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.BulkLoader;
+import wikokit.base.wikt.util.ParseMetrics;
 import java.sql.*;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 /** An operations with the table 'wiki_text_words' in MySQL wiktionary_parsed database.
  */
@@ -165,6 +169,12 @@ public class TWikiTextWords {
                                         TPage page,TPageInflection page_inflection) {
         if(null == wiki_text || null == page)
             return null;
+        
+        if(null != connect.getBulkLoader())
+            return ParseMetrics.countRow("rows.wiki_text_words", insertBulk(connect, wiki_text, page, page_inflection));
+        
+        if(null != connect.getBatchWriter())
+            return ParseMetrics.countRow("rows.wiki_text_words", insertPrepared(connect, wiki_text, page, page_inflection));
 
         StringBuilder str_sql = new StringBuilder();
         TWikiTextWords words = null;
@@ -206,9 +216,77 @@ public class TWikiTextWords {
         }catch(SQLException ex) {
             System.out.println("SQLException (TWikiTextWords.insert()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        return ParseMetrics.countRow("rows.wiki_text_words", words);
+    }
+    
+    private final static String SQL_INSERT = "INSERT INTO wiki_text_words (wiki_text_id,page_id,page_inflection_id) VALUES (?,?,?)";
+    
+    /** Inserts record into the table 'wiki_text_words' by the prepared statement 
+     * of the batch writer, see insert().
+     */
+    private static TWikiTextWords insertPrepared (Connect connect,TWikiText wiki_text,
+                                        TPage page,TPageInflection page_inflection) {
+        
+        BatchWriter bw = connect.getBatchWriter();
+        TWikiTextWords words = null;
+        try {
+            PreparedStatement ps = bw.prepareInsert(SQL_INSERT);
+            ps.setInt(1, wiki_text.getID());
+            ps.setInt(2, page.getID());
+            if(null != page_inflection)
+                ps.setInt(3, page_inflection.getID());
+            else
+                ps.setNull(3, Types.INTEGER);
+            
+            int id = bw.insert("wiki_text_words", ps);
+            if(id > 0)
+                words = new TWikiTextWords(id, wiki_text, page, page_inflection);
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TWikiTextWords.insertPrepared()):: wiki_text_id=" + wiki_text.getID() + 
+                    "; page_id=" + page.getID() + " " + ex.getMessage());
+        }
         return words;
     }
 
+    /** Declares the table 'wiki_text_words' in the bulk loader. */
+    public static void addBulkTable(BulkLoader bl) {
+        bl.addTable("wiki_text_words", "wiki_text_id,page_id,page_inflection_id",
+                    "INDEX `wiki_text_id` (`wiki_text_id`)");
+    }
+    
+    /** Gets key of the dictionary of the bulk loader: 
+     * (wiki_text_id, page_id) -> (id, page_inflection_id).
+     */
+    private static long getBulkKey(TWikiText wiki_text, TPage page) {
+        return ((long)wiki_text.getID() << 32) | (page.getID() & 0xFFFFFFFFL);
+    }
+    
+    /** Writes record of the table 'wiki_text_words' by the bulk loader, 
+     * ID is assigned in-process, see insert().
+     * 
+     * The dictionary keeps only the first page_inflection for the pair 
+     * (wiki_text, page), so a row with another page_inflection (the same 
+     * text with other wikification, it is rare) can be written twice.
+     */
+    private static TWikiTextWords insertBulk (Connect connect,TWikiText wiki_text,
+                                        TPage page,TPageInflection page_inflection) {
+        
+        BulkLoader bl = connect.getBulkLoader();
+        int id = bl.nextID("wiki_text_words");
+        int page_inflection_id = null == page_inflection ? 0 : page_inflection.getID();
+        
+        Map<Long, Long> key2value = bl.getDictionary("wiki_text_words");
+        long key = getBulkKey(wiki_text, page);
+        if(!key2value.containsKey(key))
+            key2value.put(key, ((long)id << 32) | (page_inflection_id & 0xFFFFFFFFL));
+        
+        bl.writeRow("wiki_text_words", id, wiki_text.getID(), page.getID(),
+                    null == page_inflection ? null : page_inflection_id);
+        return new TWikiTextWords(id, wiki_text, page, page_inflection);
+    }
+
+    private final static String SQL_GET_BY_WIKI_TEXT = "SELECT id,page_id,page_inflection_id FROM wiki_text_words WHERE wiki_text_id=?";
+
     /** Selects records from 'wiki_text_words' table by an ID of wiki text.<br><br>
      *
      * SELECT id,page_id,page_inflection_id FROM wiki_text_words WHERE wiki_text_id=1;
@@ -221,43 +299,39 @@ public class TWikiTextWords {
         if(null == wiki_text)
             return NULL_TWIKITEXTWORDS_ARRAY;
             
-        StringBuilder str_sql = new StringBuilder();
         List<TWikiTextWords> list_words = null;
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(SQL_GET_BY_WIKI_TEXT);
+            ps.setInt(1, wiki_text.getID());
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT id,page_id,page_inflection_id FROM wiki_text_words WHERE wiki_text_id=");
-                str_sql.append(wiki_text.getID());
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    while (rs.next ())
-                    {
-                        int pi = rs.getInt("page_inflection_id");
-                        TPageInflection page_infl = 0 == pi ? null : TPageInflection.getByID(connect, pi);
+                while (rs.next ())
+                {
+                    int pi = rs.getInt("page_inflection_id");
+                    TPageInflection page_infl = 0 == pi ? null : TPageInflection.getByID(connect, pi);
 
-                        TPage page = TPage.getByID(connect, rs.getInt("page_id"));
+                    TPage page = TPage.getByID(connect, rs.getInt("page_id"));
 
-                        if(null != page) {
-                            if(null == list_words)
-                                list_words = new ArrayList<TWikiTextWords>();
+                    if(null != page) {
+                        if(null == list_words)
+                            list_words = new ArrayList<TWikiTextWords>();
 
-                            list_words.add(new TWikiTextWords(rs.getInt("id"), wiki_text, page, page_infl));
-                        }
+                        list_words.add(new TWikiTextWords(rs.getInt("id"), wiki_text, page, page_infl));
                     }
-                } finally {
-                    rs.close();
                 }
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TWikiTextWords.getByWikiText()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (TWikiTextWords.getByWikiText()):: sql='" + SQL_GET_BY_WIKI_TEXT + "', wiki_text_id=" + wiki_text.getID() + " " + ex.getMessage());
         }
         if(null == list_words)
             return NULL_TWIKITEXTWORDS_ARRAY;
         return ((TWikiTextWords[])list_words.toArray(NULL_TWIKITEXTWORDS_ARRAY));
     }
     
+    private final static String SQL_GET_BY_PAGE = "SELECT id,wiki_text_id,page_inflection_id FROM wiki_text_words WHERE page_id=?";
+
     /** Selects records from 'wiki_text_words' table by an ID of page.<br><br>
      * SELECT id,wiki_text_id,page_inflection_id FROM wiki_text_words WHERE page_id=1;
      * @param  page  wikified word which belong to some wiki text
@@ -270,42 +344,39 @@ public class TWikiTextWords {
             return NULL_TWIKITEXTWORDS_ARRAY;
         }
         
-        StringBuilder str_sql = new StringBuilder();
         List<TWikiTextWords> list_words = null;
 
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(SQL_GET_BY_PAGE);
+            ps.setInt(1, page.getID());
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT id,wiki_text_id,page_inflection_id FROM wiki_text_words WHERE page_id=");
-                str_sql.append(page.getID());
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    while (rs.next ())
-                    {
-                        int pi = rs.getInt("page_inflection_id");
-                        TWikiText wiki_text = TWikiText.getByID(connect, rs.getInt("wiki_text_id"));
-                        TPageInflection page_infl = 0 == pi ? null : TPageInflection.getByID(connect, pi);
-
-                        if(null != wiki_text) {
-                            if(null == list_words)
-                                list_words = new ArrayList<TWikiTextWords>();
-                            list_words.add(new TWikiTextWords(rs.getInt("id"), wiki_text, page, page_infl));
-                        }
+                while (rs.next ())
+                {
+                    int pi = rs.getInt("page_inflection_id");
+                    TWikiText wiki_text = TWikiText.getByID(connect, rs.getInt("wiki_text_id"));
+                    TPageInflection page_infl = 0 == pi ? null : TPageInflection.getByID(connect, pi);
+
+                    if(null != wiki_text) {
+                        if(null == list_words)
+                            list_words = new ArrayList<TWikiTextWords>();
+                        list_words.add(new TWikiTextWords(rs.getInt("id"), wiki_text, page, page_infl));
                     }
-                } finally {
-                    rs.close();
                 }
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TWikiTextWords.getByPage()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (TWikiTextWords.getByPage()):: sql='" + SQL_GET_BY_PAGE + "', page_id=" + page.getID() + " " + ex.getMessage());
         }
         if(null == list_words)
             return NULL_TWIKITEXTWORDS_ARRAY;
         return ((TWikiTextWords[])list_words.toArray(NULL_TWIKITEXTWORDS_ARRAY));
     }
     
+    private final static String SQL_GET_BY_WIKI_TEXT_PAGE_INFLECTION = "SELECT id FROM wiki_text_words WHERE wiki_text_id=? AND page_id=? AND page_inflection_id=?";
+    private final static String SQL_GET_BY_WIKI_TEXT_PAGE            = "SELECT id FROM wiki_text_words WHERE wiki_text_id=? AND page_id=? AND page_inflection_id IS NULL";
+
     /** Selects one record from 'wiki_text_words' table by wiki text ID 
      * and page ID and page_inflection.id .<br><br>
      *
@@ -320,37 +391,40 @@ public class TWikiTextWords {
         if(null == wiki_text || null == page)
             return null;
         
-        StringBuilder str_sql = new StringBuilder();
+        BulkLoader bl = connect.getBulkLoader();
+        if(null != bl) {
+            Long value = bl.<Long, Long>getDictionary("wiki_text_words").get(getBulkKey(wiki_text, page));
+            if(null == value || 
+               (int)(value & 0xFFFFFFFFL) != (null == page_inflection ? 0 : page_inflection.getID()))
+                return null;
+            return new TWikiTextWords((int)(value >>> 32), wiki_text, page, page_inflection);
+        }
+        
+        String sql = null != page_inflection ? SQL_GET_BY_WIKI_TEXT_PAGE_INFLECTION : 
+                                               SQL_GET_BY_WIKI_TEXT_PAGE;
         TWikiTextWords word = null;
 
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(sql);
+            ps.setInt(1, wiki_text.getID());
+            ps.setInt(2, page.getID());
+            if(null != page_inflection)
+                ps.setInt(3, page_inflection.getID());
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT id FROM wiki_text_words WHERE wiki_text_id=");
-                str_sql.append(wiki_text.getID());
-                str_sql.append(" AND page_id=");
-                str_sql.append(page.getID());
-                if(null != page_inflection) {
-                    str_sql.append(" AND page_inflection_id=");
-                    str_sql.append(page_inflection.getID());
-                } else
-                    str_sql.append(" AND page_inflection_id IS NULL");
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    if (rs.next ())
-                        word = new TWikiTextWords(rs.getInt("id"), wiki_text, page, page_inflection);
-                } finally {
-                    rs.close();
-                }
+                if (rs.next ())
+                    word = new TWikiTextWords(rs.getInt("id"), wiki_text, page, page_inflection);
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TWikiTextWords.getByWikiText()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (TWikiTextWords.getByWikiText()):: sql='" + sql + "', wiki_text_id=" + wiki_text.getID() + ", page_id=" + page.getID() + " " + ex.getMessage());
         }
         return word;
     }
 
+    private final static String SQL_GET_BY_ID = "SELECT wiki_text_id,page_id,page_inflection_id FROM wiki_text_words WHERE id=?";
+
     /** Selects row from the table 'wiki_text' by ID<br><br>
      *
      * SELECT wiki_text_id,page_id,page_inflection_id FROM wiki_text_words WHERE id=1;
@@ -359,39 +433,35 @@ public class TWikiTextWords {
      */
     public static TWikiTextWords getByID (Connect connect,int id) {
         
-        StringBuilder str_sql = new StringBuilder();
         TWikiTextWords word = null;
         
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(SQL_GET_BY_ID);
+            ps.setInt(1, id);
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT wiki_text_id,page_id,page_inflection_id FROM wiki_text_words WHERE id=");
-                str_sql.append(id);
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    if(rs.next ())
-                    {
-                        TWikiText wiki_text = TWikiText.getByID(connect, rs.getInt("wiki_text_id"));
-                        TPage     page      = TPage.    getByID(connect, rs.getInt("page_id"));
+                if(rs.next ())
+                {
+                    TWikiText wiki_text = TWikiText.getByID(connect, rs.getInt("wiki_text_id"));
+                    TPage     page      = TPage.    getByID(connect, rs.getInt("page_id"));
 
-                        int pi = rs.getInt("page_inflection_id");
-                        TPageInflection page_infl = 0 == pi ? null : TPageInflection.getByID(connect, pi);
+                    int pi = rs.getInt("page_inflection_id");
+                    TPageInflection page_infl = 0 == pi ? null : TPageInflection.getByID(connect, pi);
 
-                        if(null != wiki_text && null != page)
-                            word = new TWikiTextWords(id, wiki_text, page, page_infl);
-                    }
-                } finally {
-                    rs.close();
+                    if(null != wiki_text && null != page)
+                        word = new TWikiTextWords(id, wiki_text, page, page_infl);
                 }
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TWikiTextWords.getByID()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (TWikiTextWords.getByID()):: sql='" + SQL_GET_BY_ID + "', id=" + id + " " + ex.getMessage());
         }
         return word;
     }
 
+    private final static String SQL_GET_ONE_BY_WIKI_TEXT = "SELECT id,page_id,page_inflection_id FROM wiki_text_words WHERE wiki_text_id=? LIMIT 1";
+
     /** Selects only first row (LIMIT 1) from the table 'wiki_text' by wiki_text_id<br><br>
      *
      * SELECT id,page_id,page_inflection_id FROM wiki_text_words WHERE wiki_text_id=1 LIMIT 1;
@@ -405,36 +475,29 @@ public class TWikiTextWords {
             return null;
         }
         
-        StringBuilder str_sql = new StringBuilder();
         TWikiTextWords word = null;
         
         try {
-            Statement s = connect.conn.createStatement ();
+            PreparedStatement ps = connect.prepare(SQL_GET_ONE_BY_WIKI_TEXT);
+            ps.setInt(1, wiki_text.getID());
+            ResultSet rs = ps.executeQuery ();
             try {
-                str_sql.append("SELECT id,page_id,page_inflection_id FROM wiki_text_words WHERE wiki_text_id=");
-                str_sql.append(wiki_text.getID());
-                str_sql.append(" LIMIT 1");
-                ResultSet rs = s.executeQuery (str_sql.toString());
-                try {
-                    if(rs.next ())
-                    {
-                        int     id =                        rs.getInt("id");
-                        TPage page = TPage.getByID(connect, rs.getInt("page_id"));
+                if(rs.next ())
+                {
+                    int     id =                        rs.getInt("id");
+                    TPage page = TPage.getByID(connect, rs.getInt("page_id"));
 
-                        int pi = rs.getInt("page_inflection_id");
-                        TPageInflection page_infl = 0 == pi ? null : TPageInflection.getByID(connect, pi);
+                    int pi = rs.getInt("page_inflection_id");
+                    TPageInflection page_infl = 0 == pi ? null : TPageInflection.getByID(connect, pi);
 
-                        if(null != wiki_text && null != page)
-                            word = new TWikiTextWords(id, wiki_text, page, page_infl);
-                    }
-                } finally {
-                    rs.close();
+                    if(null != wiki_text && null != page)
+                        word = new TWikiTextWords(id, wiki_text, page, page_infl);
                 }
             } finally {
-                s.close();
+                rs.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TWikiTextWords.getByID()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            System.out.println("SQLException (TWikiTextWords.getByID()):: sql='" + SQL_GET_ONE_BY_WIKI_TEXT + "', wiki_text_id=" + wiki_text.getID() + " " + ex.getMessage());
         }
         return word;
     }
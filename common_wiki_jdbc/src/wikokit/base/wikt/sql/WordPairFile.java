@@ -0,0 +1,157 @@
+/* WordPairFile.java - binary file with pairs of words of semantic relations.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Edge file of the graph of semantic relations (for wigraph), it is
+ * written record by record, so the pairs of words can be stored directly
+ * from the result set of the query (see TRelation.exportWordPairs()).<br><br>
+ *
+ * Format of the file (java.io.DataOutput):
+ * <PRE>
+ * int      FILE_MAGIC
+ * records:
+ *   byte VERTEX, UTF word              - new word, its ID is the number of previous words
+ *   byte EDGE, int v1, int v2, byte r  - pair of words (IDs) and relation_type_id
+ * byte     END
+ * int      number of words
+ * int      number of edges
+ * </PRE>
+ *
+ * Duplicate pairs of words are skipped, i.e. only the first relation type
+ * of the pair (v1, v2) is stored.
+ */
+public class WordPairFile {
+
+    /** Signature of the file. */
+    public final static int FILE_MAGIC = 0x57505246;   // "WPRF"
+
+    /** Tags of records. */
+    public final static byte END    = 0;
+    public final static byte VERTEX = 1;
+    public final static byte EDGE   = 2;
+
+    private final DataOutputStream out;
+
+    /** Word -> ID of the word (vertex) in the file. */
+    private final Map<String,Integer> word_id = new HashMap<String,Integer>();
+
+    /** Stored pairs of IDs of words, v1 in high 32 bits, v2 in low. */
+    private final Set<Long> edges = new HashSet<Long>();
+
+    private int n_edges = 0;
+
+    /** Creates the file for writing. */
+    public WordPairFile(String filename) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(
+                                        new FileOutputStream(filename), 1 << 16));
+        out.writeInt(FILE_MAGIC);
+    }
+
+    /** Gets number of unique words written to the file. */
+    public int getVertexCount() {
+        return word_id.size();
+    }
+
+    /** Gets number of unique pairs of words written to the file. */
+    public int getEdgeCount() {
+        return n_edges;
+    }
+
+    /** Gets ID of the word, writes the word to the file, if it is new. */
+    private int getOrWriteVertex(String word) throws IOException {
+        Integer id = word_id.get(word);
+        if(null != id)
+            return id;
+
+        int new_id = word_id.size();
+        word_id.put(word, new_id);
+        out.writeByte(VERTEX);
+        out.writeUTF(word);
+        return new_id;
+    }
+
+    /** Writes the pair of words, if the pair is new.
+     *
+     * @param page          word with the relation, e.g. "car"
+     * @param w_rel         word of the relation, e.g. "automobile"
+     * @param relation_type_id ID of the type of relation in the table relation_type
+     * @return false, if the pair has been written already
+     */
+    public boolean add(String page, String w_rel, int relation_type_id) throws IOException {
+
+        int v1 = getOrWriteVertex(page);
+        int v2 = getOrWriteVertex(w_rel);
+        if(!edges.add(((long)v1 << 32) | (v2 & 0xFFFFFFFFL)))
+            return false;
+
+        out.writeByte(EDGE);
+        out.writeInt(v1);
+        out.writeInt(v2);
+        out.writeByte(relation_type_id);
+        n_edges ++;
+        return true;
+    }
+
+    /** Writes the end of the file and closes it. */
+    public void close() throws IOException {
+        try {
+            out.writeByte(END);
+            out.writeInt(word_id.size());
+            out.writeInt(n_edges);
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Loads pairs of words stored by WordPairFile, the same result
+     * as TRelation.getAllWordPairs().
+     *
+     * @return pairs of words, e.g. car -> carriage, car -> automobile
+     */
+    public static Map<String,List<String>> readPairs(String filename) throws IOException {
+
+        Map<String,List<String>> m_words = new HashMap<String,List<String>>();
+        List<String> words = new ArrayList<String>();
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                                        new FileInputStream(filename), 1 << 16));
+        try {
+            if(FILE_MAGIC != in.readInt())
+                throw new IOException("The file " + filename + " is not a file stored by WordPairFile");
+
+            byte tag;
+            while(END != (tag = in.readByte())) {
+                if(VERTEX == tag) {
+                    words.add(in.readUTF());
+                } else if(EDGE == tag) {
+                    String page  = words.get(in.readInt());
+                    String w_rel = words.get(in.readInt());
+                    in.readByte();  // relation_type_id
+
+                    List<String> list_rel = m_words.get(page);
+                    if(null == list_rel) {
+                        list_rel = new ArrayList<String>();
+                        m_words.put(page, list_rel);
+                    }
+                    list_rel.add(w_rel);
+                } else
+                    throw new IOException("Unknown record " + tag + " in the file " + filename);
+            }
+        } finally {
+            in.close();
+        }
+        return m_words;
+    }
+}
@@ -10,6 +10,7 @@ package wikokit.base.wikt.sql.index;
 import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.language.Encodings;
 
@@ -131,7 +132,7 @@ public class IndexForeign {
         try {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.index_foreign", s.executeUpdate (str_sql.toString()));
             } finally {
                 s.close();
             }
@@ -429,7 +430,7 @@ public class IndexForeign {
      * 
      * DELETE FROM index_en WHERE foreign_word="water12" AND native_page_title="ru_water12";
      * or
-     * DELETE FROM index_en WHERE foreign_word="water12" AND native_page_title=NULL;
+     * DELETE FROM index_en WHERE foreign_word="water12" AND native_page_title IS NULL;
      *
      * @param foreign_word      word in foreign language XX
      * @param native_page_title the corresponded page.page_title of the
@@ -455,13 +456,13 @@ public class IndexForeign {
                                 connect, foreign_word);
         str_sql.append(safe_title).append("\"");
 
-        str_sql.append(" AND native_page_title=");
+        str_sql.append(" AND native_page_title");
         if(b_native_word) {
             safe_title = PageTableBase.convertToSafeStringEncodeToDBWunderscore(
                                 connect, native_page_title);
-            str_sql.append("\"").append(safe_title).append("\"");
+            str_sql.append("=\"").append(safe_title).append("\"");
         } else
-            str_sql.append("NULL");
+            str_sql.append(" IS NULL");     // "=NULL" is never true
 
         try
         {
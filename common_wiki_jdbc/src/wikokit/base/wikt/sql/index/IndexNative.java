@@ -10,6 +10,7 @@ package wikokit.base.wikt.sql.index;
 import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.util.ParseMetrics;
 
 import java.sql.*;
 
@@ -115,7 +116,7 @@ public class IndexNative {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.index_native", s.executeUpdate (str_sql.toString()));
             } finally {
                 s.close();
             }
@@ -0,0 +1,216 @@
+/* PageFilter.java - SQL operations with the table 'page_filter' in Wiktionary
+ * parsed database.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql.index;
+
+import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.UtilSQL;
+
+import java.sql.*;
+
+/** The table 'page_filter' - precomputed filters of the word list
+ * (see TPage.getByPrefix()): one row per page with flags (redirect,
+ * definition, semantic relation) and the set of languages of the page
+ * as a bit mask, so the filtered prefix search is one range scan
+ * by the index of page_title without loading of lang_pos, meanings and
+ * relations of each word.<br><br>
+ *
+ * The table is generated after the parsing of Wiktionary by generate().
+ */
+public class PageFilter {
+
+    /** Name of the table. */
+    public final static String TABLE = "page_filter";
+
+    /** Gets bit of the language in the field 'lang_mask'. Several languages
+     * share one bit, so the mask is only a fast pre-check, the language
+     * should be checked by the table 'lang_pos' too.
+     * The sign bit is not used, since the mask could be copied to SQLite.
+     */
+    public static long getLangBit(int lang_id) {
+        return 1L << (lang_id % 63);
+    }
+
+    /** Gets mask of the languages for the field 'lang_mask'. */
+    public static long getLangMask(TLang[] langs) {
+        long mask = 0;
+        for(TLang lang : langs) {
+            if(null != lang)
+                mask |= getLangBit(lang.getID());
+        }
+        return mask;
+    }
+
+    /** Checks whether the table 'page_filter' exists in the database
+     * and it is filled, e.g. it is absent in databases created by old versions
+     * of the parser, it is empty if it was generated before the tables
+     * were filled (bulk-load mode).<br><br>
+     *
+     * The result is cached by the connection (TPage.getByPrefix() calls
+     * it for each query), it is updated by generate() and drop().
+     */
+    public static boolean exists(Connect connect) {
+        Boolean cached = connect.getPageFilterExists();
+        if(null != cached)
+            return cached;
+
+        boolean b = existsInDB(connect);
+        connect.setPageFilterExists(b);
+        return b;
+    }
+
+    /** Checks the table 'page_filter' by the database, see exists(). */
+    private static boolean existsInDB(Connect connect) {
+        if(!UtilSQL.hasTable(connect, TABLE))
+            return false;
+
+        String str_sql = "SELECT 1 FROM page_filter LIMIT 1";
+        boolean b = false;
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                ResultSet rs = s.executeQuery (str_sql);
+                try {
+                    b = rs.next ();
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (PageFilter.existsInDB()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+        return b;
+    }
+
+    /** Creates and fills the table 'page_filter' by data from the tables
+     * page, lang_pos, meaning and relation (MySQL).<br><br>
+     *
+     * REM: this func should be called after the creation of Wiktionary
+     * parsed database, and the tables should be filled with data
+     * (in the bulk-load mode - after the load script).
+     *
+     * <PRE>
+     * CREATE TABLE `page_filter` (
+     * `page_id` INT(10) UNSIGNED NOT NULL COMMENT 'Copy of page.id',
+     * `page_title` VARCHAR(255) BINARY NOT NULL COMMENT 'Copy of page.page_title',
+     * `is_redirect` TINYINT(1) NOT NULL COMMENT 'Hard redirect defined by #REDIRECT',
+     * `has_definition` TINYINT(1) NOT NULL COMMENT 'true, if there is any meaning',
+     * `has_relation` TINYINT(1) NOT NULL COMMENT 'true, if there is any semantic relation',
+     * `lang_mask` BIGINT NOT NULL COMMENT 'languages of the page, bit (lang.id mod 63)',
+     * PRIMARY KEY (`page_id`),
+     * INDEX `idx_prefix` (`page_title` ASC, `is_redirect`, `has_definition`, `has_relation`, `lang_mask`))
+     * ENGINE = InnoDB
+     * </PRE>
+     *
+     * The index 'idx_prefix' contains all filters, so the prefix search
+     * reads only the index.
+     */
+    public static void generate(Connect connect) {
+
+        System.out.println("Fill table `page_filter` by flags of pages...");
+        long t_start = System.currentTimeMillis();
+
+        connect.setPageFilterExists(false);
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                str_sql.append("DROP TABLE IF EXISTS `page_filter`");
+                s.execute(str_sql.toString());
+
+                str_sql.setLength(0);
+                str_sql.append("CREATE TABLE `page_filter` (" +
+                    "`page_id` INT(10) UNSIGNED NOT NULL," +
+                    "`page_title` VARCHAR(255) BINARY NOT NULL," +
+                    "`is_redirect` TINYINT(1) NOT NULL," +
+                    "`has_definition` TINYINT(1) NOT NULL," +
+                    "`has_relation` TINYINT(1) NOT NULL," +
+                    "`lang_mask` BIGINT NOT NULL," +
+                    "PRIMARY KEY (`page_id`)," +
+                    "INDEX `idx_prefix` (`page_title` ASC, `is_redirect`, `has_definition`, `has_relation`, `lang_mask`) )" +
+                    "ENGINE = InnoDB"
+                );
+                s.execute(str_sql.toString());
+
+                // correlated subqueries use the indexes lang_pos(page_id,...),
+                // meaning(lang_pos_id) and relation(meaning_id)
+                str_sql.setLength(0);
+                str_sql.append("INSERT INTO page_filter (page_id,page_title,is_redirect,has_definition,has_relation,lang_mask) " +
+                    "SELECT p.id, p.page_title, p.is_redirect IS NOT NULL, " +
+                    "EXISTS (SELECT 1 FROM lang_pos lp JOIN meaning m ON m.lang_pos_id=lp.id WHERE lp.page_id=p.id), " +
+                    "EXISTS (SELECT 1 FROM lang_pos lp JOIN meaning m ON m.lang_pos_id=lp.id " +
+                                                      "JOIN relation r ON r.meaning_id=m.id WHERE lp.page_id=p.id), " +
+                    "COALESCE((SELECT BIT_OR(1 << (lp.lang_id % 63)) FROM lang_pos lp WHERE lp.page_id=p.id), 0) " +
+                    "FROM page p");
+                int n = s.executeUpdate(str_sql.toString());
+                connect.setPageFilterExists(n > 0);
+                System.out.println("page_filter: " + n + " pages");
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (PageFilter.generate()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+
+        float t_work = (System.currentTimeMillis() - t_start)/1000f; // in sec
+        System.out.println("Time sec:" + t_work);
+    }
+
+    /** Drops the table 'page_filter', e.g. before the parsing of Wiktionary,
+     * the prefix search does not use the table till generate(). */
+    public static void drop(Connect connect) {
+        UtilSQL.dropTable(connect, TABLE);
+        connect.setPageFilterExists(false);
+    }
+
+    /** Appends conditions of the filters to the WHERE clause of the query
+     * with the table 'page_filter' aliased as 'f'.
+     *
+     * @param  b_skip_redirects return articles without redirects if true
+     * @param  source_lang  return articles with words in these languages
+     * @param  b_meaning    return articles with definitions
+     * @param  b_sem_rel    return articles with semantic relations
+     */
+    public static void appendWhere(StringBuilder str_sql,
+                                    boolean b_skip_redirects,
+                                    TLang source_lang[],
+                                    boolean b_meaning,
+                                    boolean b_sem_rel)
+    {
+        if(b_skip_redirects)
+            str_sql.append(" AND f.is_redirect=0");
+
+        if(b_meaning)
+            str_sql.append(" AND f.has_definition=1");
+
+        if(b_sem_rel)
+            str_sql.append(" AND f.has_relation=1");
+
+        if(source_lang.length > 0) {
+            StringBuilder ids = new StringBuilder();
+            for(TLang lang : source_lang) {
+                if(null == lang)
+                    continue;
+                if(ids.length() > 0)
+                    ids.append(",");
+                ids.append(lang.getID());
+            }
+            if(0 == ids.length()) {
+                str_sql.append(" AND 1=0");     // unknown languages, no words
+                return;
+            }
+            str_sql.append(" AND (f.lang_mask & ");
+            str_sql.append(getLangMask(source_lang));
+            str_sql.append(")<>0 AND EXISTS (SELECT 1 FROM lang_pos lp WHERE lp.page_id=f.page_id AND lp.lang_id IN (");
+            str_sql.append(ids);
+            str_sql.append("))");
+        }
+    }
+}
@@ -0,0 +1,828 @@
+/* TitleTrie.java - in-memory index of titles and foreign words
+ * (minimal acyclic automaton) for prefix and wildcard search.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikokit.base.wikt.sql.index;
+
+import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.UtilSQL;
+
+import java.io.*;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Index of all words of the Wiktionary parsed database: titles of pages
+ * (table 'page') and foreign words (tables 'index_XX'). Words are stored
+ * in the minimal acyclic automaton (common prefixes and suffixes are
+ * shared), each word has the list of pairs (lang_id, page_id):
+ * <PRE>
+ * lang_id == 0     the word is page.page_title, page_id is page.id
+ * lang_id &gt; 0     the word is index_XX.foreign_word (lang.id of XX),
+ *                  page_id is page.id of native_page_title (0 if it is NULL)
+ * </PRE>
+ *
+ * The search by prefix and by wildcards ('*' or '%' - any sequence of
+ * characters, '?' or '_' - one character), see getWords(), is a walk
+ * by the automaton, so it does not depend on the length of the prefix
+ * and on the position of wildcards (cf. 'LIKE' with the index
+ * of the first 7 characters in the tables index_XX).<br><br>
+ *
+ * Usage:
+ * TitleTrie.build(wikt_parsed_conn).save("ruwikt.trie");
+ * TitleTrie trie = TitleTrie.load("ruwikt.trie");
+ * String[] words = trie.getWords("само*", true, 20);
+ */
+public class TitleTrie {
+
+    /** Signature of the file. */
+    public final static int FILE_MAGIC = 0x54545249;   // "TTRI"
+
+    /** lang_id of titles of pages (table 'page'). */
+    public final static int PAGE = 0;
+
+    private final static String[] NULL_STRING_ARRAY = new String[0];
+    private final static int[] NULL_INT_ARRAY = new int[0];
+
+    /** Transitions of the state s are first[s] .. first[s+1]-1, sorted by label,
+     * state 0 is the start state. */
+    private final int[]     first;
+    private final char[]    label;
+    private final int[]     target;
+
+    /** true, if the state is final (the end of a word). */
+    private final boolean[] fin;
+
+    /** Number of words accepted from the state, it gives the number
+     * of the word (in sorted order) during the walk. */
+    private final int[]     count;
+
+    /** Pairs (lang_id, page_id) of the word w are post_first[w] .. post_first[w+1]-1. */
+    private final int[]     post_first;
+    private final int[]     post_lang;
+    private final int[]     post_page;
+
+    private TitleTrie(int[] _first, char[] _label, int[] _target, boolean[] _fin,
+                      int[] _count, int[] _post_first, int[] _post_lang, int[] _post_page)
+    {
+        first   = _first;
+        label   = _label;
+        target  = _target;
+        fin     = _fin;
+        count   = _count;
+        post_first  = _post_first;
+        post_lang   = _post_lang;
+        post_page   = _post_page;
+    }
+
+    /** Gets number of words. */
+    public int getWordCount() {
+        return count.length > 0 ? count[0] : 0;
+    }
+
+    /** Gets number of states of the automaton. */
+    public int getStateCount() {
+        return fin.length;
+    }
+
+    /** Gets transition from the state by the character, or -1. */
+    private int getTransition(int s, char c) {
+        int lo = first[s], hi = first[s + 1] - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if(label[mid] < c)
+                lo = mid + 1;
+            else if(label[mid] > c)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /** Gets number of the word (in sorted order), or -1 if it is absent. */
+    public int getWordNumber(String word) {
+        if(0 == fin.length)
+            return -1;
+
+        int s = 0;
+        int n = 0;
+        for(int i=0; i<word.length(); i++) {
+            int t = getTransition(s, word.charAt(i));
+            if(-1 == t)
+                return -1;
+            if(fin[s])
+                n ++;
+            for(int k=first[s]; k<t; k++)
+                n += count[target[k]];
+            s = target[t];
+        }
+        return fin[s] ? n : -1;
+    }
+
+    /** Checks whether the word is in the index. */
+    public boolean has(String word) {
+        return -1 != getWordNumber(word);
+    }
+
+    /** Gets IDs of pages of the word.
+     *
+     * @param lang_id   PAGE (0) - page with the title 'word' (one ID or nothing),
+     *                  lang.id of XX - native pages of foreign word in index_XX
+     */
+    public int[] getPageIDs(String word, int lang_id) {
+        int w = getWordNumber(word);
+        if(-1 == w)
+            return NULL_INT_ARRAY;
+
+        int n = 0;
+        int[] result = new int[post_first[w + 1] - post_first[w]];
+        for(int p=post_first[w]; p<post_first[w + 1]; p++) {
+            if(lang_id == post_lang[p])
+                result[n++] = post_page[p];
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /** Gets lang_id of all entries of the word, see getPageIDs(). */
+    public int[] getLangIDs(String word) {
+        int w = getWordNumber(word);
+        if(-1 == w)
+            return NULL_INT_ARRAY;
+        return Arrays.copyOfRange(post_lang, post_first[w], post_first[w + 1]);
+    }
+
+
+    // search by pattern
+
+    private final static char ANY_ONE = 1;
+    private final static char ANY_SEQ = 2;
+    private final static char LITERAL = 0;
+
+    /** Pattern compiled to the nondeterministic automaton: position i
+     * is the state before the token i, position n is the accepting state.
+     * Set of positions is a bit set in long[], so the length of the pattern
+     * is not limited.
+     */
+    private static class Pattern {
+        final char[]    type;
+        final char[]    lit;
+        final boolean   ignore_case;
+
+        /** Variants of the literal for case-insensitive search: lower, upper and title case. */
+        final char[][]  lit_case;
+        final int       n;
+
+        /** Number of longs in the set of positions (n + 1 positions). */
+        final int       n_words;
+
+        /** Positions which can be skipped (ANY_SEQ) and without literal tokens. */
+        final long[]    mask_any;
+
+        Pattern(String s, boolean _ignore_case) {
+            ignore_case = _ignore_case;
+
+            boolean b_wildcard = false;
+            for(int i=0; i<s.length(); i++)
+                b_wildcard = b_wildcard || isWildcard(s.charAt(i));
+
+            String p = b_wildcard ? s : s + "*";     // prefix search
+            n = p.length();
+            type = new char[n];
+            lit  = new char[n];
+            lit_case = new char[n][];
+            n_words = (n >>> 6) + 1;
+            mask_any = new long[n_words];
+            for(int i=0; i<n; i++) {
+                char c = p.charAt(i);
+                if('*' == c || '%' == c)
+                    type[i] = ANY_SEQ;
+                else if('?' == c || '_' == c)
+                    type[i] = ANY_ONE;
+                else
+                    type[i] = LITERAL;
+                lit[i] = c;
+                lit_case[i] = new char[] {c, Character.toLowerCase(c),
+                                          Character.toUpperCase(c), Character.toTitleCase(c)};
+                if(LITERAL != type[i])
+                    add(mask_any, i);
+            }
+        }
+
+        static boolean isWildcard(char c) {
+            return '*' == c || '%' == c || '?' == c || '_' == c;
+        }
+
+        static boolean has(long[] mask, int i) {
+            return 0 != (mask[i >>> 6] & (1L << i));
+        }
+
+        static void add(long[] mask, int i) {
+            mask[i >>> 6] |= 1L << i;
+        }
+
+        /** Adds positions after ANY_SEQ tokens (they match empty sequence). */
+        void closure(long[] mask) {
+            for(int i=0; i<n; i++)
+                if(ANY_SEQ == type[i] && has(mask, i))
+                    add(mask, i + 1);
+        }
+
+        /** Sets the start positions to the mask. */
+        void start(long[] mask) {
+            Arrays.fill(mask, 0L);
+            add(mask, 0);
+            closure(mask);
+        }
+
+        /** Checks whether there are active positions with wildcards. */
+        boolean hasAny(long[] mask) {
+            for(int w=0; w<n_words; w++)
+                if(0 != (mask[w] & mask_any[w]))
+                    return true;
+            return false;
+        }
+
+        boolean matches(int i, char c) {
+            if(lit[i] == c)
+                return true;
+            if(ignore_case) {
+                for(char v : lit_case[i])
+                    if(v == c)
+                        return true;
+            }
+            return false;
+        }
+
+        /** Sets to next the set of positions after the character c.
+         *
+         * @return false if the set is empty
+         */
+        boolean step(long[] mask, char c, long[] next) {
+            Arrays.fill(next, 0L);
+            boolean b_empty = true;
+            for(int w=0; w<n_words; w++) {
+                for(long bits = mask[w]; 0 != bits; bits &= bits - 1) {
+                    int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if(i >= n)
+                        continue;
+                    if(ANY_SEQ == type[i])
+                        add(next, i);
+                    else if(ANY_ONE == type[i] || matches(i, c))
+                        add(next, i + 1);
+                    else
+                        continue;
+                    b_empty = false;
+                }
+            }
+            if(!b_empty)
+                closure(next);
+            return !b_empty;
+        }
+
+        boolean isAccepted(long[] mask) {
+            return has(mask, n);
+        }
+    }
+
+    /** Gets words which match the pattern, in sorted order (String.compareTo).
+     *
+     * @param pattern   prefix of words (if there are no wildcards) or the pattern
+     *                  with wildcards: '*' or '%' - any sequence of characters,
+     *                  '?' or '_' - one character, e.g. "само*т", "?ом"
+     * @param ignore_case   case-insensitive comparison of characters
+     * @param limit     constraint of the number of words,
+     *                  if it has a negative value then the constraint is omitted
+     * @return empty array if there are no such words
+     */
+    public String[] getWords(String pattern, boolean ignore_case, int limit) {
+        List<String> words = new ArrayList<String>();
+        search(pattern, ignore_case, limit, words, null);
+        return words.toArray(NULL_STRING_ARRAY);
+    }
+
+    /** Gets numbers of words which match the pattern (see getWords()),
+     * the number of word is an index in getWords("*", false, -1).
+     */
+    public int[] getWordNumbers(String pattern, boolean ignore_case, int limit) {
+        List<Integer> numbers = new ArrayList<Integer>();
+        search(pattern, ignore_case, limit, null, numbers);
+
+        int[] result = new int[numbers.size()];
+        for(int i=0; i<result.length; i++)
+            result[i] = numbers.get(i);
+        return result;
+    }
+
+    private void search(String pattern, boolean ignore_case, int limit,
+                        List<String> words, List<Integer> numbers) {
+        if(0 == limit || 0 == fin.length)
+            return;
+        Pattern p = new Pattern(pattern, ignore_case);
+        Search s = new Search(p, limit, words, numbers);
+        p.start(s.getMask(0));
+        s.walk(0, 0);
+    }
+
+    /** Depth-first walk by the automaton, the set of positions
+     * of the pattern is carried along the path: masks[d] is the set
+     * after the path of length d, the arrays are reused by the branches. */
+    private class Search {
+        final Pattern           p;
+        final int               limit;
+        final List<String>      words;
+        final List<Integer>     numbers;
+        final StringBuilder     path = new StringBuilder();
+        long[][]                masks = new long[16][];
+        int                     n_found = 0;
+
+        Search(Pattern _p, int _limit, List<String> _words, List<Integer> _numbers) {
+            p       = _p;
+            limit   = _limit;
+            words   = _words;
+            numbers = _numbers;
+        }
+
+        boolean isFull() {
+            return limit >= 0 && n_found >= limit;
+        }
+
+        /** Gets the set of positions after the path of length d. */
+        long[] getMask(int d) {
+            if(d >= masks.length)
+                masks = Arrays.copyOf(masks, 2 * d);
+            if(null == masks[d])
+                masks[d] = new long[p.n_words];
+            return masks[d];
+        }
+
+        /** @param n    number of the first word accepted from the state s,
+         *              the set of positions is getMask(path.length()) */
+        void walk(int s, int n) {
+            int d = path.length();
+            long[] mask = masks[d];
+
+            if(fin[s]) {
+                if(p.isAccepted(mask)) {
+                    if(null != words)
+                        words.add(path.toString());
+                    if(null != numbers)
+                        numbers.add(n);
+                    n_found ++;
+                    if(isFull())
+                        return;
+                }
+                n ++;
+            }
+
+            if(!p.hasAny(mask)) {
+                walkLiterals(s, mask, n);   // only literals are expected: binary search
+                return;
+            }
+
+            long[] next = getMask(d + 1);
+            for(int t=first[s]; t<first[s + 1] && !isFull(); t++) {
+                if(p.step(mask, label[t], next)) {
+                    path.append(label[t]);
+                    walk(target[t], n);
+                    path.setLength(d);
+                }
+                n += count[target[t]];
+            }
+        }
+
+        /** Goes only by the transitions with the literals of the active positions. */
+        void walkLiterals(int s, long[] mask, int n) {
+            int d = path.length();
+            char[] chars = new char[4 * p.n];
+            int n_chars = 0;
+            for(int i=0; i<p.n; i++) {
+                if(!Pattern.has(mask, i))
+                    continue;
+                if(p.ignore_case) {
+                    for(char v : p.lit_case[i])
+                        chars[n_chars++] = v;
+                } else
+                    chars[n_chars++] = p.lit[i];
+            }
+            Arrays.sort(chars, 0, n_chars);
+
+            for(int k=0; k<n_chars && !isFull(); k++) {
+                if(k > 0 && chars[k] == chars[k - 1])
+                    continue;
+                int t = getTransition(s, chars[k]);
+                if(-1 == t)
+                    continue;
+                int n_t = n;
+                for(int j=first[s]; j<t; j++)
+                    n_t += count[target[j]];
+
+                p.step(mask, label[t], getMask(d + 1));
+                path.append(label[t]);
+                walk(target[t], n_t);
+                path.setLength(d);
+            }
+        }
+    }
+
+
+    // file
+
+    /** Stores the index to the file. */
+    public void save(String filename) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                                        new FileOutputStream(filename), 1 << 16));
+        try {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(fin.length);
+            out.writeInt(label.length);
+            out.writeInt(post_lang.length);
+            for(int i=0; i<fin.length; i++) {
+                out.writeInt(first[i]);
+                out.writeBoolean(fin[i]);
+                out.writeInt(count[i]);
+            }
+            out.writeInt(first[fin.length]);
+            for(int t=0; t<label.length; t++) {
+                out.writeChar(label[t]);
+                out.writeInt(target[t]);
+            }
+            for(int w=0; w<post_first.length; w++)
+                out.writeInt(post_first[w]);
+            for(int k=0; k<post_lang.length; k++) {
+                out.writeInt(post_lang[k]);
+                out.writeInt(post_page[k]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Loads the index stored by save(). */
+    public static TitleTrie load(String filename) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                                        new FileInputStream(filename), 1 << 16));
+        try {
+            if(FILE_MAGIC != in.readInt())
+                throw new IOException("The file " + filename + " is not a file stored by TitleTrie");
+
+            int n_states = in.readInt();
+            int n_trans  = in.readInt();
+            int n_post   = in.readInt();
+
+            int[]     first  = new int[n_states + 1];
+            boolean[] fin    = new boolean[n_states];
+            int[]     count  = new int[n_states];
+            for(int i=0; i<n_states; i++) {
+                first[i] = in.readInt();
+                fin[i]   = in.readBoolean();
+                count[i] = in.readInt();
+            }
+            first[n_states] = in.readInt();
+
+            char[] label  = new char[n_trans];
+            int[]  target = new int[n_trans];
+            for(int t=0; t<n_trans; t++) {
+                label[t]  = in.readChar();
+                target[t] = in.readInt();
+            }
+
+            int n_words = n_states > 0 ? count[0] : 0;
+            int[] post_first = new int[n_words + 1];
+            for(int w=0; w<=n_words; w++)
+                post_first[w] = in.readInt();
+
+            int[] post_lang = new int[n_post];
+            int[] post_page = new int[n_post];
+            for(int k=0; k<n_post; k++) {
+                post_lang[k] = in.readInt();
+                post_page[k] = in.readInt();
+            }
+            return new TitleTrie(first, label, target, fin, count,
+                                 post_first, post_lang, post_page);
+        } finally {
+            in.close();
+        }
+    }
+
+
+    // construction
+
+    /** State of the automaton under construction. States with equal
+     * finality and equal transitions (to registered states) are merged.
+     */
+    private static class Node {
+        char[]  labels  = new char[0];
+        Node[]  targets = new Node[0];
+        int     n       = 0;
+        boolean fin     = false;
+        int     id      = -1;
+
+        void add(char c, Node child) {
+            if(n == labels.length) {
+                labels  = Arrays.copyOf(labels,  Math.max(2, 2 * n));
+                targets = Arrays.copyOf(targets, Math.max(2, 2 * n));
+            }
+            labels [n] = c;
+            targets[n] = child;
+            n ++;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = fin ? 1 : 0;
+            for(int i=0; i<n; i++)
+                h = 31 * (31 * h + labels[i]) + System.identityHashCode(targets[i]);
+            return h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            Node b = (Node)o;
+            if(fin != b.fin || n != b.n)
+                return false;
+            for(int i=0; i<n; i++)
+                if(labels[i] != b.labels[i] || targets[i] != b.targets[i])
+                    return false;
+            return true;
+        }
+    }
+
+    /** Builder of the index, words could be added in any order. */
+    public static class Builder {
+
+        /** Word -> index of the word in the order of addition. */
+        private final Map<String,Integer> word_index = new HashMap<String,Integer>();
+        private final List<String> words = new ArrayList<String>();
+
+        /** Added pairs: word index, lang_id, page_id. */
+        private int[]   entry_word = new int[1024];
+        private int[]   entry_lang = new int[1024];
+        private int[]   entry_page = new int[1024];
+        private int     n_entries = 0;
+
+        /** Adds the pair (lang_id, page_id) of the word, see TitleTrie. */
+        public void add(String word, int lang_id, int page_id) {
+            Integer w = word_index.get(word);
+            if(null == w) {
+                w = words.size();
+                word_index.put(word, w);
+                words.add(word);
+            }
+            if(n_entries == entry_word.length) {
+                entry_word = Arrays.copyOf(entry_word, 2 * n_entries);
+                entry_lang = Arrays.copyOf(entry_lang, 2 * n_entries);
+                entry_page = Arrays.copyOf(entry_page, 2 * n_entries);
+            }
+            entry_word[n_entries] = w;
+            entry_lang[n_entries] = lang_id;
+            entry_page[n_entries] = page_id;
+            n_entries ++;
+        }
+
+        /** Gets number of different words. */
+        public int getWordCount() {
+            return words.size();
+        }
+
+        /** Builds the minimal automaton from sorted words (incremental algorithm
+         * of Daciuk, Mihov, Watson, Watson, 2000): the suffix of the previous
+         * word, which is not shared with the next word, is replaced by equal
+         * registered states or registered.
+         */
+        public TitleTrie build() {
+            String[] sorted = words.toArray(NULL_STRING_ARRAY);
+            Arrays.sort(sorted);
+
+            Map<Node,Node> register = new HashMap<Node,Node>();
+            Node root = new Node();
+            Node[] path = new Node[16];     // path[i] - state after i characters of the previous word
+            path[0] = root;
+            String prev = "";
+
+            for(String w : sorted) {
+                int cp = 0;
+                int max_cp = Math.min(prev.length(), w.length());
+                while(cp < max_cp && prev.charAt(cp) == w.charAt(cp))
+                    cp ++;
+
+                replaceOrRegister(register, path, cp, prev.length());
+
+                if(w.length() + 1 > path.length)
+                    path = Arrays.copyOf(path, 2 * (w.length() + 1));
+                for(int i=cp; i<w.length(); i++) {
+                    Node child = new Node();
+                    path[i].add(w.charAt(i), child);
+                    path[i + 1] = child;
+                }
+                path[w.length()].fin = true;
+                prev = w;
+            }
+            replaceOrRegister(register, path, 0, prev.length());
+            register = null;
+
+            return freeze(root, sorted);
+        }
+
+        /** Minimizes states path[from+1] .. path[to] (deepest first). */
+        private static void replaceOrRegister(Map<Node,Node> register,
+                                              Node[] path, int from, int to) {
+            for(int i=to; i>from; i--) {
+                Node child = path[i];
+                Node same = register.get(child);
+                if(null != same) {
+                    Node parent = path[i - 1];
+                    parent.targets[parent.n - 1] = same;
+                } else
+                    register.put(child, child);
+            }
+        }
+
+        /** Numbers states, stores them to arrays, groups pairs (lang_id, page_id) by words. */
+        private TitleTrie freeze(Node root, String[] sorted) {
+
+            // numbering of states (depth-first, preorder)
+            List<Node> states = new ArrayList<Node>();
+            List<Node> stack  = new ArrayList<Node>();
+            int n_trans = 0;
+            if(sorted.length > 0) {
+                root.id = 0;
+                stack.add(root);
+            }
+            while(!stack.isEmpty()) {
+                Node s = stack.remove(stack.size() - 1);
+                states.add(s);
+                n_trans += s.n;
+                for(int i=s.n - 1; i>=0; i--) {
+                    Node t = s.targets[i];
+                    if(-1 == t.id) {
+                        t.id = -2;      // in the stack
+                        stack.add(t);
+                    }
+                }
+            }
+            // ids in the order of the list
+            for(int i=0; i<states.size(); i++)
+                states.get(i).id = i;
+
+            int n_states = states.size();
+            int[]     first  = new int[n_states + 1];
+            boolean[] fin    = new boolean[n_states];
+            char[]    label  = new char[n_trans];
+            int[]     target = new int[n_trans];
+            int t = 0;
+            for(int i=0; i<n_states; i++) {
+                Node s = states.get(i);
+                first[i] = t;
+                fin[i] = s.fin;
+                for(int k=0; k<s.n; k++) {
+                    label [t] = s.labels[k];
+                    target[t] = s.targets[k].id;
+                    t ++;
+                }
+            }
+            first[n_states] = t;
+
+            // number of words from each state: targets are counted before
+            // the state (reverse topological order by depth-first postorder)
+            int[] count = new int[n_states];
+            boolean[] done = new boolean[n_states];
+            int[] st = new int[n_states];
+            int[] st_next = new int[n_states];  // next transition to visit
+            for(int r=0; r<n_states; r++) {
+                if(done[r])
+                    continue;
+                int sp = 0;
+                st[sp] = r;
+                st_next[sp] = first[r];
+                while(sp >= 0) {
+                    int s = st[sp];
+                    if(st_next[sp] < first[s + 1]) {
+                        int c = target[st_next[sp]++];
+                        if(!done[c]) {
+                            sp ++;
+                            st[sp] = c;
+                            st_next[sp] = first[c];
+                        }
+                    } else {
+                        int sum = fin[s] ? 1 : 0;
+                        for(int k=first[s]; k<first[s + 1]; k++)
+                            sum += count[target[k]];
+                        count[s] = sum;
+                        done[s] = true;
+                        sp --;
+                    }
+                }
+            }
+
+            // pairs (lang_id, page_id) in the order of sorted words
+            Map<String,Integer> sorted_index = new HashMap<String,Integer>(2 * sorted.length);
+            for(int i=0; i<sorted.length; i++)
+                sorted_index.put(sorted[i], i);
+            int[] pos = new int[words.size()];
+            for(int i=0; i<pos.length; i++)
+                pos[i] = sorted_index.get(words.get(i));
+
+            int[] post_first = new int[sorted.length + 1];
+            for(int e=0; e<n_entries; e++)
+                post_first[pos[entry_word[e]] + 1] ++;
+            for(int w=0; w<sorted.length; w++)
+                post_first[w + 1] += post_first[w];
+
+            int[] fill = Arrays.copyOf(post_first, sorted.length);
+            int[] post_lang = new int[n_entries];
+            int[] post_page = new int[n_entries];
+            for(int e=0; e<n_entries; e++) {
+                int k = fill[pos[entry_word[e]]]++;
+                post_lang[k] = entry_lang[e];
+                post_page[k] = entry_page[e];
+            }
+
+            return new TitleTrie(first, label, target, fin, count,
+                                 post_first, post_lang, post_page);
+        }
+    }
+
+    /** Builds the index by the Wiktionary parsed database: one query for the
+     * table 'page' and one query for each table 'index_XX'.<br><br>
+     *
+     * REM: TLang.createFastMaps() should be called before.
+     */
+    public static TitleTrie build(Connect connect) {
+
+        long t_start = System.currentTimeMillis();
+        Builder b = new Builder();
+
+        String str_sql = "SELECT id,page_title FROM page";
+        try {
+            Statement s = UtilSQL.createStreamingStatement(connect);
+            try {
+                ResultSet rs = s.executeQuery(str_sql);
+                try {
+                    while(rs.next())
+                        b.add(Encodings.bytesToUTF8(rs.getBytes(2)), PAGE, rs.getInt(1));
+                } finally {
+                    rs.close();
+                }
+                System.out.println("TitleTrie: page titles: " + b.getWordCount());
+
+                for(LanguageType lang : getIndexForeignLanguages(connect)) {
+                    TLang tlang = TLang.get(lang);
+                    if(null == tlang) {
+                        System.out.println("Error (TitleTrie.build()):: What about calling 'TLang.createFastMaps()' before? lang=" + lang);
+                        continue;
+                    }
+                    str_sql = "SELECT i.foreign_word,p.id FROM `index_" + lang.toTablePrefix() +
+                              "` i LEFT JOIN page p ON p.page_title=i.native_page_title";
+                    rs = s.executeQuery(str_sql);
+                    try {
+                        while(rs.next())
+                            b.add(Encodings.bytesToUTF8(rs.getBytes(1)), tlang.getID(), rs.getInt(2));
+                    } finally {
+                        rs.close();
+                    }
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TitleTrie.build()):: sql='" + str_sql + "' " + ex.getMessage());
+        }
+
+        TitleTrie trie = b.build();
+        float t_work = (System.currentTimeMillis() - t_start)/1000f; // in sec
+        System.out.println("TitleTrie: words: " + trie.getWordCount() +
+                           "; states: " + trie.getStateCount() + "; time sec:" + t_work);
+        return trie;
+    }
+
+    /** Gets languages of existing tables 'index_XX'. */
+    private static List<LanguageType> getIndexForeignLanguages(Connect connect) throws SQLException {
+
+        Map<String, LanguageType> prefix2lang = new HashMap<String, LanguageType>();
+        for(LanguageType lang : LanguageType.getAllLanguages().values())
+            prefix2lang.put("index_" + lang.toTablePrefix(), lang);
+
+        List<LanguageType> result = new ArrayList<LanguageType>();
+        ResultSet rs = connect.conn.getMetaData().getTables(connect.conn.getCatalog(), null, "index_%", null);
+        try {
+            while(rs.next()) {
+                LanguageType lang = prefix2lang.get(rs.getString("TABLE_NAME"));
+                if(null != lang && !result.contains(lang))
+                    result.add(lang);
+            }
+        } finally {
+            rs.close();
+        }
+        return result;
+    }
+}
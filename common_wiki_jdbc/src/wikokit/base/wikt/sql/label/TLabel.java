@@ -21,6 +21,7 @@ import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Statistics;
 import wikokit.base.wikipedia.sql.UtilSQL;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikt.constant.Label;
 import wikokit.base.wikt.constant.LabelCategory;
 import wikokit.base.wikt.multi.en.name.LabelEn;
@@ -381,8 +382,9 @@ public class TLabel {
         return size;
     }
     
-    /** Inserts record into the table 'label'.<br><br>
-     * INSERT INTO label (short_name, name, category_id) VALUES ("short name", "name", 1);
+    /** Inserts record into the table 'label', the row is not inserted
+     * if the short name exists (unique key).<br><br>
+     * INSERT IGNORE INTO label (short_name, name, category_id) VALUES ("short name", "name", 1);
      * @param short_name    label itself
      * @param name          full name of label
      * @param category_id  ID of label category from the table 'label_category'
@@ -396,7 +398,7 @@ public class TLabel {
         try
         {
             try (Statement s = connect.conn.createStatement ()) {
-                str_sql.append("INSERT INTO label (short_name, name, category_id) VALUES (\"");
+                str_sql.append("INSERT IGNORE INTO label (short_name, name, category_id) VALUES (\"");
                 
                 String safe_title = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, short_name);
                 str_sql.append(safe_title);
@@ -408,7 +410,7 @@ public class TLabel {
                 str_sql.append(category_id);
                 str_sql.append(")");
 
-                s.executeUpdate (str_sql.toString(), Statement.RETURN_GENERATED_KEYS);
+                ParseMetrics.count("rows.label", s.executeUpdate (str_sql.toString(), Statement.RETURN_GENERATED_KEYS));
                 ResultSet rs = s.getGeneratedKeys();
                 if (rs.next()){
                     result_id = rs.getInt(1);
@@ -420,8 +422,9 @@ public class TLabel {
         return result_id;
     }
     
-    /** Inserts record into the table 'label', gets last inserted ID.<br><br>
-     * INSERT INTO label (short_name, name) VALUES ("short name", "name");
+    /** Inserts record into the table 'label', gets last inserted ID,
+     * the row is not inserted if the short name exists (unique key).<br><br>
+     * INSERT IGNORE INTO label (short_name, name) VALUES ("short name", "name");
      * @param short_name    label itself
      * @param name          full name of label
      * 
@@ -436,7 +439,7 @@ public class TLabel {
         try
         {
             try (Statement s = connect.conn.createStatement ()) {
-                str_sql.append("INSERT INTO label (short_name, name) VALUES (\"");
+                str_sql.append("INSERT IGNORE INTO label (short_name, name) VALUES (\"");
                 
                 String safe_title = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, short_name);
                 str_sql.append(safe_title);
@@ -446,7 +449,7 @@ public class TLabel {
                 str_sql.append(safe_title);
                 str_sql.append("\")");
 
-                s.executeUpdate (str_sql.toString(), Statement.RETURN_GENERATED_KEYS);
+                ParseMetrics.count("rows.label", s.executeUpdate (str_sql.toString(), Statement.RETURN_GENERATED_KEYS));
                 ResultSet rs = s.getGeneratedKeys();
                 if (rs.next()){
                     result_id = rs.getInt(1);
@@ -544,6 +547,8 @@ public class TLabel {
                 } else {
                     label_id = TLabel.insert (connect, la.getShortName(), la.getName());
                 }
+                if(0 == label_id)   // it is inserted by other shard process (INSERT IGNORE)
+                    label_id = TLabel.getIDByShortName(connect, la.getShortName(), page_title);
             }
             
             // 2. add to the table 'label_meaning' the record (la.label_id, _meaning.id)
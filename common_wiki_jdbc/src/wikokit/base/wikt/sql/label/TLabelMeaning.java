@@ -12,6 +12,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikt.constant.Label;
 import wikokit.base.wikt.sql.TMeaning;
 
@@ -50,7 +51,7 @@ public class TLabelMeaning {
                 str_sql.append(meaning_id);
                 str_sql.append(")");
 
-                s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.label_meaning", s.executeUpdate (str_sql.toString()));
             } finally {
                 s.close();
             }
@@ -108,6 +109,30 @@ public class TLabelMeaning {
         return (Label[])list_label.toArray(NULL_LABEL_ARRAY);
     }
     
+    /** Deletes rows from the table 'label_meaning' by the meaning_id.<br><br>
+     * DELETE FROM label_meaning WHERE meaning_id=11;
+     */
+    public static void delete (Connect connect,TMeaning meaning) {
+
+        if(null == meaning) {
+            System.out.println("Error (wikt_parsed TLabelMeaning.delete()):: null argument: meaning.");
+            return;
+        }
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                str_sql.append("DELETE FROM label_meaning WHERE meaning_id=");
+                str_sql.append(meaning.getID());
+                s.execute (str_sql.toString());
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (wikt_parsed TLabelMeaning.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+    }
+    
     /** Counts number of records in the table 'label_meaning' with given label ID.<br>
      * SELECT COUNT(*) FROM label_meaning WHERE label_id = 3;
      *
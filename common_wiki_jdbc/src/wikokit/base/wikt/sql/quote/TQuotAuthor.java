@@ -14,6 +14,8 @@ import java.util.ArrayList;
 import java.util.List;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikipedia.sql.LookupCache;
+import wikokit.base.wikt.util.ParseMetrics;
 
 /** Author of quotation and
  * operations with the table 'quot_author' in MySQL Wiktionary parsed database.
@@ -78,7 +80,7 @@ public class TQuotAuthor {
       
 
     /** Inserts record into the table 'quot_author'.<br><br>
-     * INSERT INTO quot_author (name,wikilink) VALUES ("Isaac Asimov", "Isaac Asimov");
+     * INSERT IGNORE INTO quot_author (name,wikilink) VALUES ("Isaac Asimov", "Isaac Asimov");
      *
      * @param _name author's name, it is not empty or NULL
      * @param _wikilink  link to author's name in Wikipedia (format: [[w:name|]]),
@@ -96,7 +98,7 @@ public class TQuotAuthor {
         StringBuilder str_sql = new StringBuilder();
         String safe_name     = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _name);
         String safe_wikilink = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _wikilink);
-        str_sql.append("INSERT INTO quot_author (name,wikilink) VALUES (\"");
+        str_sql.append("INSERT IGNORE INTO quot_author (name,wikilink) VALUES (\"");
         str_sql.append(safe_name);
         str_sql.append("\", \"");
 
@@ -108,7 +110,10 @@ public class TQuotAuthor {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                int n = s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.quot_author", n);
+                if(0 == n)
+                    return null;    // the row exists (unique key), see getOrInsert()
                 s = connect.conn.createStatement ();
                 ResultSet rs = s.executeQuery ("SELECT LAST_INSERT_ID() as id");
                 try {
@@ -274,9 +279,21 @@ public class TQuotAuthor {
         if(null == _author || 0 == _author.length())
             return null;
 
-        TQuotAuthor a = TQuotAuthor.getFirst(connect, _author);
-        if(null == a)
-            a = TQuotAuthor.insertNameWikilink(connect, _author, _author_wikilink);
+        LookupCache cache = connect.getLookupCache();
+        TQuotAuthor a = null;
+        if(null != cache)
+            a = cache.get("quot_author", _author);
+
+        if(null == a) {
+            a = TQuotAuthor.getFirst(connect, _author);
+            if(null == a) {
+                a = TQuotAuthor.insertNameWikilink(connect, _author, _author_wikilink);
+                if(null == a)   // it is inserted by other shard process (INSERT IGNORE)
+                    a = TQuotAuthor.getFirst(connect, _author);
+            }
+            if(null != cache)
+                cache.put("quot_author", _author, a);
+        }
         return a;
     }
 
@@ -338,6 +355,10 @@ public class TQuotAuthor {
         } catch(SQLException ex) {
             System.out.println("SQLException (TQuotAuthor.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+
+        LookupCache cache = connect.getLookupCache();
+        if(null != cache)
+            cache.remove("quot_author", name);
     }
     
 }
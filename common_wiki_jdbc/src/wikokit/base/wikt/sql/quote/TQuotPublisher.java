@@ -11,6 +11,8 @@ import java.sql.*;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikipedia.sql.LookupCache;
+import wikokit.base.wikt.util.ParseMetrics;
 
 /** Publisher of quotation and
  * operations with the table 'quot_publisher' in MySQL Wiktionary parsed database.
@@ -42,7 +44,7 @@ public class TQuotPublisher {
     }
 
     /** Inserts record into the table 'quot_publisher'.<br><br>
-     * INSERT INTO quot_publisher (text) VALUES ("Cignet Classic");
+     * INSERT IGNORE INTO quot_publisher (text) VALUES ("Cignet Classic");
      *
      * @param _text name of the publisher, it is not empty or NULL
      * @return inserted record, or null if insertion failed
@@ -55,7 +57,7 @@ public class TQuotPublisher {
         }
         String safe_text = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _text);
         StringBuilder str_sql = new StringBuilder();
-        str_sql.append("INSERT INTO quot_publisher (text) VALUES (\"");
+        str_sql.append("INSERT IGNORE INTO quot_publisher (text) VALUES (\"");
         str_sql.append(safe_text);
         str_sql.append("\")");
         TQuotPublisher result = null;
@@ -63,7 +65,10 @@ public class TQuotPublisher {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                int n = s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.quot_publisher", n);
+                if(0 == n)
+                    return null;    // the row exists (unique key), see getOrInsert()
             } finally {
                 s.close();
             }
@@ -132,9 +137,21 @@ public class TQuotPublisher {
         if(null == _publisher || 0 == _publisher.length())
             return null;
 
-        TQuotPublisher p = TQuotPublisher.get(connect, _publisher);
-        if(null == p)
-            p = TQuotPublisher.insert(connect, _publisher);
+        LookupCache cache = connect.getLookupCache();
+        TQuotPublisher p = null;
+        if(null != cache)
+            p = cache.get("quot_publisher", _publisher);
+
+        if(null == p) {
+            p = TQuotPublisher.get(connect, _publisher);
+            if(null == p) {
+                p = TQuotPublisher.insert(connect, _publisher);
+                if(null == p)   // it is inserted by other shard process (INSERT IGNORE)
+                    p = TQuotPublisher.get(connect, _publisher);
+            }
+            if(null != cache)
+                cache.put("quot_publisher", _publisher, p);
+        }
         return p;
     }
 
@@ -191,5 +208,9 @@ public class TQuotPublisher {
         } catch(SQLException ex) {
             System.out.println("SQLException (TQuotPublisher.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+
+        LookupCache cache = connect.getLookupCache();
+        if(null != cache)
+            cache.remove("quot_publisher", text);
     }
 }
@@ -8,9 +8,13 @@
 package wikokit.base.wikt.sql.quote;
 
 import java.sql.*;
+import java.util.Arrays;
+import java.util.List;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.LookupCache;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.util.ParseMetrics;
 
 /** Quotation reference information (year, author, etc.) and
  * operations with the table 'quot_ref' in MySQL Wiktionary parsed database. */
@@ -259,7 +263,7 @@ public class TQuotRef {
     /** Inserts (without years) records into the tables: quot_ref, quot_year, quot_author,
      * quot_publisher, and quot_source.<br><br>
      *
-     * INSERT INTO quot_ref (author_id,title,title_wikilink,publisher_id,source_id) VALUES (1,"","",NULL,NULL);
+     * INSERT IGNORE INTO quot_ref (author_id,title,title_wikilink,publisher_id,source_id) VALUES (1,"","",NULL,NULL);
      *
      * @param author_id ID of author's name or "NULL",
      * @param _title title of the work
@@ -283,7 +287,7 @@ public class TQuotRef {
         String safe_title = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _title);
         String safe_title_wikilink = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _title_wikilink);
         StringBuilder str_sql = new StringBuilder();
-        str_sql.append("INSERT INTO quot_ref (year_id,author_id,title,title_wikilink,publisher_id,source_id) VALUES (");
+        str_sql.append("INSERT IGNORE INTO quot_ref (year_id,author_id,title,title_wikilink,publisher_id,source_id) VALUES (");
         str_sql.append(year_id);
         str_sql.append(",");
         str_sql.append(author_id);
@@ -301,7 +305,10 @@ public class TQuotRef {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                int n = s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.quot_ref", n);
+                if(0 == n)
+                    return null;    // the row exists (unique key), see getOrInsert()
             } finally {
                 s.close();
             }
@@ -331,7 +338,7 @@ public class TQuotRef {
     /** Inserts (without years) records into the tables: quot_ref, quot_year, quot_author,
      * quot_publisher, and quot_source.<br><br>
      *
-     * INSERT INTO quot_ref (author_id,title,title_wikilink,publisher_id,source_id) VALUES (1,"","",NULL,NULL);
+     * INSERT IGNORE INTO quot_ref (author_id,title,title_wikilink,publisher_id,source_id) VALUES (1,"","",NULL,NULL);
      *
      * @param _author author's name,
      * @param _author_wikilink link to author's name in Wikipedia (format: [[w:name|]]),
@@ -364,7 +371,7 @@ public class TQuotRef {
     /** Inserts (with years) records into the tables: quot_ref, quot_year, quot_author,
      * quot_publisher, and quot_source.<br><br>
      *
-     * INSERT INTO quot_ref (year_id,author_id,title,title_wikilink,publisher_id,source_id) VALUES (9,1,"","",NULL,NULL);
+     * INSERT IGNORE INTO quot_ref (year_id,author_id,title,title_wikilink,publisher_id,source_id) VALUES (9,1,"","",NULL,NULL);
      *
      * @param page_title word which are described in this article
      *
@@ -427,14 +434,9 @@ public class TQuotRef {
         TQuotSource src = TQuotSource.getOrInsert(connect, _source);
         TQuotYear y = null;
 
-        TQuotRef quot_ref = TQuotRef.get(connect, y, a,
+        return getOrInsertByID (connect, y, a,
                                 _title, _title_wikilink,
                                 p, src);
-        if(null == quot_ref)
-            quot_ref = insertByID (connect, y, a,
-                                _title, _title_wikilink,
-                                p, src);
-        return quot_ref;
     }
 
     public static TQuotRef getOrInsertWithYears (Connect connect,String page_title,
@@ -453,13 +455,46 @@ public class TQuotRef {
         TQuotSource src = TQuotSource.getOrInsert(connect, _source);
         TQuotYear y = TQuotYear.getOrInsert(connect, _from, _to, page_title);
 
+        return getOrInsertByID (connect, y, a,
+                                _title, _title_wikilink,
+                                p, src);
+    }
+
+    /** Gets record from the lookup cache (see Connect.openLookupCache())
+     * or from the table 'quot_ref', inserts record (if it is absent).
+     */
+    private static TQuotRef getOrInsertByID (Connect connect,
+                                TQuotYear y, TQuotAuthor a,
+                                String _title, String _title_wikilink,
+                                TQuotPublisher p, TQuotSource src)
+    {
+        LookupCache cache = connect.getLookupCache();
+        List<Object> key = null;
+        if(null != cache) {
+            key = Arrays.<Object>asList((null == y) ? 0 : y.getID(),
+                                        (null == a) ? 0 : a.getID(),
+                                        _title, _title_wikilink,
+                                        (null == p) ? 0 : p.getID(),
+                                        (null == src) ? 0 : src.getID());
+            TQuotRef quot_ref = cache.get("quot_ref", key);
+            if(null != quot_ref)
+                return quot_ref;
+        }
+
         TQuotRef quot_ref = TQuotRef.get(connect, y, a,
                                 _title, _title_wikilink,
                                 p, src);
-        if(null == quot_ref)
+        if(null == quot_ref) {
             quot_ref = insertByID (connect, y, a,
                                 _title, _title_wikilink,
                                 p, src);
+            if(null == quot_ref)    // it is inserted by other shard process (INSERT IGNORE)
+                quot_ref = TQuotRef.get(connect, y, a,
+                                _title, _title_wikilink,
+                                p, src);
+        }
+        if(null != cache)
+            cache.put("quot_ref", key, quot_ref);
         return quot_ref;
     }
 
@@ -481,6 +516,10 @@ public class TQuotRef {
         } catch(SQLException ex) {
             System.out.println("SQLException (TQuotRef.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+
+        LookupCache cache = connect.getLookupCache();
+        if(null != cache)
+            cache.clear("quot_ref");    // the key contains IDs of the referred records
     }
 
 }
@@ -11,6 +11,8 @@ import java.sql.*;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikipedia.sql.LookupCache;
+import wikokit.base.wikt.util.ParseMetrics;
 
 /** Source of quotation and
  * operations with the table 'quot_source' in MySQL Wiktionary parsed database.
@@ -44,7 +46,7 @@ public class TQuotSource {
     }
 
     /** Inserts record into the table 'quot_source'.<br><br>
-     * INSERT INTO quot_source (text) VALUES ("Lib");
+     * INSERT IGNORE INTO quot_source (text) VALUES ("Lib");
      *
      * @param _text name of the source, it is not empty or NULL
      * @return inserted record, or null if insertion failed
@@ -57,7 +59,7 @@ public class TQuotSource {
         }
         StringBuilder str_sql = new StringBuilder();
         String safe_text = PageTableBase.convertToSafeStringEncodeToDBWunderscore(connect, _text);
-        str_sql.append("INSERT INTO quot_source (text) VALUES (\"");
+        str_sql.append("INSERT IGNORE INTO quot_source (text) VALUES (\"");
         str_sql.append(safe_text);
         str_sql.append("\")");
         TQuotSource result = null;
@@ -65,7 +67,10 @@ public class TQuotSource {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                int n = s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.quot_source", n);
+                if(0 == n)
+                    return null;    // the row exists (unique key), see getOrInsert()
             } finally {
                 s.close();
             }
@@ -135,9 +140,21 @@ public class TQuotSource {
         if(null == _source || 0 == _source.length())
             return null;
 
-        TQuotSource s = TQuotSource.get(connect, _source);
-        if(null == s)
-            s = TQuotSource.insert(connect, _source);
+        LookupCache cache = connect.getLookupCache();
+        TQuotSource s = null;
+        if(null != cache)
+            s = cache.get("quot_source", _source);
+
+        if(null == s) {
+            s = TQuotSource.get(connect, _source);
+            if(null == s) {
+                s = TQuotSource.insert(connect, _source);
+                if(null == s)   // it is inserted by other shard process (INSERT IGNORE)
+                    s = TQuotSource.get(connect, _source);
+            }
+            if(null != cache)
+                cache.put("quot_source", _source, s);
+        }
         return s;
     }
 
@@ -194,6 +211,10 @@ public class TQuotSource {
         } catch(SQLException ex) {
             System.out.println("SQLException (TQuotSource.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+
+        LookupCache cache = connect.getLookupCache();
+        if(null != cache)
+            cache.remove("quot_source", text);
     }
 
 }
@@ -12,6 +12,7 @@ import java.sql.*;
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.util.ParseMetrics;
 
 /** Operations with the table 'quot_transcription' in MySQL Wiktionary parsed database. */
 public class TQuotTranscription {
@@ -61,7 +62,7 @@ public class TQuotTranscription {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.quot_transcription", s.executeUpdate (str_sql.toString()));
             } finally {
                 s.close();
             }
@@ -12,6 +12,7 @@ import java.sql.*;
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.util.ParseMetrics;
 
 /** Operations with the table 'quot_translation' in MySQL Wiktionary parsed database. */
 public class TQuotTranslation {
@@ -60,7 +61,7 @@ public class TQuotTranslation {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.quot_translation", s.executeUpdate (str_sql.toString()));
             } finally {
                 s.close();
             }
@@ -8,7 +8,11 @@
 package wikokit.base.wikt.sql.quote;
 
 import java.sql.*;
+import java.util.Arrays;
+import java.util.List;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.LookupCache;
+import wikokit.base.wikt.util.ParseMetrics;
 
 /** Year of quotation and
  * operations with the table 'quot_year' in MySQL Wiktionary parsed database. */
@@ -55,7 +59,7 @@ public class TQuotYear {
 
 
     /** Inserts record into the table 'quot_year'.<br><br>
-     * INSERT INTO quot_year (`from`,`to`) VALUES (1956,1956);
+     * INSERT IGNORE INTO quot_year (`from`,`to`) VALUES (1956,1956);
      *
      * @param _from start date of a writing book with the quote
      * @param _to finish date of a writing book with the quote
@@ -66,7 +70,7 @@ public class TQuotYear {
     }
 
     /** Inserts record into the table 'quot_year'.<br><br>
-     * INSERT INTO quot_year (`from`,`to`) VALUES (1956,1988);
+     * INSERT IGNORE INTO quot_year (`from`,`to`) VALUES (1956,1988);
      *
      * @param _from start date of a writing book with the quote
      * @param _to finish date of a writing book with the quote
@@ -82,7 +86,7 @@ public class TQuotYear {
             return null;
         }
         StringBuilder str_sql = new StringBuilder();
-        str_sql.append("INSERT INTO quot_year (`from`,`to`) VALUES (");
+        str_sql.append("INSERT IGNORE INTO quot_year (`from`,`to`) VALUES (");
         str_sql.append(_from);
         str_sql.append(",");
         str_sql.append(_to);
@@ -92,7 +96,10 @@ public class TQuotYear {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                int n = s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.quot_year", n);
+                if(0 == n)
+                    return null;    // the row exists (unique key), see getOrInsert()
             } finally {
                 s.close();
             }
@@ -217,9 +224,24 @@ public class TQuotYear {
             return null;
         }
         
-        TQuotYear y = TQuotYear.get(connect, _from, _to, page_title);
-        if(null == y)
-            y = TQuotYear.insert(connect, _from, _to);
+        LookupCache cache = connect.getLookupCache();
+        List<Integer> key = null;
+        TQuotYear y = null;
+        if(null != cache) {
+            key = Arrays.asList(_from, _to);
+            y = cache.get("quot_year", key);
+        }
+
+        if(null == y) {
+            y = TQuotYear.get(connect, _from, _to, page_title);
+            if(null == y) {
+                y = TQuotYear.insert(connect, _from, _to);
+                if(null == y)   // it is inserted by other shard process (INSERT IGNORE)
+                    y = TQuotYear.get(connect, _from, _to, page_title);
+            }
+            if(null != cache)
+                cache.put("quot_year", key, y);
+        }
         return y;
     }
 
@@ -241,6 +263,10 @@ public class TQuotYear {
         } catch(SQLException ex) {
             System.out.println("SQLException (TQuotYear.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+
+        LookupCache cache = connect.getLookupCache();
+        if(null != cache)
+            cache.remove("quot_year", Arrays.asList(from, to));
     }
 
 
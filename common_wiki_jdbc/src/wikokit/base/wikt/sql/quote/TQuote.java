@@ -13,6 +13,7 @@ import wikokit.base.wikipedia.language.Encodings;
 
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikt.sql.TLang;
 import wikokit.base.wikt.sql.TMeaning;
 import wikokit.base.wikt.word.WQuote;
@@ -177,7 +178,7 @@ public class TQuote {
         {
             Statement s = connect.conn.createStatement ();
             try {
-                s.executeUpdate (str_sql.toString());
+                ParseMetrics.count("rows.quote", s.executeUpdate (str_sql.toString()));
             } finally {
                 s.close();
             }
@@ -428,4 +429,44 @@ public class TQuote {
             System.out.println("SQLException (TQuote.delete()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
     }
+
+    /** Deletes rows from the tables 'quot_translation', 'quot_transcription'
+     * and 'quote' by the meaning_id. The references (quot_ref) are kept,
+     * since they could be shared by quotes of other meanings.<br><br>
+     * DELETE FROM quot_translation WHERE quote_id IN (SELECT id FROM quote WHERE meaning_id=3);
+     * DELETE FROM quot_transcription WHERE quote_id IN (SELECT id FROM quote WHERE meaning_id=3);
+     * DELETE FROM quote WHERE meaning_id=3;
+     */
+    public static void deleteByMeaning (Connect connect,TMeaning meaning) {
+
+        if(null == meaning) {
+            System.out.println("Error (wikt_parsed TQuote.deleteByMeaning()):: null argument: meaning.");
+            return;
+        }
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            Statement s = connect.conn.createStatement ();
+            try {
+                str_sql.append("DELETE FROM quot_translation WHERE quote_id IN (SELECT id FROM quote WHERE meaning_id=");
+                str_sql.append(meaning.getID());
+                str_sql.append(")");
+                s.execute (str_sql.toString());
+
+                str_sql.setLength(0);
+                str_sql.append("DELETE FROM quot_transcription WHERE quote_id IN (SELECT id FROM quote WHERE meaning_id=");
+                str_sql.append(meaning.getID());
+                str_sql.append(")");
+                s.execute (str_sql.toString());
+
+                str_sql.setLength(0);
+                str_sql.append("DELETE FROM quote WHERE meaning_id=");
+                str_sql.append(meaning.getID());
+                s.execute (str_sql.toString());
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (TQuote.deleteByMeaning()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+    }
 }
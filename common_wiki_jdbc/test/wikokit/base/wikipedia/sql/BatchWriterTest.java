@@ -0,0 +1,139 @@
+package wikokit.base.wikipedia.sql;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BatchWriterTest {
+
+    public Connect      conn;   // SQLite file database, it is written by the batch writer
+    public Connection   reader; // second connection, it sees only committed rows
+    public File         file;
+
+    private final static String SQL_INSERT_PAGE = "INSERT INTO page (page_title) VALUES (?)";
+    private final static String SQL_INSERT_RELATION = "INSERT INTO relation (page_id,text) VALUES (?,?)";
+
+    public BatchWriterTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("batch_writer_test", ".sqlite");
+        Class.forName("org.sqlite.JDBC");
+        conn = new Connect();
+        conn.conn = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+        Statement s = conn.conn.createStatement();
+        try {
+            s.execute("CREATE TABLE page (id INTEGER PRIMARY KEY AUTOINCREMENT, page_title TEXT)");
+            s.execute("CREATE TABLE relation (id INTEGER PRIMARY KEY AUTOINCREMENT, page_id INTEGER, text TEXT)");
+        } finally {
+            s.close();
+        }
+        reader = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        conn.Close();
+        reader.close();
+        file.delete();
+    }
+
+    /** Counts rows which are visible for the second connection. */
+    private int countCommitted(String table) throws SQLException {
+        Statement s = reader.createStatement();
+        try {
+            ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM " + table);
+            rs.next();
+            return rs.getInt(1);
+        } finally {
+            s.close();
+        }
+    }
+
+    /** Stores one page: a row with generated ID and two rows in the batch. */
+    private int storePage(BatchWriter bw, String page_title) throws SQLException {
+        PreparedStatement ps = bw.prepareInsert(SQL_INSERT_PAGE);
+        ps.setString(1, page_title);
+        int page_id = bw.insert("page", ps);
+
+        for(int i=0; i<2; i++) {
+            ps = bw.prepareBatch(SQL_INSERT_RELATION);
+            ps.setInt   (1, page_id);
+            ps.setString(2, page_title + i);
+            bw.addBatch("relation", SQL_INSERT_RELATION);
+        }
+        bw.endPage();
+        return page_id;
+    }
+
+    @Test
+    public void testInsert_ids() throws SQLException {
+        System.out.println("insert_ids");
+        conn.openBatchWriter(2, 3);
+        BatchWriter bw = conn.getBatchWriter();
+        assertNotNull(bw);
+        assertFalse(conn.conn.getAutoCommit());
+
+        assertEquals(1, storePage(bw, "apple"));
+        assertEquals(2, storePage(bw, "pear"));
+        assertEquals(3, storePage(bw, "plum"));
+        assertEquals(3, bw.getRowCount("page"));
+        assertEquals(6, bw.getRowCount("relation"));
+
+        // the same prepared statement is used for all pages
+        assertSame(bw.prepareInsert(SQL_INSERT_PAGE), bw.prepareInsert(SQL_INSERT_PAGE));
+
+        conn.closeBatchWriter();
+        assertNull(conn.getBatchWriter());
+        assertTrue(conn.conn.getAutoCommit());
+
+        Statement s = conn.conn.createStatement();
+        try {
+            ResultSet rs = s.executeQuery("SELECT page_id, text FROM relation ORDER BY id");
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt("page_id"));
+            assertEquals("apple0", rs.getString("text"));
+            for(int i=0; i<4; i++)
+                assertTrue(rs.next());
+            assertTrue(rs.next());
+            assertEquals(3, rs.getInt("page_id"));
+            assertEquals("plum1", rs.getString("text"));
+            assertFalse(rs.next());
+        } finally {
+            s.close();
+        }
+    }
+
+    @Test
+    public void testEndPage_commit_every_n() throws SQLException {
+        System.out.println("endPage_commit_every_n");
+        conn.openBatchWriter(2, 100);
+        BatchWriter bw = conn.getBatchWriter();
+
+        storePage(bw, "apple");
+        assertEquals(0, countCommitted("page"));
+        assertEquals(0, countCommitted("relation"));
+
+        storePage(bw, "pear");          // 2 pages: batches are executed, the transaction is committed
+        assertEquals(2, countCommitted("page"));
+        assertEquals(4, countCommitted("relation"));
+
+        storePage(bw, "plum");
+        assertEquals(2, countCommitted("page"));
+        assertEquals(4, countCommitted("relation"));
+
+        conn.closeBatchWriter();        // the rest is committed
+        assertEquals(3, countCommitted("page"));
+        assertEquals(6, countCommitted("relation"));
+    }
+}
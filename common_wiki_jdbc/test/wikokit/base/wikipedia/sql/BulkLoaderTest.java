@@ -0,0 +1,178 @@
+
+package wikokit.base.wikipedia.sql;
+
+import wikokit.base.wikipedia.language.LanguageType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BulkLoaderTest {
+
+    public Connect  conn;   // the bulk loader does not need an opened database
+    public File     dir;
+
+    public BulkLoaderTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        conn = new Connect();
+        dir = Files.createTempDirectory("bulk_loader_test").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        conn.closeBulkLoader();
+        File[] files = dir.listFiles();
+        if(null != files)
+            for(File f : files)
+                f.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void testGetIndexName() {
+        System.out.println("getIndexName");
+        assertEquals("idx_text", BulkLoader.getIndexName("INDEX `idx_text` (`text`(12))"));
+        assertEquals("unique_page_lang_pos", BulkLoader.getIndexName(
+                "UNIQUE INDEX `unique_page_lang_pos` (`page_id`,`lang_id`,`pos_id`,`etymology_n`)"));
+    }
+
+    @Test
+    public void testNextID_Dictionary() {
+        System.out.println("nextID_Dictionary");
+        conn.openBulkLoader(dir.getPath());
+        BulkLoader bl = conn.getBulkLoader();
+        assertNotNull(bl);
+
+        bl.addTable("inflection", "freq,inflected_form");
+        assertTrue(bl.hasTable("inflection"));
+        assertEquals(1, bl.nextID("inflection"));
+        assertEquals(2, bl.nextID("inflection"));
+
+        Map<String, Integer> m = bl.getDictionary("inflection");
+        m.put("cats", 1);
+        assertSame(m, bl.getDictionary("inflection"));
+        assertEquals(1, (int)bl.<String, Integer>getDictionary("inflection").get("cats"));
+    }
+
+    @Test
+    public void testWriteRow_MySQL() throws IOException {
+        System.out.println("writeRow_MySQL");
+        conn.openBulkLoader(dir.getPath());
+        BulkLoader bl = conn.getBulkLoader();
+
+        bl.addTable("wiki_text", "text,wikified_text", "INDEX `idx_text` (`text`(12))");
+        bl.writeRow("wiki_text", bl.nextID("wiki_text"), "a\tb\\c\nd", null);
+        bl.writeRow("wiki_text", bl.nextID("wiki_text"), "apple", "[[apple]]");
+        assertEquals(2, bl.getRowCount("wiki_text"));
+        conn.closeBulkLoader();
+
+        List<String> rows = Files.readAllLines(new File(dir, "wiki_text.tsv").toPath());
+        assertEquals(2, rows.size());
+        assertEquals("1\ta\\tb\\\\c\\nd\t\\N", rows.get(0));
+        assertEquals("2\tapple\t[[apple]]", rows.get(1));
+
+        String script = new String(Files.readAllBytes(new File(dir, "load.sql").toPath()), "UTF-8");
+        assertTrue(script.contains("DROP INDEX `idx_text`"));
+        assertTrue(script.contains("INTO TABLE `wiki_text` CHARACTER SET latin1 (id,text,wikified_text);"));
+        assertTrue(script.contains("ADD INDEX `idx_text` (`text`(12));"));
+        assertTrue(script.contains("AUTO_INCREMENT=3;"));
+    }
+
+    /** NULL is written as the marker, empty strings and strings which start
+     * with backslash are restored by the script after .import (the import
+     * is done by INSERT of the dequoted values of the CSV file). */
+    @Test
+    public void testWriteRow_SQLite() throws IOException, SQLException {
+        System.out.println("writeRow_SQLite");
+
+        String db = "bulk_loader_test.sqlite";
+        File sqlite_dir = new File("sqlite");  // Connect.OpenSQLite() opens files in the directory "sqlite"
+        boolean b_dir_created = sqlite_dir.mkdir();
+        conn.OpenSQLite(db, LanguageType.ru, false);
+        try {
+            conn.openBulkLoader(dir.getPath());
+            BulkLoader bl = conn.getBulkLoader();
+
+            bl.addTable("wiki_text", "text,wikified_text");
+            bl.writeRow("wiki_text", bl.nextID("wiki_text"), "", null);
+            bl.writeRow("wiki_text", bl.nextID("wiki_text"), "\\N", "a \"b\"");
+            bl.writeRow("wiki_text", bl.nextID("wiki_text"), "\\\\x", "");
+            conn.closeBulkLoader();
+
+            List<String> rows = Files.readAllLines(new File(dir, "wiki_text.csv").toPath());
+            assertEquals(3, rows.size());
+            assertEquals("1,\"\",\\N", rows.get(0));
+            assertEquals("2,\"\\\\N\",\"a \"\"b\"\"\"", rows.get(1));
+            assertEquals("3,\"\\\\\\x\",\"\"", rows.get(2));
+
+            Statement s = conn.conn.createStatement();
+            try {
+                s.execute("CREATE TABLE wiki_text (id INTEGER PRIMARY KEY, text TEXT, wikified_text TEXT)");
+                s.execute("INSERT INTO wiki_text VALUES (1,'','\\N')");
+                s.execute("INSERT INTO wiki_text VALUES (2,'\\\\N','a \"b\"')");
+                s.execute("INSERT INTO wiki_text VALUES (3,'\\\\\\x','')");
+
+                int n_update = 0;
+                for(String line : Files.readAllLines(new File(dir, "load.sqlite").toPath()))
+                    if(line.startsWith("UPDATE ")) {
+                        s.executeUpdate(line);
+                        n_update ++;
+                    }
+                assertEquals(2, n_update);
+
+                ResultSet rs = s.executeQuery("SELECT text,wikified_text FROM wiki_text ORDER BY id");
+                try {
+                    assertTrue(rs.next());
+                    assertEquals("", rs.getString(1));
+                    assertNull(rs.getString(2));
+                    assertTrue(rs.next());
+                    assertEquals("\\N", rs.getString(1));
+                    assertEquals("a \"b\"", rs.getString(2));
+                    assertTrue(rs.next());
+                    assertEquals("\\\\x", rs.getString(1));
+                    assertEquals("", rs.getString(2));
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } finally {
+            conn.Close();
+            new File(sqlite_dir, db).delete();
+            if(b_dir_created)
+                sqlite_dir.delete();
+        }
+    }
+
+    @Test
+    public void testSetRowSource() throws IOException {
+        System.out.println("setRowSource");
+        conn.openBulkLoader(dir.getPath());
+        BulkLoader bl = conn.getBulkLoader();
+
+        bl.addTable("page", "page_title,is_in_wiktionary");
+        final Map<String, Object[]> rows = bl.getDictionary("page");
+        bl.setRowSource("page", rows.values());
+
+        rows.put("apple", new Object[] {bl.nextID("page"), "apple", false});
+        rows.get("apple")[2] = true;    // is updated before close
+        conn.closeBulkLoader();
+
+        List<String> lines = Files.readAllLines(new File(dir, "page.tsv").toPath());
+        assertEquals(1, lines.size());
+        assertEquals("1\tapple\t1", lines.get(0));
+    }
+}
@@ -0,0 +1,132 @@
+package wikokit.base.wikipedia.sql;
+
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ConnectPoolTest {
+
+    public ConnectPool  pool;   // in-memory SQLite databases
+
+    public ConnectPoolTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+        List<Connect> all = new ArrayList<Connect>();
+        for(int i=0; i<3; i++) {
+            Connect c = new Connect();
+            c.conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+            all.add(c);
+        }
+        pool = new ConnectPool(all);
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void testLeaseRelease() {
+        System.out.println("leaseRelease");
+        assertEquals(3, pool.size());
+
+        Set<Connect> leased = new HashSet<Connect>();
+        for(int i=0; i<3; i++)
+            leased.add(pool.lease());
+        assertEquals(3, leased.size());
+        assertEquals(0, pool.getIdleNumber());
+
+        for(Connect c : leased)
+            pool.release(c);
+        pool.release(null);
+        assertEquals(3, pool.getIdleNumber());
+    }
+
+    @Test
+    public void testRelease_wrong() throws Exception {
+        System.out.println("release_wrong");
+
+        Connect c = pool.lease();
+        pool.release(c);
+        try {
+            pool.release(c);                    // twice
+            fail();
+        } catch(IllegalArgumentException ex) {
+        }
+
+        c = pool.lease();
+        Connect other = new Connect();
+        other.conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try {
+            pool.release(other);                // not from this pool
+            fail();
+        } catch(IllegalArgumentException ex) {
+        } finally {
+            other.Close();
+        }
+        assertEquals(2, pool.getIdleNumber());
+        pool.release(c);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConnectPool_empty() {
+        System.out.println("ConnectPool_empty");
+        new ConnectPool(new ArrayList<Connect>());
+    }
+
+    @Test
+    public void testLease_threads() throws Exception {
+        System.out.println("lease_threads");
+        final AtomicInteger n_errors = new AtomicInteger();
+        final Set<Connect> in_use = new HashSet<Connect>();
+
+        Thread[] threads = new Thread[8];
+        for(int t=0; t<threads.length; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for(int i=0; i<200; i++) {
+                        Connect c = pool.lease();
+                        try {
+                            synchronized(in_use) {
+                                if(!in_use.add(c))      // leased by two threads
+                                    n_errors.incrementAndGet();
+                            }
+                            java.sql.PreparedStatement ps = c.prepare("SELECT ?");
+                            ps.setInt(1, i);
+                            java.sql.ResultSet rs = ps.executeQuery();
+                            try {
+                                if(!rs.next() || i != rs.getInt(1))
+                                    n_errors.incrementAndGet();
+                            } finally {
+                                rs.close();
+                            }
+                            synchronized(in_use) {
+                                in_use.remove(c);
+                            }
+                        } catch(java.sql.SQLException ex) {
+                            n_errors.incrementAndGet();
+                        } finally {
+                            pool.release(c);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for(Thread t : threads)
+            t.join();
+
+        assertEquals(0, n_errors.get());
+        assertEquals(3, pool.getIdleNumber());
+    }
+}
@@ -0,0 +1,101 @@
+package wikokit.base.wikipedia.sql;
+
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LookupCacheTest {
+
+    public Connect  conn;   // the lookup cache does not need an opened database
+
+    public LookupCacheTest() {
+    }
+
+    @Before
+    public void setUp() {
+        conn = new Connect();
+    }
+
+    @After
+    public void tearDown() {
+        conn.closeLookupCache();
+    }
+
+    @Test
+    public void testOpenClose() {
+        System.out.println("openClose");
+        assertNull(conn.getLookupCache());
+
+        conn.openLookupCache(10);
+        LookupCache cache = conn.getLookupCache();
+        assertNotNull(cache);
+
+        conn.openLookupCache(20);       // the opened cache is kept
+        assertSame(cache, conn.getLookupCache());
+
+        conn.closeLookupCache();
+        assertNull(conn.getLookupCache());
+    }
+
+    @Test
+    public void testGetPut_HitRate() {
+        System.out.println("getPut_HitRate");
+        conn.openLookupCache(10);
+        LookupCache cache = conn.getLookupCache();
+
+        assertNull(cache.get("inflection", "cats"));
+        cache.put("inflection", "cats", 7);
+        cache.put("inflection", "dogs", null);   // null is not stored
+        assertEquals(Integer.valueOf(7), cache.<Integer>get("inflection", "cats"));
+        assertEquals(Integer.valueOf(7), cache.<Integer>get("inflection", "cats"));
+        assertNull(cache.get("inflection", "dogs"));
+
+        assertEquals(2, cache.getHits("inflection"));
+        assertEquals(2, cache.getMisses("inflection"));
+        assertEquals(0.5f, cache.getHitRate("inflection"), 0.001f);
+        assertEquals(1, cache.size("inflection"));
+
+        // tables are independent, composite keys are lists
+        cache.put("quot_year", Arrays.asList(1830, 1831), "1830-1831");
+        assertEquals("1830-1831", cache.get("quot_year", Arrays.asList(1830, 1831)));
+        assertNull(cache.get("page", "cats"));
+        assertEquals(0f, cache.getHitRate("quot_author"), 0.001f);
+    }
+
+    @Test
+    public void testLRU_Eviction() {
+        System.out.println("LRU_Eviction");
+        conn.openLookupCache(2);
+        LookupCache cache = conn.getLookupCache();
+
+        cache.put("page", "a", 1);
+        cache.put("page", "b", 2);
+        cache.get("page", "a");         // "b" is the least recently used now
+        cache.put("page", "c", 3);
+
+        assertEquals(2, cache.size("page"));
+        assertNull(cache.get("page", "b"));
+        assertNotNull(cache.get("page", "a"));
+        assertNotNull(cache.get("page", "c"));
+    }
+
+    @Test
+    public void testRemoveClear() {
+        System.out.println("removeClear");
+        conn.openLookupCache(10);
+        LookupCache cache = conn.getLookupCache();
+
+        cache.put("quot_source", "Новый мир", 1);
+        cache.put("quot_source", "Знамя", 2);
+        cache.remove("quot_source", "Знамя");
+        assertNull(cache.get("quot_source", "Знамя"));
+        assertEquals(1, cache.size("quot_source"));
+
+        cache.clear("quot_source");
+        assertEquals(0, cache.size("quot_source"));
+        cache.clear("quot_ref");        // absent table
+        cache.remove("quot_ref", "x");
+    }
+}
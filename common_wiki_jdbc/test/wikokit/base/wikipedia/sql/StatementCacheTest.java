@@ -0,0 +1,98 @@
+package wikokit.base.wikipedia.sql;
+
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import wikokit.base.wikt.sql.TPage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StatementCacheTest {
+
+    public Connect  conn;   // in-memory SQLite database
+
+    public StatementCacheTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+        conn = new Connect();
+        conn.conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @After
+    public void tearDown() {
+        conn.Close();
+    }
+
+    @Test
+    public void testPrepare_reuse() throws SQLException {
+        System.out.println("prepare_reuse");
+        StatementCache cache = conn.getStatementCache();
+        assertEquals(0, cache.size());
+
+        PreparedStatement ps1 = conn.prepare("SELECT ?");
+        PreparedStatement ps2 = conn.prepare("SELECT ?");
+        PreparedStatement ps3 = conn.prepare("SELECT ?+1");
+        assertSame(ps1, ps2);
+        assertNotSame(ps1, ps3);
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getPreparedNumber());
+        assertEquals(1, cache.getReusedNumber());
+
+        ps1.setInt(1, 7);
+        ResultSet rs = ps1.executeQuery();
+        try {
+            assertTrue(rs.next());
+            assertEquals(7, rs.getInt(1));
+        } finally {
+            rs.close();
+        }
+    }
+
+    @Test
+    public void testPrepare_reopened_connection() throws SQLException {
+        System.out.println("prepare_reopened_connection");
+        PreparedStatement ps1 = conn.prepare("SELECT ?");
+
+        conn.conn.close();          // e.g. ReOpen()
+        conn.conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+
+        PreparedStatement ps2 = conn.prepare("SELECT ?");
+        assertNotSame(ps1, ps2);
+        assertSame(conn.conn, ps2.getConnection());
+        assertEquals(1, conn.getStatementCache().size());
+    }
+
+    @Test
+    public void testTPageGet() throws SQLException {
+        System.out.println("TPageGet");
+        Statement s = conn.conn.createStatement();
+        try {
+            s.execute("CREATE TABLE page (id INTEGER PRIMARY KEY, page_title TEXT, word_count INTEGER, wiki_link_count INTEGER, is_in_wiktionary INTEGER, is_redirect INTEGER, redirect_target TEXT)");
+            s.execute("INSERT INTO page VALUES (1, 'apple', 3, 4, 1, 0, NULL)");
+            s.execute("INSERT INTO page VALUES (2, 'test \"quoted\" title', 0, 0, 0, 0, NULL)");
+        } finally {
+            s.close();
+        }
+
+        TPage p = TPage.get(conn, "apple");
+        assertNotNull(p);
+        assertEquals(1, p.getID());
+        assertEquals(3, p.getWordCount());
+        assertNull(TPage.get(conn, "pear"));
+
+        p = TPage.get(conn, "test \"quoted\" title");
+        assertNotNull(p);
+        assertEquals(2, p.getID());
+
+        // one statement is prepared for all calls
+        assertEquals(1, conn.getStatementCache().size());
+        assertEquals(2, conn.getStatementCache().getReusedNumber());
+    }
+}
@@ -0,0 +1,179 @@
+package wikokit.base.wikt.api;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.constant.POS;
+import wikokit.base.wikt.constant.Relation;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class WTSnapshotTest {
+
+    public File file;
+    public WTSnapshot snapshot;
+
+    public WTSnapshotTest() {
+    }
+
+    // IDs as in the tables lang, part_of_speech, relation_type
+    private final static int RU = 1, EN = 2, DE = 3;
+    private final static int NOUN = 1, VERB = 2;
+    private final static int SYNONYMS = 1, ANTONYMS = 2;
+
+    /** Small Russian Wiktionary: "дом" (house), "машина" (car), "house", "car", "Haus",
+     * rows are added not in the order of titles, as from the database.
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("wt_snapshot_test", ".snapshot");
+
+        WTSnapshotWriter w = new WTSnapshotWriter(LanguageType.ru, file.getParentFile());
+        w.addLang(RU, "ru");
+        w.addLang(EN, "en");
+        w.addLang(DE, "de");
+        w.addPOS(NOUN, "noun");
+        w.addPOS(VERB, "verb");
+        w.addRelationType(SYNONYMS, "synonyms");
+        w.addRelationType(ANTONYMS, "antonyms");
+
+        w.addPage(10, "машина");
+        w.addPage(11, "дом");
+        w.addPage(12, "house");
+        w.addPage(13, "car");
+        w.addPage(14, "Haus");
+        w.addPage(15, "здание");
+
+        w.addLangPOS(100, 10, RU, NOUN);    // машина
+        w.addLangPOS(101, 11, RU, NOUN);    // дом
+        w.addLangPOS(102, 12, EN, NOUN);    // house
+        w.addLangPOS(103, 12, EN, VERB);    // to house
+        w.addLangPOS(104, 15, RU, NOUN);    // здание
+
+        w.addMeaning(1000, 101, "жилое здание");
+        w.addMeaning(1001, 101, "семья");
+        w.addMeaning(1002, 100, "автомобиль");
+        w.addMeaning(1003, 102, "building");
+        w.addMeaning(1004, 103, "to provide housing");
+        w.addMeaning(1005, 101, null);
+
+        w.addRelation(1000, SYNONYMS, "здание");
+        w.addRelation(1000, SYNONYMS, "строение");
+        w.addRelation(1001, ANTONYMS, "одиночество");
+        w.addRelation(1002, SYNONYMS, "автомобиль");
+
+        w.addTranslation(101, EN, 12);      // дом -> house
+        w.addTranslation(101, DE, 14);      // дом -> Haus
+        w.addTranslation(100, EN, 13);      // машина -> car
+        w.addTranslation(104, EN, 12);      // здание -> house
+        w.addTranslation(102, RU, 11);      // English house -> дом: not a native lang_pos
+
+        w.write(file.getPath());
+        snapshot = WTSnapshot.open(file.getPath());
+    }
+
+    @After
+    public void tearDown() {
+        snapshot = null;
+        file.delete();
+    }
+
+    @Test
+    public void testGetPageIndex() {
+        System.out.println("getPageIndex");
+
+        assertEquals(6, snapshot.getPageCount());
+        assertEquals(LanguageType.ru, snapshot.getNativeLanguage());
+
+        String[] titles = {"Haus", "car", "house", "дом", "здание", "машина"};
+        for(int i=0; i<titles.length; i++) {
+            assertEquals(i, snapshot.getPageIndex(titles[i]));
+            assertEquals(titles[i], snapshot.getPageTitle(i));
+        }
+        assertEquals(-1, snapshot.getPageIndex("до"));
+        assertEquals(-1, snapshot.getPageIndex("дома"));
+        assertEquals(-1, snapshot.getPageIndex(""));
+        assertEquals(-1, snapshot.getPageIndex("😀"));   // surrogate pair
+    }
+
+    @Test
+    public void testGetLangPOS() {
+        System.out.println("getLangPOS");
+
+        int[] lp = snapshot.getLangPOS("house", LanguageType.en);
+        assertEquals(2, lp.length);
+        assertEquals(POS.noun, snapshot.getPOS(lp[0]));
+        assertEquals(POS.verb, snapshot.getPOS(lp[1]));
+        assertEquals("house", snapshot.getPageTitleByLangPOS(lp[0]));
+
+        assertEquals(0, snapshot.getLangPOS("house", LanguageType.ru).length);
+        assertEquals(0, snapshot.getLangPOS("Haus",  LanguageType.de).length);
+    }
+
+    @Test
+    public void testGetDefinitionsByPageLang() {
+        System.out.println("getDefinitionsByPageLang");
+
+        String[] d = snapshot.getDefinitionsByPageLang("дом", LanguageType.ru);
+        assertEquals(2, d.length);
+        assertEquals("жилое здание", d[0]);
+        assertEquals("семья", d[1]);
+
+        d = snapshot.getDefinitionsByPageLang("house", LanguageType.en);
+        assertEquals(2, d.length);
+        assertEquals("building", d[0]);
+        assertEquals("to provide housing", d[1]);
+
+        assertEquals(0, snapshot.getDefinitionsByPageLang("дом", LanguageType.en).length);
+        assertEquals(0, snapshot.getDefinitionsByPageLang("nonexistent", LanguageType.en).length);
+    }
+
+    @Test
+    public void testGetForEachMeaningByPageLang() {
+        System.out.println("getForEachMeaningByPageLang");
+
+        int lp = snapshot.getLangPOS("дом", LanguageType.ru)[0];
+        String[] r = snapshot.getForEachMeaningByPageLang(lp, Relation.synonymy);
+        assertEquals(3, r.length);
+        assertEquals("здание, строение", r[0]);
+        assertEquals("", r[1]);
+        assertEquals("", r[2]);
+
+        r = snapshot.getForEachMeaningByPageLang(lp, Relation.antonymy);
+        assertEquals(3, r.length);
+        assertEquals("одиночество", r[1]);
+
+        assertEquals(0, snapshot.getForEachMeaningByPageLang(lp, Relation.hypernymy).length);
+        assertEquals(3, snapshot.getNumberByPageLang(lp));
+
+        lp = snapshot.getLangPOS("house", LanguageType.en)[0];
+        assertEquals(0, snapshot.getNumberByPageLang(lp));
+    }
+
+    @Test
+    public void testTranslate() {
+        System.out.println("translate");
+
+        String[] t = snapshot.translate(LanguageType.ru, LanguageType.en, "дом");
+        assertEquals(1, t.length);
+        assertEquals("house", t[0]);
+
+        // backward translation and definitions
+        t = snapshot.translate(LanguageType.en, LanguageType.ru, "house");
+        assertEquals(4, t.length);
+        assertEquals("дом",     t[0]);
+        assertEquals("здание",  t[1]);
+        assertEquals("building", t[2]);
+
+        // from foreign into another foreign via native words
+        t = snapshot.translate("en", "de", "house");
+        assertEquals(1, t.length);
+        assertEquals("Haus", t[0]);
+
+        assertEquals(0, snapshot.translate(LanguageType.ru, LanguageType.ru, "дом").length);
+        assertEquals(0, snapshot.translate("ru", "unknown_code", "дом").length);
+    }
+}
@@ -0,0 +1,153 @@
+package wikokit.base.wikt.sql;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class WordPairFileTest {
+
+    public File file;
+
+    public WordPairFileTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("word_pair_file_test", ".wpr");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testAdd() throws IOException {
+        System.out.println("add");
+        WordPairFile wpf = new WordPairFile(file.getPath());
+
+        assertTrue (wpf.add("car", "automobile", 1));
+        assertTrue (wpf.add("car", "vehicle",    2));
+        assertFalse(wpf.add("car", "automobile", 3));   // duplicate pair
+        assertTrue (wpf.add("automobile", "car", 1));   // reverse pair is another pair
+        wpf.close();
+
+        assertEquals(3, wpf.getVertexCount());
+        assertEquals(3, wpf.getEdgeCount());
+
+        // the end of the file: END, number of words, number of edges
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            assertEquals(WordPairFile.FILE_MAGIC, in.readInt());
+            in.skipBytes((int)file.length() - 4 - 9);
+            assertEquals(WordPairFile.END, in.readByte());
+            assertEquals(3, in.readInt());
+            assertEquals(3, in.readInt());
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testReadPairs() throws IOException {
+        System.out.println("readPairs");
+        WordPairFile wpf = new WordPairFile(file.getPath());
+        wpf.add("car", "automobile", 1);
+        wpf.add("car", "vehicle",    2);
+        wpf.add("car", "automobile", 1);
+        wpf.add("дом", "здание",     1);
+        wpf.close();
+
+        Map<String,List<String>> m = WordPairFile.readPairs(file.getPath());
+        assertEquals(2, m.size());
+
+        List<String> car = m.get("car");
+        assertEquals(2, car.size());
+        assertEquals("automobile",  car.get(0));
+        assertEquals("vehicle",     car.get(1));
+        assertEquals("здание",      m.get("дом").get(0));
+    }
+
+    /** The map filled by TRelation.exportWordPairs() is the same as the
+     * result of TRelation.getAllWordPairs() and the pairs of the file. */
+    @Test
+    public void testExportWordPairs() throws IOException, SQLException {
+        System.out.println("exportWordPairs");
+
+        String db = "word_pair_file_test.sqlite";
+        File dir = new File("sqlite");     // Connect.OpenSQLite() opens files in the directory "sqlite"
+        boolean b_dir_created = dir.mkdir();
+        Connect conn = new Connect();
+        conn.OpenSQLite(db, LanguageType.ru, false);
+        try {
+            Statement s = conn.conn.createStatement();
+            try {
+                s.execute("CREATE TABLE page (id INTEGER PRIMARY KEY, page_title TEXT)");
+                s.execute("CREATE TABLE lang_pos (id INTEGER PRIMARY KEY, page_id INTEGER)");
+                s.execute("CREATE TABLE meaning (id INTEGER PRIMARY KEY, lang_pos_id INTEGER)");
+                s.execute("CREATE TABLE relation (id INTEGER PRIMARY KEY, meaning_id INTEGER, wiki_text_id INTEGER, relation_type_id INTEGER)");
+                s.execute("CREATE TABLE wiki_text_words (id INTEGER PRIMARY KEY, wiki_text_id INTEGER, page_id INTEGER)");
+
+                String[] titles = {"car", "automobile", "vehicle", "дом", "здание"};
+                for(int i=0; i<titles.length; i++)
+                    s.execute("INSERT INTO page VALUES (" + (i+1) + ",'" + titles[i] + "')");
+                s.execute("INSERT INTO lang_pos VALUES (1,1)");     // car
+                s.execute("INSERT INTO lang_pos VALUES (2,4)");     // дом
+                s.execute("INSERT INTO meaning VALUES (1,1)");
+                s.execute("INSERT INTO meaning VALUES (2,1)");
+                s.execute("INSERT INTO meaning VALUES (3,2)");
+
+                // wiki_text -> the first wikified word
+                s.execute("INSERT INTO wiki_text_words VALUES (1,10,2)");   // automobile
+                s.execute("INSERT INTO wiki_text_words VALUES (2,10,3)");
+                s.execute("INSERT INTO wiki_text_words VALUES (3,11,3)");   // vehicle
+                s.execute("INSERT INTO wiki_text_words VALUES (4,12,5)");   // здание
+
+                s.execute("INSERT INTO relation VALUES (1,1,10,1)");    // car -> automobile
+                s.execute("INSERT INTO relation VALUES (2,1,11,2)");    // car -> vehicle
+                s.execute("INSERT INTO relation VALUES (3,2,10,1)");    // car -> automobile, duplicate
+                s.execute("INSERT INTO relation VALUES (4,3,12,1)");    // дом -> здание
+                s.execute("INSERT INTO relation VALUES (5,3,99,1)");    // without wikified word
+            } finally {
+                s.close();
+            }
+
+            Map<String,List<String>> m_words = new HashMap<String,List<String>>();
+            assertEquals(3, TRelation.exportWordPairs(conn, file.getPath(), m_words));
+            assertEquals(2, m_words.size());
+            assertEquals(2, m_words.get("car").size());
+            assertEquals("здание", m_words.get("дом").get(0));
+
+            assertEquals(TRelation.getAllWordPairs(conn), m_words);
+            assertEquals(WordPairFile.readPairs(file.getPath()), m_words);
+        } finally {
+            conn.Close();
+            new File(dir, db).delete();
+            if(b_dir_created)
+                dir.delete();
+        }
+    }
+
+    @Test
+    public void testReadPairs_empty() throws IOException {
+        System.out.println("readPairs_empty");
+        WordPairFile wpf = new WordPairFile(file.getPath());
+        wpf.close();
+
+        assertEquals(0, wpf.getEdgeCount());
+        assertTrue(WordPairFile.readPairs(file.getPath()).isEmpty());
+    }
+}
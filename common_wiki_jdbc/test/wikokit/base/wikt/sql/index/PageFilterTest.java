@@ -0,0 +1,94 @@
+package wikokit.base.wikt.sql.index;
+
+import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+
+import java.sql.DriverManager;
+import java.sql.Statement;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PageFilterTest {
+
+    public PageFilterTest() {
+    }
+
+    @Test
+    public void testGetLangMask() {
+        System.out.println("getLangMask");
+
+        TLang ru = new TLang(1,  LanguageType.ru, 0, 0);
+        TLang en = new TLang(2,  LanguageType.en, 0, 0);
+        TLang fr = new TLang(64, LanguageType.fr, 0, 0);   // the same bit as ru
+
+        assertEquals(0L, PageFilter.getLangMask(new TLang[0]));
+        assertEquals(6L, PageFilter.getLangMask(new TLang[] {ru, en}));
+        assertEquals(PageFilter.getLangBit(1), PageFilter.getLangMask(new TLang[] {fr}));
+        assertTrue(PageFilter.getLangBit(62) > 0);                 // sign bit is not used
+        assertEquals(1L, PageFilter.getLangBit(63));
+    }
+
+    @Test
+    public void testAppendWhere() {
+        System.out.println("appendWhere");
+
+        StringBuilder s = new StringBuilder();
+        PageFilter.appendWhere(s, false, new TLang[0], false, false);
+        assertEquals("", s.toString());
+
+        PageFilter.appendWhere(s, true, new TLang[0], true, true);
+        assertEquals(" AND f.is_redirect=0 AND f.has_definition=1 AND f.has_relation=1", s.toString());
+
+        s.setLength(0);
+        TLang ru = new TLang(1, LanguageType.ru, 0, 0);
+        TLang en = new TLang(2, LanguageType.en, 0, 0);
+        PageFilter.appendWhere(s, false, new TLang[] {ru, null, en}, false, false);
+        assertEquals(" AND (f.lang_mask & 6)<>0 AND EXISTS (SELECT 1 FROM lang_pos lp " +
+                     "WHERE lp.page_id=f.page_id AND lp.lang_id IN (1,2))", s.toString());
+
+        s.setLength(0);
+        PageFilter.appendWhere(s, false, new TLang[] {null}, false, false);
+        assertEquals(" AND 1=0", s.toString());
+    }
+
+    @Test
+    public void testExists() throws Exception {
+        System.out.println("exists");
+        Class.forName("org.sqlite.JDBC");
+        Connect conn = new Connect();
+        conn.conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try {
+            assertFalse(PageFilter.exists(conn));   // old database
+
+            Statement s = conn.conn.createStatement();
+            try {
+                s.execute("CREATE TABLE page_filter (page_id INTEGER PRIMARY KEY, page_title TEXT, is_redirect INTEGER, " +
+                          "has_definition INTEGER, has_relation INTEGER, lang_mask INTEGER)");
+                conn.setPageFilterExists(null);         // the table is changed outside of PageFilter
+                assertFalse(PageFilter.exists(conn));   // generated before the load script
+
+                s.execute("INSERT INTO page_filter VALUES (1, 'apple', 0, 1, 0, 2)");
+                assertFalse(PageFilter.exists(conn));   // cached
+                conn.setPageFilterExists(null);
+                assertTrue(PageFilter.exists(conn));
+
+                s.execute("DROP TABLE page_filter");
+                assertTrue(PageFilter.exists(conn));    // cached
+                conn.setPageFilterExists(null);
+                assertFalse(PageFilter.exists(conn));
+
+                s.execute("CREATE TABLE page_filter (page_id INTEGER PRIMARY KEY)");
+                s.execute("INSERT INTO page_filter VALUES (1)");
+                PageFilter.drop(conn);
+                assertFalse(PageFilter.exists(conn));
+                conn.setPageFilterExists(null);
+                assertFalse(PageFilter.exists(conn));
+            } finally {
+                s.close();
+            }
+        } finally {
+            conn.Close();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package wikokit.base.wikt.sql.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TitleTrieTest {
+
+    public TitleTrie trie;
+
+    public TitleTrieTest() {
+    }
+
+    private final static int EN = 2;
+
+    @Before
+    public void setUp() {
+        TitleTrie.Builder b = new TitleTrie.Builder();
+        b.add("самолёт",   TitleTrie.PAGE, 10);
+        b.add("самокат",   TitleTrie.PAGE, 11);
+        b.add("сам",       TitleTrie.PAGE, 12);
+        b.add("Самара",    TitleTrie.PAGE, 13);
+        b.add("кот",       TitleTrie.PAGE, 14);
+        b.add("plane",     TitleTrie.PAGE, 15);
+        b.add("plane",     EN, 10);             // index_en: plane -> самолёт
+        b.add("aeroplane", EN, 10);
+        b.add("scooter",   EN, 11);
+        b.add("cat",       EN, 14);
+        b.add("cat",       EN, 0);              // native_page_title is NULL
+        trie = b.build();
+    }
+
+    @Test
+    public void testGetWords_prefix() {
+        System.out.println("getWords_prefix");
+
+        assertEquals(9, trie.getWordCount());
+        assertArrayEquals(new String[] {"сам", "самокат", "самолёт"}, trie.getWords("сам", false, -1));
+        assertArrayEquals(new String[] {"сам", "самокат"}, trie.getWords("сам", false, 2));
+        assertArrayEquals(new String[] {"самолёт"}, trie.getWords("самол", false, 10));
+        assertEquals(0, trie.getWords("самолёты", false, 10).length);
+        assertEquals(0, trie.getWords("сам", false, 0).length);
+        assertEquals(9, trie.getWords("", false, -1).length);
+    }
+
+    @Test
+    public void testGetWords_ignore_case() {
+        System.out.println("getWords_ignore_case");
+
+        assertArrayEquals(new String[] {"Самара"}, trie.getWords("Сам", false, -1));
+        assertArrayEquals(new String[] {"Самара", "сам", "самокат", "самолёт"}, trie.getWords("САМ", true, -1));
+        assertArrayEquals(new String[] {"plane"}, trie.getWords("PLANE", true, -1));
+    }
+
+    @Test
+    public void testGetWords_wildcard() {
+        System.out.println("getWords_wildcard");
+
+        assertArrayEquals(new String[] {"кот", "самокат", "самолёт"}, trie.getWords("*т", false, -1));
+        assertArrayEquals(new String[] {"aeroplane", "plane"}, trie.getWords("%plane", false, -1));
+        assertArrayEquals(new String[] {"кот"}, trie.getWords("?о?", false, -1));
+        assertArrayEquals(new String[] {"cat"}, trie.getWords("c_t", false, -1));
+        assertArrayEquals(new String[] {"самокат", "самолёт"}, trie.getWords("само*т", false, -1));
+        assertArrayEquals(new String[] {"Самара", "самокат"}, trie.getWords("*а*а*", true, -1));
+        assertEquals(0, trie.getWords("?", false, -1).length);
+    }
+
+    /** Gets words which match the pattern with wildcards by the regular expression. */
+    private static String[] getWordsByRegex(TreeSet<String> words, String pattern) {
+        StringBuilder re = new StringBuilder();
+        for(char c : pattern.toCharArray()) {
+            if('*' == c)
+                re.append(".*");
+            else if('?' == c)
+                re.append('.');
+            else
+                re.append(Pattern.quote(String.valueOf(c)));
+        }
+        Pattern p = Pattern.compile(re.toString());
+        List<String> result = new ArrayList<String>();
+        for(String w : words)
+            if(p.matcher(w).matches())
+                result.add(w);
+        return result.toArray(new String[0]);
+    }
+
+    /** Patterns longer than 64 characters (positions of the pattern
+     * take several longs). */
+    @Test
+    public void testGetWords_long_pattern() {
+        System.out.println("getWords_long_pattern");
+
+        Random r = new Random(12);
+        TreeSet<String> words = new TreeSet<String>();
+        TitleTrie.Builder b = new TitleTrie.Builder();
+        String[] prefixes = new String[3];   // long common prefixes
+        for(int i=0; i<prefixes.length; i++) {
+            StringBuilder s = new StringBuilder();
+            for(int k=0; k<60; k++)
+                s.append("ab".charAt(r.nextInt(2)));
+            prefixes[i] = s.toString();
+        }
+        while(words.size() < 300) {
+            StringBuilder s = new StringBuilder(prefixes[r.nextInt(prefixes.length)]);
+            for(int k=r.nextInt(90); k>0; k--)
+                s.append("ab".charAt(r.nextInt(2)));
+            if(words.add(s.toString()))
+                b.add(s.toString(), TitleTrie.PAGE, words.size());
+        }
+        TitleTrie t = b.build();
+
+        String w = words.last();
+        for(String s : words)
+            if(s.length() > w.length())
+                w = s;
+        assertTrue(w.length() > 64);
+        assertArrayEquals(new String[] {w}, t.getWords(w, false, -1));
+        String prefix = prefixes[0] + "abab";
+        String[] expected = getWordsByRegex(words, prefix + "*");
+        assertTrue(expected.length > 1);
+        assertArrayEquals(expected, t.getWords(prefix, false, -1));
+
+        // each pattern is made from a word, '*' could match other words
+        List<String> list = new ArrayList<String>(words);
+        int n_found = 0;
+        for(int i=0; i<200; i++) {
+            StringBuilder s = new StringBuilder(list.get(r.nextInt(list.size())));
+            for(int e=5 + r.nextInt(10); e>0; e--)
+                s.setCharAt(r.nextInt(s.length()), "??*".charAt(r.nextInt(3)));
+            if(s.length() > 70 && r.nextBoolean())
+                s.replace(62 + r.nextInt(8), s.length(), "*");
+            String pattern = s.toString();
+            expected = getWordsByRegex(words, pattern);
+            n_found += expected.length;
+            assertEquals(pattern, Arrays.asList(expected), Arrays.asList(t.getWords(pattern, false, -1)));
+        }
+        assertTrue(n_found > 200);
+    }
+
+    @Test
+    public void testGetPageIDs() {
+        System.out.println("getPageIDs");
+
+        assertArrayEquals(new int[] {15}, trie.getPageIDs("plane", TitleTrie.PAGE));
+        assertArrayEquals(new int[] {10}, trie.getPageIDs("plane", EN));
+        assertArrayEquals(new int[] {14, 0}, trie.getPageIDs("cat", EN));
+        assertEquals(0, trie.getPageIDs("cat", TitleTrie.PAGE).length);
+        assertEquals(0, trie.getPageIDs("dog", EN).length);
+
+        assertTrue (trie.has("сам"));
+        assertFalse(trie.has("са"));
+
+        // sorted: aeroplane cat plane scooter Самара кот сам самокат самолёт
+        assertEquals(0,  trie.getWordNumber("aeroplane"));
+        assertEquals(4,  trie.getWordNumber("Самара"));
+        assertEquals(8,  trie.getWordNumber("самолёт"));
+        assertEquals(-1, trie.getWordNumber("само"));
+        assertArrayEquals(new int[] {5, 7, 8}, trie.getWordNumbers("*т", false, -1));
+    }
+
+    @Test
+    public void testSaveLoad() throws IOException {
+        System.out.println("save_load");
+
+        File file = File.createTempFile("title_trie_test", ".trie");
+        try {
+            trie.save(file.getPath());
+            TitleTrie t = TitleTrie.load(file.getPath());
+
+            assertEquals(trie.getWordCount(),  t.getWordCount());
+            assertEquals(trie.getStateCount(), t.getStateCount());
+            assertArrayEquals(trie.getWords("*", false, -1), t.getWords("*", false, -1));
+            assertArrayEquals(new int[] {14, 0}, t.getPageIDs("cat", EN));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testBuild_empty() {
+        System.out.println("build_empty");
+
+        TitleTrie t = new TitleTrie.Builder().build();
+        assertEquals(0, t.getWordCount());
+        assertEquals(0, t.getWords("*", false, -1).length);
+        assertFalse(t.has(""));
+    }
+}
@@ -136,6 +136,32 @@ public class ArticleIdAndTitle {
         return getArrayFromList_aidcr();
     }
     
+    /** Gets IDs by pages' titles from session.links_graph (if it is loaded)
+     * or from db, see createByTitle(Connect,...).
+     */
+    public static ArticleIdAndTitle[] createByTitle (SessionHolder session, 
+                                            Map<String,Set<String>> m_out,  
+                                            Map<String,Set<String>> m_in, 
+                                            String[] titles)
+    {    
+        if(null == session.links_graph)
+            return createByTitle (session.connect, m_out, m_in, titles);
+        
+        if(null == titles || 0 == titles.length)
+            return NULL_ARTICLEIDANDTITLE_ARRAY;
+        
+        for(String t:titles) {
+            int id = session.links_graph.getIDByTitle(t, PageNamespace.MAIN);
+            if(0 != id) {
+                _aidcr.add(new ArticleIdAndTitle(id, t));
+            } else {
+                StringMap.removeString(t, m_out, m_in);
+            }
+        }
+        
+        return getArrayFromList_aidcr();
+    }
+    
     
     /** Gets titles by pages' ID from db, stores to ArticleIdAndTitle[].
      */
@@ -126,7 +126,7 @@ public class Redirect {
         if(m.containsKey(title_to))
             return m.get(title_to);
         
-        int     id_to = PageTable.getIDByTitle(session.connect, title_to);
+        int     id_to = PageTable.getIDByTitle(session, title_to);
         
         ArticleIdAndTitle a_to = null;
         /*if(session.skipTitle(title_to)) {
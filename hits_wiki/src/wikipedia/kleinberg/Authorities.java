@@ -18,9 +18,11 @@ public class Authorities {
     private DCEL            dcel;
             Article         node;
     public  int             iter;           // number of passed iterations (updated after Iterate)
+    public  int             n_threads;      // number of threads to calculate x and y in Iterate
 
     public Authorities() {
         debug_graphviz = false;
+        n_threads = 1;
         dcel = new DCEL();
         node = new Article();
     }
@@ -36,53 +38,20 @@ public class Authorities {
      *      Normalize y0i , obtaining yi.
      *      End
      *  Return number of passed iteration
+     *
+     *  The iterations are calculated by LinksMatrix in n_threads threads,
+     *  x and y of the nodes are updated.
      */
     public int Iterate(Map<Integer, Article> nodes,float eps_error, SessionHolder session) {
         int             iter;
-        float           links_in_number;
-        Iterator<Article>  it;
-        Article            node = new Article();
-        float[]         total_error;
         
         if (null == nodes)
             return 0;
-        int             n_nodes = nodes.size();
         
-        //node.NormalizeXY(nodes);
-        iter = 0;
-        do {
-            iter ++;
-            it = nodes.values().iterator();
-            while (it.hasNext()) {
-                Article n = it.next();
-                n.CalculateNewX(nodes, n_nodes);
-                n.CalculateNewY(nodes, n_nodes);
-            }
-
-            node.NormalizeNewXNewY(nodes);
-            
-            // get x and y total change (error)
-            total_error = node.UpdateXY(nodes);
-            
-            if (null != session.dump) {                
-                // Print the total error for the current iteration
-                /*
-                session.dump.file.Print("iter:" + iter + 
-                                " total change x:" +  total_error[0] +
-                                             " y:" +                   total_error[1]  +
-                                           " x+y:" + (total_error[0] + total_error[1]) + "\n");
-                session.dump.file.Flush();
-                */
-                /* 
-                // Print the dot file: old
-                session.dump.file.WriteNew(session.dump.path + i + ".dot", session.dump.Dump(nodes), "UTF8");
-                // append dot command to bat file
-                String bat_text = "\ndot.exe -Tjpeg " + session.dump.filename_dot +i+ ".dot -v -o " + session.dump.filename_dot +i+ ".jpeg\n";
-                session.dump.file.Append(session.dump.dir + session.dump.filename_bat, bat_text, "Cp866");
-             */
-            }
-            
-        }while (eps_error < total_error[0] + total_error[1]);
+        // x and y are calculated by the int-indexed link matrix (without
+        // lookup of nodes for every link), see LinksMatrix
+        LinksMatrix matrix = new LinksMatrix(nodes);
+        iter = matrix.iterate(eps_error, n_threads);
         
         if (null != session.dump) {
             String s = StringUtilRegular.encodeRussianToLatinitsa(session.source_page_title, Encodings.enc_java_default, Encodings.enc_int_default);
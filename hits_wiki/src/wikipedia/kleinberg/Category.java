@@ -120,6 +120,20 @@ public class Category extends Node {
         return convertListInteger(l);
     }
     
+    /** Gets IDs of categories by titles from session.links_graph (if it is 
+     * loaded) or from the table page. */
+    public static int[] getIDByTitle(SessionHolder session, List<String> titles) {
+        List<Integer> l = new ArrayList<Integer>();
+        
+        for(String a : titles) {
+            int id = PageTable.getCategoryIDByTitle(session, a);
+            if (0 == id) 
+                continue;
+            l.add(id);
+        }
+        return convertListInteger(l);
+    }
+    
     /** Converts list Integer to array int[]. */
     public static int[] convertListInteger(List<Integer> l) {
         
@@ -154,6 +154,17 @@ public class CategoryBlackList {
     }
     
     
+    /** Gets titles of categories of the page (article or category) with 
+     * id='cl_from' from session.links_graph (if it is loaded) or from the 
+     * table categorylinks.
+     * @return null if there are no categories
+     */
+    public static String[] getCategoryTitles (SessionHolder session,int cl_from) {
+        if(null != session.links_graph)
+            return session.links_graph.getCategoryTitles(cl_from);
+        return Categorylinks.GetCategoryTitleByArticleID(session.connect, cl_from);
+    }
+    
     /** Gets first level categories of the article with id='cl_from'. 
      *
      * !Be careful with session.skipTitlesWithSpaces(), see example in 
@@ -162,12 +173,12 @@ public class CategoryBlackList {
     public static String[] getFirstLevelCategories (SessionHolder session,int cl_from) {
         String[] add = null;
         if(0 < cl_from) {
-            add = Categorylinks.GetCategoryTitleByArticleID(session.connect, cl_from);
+            add = getCategoryTitles(session, cl_from);
         } else {
             // redirect page has negative id
             int cl_2 = Links.getIdToByIDFrom(session, cl_from, PageNamespace.MAIN);
             if(0 != cl_2) {
-                add = Categorylinks.GetCategoryTitleByArticleID(session.connect, cl_2);
+                add = getCategoryTitles(session, cl_2);
             }
         }
         return add;
@@ -182,7 +193,7 @@ public class CategoryBlackList {
         
         if (null == add)
             return NULL_INT_ARRAY;
-        return Category.getIDByTitle(session.connect, Arrays.asList(add));
+        return Category.getIDByTitle(session, Arrays.asList(add));
     }
     
     /** Returns true, if category blacklist already containts title. */
@@ -250,7 +261,7 @@ public class CategoryBlackList {
             if (category_titles_white_list.contains(a))
                 continue;
             
-            int id = PageTable.getCategoryIDByTitle(session.connect, a);
+            int id = PageTable.getCategoryIDByTitle(session, a);
             if (0 == id) 
                 continue;
             
@@ -308,8 +319,6 @@ public class CategoryBlackList {
             return null;
         }
         
-        Connect connect = session.connect;
-        
         //List<Integer>         done_id       = new ArrayList<Integer>();
         List<String>    categories          = new ArrayList<String>();
         List<Integer>   categories_id       = new ArrayList<Integer>();
@@ -330,7 +339,7 @@ public class CategoryBlackList {
                 int page_id = categories_id.remove( 0 );                             // breadth-first search
                 
                 //done_id.add(page_id);
-                String[] add = Categorylinks.GetCategoryTitleByArticleID(connect, page_id);
+                String[] add = getCategoryTitles(session, page_id);
                 if (null == add)
                     continue;
                 
@@ -350,7 +359,7 @@ public class CategoryBlackList {
                         found_in_black_list = true;
                         break CATEGORIES_CYCLE;         // last element of categories contain string from blacklist
                     }
-                    int candidate_id = connect.page_table.getCategoryIDByTitle(connect, latin1);
+                    int candidate_id = PageTable.getCategoryIDByTitle(session, latin1);
                     
                     //if (0 != candidate_id && !done_id.contains(candidate_id) && !categories_id.contains(candidate_id)) {
                     if (0 != candidate_id) {
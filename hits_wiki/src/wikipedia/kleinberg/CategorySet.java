@@ -82,7 +82,7 @@ public class CategorySet {
             
             List<String> titles_level_1_cats = new ArrayList<String>();
             session.category_black_list.inBlackList(id, titles_level_1_cats, session.source_article_id);
-            articles.get(id).id_categories = Category.getIDByTitle(session.connect, titles_level_1_cats);
+            articles.get(id).id_categories = Category.getIDByTitle(session, titles_level_1_cats);
             
             /* todo del
             ArrayList<Integer> first_level_categories = new ArrayList<Integer>();
@@ -88,6 +88,9 @@ public class LinksBaseSet {
      * assert /after drawing this picture, I am Picasso/ that I == II, but II should be faster:
      * I.  Links.getAllLinks(session, map_title_article);
      * II. Links.getAllLinksFromNodes(session, from:base_nodes1);
+     *
+     * Links and categories are taken from session.links_graph, if the file
+     * is loaded by session.loadLinksGraph(), else from the database.
      */
     public static Map<Integer, Article> CreateBaseSet(
             String page_title,List<String> synonyms,
@@ -99,7 +102,7 @@ public class LinksBaseSet {
         // 1.
         //String latin1_article = Encodings.UTF8ToLatin1(page_title);
         //String latin1_article = Encodings.FromTo(page_title, "UTF8", "ISO8859_1");
-        int p = PageTable.getIDByTitle(session.connect, page_title); // latin1_article
+        int p = PageTable.getIDByTitle(session, page_title); // latin1_article
         
         if (p < 0) {
             // redirect
@@ -150,7 +153,7 @@ public class LinksBaseSet {
                 if(!root_titles.contains(s)) {
                     Article a = new Article();
                     a.page_title = s;
-                    a.page_id    = PageTable.getIDByTitle(session.connect, s);
+                    a.page_id    = PageTable.getIDByTitle(session, s);
                     a_rated_synonyms.add(a);
                 }
             }
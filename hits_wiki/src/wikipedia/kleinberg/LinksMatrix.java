@@ -0,0 +1,222 @@
+/*
+ * LinksMatrix.java - Link matrix of the base set in compressed sparse row
+ *                    format for fast calculation of hubs and authorities.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikipedia.kleinberg;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/** Links of the base set (see LinksBaseSet.CreateBaseSet) as int arrays
+ * (compressed sparse row, CSR): nodes are numbered 0..n-1 in the order of
+ * the map 'nodes', links_in of the node i are
+ * in_index[in_start[i]] .. in_index[in_start[i+1]-1], the same for links_out.
+ * x and y weights are float arrays.<br><br>
+ *
+ * The iterations are the same as Authorities.Iterate() with
+ * Article.CalculateNewX() and CalculateNewY(), but without a lookup of
+ * Map&lt;Integer, Article&gt; for every link on every iteration. Sums are
+ * calculated in the same order, so the weights are the same.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * LinksMatrix m = new LinksMatrix(nodes);
+ * int iter = m.iterate(eps_error, n_threads); // x, y are copied to nodes
+ * </PRE>
+ */
+public class LinksMatrix {
+
+    /** Minimal number of nodes per thread, smaller base sets are calculated
+     * in one thread, since the start of threads takes more time. */
+    private final static int MIN_NODES_PER_THREAD = 10000;
+
+    /** Nodes in the order of the map 'nodes'. */
+    private final Article[] articles;
+
+    /** Links to the node i: in_index[in_start[i]] .. in_index[in_start[i+1]-1]. */
+    private final int[] in_start, in_index;
+
+    /** Links from the node i: out_index[out_start[i]] .. out_index[out_start[i+1]-1]. */
+    private final int[] out_start, out_index;
+
+    /** Authority (x) and hub (y) weights of the nodes. */
+    private final float[] x, y, x_new, y_new;
+
+    /** Creates the link matrix by links_in and links_out of the nodes,
+     * initial weights are taken from Article.x and Article.y.
+     * Links to the pages which are absent in 'nodes' are skipped.
+     *
+     * @param nodes map &lt;page_id, article&gt; of the base set
+     */
+    public LinksMatrix(Map<Integer, Article> nodes) {
+
+        int n = nodes.size();
+        articles = nodes.values().toArray(Article.NULL_ARTICLE_ARRAY);
+
+        Map<Integer, Integer> id_to_index = new HashMap<Integer, Integer>(2*n);
+        for(int i=0; i<n; i++)
+            id_to_index.put(articles[i].page_id, i);
+
+        in_start  = new int[n + 1];
+        out_start = new int[n + 1];
+        in_index  = createIndex(articles, id_to_index, true,  in_start);
+        out_index = createIndex(articles, id_to_index, false, out_start);
+
+        x     = new float[n];
+        y     = new float[n];
+        x_new = new float[n];
+        y_new = new float[n];
+        for(int i=0; i<n; i++) {
+            x[i] = articles[i].x;
+            y[i] = articles[i].y;
+        }
+    }
+
+    /** Fills 'start' and returns the array of indexes of linked nodes,
+     * links_in if b_in is true, else links_out. */
+    private static int[] createIndex(Article[] articles, Map<Integer, Integer> id_to_index,
+                                     boolean b_in, int[] start)
+    {
+        int size = 0;
+        for(Article a : articles) {
+            int[] links = b_in ? a.links_in : a.links_out;
+            if(null != links)
+                size += links.length;
+        }
+
+        int[] index = new int[size];
+        int k = 0;
+        for(int i=0; i<articles.length; i++) {
+            start[i] = k;
+            int[] links = b_in ? articles[i].links_in : articles[i].links_out;
+            if(null == links)
+                continue;
+            for(int id : links) {
+                Integer j = id_to_index.get(id);
+                if(null != j)
+                    index[k++] = j;
+            }
+        }
+        start[articles.length] = k;
+        return k == size ? index : Arrays.copyOf(index, k);
+    }
+
+    /** Gets number of nodes. */
+    public int size() {
+        return articles.length;
+    }
+
+    /** Gets number of links. */
+    public int getLinksNumber() {
+        return out_index.length;
+    }
+
+    /** x_new[p] := sum of y[q], for all q pointing to p;
+     *  y_new[p] := sum of x[q], for all q pointed to by p,
+     * for the nodes from..to-1.
+     */
+    private void calculateNewXY(int from, int to) {
+        for(int i=from; i<to; i++) {
+            float sum = 0.f;
+            for(int k=in_start[i]; k<in_start[i+1]; k++)
+                sum += y[ in_index[k] ];
+            x_new[i] = sum;
+
+            sum = 0.f;
+            for(int k=out_start[i]; k<out_start[i+1]; k++)
+                sum += x[ out_index[k] ];
+            y_new[i] = sum;
+        }
+    }
+
+    /** Calculates x_new and y_new by several threads, each thread
+     * calculates its own part of the nodes. */
+    private void calculateNewXY(ExecutorService pool, int n_threads) throws InterruptedException {
+
+        int n = articles.length;
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(n_threads);
+        for(int t=0; t<n_threads; t++) {
+            final int from = (int)((long)n *  t    / n_threads);
+            final int to   = (int)((long)n * (t+1) / n_threads);
+            tasks.add(new Callable<Object>() {
+                public Object call() {
+                    calculateNewXY(from, to);
+                    return null;
+                }
+            });
+        }
+        for(Future<Object> f : pool.invokeAll(tasks)) {
+            try {
+                f.get();
+            } catch(ExecutionException ex) {
+                throw new RuntimeException(ex.getCause());
+            }
+        }
+    }
+
+    /** Calculates hub and authority weights (see Authorities.Iterate()),
+     * iterations are stopped when the total change of x and y is not greater
+     * than eps_error. The weights are copied to Article.x and Article.y
+     * (and x_new, y_new) of the nodes.
+     *
+     * @param eps_error the same as in Authorities.Iterate()
+     * @param n_threads number of threads, 1 - calculate in the current thread
+     * @return number of passed iterations
+     */
+    public int iterate(float eps_error, int n_threads) {
+
+        int n = articles.length;
+        n_threads = Math.max(1, Math.min(n_threads, n / MIN_NODES_PER_THREAD));
+
+        ExecutorService pool = null;
+        if(n_threads > 1)
+            pool = Executors.newFixedThreadPool(n_threads);
+
+        int iter = 0;
+        float error_x, error_y;
+        try {
+            do {
+                iter ++;
+                if(null == pool)
+                    calculateNewXY(0, n);
+                else
+                    calculateNewXY(pool, n_threads);
+
+                // normalize x_new and y_new, get x and y total change (error)
+                float sum_x = 0.f, sum_y = 0.f;
+                for(int i=0; i<n; i++) {
+                    sum_x += x_new[i];
+                    sum_y += y_new[i];
+                }
+
+                error_x = 0.f;
+                error_y = 0.f;
+                for(int i=0; i<n; i++) {
+                    x_new[i] = x_new[i] / sum_x;
+                    y_new[i] = y_new[i] / sum_y;
+                    error_x += Math.abs(x[i] - x_new[i]);
+                    error_y += Math.abs(y[i] - y_new[i]);
+                    x[i] = x_new[i];
+                    y[i] = y_new[i];
+                }
+            } while (eps_error < error_x + error_y);
+        } catch(InterruptedException ex) {
+            System.out.println("Error in LinksMatrix.iterate(): interrupted at iteration " + iter);
+            Thread.currentThread().interrupt();
+        } finally {
+            if(null != pool)
+                pool.shutdown();
+        }
+
+        for(int i=0; i<n; i++) {
+            Article a = articles[i];
+            a.x = a.x_new = x[i];
+            a.y = a.y_new = y[i];
+        }
+        return iter;
+    }
+}
@@ -12,6 +12,8 @@ import wikipedia.sql.*;
 import wikipedia.data.RemovedArticles;
 import wikipedia.util.*;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashMap;
@@ -38,6 +40,10 @@ public class SessionHolder {
     /** ID and titles of removed articles */
     public RemovedArticles      removed_articles;
     
+    /** Links and categories of pages loaded from the file by loadLinksGraph(), 
+     * if it is null then the tables pagelinks, categorylinks are used */
+    public LinksGraph           links_graph;
+    
     public Map<Integer, Category> category_nodes;   /** <page_id of category, category object> */
             
     /** whether to skip articles with more than one word in title 
@@ -81,6 +87,27 @@ public class SessionHolder {
         category_nodes.clear();
     }
     
+    /** Loads links and categories of pages from the file created by 
+     * LinksGraph.save(), then the tables pagelinks and categorylinks are 
+     * not used in this session.
+     * 
+     * @param filename if it is null or empty, then links_graph is null
+     * @return false if the file could not be loaded
+     */
+    public boolean loadLinksGraph(String filename) {
+        links_graph = null;
+        if(null == filename || 0 == filename.length())
+            return true;
+        
+        try {
+            links_graph = LinksGraph.load(new File(filename));
+        } catch(IOException ex) {
+            System.err.println("IOException (SessionHolder.loadLinksGraph()): file='" + filename + "' " + ex.getMessage());
+            return false;
+        }
+        return true;
+    }
+    
     /** Sets value: whether to skip articles with more than one word in title 
      * (titles with spaces or underscore characters) 
      * @return old value
@@ -301,6 +301,9 @@ public class Links {
             PageNamespace namespace,
             int n_limit)
     {   
+        if(null != session.links_graph && PageNamespace.MAIN == namespace)
+            return session.links_graph.getFromByTitleTo(StringUtil.spaceToUnderscore(title_to), n_limit);
+        
         // SELECT page_id, page_title, page_is_redirect FROM page,pagelinks 
         // WHERE page_id=pl_from AND pl_title='Робот' AND pl_namespace = 0 LIMIT 4;
         sb.setLength(0);
@@ -526,7 +529,7 @@ public class Links {
 
         String[] s = Links.getTitleToByIDFrom(session, i, PageNamespace.MAIN);
         if(null != s && 0 < s.length) {
-            return PageTable.getIDByTitleNamespace(session.connect, s[0], namespace);
+            return PageTable.getIDByTitleNamespace(session, s[0], namespace);
         }
         return 0;
     }
@@ -537,8 +540,8 @@ public class Links {
 //static int max_pl_title_len = 0;
     
     
-    /** Selects one pl_title from pagelinks by pl_from. It is needed for 
-     * redirect pages, which links only to one page. 
+    /** Selects one pl_title from pagelinks by pl_from (namespace MAIN). 
+     * It is needed for redirect pages, which links only to one page. 
      * @return null, if (1) it is absent (e.g. it's redirect to category) or 
      *                  (2) title should be skipped
      */
@@ -551,6 +554,13 @@ public class Links {
         if(pl_from < 0)
             pl_from = -pl_from;
         
+        if(null != session.links_graph) {
+            String[] titles = session.links_graph.getTitleToByIDFrom(pl_from);
+            if(0 == titles.length || session.skipTitle(titles[0]))
+                return null;
+            return titles[0];
+        }
+        
         Statement s = null;
         ResultSet rs= null;
         String title = null;
@@ -558,11 +568,13 @@ public class Links {
         sb.setLength(0);
         sb.append("SELECT pl_title FROM pagelinks WHERE pl_from=");
         sb.append(pl_from);
+        sb.append(" AND pl_namespace=");
+        sb.append(PageNamespace.MAIN.toInt());
         sb.append(" LIMIT 1");
         
         try {
             s = session.connect.conn.createStatement();
-            //str_sql = SELECT pl_title FROM pagelinks WHERE pl_from=52141 LIMIT 1;
+            //str_sql = SELECT pl_title FROM pagelinks WHERE pl_from=52141 AND pl_namespace=0 LIMIT 1;
             
             s.executeQuery(sb.toString());
             rs = s.getResultSet();
@@ -612,9 +624,19 @@ public class Links {
             return NULL_STRING_ARRAY;
         }
         
+        List<String> titles = new ArrayList<String>();
+        if(null != session.links_graph && PageNamespace.MAIN == namespace) {
+            for(int id:pl_from) {
+                for(String t:session.links_graph.getTitleToByIDFrom(id)) {
+                    if(!session.skipTitle(t))
+                        titles.add(t);
+                }
+            }
+            return (String[])titles.toArray(NULL_STRING_ARRAY);
+        }
+        
         Statement s = null;
         ResultSet rs= null;
-        List<String> titles = new ArrayList<String>();
         
         sb.setLength(0);
         sb.append("SELECT pl_title FROM pagelinks WHERE pl_from IN (");
@@ -688,6 +710,13 @@ public class Links {
             return NULL_STRING_ARRAY;
         }
         
+        if(null != session.links_graph && PageNamespace.MAIN == namespace) {
+            String[] titles = session.links_graph.getTitleToByIDFrom(pl_from);
+            for(String t:titles)
+                addTitlesToMaps(title_from, t, m_out, m_in);
+            return titles;
+        }
+        
         Statement s = null;
         ResultSet rs= null;
         List<String> titles = new ArrayList<String>();
@@ -832,7 +861,7 @@ public class Links {
         ArticleIdAndTitle[] to__with_blacklist__redirects;
         String[] 
         title_to__with_blacklist__redirects__zero_id = (String[])l.toArray(NULL_STRING_ARRAY);
-              to__with_blacklist__redirects          = ArticleIdAndTitle.createByTitle (session.connect, m_out, m_in, 
+              to__with_blacklist__redirects          = ArticleIdAndTitle.createByTitle (session, m_out, m_in, 
         title_to__with_blacklist__redirects__zero_id);
         
         List<Article> dest_articles = createArticlesResolveRedirects (session, to__with_blacklist__redirects, 
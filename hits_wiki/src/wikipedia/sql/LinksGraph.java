@@ -0,0 +1,575 @@
+/*
+ * LinksGraph.java - In-memory graph of links and categories of wikipedia
+ *                   pages, exported from the tables page, pagelinks and
+ *                   categorylinks.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikipedia.sql;
+
+import wikipedia.language.Encodings;
+import wikipedia.data.ArticleIdAndTitle;
+
+import java.io.*;
+import java.sql.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/** Graph of links of wikipedia articles and categories, which replaces
+ * the SQL queries to the tables page, pagelinks and categorylinks during
+ * the creation of the base set (see LinksBaseSet.CreateBaseSet).<br><br>
+ *
+ * The graph is exported once from the database by createFromDB() and
+ * saved to the file by save() (offline step, see main()), then it is
+ * loaded to SessionHolder.links_graph by SessionHolder.loadLinksGraph().
+ * Links.getTitleToByIDFrom(), getFromByTitleTo(), PageTable.getIDByTitle(),
+ * CategoryBlackList.getCategoryTitles() and others take data from the graph,
+ * if it is not null.<br><br>
+ *
+ * Pages (articles and categories) are numbered in the order of
+ * (namespace, title), links_out, links_in and categories of the page i are
+ * int arrays (compressed sparse row): out[out_start[i]] .. out[out_start[i+1]-1].
+ * Titles of absent pages (red links, categories without the page) are stored
+ * too with page_id=0, as they are returned by SQL queries to pagelinks and
+ * categorylinks.<br><br>
+ *
+ * Only pages of the namespaces MAIN and CATEGORY are exported, links from
+ * pages of other namespaces (e.g. talk pages) are skipped, so
+ * getFromByTitleTo() does not return talk pages, which are returned by SQL.
+ * Links to pages of other namespaces are skipped too, the same as
+ * the SQL queries in Links with pl_namespace=0.
+ *
+ * File format (gzip): version, number of pages, pages (page_id, flags, title),
+ * then links_out, links_in and categories: for each page the number of
+ * links and the increments of sorted page numbers as variable-length ints.
+ */
+public class LinksGraph {
+
+    private final static String[] NULL_STRING_ARRAY = new String[0];
+
+    /** Version of the file format. */
+    private final static int VERSION = 1;
+
+    private final static int FLAG_CATEGORY = 1;
+    private final static int FLAG_REDIRECT = 2;
+
+    /** page_id of the pages, 0 for absent pages. */
+    private int[]       page_id;
+
+    /** FLAG_CATEGORY, FLAG_REDIRECT of the pages. */
+    private byte[]      flags;
+
+    /** Titles of pages as in the table page (with underscores). */
+    private String[]    title;
+
+    /** Map from title of the article (category) to the number of the page. */
+    private Map<String, Integer> article_index, category_index;
+
+    /** Numbers of existing pages sorted by page_id (to find the page by id). */
+    private int[]       id_sorted, id_sorted_page;
+
+    /** Links to articles from the page i: out[out_start[i]] .. out[out_start[i+1]-1]. */
+    private int[]       out_start, out;
+
+    /** Links to the page i: in[in_start[i]] .. in[in_start[i+1]-1]. */
+    private int[]       in_start, in;
+
+    /** Categories of the page i: cat[cat_start[i]] .. cat[cat_start[i+1]-1]. */
+    private int[]       cat_start, cat;
+
+    private LinksGraph() {}
+
+    /** Gets number of pages (including absent pages). */
+    public int getPagesNumber() {
+        return title.length;
+    }
+
+    /** Gets number of links between pages. */
+    public int getLinksNumber() {
+        return out.length;
+    }
+
+    /** Gets number of links from pages to categories. */
+    public int getCategoryLinksNumber() {
+        return cat.length;
+    }
+
+
+    // ********************************************
+    // Queries
+    //
+
+    /** Gets number of the page by page_id (negative id of redirect is allowed).
+     * @return -1 if the page is absent
+     */
+    private int getPageByID(int id) {
+        if(id < 0)
+            id = -id;
+        int i = Arrays.binarySearch(id_sorted, id);
+        return i < 0 ? -1 : id_sorted_page[i];
+    }
+
+    /** Gets number of the page by title.
+     * @return -1 if the page is absent
+     */
+    private int getPageByTitle(String page_title, PageNamespace namespace) {
+        Integer i = null;
+        if(PageNamespace.MAIN == namespace)
+            i = article_index.get(page_title);
+        else if(PageNamespace.CATEGORY == namespace)
+            i = category_index.get(page_title);
+        return null == i ? -1 : i;
+    }
+
+    /** Gets page's id with the sign of redirect as PageTable.getIDByTitleNamespace().
+     * @return -id if article is the redirect page,
+     *          0 if article is absent (or namespace is not MAIN or CATEGORY)
+     */
+    public int getIDByTitle(String page_title, PageNamespace namespace) {
+        int i = getPageByTitle(page_title, namespace);
+        if(-1 == i)
+            return 0;
+        return 0 != (flags[i] & FLAG_REDIRECT) ? -page_id[i] : page_id[i];
+    }
+
+    /** Gets titles of articles (pl_title) linked from the page with id 'pl_from'
+     * (the same as "SELECT pl_title FROM pagelinks WHERE pl_from=id AND pl_namespace=0").
+     * @return empty array if the page is absent or it has no links
+     */
+    public String[] getTitleToByIDFrom(int pl_from) {
+        int i = getPageByID(pl_from);
+        if(-1 == i || out_start[i] == out_start[i+1])
+            return NULL_STRING_ARRAY;
+
+        String[] result = new String[out_start[i+1] - out_start[i]];
+        for(int k=out_start[i]; k<out_start[i+1]; k++)
+            result[k - out_start[i]] = title[ out[k] ];
+        return result;
+    }
+
+    /** Gets pages which link to the article 'title_to', the page id is negative
+     * for redirects (the same as Links.getFromByTitleTo() for MAIN namespace).
+     *
+     * @param n_limit max number of returned pages, -1 means no limit
+     */
+    public ArticleIdAndTitle[] getFromByTitleTo(String title_to, int n_limit) {
+        int i = getPageByTitle(title_to, PageNamespace.MAIN);
+        if(-1 == i || in_start[i] == in_start[i+1])
+            return ArticleIdAndTitle.NULL_ARTICLEIDANDTITLE_ARRAY;
+
+        int n = in_start[i+1] - in_start[i];
+        if(-1 != n_limit && n_limit < n)
+            n = n_limit;
+
+        ArticleIdAndTitle[] result = new ArticleIdAndTitle[n];
+        for(int k=0; k<n; k++) {
+            int j = in[ in_start[i] + k ];
+            int id = 0 != (flags[j] & FLAG_REDIRECT) ? -page_id[j] : page_id[j];
+            result[k] = new ArticleIdAndTitle(id, title[j]);
+        }
+        return result;
+    }
+
+    /** Gets titles of categories of the page (article or category)
+     * as Categorylinks.GetCategoryTitleByArticleID().
+     *
+     * @return null if the page is absent or it has no categories
+     */
+    public String[] getCategoryTitles(int cl_from) {
+        int i = getPageByID(cl_from);
+        if(-1 == i || cat_start[i] == cat_start[i+1])
+            return null;
+
+        String[] result = new String[cat_start[i+1] - cat_start[i]];
+        for(int k=cat_start[i]; k<cat_start[i+1]; k++)
+            result[k - cat_start[i]] = title[ cat[k] ];
+        return result;
+    }
+
+
+    // ********************************************
+    // Export from database
+    //
+
+    /** Pages and links read from the database, pages are not sorted. */
+    private static class Builder {
+
+        int         n_pages;
+        int[]       page_id = new int[1024];
+        byte[]      flags   = new byte[1024];
+        String[]    title   = new String[1024];
+
+        Map<String, Integer> article_index  = new HashMap<String, Integer>();
+        Map<String, Integer> category_index = new HashMap<String, Integer>();
+        Map<Integer, Integer> id_index      = new HashMap<Integer, Integer>();
+
+        int         n_links, n_cat_links;
+        int[]       link_from = new int[1024], link_to = new int[1024];
+        int[]       cat_from  = new int[1024], cat_to  = new int[1024];
+
+        /** Adds the page, page_id is 0 for absent pages. */
+        int addPage(int id, byte f, String t) {
+            if(n_pages == title.length) {
+                page_id = Arrays.copyOf(page_id, 2*n_pages);
+                flags   = Arrays.copyOf(flags,   2*n_pages);
+                title   = Arrays.copyOf(title,   2*n_pages);
+            }
+            page_id[n_pages] = id;
+            flags  [n_pages] = f;
+            title  [n_pages] = t;
+
+            if(0 != (f & FLAG_CATEGORY))
+                category_index.put(t, n_pages);
+            else
+                article_index.put(t, n_pages);
+            if(0 != id)
+                id_index.put(id, n_pages);
+            return n_pages ++;
+        }
+
+        /** Gets number of the page by title, adds the absent page if it is needed. */
+        int getOrAddPage(String t, boolean b_category) {
+            Integer i = b_category ? category_index.get(t) : article_index.get(t);
+            if(null != i)
+                return i;
+            return addPage(0, (byte)(b_category ? FLAG_CATEGORY : 0), t);
+        }
+
+        void addLink(int from, int to) {
+            if(n_links == link_from.length) {
+                link_from = Arrays.copyOf(link_from, 2*n_links);
+                link_to   = Arrays.copyOf(link_to,   2*n_links);
+            }
+            link_from[n_links] = from;
+            link_to  [n_links] = to;
+            n_links ++;
+        }
+
+        void addCategoryLink(int from, int to) {
+            if(n_cat_links == cat_from.length) {
+                cat_from = Arrays.copyOf(cat_from, 2*n_cat_links);
+                cat_to   = Arrays.copyOf(cat_to,   2*n_cat_links);
+            }
+            cat_from[n_cat_links] = from;
+            cat_to  [n_cat_links] = to;
+            n_cat_links ++;
+        }
+    }
+
+    /** Creates rows of the compressed sparse row matrix by pairs (from[k], to[k]),
+     * each row is sorted.
+     *
+     * @return {start, index}: row i is index[start[i]] .. index[start[i+1]-1]
+     */
+    private static int[][] createRows(int n_rows, int[] from, int[] to, int size) {
+        int[] start = new int[n_rows + 1];
+        for(int k=0; k<size; k++)
+            start[ from[k] + 1 ] ++;
+        for(int i=0; i<n_rows; i++)
+            start[i+1] += start[i];
+
+        int[] pos   = Arrays.copyOf(start, n_rows);
+        int[] index = new int[size];
+        for(int k=0; k<size; k++)
+            index[ pos[from[k]] ++ ] = to[k];
+
+        for(int i=0; i<n_rows; i++)
+            Arrays.sort(index, start[i], start[i+1]);
+        return new int[][] {start, index};
+    }
+
+    /** Sorts pages by namespace and title, creates rows of links. */
+    private static LinksGraph create(final Builder b) {
+
+        int n = b.n_pages;
+        Integer[] order = new Integer[n];
+        for(int i=0; i<n; i++)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer i1, Integer i2) {
+                int c = (b.flags[i1] & FLAG_CATEGORY) - (b.flags[i2] & FLAG_CATEGORY);
+                return 0 != c ? c : b.title[i1].compareTo(b.title[i2]);
+            }
+        });
+        int[] rank = new int[n];
+        for(int i=0; i<n; i++)
+            rank[ order[i] ] = i;
+
+        LinksGraph g = new LinksGraph();
+        g.page_id = new int[n];
+        g.flags   = new byte[n];
+        g.title   = new String[n];
+        for(int i=0; i<n; i++) {
+            g.page_id[i] = b.page_id[ order[i] ];
+            g.flags  [i] = b.flags  [ order[i] ];
+            g.title  [i] = b.title  [ order[i] ];
+        }
+
+        for(int k=0; k<b.n_links; k++) {
+            b.link_from[k] = rank[ b.link_from[k] ];
+            b.link_to  [k] = rank[ b.link_to  [k] ];
+        }
+        for(int k=0; k<b.n_cat_links; k++) {
+            b.cat_from[k] = rank[ b.cat_from[k] ];
+            b.cat_to  [k] = rank[ b.cat_to  [k] ];
+        }
+
+        int[][] rows = createRows(n, b.link_from, b.link_to, b.n_links);
+        g.out_start = rows[0];
+        g.out       = rows[1];
+        rows = createRows(n, b.link_to, b.link_from, b.n_links);
+        g.in_start  = rows[0];
+        g.in        = rows[1];
+        rows = createRows(n, b.cat_from, b.cat_to, b.n_cat_links);
+        g.cat_start = rows[0];
+        g.cat       = rows[1];
+
+        g.createIndexes();
+        return g;
+    }
+
+    /** Creates maps from titles and from page_id to the number of page. */
+    private void createIndexes() {
+        int n = title.length;
+        article_index  = new HashMap<String, Integer>();
+        category_index = new HashMap<String, Integer>();
+
+        long[] id_page = new long[n];    // (page_id, number of page)
+        int n_existed = 0;
+        for(int i=0; i<n; i++) {
+            if(0 != (flags[i] & FLAG_CATEGORY))
+                category_index.put(title[i], i);
+            else
+                article_index.put(title[i], i);
+
+            if(0 != page_id[i])
+                id_page[n_existed ++] = ((long)page_id[i] << 32) | i;
+        }
+        Arrays.sort(id_page, 0, n_existed);
+
+        id_sorted      = new int[n_existed];
+        id_sorted_page = new int[n_existed];
+        for(int k=0; k<n_existed; k++) {
+            id_sorted     [k] = (int)(id_page[k] >>> 32);
+            id_sorted_page[k] = (int) id_page[k];
+        }
+    }
+
+    /** Gets title from the field of the result set. */
+    private static String getTitle(Connect connect, ResultSet rs, String field) throws SQLException {
+        Encodings e = connect.enc;
+        String db_str = Encodings.bytesTo(rs.getBytes(field), e.GetDBEnc());
+        return e.EncodeFromDB(db_str);
+    }
+
+    /** Creates statement which reads rows one by one, since the tables
+     * pagelinks and categorylinks could not be read into memory.
+     * Integer.MIN_VALUE is the streaming mode of MySQL driver only,
+     * other drivers (SQLite in tests) reject the negative fetch size. */
+    private static Statement createStreamingStatement(Connect connect) throws SQLException {
+        Statement s = connect.conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if("MySQL".equals(connect.conn.getMetaData().getDatabaseProductName()))
+            s.setFetchSize(Integer.MIN_VALUE);
+        return s;
+    }
+
+    /** Reads pages (articles and categories), links and categories of pages
+     * from the tables page, pagelinks and categorylinks.
+     * <pre>
+     * SELECT page_id, page_namespace, page_title, page_is_redirect FROM page WHERE page_namespace IN (0,14);
+     * SELECT pl_from, pl_title FROM pagelinks WHERE pl_namespace=0;
+     * SELECT cl_from, cl_to FROM categorylinks;</pre>
+     *
+     * @return null if there are problems with the database
+     */
+    public static LinksGraph createFromDB(Connect connect) {
+
+        Builder b = new Builder();
+        String str_sql = null;
+        long t_start = System.currentTimeMillis();
+        try {
+            Statement s = createStreamingStatement(connect);
+            try {
+                str_sql = "SELECT page_id, page_namespace, page_title, page_is_redirect FROM page WHERE page_namespace IN (" +
+                          PageNamespace.MAIN.toInt() + "," + PageNamespace.CATEGORY.toInt() + ")";
+                ResultSet rs = s.executeQuery(str_sql);
+                while (rs.next()) {
+                    byte f = 0;
+                    if(PageNamespace.CATEGORY.toInt() == rs.getInt("page_namespace"))
+                        f |= FLAG_CATEGORY;
+                    if(1 == rs.getInt("page_is_redirect"))
+                        f |= FLAG_REDIRECT;
+                    b.addPage(rs.getInt("page_id"), f, getTitle(connect, rs, "page_title"));
+                }
+                rs.close();
+                System.out.println("LinksGraph: pages:" + b.n_pages);
+
+                str_sql = "SELECT pl_from, pl_title FROM pagelinks WHERE pl_namespace=" + PageNamespace.MAIN.toInt();
+                rs = s.executeQuery(str_sql);
+                while (rs.next()) {
+                    Integer from = b.id_index.get(rs.getInt("pl_from"));
+                    if(null != from)
+                        b.addLink(from, b.getOrAddPage(getTitle(connect, rs, "pl_title"), false));
+                }
+                rs.close();
+                System.out.println("LinksGraph: links:" + b.n_links);
+
+                str_sql = "SELECT cl_from, cl_to FROM categorylinks";
+                rs = s.executeQuery(str_sql);
+                while (rs.next()) {
+                    Integer from = b.id_index.get(rs.getInt("cl_from"));
+                    if(null != from) {
+                        String cl_to = Encodings.bytesTo(rs.getBytes("cl_to"), "UTF8");
+                        b.addCategoryLink(from, b.getOrAddPage(cl_to, true));
+                    }
+                }
+                rs.close();
+                System.out.println("LinksGraph: category links:" + b.n_cat_links);
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.err.println("SQLException (LinksGraph.createFromDB()): sql='" + str_sql + "' " + ex.getMessage());
+            return null;
+        }
+
+        LinksGraph g = create(b);
+        System.out.println("LinksGraph: time sec:" + (System.currentTimeMillis() - t_start)/1000f);
+        return g;
+    }
+
+
+    // ********************************************
+    // File
+    //
+
+    private static void writeVarInt(DataOutputStream out, int v) throws IOException {
+        while(0 != (v & ~0x7F)) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int v = 0;
+        for(int shift=0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+            if(0 == (b & 0x80))
+                return v;
+        }
+    }
+
+    /** Writes rows: number of elements and increments of sorted elements. */
+    private static void writeRows(DataOutputStream out, int[] start, int[] index) throws IOException {
+        int n_rows = start.length - 1;
+        for(int i=0; i<n_rows; i++) {
+            writeVarInt(out, start[i+1] - start[i]);
+            int prev = 0;
+            for(int k=start[i]; k<start[i+1]; k++) {
+                writeVarInt(out, index[k] - prev);
+                prev = index[k];
+            }
+        }
+    }
+
+    /** Reads rows written by writeRows().
+     * @return {start, index}
+     */
+    private static int[][] readRows(DataInputStream in, int n_rows) throws IOException {
+        int[] start = new int[n_rows + 1];
+        int[] index = new int[1024];
+        int k = 0;
+        for(int i=0; i<n_rows; i++) {
+            start[i] = k;
+            int size = readVarInt(in);
+            if(k + size > index.length)
+                index = Arrays.copyOf(index, Math.max(2*index.length, k + size));
+            int prev = 0;
+            for(int j=0; j<size; j++) {
+                prev += readVarInt(in);
+                index[k++] = prev;
+            }
+        }
+        start[n_rows] = k;
+        return new int[][] {start, Arrays.copyOf(index, k)};
+    }
+
+    /** Saves the graph to the file (gzip). */
+    public void save(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                                    new GZIPOutputStream(new FileOutputStream(file))));
+        try {
+            out.writeInt(VERSION);
+            out.writeInt(title.length);
+            for(int i=0; i<title.length; i++) {
+                out.writeInt (page_id[i]);
+                out.writeByte(flags[i]);
+                out.writeUTF (title[i]);
+            }
+            writeRows(out, out_start, this.out);
+            writeRows(out, in_start,  in);
+            writeRows(out, cat_start, cat);
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Loads the graph from the file created by save(). */
+    public static LinksGraph load(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                                    new GZIPInputStream(new FileInputStream(file))));
+        LinksGraph g = new LinksGraph();
+        try {
+            int version = in.readInt();
+            if(VERSION != version)
+                throw new IOException("LinksGraph.load(): unknown version " + version + " of the file " + file);
+
+            int n = in.readInt();
+            g.page_id = new int[n];
+            g.flags   = new byte[n];
+            g.title   = new String[n];
+            for(int i=0; i<n; i++) {
+                g.page_id[i] = in.readInt();
+                g.flags  [i] = in.readByte();
+                g.title  [i] = in.readUTF();
+            }
+            int[][] rows = readRows(in, n);
+            g.out_start = rows[0];
+            g.out       = rows[1];
+            rows = readRows(in, n);
+            g.in_start  = rows[0];
+            g.in        = rows[1];
+            rows = readRows(in, n);
+            g.cat_start = rows[0];
+            g.cat       = rows[1];
+        } finally {
+            in.close();
+        }
+        g.createIndexes();
+        return g;
+    }
+
+    /** Exports the graph from the database to the file.
+     * Usage: LinksGraph host db user password file
+     */
+    public static void main(String[] args) throws IOException {
+        if(5 != args.length) {
+            System.out.println("Usage: LinksGraph host db user password file");
+            return;
+        }
+        Connect connect = new Connect();
+        connect.Open(args[0], args[1], args[2], args[3]);
+
+        LinksGraph g = createFromDB(connect);
+        connect.Close();
+        if(null != g) {
+            g.save(new File(args[4]));
+            System.out.println("LinksGraph: saved to " + args[4]);
+        }
+    }
+}
@@ -72,4 +72,27 @@ public class PageTable extends PageTableBase {
         return getNamespaceByID (session.connect, id);
     }
     
+    /** Gets id of page via Title:Namespace from session.links_graph (if it 
+     * is loaded) or from the table page.
+     *  @return -id if article is the redirect page.
+     *  @return 0 if article id is absent in the table page, or interwiki.
+     */
+    public static int getIDByTitleNamespace(SessionHolder session, String page_title, PageNamespace namespace) {
+        
+        if(null != session.links_graph)
+            return session.links_graph.getIDByTitle(page_title, namespace);
+        return getIDByTitleNamespace(session.connect, page_title, namespace);
+    }
+    
+    /** Gets page's id by page's title (article, non-category), 
+     * see getIDByTitleNamespace(). */
+    public static int getIDByTitle(SessionHolder session, String page_title) {
+        return getIDByTitleNamespace(session, page_title, PageNamespace.MAIN);
+    }
+    
+    /** Gets category's id by category's title, see getIDByTitleNamespace(). */
+    public static int getCategoryIDByTitle(SessionHolder session, String page_title) {
+        return getIDByTitleNamespace(session, page_title, PageNamespace.CATEGORY);
+    }
+    
 }
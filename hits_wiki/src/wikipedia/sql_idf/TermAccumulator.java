@@ -0,0 +1,702 @@
+/*
+ * TermAccumulator.java - accumulates document and corpus frequencies of terms
+ *                        in memory, writes them to the wiki idf database
+ *                        by large batches.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU Public License.
+ */
+
+package wikipedia.sql_idf;
+
+import wikipedia.util.StringUtil;
+
+import java.util.*;
+import java.sql.*;
+import java.io.*;
+import java.text.Normalizer;
+
+/** Accumulation mode of the wiki idf builder: the same result in the tables
+ * term, page and term_page as Term.incLemmataDocFreq(), but without SQL
+ * queries for every lemma of every article.<br><br>
+ *
+ * Terms (lemma -&gt; term_id, doc_freq, corpus_freq) are kept in int arrays
+ * with an open addressing hash table. Postings (term_id, page_id, term_freq)
+ * are buffered with the same doc_freq_max limit as in Term.incLemmaDocFreq().
+ * The buffer is flushed (sorted by term_id, page_id) when it is full or
+ * when the free memory is less than 10%:
+ * (1) by multi-row INSERT ... ON DUPLICATE KEY UPDATE statements into term_page, or
+ * (2) into the sorted run file in spill_dir, the runs are merged and written
+ * to term_page by close().<br><br>
+ *
+ * IDs of new terms and pages are assigned in-process (max ID + 1), the terms
+ * and pages which are already in the database are loaded by the constructor,
+ * so the build can be continued. Terms and pages are found in memory by
+ * getKey(), which compares strings as the collation utf8_general_ci of
+ * term.lemma and page.page_title, so the lemmas which are the same row for
+ * the database get the same ID.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * TermAccumulator acc = new TermAccumulator(idf_conn.conn, doc_freq_max,
+ *                                           TermAccumulator.POSTINGS_MAX, null);
+ * acc.addPage(page_title, lemma_tf);   // for each article
+ * acc.close();
+ * </PRE>
+ */
+public class TermAccumulator {
+
+    /** Default size of the buffer of postings (12 bytes per posting). */
+    public final static int POSTINGS_MAX = 4 * 1024 * 1024;
+
+    /** Number of rows in one INSERT statement. */
+    private final static int ROWS_PER_STATEMENT = 1000;
+
+    private final java.sql.Connection conn;
+
+    /** The limit for the table term_page, see Term.incLemmataDocFreq(). */
+    private final int doc_freq_max;
+
+    /** Maximum number of buffered postings. */
+    private final int postings_max;
+
+    /** Directory for sorted runs of postings, null - write postings
+     * directly to the table term_page. */
+    private final File spill_dir;
+
+
+    // terms
+
+    /** Number of terms. */
+    private int n_terms;
+
+    /** Key of the lemma (see getKey()), since term.lemma is case- and
+     * accent-insensitive (utf8_general_ci). */
+    private String[] key;
+
+    /** Lemma (term) as it was found first time. */
+    private String[] lemma;
+
+    /** term.term_id, term.doc_freq, term.corpus_freq of the terms. */
+    private int[] term_id, doc_freq, corpus_freq;
+
+    /** True if the term should be written to the table term. */
+    private boolean[] changed;
+
+    /** Open addressing hash table: (index of the term + 1), 0 - empty slot. */
+    private int[] slots;
+
+    /** ID of the next new term. */
+    private int next_term_id;
+
+
+    // pages
+
+    /** Map from the key of page title (with underscores) to page_id. */
+    private final Map<String, Integer> m_page_id;
+
+    /** ID of the next new page. */
+    private int next_page_id;
+
+    /** Pages which should be written to the table page. */
+    private final List<String> pending_title = new ArrayList<String>();
+    private int[] pending_page_id   = new int[16];
+    private int[] pending_word_count= new int[16];
+
+
+    // postings
+
+    /** Number of buffered postings. */
+    private int n_postings;
+
+    /** (term_id, page_id, term_freq) of the buffered postings. */
+    private int[] p_term_id  = new int[1024];
+    private int[] p_page_id  = new int[1024];
+    private int[] p_term_freq= new int[1024];
+
+    /** Sorted runs of postings in spill_dir. */
+    private final List<File> runs = new ArrayList<File>();
+
+
+    /** Creates accumulator, loads the terms and pages from the wiki idf database.
+     *
+     * @param doc_freq_max  the limit for the table term_page, see Term.incLemmataDocFreq()
+     * @param postings_max  size of the buffer of postings, e.g. POSTINGS_MAX
+     * @param spill_dir     directory for sorted runs of postings,
+     *                      null - write postings directly to the table term_page
+     */
+    public TermAccumulator(java.sql.Connection _conn, int _doc_freq_max,
+                           int _postings_max, File _spill_dir)
+    {
+        conn         = _conn;
+        doc_freq_max = _doc_freq_max;
+        postings_max = Math.max(1, _postings_max);
+        spill_dir    = _spill_dir;
+
+        key         = new String[1024];
+        lemma       = new String[1024];
+        term_id     = new int[1024];
+        doc_freq    = new int[1024];
+        corpus_freq = new int[1024];
+        changed     = new boolean[1024];
+        slots       = new int[2048];
+        next_term_id = 1;
+
+        m_page_id    = new HashMap<String, Integer>();
+        next_page_id = 1;
+
+        loadTerms();
+        loadPages();
+    }
+
+    /** Gets number of terms. */
+    public synchronized int getTermsNumber() {
+        return n_terms;
+    }
+
+    /** Gets number of pages. */
+    public synchronized int getPagesNumber() {
+        return m_page_id.size();
+    }
+
+    /** Gets document frequency of the lemma, 0 if it is absent. */
+    public synchronized int getDocFreq(String _lemma) {
+        int i = slots[findSlot(getKey(_lemma))] - 1;
+        return i < 0 ? 0 : doc_freq[i];
+    }
+
+    /** Gets corpus frequency of the lemma, 0 if it is absent. */
+    public synchronized int getCorpusFreq(String _lemma) {
+        int i = slots[findSlot(getKey(_lemma))] - 1;
+        return i < 0 ? 0 : corpus_freq[i];
+    }
+
+
+    /** Increments document frequency of lemmas, since lemmas were found in
+     * the wiki-document titled page_title, the same as
+     * Term.incLemmataDocFreq(), but the data are written by flush() and close().
+     *
+     *  @param lemma_tf     map from lemma to term frequency (in document)
+     */
+    public synchronized void addPage(String page_title, Map<String, Integer> lemma_tf) {
+
+        if(null == lemma_tf || 0 == lemma_tf.size())
+            return;
+
+        // count number of words in the article
+        int word_count = 0;
+        for(Integer n:lemma_tf.values()) {
+            word_count += n;
+        }
+        int page_id = getOrAddPage(page_title, word_count);
+
+        for(Map.Entry<String, Integer> e : lemma_tf.entrySet()) {
+            String l = e.getKey();
+            if (l.length() > Term.LEMMA_LEN_WARNING) {
+                System.out.println("Warning: wikidf.TermAccumulator.addPage() page_title="+
+                        page_title + " has very long ("+l.length()+" characters) lemma="+l);
+                if (l.length() > Term.LEMMA_LEN_MAX) {
+                    continue;
+                }
+            }
+
+            int i = getOrAddTerm(l);
+            doc_freq   [i] += 1;
+            corpus_freq[i] += e.getValue();
+            changed    [i] = true;
+
+            if(doc_freq[i] <= doc_freq_max)
+                addPosting(term_id[i], page_id, e.getValue());
+        }
+
+        if(n_postings >= postings_max ||
+           n_postings >= postings_max / 16 && isMemoryLow())
+            flush();
+    }
+
+    /** Writes changed pages and terms to the tables page and term,
+     * postings to the table term_page (or to the sorted run file). */
+    public synchronized void flush() {
+
+        flushPages();
+        flushTerms();
+
+        if(0 == n_postings)
+            return;
+        sortPostings();
+        if(null == spill_dir)
+            writePostings();
+        else
+            spillPostings();
+        n_postings = 0;
+    }
+
+    /** Flushes the data, merges sorted runs of postings into the table term_page. */
+    public synchronized void close() {
+
+        flush();
+        if(runs.isEmpty())
+            return;
+
+        mergeRuns();
+        for(File f : runs)
+            f.delete();
+        runs.clear();
+    }
+
+
+    /** Gets the key of the lemma (page title): keys are equal if strings are
+     * equal in the collation utf8_general_ci, i.e. case and accents are
+     * ignored (ё=е, é=e, ß=s, but й is not и), trailing spaces are ignored.
+     */
+    static String getKey(String s) {
+
+        int end = s.length();
+        while(end > 0 && ' ' == s.charAt(end - 1))
+            end --;
+
+        String d = Normalizer.normalize(s.substring(0, end), Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(d.length());
+        for(int i=0; i<d.length(); i++) {
+            char c = d.charAt(i);
+            if(Character.NON_SPACING_MARK == Character.getType(c)) {
+                int last = sb.length() - 1;
+                if('\u0306' == c && last >= 0 && '\u0418' == sb.charAt(last))
+                    sb.setCharAt(last, '\u0419');  // и + breve = й
+                continue;
+            }
+            sb.append('\u00DF' == c ? 'S' : Character.toUpperCase(c));
+        }
+        return sb.toString();
+    }
+
+    /** True if the free memory (taking into account -Xmx) is less than 10%. */
+    private static boolean isMemoryLow() {
+        Runtime r = Runtime.getRuntime();
+        long used = r.totalMemory() - r.freeMemory();
+        return r.maxMemory() - used < r.maxMemory() / 10;
+    }
+
+
+    // terms
+
+    /** Gets position of the key in the hash table: slot of the term or empty slot. */
+    private int findSlot(String k) {
+        int mask = slots.length - 1;
+        int h = k.hashCode();
+        int pos = (h ^ (h >>> 16)) & mask;
+        while(0 != slots[pos] && !k.equals(key[slots[pos] - 1]))
+            pos = (pos + 1) & mask;
+        return pos;
+    }
+
+    /** Gets index of the term, adds new term with doc_freq=0 if it is absent. */
+    private int getOrAddTerm(String l) {
+
+        String k = getKey(l);
+        int pos = findSlot(k);
+        if(0 != slots[pos])
+            return slots[pos] - 1;
+
+        int i = addTerm(k, l, next_term_id, 0, 0);
+        next_term_id ++;
+        return i;
+    }
+
+    /** Adds term to the arrays and to the hash table, returns index of the term. */
+    private int addTerm(String k, String l, int id, int df, int cf) {
+
+        if(n_terms == key.length) {
+            int size = 2 * key.length;
+            key         = Arrays.copyOf(key,        size);
+            lemma       = Arrays.copyOf(lemma,      size);
+            term_id     = Arrays.copyOf(term_id,    size);
+            doc_freq    = Arrays.copyOf(doc_freq,   size);
+            corpus_freq = Arrays.copyOf(corpus_freq,size);
+            changed     = Arrays.copyOf(changed,    size);
+        }
+        if(4 * (n_terms + 1) > 3 * slots.length) {   // load factor 0.75
+            slots = new int[2 * slots.length];
+            for(int j=0; j<n_terms; j++)
+                slots[findSlot(key[j])] = j + 1;
+        }
+
+        int i = n_terms ++;
+        key        [i] = k;
+        lemma      [i] = l;
+        term_id    [i] = id;
+        doc_freq   [i] = df;
+        corpus_freq[i] = cf;
+        slots[findSlot(k)] = i + 1;
+        return i;
+    }
+
+    /** Loads terms from the table term.<br>
+     * SELECT term_id,lemma,doc_freq,corpus_freq FROM term
+     */
+    private void loadTerms() {
+
+        Statement   s = null;
+        ResultSet   rs= null;
+        String str_sql = "SELECT term_id,lemma,doc_freq,corpus_freq FROM term";
+        try {
+            s = conn.createStatement ();
+            rs = s.executeQuery (str_sql);
+            while (rs.next ())
+            {
+                int    id = rs.getInt("term_id");
+                String l  = rs.getString("lemma");
+                String k  = getKey(l);
+                if(0 == slots[findSlot(k)])
+                    addTerm(k, l, id, rs.getInt("doc_freq"), rs.getInt("corpus_freq"));
+                next_term_id = Math.max(next_term_id, id + 1);
+            }
+        } catch(SQLException ex) {
+            System.err.println("SQLException (wikidf TermAccumulator.java loadTerms()):: sql='" + str_sql + "' " + ex.getMessage());
+        } finally {
+            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+    }
+
+    /** Writes changed terms to the table term. REPLACE is not used, since it
+     * deletes the row and the rows of term_page with the old term_id.<br>
+     * INSERT INTO term (term_id,lemma,doc_freq,corpus_freq) VALUES (1,"apple",5,23),(...
+     * ON DUPLICATE KEY UPDATE doc_freq=VALUES(doc_freq),corpus_freq=VALUES(corpus_freq)
+     */
+    private void flushTerms() {
+
+        RowWriter w = new RowWriter("INSERT INTO term (term_id,lemma,doc_freq,corpus_freq) VALUES ",
+                " ON DUPLICATE KEY UPDATE doc_freq=VALUES(doc_freq),corpus_freq=VALUES(corpus_freq)");
+        try {
+            for(int i=0; i<n_terms; i++) {
+                if(!changed[i])
+                    continue;
+                StringBuilder sb = w.beginRow();
+                sb.append(term_id[i]);
+                sb.append(",\"");
+                sb.append(StringUtil.escapeChars(lemma[i]));
+                sb.append("\",");
+                sb.append(doc_freq[i]);
+                sb.append(",");
+                sb.append(corpus_freq[i]);
+                w.endRow();
+                changed[i] = false;
+            }
+            w.close();
+        } catch(SQLException ex) {
+            System.err.println("SQLException (wikidf TermAccumulator.java flushTerms()):: sql='" + w.getSQLHead() + "...' " + ex.getMessage());
+        }
+    }
+
+
+    // pages
+
+    /** Gets ID of the page, adds new page if it is absent. */
+    private int getOrAddPage(String page_title, int word_count) {
+
+        String title = StringUtil.spaceToUnderscore(page_title);
+        String k = getKey(title);
+        Integer id = m_page_id.get(k);
+        if(null == id) {
+            id = next_page_id ++;
+            m_page_id.put(k, id);
+        }
+
+        int n = pending_title.size();
+        if(n == pending_page_id.length) {
+            pending_page_id    = Arrays.copyOf(pending_page_id,    2 * n);
+            pending_word_count = Arrays.copyOf(pending_word_count, 2 * n);
+        }
+        pending_title.add(title);
+        pending_page_id   [n] = id;
+        pending_word_count[n] = word_count;
+        return id;
+    }
+
+    /** Loads page titles from the table page.<br>
+     * SELECT page_id,page_title FROM page
+     */
+    private void loadPages() {
+
+        Statement   s = null;
+        ResultSet   rs= null;
+        String str_sql = "SELECT page_id,page_title FROM page";
+        try {
+            s = conn.createStatement ();
+            rs = s.executeQuery (str_sql);
+            while (rs.next ())
+            {
+                int id = rs.getInt("page_id");
+                String k = getKey(rs.getString("page_title"));
+                if(!m_page_id.containsKey(k))
+                    m_page_id.put(k, id);
+                next_page_id = Math.max(next_page_id, id + 1);
+            }
+        } catch(SQLException ex) {
+            System.err.println("SQLException (wikidf TermAccumulator.java loadPages()):: sql='" + str_sql + "' " + ex.getMessage());
+        } finally {
+            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+        }
+    }
+
+    /** Writes new pages and word counts to the table page.<br>
+     * INSERT INTO page (page_id,page_title,word_count) VALUES (1,"apple",222),(...
+     * ON DUPLICATE KEY UPDATE word_count=VALUES(word_count)
+     */
+    private void flushPages() {
+
+        RowWriter w = new RowWriter("INSERT INTO page (page_id,page_title,word_count) VALUES ",
+                " ON DUPLICATE KEY UPDATE word_count=VALUES(word_count)");
+        try {
+            for(int i=0; i<pending_title.size(); i++) {
+                StringBuilder sb = w.beginRow();
+                sb.append(pending_page_id[i]);
+                sb.append(",\"");
+                sb.append(StringUtil.escapeChars(pending_title.get(i)));
+                sb.append("\",");
+                sb.append(pending_word_count[i]);
+                w.endRow();
+            }
+            w.close();
+        } catch(SQLException ex) {
+            System.err.println("SQLException (wikidf TermAccumulator.java flushPages()):: sql='" + w.getSQLHead() + "...' " + ex.getMessage());
+        }
+        pending_title.clear();
+    }
+
+
+    // postings
+
+    private final static String SQL_POSTINGS_HEAD = "INSERT INTO term_page (term_id,page_id,term_freq) VALUES ";
+    private final static String SQL_POSTINGS_TAIL = " ON DUPLICATE KEY UPDATE term_freq=VALUES(term_freq)";
+
+    private void addPosting(int t_id, int p_id, int term_freq) {
+
+        if(n_postings == p_term_id.length) {
+            int size = (int)Math.min(2L * n_postings, Math.max(postings_max, n_postings + 1));
+            p_term_id   = Arrays.copyOf(p_term_id,   size);
+            p_page_id   = Arrays.copyOf(p_page_id,   size);
+            p_term_freq = Arrays.copyOf(p_term_freq, size);
+        }
+        p_term_id  [n_postings] = t_id;
+        p_page_id  [n_postings] = p_id;
+        p_term_freq[n_postings] = term_freq;
+        n_postings ++;
+    }
+
+    /** Compares postings i and j by (term_id, page_id). */
+    private static int compare(int[] t, int[] p, int i, int j) {
+        if(t[i] != t[j])
+            return t[i] < t[j] ? -1 : 1;
+        if(p[i] != p[j])
+            return p[i] < p[j] ? -1 : 1;
+        return 0;
+    }
+
+    /** Sorts buffered postings by (term_id, page_id), the sort is stable,
+     * so the last term_freq of the same (term, page) is written last. */
+    private void sortPostings() {
+
+        int n = n_postings;
+        int[] t = p_term_id, p = p_page_id, f = p_term_freq;
+        int[] t2 = new int[n], p2 = new int[n], f2 = new int[n];
+
+        // bottom-up merge sort
+        for(int width=1; width<n; width*=2) {
+            for(int lo=0; lo<n; lo+=2*width) {
+                int mid = Math.min(lo + width, n);
+                int hi  = Math.min(lo + 2*width, n);
+                int i = lo, j = mid;
+                for(int k=lo; k<hi; k++) {
+                    int src = (i < mid && (j >= hi || compare(t, p, i, j) <= 0)) ? i++ : j++;
+                    t2[k] = t[src];
+                    p2[k] = p[src];
+                    f2[k] = f[src];
+                }
+            }
+            int[] tmp;
+            tmp = t; t = t2; t2 = tmp;
+            tmp = p; p = p2; p2 = tmp;
+            tmp = f; f = f2; f2 = tmp;
+        }
+        if(t != p_term_id) {
+            System.arraycopy(t, 0, p_term_id,   0, n);
+            System.arraycopy(p, 0, p_page_id,   0, n);
+            System.arraycopy(f, 0, p_term_freq, 0, n);
+        }
+    }
+
+    /** Writes buffered postings to the table term_page.<br>
+     * INSERT INTO term_page (term_id,page_id,term_freq) VALUES (1,2,7),(...
+     * ON DUPLICATE KEY UPDATE term_freq=VALUES(term_freq)
+     */
+    private void writePostings() {
+
+        RowWriter w = new RowWriter(SQL_POSTINGS_HEAD, SQL_POSTINGS_TAIL);
+        try {
+            for(int i=0; i<n_postings; i++)
+                w.addPosting(p_term_id[i], p_page_id[i], p_term_freq[i]);
+            w.close();
+        } catch(SQLException ex) {
+            System.err.println("SQLException (wikidf TermAccumulator.java writePostings()):: sql='" + w.getSQLHead() + "...' " + ex.getMessage());
+        }
+    }
+
+    /** Writes buffered postings to the new sorted run file in spill_dir. */
+    private void spillPostings() {
+
+        try {
+            File f = File.createTempFile("term_page", ".run", spill_dir);
+            f.deleteOnExit();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                                        new FileOutputStream(f), 1 << 16));
+            try {
+                for(int i=0; i<n_postings; i++) {
+                    out.writeInt(p_term_id  [i]);
+                    out.writeInt(p_page_id  [i]);
+                    out.writeInt(p_term_freq[i]);
+                }
+            } finally {
+                out.close();
+            }
+            runs.add(f);
+        } catch(IOException ex) {
+            System.out.println("Error in TermAccumulator.spillPostings(): " + ex.getMessage() +
+                    "; postings are written to the table term_page");
+            writePostings();
+        }
+    }
+
+    /** Current posting of the sorted run file. */
+    private static class Run {
+        final int number;
+        final DataInputStream in;
+        int term_id, page_id, term_freq;
+
+        Run(int _number, File f) throws IOException {
+            number = _number;
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16));
+        }
+
+        /** Reads next posting, returns false at the end of the file. */
+        boolean next() throws IOException {
+            try {
+                term_id   = in.readInt();
+            } catch(EOFException ex) {
+                return false;
+            }
+            page_id   = in.readInt();
+            term_freq = in.readInt();
+            return true;
+        }
+    }
+
+    /** Ordering of the runs by (term_id, page_id, number of the run). */
+    private static final Comparator<Run> RUN_ORDER = new Comparator<Run>() {
+        public int compare(Run r1, Run r2) {
+            if(r1.term_id != r2.term_id)
+                return r1.term_id < r2.term_id ? -1 : 1;
+            if(r1.page_id != r2.page_id)
+                return r1.page_id < r2.page_id ? -1 : 1;
+            return r1.number - r2.number;
+        }
+    };
+
+    /** Merges the sorted runs, writes postings to the table term_page
+     * in the order of (term_id, page_id). */
+    private void mergeRuns() {
+
+        RowWriter w = new RowWriter(SQL_POSTINGS_HEAD, SQL_POSTINGS_TAIL);
+        PriorityQueue<Run> queue = new PriorityQueue<Run>(runs.size(), RUN_ORDER);
+        try {
+            for(int i=0; i<runs.size(); i++) {
+                Run r = new Run(i, runs.get(i));
+                if(r.next())
+                    queue.add(r);
+                else
+                    r.in.close();
+            }
+            while(!queue.isEmpty()) {
+                Run r = queue.poll();
+                w.addPosting(r.term_id, r.page_id, r.term_freq);
+                if(r.next())
+                    queue.add(r);
+                else
+                    r.in.close();
+            }
+            w.close();
+        } catch(IOException ex) {
+            System.out.println("Error in TermAccumulator.mergeRuns(): " + ex.getMessage());
+        } catch(SQLException ex) {
+            System.err.println("SQLException (wikidf TermAccumulator.java mergeRuns()):: sql='" + w.getSQLHead() + "...' " + ex.getMessage());
+        } finally {
+            for(Run r : queue) {
+                try { r.in.close(); } catch (IOException ioEx) { }
+            }
+        }
+    }
+
+
+    /** Writes rows by multi-row statements:
+     * sql_head (row 1),(row 2),...,(row ROWS_PER_STATEMENT) sql_tail
+     */
+    private class RowWriter {
+
+        private final String sql_head, sql_tail;
+        private final StringBuilder sb;
+        private int n_rows;
+
+        RowWriter(String _sql_head, String _sql_tail) {
+            sql_head = _sql_head;
+            sql_tail = _sql_tail;
+            sb = new StringBuilder(sql_head);
+        }
+
+        String getSQLHead() {
+            return sql_head;
+        }
+
+        /** Starts the row, the values should be appended to the result. */
+        StringBuilder beginRow() {
+            sb.append(0 == n_rows ? "(" : ",(");
+            return sb;
+        }
+
+        /** Ends the row, executes the statement if it is full. */
+        void endRow() throws SQLException {
+            sb.append(")");
+            if(++ n_rows >= ROWS_PER_STATEMENT)
+                execute();
+        }
+
+        void addPosting(int t_id, int p_id, int term_freq) throws SQLException {
+            beginRow();
+            sb.append(t_id);
+            sb.append(",");
+            sb.append(p_id);
+            sb.append(",");
+            sb.append(term_freq);
+            endRow();
+        }
+
+        /** Executes the rest rows. */
+        void close() throws SQLException {
+            if(n_rows > 0)
+                execute();
+        }
+
+        private void execute() throws SQLException {
+            sb.append(sql_tail);
+            Statement s = conn.createStatement ();
+            try {
+                s.executeUpdate (sb.toString());
+            } finally {
+                s.close();
+            }
+            sb.setLength(sql_head.length());
+            n_rows = 0;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * LinksMatrixTest.java
+ * JUnit based test
+ */
+
+package wikipedia.kleinberg;
+
+import junit.framework.*;
+import java.util.*;
+
+
+public class LinksMatrixTest extends TestCase {
+
+    public LinksMatrixTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws java.lang.Exception {
+    }
+
+    protected void tearDown() throws java.lang.Exception {
+    }
+
+    public static junit.framework.Test suite() {
+        junit.framework.TestSuite suite = new junit.framework.TestSuite(LinksMatrixTest.class);
+
+        return suite;
+    }
+
+    /** Creates nodes with id 1..n and links from[i] -> to[i]. */
+    private static Map<Integer, Article> createNodes(int n, int[] from, int[] to) {
+        int[] n_in  = new int[n + 1];
+        int[] n_out = new int[n + 1];
+        for(int i=0; i<from.length; i++) {
+            n_out[from[i]] ++;
+            n_in [to[i]] ++;
+        }
+
+        Map<Integer, Article> nodes = new HashMap<Integer, Article>();
+        for(int id=1; id<=n; id++) {
+            Article a = new Article();
+            a.page_id   = id;
+            a.links_in  = new int[n_in [id]];
+            a.links_out = new int[n_out[id]];
+            n_in [id] = 0;
+            n_out[id] = 0;
+            nodes.put(id, a);
+        }
+        for(int i=0; i<from.length; i++) {
+            nodes.get(to[i])  .links_in [n_in [to[i]]  ++] = from[i];
+            nodes.get(from[i]).links_out[n_out[from[i]] ++] = to[i];
+        }
+        return nodes;
+    }
+
+    /** The same iterations as Authorities.Iterate() by Article functions. */
+    private static int iterateByArticles(Map<Integer, Article> nodes, float eps_error) {
+        Article node = new Article();
+        float[] total_error;
+        int iter = 0;
+        do {
+            iter ++;
+            for(Article n : nodes.values()) {
+                n.CalculateNewX(nodes, nodes.size());
+                n.CalculateNewY(nodes, nodes.size());
+            }
+            node.NormalizeNewXNewY(nodes);
+            total_error = node.UpdateXY(nodes);
+        } while (eps_error < total_error[0] + total_error[1]);
+        return iter;
+    }
+
+    public void testCreate() {
+        System.out.println("testCreate");
+
+        int[] from = {1, 1, 2, 3, 4};
+        int[] to   = {2, 3, 3, 1, 3};
+        Map<Integer, Article> nodes = createNodes(4, from, to);
+        nodes.get(4).links_out = new int[] {3, 777};    // 777 is absent in nodes
+
+        LinksMatrix m = new LinksMatrix(nodes);
+        assertEquals(4, m.size());
+        assertEquals(5, m.getLinksNumber());
+    }
+
+    public void testIterate_the_same_as_Articles() {
+        System.out.println("testIterate_the_same_as_Articles");
+
+        int[] from = {1, 1, 2, 3, 4, 5, 5, 5, 6, 2};
+        int[] to   = {2, 3, 3, 1, 3, 3, 6, 2, 3, 6};
+        Map<Integer, Article> nodes_1 = createNodes(6, from, to);
+        Map<Integer, Article> nodes_2 = createNodes(6, from, to);
+
+        int iter_1 = iterateByArticles(nodes_1, 0.001f);
+        int iter_2 = new LinksMatrix(nodes_2).iterate(0.001f, 1);
+        assertEquals(iter_1, iter_2);
+
+        for(int id=1; id<=6; id++) {
+            assertEquals(nodes_1.get(id).x, nodes_2.get(id).x, 0.f);
+            assertEquals(nodes_1.get(id).y, nodes_2.get(id).y, 0.f);
+        }
+
+        // node 3 is the best authority, node 5 is the best hub
+        List<Article> sorted = new ArrayList<Article>(nodes_2.values());
+        Collections.sort(sorted, Article.X_ORDER);
+        assertEquals(3, sorted.get(0).page_id);
+        Collections.sort(sorted, Article.Y_ORDER);
+        assertEquals(5, sorted.get(0).page_id);
+    }
+
+    public void testIterate_threads() {
+        System.out.println("testIterate_threads");
+
+        // big enough base set to use several threads
+        int n = 50000;
+        int[] from = new int[3*n];
+        int[] to   = new int[3*n];
+        Random r = new Random(1);
+        for(int i=0; i<from.length; i++) {
+            from[i] = 1 + r.nextInt(n);
+            to[i]   = 1 + r.nextInt(n/10);
+        }
+        Map<Integer, Article> nodes_1 = createNodes(n, from, to);
+        Map<Integer, Article> nodes_2 = createNodes(n, from, to);
+
+        int iter_1 = new LinksMatrix(nodes_1).iterate(0.001f, 1);
+        int iter_2 = new LinksMatrix(nodes_2).iterate(0.001f, 4);
+        assertEquals(iter_1, iter_2);
+        for(int id=1; id<=n; id++) {
+            assertEquals(nodes_1.get(id).x, nodes_2.get(id).x, 0.f);
+            assertEquals(nodes_1.get(id).y, nodes_2.get(id).y, 0.f);
+        }
+    }
+}
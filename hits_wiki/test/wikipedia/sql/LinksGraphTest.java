@@ -0,0 +1,218 @@
+/*
+ * LinksGraphTest.java
+ * JUnit based test
+ */
+
+package wikipedia.sql;
+
+import wikipedia.kleinberg.SessionHolder;
+import wikipedia.kleinberg.CategoryBlackList;
+import wikipedia.data.ArticleIdAndTitle;
+
+import junit.framework.*;
+import java.io.File;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.*;
+
+/** Compares the links graph loaded from the file with the SQL queries
+ * to the small SQLite database with the tables page, pagelinks, categorylinks. */
+public class LinksGraphTest extends TestCase {
+
+    Connect         connect;
+    File            file;
+
+    /** session_sql takes links from the database, session_graph from the file */
+    SessionHolder   session_sql, session_graph;
+
+    /** page_id, page_namespace, page_title, page_is_redirect */
+    private final static String[][] PAGES = {
+        {"10", "0",  "Кошка",         "0"},
+        {"11", "0",  "Собака",        "0"},
+        {"12", "0",  "Кот",           "1"},
+        {"13", "0",  "Животное",      "0"},
+        {"14", "0",  "Зверь",         "1"},
+        {"20", "14", "Млекопитающие", "0"},
+        {"21", "14", "Животные",      "0"}};
+
+    /** pl_from, pl_namespace, pl_title; the redirect 14 links to the category
+     * before the article, Тигр is absent (red link) */
+    private final static String[][] PAGELINKS = {
+        {"10", "0",  "Животное"},
+        {"10", "0",  "Собака"},
+        {"10", "0",  "Тигр"},
+        {"10", "14", "Млекопитающие"},
+        {"11", "0",  "Животное"},
+        {"12", "0",  "Кошка"},
+        {"13", "0",  "Кошка"},
+        {"14", "14", "Животные"},
+        {"14", "0",  "Животное"},
+        {"20", "0",  "Кошка"}};
+
+    /** cl_from, cl_to; the category Природа has no page */
+    private final static String[][] CATEGORYLINKS = {
+        {"10", "Млекопитающие"},
+        {"11", "Млекопитающие"},
+        {"20", "Животные"},
+        {"21", "Природа"}};
+
+    private final static int[] IDS = {10, 11, 12, -12, 13, 14, -14, 20, 21, 99};
+
+    private final static String[] TITLES = {"Кошка", "Собака", "Кот", "Животное", "Зверь", "Тигр", "Природа"};
+
+    public LinksGraphTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws java.lang.Exception {
+        Class.forName("org.sqlite.JDBC");
+        connect = new Connect();
+        connect.conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        connect.enc.SetEncodings("UTF8", "UTF8", "UTF8");
+
+        Statement s = connect.conn.createStatement();
+        try {
+            s.execute("CREATE TABLE page (page_id INTEGER, page_namespace INTEGER, page_title TEXT, page_is_redirect INTEGER)");
+            s.execute("CREATE TABLE pagelinks (pl_from INTEGER, pl_namespace INTEGER, pl_title TEXT)");
+            s.execute("CREATE TABLE categorylinks (cl_from INTEGER, cl_to TEXT)");
+            for(String[] p:PAGES)
+                s.execute("INSERT INTO page VALUES (" + p[0] + "," + p[1] + ",'" + p[2] + "'," + p[3] + ")");
+            for(String[] l:PAGELINKS)
+                s.execute("INSERT INTO pagelinks VALUES (" + l[0] + "," + l[1] + ",'" + l[2] + "')");
+            for(String[] c:CATEGORYLINKS)
+                s.execute("INSERT INTO categorylinks VALUES (" + c[0] + ",'" + c[1] + "')");
+        } finally {
+            s.close();
+        }
+
+        file = File.createTempFile("links_graph_test", ".gz");
+        LinksGraph g = LinksGraph.createFromDB(connect);
+        assertNotNull(g);
+        g.save(file);
+
+        session_sql = new SessionHolder();
+        session_sql.connect = connect;
+
+        session_graph = new SessionHolder();
+        session_graph.connect = connect;
+        assertTrue(session_graph.loadLinksGraph(file.getPath()));
+        assertNotNull(session_graph.links_graph);
+    }
+
+    protected void tearDown() throws java.lang.Exception {
+        connect.conn.close();
+        file.delete();
+    }
+
+    public static junit.framework.Test suite() {
+        junit.framework.TestSuite suite = new junit.framework.TestSuite(LinksGraphTest.class);
+
+        return suite;
+    }
+
+    private static List<String> sorted(String[] a) {
+        if(null == a)
+            return null;
+        List<String> result = new ArrayList<String>(Arrays.asList(a));
+        Collections.sort(result);
+        return result;
+    }
+
+    /** Gets sorted list of "id title" of pages. */
+    private static List<String> sorted(ArticleIdAndTitle[] aid) {
+        List<String> result = new ArrayList<String>();
+        for(ArticleIdAndTitle a:aid)
+            result.add(a.id + " " + a.title);
+        Collections.sort(result);
+        return result;
+    }
+
+    public void testSaveLoad() throws java.lang.Exception {
+        System.out.println("saveLoad");
+        LinksGraph g = LinksGraph.createFromDB(connect);
+        LinksGraph h = session_graph.links_graph;
+
+        assertEquals(9, g.getPagesNumber());    // 7 pages, red link Тигр, category Природа
+        assertEquals(g.getPagesNumber(),         h.getPagesNumber());
+        assertEquals(8, g.getLinksNumber());    // without links to the category
+        assertEquals(g.getLinksNumber(),         h.getLinksNumber());
+        assertEquals(4, g.getCategoryLinksNumber());
+        assertEquals(g.getCategoryLinksNumber(), h.getCategoryLinksNumber());
+
+        for(int id:IDS) {
+            assertEquals(Arrays.asList(g.getTitleToByIDFrom(id)), Arrays.asList(h.getTitleToByIDFrom(id)));
+            assertEquals(sorted(g.getCategoryTitles(id)), sorted(h.getCategoryTitles(id)));
+        }
+        for(String t:TITLES) {
+            assertEquals(g.getIDByTitle(t, PageNamespace.MAIN),     h.getIDByTitle(t, PageNamespace.MAIN));
+            assertEquals(g.getIDByTitle(t, PageNamespace.CATEGORY), h.getIDByTitle(t, PageNamespace.CATEGORY));
+            assertEquals(sorted(g.getFromByTitleTo(t, -1)), sorted(h.getFromByTitleTo(t, -1)));
+        }
+    }
+
+    public void testLoadLinksGraph_empty() {
+        System.out.println("loadLinksGraph_empty");
+        assertTrue(session_graph.loadLinksGraph(""));
+        assertNull(session_graph.links_graph);
+
+        assertFalse(session_graph.loadLinksGraph(file.getPath() + ".absent"));
+        assertNull(session_graph.links_graph);
+    }
+
+    public void testGetTitleToByIDFrom_sql() {
+        System.out.println("getTitleToByIDFrom_sql");
+
+        assertEquals(Arrays.asList("Животное", "Собака", "Тигр"),
+                     sorted(Links.getTitleToByIDFrom(session_graph, new int[] {10}, PageNamespace.MAIN)));
+        for(int id:IDS) {
+            int[] pl_from = {id < 0 ? -id : id};
+            assertEquals(sorted(Links.getTitleToByIDFrom(session_sql,   pl_from, PageNamespace.MAIN)),
+                         sorted(Links.getTitleToByIDFrom(session_graph, pl_from, PageNamespace.MAIN)));
+        }
+    }
+
+    /** The redirect 14 links to the category and to the article, both
+     * return the article. */
+    public void testGetTitleToOneByIDFrom_sql() {
+        System.out.println("getTitleToOneByIDFrom_sql");
+
+        assertEquals("Кошка",    Links.getTitleToOneByIDFrom(session_sql,   -12));
+        assertEquals("Кошка",    Links.getTitleToOneByIDFrom(session_graph, -12));
+        assertEquals("Животное", Links.getTitleToOneByIDFrom(session_sql,   -14));
+        assertEquals("Животное", Links.getTitleToOneByIDFrom(session_graph, -14));
+        assertNull(Links.getTitleToOneByIDFrom(session_sql,   21));
+        assertNull(Links.getTitleToOneByIDFrom(session_graph, 21));
+    }
+
+    public void testGetFromByTitleTo_sql() {
+        System.out.println("getFromByTitleTo_sql");
+
+        assertEquals(Arrays.asList("-12 Кот", "13 Животное", "20 Млекопитающие"),
+                     sorted(Links.getFromByTitleTo(session_graph, "Кошка", PageNamespace.MAIN, -1)));
+        for(String t:TITLES)
+            assertEquals(sorted(Links.getFromByTitleTo(session_sql,   t, PageNamespace.MAIN, -1)),
+                         sorted(Links.getFromByTitleTo(session_graph, t, PageNamespace.MAIN, -1)));
+    }
+
+    public void testGetIDByTitle_sql() {
+        System.out.println("getIDByTitle_sql");
+
+        assertEquals(-12, PageTable.getIDByTitle(session_graph, "Кот"));
+        assertEquals(  0, PageTable.getIDByTitle(session_graph, "Тигр"));
+        assertEquals( 21, PageTable.getCategoryIDByTitle(session_graph, "Животные"));
+        for(String t:TITLES) {
+            assertEquals(PageTable.getIDByTitle(session_sql, t), PageTable.getIDByTitle(session_graph, t));
+            assertEquals(PageTable.getCategoryIDByTitle(session_sql, t), PageTable.getCategoryIDByTitle(session_graph, t));
+        }
+    }
+
+    public void testGetCategoryTitles_sql() {
+        System.out.println("getCategoryTitles_sql");
+
+        assertEquals(Arrays.asList("Млекопитающие"), sorted(CategoryBlackList.getCategoryTitles(session_graph, 10)));
+        for(int id:IDS)
+            if(0 < id)
+                assertEquals(sorted(CategoryBlackList.getCategoryTitles(session_sql,   id)),
+                             sorted(CategoryBlackList.getCategoryTitles(session_graph, id)));
+    }
+}
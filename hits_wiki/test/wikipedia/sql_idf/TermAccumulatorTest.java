@@ -0,0 +1,176 @@
+
+package wikipedia.sql_idf;
+
+import wikipedia.sql.Connect;
+
+import junit.framework.*;
+import java.util.*;
+import java.io.File;
+
+
+public class TermAccumulatorTest extends TestCase {
+
+    public Connect   idfsimplewiki_conn;
+
+    String lemma1, lemma2;
+    String lemma_yo, lemma_ye, lemma_accent, lemma_no_accent;
+    String page_title1, page_title2, page_title3, page_title3_accent;
+
+    public TermAccumulatorTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+        idfsimplewiki_conn = new Connect();
+        idfsimplewiki_conn.Open(Connect.IDF_SIMPLE_HOST, Connect.IDF_SIMPLE_DB, Connect.IDF_SIMPLE_USER, Connect.IDF_SIMPLE_PASS);
+
+        lemma1 = "test_term_acc_SHOE";
+        lemma2 = "test_term_acc_BRUSH";
+        page_title1 = "test_term_acc.page_title1";
+        page_title2 = "test_term_acc.page_title2";
+        page_title3 = "test_term_acc.page_title3";
+        page_title3_accent = "test_term_acc.page_títle3";
+
+        // the same lemmas in utf8_general_ci
+        lemma_yo        = "test_term_acc_ёлка";
+        lemma_ye        = "test_term_acc_елка";
+        lemma_accent    = "test_term_acc_café";
+        lemma_no_accent = "test_term_acc_cafe";
+        deleteTestData();
+    }
+
+    protected void tearDown() throws Exception {
+        deleteTestData();
+        idfsimplewiki_conn.Close();
+    }
+
+    private void deleteTestData() {
+        java.sql.Connection conn = idfsimplewiki_conn.conn;
+
+        for(String lemma : new String[] {lemma1, lemma2, lemma_yo, lemma_accent}) {
+            Term t = Term.get(conn, lemma);
+            if(null != t)
+                TermPage.deleteByTermID(conn, t.getTermID());
+            Term.delete(conn, lemma);
+        }
+        Page.delete(conn, page_title1);
+        Page.delete(conn, page_title2);
+        Page.delete(conn, page_title3);
+    }
+
+    private static Map<String, Integer> createLemmaTF(String lemma1, int tf1, String lemma2, int tf2) {
+        Map<String, Integer> m = new HashMap<String, Integer>();
+        m.put(lemma1, tf1);
+        if(null != lemma2)
+            m.put(lemma2, tf2);
+        return m;
+    }
+
+    /** The same result as Term.incLemmaDocFreq,
+     * see TermTest.testIncLemmaDocFreq__doc_freq_max__simple */
+    private void checkDocFreqMax(File spill_dir) {
+        java.sql.Connection conn = idfsimplewiki_conn.conn;
+        int doc_freq_max = 2;
+
+        TermAccumulator acc = new TermAccumulator(conn, doc_freq_max, 2, spill_dir);
+        acc.addPage(page_title1, createLemmaTF(lemma1, 3, lemma2, 1));
+        acc.addPage(page_title2, createLemmaTF(lemma1, 6, null, 0));
+        acc.addPage(page_title3, createLemmaTF(lemma1, 9, null, 0));  // 3 > doc_freq_max
+        assertEquals(3, acc.getDocFreq(lemma1));
+        assertEquals(1, acc.getDocFreq(lemma2));
+        acc.close();
+
+        Term t1 = Term.get(conn, lemma1);
+        assertNotNull(t1);
+        assertEquals(3, t1.getDocFreq());       // term.doc_freq = 3, real number of docs with term
+        assertEquals(3+6+9, t1.getCorpusFreq());
+        assertEquals(2, TermPage.countPagesWithTerm(conn, t1.getTermID()));   // 2, not 3
+
+        Term t2 = Term.get(conn, lemma2);
+        assertNotNull(t2);
+        assertEquals(1, t2.getDocFreq());
+        assertEquals(1, TermPage.countPagesWithTerm(conn, t2.getTermID()));
+
+        Page p1 = Page.get(conn, page_title1);
+        assertNotNull(p1);
+        assertEquals(3+1, p1.getWordCount());
+        assertEquals(3, TermPage.getTermFreqInDocument(conn, t1.getTermID(), p1.getPageID()));
+        assertNotNull(Page.get(conn, page_title3));
+    }
+
+    public void testAddPage_doc_freq_max() {
+        System.out.println("addPage_doc_freq_max");
+        checkDocFreqMax(null);
+    }
+
+    public void testAddPage_spill_to_disk() {
+        System.out.println("addPage_spill_to_disk");
+        checkDocFreqMax(new File(System.getProperty("java.io.tmpdir")));
+    }
+
+    public void testGetKey() {
+        System.out.println("getKey");
+        assertEquals(TermAccumulator.getKey("ёлка"),   TermAccumulator.getKey("ЕЛКА"));
+        assertEquals(TermAccumulator.getKey("café"),   TermAccumulator.getKey("Cafe "));
+        assertEquals(TermAccumulator.getKey("straße"), TermAccumulator.getKey("STRASE"));
+        assertFalse(TermAccumulator.getKey("йод").equals(TermAccumulator.getKey("иод")));
+        assertFalse(TermAccumulator.getKey("кафе").equals(TermAccumulator.getKey("cafe")));
+    }
+
+    /** Lemmas ё/е and lemmas with/without accent are the same row of the
+     * table term (utf8_general_ci), so they get one term_id. */
+    public void testAddPage_collation() {
+        System.out.println("addPage_collation");
+        java.sql.Connection conn = idfsimplewiki_conn.conn;
+
+        TermAccumulator acc = new TermAccumulator(conn, 10, TermAccumulator.POSTINGS_MAX, null);
+        int n_terms = acc.getTermsNumber();
+        int n_pages = acc.getPagesNumber();
+        acc.addPage(page_title1, createLemmaTF(lemma_yo, 1, lemma_accent,    2));
+        acc.addPage(page_title2, createLemmaTF(lemma_ye, 3, lemma_no_accent, 4));
+        acc.addPage(page_title3_accent, createLemmaTF(lemma_ye, 5, null, 0));
+        acc.addPage(page_title3,        createLemmaTF(lemma_ye, 6, null, 0));
+        assertEquals(n_terms + 2, acc.getTermsNumber());
+        assertEquals(n_pages + 3, acc.getPagesNumber());
+        assertEquals(4,       acc.getDocFreq(lemma_yo));
+        assertEquals(1+3+5+6, acc.getCorpusFreq(lemma_yo));
+        assertEquals(2,       acc.getDocFreq(lemma_no_accent));
+        acc.close();
+
+        Term t = Term.get(conn, lemma_ye);
+        assertNotNull(t);
+        assertEquals(4,       t.getDocFreq());
+        assertEquals(1+3+5+6, t.getCorpusFreq());
+        assertEquals(3, TermPage.countPagesWithTerm(conn, t.getTermID()));   // page3 twice
+
+        t = Term.get(conn, lemma_accent);
+        assertNotNull(t);
+        assertEquals(2,   t.getDocFreq());
+        assertEquals(2+4, t.getCorpusFreq());
+        assertEquals(2, TermPage.countPagesWithTerm(conn, t.getTermID()));
+
+        Page p3 = Page.get(conn, page_title3);
+        assertNotNull(p3);
+        assertEquals(6, p3.getWordCount());
+    }
+
+    /** Terms are loaded from the database, so the build can be continued. */
+    public void testAddPage_continue() {
+        System.out.println("addPage_continue");
+        java.sql.Connection conn = idfsimplewiki_conn.conn;
+
+        TermAccumulator acc = new TermAccumulator(conn, 10, TermAccumulator.POSTINGS_MAX, null);
+        acc.addPage(page_title1, createLemmaTF(lemma1, 3, null, 0));
+        acc.close();
+
+        acc = new TermAccumulator(conn, 10, TermAccumulator.POSTINGS_MAX, null);
+        assertEquals(1, acc.getDocFreq(lemma1));
+        acc.addPage(page_title2, createLemmaTF(lemma1, 4, null, 0));
+        acc.close();
+
+        Term t1 = Term.get(conn, lemma1);
+        assertEquals(2, t1.getDocFreq());
+        assertEquals(3+4, t1.getCorpusFreq());
+        assertEquals(2, TermPage.countPagesWithTerm(conn, t1.getTermID()));
+    }
+}
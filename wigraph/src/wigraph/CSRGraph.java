@@ -0,0 +1,635 @@
+/* CSRGraph.java - compact graph of semantic relations (compressed sparse row).
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wigraph;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/** Undirected graph of words in compressed sparse row (CSR) format,
+ * it is a compact alternative to the JUNG SparseGraph&lt;String,Integer&gt;
+ * (see GraphCreator.createGraph()).<br><br>
+ *
+ * Vertices are words, ID of vertex is an index in the sorted array of words,
+ * i.e. word -> ID is a binary search. Neighbours of the vertex v are
+ * targets[offsets[v] .. offsets[v+1]-1], the type of relation of each
+ * edge is stored in relation[] (e.g. ID of relation type in the table
+ * relation_type, 0 if it is unknown).
+ *
+ * Each edge (v1, v2) is stored twice: v1 -> v2 and v2 -> v1.
+ * The graph is immutable, the search of path is thread-safe.
+ */
+public class CSRGraph {
+
+    private final static String[] NULL_STRING_ARRAY = new String[0];
+    private final static int[] NULL_INT_ARRAY = new int[0];
+
+    /** Relation type of an edge, if it is unknown. */
+    public final static byte UNKNOWN_RELATION = 0;
+
+    /** Signature of the file with the graph. */
+    private final static int FILE_MAGIC = 0x43535247;  // "CSRG"
+
+    /** Signature and tags of records of the edge file written by
+     * wikokit.base.wikt.sql.WordPairFile (see TRelation.exportWordPairs()). */
+    private final static int  PAIR_FILE_MAGIC = 0x57505246;  // "WPRF"
+    private final static byte PAIR_END    = 0;
+    private final static byte PAIR_VERTEX = 1;
+    private final static byte PAIR_EDGE   = 2;
+
+    /** Sorted array of words (vertices), index is the vertex ID. */
+    private final String[] words;
+
+    /** Start of the neighbours of the vertex v in targets[], size is n+1. */
+    private final int[] offsets;
+
+    /** Neighbours (vertex IDs) of all vertices. */
+    private final int[] targets;
+
+    /** Type of relation of each edge in targets[]. */
+    private final byte[] relation;
+
+    /** Working arrays of bidirectional breadth-first search, one per thread. */
+    private final ThreadLocal<Search> search = new ThreadLocal<Search>() {
+        @Override
+        protected Search initialValue() {
+            return new Search(words.length);
+        }
+    };
+
+    /** Working arrays of multi-source bidirectional search, one per thread. */
+    private final ThreadLocal<MultiSearch> multi_search = new ThreadLocal<MultiSearch>() {
+        @Override
+        protected MultiSearch initialValue() {
+            return new MultiSearch(words.length);
+        }
+    };
+
+    private CSRGraph(String[] _words, int[] _offsets, int[] _targets, byte[] _relation) {
+        words       = _words;
+        offsets     = _offsets;
+        targets     = _targets;
+        relation    = _relation;
+    }
+
+    /** Creates graph from arrays of edges.
+     *
+     * @param vertices  words, duplicates are allowed
+     * @param from      word (index in vertices) of the first end of each edge
+     * @param to        word (index in vertices) of the second end of each edge
+     * @param rel       type of relation of each edge, or null if it is unknown
+     * @param n_edges   number of edges in from[], to[] and rel[]
+     */
+    public static CSRGraph create(String[] vertices, int[] from, int[] to, byte[] rel, int n_edges) {
+
+        // sorted unique words
+        String[] sorted = vertices.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for(int i=0; i<sorted.length; i++)
+            if(0 == n || !sorted[i].equals(sorted[n-1]))
+                sorted[n++] = sorted[i];
+        String[] _words = Arrays.copyOf(sorted, n);
+
+        // old index -> vertex ID
+        int[] id = new int[vertices.length];
+        for(int i=0; i<vertices.length; i++)
+            id[i] = Arrays.binarySearch(_words, vertices[i]);
+
+        // number of neighbours, loops are skipped
+        int[] _offsets = new int[n + 1];
+        for(int i=0; i<n_edges; i++) {
+            int v1 = id[from[i]], v2 = id[to[i]];
+            if(v1 != v2) {
+                _offsets[v1 + 1] ++;
+                _offsets[v2 + 1] ++;
+            }
+        }
+        for(int v=0; v<n; v++)
+            _offsets[v + 1] += _offsets[v];
+
+        int[]  _targets  = new int [_offsets[n]];
+        byte[] _relation = new byte[_offsets[n]];
+        int[]  pos = Arrays.copyOf(_offsets, n);
+        for(int i=0; i<n_edges; i++) {
+            int v1 = id[from[i]], v2 = id[to[i]];
+            if(v1 != v2) {
+                byte r = null == rel ? UNKNOWN_RELATION : rel[i];
+                _targets [pos[v1]] = v2;
+                _relation[pos[v1]++] = r;
+                _targets [pos[v2]] = v1;
+                _relation[pos[v2]++] = r;
+            }
+        }
+        return new CSRGraph(_words, _offsets, _targets, _relation);
+    }
+
+    /** Creates graph from words and pairs of indices of words,
+     * the same arguments as GraphCreator.createGraph(String[], int[][]).
+     */
+    public static CSRGraph create(String[] v, int[][] edges) {
+        int n_edges = null == edges ? 0 : edges.length;
+        int[] from = new int[n_edges];
+        int[] to   = new int[n_edges];
+        for(int i=0; i<n_edges; i++) {
+            from[i] = edges[i][0];
+            to  [i] = edges[i][1];
+        }
+        return create(v, from, to, null, n_edges);
+    }
+
+    /** Creates graph from words relations (serialized by SaveRelations),
+     * the same arguments as GraphCreator.createGraph(Map, List).
+     *
+     * @param edges words relations,
+     * e.g. car -> carriage, car -> automobile (synonyms)
+     *      car -> vehicle (hyperohym)
+     * @param unique_words all words of relations
+     */
+    public static CSRGraph create(Map<String,List<String>> edges, List<String> unique_words) {
+
+        int n_edges = 0;
+        for(List<String> list_v2 : edges.values())
+            n_edges += list_v2.size();
+
+        // vertices: unique words, then ends of edges
+        String[] vertices = new String[unique_words.size() + edges.size() + n_edges];
+        int n = 0;
+        for(String s : unique_words)
+            vertices[n++] = s;
+
+        int[] from = new int[n_edges];
+        int[] to   = new int[n_edges];
+        int i = 0;
+        for(Map.Entry<String,List<String>> e : edges.entrySet()) {
+            int v1 = n;
+            vertices[n++] = e.getKey();
+            for(String v2 : e.getValue()) {
+                from[i] = v1;
+                to[i++] = n;
+                vertices[n++] = v2;
+            }
+        }
+        return create(vertices, from, to, null, n_edges);
+    }
+
+    /** Gets number of vertices (words). */
+    public int getVertexCount() {
+        return words.length;
+    }
+
+    /** Gets number of edges (each edge is counted once). */
+    public int getEdgeCount() {
+        return targets.length / 2;
+    }
+
+    /** Gets ID of the vertex.
+     * @return -1 if the graph has no such word
+     */
+    public int getID(String word) {
+        int v = Arrays.binarySearch(words, word);
+        return v < 0 ? -1 : v;
+    }
+
+    public boolean containsVertex(String word) {
+        return Arrays.binarySearch(words, word) >= 0;
+    }
+
+    /** Gets word by the vertex ID. */
+    public String getWord(int v) {
+        return words[v];
+    }
+
+    /** Gets number of neighbours of the vertex v. */
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /** Gets the i-th neighbour of the vertex v, i &lt; degree(v). */
+    public int getNeighbour(int v, int i) {
+        return targets[offsets[v] + i];
+    }
+
+    /** Gets type of relation between the vertex v and its i-th neighbour. */
+    public byte getRelation(int v, int i) {
+        return relation[offsets[v] + i];
+    }
+
+    /** Working arrays of bidirectional breadth-first search.
+     * Arrays are not cleared before each search, the vertex is visited
+     * in the current search if mark[v] == stamp (or -stamp for the
+     * search from the destination vertex).
+     */
+    private static class Search {
+
+        int     stamp;
+        final int[] mark;
+        final int[] parent;
+        final int[] dist;
+        final int[] queue_from;
+        final int[] queue_to;
+
+        Search(int n) {
+            mark        = new int[n];
+            parent      = new int[n];
+            dist        = new int[n];
+            queue_from  = new int[n];
+            queue_to    = new int[n];
+        }
+
+        /** Starts new search, returns stamp of this search. */
+        int next() {
+            if(Integer.MAX_VALUE == stamp) {
+                Arrays.fill(mark, 0);
+                stamp = 0;
+            }
+            return ++ stamp;
+        }
+    }
+
+    /** Finds the shortest path from v1 to v2 by bidirectional
+     * breadth-first search, i.e. by search from both vertices at once:
+     * the smaller frontier is expanded by one level, till frontiers meet.
+     *
+     * @return IDs of vertices of the path from v1 to v2,
+     *         or empty array if there is no path or v1 == v2
+     */
+    public int[] getShortestPath(int v1, int v2) {
+
+        if(v1 == v2)
+            return NULL_INT_ARRAY;
+
+        Search s = search.get();
+        int stamp = s.next();
+        int[] mark = s.mark, parent = s.parent, dist = s.dist;
+        int[] q1 = s.queue_from, q2 = s.queue_to;
+
+        mark[v1] =  stamp; parent[v1] = -1; dist[v1] = 0;
+        mark[v2] = -stamp; parent[v2] = -1; dist[v2] = 0;
+        q1[0] = v1; int head1 = 0, tail1 = 1;
+        q2[0] = v2; int head2 = 0, tail2 = 1;
+
+        // the best meeting: edge (meet_from, meet_to), where meet_from is
+        // visited from v1, meet_to is visited from v2
+        int best = Integer.MAX_VALUE, meet_from = -1, meet_to = -1;
+
+        while(head1 < tail1 && head2 < tail2) {
+            boolean forward = tail1 - head1 <= tail2 - head2;
+            int[] q   = forward ? q1 : q2;
+            int head  = forward ? head1 : head2;
+            int tail  = forward ? tail1 : tail2;
+            int own   = forward ? stamp : -stamp;
+            int level_end = tail;
+
+            // expands one level
+            for(; head < level_end; head++) {
+                int u = q[head];
+                for(int j=offsets[u]; j<offsets[u + 1]; j++) {
+                    int w = targets[j];
+                    if(own == mark[w])
+                        continue;
+                    if(-own == mark[w]) {   // frontiers meet
+                        int len = dist[u] + 1 + dist[w];
+                        if(len < best) {
+                            best = len;
+                            meet_from = forward ? u : w;
+                            meet_to   = forward ? w : u;
+                        }
+                        continue;
+                    }
+                    mark[w]   = own;
+                    parent[w] = u;
+                    dist[w]   = dist[u] + 1;
+                    q[tail++] = w;
+                }
+            }
+            if(forward) {
+                head1 = head; tail1 = tail;
+            } else {
+                head2 = head; tail2 = tail;
+            }
+            if(best != Integer.MAX_VALUE)
+                break;
+        }
+        if(best == Integer.MAX_VALUE)
+            return NULL_INT_ARRAY;
+
+        int[] path = new int[best + 1];
+        int i = dist[meet_from];
+        for(int v = meet_from; v != -1; v = parent[v])
+            path[i--] = v;
+        i = dist[meet_from] + 1;
+        for(int v = meet_to; v != -1; v = parent[v])
+            path[i++] = v;
+        return path;
+    }
+
+    /** Finds the shortest path from word1 to word2.
+     *
+     * @return ordered array of words from word1 to word2, or empty array
+     *         if there is no path or there is no such word in the graph
+     */
+    public String[] getShortestPath(String word1, String word2) {
+
+        int v1 = getID(word1);
+        int v2 = getID(word2);
+        if(-1 == v1 || -1 == v2)
+            return NULL_STRING_ARRAY;
+
+        int[] path = getShortestPath(v1, v2);
+        String[] result = new String[path.length];
+        for(int i=0; i<path.length; i++)
+            result[i] = words[path[i]];
+        return result;
+    }
+
+    /** Visited vertices of one side of the multi-source bidirectional search.
+     * Bit i of seen[v] (frontier[v], next[v]) is the i-th start vertex of
+     * the side, i &lt; 64. Only visited vertices (touched[]) are cleared
+     * after the search.
+     */
+    private static class Side {
+
+        final long[] seen;
+        final long[] frontier;
+        final long[] next;
+        final int[]  touched;
+        int[]   list_cur;
+        int[]   list_next;
+        int     n_touched;
+        int     n_cur;
+        int     depth;
+
+        Side(int n) {
+            seen        = new long[n];
+            frontier    = new long[n];
+            next        = new long[n];
+            touched     = new int[n];
+            list_cur    = new int[n];
+            list_next   = new int[n];
+        }
+
+        /** Starts the search from vertices v[from .. from+n_bits-1]. */
+        void start(int[] v, int from, int n_bits) {
+            n_touched = 0;
+            n_cur = 0;
+            depth = 0;
+            for(int i=0; i<n_bits; i++) {
+                int u = v[from + i];
+                if(0 == seen[u]) {
+                    touched [n_touched++] = u;
+                    list_cur[n_cur++] = u;
+                }
+                seen[u]     |= 1L << i;
+                frontier[u] |= 1L << i;
+            }
+        }
+
+        void clear() {
+            for(int k=0; k<n_touched; k++) {
+                int v = touched[k];
+                seen[v] = 0;
+                frontier[v] = 0;
+            }
+        }
+    }
+
+    /** Working arrays of multi-source bidirectional search. */
+    private static class MultiSearch {
+        final Side from;
+        final Side to;
+        final long[] found = new long[64];
+
+        MultiSearch(int n) {
+            from = new Side(n);
+            to   = new Side(n);
+        }
+    }
+
+    /** Calculates lengths of shortest paths from each source vertex to each
+     * target vertex by multi-source bidirectional breadth-first search:
+     * up to 64 sources and 64 targets are searched at once by one traversal,
+     * the start vertices are bits of long masks of visited vertices.
+     * The side with the smaller frontier is expanded by one level, the pair
+     * (source, target) gets the distance, when its frontiers meet first time.
+     * The search stops, when all pairs are found.
+     *
+     * @param src       IDs of source vertices
+     * @param dst       IDs of target vertices
+     * @param max_depth maximum length of path (number of edges), 0 if unlimited
+     * @return dist[i][j] - number of edges from src[i] to dst[j],
+     *         0 if src[i] == dst[j], -1 if there is no path
+     *         (or the path is longer than max_depth)
+     */
+    public int[][] getDistances(int[] src, int[] dst, int max_depth) {
+
+        int[][] dist = new int[src.length][dst.length];
+        for(int[] d : dist)
+            Arrays.fill(d, -1);
+
+        MultiSearch s = multi_search.get();
+        Side from = s.from, to = s.to;
+
+        for(int block1=0; block1<src.length; block1+=64) {
+            for(int block2=0; block2<dst.length; block2+=64) {
+                int n1 = Math.min(64, src.length - block1);
+                int n2 = Math.min(64, dst.length - block2);
+                long remain = (long)n1 * n2;    // pairs without distance
+
+                from.start(src, block1, n1);
+                to  .start(dst, block2, n2);
+                Arrays.fill(s.found, 0);
+                for(int k=0; k<from.n_cur; k++) {
+                    int v = from.list_cur[k];
+                    if(0 != to.seen[v])
+                        remain -= meet(dist, s.found, block1, block2, from.seen[v], to.seen[v], 0);
+                }
+
+                while(remain > 0 && from.n_cur > 0 && to.n_cur > 0 &&
+                      (0 == max_depth || from.depth + to.depth < max_depth)) {
+                    if(from.n_cur <= to.n_cur)
+                        remain -= expand(from, to, true,  dist, s.found, block1, block2);
+                    else
+                        remain -= expand(to, from, false, dist, s.found, block1, block2);
+                }
+                from.clear();
+                to  .clear();
+            }
+        }
+        return dist;
+    }
+
+    /** Expands the side a by one level and stores distances of pairs,
+     * which frontiers meet the visited vertices of the side b.
+     *
+     * Since the levels are expanded one by one, the first meeting of
+     * the pair happens at vertex of the last level of both sides,
+     * i.e. the distance is a.depth + b.depth.
+     *
+     * @param forward true if a is the side of sources
+     * @return number of found pairs
+     */
+    private int expand(Side a, Side b, boolean forward,
+                       int[][] dist, long[] found, int block1, int block2) {
+
+        long[] seen = a.seen, frontier = a.frontier, next = a.next;
+        int[] cur = a.list_cur, nxt = a.list_next;
+        int n_nxt = 0;
+
+        for(int k=0; k<a.n_cur; k++) {
+            int v = cur[k];
+            long f = frontier[v];
+            frontier[v] = 0;
+            for(int j=offsets[v]; j<offsets[v + 1]; j++) {
+                int u = targets[j];
+                long new_bits = f & ~seen[u];
+                if(0 == new_bits)
+                    continue;
+                if(0 == seen[u])
+                    a.touched[a.n_touched++] = u;
+                if(0 == next[u])
+                    nxt[n_nxt++] = u;
+                seen[u] |= new_bits;
+                next[u] |= new_bits;
+            }
+        }
+        a.depth ++;
+
+        int n_found = 0;
+        int depth = a.depth + b.depth;
+        for(int k=0; k<n_nxt; k++) {
+            int u = nxt[k];
+            frontier[u] = next[u];
+            next[u] = 0;
+            if(0 != b.seen[u])
+                n_found += forward ?
+                    meet(dist, found, block1, block2, frontier[u], b.seen[u], depth) :
+                    meet(dist, found, block1, block2, b.seen[u], frontier[u], depth);
+        }
+        a.list_cur  = nxt;
+        a.list_next = cur;
+        a.n_cur     = n_nxt;
+        return n_found;
+    }
+
+    /** Stores the distance of pairs (bit i of bits1, bit j of bits2),
+     * which were not found before (found[i] has no bit j).
+     * @return number of new pairs
+     */
+    private static int meet(int[][] dist, long[] found, int block1, int block2,
+                            long bits1, long bits2, int depth) {
+        int n = 0;
+        for(long b1=bits1; b1 != 0; b1 &= b1 - 1) {
+            int i = Long.numberOfTrailingZeros(b1);
+            long new_bits = bits2 & ~found[i];
+            found[i] |= new_bits;
+            for(long b2=new_bits; b2 != 0; b2 &= b2 - 1) {
+                dist[block1 + i][block2 + Long.numberOfTrailingZeros(b2)] = depth;
+                n ++;
+            }
+        }
+        return n;
+    }
+
+    /** Stores the graph to a binary file, it is loaded by read()
+     * much faster than the serialized map of relations.
+     */
+    public void write(String filename) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                                        new FileOutputStream(filename), 1 << 16));
+        try {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(words.length);
+            out.writeInt(targets.length);
+            for(String w : words)
+                out.writeUTF(w);
+            for(int o : offsets)
+                out.writeInt(o);
+            for(int t : targets)
+                out.writeInt(t);
+            out.write(relation);
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Loads the graph stored by write(). */
+    public static CSRGraph read(String filename) throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                                        new FileInputStream(filename), 1 << 16));
+        try {
+            if(FILE_MAGIC != in.readInt())
+                throw new IOException("The file " + filename + " is not a graph stored by CSRGraph.write()");
+
+            int n       = in.readInt();
+            int n_targets = in.readInt();
+            String[] _words = new String[n];
+            for(int i=0; i<n; i++)
+                _words[i] = in.readUTF();
+
+            int[] _offsets = new int[n + 1];
+            for(int i=0; i<=n; i++)
+                _offsets[i] = in.readInt();
+
+            int[] _targets = new int[n_targets];
+            for(int i=0; i<n_targets; i++)
+                _targets[i] = in.readInt();
+
+            byte[] _relation = new byte[n_targets];
+            in.readFully(_relation);
+
+            return new CSRGraph(_words, _offsets, _targets, _relation);
+        } finally {
+            in.close();
+        }
+    }
+
+    /** Creates graph from the edge file of pairs of words, which is stored
+     * by TRelation.exportWordPairs(), the type of relation of each edge
+     * is relation_type_id.
+     */
+    public static CSRGraph readWordPairs(String filename) throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                                        new FileInputStream(filename), 1 << 16));
+        try {
+            if(PAIR_FILE_MAGIC != in.readInt())
+                throw new IOException("The file " + filename + " is not a file stored by TRelation.exportWordPairs()");
+
+            String[] vertices = new String[1024];
+            int[]  from = new int [1024];
+            int[]  to   = new int [1024];
+            byte[] rel  = new byte[1024];
+            int n = 0, n_edges = 0;
+
+            byte tag;
+            while(PAIR_END != (tag = in.readByte())) {
+                if(PAIR_VERTEX == tag) {
+                    if(n == vertices.length)
+                        vertices = Arrays.copyOf(vertices, 2 * n);
+                    vertices[n++] = in.readUTF();
+                } else if(PAIR_EDGE == tag) {
+                    if(n_edges == from.length) {
+                        from = Arrays.copyOf(from, 2 * n_edges);
+                        to   = Arrays.copyOf(to,   2 * n_edges);
+                        rel  = Arrays.copyOf(rel,  2 * n_edges);
+                    }
+                    from[n_edges] = in.readInt();
+                    to  [n_edges] = in.readInt();
+                    rel [n_edges++] = in.readByte();
+                } else
+                    throw new IOException("Unknown record " + tag + " in the file " + filename);
+            }
+            return create(Arrays.copyOf(vertices, n), from, to, rel, n_edges);
+        } finally {
+            in.close();
+        }
+    }
+}
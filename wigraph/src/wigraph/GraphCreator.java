@@ -120,6 +120,23 @@ public class GraphCreator {
         return (String[])vertices.toArray(NULL_STRING_ARRAY);
     }
 
+    /** Filters source vertices, remains only vertices which are belong to the compact graph 'g'.
+     *
+     * @return vertices which are belong to the graph 'g'
+     */
+    public static String[] getOnlyVertexInGraph(CSRGraph g,String[] source_vertices) {
+        if(null == source_vertices || 0 == source_vertices.length)
+            return NULL_STRING_ARRAY;
+
+        List<String> vertices = new ArrayList<String>();
+
+        for(String s : source_vertices)
+            if(g.containsVertex(s))
+                vertices.add(s);
+
+        return (String[])vertices.toArray(NULL_STRING_ARRAY);
+    }
+
     public static final String[] labels_samolyot = {
             // 0-8 vertices
             // from "самолёт" to others
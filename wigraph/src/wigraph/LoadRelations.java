@@ -16,7 +16,6 @@ import wikt.constant.Relation;
 import wikipedia.sql.Connect;
 
 import edu.uci.ics.jung.graph.Graph;
-import edu.uci.ics.jung.algorithms.shortestpath.DijkstraShortestPath;
 
 import java.io.*;
 import java.util.*;
@@ -81,15 +80,47 @@ public class LoadRelations {
         return GraphCreator.createGraph(m_words, unique_words);
     }
 
+    /** Loads the compact graph (CSRGraph) of semantic relations.
+     * If the file filename_graph exists, then the graph is read from it,
+     * else the graph is created from serialized (by SaveRelations) relations
+     * and it is stored to filename_graph, so the next loading will be fast.
+     *
+     * @param filename_graph file with graph stored by CSRGraph.write()
+     * @param filename_relation_pairs serialized (by SaveRelations) semantic relations (pairs of words)
+     * @param filename_unique_words serialized (by SaveRelations) list of unique words (from semantic relations)
+     * @return graph thesaurus of semantic relations, or null if loading failed
+     */
+    public static CSRGraph loadCSRGraph(String filename_graph,
+                                String filename_relation_pairs,String filename_unique_words) {
+        try {
+            if(new File(filename_graph).exists()) {
+                System.out.println("Loading graph from file " + filename_graph + " ...");
+                return CSRGraph.read(filename_graph);
+            }
+
+            System.out.println("Loading relations from file " + filename_relation_pairs + " ...");
+            Map<String,List<String>> m_words = LoadRelations.loadMapToLists(filename_relation_pairs);
+            List<String> unique_words        = LoadRelations.loadListString(filename_unique_words);
+
+            System.out.println("Creating graph...");
+            CSRGraph g = CSRGraph.create(m_words, unique_words);
+            g.write(filename_graph);
+            return g;
+        } catch(IOException ex) {
+            System.err.println("IOException (LoadRelations.loadCSRGraph()):: Loading failed (" + filename_graph + ", " + filename_relation_pairs + ", " + filename_unique_words + "), msg: " + ex.getMessage());
+        } catch(ClassNotFoundException ex) {
+            System.err.println("ClassNotFoundException (LoadRelations.loadCSRGraph()):: Serialization failed (" + filename_relation_pairs + ", " + filename_unique_words + "), msg: " + ex.getMessage());
+        }
+        return null;
+    }
+
     public static void main(String[] args) {
 
         Connect ruwikt_parsed_conn = new Connect();
         ruwikt_parsed_conn.Open(Connect.RUWIKT_HOST,Connect.RUWIKT_PARSED_DB,Connect.RUWIKT_USER,Connect.RUWIKT_PASS);
         
-        Graph g = LoadRelations.loadGraph(ruwikt_parsed_conn, "relation_pairs.txt", "unique_words.txt");
+        CSRGraph g = LoadRelations.loadCSRGraph("relation_graph.csr", "relation_pairs.txt", "unique_words.txt");
         assert(null != g);
-        System.out.println("Calculation Dijkstra shortest path...");
-        DijkstraShortestPath<String,Integer> alg = new DijkstraShortestPath(g);
         
         // proceedings: труды, записки (научного об-ва); протоколы
 
@@ -111,7 +142,7 @@ public class LoadRelations {
                     //   null != TPage.get(ruwikt_parsed_conn, word2))
                     //{
                         System.out.println("Starting search path ['" + word1 + "', '" + word2 + "']");
-                        word_path = PathSearcher.getShortestPath(g, alg, word1, word2);
+                        word_path = PathSearcher.getShortestPath(g, word1, word2);
                         if(word_path.length > 0) {
                             int len = word_path.length - 1;
                             System.out.println("There is a path from '" + word1 + "' to '" + word2 + "', length = " + len);
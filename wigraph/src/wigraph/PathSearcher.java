@@ -6,6 +6,7 @@
 
 package wigraph;
 
+import java.util.Arrays;
 import java.util.List;
 
 import edu.uci.ics.jung.algorithms.layout.AbstractLayout;
@@ -114,5 +115,102 @@ public class PathSearcher {
         }
 
         return new DistanceData(average, min, max);
-    }    
+    }
+
+    /** Finds path from word1 to word2 in the compact graph
+     * (bidirectional breadth-first search).
+     *
+     * @param g     source graph with defined words and relations between words
+     * @param word1 source word
+     * @param word2 destination word
+     * @return ordered array of words from word1 to word2, or empty array if there is no path
+     */
+    public static String[] getShortestPath(CSRGraph g, String word1, String word2) {
+
+        if(!g.containsVertex(word1)) {
+            System.out.println("Warning: (PathSearcher.getShortestPath) graph has no word1=" + word1);
+            return NULL_STRING_ARRAY;
+        }
+        if(!g.containsVertex(word2)) {
+            System.out.println("Warning: (PathSearcher.getShortestPath) graph has no word2=" + word2);
+            return NULL_STRING_ARRAY;
+        }
+        return g.getShortestPath(word1, word2);
+    }
+
+    /** Calculates relatedness (1 / an average shortest path) of (from)
+     * words set 1 to word set 2 in the compact graph,
+     * see calcPathLenRelatedness(Graph, DijkstraShortestPath, String[], String[]).
+     *
+     * @param g    source graph with defined words and relations between words
+     * @param set1 source word set
+     * @param set2 destination word set
+     * @return an average shortest path
+     */
+    public static DistanceData calcPathLenRelatedness(CSRGraph g,
+            String[] word_set1, String[] word_set2) {
+        return calcPathLenRelatedness(g, word_set1, word_set2, 0);
+    }
+
+    /** Gets IDs of words in the compact graph, absent words are skipped. */
+    private static int[] getIDs(CSRGraph g, String[] word_set, String name) {
+        int[] ids = new int[word_set.length];
+        int n = 0;
+        for(String word : word_set) {
+            int v = g.getID(word);
+            if(-1 == v)
+                System.out.println("Warning: (PathSearcher.calcPathLenRelatedness) graph has no " + name + "=" + word);
+            else
+                ids[n++] = v;
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    /** Calculates relatedness (1 / an average shortest path) of (from)
+     * words set 1 to word set 2 in the compact graph by one multi-source
+     * search from all words of set 1 (see CSRGraph.getDistances()),
+     * instead of the search of path for each pair of words.
+     *
+     * @param g    source graph with defined words and relations between words
+     * @param set1 source word set
+     * @param set2 destination word set
+     * @param max_depth maximum length of path (number of edges), longer paths
+     *                  are treated as absent, 0 if unlimited
+     * @return an average shortest path
+     */
+    public static DistanceData calcPathLenRelatedness(CSRGraph g,
+            String[] word_set1, String[] word_set2, int max_depth) {
+
+        float average;
+        float min = Float.MAX_VALUE;
+        float max = 0f;
+
+        int[][] dist = g.getDistances(getIDs(g, word_set1, "word1"),
+                                      getIDs(g, word_set2, "word2"), max_depth);
+        int n_pairs = 0;
+        int path_len = 0;
+        for(int[] dist_word1 : dist) {
+            for(int d : dist_word1) {
+                if(d > 0) {                 // path of d edges has d+1 words
+                    n_pairs ++;
+                    path_len += d + 1;
+
+                    float inverse = 1f / (d + 1);
+                    if(inverse > max)
+                        max = inverse;
+                    if(inverse < min)
+                        min = inverse;
+                }
+            }
+        }
+        if(n_pairs > 0) {
+            average = (float)n_pairs/path_len;
+        } else {
+            average = 0f;
+            max = 0f;
+            min = 0f;
+        }
+
+        return new DistanceData(average, min, max);
+    }
 }
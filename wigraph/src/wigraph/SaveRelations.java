@@ -49,19 +49,18 @@ public class SaveRelations
         TPOS.createFastMaps(ruwikt_parsed_conn);    // once upon a time: use Wiktionary parsed db
         
         // edge creation 1
-        // for each TRelation: get page<->wiki_text + type of relation
-        Map<String,List<String>> m_words = TRelation.getAllWordPairs(ruwikt_parsed_conn);
+        // for each TRelation: get page<->wiki_text + type of relation,
+        // the edge file for wigraph and the map are filled by one query,
+        // see CSRGraph.readWordPairs()
+        Map<String,List<String>> m_words = new HashMap<String,List<String>>();
+        TRelation.exportWordPairs(ruwikt_parsed_conn, "relation_pairs.wpr", m_words);
 
         // prepare list of unique words - vertices
         System.out.println("  (preparing list of unique words - vertices)...");
-        List<String> unique_words = new ArrayList();
-        unique_words.addAll(m_words.keySet());
-
+        Set<String> set_words = new LinkedHashSet<String>(m_words.keySet());
         for(List<String> list_s : m_words.values())
-            for(String s : list_s) {
-                if(!unique_words.contains(s))
-                    unique_words.add(s);
-            }
+            set_words.addAll(list_s);
+        List<String> unique_words = new ArrayList<String>(set_words);
         
         String filename1 = "relation_pairs.txt";
         String filename2 = "unique_words.txt";
@@ -73,6 +72,14 @@ public class SaveRelations
         } catch(ClassNotFoundException ex) {
             System.err.println("IOException (wigraph SerializeRelationsToFile.java main()):: Serialization failed (" + filename1 + "), msg: " + ex.getMessage());
         }
+
+        // compact graph, it is loaded much faster, see LoadRelations.loadCSRGraph()
+        String filename3 = "relation_graph.csr";
+        try {
+            CSRGraph.create(m_words, unique_words).write(filename3);
+        } catch(IOException ex) {
+            System.err.println("IOException (wigraph SaveRelations.java main()):: Writing failed (" + filename3 + "), msg: " + ex.getMessage());
+        }
         
 
         // edge creation 2
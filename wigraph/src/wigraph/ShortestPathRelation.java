@@ -17,7 +17,6 @@ import wikipedia.util.StringUtil;
 
 import edu.uci.ics.jung.graph.SparseGraph;
 import edu.uci.ics.jung.graph.Graph;
-import edu.uci.ics.jung.algorithms.shortestpath.DijkstraShortestPath;
 import edu.uci.ics.jung.visualization.renderers.EdgeLabelRenderer;
 
 import javax.swing.Box;
@@ -77,8 +76,7 @@ public class ShortestPathRelation extends JPanel {
 	//private static final long serialVersionUID = 7526217664458188502L;
 
     private static Connect ruwikt_parsed_conn;
-    private static DijkstraShortestPath<String,Integer> alg;
-    private static Graph g_all_relations;
+    private static CSRGraph g_all_relations;
 
     final VisualizationViewer<String,Number> vv;
     final Layout<String,Number> layout;
@@ -112,10 +110,8 @@ public class ShortestPathRelation extends JPanel {
         ruwikt_parsed_conn = new Connect();
         ruwikt_parsed_conn.Open(Connect.RUWIKT_HOST,Connect.RUWIKT_PARSED_DB,Connect.RUWIKT_USER,Connect.RUWIKT_PASS);
         
-        g_all_relations = LoadRelations.loadGraph(ruwikt_parsed_conn, "relation_pairs.txt", "unique_words.txt");
+        g_all_relations = LoadRelations.loadCSRGraph("relation_graph.csr", "relation_pairs.txt", "unique_words.txt");
         assert(null != g_all_relations);
-        System.out.println("Calculation Dijkstra shortest path...");
-        alg = new DijkstraShortestPath(g_all_relations);
     }
     
     /**
@@ -149,7 +145,7 @@ public class ShortestPathRelation extends JPanel {
                    null != TPage.get(ruwikt_parsed_conn, word2))
                 {
                     System.out.println("Starting search path ['" + word1 + "', '" + word2 + "']");
-                    word_path = PathSearcher.getShortestPath(g_all_relations, alg, word1, word2);
+                    word_path = PathSearcher.getShortestPath(g_all_relations, word1, word2);
                     if(word_path.length > 0) {
                         int len = word_path.length - 1;
                         System.out.println("There is a path from '" + word1 + "' to '" + word2 + "', length = " + len);
@@ -290,7 +286,7 @@ public class ShortestPathRelation extends JPanel {
                 layout.setGraph(mGraph);
                 vv.repaint();
 
-                DistanceData dist = PathSearcher.calcPathLenRelatedness(g_all_relations, alg, w1, w2);
+                DistanceData dist = PathSearcher.calcPathLenRelatedness(g_all_relations, w1, w2);
                 result_len.setText("Shortest path len: min="    + dist.min +
                                                     ", average="+ dist.average +
                                                     ", max="+ dist.max);
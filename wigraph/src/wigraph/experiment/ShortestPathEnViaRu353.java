@@ -6,7 +6,7 @@
 
 package wigraph.experiment;
 
-import wigraph.PathSearcher;
+import wigraph.CSRGraph;
 import wigraph.DistanceData;
 import wigraph.LoadRelations;
 
@@ -16,9 +16,7 @@ import wikipedia.util.*;
 import wikipedia.language.LanguageType;
 import wikt.sql.TTranslation;
 
-import edu.uci.ics.jung.graph.Graph;
-import edu.uci.ics.jung.algorithms.shortestpath.DijkstraShortestPath;
-
+import java.io.IOException;
 import java.text.DateFormat;
 import java.util.Locale;
 import java.util.Date;
@@ -34,16 +32,13 @@ public class ShortestPathEnViaRu353 {
     public static void main(String[] s) {
 
         FileWriter          dump;
-        DijkstraShortestPath<String,Integer> alg;
-        Graph g_all_relations;
+        CSRGraph g_all_relations;
 
         Connect ruwikt_parsed_conn = new Connect();
         ruwikt_parsed_conn.Open(Connect.RUWIKT_HOST,Connect.RUWIKT_PARSED_DB,Connect.RUWIKT_USER,Connect.RUWIKT_PASS);
 
-        g_all_relations = LoadRelations.loadGraph(ruwikt_parsed_conn, "relation_pairs.txt", "unique_words.txt");
+        g_all_relations = LoadRelations.loadCSRGraph("relation_graph.csr", "relation_pairs.txt", "unique_words.txt");
         assert(null != g_all_relations);
-        System.out.println("Calculation Dijkstra shortest path...");
-        alg = new DijkstraShortestPath(g_all_relations);
 
 
         DateFormat formatter = DateFormat.getDateTimeInstance(DateFormat.LONG,
@@ -92,31 +87,48 @@ public class ShortestPathEnViaRu353 {
         t_start = System.currentTimeMillis();
         int i = 0;
 
-        System.out.println ("\nThe words are processing:\n");
-        WordSim353 wordsim353= new WordSim353();
-        Valuer.absent_counter = 0;
-        //for(WordSim w:wordsim353.data) {
-        // i++;
-        for(i=320; i<wordsim353.data.size(); i ++) { WordSim w = wordsim353.data.get(i);
-            String word1 = w.word1;
-            String word2 = w.word2;
-            word1 = "deliverable";    // computer plane   smart   Jerusalem   alcohol     noon
-            word2 = "publication";  // keyboard car     student Israel      chemistry   string
-
-            //System.out.println ("The word Latin1ToUTF8 '"+Encodings.Latin1ToUTF8(all_words[i])+"' is processing...");
-            System.out.println (i + ": " + word1 + ", " + word2);
-
-            LanguageType source_lang = LanguageType.ru;
-            LanguageType target_lang = LanguageType.en;
-
-            DistanceData dist = Valuer.compareSynonyms (
-                                    g_all_relations, alg,
-                                    word1, word2, w.sim,
-                                    ruwikt_parsed_conn,
-                                    source_lang, target_lang,
-                                    dump);
-//            if( i > 9)
-              break;
+        if(s.length > 0) {
+            // batch mode: all pairs of the file (e.g. combined.tab of WordSim353)
+            // by all processors, args: file [max_depth [threads]]
+            int max_depth = s.length > 1 ? Integer.parseInt(s[1]) : 0;
+            int n_threads = s.length > 2 ? Integer.parseInt(s[2]) :
+                                    Runtime.getRuntime().availableProcessors();
+            System.out.println ("\nThe words of " + s[0] + " are processing by " + n_threads + " threads:\n");
+            Valuer.absent_counter = 0;
+            try {
+                Valuer.compareSynonymsParallel(g_all_relations, WordSim353.read(s[0]),
+                                    ruwikt_parsed_conn, LanguageType.ru, LanguageType.en,
+                                    max_depth, n_threads, dump);
+            } catch(IOException ex) {
+                System.err.println("IOException (ShortestPathEnViaRu353.main()):: Reading failed (" + s[0] + "), msg: " + ex.getMessage());
+            }
+        } else {
+            System.out.println ("\nThe words are processing:\n");
+            WordSim353 wordsim353= new WordSim353();
+            Valuer.absent_counter = 0;
+            //for(WordSim w:wordsim353.data) {
+            // i++;
+            for(i=320; i<wordsim353.data.size(); i ++) { WordSim w = wordsim353.data.get(i);
+                String word1 = w.word1;
+                String word2 = w.word2;
+                word1 = "deliverable";    // computer plane   smart   Jerusalem   alcohol     noon
+                word2 = "publication";  // keyboard car     student Israel      chemistry   string
+
+                //System.out.println ("The word Latin1ToUTF8 '"+Encodings.Latin1ToUTF8(all_words[i])+"' is processing...");
+                System.out.println (i + ": " + word1 + ", " + word2);
+
+                LanguageType source_lang = LanguageType.ru;
+                LanguageType target_lang = LanguageType.en;
+
+                DistanceData dist = Valuer.compareSynonyms (
+                                        g_all_relations,
+                                        word1, word2, w.sim,
+                                        ruwikt_parsed_conn,
+                                        source_lang, target_lang,
+                                        dump);
+    //            if( i > 9)
+                  break;
+            }
         }
 
         t_end  = System.currentTimeMillis();
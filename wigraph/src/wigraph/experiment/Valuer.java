@@ -7,6 +7,7 @@
 
 package wigraph.experiment;
 
+import wigraph.CSRGraph;
 import wigraph.PathSearcher;
 import wigraph.DistanceData;
 
@@ -16,11 +17,9 @@ import wikipedia.util.*;
 import wikipedia.language.LanguageType;
 import wikt.sql.TTranslation;
 
-import edu.uci.ics.jung.graph.Graph;
-import edu.uci.ics.jung.algorithms.shortestpath.DijkstraShortestPath;
-
 import java.text.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /** Words similarity calculator 
  * calculates distances between 353 pairs of English words,
@@ -50,7 +49,7 @@ public class Valuer {
     /** Calculates relatedness of two words.
      */
     public static DistanceData compareSynonyms (
-            Graph g_all_relations, DijkstraShortestPath<String,Integer> alg,
+            CSRGraph g_all_relations,
             String word1,String word2,float human_wordsim,
             Connect connect,
             LanguageType source_lang,   // language of sought pages (language of page)
@@ -75,7 +74,7 @@ public class Valuer {
         if (null != trans_syn1  && 0 < trans_syn1.length &&
             null != trans_syn2 && 0 < trans_syn2.length) {
 
-            dist = PathSearcher.calcPathLenRelatedness(g_all_relations, alg, trans_syn1, trans_syn2);
+            dist = PathSearcher.calcPathLenRelatedness(g_all_relations, trans_syn1, trans_syn2);
             /*result_len.setText("Shortest path len: min="    + dist.min +
                                                 ", average="+ dist.average +
                                                 ", max="+ dist.max);
@@ -86,18 +85,8 @@ public class Valuer {
             System.out.println("Vertices : "+ mGraph.getVertexCount());
             System.out.println("Edges : "   + mGraph.getEdgeCount());*/
 
-            if(DEBUG) {
-                dump.Print( //System.out.println(
-                        word1 + "\t" + word2 + "\t" + human_wordsim + "\t" + 
-                            //new PrintfFormat("%.3lg").sprintf(dist_f) + "\t" +
-                        new PrintfFormat("%.3lg").sprintf(dist.min) + "\t" +
-                        new PrintfFormat("%.3lg").sprintf(dist.average) + "\t" +
-                        new PrintfFormat("%.3lg").sprintf(dist.max) + "\t" +
-                        StringUtil.join(",",trans_syn1)  + "\t" +   trans_syn1.length + "\t" +
-                        StringUtil.join(",",trans_syn2)  + "\t" +   trans_syn2.length + "\t" +
-                        t_work                           + "\t" +
-                        "\n");
-            }
+            if(DEBUG)
+                printDistance(dump, word1, word2, human_wordsim, dist, trans_syn1, trans_syn2, t_work);
             dump.Flush();
         } else {
             // There is no any translation in Russian Wiktionary!
@@ -109,4 +98,100 @@ public class Valuer {
         }
         return dist;
     }
+
+    /** Prints the relatedness of two words to the dump file. */
+    private static void printDistance(FileWriter dump,
+            String word1,String word2,float human_wordsim,DistanceData dist,
+            String[] trans_syn1,String[] trans_syn2,float t_work)
+    {
+        dump.Print( //System.out.println(
+                word1 + "\t" + word2 + "\t" + human_wordsim + "\t" +
+                    //new PrintfFormat("%.3lg").sprintf(dist_f) + "\t" +
+                new PrintfFormat("%.3lg").sprintf(dist.min) + "\t" +
+                new PrintfFormat("%.3lg").sprintf(dist.average) + "\t" +
+                new PrintfFormat("%.3lg").sprintf(dist.max) + "\t" +
+                StringUtil.join(",",trans_syn1)  + "\t" +   trans_syn1.length + "\t" +
+                StringUtil.join(",",trans_syn2)  + "\t" +   trans_syn2.length + "\t" +
+                t_work                           + "\t" +
+                "\n");
+    }
+
+    /** Calculates relatedness of all pairs of words of the collection
+     * (e.g. WordSim353) by n_threads threads.
+     *
+     * Translations are taken from the database by one thread (the connection
+     * is not shared), then the graph g is searched in parallel, since the
+     * search in CSRGraph is thread-safe.
+     *
+     * @param max_depth maximum length of path, 0 if unlimited,
+     *                  see PathSearcher.calcPathLenRelatedness()
+     * @param n_threads number of threads, e.g. number of processors
+     * @return relatedness of each pair (the same order as in data),
+     *         null for pairs without translations
+     */
+    public static DistanceData[] compareSynonymsParallel (
+            final CSRGraph g_all_relations,
+            List<WordSim> data,
+            Connect connect,
+            LanguageType source_lang,   // language of sought pages (language of page)
+            LanguageType target_lang,    // language of translations
+            final int max_depth,
+            int n_threads,
+            FileWriter dump
+            )
+    {
+        int n = data.size();
+        final String[][] trans_syn1 = new String[n][];
+        final String[][] trans_syn2 = new String[n][];
+        for(int i=0; i<n; i++) {
+            WordSim w = data.get(i);
+            trans_syn1[i] = TTranslation.fromTranslationsToPage(connect, source_lang, w.word1, target_lang);
+            trans_syn2[i] = TTranslation.fromTranslationsToPage(connect, source_lang, w.word2, target_lang);
+        }
+
+        final float[] t_work = new float[n];
+        ExecutorService pool = Executors.newFixedThreadPool(n_threads);
+        List<Future<DistanceData>> result = new ArrayList<Future<DistanceData>>(n);
+        for(int i=0; i<n; i++) {
+            final int k = i;
+            result.add(pool.submit(new Callable<DistanceData>() {
+                public DistanceData call() {
+                    if (null == trans_syn1[k] || 0 == trans_syn1[k].length ||
+                        null == trans_syn2[k] || 0 == trans_syn2[k].length)
+                        return null;
+
+                    long t_start = System.currentTimeMillis();
+                    DistanceData dist = PathSearcher.calcPathLenRelatedness(
+                                g_all_relations, trans_syn1[k], trans_syn2[k], max_depth);
+                    t_work[k] = (System.currentTimeMillis() - t_start)/1000f; // in sec
+                    return dist;
+                }
+            }));
+        }
+
+        DistanceData[] dist = new DistanceData[n];
+        try {
+            for(int i=0; i<n; i++) {
+                WordSim w = data.get(i);
+                dist[i] = result.get(i).get();
+                if(null != dist[i]) {
+                    if(DEBUG)
+                        printDistance(dump, w.word1, w.word2, w.sim, dist[i], trans_syn1[i], trans_syn2[i], t_work[i]);
+                } else {
+                    // There is no any translation in Russian Wiktionary!
+                    absent_counter ++;
+                    if(DEBUG)
+                        dump.Print(w.word1 + "\t" + w.word2 + "\t" + w.sim + "\tabsent\n");
+                }
+            }
+        } catch(InterruptedException ex) {
+            System.err.println("InterruptedException (Valuer.compareSynonymsParallel()):: msg: " + ex.getMessage());
+        } catch(ExecutionException ex) {
+            System.err.println("ExecutionException (Valuer.compareSynonymsParallel()):: msg: " + ex.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+        dump.Flush();
+        return dist;
+    }
 }
@@ -9,6 +9,7 @@
 
 package wigraph.experiment;
 
+import java.io.*;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -383,6 +384,34 @@ public class WordSim353 {
 
         }
     }
-  
-    
+
+    /** Reads the collection from the file of the original distribution
+     * (e.g. combined.tab or combined.csv): the first line is a header
+     * "Word 1, Word 2, Human (mean)", then one pair per line, fields are
+     * separated by tab or comma.
+     *
+     * @return pairs of words with human similarity estimation
+     */
+    public static List<WordSim> read(String filename) throws IOException {
+
+        List<WordSim> result = new ArrayList<WordSim> (_len);
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                                    new FileInputStream(filename), "UTF-8"));
+        try {
+            String line = in.readLine();    // header
+            while(null != (line = in.readLine())) {
+                String[] f = line.split("[\t,]");
+                if(f.length < 3)
+                    continue;
+                try {
+                    result.add(new WordSim(f[0].trim(), f[1].trim(), Float.parseFloat(f[2].trim())));
+                } catch(NumberFormatException ex) {
+                    System.err.println("Error (WordSim353.read()):: wrong similarity in the line '" + line + "' of the file " + filename);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return result;
+    }
 }
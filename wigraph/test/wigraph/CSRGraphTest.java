@@ -0,0 +1,251 @@
+
+package wigraph;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CSRGraphTest {
+
+    public CSRGraphTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    @Test
+    public void testCreate() {
+        System.out.println("create");
+        CSRGraph g = CSRGraph.create(GraphCreator.labels_samolyot, GraphCreator.edges_samolyot);
+
+        assertEquals(GraphCreator.labels_samolyot.length, g.getVertexCount());
+        assertEquals(GraphCreator.edges_samolyot.length,  g.getEdgeCount());
+        assertEquals(-1, g.getID("absent vertex"));
+        assertFalse(g.containsVertex("absent vertex"));
+
+        // "самолёт" -> "аэроплан", "воздушный лайнер", "авиация", "транспорт"
+        int v = g.getID("самолёт");
+        assertEquals("самолёт", g.getWord(v));
+        assertEquals(4, g.degree(v));
+
+        // edge "авиация" -> "воздухоплавание" is undirected
+        v = g.getID("воздухоплавание");
+        assertEquals(1, g.degree(v));
+        assertEquals("авиация", g.getWord(g.getNeighbour(v, 0)));
+        assertEquals(CSRGraph.UNKNOWN_RELATION, g.getRelation(v, 0));
+    }
+
+    @Test
+    public void testCreate_Map() {
+        System.out.println("create_Map");
+
+        Map<String,List<String>> m_words = new HashMap<String,List<String>>();
+        List<String> unique_words = new ArrayList<String>();
+        for(String s : GraphCreator.labels_samolyot)
+            unique_words.add(s);
+        for(int[] e : GraphCreator.edges_samolyot) {
+            String v1 = GraphCreator.labels_samolyot[e[0]];
+            if(!m_words.containsKey(v1))
+                m_words.put(v1, new ArrayList<String>());
+            m_words.get(v1).add(GraphCreator.labels_samolyot[e[1]]);
+        }
+
+        CSRGraph g1 = CSRGraph.create(m_words, unique_words);
+        CSRGraph g2 = CSRGraph.create(GraphCreator.labels_samolyot, GraphCreator.edges_samolyot);
+        assertEquals(g2.getVertexCount(), g1.getVertexCount());
+        assertEquals(g2.getEdgeCount(),   g1.getEdgeCount());
+        for(int v=0; v<g1.getVertexCount(); v++) {
+            assertEquals(g2.getWord(v), g1.getWord(v));
+            assertEquals(g2.degree(v),  g1.degree(v));
+        }
+    }
+
+    @Test
+    public void testGetShortestPath() {
+        System.out.println("getShortestPath");
+        CSRGraph g;
+        String[] word_path;
+        String word1 = "воздухоплавание";
+        String word2 = "аэроплан";
+
+        // test absent words
+        g = CSRGraph.create(GraphCreator.labels_samolyot, GraphCreator.edges_samolyot);
+        word_path = g.getShortestPath(word1, "absent vertex");
+        assertNotNull(word_path);
+        assertEquals(0, word_path.length);
+
+        // test unreachable words
+        String[] labels = Arrays.copyOf(GraphCreator.labels_samolyot, GraphCreator.labels_samolyot.length + 1);
+        labels[labels.length - 1] = "isolated vertex";
+        g = CSRGraph.create(labels, GraphCreator.edges_samolyot);
+        word_path = g.getShortestPath(word1, "isolated vertex");
+        assertNotNull(word_path);
+        assertEquals(0, word_path.length);
+
+        // result should be: "воздухоплавание" - "авиация" - "самолёт" - "аэроплан"
+        word_path = g.getShortestPath(word1, word2);
+        String[] should_be_path = {"воздухоплавание", "авиация", "самолёт", "аэроплан"};
+        assertArrayEquals(should_be_path, word_path);
+
+        // and back
+        word_path = g.getShortestPath(word2, word1);
+        assertEquals(4, word_path.length);
+        assertEquals(word2, word_path[0]);
+        assertEquals(word1, word_path[3]);
+    }
+
+    @Test
+    public void testCalcPathLenRelatedness () {
+        System.out.println("calcPathLenRelatedness_CSRGraph");
+        CSRGraph g = CSRGraph.create(GraphCreator.labels_samolyot, GraphCreator.edges_samolyot);
+
+        String[] word_set1 = {"воздухоплавание", "авиация"};
+        String[] word_set2 = {"аэроплан", "самолёт"};
+
+        float should_be_length = 1f / ((4 + 3 + 3 + 3) / 4.f);
+
+        DistanceData dd = PathSearcher.calcPathLenRelatedness(g, word_set1, word_set2);
+        assertTrue(Math.abs(dd.average - should_be_length) < 0.1f);
+        assertTrue(Math.abs(dd.max - 0.5f) < 0.1f);
+        assertTrue(Math.abs(dd.min - 0.25f) < 0.1f);
+    }
+
+    @Test
+    public void testCalcPathLenRelatedness_max_depth () {
+        System.out.println("calcPathLenRelatedness_max_depth");
+        CSRGraph g = CSRGraph.create(GraphCreator.labels_samolyot, GraphCreator.edges_samolyot);
+
+        String[] word_set1 = {"воздухоплавание", "авиация"};
+        String[] word_set2 = {"аэроплан", "самолёт"};
+
+        // path "воздухоплавание" - "аэроплан" (3 edges) is longer than 2
+        DistanceData dd = PathSearcher.calcPathLenRelatedness(g, word_set1, word_set2, 2);
+        assertEquals(3f / (3 + 3 + 2), dd.average, 0.001f);
+        assertEquals(0.5f,      dd.max, 0.001f);
+        assertEquals(1f / 3,    dd.min, 0.001f);
+
+        dd = PathSearcher.calcPathLenRelatedness(g, word_set1, word_set2, 0);
+        assertEquals(4f / (4 + 3 + 3 + 2), dd.average, 0.001f);
+    }
+
+    @Test
+    public void testGetDistances() {
+        System.out.println("getDistances");
+        CSRGraph g = CSRGraph.create(GraphCreator.labels_samolyot, GraphCreator.edges_samolyot);
+
+        int[] src = {g.getID("воздухоплавание"), g.getID("самолёт"), g.getID("самолёт")};
+        int[] dst = {g.getID("шлюз"), g.getID("самолёт"), g.getID("авиация")};
+
+        int[][] dist = g.getDistances(src, dst, 0);
+        assertArrayEquals(new int[] {4, 2, 1}, dist[0]);
+        assertArrayEquals(new int[] {2, 0, 1}, dist[1]);
+        assertArrayEquals(new int[] {2, 0, 1}, dist[2]);
+
+        dist = g.getDistances(src, dst, 2);
+        assertArrayEquals(new int[] {-1, 2, 1}, dist[0]);
+    }
+
+    @Test
+    public void testGetDistances_many_words() {
+        System.out.println("getDistances_many_words");
+
+        // path 0 - 1 - ... - 149 and the isolated vertex 150,
+        // more than 64 sources and targets
+        int n = 151;
+        String[] v = new String[n];
+        for(int i=0; i<n; i++)
+            v[i] = "w" + (1000 + i);
+        int[][] edges = new int[n - 2][];
+        for(int i=0; i<n-2; i++)
+            edges[i] = new int[] {i, i + 1};
+        CSRGraph g = CSRGraph.create(v, edges);
+
+        int[] all = new int[n];
+        for(int i=0; i<n; i++)
+            all[i] = g.getID(v[i]);
+
+        int[][] dist = g.getDistances(all, all, 0);
+        for(int i=0; i<n; i++) {
+            for(int j=0; j<n; j++) {
+                int should_be = (n - 1 == i || n - 1 == j) ? (i == j ? 0 : -1) : Math.abs(i - j);
+                assertEquals(should_be, dist[i][j]);
+            }
+        }
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        System.out.println("writeRead");
+        CSRGraph g = CSRGraph.create(GraphCreator.labels_samolyot, GraphCreator.edges_samolyot);
+
+        File f = File.createTempFile("csr_graph_test", ".csr");
+        try {
+            g.write(f.getPath());
+            CSRGraph g2 = CSRGraph.read(f.getPath());
+
+            assertEquals(g.getVertexCount(), g2.getVertexCount());
+            assertEquals(g.getEdgeCount(),   g2.getEdgeCount());
+            assertArrayEquals(g.getShortestPath("воздухоплавание", "шлюз"),
+                             g2.getShortestPath("воздухоплавание", "шлюз"));
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testReadWordPairs() throws IOException {
+        System.out.println("readWordPairs");
+
+        // file of TRelation.exportWordPairs(): car - automobile (1), car - vehicle (3)
+        File f = File.createTempFile("csr_graph_test", ".wpr");
+        try {
+            DataOutputStream out = new DataOutputStream(new FileOutputStream(f));
+            out.writeInt(0x57505246);
+            out.writeByte(1); out.writeUTF("car");
+            out.writeByte(1); out.writeUTF("automobile");
+            out.writeByte(2); out.writeInt(0); out.writeInt(1); out.writeByte(1);
+            out.writeByte(1); out.writeUTF("vehicle");
+            out.writeByte(2); out.writeInt(0); out.writeInt(2); out.writeByte(3);
+            out.writeByte(0); out.writeInt(3); out.writeInt(2);
+            out.close();
+
+            CSRGraph g = CSRGraph.readWordPairs(f.getPath());
+            assertEquals(3, g.getVertexCount());
+            assertEquals(2, g.getEdgeCount());
+            assertArrayEquals(new String[] {"automobile", "car", "vehicle"},
+                              g.getShortestPath("automobile", "vehicle"));
+
+            int v = g.getID("vehicle");
+            assertEquals(1, g.degree(v));
+            assertEquals(3, g.getRelation(v, 0));
+        } finally {
+            f.delete();
+        }
+    }
+}
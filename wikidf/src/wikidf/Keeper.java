@@ -61,10 +61,6 @@ public class Keeper {
     
     
     
-    //private static List<String> lemma = new ArrayList<String>();
-    /** map from term to term frequency in the document */
-    private static Map<String, Integer> m_lemma_tf = new HashMap<String, Integer>();
-    
     /** Stores lemmas, page_title to the database 'idf_conn'.
      *
      *  @param idf_conn     connection to idf database
@@ -72,10 +68,47 @@ public class Keeper {
      */
     public static void storeIDFToDB(Corpus corpus,String page_title,Connect idf_conn,int doc_freq_max)
     {
-        m_lemma_tf.clear();
+        storeIDFToDB(corpus, page_title, idf_conn, doc_freq_max, null);
+    }
+    
+    /** Stores lemmas, page_title to the database 'idf_conn', or adds them to 
+     * the accumulator 'term_acc' (if it is not null), which writes 
+     * the tables term, page and term_page by large batches.
+     *
+     *  @param idf_conn     connection to idf database
+     *  @param page_title   the title of wiki page
+     *  @param term_acc     accumulator of terms, null - update the database 
+     *                      for each lemma by Term.incLemmataDocFreq()
+     */
+    public static void storeIDFToDB(Corpus corpus,String page_title,Connect idf_conn,int doc_freq_max,
+                                    TermAccumulator term_acc)
+    {
+        Map<String, Integer> lemma_tf = getLemmaFrequency(corpus);
+        if(null == lemma_tf)
+            return;
+        
+        if(null != term_acc)
+            term_acc.addPage(page_title, lemma_tf);
+        else
+            Term.incLemmataDocFreq(idf_conn.conn, lemma_tf, 
+                                page_title, doc_freq_max);
+    }
+    
+    /** Counts lemmas (annotations Paradigm) and new words without paradigms 
+     * (annotations Wordform) in the first document of the corpus.
+     * The map is created for each call, so the function can be called
+     * by several threads, each thread with its own corpus.
+     *
+     *  @return map from term to term frequency in the document,
+     *          null if the corpus is empty
+     */
+    public static Map<String, Integer> getLemmaFrequency(Corpus corpus)
+    {
+        Map<String, Integer> m_lemma_tf = null;
         Iterator iter = corpus.iterator();
 
         if(iter.hasNext()) { // 1 document
+            m_lemma_tf = new HashMap<String, Integer>();
             Document doc = (Document) iter.next();
             AnnotationSet defaultAnnotSet = doc.getAnnotations();
             Set annotTypesRequired = new HashSet();
@@ -176,10 +209,8 @@ public class Keeper {
                 for(String s:m_lemma_tf.keySet()) {
                     Out.prln(s + "; " + m_lemma_tf.get(s));
             }   }
-            
-            Term.incLemmataDocFreq(idf_conn.conn, m_lemma_tf, 
-                                page_title, doc_freq_max);
         }
+        return m_lemma_tf;
     }
     
 
@@ -215,26 +246,25 @@ public class Keeper {
             int doc_freq_max)
     throws GateException
     {
-            //StringBuffer str = new StringBuffer();
-            //StringBuffer str = new StringBuffer("sss test");
-            //str = getWikiText(); // temp stub
-            StringBuffer str = new StringBuffer(
-                    //StringUtil.escapeCharDollar(
-                    PageTable.getArticleText(wp_conn, page_title));
-            
-            if(0 == str.length()) {
-                Out.prln("Error in Keeper.parseFromWP(): The article with the title '"+
-                        page_title + "' has no text in Wikipedia.");
-                return;
-            }
-            str = wikipedia.text.WikiParser.convertWikiToText(str, wiki_lang, b_remove_not_expand_iwiki);
-            assert(null != str && 0 < str.length());
-            
-            if(0 == str.length()) {
-                Out.prln("Warning in Keeper.parseFromWP(): The article with the title '"+
-                        page_title + "' after convert wiki to text: has no text.");
+        parseFromWP(wp_conn, page_title, wiki_lang, b_remove_not_expand_iwiki,
+                    idf_conn, corpus, prs, doc_freq_max, null);
+    }
+    
+    /** Takes text (by page_title) from Wikipedia, parses it, stores lemmas 
+     * to the IDF database or to the accumulator 'term_acc' (if it is not null), 
+     * see parseFromWP() above.
+     */
+    public static void parseFromWP (
+            Connect wp_conn, String page_title, 
+            LanguageType wiki_lang, boolean b_remove_not_expand_iwiki,
+            Connect idf_conn,Corpus corpus,StandAloneRussianPOSTagger prs,
+            int doc_freq_max, TermAccumulator term_acc)
+    throws GateException
+    {
+            StringBuffer str = getTextFromWP(wp_conn, page_title, 
+                                        wiki_lang, b_remove_not_expand_iwiki);
+            if(null == str)
                 return;
-            }
             
             //for(int i = 0; i < args.length; i++) {
                 //URL u = new URL(args[i]);
@@ -254,13 +284,62 @@ public class Keeper {
             prs.execute();
 
             // store results to tables: term, page, term_page 
-            Keeper.storeIDFToDB(corpus, page_title, idf_conn, doc_freq_max);
+            Keeper.storeIDFToDB(corpus, page_title, idf_conn, doc_freq_max, term_acc);
             
             corpus.remove(doc);
             Factory.deleteResource(doc);
     }
     
     
+    /** Takes text (by page_title) from Wikipedia, parses it in one of 
+     * the workers of the pool, the lemmas are stored to the accumulator 
+     * of the pool.
+     * 
+     * @see parseFromWP() above
+     */
+    public static void parseFromWP (
+            Connect wp_conn, String page_title, 
+            LanguageType wiki_lang, boolean b_remove_not_expand_iwiki,
+            KeeperPool pool)
+    {
+        StringBuffer str = getTextFromWP(wp_conn, page_title, 
+                                    wiki_lang, b_remove_not_expand_iwiki);
+        if(null != str)
+            pool.put(page_title, str.toString());
+    }
+    
+    /** Takes text (by page_title) from Wikipedia, converts wiki to text.
+     * 
+     * @return text, or null if the article has no text
+     */
+    public static StringBuffer getTextFromWP (
+            Connect wp_conn, String page_title, 
+            LanguageType wiki_lang, boolean b_remove_not_expand_iwiki)
+    {
+            //StringBuffer str = new StringBuffer();
+            //StringBuffer str = new StringBuffer("sss test");
+            //str = getWikiText(); // temp stub
+            StringBuffer str = new StringBuffer(
+                    //StringUtil.escapeCharDollar(
+                    PageTable.getArticleText(wp_conn, page_title));
+            
+            if(0 == str.length()) {
+                Out.prln("Error in Keeper.getTextFromWP(): The article with the title '"+
+                        page_title + "' has no text in Wikipedia.");
+                return null;
+            }
+            str = wikipedia.text.WikiParser.convertWikiToText(str, wiki_lang, b_remove_not_expand_iwiki);
+            assert(null != str && 0 < str.length());
+            
+            if(0 == str.length()) {
+                Out.prln("Warning in Keeper.getTextFromWP(): The article with the title '"+
+                        page_title + "' after convert wiki to text: has no text.");
+                return null;
+            }
+            return str;
+    }
+    
+    
     // temp stub
     private static StringBuffer getWikiText() {
         // example from http://en.wikipedia.org/wiki/Winter_Palace
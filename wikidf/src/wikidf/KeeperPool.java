@@ -0,0 +1,275 @@
+/* KeeperPool.java - parses wiki texts by several GATE pipelines in parallel.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under GNU General Public License.
+ */
+
+package wikidf;
+
+import wikipedia.sql_idf.TermAccumulator;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gate.*;
+import gate.util.*;
+
+/** Pool of workers, each worker owns its own pipeline
+ * (StandAloneRussianPOSTagger) and corpus, takes articles from the shared
+ * queue, counts lemmas (Keeper.getLemmaFrequency) and adds them to the
+ * shared accumulator of terms.<br><br>
+ *
+ * Pages are added to the accumulator in the order of completion, not in the
+ * order of put(), so the first doc_freq_max postings of a frequent term
+ * (see TermAccumulator) can be different pages in different runs.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * KeeperPool pool = new KeeperPool(n_threads, dict_lang, term_acc);
+ * Keeper.parseFromWP(wp_conn, page_title, wiki_lang, b_remove_not_expand_iwiki, pool); // for each article
+ * pool.close();        // waits for the workers
+ * term_acc.close();
+ * </PRE>
+ */
+public class KeeperPool {
+    private static final boolean DEBUG = false;
+
+    /** Lock for creation and deletion of GATE resources, since
+     * the Factory and the CREOLE register are shared by all the workers.
+     * Pipelines are executed in parallel. */
+    private static final Object GATE_LOCK = new Object();
+
+    /** Article (title and text) in the queue, null title - the last job 
+     * for a worker. */
+    private static class Job {
+        final String page_title;
+        final String text;
+
+        Job(String _page_title, String _text) {
+            page_title = _page_title;
+            text       = _text;
+        }
+    }
+
+    /** Articles to be parsed. */
+    private final BlockingQueue<Job> queue;
+
+    /** Accumulator of terms, shared by the workers. */
+    private final TermAccumulator term_acc;
+
+    private final List<Worker> workers;
+
+    /** Number of parsed articles. */
+    private final AtomicInteger n_parsed = new AtomicInteger();
+
+
+    /** Creates and starts n_threads workers, each worker initialises its
+     * own pipeline (it may take several minutes).
+     *
+     * @param dict_lang  language of the plugged dictionary (at LemServer)
+     * @param term_acc   lemmas of the articles are added to this accumulator
+     */
+    public KeeperPool(int n_threads, DictLanguage dict_lang, TermAccumulator _term_acc)
+    throws GateException
+    {
+        this(n_threads, _term_acc);
+
+        try {
+            for(Worker w : workers)
+                w.initPRs(dict_lang);
+        } catch(GateException ex) {
+            for(Worker w : workers)
+                w.deletePRs();
+            throw ex;
+        }
+        start();
+    }
+
+    /** Creates n_threads workers without pipelines, they should be started
+     * by start(). Pipelines are not needed, if parse() is overridden (tests).
+     */
+    KeeperPool(int n_threads, TermAccumulator _term_acc) {
+        n_threads = Math.max(1, n_threads);
+        queue    = new ArrayBlockingQueue<Job>(2 * n_threads);
+        term_acc = _term_acc;
+        workers  = new ArrayList<Worker>(n_threads);
+
+        for(int i=0; i<n_threads; i++)
+            workers.add(new Worker(i));
+    }
+
+    /** Starts the workers. */
+    void start() {
+        for(Worker w : workers)
+            w.start();
+        Out.prln("KeeperPool: " + workers.size() + " workers are started.");
+    }
+
+    /** Gets number of parsed articles. */
+    public int getParsedNumber() {
+        return n_parsed.get();
+    }
+
+    /** Adds the article to the queue, waits if the queue is full.
+     * The article is skipped if all the workers are stopped, since
+     * nobody will take it from the queue.
+     *
+     * @param text  text of the article (wiki is converted to text already)
+     */
+    public void put(String page_title, String text) {
+        Job job = new Job(page_title, text);
+        try {
+            while(!queue.offer(job, 1, TimeUnit.SECONDS)) {
+                if(!isWorking()) {
+                    Out.prln("Error in KeeperPool.put(): all workers are stopped, the article '" +
+                            page_title + "' is skipped.");
+                    return;
+                }
+            }
+        } catch(InterruptedException ex) {
+            Out.prln("Error in KeeperPool.put(): interrupted, the article '" +
+                    page_title + "' is skipped.");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Returns true if at least one worker is alive. */
+    boolean isWorking() {
+        for(Worker w : workers) {
+            if(w.isAlive())
+                return true;
+        }
+        return false;
+    }
+
+    /** Parses the text by the pipeline and the corpus of the worker,
+     * counts lemmas (Keeper.getLemmaFrequency).
+     *
+     * @return map from lemma to term frequency, or null
+     */
+    Map<String, Integer> parse(StandAloneRussianPOSTagger prs, Corpus corpus, String text)
+    throws GateException
+    {
+        FeatureMap params = Factory.newFeatureMap();
+        params.put("stringContent", text);
+        params.put("preserveOriginalContent", new Boolean(false));
+        params.put("collectRepositioningInfo", new Boolean(false));
+        Document doc;
+        synchronized(GATE_LOCK) {
+            doc = (Document) Factory.createResource("gate.corpora.DocumentImpl", params);
+        }
+
+        try {
+            corpus.add(doc);
+            prs.setCorpus(corpus);
+            prs.execute();
+            return Keeper.getLemmaFrequency(corpus);
+        } finally {
+            corpus.remove(doc);
+            synchronized(GATE_LOCK) {
+                Factory.deleteResource(doc);
+            }
+        }
+    }
+
+    /** Waits until the workers parse all articles of the queue, each worker
+     * deletes its pipeline when it stops. The accumulator is not closed here.
+     * If the waiting is interrupted, then the workers are interrupted also:
+     * they stop after the current article, the rest of the queue is skipped.
+     */
+    public void close() {
+        try {
+            for(int i=0; i<workers.size(); i++)
+                put(null, null);
+
+            for(Worker w : workers)
+                w.join();
+            workers.clear();
+        } catch(InterruptedException ex) {
+            Out.prln("Error in KeeperPool.close(): interrupted, the workers are stopped.");
+            for(Worker w : workers)
+                w.interrupt();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /** Thread with its own pipeline and corpus. */
+    private class Worker extends Thread {
+
+        private StandAloneRussianPOSTagger prs;
+        private Corpus corpus;
+
+        Worker(int n) {
+            super("KeeperPool-" + n);
+        }
+
+        /** Creates the pipeline and the corpus of the worker,
+         * prs is not null only if both are created. */
+        void initPRs(DictLanguage dict_lang) throws GateException {
+            synchronized(GATE_LOCK) {
+                StandAloneRussianPOSTagger p = new StandAloneRussianPOSTagger();
+                p.initPRs(dict_lang);
+                corpus = (Corpus) Factory.createResource("gate.corpora.CorpusImpl");
+                prs = p;
+            }
+        }
+
+        /** Parses the articles of the queue till the last job or the
+         * interruption, deletes the pipeline at the end. */
+        public void run() {
+            try {
+                parseQueue();
+            } finally {
+                deletePRs();
+            }
+        }
+
+        private void parseQueue() {
+            while(true) {
+                Job job;
+                try {
+                    job = queue.take();
+                } catch(InterruptedException ex) {
+                    Out.prln("Error in KeeperPool.Worker.run(): " + getName() + " is interrupted.");
+                    return;
+                }
+                if(null == job.page_title)     // the last job
+                    return;
+
+                // Throwable: an Error inside GATE (e.g. StackOverflowError)
+                // should not stop the worker, else put() and close() wait
+                // for the queue forever
+                try {
+                    Map<String, Integer> lemma_tf = parse(prs, corpus, job.text);
+                    if(null != lemma_tf)
+                        term_acc.addPage(job.page_title, lemma_tf);
+
+                    int n = n_parsed.incrementAndGet();
+                    if(DEBUG && 0 == n % 100)
+                        Out.prln(getName() + ": " + n + " articles are parsed.");
+                } catch(Throwable ex) {
+                    Out.prln("Error in KeeperPool.Worker.run(): the article '" +
+                            job.page_title + "' is skipped: " + ex.toString());
+                }
+            }
+        }
+
+        void deletePRs() {
+            if(null == prs)
+                return;
+            synchronized(GATE_LOCK) {
+                try {
+                    prs.deletePRs();
+                    Factory.deleteResource(corpus);
+                } catch(GateException ex) {
+                    Out.prln("Error in KeeperPool.Worker.deletePRs(): " + ex.getMessage());
+                } finally {
+                    prs = null;
+                    corpus = null;
+                }
+            }
+        }
+    }
+}
@@ -10,6 +10,7 @@ package wikidf;
 import wikipedia.language.LanguageType;
 import wikipedia.language.Encodings;
 import wikipedia.sql.*;
+import wikipedia.sql_idf.TermAccumulator;
 
 import java.sql.*;
 
@@ -36,6 +37,45 @@ public class PageTableAll {
             Connect idf_conn,Corpus corpus,StandAloneRussianPOSTagger prs,
             int doc_freq_max)
     throws GateException
+    {
+        parseAllPages(wp_conn, wiki_lang, b_remove_not_expand_iwiki,
+                      idf_conn, corpus, prs, doc_freq_max, null);
+    }
+    
+    /** Selects all pages (not categories, not redirects), stores to the IDF db 
+     * by the accumulator 'term_acc' (if it is not null), see parseAllPages() above.
+     * The accumulator is not closed here.
+     */
+    public static void parseAllPages(Connect wp_conn,
+            LanguageType wiki_lang, boolean b_remove_not_expand_iwiki,
+            Connect idf_conn,Corpus corpus,StandAloneRussianPOSTagger prs,
+            int doc_freq_max, TermAccumulator term_acc)
+    throws GateException
+    {
+        parseAllPages(wp_conn, wiki_lang, b_remove_not_expand_iwiki,
+                      idf_conn, corpus, prs, doc_freq_max, term_acc, null);
+    }
+    
+    /** Selects all pages (not categories, not redirects), the texts are 
+     * parsed by the workers of the pool in parallel, see parseAllPages() above.
+     * The pool is not closed here.
+     */
+    public static void parseAllPages(Connect wp_conn,
+            LanguageType wiki_lang, boolean b_remove_not_expand_iwiki,
+            KeeperPool pool)
+    throws GateException
+    {
+        parseAllPages(wp_conn, wiki_lang, b_remove_not_expand_iwiki,
+                      null, null, null, 0, null, pool);
+    }
+    
+    /** Selects all pages, parses them by the pool (if it is not null), 
+     * else by the pipeline 'prs'. */
+    private static void parseAllPages(Connect wp_conn,
+            LanguageType wiki_lang, boolean b_remove_not_expand_iwiki,
+            Connect idf_conn,Corpus corpus,StandAloneRussianPOSTagger prs,
+            int doc_freq_max, TermAccumulator term_acc, KeeperPool pool)
+    throws GateException
     {
         Statement   s = null;
         ResultSet   rs= null;
@@ -87,11 +127,17 @@ public class PageTableAll {
                             " min, remain: " + t_remain +
                             " min");
                 }
-                Keeper.parseFromWP(
-                    wp_conn, page_title, 
-                    wiki_lang, b_remove_not_expand_iwiki,
-                    idf_conn, corpus, prs,
-                    doc_freq_max);
+                if(null != pool)
+                    Keeper.parseFromWP(
+                        wp_conn, page_title, 
+                        wiki_lang, b_remove_not_expand_iwiki,
+                        pool);
+                else
+                    Keeper.parseFromWP(
+                        wp_conn, page_title, 
+                        wiki_lang, b_remove_not_expand_iwiki,
+                        idf_conn, corpus, prs,
+                        doc_freq_max, term_acc);
             }
         } catch(SQLException ex) {
             System.err.println("SQLException (parseAllPages.java PageTableAll()): " + ex.getMessage());
@@ -9,6 +9,7 @@ package wikidf;
 //import wikidf.db.Term;
         
 import wikipedia.sql.Connect;
+import wikipedia.sql_idf.TermAccumulator;
 
 import wikipedia.category.CategoryHyponyms;
 import wikipedia.language.LanguageType;
@@ -174,12 +175,23 @@ public class WikIDF  {
                 "\ndocuments: " + pt.size());        
     }
     
-    /** Parses all pages in Wikipedia. */
+    /** Parses all pages in Wikipedia.
+     * 
+     * @param b_accumulate  if true then terms and postings are accumulated 
+     * in memory and written to the IDF database by large batches 
+     * (see TermAccumulator), else the database is updated for each lemma
+     * 
+     * @param n_threads number of parallel pipelines (see KeeperPool), 
+     * if n_threads &gt; 1 then terms are accumulated in any case; pages reach
+     * TermAccumulator.addPage() in the order of completion, so the pages 
+     * in the first doc_freq_max postings of a term vary between runs
+     */
     public void runAll(DictLanguage dict_lang,
                     LanguageType wiki_lang,
                     boolean b_remove_not_expand_iwiki,
                     int doc_freq_max,
-                    Connect connect_wp, Connect idf_conn)
+                    Connect connect_wp, Connect idf_conn,
+                    boolean b_accumulate, int n_threads)
     throws GateException, IOException 
     {   
         // initialise the GATE library
@@ -193,26 +205,52 @@ public class WikIDF  {
         Gate.getCreoleRegister().registerDirectories(new File(pluginsHome, "RussianPOSTagger").toURI().toURL());
         Out.prln("...GATE initialised");  
  
-        // initialise ANNIE (this may take several minutes)
-        StandAloneRussianPOSTagger prs = new StandAloneRussianPOSTagger();
-        prs.initPRs(dict_lang);
-    
-        // create a GATE corpus
-        Corpus corpus = (Corpus) Factory.createResource("gate.corpora.CorpusImpl");
-        
         // 1. get wiki-text from MySQL database
         // variant A. Get all articles
         
         //int max_docs = 9000;
-        Out.prln("Parsing of documents:");
+        TermAccumulator term_acc = null;
+        if(b_accumulate || n_threads > 1) {
+            term_acc = new TermAccumulator(idf_conn.conn, doc_freq_max, 
+                                           TermAccumulator.POSTINGS_MAX, null);
+            Out.prln("Terms in IDF database: " + term_acc.getTermsNumber());
+        }
+        
+        if(n_threads > 1) {
+            // initialise n_threads pipelines (this may take several minutes)
+            KeeperPool pool = new KeeperPool(n_threads, dict_lang, term_acc);
+            Out.prln("Parsing of documents:");
             
-        PageTableAll.parseAllPages(
-                connect_wp, 
-                wiki_lang, b_remove_not_expand_iwiki,
-                idf_conn, corpus, prs,
-                doc_freq_max);
+            try {
+                PageTableAll.parseAllPages(
+                        connect_wp, 
+                        wiki_lang, b_remove_not_expand_iwiki,
+                        pool);
+            } finally {
+                pool.close();
+            }
+        } else {
+            // initialise ANNIE (this may take several minutes)
+            StandAloneRussianPOSTagger prs = new StandAloneRussianPOSTagger();
+            prs.initPRs(dict_lang);
+    
+            // create a GATE corpus
+            Corpus corpus = (Corpus) Factory.createResource("gate.corpora.CorpusImpl");
+            Out.prln("Parsing of documents:");
+            
+            PageTableAll.parseAllPages(
+                    connect_wp, 
+                    wiki_lang, b_remove_not_expand_iwiki,
+                    idf_conn, corpus, prs,
+                    doc_freq_max, term_acc);
+            prs.deletePRs();
+        }
         
-        prs.deletePRs();
+        if(null != term_acc) {
+            term_acc.close();
+            Out.prln("Terms: " + term_acc.getTermsNumber() + 
+                     ", pages: " + term_acc.getPagesNumber());
+        }
     }
     
     
@@ -248,11 +286,13 @@ public class WikIDF  {
         
         boolean b_remove_not_expand_iwiki = true;
         int     doc_freq_max = 1000; // 100
+        boolean b_accumulate = true;
+        int     n_threads = Runtime.getRuntime().availableProcessors();
         
         WikIDF w = new WikIDF();
         //w.runSubCategories(dict_lang, wiki_lang, b_remove_not_expand_iwiki, doc_freq_max);
         w.runAll(dict_lang, wiki_lang, b_remove_not_expand_iwiki, doc_freq_max, 
-                connect_wp, idf_conn);
+                connect_wp, idf_conn, b_accumulate, n_threads);
         
         idf_conn.Close();
         connect_wp.Close();
@@ -0,0 +1,163 @@
+package wikidf;
+
+import wikipedia.sql.Connect;
+import wikipedia.sql_idf.TermAccumulator;
+
+import junit.framework.*;
+import java.util.*;
+
+import gate.Corpus;
+
+/** Tests the workers of KeeperPool without GATE pipelines: lemmas are
+ * words of the text, terms are not written to the database
+ * (the accumulator is not closed). */
+public class KeeperPoolTest extends TestCase {
+
+    public Connect   idfsimplewiki_conn;
+
+    public KeeperPoolTest(String testName) {
+        super(testName);
+    }
+
+    protected void setUp() throws Exception {
+        idfsimplewiki_conn = new Connect();
+        idfsimplewiki_conn.Open(Connect.IDF_SIMPLE_HOST, Connect.IDF_SIMPLE_DB, Connect.IDF_SIMPLE_USER, Connect.IDF_SIMPLE_PASS);
+    }
+
+    protected void tearDown() throws Exception {
+        idfsimplewiki_conn.Close();
+    }
+
+    /** Counts words of the text instead of lemmas,
+     * throws StackOverflowError if the text starts with "error",
+     * waits till the interruption if the text is "wait". */
+    private static class WordPool extends KeeperPool {
+
+        WordPool(int n_threads, TermAccumulator term_acc) {
+            super(n_threads, term_acc);
+        }
+
+        @Override
+        Map<String, Integer> parse(StandAloneRussianPOSTagger prs, Corpus corpus, String text) {
+            if(text.startsWith("error"))
+                throw new StackOverflowError();
+            if(text.equals("wait")) {
+                try {
+                    Thread.sleep(60000);
+                } catch(InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+
+            Map<String, Integer> lemma_tf = new HashMap<String, Integer>();
+            for(String w : text.split(" ")) {
+                Integer n = lemma_tf.get(w);
+                lemma_tf.put(w, null == n ? 1 : n + 1);
+            }
+            return lemma_tf;
+        }
+    }
+
+    /** Closes the pool in other thread, fails if it is not closed in 10 seconds.
+     *
+     * @param b_interrupt   the closing thread is interrupted after 0.5 sec
+     */
+    private static void closePool(final KeeperPool pool, boolean b_interrupt) throws InterruptedException {
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                pool.close();
+            }
+        };
+        t.start();
+        if(b_interrupt) {
+            Thread.sleep(500);
+            t.interrupt();
+        }
+        t.join(10000);
+        assertFalse(t.isAlive());
+    }
+
+    private static void closePool(KeeperPool pool) throws InterruptedException {
+        closePool(pool, false);
+    }
+
+    /** Term frequencies of the pages parsed by several workers are merged
+     * into the accumulator, the same as in one thread. */
+    public void testClose_merge() throws InterruptedException {
+        System.out.println("close_merge");
+        TermAccumulator acc = new TermAccumulator(idfsimplewiki_conn.conn, 100,
+                                                  TermAccumulator.POSTINGS_MAX, null);
+        int n_pages = acc.getPagesNumber();
+
+        String a = "test_keeper_pool_a", b = "test_keeper_pool_b", c = "test_keeper_pool_c";
+        int n = 200;
+        KeeperPool pool = new WordPool(4, acc);
+        pool.start();
+        int a_cf = 0, b_cf = 0, c_df = 0;
+        for(int i=0; i<n; i++) {
+            StringBuilder text = new StringBuilder(a);   // a: i+1 times, b: once
+            for(int j=0; j<i; j++)
+                text.append(" ").append(a);
+            text.append(" ").append(b);
+            if(0 == i % 3) {                            // c: every third page
+                text.append(" ").append(c);
+                c_df ++;
+            }
+            a_cf += i + 1;
+            b_cf += 1;
+            pool.put("test_keeper_pool.page" + i, text.toString());
+        }
+        closePool(pool);
+
+        assertEquals(n, pool.getParsedNumber());
+        assertEquals(n_pages + n, acc.getPagesNumber());
+        assertEquals(n,    acc.getDocFreq(a));
+        assertEquals(a_cf, acc.getCorpusFreq(a));
+        assertEquals(n,    acc.getDocFreq(b));
+        assertEquals(b_cf, acc.getCorpusFreq(b));
+        assertEquals(c_df, acc.getDocFreq(c));
+        assertEquals(c_df, acc.getCorpusFreq(c));
+    }
+
+    /** Error in the pipeline skips the article, the worker is alive,
+     * so close() does not wait forever. */
+    public void testRun_error() throws InterruptedException {
+        System.out.println("run_error");
+        TermAccumulator acc = new TermAccumulator(idfsimplewiki_conn.conn, 100,
+                                                  TermAccumulator.POSTINGS_MAX, null);
+
+        KeeperPool pool = new WordPool(1, acc);
+        pool.start();
+        String[] texts = {"test_keeper_pool_a", "error 1", "error 2", "error 3",
+                          "test_keeper_pool_a", "error 4", "test_keeper_pool_a"};
+        for(int i=0; i<texts.length; i++)
+            pool.put("test_keeper_pool.page" + i, texts[i]);
+        closePool(pool);
+
+        assertEquals(3, pool.getParsedNumber());
+        assertEquals(3, acc.getDocFreq("test_keeper_pool_a"));
+    }
+
+    /** The interrupted close() stops the workers (they delete
+     * their pipelines), the rest of the queue is skipped. */
+    public void testClose_interrupted() throws InterruptedException {
+        System.out.println("close_interrupted");
+        TermAccumulator acc = new TermAccumulator(idfsimplewiki_conn.conn, 100,
+                                                  TermAccumulator.POSTINGS_MAX, null);
+
+        KeeperPool pool = new WordPool(2, acc);
+        pool.start();
+        pool.put("test_keeper_pool.page0", "wait");
+        pool.put("test_keeper_pool.page1", "wait");
+        pool.put("test_keeper_pool.page2", "test_keeper_pool_a");
+        closePool(pool, true);
+
+        for(int i=0; i<100 && pool.isWorking(); i++)
+            Thread.sleep(100);
+        assertFalse(pool.isWorking());
+        assertEquals(2, pool.getParsedNumber());
+        assertEquals(0, acc.getDocFreq("test_keeper_pool_a"));
+    }
+}
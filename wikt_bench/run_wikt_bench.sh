@@ -0,0 +1,21 @@
+#/bin/bash
+# JMH benchmarks of the Wiktionary parser (common_wiki), run it before and after a change of the parser.
+#
+# lib/ should contain JMH jars (Maven Central, org.openjdk.jmh, version 1.23, see lib/readme.txt):
+#   jmh-core-1.23.jar, jmh-generator-annprocess-1.23.jar, jopt-simple-4.6.jar, commons-math3-3.2.jar
+# then build the project (ant jar), benchmarks are generated by the annotation processor.
+#
+# %1... (optional) JMH options and benchmarks (regexp), e.g.:
+# WordBaseBenchmark
+# -p wikt_code=ru WordBaseBenchmark.parseMeaning
+# -prof gc -rf json -rff wikt_bench_20200301.json
+#
+# Benchmarks:
+#   WordBaseBenchmark     - new WordBase() and stages: language, POS, meaning, relation, translation
+#   DefinitionRuBenchmark - context labels and quotations (Russian Wiktionary)
+#   WikiTextBenchmark     - WikiParser.convertWikiToText() vs convertWikiToTextByRegex()
+#
+# Corpus of entries: data/ruwikt.txt and data/enwikt.txt (see wikt.bench.Corpus and data/readme.txt)
+#
+# Shell script (Linux)
+java -Dwikt.bench.data=data -jar dist/wikt_bench.jar -prof gc "$@"
@@ -0,0 +1,119 @@
+/* Corpus.java - texts of Wiktionary entries for benchmarks.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.bench;
+
+import wikokit.base.wikipedia.language.LanguageType;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Wiki texts of entries of the Russian and English Wiktionaries,
+ * they are stored in the files data/ruwikt.txt and data/enwikt.txt.<br><br>
+ *
+ * Each entry begins with the line "@@ page_title" or "@@ page_title\trev_id"
+ * (revision of the page in the dump), then the wiki text of the page follows
+ * till the next "@@ " line.<br><br>
+ *
+ * The checked-in files are abridged texts written after the entries, they
+ * are not extracts of a dump and have no revisions, see data/readme.txt.
+ * The files with extracts of a dump are created by CorpusExtractor.
+ *
+ * The directory with the files can be set by the system property
+ * wikt.bench.data, e.g. -Dwikt.bench.data=/home/user/wikokit/wikt_bench/data
+ */
+public class Corpus {
+
+    /** System property with the path to the corpus directory. */
+    public static final String DATA_PROPERTY = "wikt.bench.data";
+    private static final String DATA_DEFAULT = "data";
+
+    private static final String PAGE_PREFIX = "@@ ";
+
+    /** Titles of pages. */
+    private final String[] page_title;
+
+    /** Revisions of pages (0 if unknown), the same order as titles. */
+    private final int[] rev_id;
+
+    /** Wiki texts of pages, the same order as titles. */
+    private final String[] text;
+
+    private Corpus(List<String> _page_title, List<Integer> _rev_id, List<String> _text) {
+        page_title  = _page_title.toArray(new String[0]);
+        text        = _text.toArray(new String[0]);
+        rev_id      = new int[_rev_id.size()];
+        for(int i=0; i<rev_id.length; i++)
+            rev_id[i] = _rev_id.get(i);
+    }
+
+    /** Reads texts of entries of the Wiktionary (e.g. ru or en).
+     *
+     * @param wikt_lang     language of Wiktionary
+     */
+    public static Corpus load(LanguageType wikt_lang) throws IOException {
+
+        String dir = System.getProperty(DATA_PROPERTY, DATA_DEFAULT);
+        File file = new File(dir, wikt_lang.getCode() + "wikt.txt");
+
+        List<String>  titles = new ArrayList<String>();
+        List<Integer> revs   = new ArrayList<Integer>();
+        List<String>  texts  = new ArrayList<String>();
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                                    new FileInputStream(file), "UTF-8"));
+        try {
+            StringBuilder sb = null;
+            String line;
+            while(null != (line = in.readLine())) {
+                if(line.startsWith(PAGE_PREFIX)) {
+                    if(null != sb)
+                        texts.add(sb.toString());
+                    String title = line.substring(PAGE_PREFIX.length());
+                    int tab = title.indexOf('\t');
+                    try {
+                        revs.add(tab < 0 ? 0 : Integer.parseInt(title.substring(tab + 1).trim()));
+                    } catch (NumberFormatException ex) {
+                        throw new IOException("Wrong revision of the page '" + line + "' in the corpus file " + file.getPath());
+                    }
+                    titles.add((tab < 0 ? title : title.substring(0, tab)).trim());
+                    sb = new StringBuilder();
+                } else if(null != sb) {
+                    sb.append(line).append('\n');
+                }
+            }
+            if(null != sb)
+                texts.add(sb.toString());
+        } finally {
+            in.close();
+        }
+
+        if(titles.isEmpty())
+            throw new IOException("There are no pages in the corpus file " + file.getPath());
+
+        return new Corpus(titles, revs, texts);
+    }
+
+    /** Gets number of pages in the corpus. */
+    public int size() {
+        return page_title.length;
+    }
+
+    public String getPageTitle(int i) {
+        return page_title[i];
+    }
+
+    /** Gets revision of the page in the dump, 0 if it is unknown. */
+    public int getRevision(int i) {
+        return rev_id[i];
+    }
+
+    /** Gets a new copy of wiki text of the page. */
+    public StringBuffer getText(int i) {
+        return new StringBuffer(text[i]);
+    }
+}
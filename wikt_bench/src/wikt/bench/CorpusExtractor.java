@@ -0,0 +1,101 @@
+/* CorpusExtractor.java - extracts entries from a Wiktionary dump to the corpus file.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.bench;
+
+import java.io.*;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/** Extracts wiki texts of the given pages from the XML dump of the
+ * Wiktionary (pages-articles.xml) to the corpus file (see Corpus),
+ * the page title is followed by the revision of the page in the dump.<br><br>
+ *
+ * Usage (the dump is read from the standard input if it is "-"):
+ * bzcat ruwiktionary-20200301-pages-articles.xml.bz2 |
+ *   java -cp dist/wikt_bench.jar wikt.bench.CorpusExtractor data/ruwikt_titles.txt - > data/ruwikt.txt
+ */
+public class CorpusExtractor {
+
+    /** Reads titles of pages, one title in a line, empty lines are skipped. */
+    private static Set<String> readTitles(String filename) throws IOException {
+        Set<String> titles = new LinkedHashSet<String>();
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                                    new FileInputStream(filename), "UTF-8"));
+        try {
+            String line;
+            while(null != (line = in.readLine())) {
+                if(line.trim().length() > 0)
+                    titles.add(line.trim());
+            }
+        } finally {
+            in.close();
+        }
+        return titles;
+    }
+
+    /** Writes the pages with the given titles in the order of the dump,
+     * the reading stops when all pages are found.
+     *
+     * @return titles of pages which are absent in the dump
+     */
+    public static Set<String> extract(Set<String> titles, InputStream dump, Writer out)
+                                    throws IOException, XMLStreamException
+    {
+        Set<String> absent = new LinkedHashSet<String>(titles);
+        XMLStreamReader r = XMLInputFactory.newInstance().createXMLStreamReader(dump, "UTF-8");
+        try {
+            String title = null, rev_id = null;
+            boolean b_revision = false;
+            while(!absent.isEmpty() && r.hasNext()) {
+                if(XMLStreamConstants.START_ELEMENT == r.next()) {
+                    String name = r.getLocalName();
+                    if("page".equals(name)) {
+                        title = null;
+                        rev_id = null;
+                        b_revision = false;
+                    } else if("title".equals(name)) {
+                        title = r.getElementText();
+                    } else if("revision".equals(name)) {
+                        b_revision = true;
+                    } else if("id".equals(name) && b_revision && null == rev_id) {
+                        rev_id = r.getElementText().trim();
+                    } else if("text".equals(name) && absent.remove(title)) {
+                        out.write("@@ " + title + "\t" + rev_id + "\n");
+                        String text = r.getElementText();
+                        out.write(text);
+                        if(!text.endsWith("\n"))
+                            out.write("\n");
+                    }
+                }
+            }
+        } finally {
+            r.close();
+        }
+        out.flush();
+        return absent;
+    }
+
+    public static void main(String[] args) throws IOException, XMLStreamException {
+        if(args.length != 2) {
+            System.err.println("Usage: CorpusExtractor titles.txt (pages-articles.xml | -) > corpus.txt");
+            System.exit(1);
+        }
+        Set<String> titles = readTitles(args[0]);
+        InputStream dump = "-".equals(args[1]) ? System.in : new FileInputStream(args[1]);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, "UTF-8"));
+        try {
+            for(String title : extract(titles, new BufferedInputStream(dump), out))
+                System.err.println("The page '" + title + "' is absent in the dump.");
+        } finally {
+            dump.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/* DefinitionRuBenchmark.java - JMH benchmark of parsing of definitions in Russian Wiktionary.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.bench;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.multi.ru.WQuoteRu;
+import wikokit.base.wikt.multi.ru.name.LabelRu;
+import wikokit.base.wikt.util.Definition;
+import wikokit.base.wikt.util.LabelsText;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Parsing of definition lines of the Russian Wiktionary entries
+ * (see WMeaningRu.parseOneDefinition()):
+ * <PRE>
+ * extractLabels    {{разг.|ru}} {{перен.|ru}} definition   (LabelRu)
+ * getQuotes        definition {{пример|quote.}}           (WQuoteRu)
+ * </PRE>
+ *
+ * The English Wiktionary parser has no such stages, since context labels
+ * are not extracted and quotations are parsed together with definitions.
+ *
+ * One operation is the parsing of all definitions of the corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefinitionRuBenchmark {
+
+    private final static Pattern ptrn_meaning_header = Pattern.compile(
+            "^====\\s*Значение\\s*====\\s*$");
+
+    /** Definition lines without "#", and titles of pages. */
+    private String[] definition;
+    private String[] page_title;
+
+    /** Definition lines without context labels, the input of getQuotes(). */
+    private String[] definition_without_labels;
+
+    @Setup
+    public void setup() throws IOException {
+        Corpus corpus = Corpus.load(LanguageType.ru);
+
+        List<String> def_list   = new ArrayList<String>();
+        List<String> title_list = new ArrayList<String>();
+
+        for(int i=0; i<corpus.size(); i++) {
+            boolean b_meaning = false;
+            for(String line : corpus.getText(i).toString().split("\n")) {
+                if(ptrn_meaning_header.matcher(line).matches()) {
+                    b_meaning = true;
+                } else if(b_meaning && line.startsWith("#")) {
+                    line = line.replace("{{пример|}}", "");
+                    line = Definition.stripNumberSign(corpus.getPageTitle(i), line);
+                    if(line.length() > 0) {
+                        def_list.add(line);
+                        title_list.add(corpus.getPageTitle(i));
+                    }
+                } else {
+                    b_meaning = false;
+                }
+            }
+        }
+        definition = def_list.toArray(new String[0]);
+        page_title = title_list.toArray(new String[0]);
+
+        definition_without_labels = new String[definition.length];
+        for(int i=0; i<definition.length; i++) {
+            LabelsText lt = LabelRu.extractLabelsTrimText(page_title[i], definition[i]);
+            definition_without_labels[i] = null == lt ? "" : lt.getText();
+        }
+    }
+
+    @Benchmark
+    public void extractLabels(Blackhole bh) {
+        for(int i=0; i<definition.length; i++)
+            bh.consume(LabelRu.extractLabelsTrimText(page_title[i], definition[i]));
+    }
+
+    @Benchmark
+    public void getQuotes(Blackhole bh) {
+        for(int i=0; i<definition_without_labels.length; i++)
+            bh.consume(WQuoteRu.getQuotes(page_title[i], definition_without_labels[i]));
+    }
+}
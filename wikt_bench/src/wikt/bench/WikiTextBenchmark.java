@@ -0,0 +1,55 @@
+/* WikiTextBenchmark.java - JMH benchmark of conversion of wiki text to plain text.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.bench;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.text.WikiParser;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Compares WikiParser.convertWikiToText() (one buffer by WikiTokenizer)
+ * with the chain of regular expressions WikiParser.convertWikiToTextByRegex().
+ *
+ * One operation is the conversion of all pages of the corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WikiTextBenchmark {
+
+    /** Language of Wiktionary (code). */
+    @Param({"ru", "en"})
+    public String wikt_code;
+
+    private LanguageType wikt_lang;
+    private Corpus corpus;
+
+    @Setup
+    public void setup() throws IOException {
+        wikt_lang = LanguageType.get(wikt_code);
+        corpus = Corpus.load(wikt_lang);
+    }
+
+    @Benchmark
+    public void convertWikiToText(Blackhole bh) {
+        for(int i=0; i<corpus.size(); i++)
+            bh.consume(WikiParser.convertWikiToText(corpus.getText(i), wikt_lang, true));
+    }
+
+    @Benchmark
+    public void convertWikiToTextByRegex(Blackhole bh) {
+        for(int i=0; i<corpus.size(); i++)
+            bh.consume(WikiParser.convertWikiToTextByRegex(corpus.getText(i), wikt_lang, true));
+    }
+}
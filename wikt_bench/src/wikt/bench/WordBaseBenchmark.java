@@ -0,0 +1,153 @@
+/* WordBaseBenchmark.java - JMH benchmark of parsing of Wiktionary entries.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.bench;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.text.ReferenceParser;
+import wikokit.base.wikipedia.text.WikiParser;
+import wikokit.base.wikt.util.LangText;
+import wikokit.base.wikt.util.POSText;
+import wikokit.base.wikt.word.WLanguage;
+import wikokit.base.wikt.word.WMeaning;
+import wikokit.base.wikt.word.WPOS;
+import wikokit.base.wikt.word.WRelation;
+import wikokit.base.wikt.word.WTranslation;
+import wikokit.base.wikt.word.WordBase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Parsing of the corpus of entries (see Corpus): the whole WordBase
+ * and each stage of the parser separately:
+ * <PRE>
+ * parseWordBase           new WordBase(page_title, wikt_lang, text)
+ * splitToLanguageSections = Level I. Language =
+ * splitToPOSSections      == Level II. Part of speech ==
+ * parseMeaning            ==== Значение ==== (ru), # definitions (en)
+ * parseRelation           ==== Синонимы ==== (ru), ====Synonyms==== (en)
+ * parseTranslation        === Перевод === (ru), ====Translations==== (en)
+ * </PRE>
+ *
+ * One operation is the parsing of all pages of the corpus. Input of each
+ * stage (i.e. the result of previous stages) is prepared in setup(),
+ * the stages do not change their input.
+ * Labels and quotations are benchmarked in DefinitionRuBenchmark.<br><br>
+ *
+ * Usage (allocation rate is measured by the gc profiler):
+ * java -jar dist/wikt_bench.jar -prof gc WordBaseBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordBaseBenchmark {
+
+    /** Language of Wiktionary (code). */
+    @Param({"ru", "en"})
+    public String wikt_code;
+
+    private LanguageType wikt_lang;
+    private Corpus corpus;
+
+    /** Texts of pages without comments and references, as in WordBase(). */
+    private StringBuffer[] page_text;
+
+    /** Language sections of all pages, and titles of the pages. */
+    private LangText[]  lang_sections;
+    private String[]    lang_page_title;
+
+    /** POS sections of all pages, titles of pages and languages of the sections. */
+    private POSText[]       pos_sections;
+    private String[]        pos_page_title;
+    private LanguageType[]  pos_lang;
+
+    @Setup
+    public void setup() throws IOException {
+        wikt_lang = LanguageType.get(wikt_code);
+        corpus = Corpus.load(wikt_lang);
+
+        int n = corpus.size();
+        page_text = new StringBuffer[n];
+
+        List<LangText> lt_list       = new ArrayList<LangText>();
+        List<String>   lt_title_list = new ArrayList<String>();
+
+        for(int i=0; i<n; i++) {
+            page_text[i] = WikiParser.removeHTMLComments(
+                                ReferenceParser.removeReferences(corpus.getText(i)));
+
+            LangText[] lt = WLanguage.splitToLanguageSections(wikt_lang,
+                                corpus.getPageTitle(i), page_text[i]);
+            for(LangText l : lt) {
+                lt_list.add(l);
+                lt_title_list.add(corpus.getPageTitle(i));
+            }
+        }
+        lang_sections   = lt_list.toArray(new LangText[0]);
+        lang_page_title = lt_title_list.toArray(new String[0]);
+
+        List<POSText>      pt_list       = new ArrayList<POSText>();
+        List<String>       pt_title_list = new ArrayList<String>();
+        List<LanguageType> pt_lang_list  = new ArrayList<LanguageType>();
+
+        for(int i=0; i<lang_sections.length; i++) {
+            POSText[] pt = WPOS.splitToPOSSections(wikt_lang, lang_page_title[i], lang_sections[i]);
+            for(POSText p : pt) {
+                pt_list.add(p);
+                pt_title_list.add(lang_page_title[i]);
+                pt_lang_list.add(lang_sections[i].getLanguage());
+            }
+        }
+        pos_sections    = pt_list.toArray(new POSText[0]);
+        pos_page_title  = pt_title_list.toArray(new String[0]);
+        pos_lang        = pt_lang_list.toArray(new LanguageType[0]);
+    }
+
+    @Benchmark
+    public void parseWordBase(Blackhole bh) {
+        for(int i=0; i<corpus.size(); i++)
+            bh.consume(new WordBase(corpus.getPageTitle(i), wikt_lang, corpus.getText(i)));
+    }
+
+    @Benchmark
+    public void splitToLanguageSections(Blackhole bh) {
+        for(int i=0; i<page_text.length; i++)
+            bh.consume(WLanguage.splitToLanguageSections(wikt_lang,
+                            corpus.getPageTitle(i), page_text[i]));
+    }
+
+    @Benchmark
+    public void splitToPOSSections(Blackhole bh) {
+        for(int i=0; i<lang_sections.length; i++)
+            bh.consume(WPOS.splitToPOSSections(wikt_lang, lang_page_title[i], lang_sections[i]));
+    }
+
+    @Benchmark
+    public void parseMeaning(Blackhole bh) {
+        for(int i=0; i<pos_sections.length; i++)
+            bh.consume(WMeaning.parse(wikt_lang, pos_page_title[i], pos_lang[i], pos_sections[i]));
+    }
+
+    @Benchmark
+    public void parseRelation(Blackhole bh) {
+        for(int i=0; i<pos_sections.length; i++)
+            bh.consume(WRelation.parse(wikt_lang, pos_page_title[i], pos_lang[i], pos_sections[i]));
+    }
+
+    @Benchmark
+    public void parseTranslation(Blackhole bh) {
+        for(int i=0; i<pos_sections.length; i++)
+            bh.consume(WTranslation.parse(wikt_lang, pos_page_title[i], pos_lang[i], pos_sections[i]));
+    }
+}
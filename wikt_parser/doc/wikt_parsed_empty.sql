@@ -28,7 +28,8 @@ CREATE TABLE IF NOT EXISTS `page` (
   `is_redirect` TINYINT(1) NULL COMMENT 'Hard redirect defined by #REDIRECT',
   `redirect_target` VARCHAR(255) NULL COMMENT 'Redirected (target or destination) page',
   PRIMARY KEY (`id`),
-  INDEX `idx_page_title` (`page_title`(7) ASC))
+  INDEX `idx_page_title` (`page_title`(7) ASC),
+  UNIQUE INDEX `page_title_UNIQUE` (`page_title` ASC))
 ENGINE = InnoDB
 COMMENT = 'titles of wiki articles, entry names';
 
@@ -118,7 +119,8 @@ CREATE TABLE IF NOT EXISTS `inflection` (
   `freq` INT(11) UNSIGNED NOT NULL COMMENT 'document\'s frequency, number of documents where the term appears',
   `inflected_form` VARCHAR(255) BINARY NOT NULL COMMENT 'Inflected form, e.g. \"cats\" for \"cat\".',
   PRIMARY KEY (`id`),
-  INDEX `idx_inflected_form` (`inflected_form`(7) ASC))
+  INDEX `idx_inflected_form` (`inflected_form`(7) ASC),
+  UNIQUE INDEX `inflected_form_UNIQUE` (`inflected_form` ASC))
 ENGINE = InnoDB
 COMMENT = 'terms found in wiki-texts';
 
@@ -440,7 +442,7 @@ CREATE TABLE IF NOT EXISTS `label` (
   `category_id` TINYINT UNSIGNED NULL COMMENT 'ID of category of context labels',
   `counter` INT(10) UNSIGNED NOT NULL DEFAULT 0 COMMENT 'number of times that this label was used in articles',
   PRIMARY KEY (`id`),
-  INDEX `short_name_INDEX` (`short_name` (255) ASC))
+  UNIQUE INDEX `short_name_UNIQUE` (`short_name` (255) ASC))
 ENGINE = InnoDB
 COMMENT = 'Context labels.';
 
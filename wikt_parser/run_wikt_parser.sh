@@ -1,17 +1,34 @@
 #/bin/bash
 # %1 language_code - language code of MySQL Wiktionary database to be parsed
 # %2 n_start_from - number of records in database to start from
+# %3 %4 (optional) --threads N - number of parser threads
+# %5 %6 (optional) --batch M - batch-writer mode, commit every M pages
+# %7 %8 (optional) --bulk DIR - bulk-load mode (n_start_from=0 only), files for LOAD DATA INFILE in DIR,
+#                               then: mysql --local-infile=1 wikt_parsed_db < DIR/load.sql
+#                               and the post-processing: run_wikt_parser.sh ru 0 --post-process
+# %9 %10 (optional) --dump FILE - parse XML dump (.xml, .xml.bz2, .xml.gz) instead of the Wiktionary MySQL database,
+#                               .bz2 is decompressed by "bzip2 -dc" or by -Dwikt.parser.bunzip2="lbzip2 -dc"
+# %11 %12 %13 %14 (optional) --from-id A --to-id B - shard: pages with A <= page_id < B (B=0 - to the end),
+#                               progress in the table parse_journal; n_start_from: 0 - clear database, 1 - resume
+# %15 (optional) --incremental - parse only pages changed since the last incremental parsing (page_latest),
+#                               revisions in the table page_revision; without --bulk, --dump and shards
+# %16 %17 (optional) --metrics JSONL - time of parsing stages and table writers in JSON lines every minute,
+#                               the slowest pages are printed at the end
 # e.g.:
 # en 0
 # ru 20000
+# ru 0 --batch 1000 --from-id 0 --to-id 350000
+# ru 1 --batch 1000 --from-id 350000 --to-id 0
+# ru 1 --threads 4 --batch 1000 --incremental
+# ru 0 --threads 4 --batch 1000 --metrics parse_metrics.jsonl
 #
 # Shell script (Linux)
-java -cp "dist/wikt_parser.jar:dist/lib/*" -Xms1212m -Xmx1212m -Xmn16m -XX:+DisableExplicitGC wikt.parser.Main $1 $2 > ruwikt20160210_parsed_05.log
+java -cp "dist/wikt_parser.jar:dist/lib/*" -Xms1212m -Xmx1212m -Xmn16m -XX:+DisableExplicitGC wikt.parser.Main $1 $2 $3 $4 $5 $6 $7 $8 $9 ${10} ${11} ${12} ${13} ${14} ${15} ${16} ${17} > ruwikt20160210_parsed_05.log
 #
 # Script parameters (failed)
 # WIKLIBS='"wikt_parser.jar:dist/lib/*"'
 # JAVAOPTS="-Xms1212m -Xmx1212m -Xmn16m -XX:+DisableExplicitGC"
-# java -cp  "$WIKLIBS" "$JAVAOPTS" wikt.parser.Main $1 $2 > ruwikt20160210_parsed_01.log
+# java -cp  "$WIKLIBS" "$JAVAOPTS" wikt.parser.Main $1 $2 $3 $4 $5 $6 > ruwikt20160210_parsed_01.log
 #
 #
 #
@@ -0,0 +1,231 @@
+/* DumpReader.java - streaming reader of MediaWiki XML dump (pages-articles.xml).
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.parser;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/** Streaming (StAX) reader of the MediaWiki XML dump, e.g.
+ * ruwiktionary-20200101-pages-articles.xml.bz2, it is an alternative
+ * to the MySQL Wiktionary database (see PageTableBase.getArticleText()).<br><br>
+ *
+ * Only articles are returned: pages of the main namespace (ns=0)
+ * which are not #REDIRECT, i.e. the same pages as
+ * "SELECT page_title FROM page WHERE page_namespace=0 AND page_is_redirect=0".
+ * Only one page is kept in memory.<br><br>
+ *
+ * Compressed dumps:
+ * <PRE>
+ * .bz2 - is decompressed by the external program "bzip2 -dc", another program
+ *        (e.g. parallel "lbzip2 -dc") can be set by the system property
+ *        wikt.parser.bunzip2, e.g. -Dwikt.parser.bunzip2="lbzip2 -dc"
+ * .gz  - GZIPInputStream
+ * </PRE>
+ *
+ * Usage:
+ * <PRE>
+ * DumpReader dump = new DumpReader("ruwiktionary-pages-articles.xml.bz2");
+ * dump.open();
+ * while(dump.next(true))
+ *     parse(dump.getPageTitle(), dump.getText());
+ * dump.close();
+ * </PRE>
+ */
+public class DumpReader {
+
+    /** System property with the command which decompresses .bz2 to stdout. */
+    public static final String BUNZIP2_PROPERTY = "wikt.parser.bunzip2";
+    private static final String BUNZIP2_DEFAULT = "bzip2 -dc";
+
+    private final String filepath;
+
+    private Process         bunzip2;
+    private InputStream     in;
+    private XMLStreamReader reader;
+
+    /** Title of the current page (with spaces, as in the dump). */
+    private String page_title;
+
+    /** Wiki text of the current page, it is null if the text was skipped. */
+    private StringBuffer text;
+
+    /** Number of all pages read (any namespace, redirects too). */
+    private long n_pages_read;
+
+    /** @param _filepath path to .xml, .xml.bz2 or .xml.gz dump file */
+    public DumpReader(String _filepath) {
+        filepath = _filepath;
+    }
+
+    /** Opens the dump file (and starts the decompressor). */
+    public void open() throws IOException, XMLStreamException {
+
+        if(filepath.endsWith(".bz2")) {
+            String cmd = System.getProperty(BUNZIP2_PROPERTY, BUNZIP2_DEFAULT);
+            List<String> args = new ArrayList<String>(Arrays.asList(cmd.trim().split("\\s+")));
+            args.add(filepath);
+
+            ProcessBuilder pb = new ProcessBuilder(args);
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            bunzip2 = pb.start();
+            in = new BufferedInputStream(bunzip2.getInputStream(), 1 << 16);
+        } else if(filepath.endsWith(".gz")) {
+            in = new BufferedInputStream(new GZIPInputStream(new FileInputStream(filepath), 1 << 16), 1 << 16);
+        } else
+            in = new BufferedInputStream(new FileInputStream(filepath), 1 << 16);
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        setPropertyIfSupported(factory, "http://www.oracle.com/xml/jaxp/properties/totalEntitySizeLimit", 0);
+        setPropertyIfSupported(factory, "http://www.oracle.com/xml/jaxp/properties/maxGeneralEntitySizeLimit", 0);
+        reader = factory.createXMLStreamReader(in, "UTF-8");
+    }
+
+    /** The limits of the JDK parser on the size of entities (e.g. &amp;amp;)
+     * are exceeded by large dumps, the limits are switched off. */
+    private static void setPropertyIfSupported(XMLInputFactory factory, String name, Object value) {
+        try {
+            factory.setProperty(name, value);
+        } catch(IllegalArgumentException ex) {
+            // property of another StAX implementation
+        }
+    }
+
+    /** Reads the next article (namespace 0, not redirect).
+     *
+     * @param b_text if false, then the text is skipped (it is faster,
+     *               e.g. to skip pages before n_start_from)
+     * @return false at the end of the dump
+     */
+    public boolean next(boolean b_text) throws XMLStreamException {
+
+        while(reader.hasNext()) {
+            if(XMLStreamConstants.START_ELEMENT == reader.next() &&
+               "page".equals(reader.getLocalName()))
+            {
+                if(readPage(b_text))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /** Reads elements of &lt;page&gt; till &lt;/page&gt;.
+     *
+     * @return true if the page is an article
+     */
+    private boolean readPage(boolean b_text) throws XMLStreamException {
+
+        n_pages_read ++;
+        page_title  = null;
+        text        = null;
+        int     ns          = 0;    // old dumps have no <ns>
+        boolean is_redirect = false;
+
+        while(reader.hasNext()) {
+            int event = reader.next();
+            if(XMLStreamConstants.END_ELEMENT == event) {
+                if("page".equals(reader.getLocalName()))
+                    break;
+                continue;
+            }
+            if(XMLStreamConstants.START_ELEMENT != event)
+                continue;
+
+            String name = reader.getLocalName();
+            if("title".equals(name)) {
+                page_title = reader.getElementText();
+
+            } else if("ns".equals(name)) {
+                ns = Integer.parseInt(reader.getElementText().trim());
+
+            } else if("redirect".equals(name)) {
+                is_redirect = true;
+
+            } else if("text".equals(name)) {
+                if(b_text && 0 == ns && !is_redirect)
+                    text = readText();
+                else
+                    skipElement();
+            }
+        }
+        return 0 == ns && !is_redirect && null != page_title;
+    }
+
+    /** Reads the content of the current element (&lt;text&gt;). */
+    private StringBuffer readText() throws XMLStreamException {
+
+        StringBuffer sb = new StringBuffer();
+        while(reader.hasNext()) {
+            int event = reader.next();
+            if(XMLStreamConstants.CHARACTERS == event || XMLStreamConstants.CDATA == event ||
+               XMLStreamConstants.SPACE == event || XMLStreamConstants.ENTITY_REFERENCE == event)
+                sb.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            else if(XMLStreamConstants.END_ELEMENT == event)
+                break;
+        }
+        return sb;
+    }
+
+    /** Skips the current element with its content. */
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while(depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if(XMLStreamConstants.START_ELEMENT == event)
+                depth ++;
+            else if(XMLStreamConstants.END_ELEMENT == event)
+                depth --;
+        }
+    }
+
+    /** Gets title of the current article (with spaces). */
+    public String getPageTitle() {
+        return page_title;
+    }
+
+    /** Gets wiki text of the current article, it is empty if the article
+     * has no text, and null if the text was skipped by next(false). */
+    public StringBuffer getText() {
+        return text;
+    }
+
+    /** Gets number of all pages read from the dump (any namespace, redirects too). */
+    public long getPagesRead() {
+        return n_pages_read;
+    }
+
+    /** Closes the file and stops the decompressor. */
+    public void close() {
+        try {
+            if(null != reader)
+                reader.close();
+        } catch(XMLStreamException ex) {
+            System.out.println("XMLStreamException (DumpReader.close()):: " + ex.getMessage());
+        }
+        try {
+            if(null != in)
+                in.close();
+        } catch(IOException ex) {
+            System.out.println("IOException (DumpReader.close()):: " + ex.getMessage());
+        }
+        if(null != bunzip2)
+            bunzip2.destroy();
+
+        reader  = null;
+        in      = null;
+        bunzip2 = null;
+    }
+}
@@ -8,6 +8,7 @@ package wikt.parser;
 
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.util.ParseMetrics;
 
 
 /** Wiktionary parser creates MySQL database (like WordNet) 
@@ -20,6 +21,12 @@ import wikokit.base.wikipedia.language.LanguageType;
  */
 public class Main {
     
+    /** Period of the lines of metrics in the file (--metrics). */
+    private static final int METRICS_PERIOD_SEC = 60;
+    
+    /** Number of the slowest pages printed at the end (--metrics). */
+    private static final int METRICS_SLOWEST = 20;
+    
     /**
      * @param args the command line arguments   todo
      * 
@@ -27,6 +34,41 @@ public class Main {
      * <P><B>
      * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0
      * </B><BR>
+     * or with 4 parser threads:
+     * <P><B>
+     * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 --threads 4
+     * </B><BR>
+     * or with 4 parser threads and batch writer (commit every 1000 pages):
+     * <P><B>
+     * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 --threads 4 --batch 1000
+     * </B><BR>
+     * or with the bulk loader (files for LOAD DATA INFILE in the directory bulk):
+     * <P><B>
+     * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 --threads 4 --bulk bulk
+     * </B><BR>
+     * then (after the load script) post-processing of the loaded database:
+     * <P><B>
+     * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 --post-process
+     * </B><BR>
+     * or from XML dump file (the Wiktionary MySQL database is not needed):
+     * <P><B>
+     * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 --threads 4 --dump ruwiktionary-20200101-pages-articles.xml.bz2
+     * </B><BR>
+     * or by shards (ranges of page IDs), the first shard clears the database (0),
+     * the second shard is started after it (1), a shard is resumed by the same command (1):
+     * <P><B>
+     * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 --batch 1000 --from-id 0 --to-id 350000
+     * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 1 --batch 1000 --from-id 350000 --to-id 0
+     * </B><BR>
+     * or incrementally: only pages changed since the last parsing (by page_latest)
+     * are parsed again, the database is not cleared:
+     * <P><B>
+     * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 1 --threads 4 --batch 1000 --incremental
+     * </B><BR>
+     * with metrics of parsing stages (JSON line every minute, the slowest pages at the end):
+     * <P><B>
+     * java -jar "./wikt_parser/dist/wikt_parser.jar" ru 0 --threads 4 --batch 1000 --metrics parse_metrics.jsonl
+     * </B><BR>
      */
     public static void main(String[] args) {
                 
@@ -36,13 +78,88 @@ public class Main {
         // Connect to wikt_parsed database
         Connect wikt_parsed_conn = new Connect();
 
-        if(args.length != 2) {
+        int n_threads = 1;
+        int commit_pages = 0;
+        String bulk_dir = null;
+        String dump_filepath = null;
+        String metrics_filepath = null;
+        int from_id = -1;   // -1 - pages are not sharded
+        int to_id = 0;
+        boolean b_incremental = false;
+        boolean b_post_process = false;
+        boolean b_options = true;
+        for(int i=2; b_options && i<args.length; i+=2) {
+            if(args[i].equals("--incremental")) {
+                b_incremental = true;
+                i --;           // the option without value
+            } else if(args[i].equals("--post-process")) {
+                b_post_process = true;
+                i --;
+            } else if(i+1 >= args.length)
+                b_options = false;
+            else if(args[i].equals("--threads"))
+                n_threads = Integer.parseInt(args[i+1]);
+            else if(args[i].equals("--batch"))
+                commit_pages = Integer.parseInt(args[i+1]);
+            else if(args[i].equals("--bulk"))
+                bulk_dir = args[i+1];
+            else if(args[i].equals("--dump"))
+                dump_filepath = args[i+1];
+            else if(args[i].equals("--metrics"))
+                metrics_filepath = args[i+1];
+            else if(args[i].equals("--from-id"))
+                from_id = Integer.parseInt(args[i+1]);
+            else if(args[i].equals("--to-id")) {
+                to_id = Integer.parseInt(args[i+1]);
+                from_id = Math.max(from_id, 0);
+            } else
+                b_options = false;
+        }
+        
+        if(args.length < 2 || !b_options || n_threads < 1 || commit_pages < 0 || to_id < 0 ||
+           from_id >= 0 && (null != dump_filepath || null != bulk_dir) ||
+           b_incremental && (from_id >= 0 || null != dump_filepath || null != bulk_dir) ||
+           b_post_process && (b_incremental || from_id >= 0 || null != dump_filepath || null != bulk_dir)) {
             System.out.println("Wiktionary parser.\n" +
-            "Usage:\n  run_wikt_parser.bat language_code n_start_from\n" +
+            "Usage:\n  run_wikt_parser.bat language_code n_start_from [--threads N] [--batch M] [--bulk DIR] [--dump FILE]\n" +
+            "                     [--from-id A] [--to-id B] [--incremental] [--metrics JSONL]\n" +
+            "       run_wikt_parser.bat language_code 0 --post-process\n" +
                     "Arguments:\n" +
                     "  language_code - language code of MySQL Wiktionary database to be parsed\n" +
                     "  n_start_from - number of records in database to start from\n" +
-                    "Examples: run_wikt_parser.bat en 0\n"
+                    "  N - number of parser threads (default 1)\n" +
+                    "  M - batch-writer mode: prepared statements, JDBC batches,\n" +
+                    "      commit every M pages (default 0 - auto-commit of every row)\n" +
+                    "  DIR - bulk-load mode (only if n_start_from is 0): IDs are assigned\n" +
+                    "      in-process, rows are written to files in DIR, then\n" +
+                    "      mysql --local-infile=1 wikt_parsed_db < DIR/load.sql\n" +
+                    "      and then the post-processing (--post-process)\n" +
+                    "  --post-process - only statistics of languages and labels and the table\n" +
+                    "      page_filter are calculated in the filled parsed database\n" +
+                    "  FILE - MediaWiki XML dump (.xml, .xml.bz2, .xml.gz) instead of\n" +
+                    "      the Wiktionary MySQL database\n" +
+                    "  A, B - shard: pages with A <= page_id < B (B=0 - to the end),\n" +
+                    "      progress is stored in the table parse_journal, the parsing\n" +
+                    "      of the shard is resumed after the last committed page;\n" +
+                    "      shards of one database can be parsed concurrently;\n" +
+                    "      n_start_from is 0 (clear the database) or 1 (resume, or\n" +
+                    "      one more shard); --bulk and --dump are not used\n" +
+                    "  --incremental - only pages added or changed (page_latest) since\n" +
+                    "      the last incremental parsing are parsed, data of changed and\n" +
+                    "      removed pages are deleted, revisions are stored in the table\n" +
+                    "      page_revision; n_start_from is not used; --bulk, --dump and\n" +
+                    "      shards are not used\n" +
+                    "  JSONL - metrics: time of stages (reading, parsing, storing to\n" +
+                    "      tables) and counters are appended to the file JSONL every\n" +
+                    "      " + METRICS_PERIOD_SEC + " sec (JSON lines), the " + METRICS_SLOWEST + " slowest pages are printed at the end\n" +
+                    "Examples: run_wikt_parser.bat en 0\n" +
+                    "          run_wikt_parser.bat ru 0 --threads 4 --batch 1000\n" +
+                    "          run_wikt_parser.bat ru 0 --threads 4 --bulk bulk\n" +
+                    "          run_wikt_parser.bat ru 0 --post-process\n" +
+                    "          run_wikt_parser.bat ru 0 --threads 4 --dump ruwiktionary-pages-articles.xml.bz2\n" +
+                    "          run_wikt_parser.bat ru 0 --batch 1000 --from-id 0 --to-id 350000\n" +
+                    "          run_wikt_parser.bat ru 1 --batch 1000 --from-id 350000 --to-id 0\n" +
+                    "          run_wikt_parser.bat ru 1 --threads 4 --batch 1000 --incremental\n"
                     );
             return;
         }
@@ -60,6 +177,20 @@ public class Main {
 
         int n_start_from = Integer.parseInt(args[1]);
         System.out.println("OK. n_start_from=" + n_start_from);
+        System.out.println("OK. n_threads=" + n_threads);
+        System.out.println("OK. commit_pages=" + commit_pages);
+        if(null != bulk_dir)
+            System.out.println("OK. bulk_dir=" + bulk_dir);
+        if(null != dump_filepath)
+            System.out.println("OK. dump_filepath=" + dump_filepath);
+        if(from_id >= 0)
+            System.out.println("OK. shard from_id=" + from_id + ", to_id=" + to_id);
+        if(b_incremental)
+            System.out.println("OK. incremental parsing");
+        if(b_post_process)
+            System.out.println("OK. post-processing only");
+        if(null != metrics_filepath)
+            System.out.println("OK. metrics_filepath=" + metrics_filepath);
 
         /*
         // simple
@@ -73,13 +204,16 @@ public class Main {
         */
         
         // Russian Wiktionary
+        // (the Wiktionary database is not needed, if the XML dump is parsed)
         if(LanguageType.ru == wikt_lang) {
-            wikt_conn.Open       (Connect.RUWIKT_HOST,        Connect.RUWIKT_DB, Connect.RUWIKT_USER, Connect.RUWIKT_PASS, wikt_lang);
+            if(null == dump_filepath && !b_post_process)
+                wikt_conn.Open   (Connect.RUWIKT_HOST,        Connect.RUWIKT_DB, Connect.RUWIKT_USER, Connect.RUWIKT_PASS, wikt_lang);
             wikt_parsed_conn.Open(Connect.RUWIKT_HOST, Connect.RUWIKT_PARSED_DB, Connect.RUWIKT_USER, Connect.RUWIKT_PASS, wikt_lang);
         } else {
             // English Wiktionary
             if(LanguageType.en == wikt_lang) {
-                wikt_conn.Open       (Connect.ENWIKT_HOST,        Connect.ENWIKT_DB, Connect.ENWIKT_USER, Connect.ENWIKT_PASS, wikt_lang);
+                if(null == dump_filepath && !b_post_process)
+                    wikt_conn.Open   (Connect.ENWIKT_HOST,        Connect.ENWIKT_DB, Connect.ENWIKT_USER, Connect.ENWIKT_PASS, wikt_lang);
                 wikt_parsed_conn.Open(Connect.ENWIKT_HOST, Connect.ENWIKT_PARSED_DB, Connect.ENWIKT_USER, Connect.ENWIKT_PASS, wikt_lang);
             } else {
                 System.out.println("This language code ('" + s + "') is not supported yet. Stop.");
@@ -98,7 +232,22 @@ public class Main {
 //        w.runSubCategories(wiki_lang, wikt_conn, wikt_parsed_conn, category_name);
         
 
-        PageTableAll.parseAllPages(wikt_lang, wikt_conn, wikt_parsed_conn, n_start_from);
+        if(null != metrics_filepath)
+            ParseMetrics.open(metrics_filepath, METRICS_PERIOD_SEC, METRICS_SLOWEST);
+        
+        if(b_post_process) {
+            WiktParser.initWithoutClearDatabase(wikt_parsed_conn, wikt_lang);
+            PageTableAll.postProcess(wikt_lang, wikt_parsed_conn);
+        } else if(b_incremental)
+            PageTableAll.parseAllPagesIncremental(wikt_lang, wikt_conn, wikt_parsed_conn, n_threads, commit_pages);
+        else if(from_id >= 0)
+            PageTableAll.parseAllPagesByIDRange(wikt_lang, wikt_conn, wikt_parsed_conn, from_id, to_id, 0 == n_start_from, n_threads, commit_pages);
+        else if(null != dump_filepath)
+            PageTableAll.parseAllPagesFromDump(wikt_lang, dump_filepath, wikt_parsed_conn, n_start_from, n_threads, commit_pages, bulk_dir);
+        else
+            PageTableAll.parseAllPages(wikt_lang, wikt_conn, wikt_parsed_conn, n_start_from, n_threads, commit_pages, bulk_dir);
+        
+        ParseMetrics.close();
         
         wikt_conn.Close();
         wikt_parsed_conn.Close();
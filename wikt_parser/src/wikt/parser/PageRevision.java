@@ -0,0 +1,268 @@
+/* PageRevision.java - revisions of the parsed pages (for the incremental parsing),
+ *                     it is stored in the parsed database.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.parser;
+
+import wikokit.base.wikipedia.language.Encodings;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.mrd.Keeper;
+import wikokit.base.wikt.sql.TPage;
+import wikokit.base.wikt.util.ParseMetrics;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Revisions of the parsed pages: one row of the table 'page_revision'
+ * per page of the source Wiktionary database, the row contains the title
+ * of the page and the revision ID (page.page_latest) which was parsed.<br><br>
+ *
+ * The incremental parsing of a new dump compares page_latest with the stored
+ * revision: unchanged pages are skipped (the text is not even read),
+ * the data of changed pages are deleted (Keeper.deleteFromDB()) and the pages
+ * are parsed again, new pages are parsed, the data of pages which are absent
+ * in the new dump are deleted.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * PageRevision revisions = PageRevision.open(wikt_parsed_conn, native_lang);
+ * int prev_rev_id = revisions.take(page_title, rev_id); // for each page of the new dump
+ * if(prev_rev_id != rev_id) {
+ *     WordBase word = ... parse the page
+ *     revisions.deletePrevious(page_title, prev_rev_id, null != word);
+ *     Keeper.storeToDB(...)
+ *     revisions.setRevision(page_title, rev_id, prev_rev_id);
+ * }
+ * revisions.deleteRemoved();  // after the last page, if all pages are read
+ * </PRE>
+ *
+ * take() is called by the reader thread, deletePrevious() and setRevision()
+ * are called by the thread which stores pages (owns the connection), so the
+ * revision is committed in the same transaction as the rows of the page:
+ * the transaction of the batch writer or (in the auto-commit mode) the
+ * transaction of one page. The revision is stored after the page, so the
+ * page which was being stored during the crash is parsed again.
+ *
+ * @see PageTableAll#parseAllPagesIncremental
+ */
+public class PageRevision {
+
+    public final static String TABLE = "page_revision";
+
+    private final static String SQL_INSERT = "INSERT INTO page_revision (page_title,rev_id) VALUES (?,?)";
+    private final static String SQL_UPDATE = "UPDATE page_revision SET rev_id=? WHERE page_title=?";
+    private final static String SQL_DELETE = "DELETE FROM page_revision WHERE page_title=?";
+
+    private final Connect connect;
+
+    private final LanguageType native_lang;
+
+    /** Title of the page (with underscores, as in the source database) ->
+     * revision ID, pages which were not taken yet (by take()). After the last
+     * page of the new dump the map contains pages removed from the dump. */
+    private final Map<String, Integer> title2rev = new HashMap<String, Integer>();
+
+    /** Number of pages (of the new dump) which are new, changed and unchanged. */
+    private int n_added, n_changed, n_unchanged;
+
+    /** Number of pages which are absent in the new dump. */
+    private int n_removed;
+
+    /** True if the transaction of the page is started by deletePrevious()
+     * (auto-commit mode), it is committed by setRevision(). */
+    private boolean b_page_transaction;
+
+    private PageRevision(Connect _connect, LanguageType _native_lang) {
+        connect     = _connect;
+        native_lang = _native_lang;
+    }
+
+    /** Gets number of parsed pages which are absent in the parsed database. */
+    public int getAddedNumber() {
+        return n_added;
+    }
+
+    /** Gets number of parsed pages which are changed since the last parsing. */
+    public int getChangedNumber() {
+        return n_changed;
+    }
+
+    /** Gets number of skipped pages. */
+    public int getUnchangedNumber() {
+        return n_unchanged;
+    }
+
+    /** Gets number of pages which were deleted by deleteRemoved(). */
+    public int getRemovedNumber() {
+        return n_removed;
+    }
+
+    /** Creates the table 'page_revision' (if it is absent), reads
+     * revisions of all pages.
+     *
+     * @return null if the database is unavailable
+     */
+    public static PageRevision open(Connect connect, LanguageType native_lang) {
+
+        PageRevision revisions = new PageRevision(connect, native_lang);
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            boolean is_mysql = "MySQL".equals(connect.conn.getMetaData().getDatabaseProductName());
+            Statement s = connect.conn.createStatement ();
+            try {
+                str_sql.append("CREATE TABLE IF NOT EXISTS `page_revision` (" +
+                    "`page_title` VARBINARY(255) NOT NULL," +
+                    "`rev_id` " + (is_mysql ? "INT(10) UNSIGNED" : "INTEGER") + " NOT NULL," +
+                    "PRIMARY KEY (`page_title`) )" +
+                    (is_mysql ? "ENGINE = InnoDB" : "")
+                );
+                s.execute(str_sql.toString());
+
+                str_sql.setLength(0);
+                str_sql.append("SELECT page_title,rev_id FROM page_revision");
+                ResultSet rs = s.executeQuery (str_sql.toString());
+                try {
+                    while (rs.next ()) {
+                        String page_title = Encodings.bytesToUTF8(rs.getBytes("page_title"));
+                        revisions.title2rev.put(page_title, rs.getInt("rev_id"));
+                    }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (PageRevision.open()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            return null;
+        }
+        return revisions;
+    }
+
+    /** Takes the page of the new dump: gets the parsed revision ID
+     * and removes the page from the list of pages absent in the new dump.
+     * Unchanged pages (prev_rev_id == rev_id) should be skipped by the caller.
+     *
+     * @param page_title title of the page in the source database
+     * @param rev_id     revision of the page in the new dump (page.page_latest)
+     * @return revision ID stored in the parsed database, 0 if the page is new
+     */
+    public int take(String page_title, int rev_id) {
+        Integer prev_rev_id = title2rev.remove(page_title);
+        if(null == prev_rev_id) {
+            n_added ++;
+            return 0;
+        }
+        if(prev_rev_id == rev_id)
+            n_unchanged ++;
+        else
+            n_changed ++;
+        return prev_rev_id;
+    }
+
+    /** Deletes data of the previous revision of the page. It should be
+     * called by the thread which stores pages (owns the connection),
+     * before Keeper.storeToDB(), then setRevision() should be called.
+     * In the auto-commit mode the transaction of the page is started.<br><br>
+     *
+     * The data are deleted also if the revision is unknown (prev_rev_id
+     * is 0) but the page exists in the table 'page', e.g. the first
+     * incremental parsing of the database which was parsed fully.
+     *
+     * @param prev_rev_id   revision returned by take(), 0 if the page is new
+     *                      (or was parsed without the revision)
+     * @param b_stored      false if the new revision will not be stored
+     *                      (e.g. it has no definitions), then the page
+     *                      is marked as absent in Wiktionary
+     */
+    public void deletePrevious(String page_title, int prev_rev_id, boolean b_stored) {
+
+        try {
+            if(connect.conn.getAutoCommit()) {
+                connect.conn.setAutoCommit(false);
+                b_page_transaction = true;
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (PageRevision.deletePrevious()):: page_title='" + page_title + "' " + ex.getMessage());
+        }
+
+        long t = ParseMetrics.start();
+        String title = page_title.replace("_", " ");    // see WiktParser.parseWordBase()
+        if(Keeper.deleteFromDB(connect, title, native_lang) && !b_stored)
+            TPage.setIsInWiktionary(connect, title, false);
+        ParseMetrics.stop("delete", t);
+    }
+
+    /** Stores the new revision ID of the page, it should be called after
+     * Keeper.storeToDB(). Commits the transaction of the page started
+     * by deletePrevious().
+     *
+     * @param rev_id        revision of the page in the new dump
+     * @param prev_rev_id   revision returned by take(), 0 if the page is new
+     */
+    public void setRevision(String page_title, int rev_id, int prev_rev_id) {
+
+        String sql = 0 == prev_rev_id ? SQL_INSERT : SQL_UPDATE;
+        try {
+            PreparedStatement ps = connect.prepare(sql);
+            String db_title = connect.isMySQL() ? connect.enc.EncodeToDB(page_title) : page_title;
+            if(0 == prev_rev_id) {
+                ps.setString(1, db_title);
+                ps.setInt   (2, rev_id);
+            } else {
+                ps.setInt   (1, rev_id);
+                ps.setString(2, db_title);
+            }
+            ps.executeUpdate();
+        } catch(SQLException ex) {
+            System.out.println("SQLException (PageRevision.setRevision()):: sql='" + sql + "', page_title='" + page_title + "' " + ex.getMessage());
+        }
+
+        if(b_page_transaction) {
+            b_page_transaction = false;
+            try {
+                connect.conn.commit();
+                connect.conn.setAutoCommit(true);
+            } catch(SQLException ex) {
+                System.out.println("SQLException (PageRevision.setRevision()):: commit, page_title='" + page_title + "' " + ex.getMessage());
+            }
+        }
+    }
+
+    /** Deletes data and revisions of the pages which were not taken, i.e.
+     * the pages absent in the new dump, the pages are marked as absent
+     * in Wiktionary. It should be called after the last page is stored.
+     *
+     * @return number of deleted pages
+     */
+    public int deleteRemoved() {
+
+        for(String page_title : title2rev.keySet()) {
+            String title = page_title.replace("_", " ");
+            if(Keeper.deleteFromDB(connect, title, native_lang))
+                TPage.setIsInWiktionary(connect, title, false);
+
+            try {
+                PreparedStatement ps = connect.prepare(SQL_DELETE);
+                ps.setString(1, connect.isMySQL() ? connect.enc.EncodeToDB(page_title) : page_title);
+                ps.executeUpdate();
+            } catch(SQLException ex) {
+                System.out.println("SQLException (PageRevision.deleteRemoved()):: sql='" + SQL_DELETE + "', page_title='" + page_title + "' " + ex.getMessage());
+            }
+            n_removed ++;
+        }
+        title2rev.clear();
+        return n_removed;
+    }
+
+    @Override
+    public String toString() {
+        return "added " + n_added + ", changed " + n_changed + ", unchanged " + n_unchanged +
+               ", removed " + n_removed + ", pages to be checked " + title2rev.size();
+    }
+}
@@ -8,11 +8,19 @@ package wikt.parser;
 
 import wikokit.base.wikipedia.sql.Statistics;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.BatchWriter;
+import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.index.PageFilter;
+import wikokit.base.wikt.mrd.Keeper;
+import wikokit.base.wikt.word.WordBase;
+import wikokit.base.wikt.util.ParseMetrics;
 
 import java.sql.*;
+import java.io.IOException;
+import javax.xml.stream.XMLStreamException;
 import wikokit.base.wikt.sql.label.TLabel;
 
 /** Worker with all pages in the WP table 'page'.
@@ -20,6 +28,16 @@ import wikokit.base.wikt.sql.label.TLabel;
 public class PageTableAll {
     private static final boolean DEBUG_PAGES = false;
     
+    /** Max number of rows in a JDBC batch in the batch-writer mode. */
+    private static final int BATCH_SIZE = 1000;
+    
+    /** Number of page IDs read by one query in the sharded parsing (keyset pagination). */
+    private static final int PAGE_IDS_PER_QUERY = 10000;
+    
+    /** Max number of records of one table in the lookup cache
+     * (pages, inflections, quotation authors, etc.). */
+    private static final int LOOKUP_CACHE_SIZE = 100000;
+    
     //private static final boolean PRINT_PROGRESS = true;
     
     /** pages which caused crash of program (Wikipedia or Wiktionary) - for fast debug */
@@ -136,20 +154,55 @@ public class PageTableAll {
             Connect wikt_conn,
             Connect wikt_parsed_conn,
             int n_start_from)
+    {
+        parseAllPages(native_lang, wikt_conn, wikt_parsed_conn, n_start_from, 1, 0, null);
+    }
+    
+    /** Selects all pages (not categories, not redirects), parses them 
+     * by n_threads threads, stores to the Wiktionary parsed DB.
+     *
+     * @param native_lang   native language in the Wiktionary,
+     *                       e.g. Russian language in Russian Wiktionary,
+     * @param n_start_from number of first Wiktionary entry to be parsed
+     * @param n_threads number of parser threads, if it is 1, 
+     *                  then pages are parsed in the current thread
+     * @param commit_pages number of pages stored in one transaction in the 
+     *                  batch-writer mode, if it is 0, then the batch writer 
+     *                  is not used and every row is committed
+     * @param bulk_dir  directory for files of the bulk-load mode (IDs are 
+     *                  assigned in-process, data are loaded by LOAD DATA INFILE 
+     *                  at the end), it is used only if n_start_from is 0;
+     *                  if it is null, then the bulk loader is not used
+     * @see ParsePipeline
+     * @see wikokit.base.wikipedia.sql.BatchWriter
+     * @see wikokit.base.wikipedia.sql.BulkLoader
+     */
+    public static void parseAllPages(
+            LanguageType native_lang,
+            Connect wikt_conn,
+            Connect wikt_parsed_conn,
+            int n_start_from,
+            int n_threads,
+            int commit_pages,
+            String bulk_dir)
     {
         Statement   s = null;
         ResultSet   rs= null;
         long    t_start;
-        float   t_work;
         
         int n_total = Statistics.CountArticlesNonRedirects(wikt_conn);
         System.out.println("Total pages: " + n_total);
         t_start = System.currentTimeMillis();
 
-        if(0 == n_start_from)
-            WiktParser.clearDatabase(wikt_parsed_conn, native_lang);
-        else
-            WiktParser.initWithoutClearDatabase(wikt_parsed_conn, native_lang);
+        openParsedDatabase(native_lang, wikt_parsed_conn, n_start_from, commit_pages, bulk_dir);
+        
+        ParsePipeline pipeline = null;
+        Thread        writer   = null;
+        if(n_threads > 1 && !DEBUG_PAGES) {
+            System.out.println("Parser threads: " + n_threads);
+            pipeline = new ParsePipeline(native_lang, wikt_parsed_conn, n_threads);
+            writer   = pipeline.start(Math.max(n_start_from, 1), n_total, t_start);
+        }
         
         try {
             s = wikt_conn.conn.createStatement ();
@@ -183,43 +236,556 @@ public class PageTableAll {
                         break;  //page_title = wikt_conn.enc.EncodeFromJava("MTR");    // Sanskrit
                 }
 
-                if(0 == n_cur % 10000) {   // % 100 1000
-                    //if(n_cur<10900)
-                    //    continue;
-                    long    t_cur, t_remain;
-                    
-                    t_cur  = System.currentTimeMillis() - t_start;
-                    t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
-                               // where time for 1 page = t_cur / n_cur 
-                               // in min, since /(60*1000)
-                    t_cur = (long)(t_cur/(60f*1000f));
-                    //t_cur = t_cur/(60f*1000f));
-                    
-                    System.out.println(n_cur + ": " + page_title + 
-                            ", duration: "  + t_cur +   // t_cur/(60f*1000f) + 
-                            " min, remain: " + t_remain +
-                            " min");
+                if(null != pipeline) {  // progress is printed by the writer thread
+                    pipeline.put(wikt_conn, n_cur, page_title);
+                    continue;
                 }
+                
+                if(0 == n_cur % 10000)   // % 100 1000
+                    printProgress(n_cur, n_total, t_start, page_title, wikt_parsed_conn);
 
                 WiktParser.parseWiktionaryEntry(native_lang, wikt_conn, wikt_parsed_conn, page_title);
             }
         } catch(SQLException ex) {
             System.out.println("SQLException (parseAllPages.PageTableAll()): " + ex.getMessage());
+        } catch(InterruptedException ex) {
+            System.out.println("InterruptedException (parseAllPages.PageTableAll()): " + ex.getMessage());
+            Thread.currentThread().interrupt();
         } finally {
             if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
             if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
         }
+        
+        closeParsedDatabase(native_lang, wikt_parsed_conn, pipeline, writer, n_total, t_start, true, null);
+    }
+    
+    /** Selects pages (not categories, not redirects) with page_id in the range
+     * from_id <= page_id < to_id (shard) in the order of page_id, parses them,
+     * stores to the Wiktionary parsed DB. Pages are read by pages of 
+     * PAGE_IDS_PER_QUERY IDs (keyset pagination), so the resumed parsing 
+     * does not scan the pages parsed before.<br><br>
+     *
+     * The last stored page ID is written to the journal (the table 
+     * 'parse_journal' in the parsed DB), the parsing of the shard is resumed
+     * after this page. Several shard processes can parse pages to one parsed
+     * database concurrently, the post-processing (statistics, page_filter)
+     * is skipped if some shard is not finished yet, it is performed by the
+     * shard finished the last.<br><br>
+     *
+     * SELECT page_id,page_title FROM page WHERE page_namespace=0 AND page_is_redirect=0
+     *      AND page_id>350000 AND page_id<400000 ORDER BY page_id LIMIT 10000;
+     *
+     * @param from_id the first page ID of the shard
+     * @param to_id   the shard contains page IDs less than to_id, 0 - no limit
+     * @param b_clear if true, then the parsed database (and the journal of all 
+     *                shards) is cleared
+     * @param n_threads number of parser threads
+     * @param commit_pages number of pages stored in one transaction in the 
+     *                  batch-writer mode (the journal is exact in this mode), 
+     *                  0 - the batch writer is not used
+     * @see ParseJournal
+     */
+    public static void parseAllPagesByIDRange(
+            LanguageType native_lang,
+            Connect wikt_conn,
+            Connect wikt_parsed_conn,
+            int from_id,
+            int to_id,
+            boolean b_clear,
+            int n_threads,
+            int commit_pages)
+    {
+        long t_start = System.currentTimeMillis();
+        int upper_id = 0 == to_id ? Integer.MAX_VALUE : to_id;
+        
+        int n_total = countPagesByIDRange(wikt_conn, from_id, upper_id);
+        System.out.println("Total pages in the shard: " + n_total);
+        if(0 == commit_pages)
+            System.out.println("Warning (PageTableAll.parseAllPagesByIDRange()): the batch writer is not used, the last page could be stored twice after a crash.");
+        
+        openParsedDatabase(native_lang, wikt_parsed_conn, b_clear ? 0 : 1, commit_pages, null);
+        
+        ParseJournal journal = ParseJournal.open(wikt_parsed_conn, from_id, to_id);
+        if(null == journal) {
+            wikt_parsed_conn.closeBatchWriter();
+            wikt_parsed_conn.closeBulkLoader();
+            wikt_parsed_conn.closeLookupCache();
+            return;
+        }
+        System.out.println("Journal: " + journal);
+        
+        int n_cur = journal.getPagesNumber();
+        ParsePipeline pipeline = null;
+        Thread        writer   = null;
+        if(n_threads > 1) {
+            System.out.println("Parser threads: " + n_threads);
+            pipeline = new ParsePipeline(native_lang, wikt_parsed_conn, n_threads);
+            pipeline.setJournal(journal);
+            writer   = pipeline.start(n_cur + 1, n_total, t_start);
+        }
+        
+        int last_id = Math.max(from_id - 1, journal.getLastPageID());
+        int[]    page_id    = new int   [PAGE_IDS_PER_QUERY];
+        String[] page_title = new String[PAGE_IDS_PER_QUERY];
+        boolean b_read = false;     // all pages of the shard are read
+        try {
+            int n_read;
+            do {
+                n_read = selectPagesAfterID(wikt_conn, last_id, upper_id, page_id, page_title);
+                
+                for(int i=0; i<n_read; i++) {
+                    n_cur ++;
+                    if(null != pipeline) {  // progress and journal are written by the writer thread
+                        pipeline.put(wikt_conn, n_cur, page_id[i], page_title[i]);
+                        continue;
+                    }
+                    
+                    if(0 == n_cur % 10000)
+                        printProgress(n_cur, n_total, t_start, page_title[i], wikt_parsed_conn);
 
-        // post-processing
-        TLang.calcIndexStatistics(wikt_parsed_conn, native_lang);
+                    WiktParser.parseWiktionaryEntry(native_lang, wikt_conn, wikt_parsed_conn, page_title[i]);
+                    journal.mark(page_id[i]);
+                }
+                if(n_read > 0)
+                    last_id = page_id[n_read - 1];
+            } while(PAGE_IDS_PER_QUERY == n_read);
+            b_read = true;
+        } catch(InterruptedException ex) {
+            System.out.println("InterruptedException (PageTableAll.parseAllPagesByIDRange()): " + ex.getMessage());
+            Thread.currentThread().interrupt();
+        } finally {     // the shard is resumed after the last stored page
+            closeParsedDatabase(native_lang, wikt_parsed_conn, pipeline, writer, n_total, t_start, b_read, journal);
+        }
+    }
+    
+    /** Counts pages (not categories, not redirects) with page_id in the range.<br><br>
+     * SELECT COUNT(*) AS size FROM page WHERE page_namespace=0 AND page_is_redirect=0 AND page_id>=1 AND page_id<350000;
+     */
+    private static int countPagesByIDRange(Connect wikt_conn, int from_id, int upper_id) {
         
-        TLabel.createFastMaps(wikt_parsed_conn, native_lang);
-        TLabel.calcCounterStatistics(wikt_parsed_conn, native_lang);
+        StringBuilder str_sql = new StringBuilder();
+        int size = 0;
+        try {
+            Statement s = wikt_conn.conn.createStatement ();
+            try {
+                str_sql.append("SELECT COUNT(*) AS size FROM page WHERE page_namespace=0 AND page_is_redirect=0 AND page_id>=");
+                str_sql.append(from_id);
+                str_sql.append(" AND page_id<");
+                str_sql.append(upper_id);
+                ResultSet rs = s.executeQuery (str_sql.toString());
+                try {
+                    if (rs.next ())
+                        size = rs.getInt("size");
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (PageTableAll.countPagesByIDRange()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+        }
+        return size;
+    }
+    
+    private final static String SQL_SELECT_PAGES_AFTER_ID = "SELECT page_id,page_title FROM page WHERE page_namespace=0 AND page_is_redirect=0 AND page_id>? AND page_id<? ORDER BY page_id LIMIT " + PAGE_IDS_PER_QUERY;
+    
+    /** Reads next page IDs and titles (keyset pagination), the result set is
+     * closed before the pages are parsed, since the text of pages is read
+     * by the same connection.
+     *
+     * @param last_id  pages with ID greater than last_id are selected
+     * @param upper_id pages with ID less than upper_id are selected
+     * @param page_id  [out] IDs of pages
+     * @param page_title [out] titles of pages
+     * @return number of read pages, it is less than PAGE_IDS_PER_QUERY for the last pages
+     */
+    private static int selectPagesAfterID(Connect wikt_conn, int last_id, int upper_id,
+                                          int[] page_id, String[] page_title) {
+        int n = 0;
+        Encodings e = wikt_conn.enc;
+        try {
+            PreparedStatement ps = wikt_conn.prepare(SQL_SELECT_PAGES_AFTER_ID);
+            ps.setInt(1, last_id);
+            ps.setInt(2, upper_id);
+            ResultSet rs = ps.executeQuery ();
+            try {
+                while (rs.next ()) {
+                    String db_str = Encodings.bytesTo(rs.getBytes("page_title"), e.GetDBEnc());
+                    page_id   [n] = rs.getInt("page_id");
+                    page_title[n] = e.EncodeFromDB(db_str);
+                    n ++;
+                }
+            } finally {
+                rs.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (PageTableAll.selectPagesAfterID()):: sql='" + SQL_SELECT_PAGES_AFTER_ID + "', last_id=" + last_id + " " + ex.getMessage());
+        }
+        return n;
+    }
+    
+    /** Parses only pages which are changed (or added) since the last parsing,
+     * deletes data of the pages which are changed or absent in the new 
+     * dump (source database), other data of the parsed DB are kept.
+     * Revisions of parsed pages (page_latest) are stored in the table 
+     * 'page_revision' in the parsed DB, so the text of unchanged pages 
+     * is not read at all.<br><br>
+     *
+     * The first incremental parsing (the table 'page_revision' is empty) 
+     * parses all pages again, the data of pages parsed before are deleted
+     * (see PageRevision.deletePrevious()).<br><br>
+     *
+     * SELECT page_title,page_latest FROM page WHERE page_namespace=0 AND page_is_redirect=0;
+     *
+     * @param n_threads number of parser threads
+     * @param commit_pages number of pages stored in one transaction in the 
+     *                  batch-writer mode (the revision is committed together 
+     *                  with the data of the page), 0 - the batch writer is not used
+     * @see PageRevision
+     */
+    public static void parseAllPagesIncremental(
+            LanguageType native_lang,
+            Connect wikt_conn,
+            Connect wikt_parsed_conn,
+            int n_threads,
+            int commit_pages)
+    {
+        long t_start = System.currentTimeMillis();
+        int n_total = Statistics.CountArticlesNonRedirects(wikt_conn);
+        System.out.println("Total pages: " + n_total);
+        
+        openParsedDatabase(native_lang, wikt_parsed_conn, 1, commit_pages, null);
+        
+        PageRevision revisions = PageRevision.open(wikt_parsed_conn, native_lang);
+        if(null == revisions) {
+            wikt_parsed_conn.closeBatchWriter();
+            wikt_parsed_conn.closeLookupCache();
+            return;
+        }
+        
+        ParsePipeline pipeline = null;
+        Thread        writer   = null;
+        if(n_threads > 1) {
+            System.out.println("Parser threads: " + n_threads);
+            pipeline = new ParsePipeline(native_lang, wikt_parsed_conn, n_threads);
+            pipeline.setRevisions(revisions);
+            writer   = pipeline.start(1, 0, t_start);   // number of changed pages is unknown
+        }
+        
+        Statement   s = null;
+        ResultSet   rs= null;
+        int n_cur = 0;          // pages of the new dump
+        int n_parsed = 0;       // changed and added pages
+        boolean b_scanned = false;  // all pages of the new dump are read
+        boolean b_complete = false; // the parsed pages, which are absent in the new dump, are deleted
+        try {
+            try {
+                s = wikt_conn.conn.createStatement ();
+                rs = s.executeQuery("SELECT page_title,page_latest FROM page WHERE page_namespace=0 AND page_is_redirect=0");
+            
+                Encodings e = wikt_conn.enc;
+                while (rs.next ())
+                {
+                    n_cur ++;
+                    String db_str = Encodings.bytesTo(rs.getBytes("page_title"), e.GetDBEnc());
+                    String page_title = e.EncodeFromDB(db_str);
+                    int rev_id = rs.getInt("page_latest");
+                
+                    int prev_rev_id = revisions.take(page_title, rev_id);
+                    if(prev_rev_id == rev_id)
+                        continue;   // unchanged page
+                
+                    n_parsed ++;
+                    if(null != pipeline) {  // the writer deletes data of the previous revision
+                        pipeline.put(wikt_conn, n_parsed, page_title, rev_id, prev_rev_id);
+                        continue;
+                    }
+                
+                    if(0 == n_parsed % 10000)
+                        printProgress(n_cur, n_total, t_start, page_title, wikt_parsed_conn);
+                
+                    long t = ParseMetrics.start();
+                    StringBuffer str = new StringBuffer(
+                            PageTableBase.getArticleText(wikt_conn, page_title));
+                    t = ParseMetrics.stop("read", t);
+                    WordBase word = WiktParser.parseWordBase(native_lang, page_title, str);
+                
+                    revisions.deletePrevious(page_title, prev_rev_id, null != word);
+                    if(null != word) {
+                        Keeper.storeToDB(wikt_parsed_conn, word, native_lang);
+                        if(0 != t)
+                            ParseMetrics.page(page_title, System.nanoTime() - t);
+                    }
+                    revisions.setRevision(page_title, rev_id, prev_rev_id);
+                }
+                b_scanned = true;
+            } catch(SQLException ex) {
+                System.out.println("SQLException (PageTableAll.parseAllPagesIncremental()): " + ex.getMessage());
+            } catch(InterruptedException ex) {
+                System.out.println("InterruptedException (PageTableAll.parseAllPagesIncremental()): " + ex.getMessage());
+                Thread.currentThread().interrupt();
+            } finally {
+                if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
+                if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+            }
+            
+            if(b_scanned) {
+                if(null != pipeline) {  // data of removed pages are deleted after all pages are stored
+                    pipeline.finish();
+                    writer.join();
+                    pipeline = null;
+                }
+                
+                // pages which are absent in the new dump
+                if(0 == n_cur)
+                    System.out.println("Warning (PageTableAll.parseAllPagesIncremental()): the source database has no pages, the parsed pages are not deleted.");
+                else
+                    revisions.deleteRemoved();
+                b_complete = true;
+            } else
+                System.out.println("Warning (PageTableAll.parseAllPagesIncremental()): pages of the source database are not read to the end, the parsed pages are not deleted.");
+            System.out.println("Revisions: " + revisions);
+        } catch(InterruptedException ex) {
+            System.out.println("InterruptedException (PageTableAll.parseAllPagesIncremental()): " + ex.getMessage());
+            Thread.currentThread().interrupt();
+        } finally {     // the pipeline is drained and the batch writer is closed also after the interrupt
+            closeParsedDatabase(native_lang, wikt_parsed_conn, pipeline, writer, n_parsed, t_start, b_complete, null);
+        }
+    }
+    
+    /** Parses all articles (namespace 0, not redirects) from the MediaWiki 
+     * XML dump file, stores to the Wiktionary parsed DB. The Wiktionary 
+     * database (MySQL import of the dump) is not needed.
+     *
+     * @param native_lang   native language in the Wiktionary,
+     *                       e.g. Russian language in Russian Wiktionary,
+     * @param dump_filepath path to the dump, e.g. ruwiktionary-20200101-pages-articles.xml.bz2
+     * @param n_start_from number of first Wiktionary entry to be parsed,
+     *                     pages are numbered in the order of the dump
+     * @param n_threads number of parser threads
+     * @param commit_pages number of pages stored in one transaction in the 
+     *                  batch-writer mode, 0 - the batch writer is not used
+     * @param bulk_dir  directory for files of the bulk-load mode, or null
+     * @see DumpReader
+     */
+    public static void parseAllPagesFromDump(
+            LanguageType native_lang,
+            String dump_filepath,
+            Connect wikt_parsed_conn,
+            int n_start_from,
+            int n_threads,
+            int commit_pages,
+            String bulk_dir)
+    {
+        long t_start = System.currentTimeMillis();
+        int n_total = 0;    // unknown till the end of the dump
+        
+        openParsedDatabase(native_lang, wikt_parsed_conn, n_start_from, commit_pages, bulk_dir);
+        
+        ParsePipeline pipeline = null;
+        Thread        writer   = null;
+        if(n_threads > 1) {
+            System.out.println("Parser threads: " + n_threads);
+            pipeline = new ParsePipeline(native_lang, wikt_parsed_conn, n_threads);
+            writer   = pipeline.start(Math.max(n_start_from, 1), n_total, t_start);
+        }
+        
+        DumpReader dump = new DumpReader(dump_filepath);
+        int n_cur = 0;
+        try {
+            dump.open();
+            
+            // the text of pages before n_start_from is skipped
+            while(dump.next(n_cur + 1 >= n_start_from)) {
+                n_cur ++;
+                if(n_start_from > n_cur)
+                    continue;
+                
+                String page_title = dump.getPageTitle();
+                if(null != pipeline) {  // progress is printed by the writer thread
+                    pipeline.put(n_cur, page_title, dump.getText());
+                    continue;
+                }
+                
+                if(0 == n_cur % 10000)
+                    printProgress(n_cur, n_total, t_start, page_title, wikt_parsed_conn);
+
+                WiktParser.parseWiktionaryEntry(native_lang, wikt_parsed_conn, page_title, dump.getText());
+            }
+        } catch(IOException ex) {
+            System.out.println("IOException (PageTableAll.parseAllPagesFromDump()): " + ex.getMessage());
+        } catch(XMLStreamException ex) {
+            System.out.println("XMLStreamException (PageTableAll.parseAllPagesFromDump()): n_cur=" + n_cur + " " + ex.getMessage());
+        } catch(InterruptedException ex) {
+            System.out.println("InterruptedException (PageTableAll.parseAllPagesFromDump()): " + ex.getMessage());
+            Thread.currentThread().interrupt();
+        } finally {
+            dump.close();
+        }
+        System.out.println("Pages in the dump: " + dump.getPagesRead() + ", articles: " + n_cur);
+        
+        closeParsedDatabase(native_lang, wikt_parsed_conn, pipeline, writer, n_cur, t_start, true, null);
+    }
+    
+    /** Clears the parsed database (if n_start_from is 0) or loads 
+     * constant tables, opens the bulk loader and the batch writer,
+     * opens the lookup cache (if the bulk loader is not used, since
+     * the bulk loader has own dictionaries of records).
+     */
+    private static void openParsedDatabase(
+            LanguageType native_lang,
+            Connect wikt_parsed_conn,
+            int n_start_from,
+            int commit_pages,
+            String bulk_dir)
+    {
+        if(0 == n_start_from)
+            WiktParser.clearDatabase(wikt_parsed_conn, native_lang);
+        else
+            WiktParser.initWithoutClearDatabase(wikt_parsed_conn, native_lang);
+        
+        if(null != bulk_dir) {
+            if(0 == n_start_from) {
+                System.out.println("Bulk loader: files in the directory " + bulk_dir);
+                Keeper.openBulkLoader(wikt_parsed_conn, bulk_dir);
+            } else
+                System.out.println("Warning (PageTableAll.openParsedDatabase()): the bulk loader requires n_start_from=0, it is not used.");
+        }
+        
+        if(commit_pages > 0) {
+            System.out.println("Batch writer: commit every " + commit_pages + " pages");
+            wikt_parsed_conn.openBatchWriter(commit_pages, BATCH_SIZE);
+        }
+        
+        if(null == wikt_parsed_conn.getBulkLoader())
+            wikt_parsed_conn.openLookupCache(LOOKUP_CACHE_SIZE);
+    }
+    
+    /** Waits until the pipeline stores all pages, closes the batch writer,
+     * the bulk loader and the lookup cache, calculates statistics (post-processing).
+     * In the bulk-load mode the tables are empty until the load script is run,
+     * so the post-processing is skipped, it should be run by postProcess() later.
+     *
+     * @param b_complete false if pages are not read to the end (e.g. the
+     *                thread is interrupted), then the read pages are stored,
+     *                but the shard is not finished and the post-processing
+     *                is skipped
+     * @param journal the shard is marked as finished in the journal, 
+     *                the post-processing is skipped if other shards are 
+     *                not finished yet; null if pages are not sharded
+     */
+    private static void closeParsedDatabase(
+            LanguageType native_lang,
+            Connect wikt_parsed_conn,
+            ParsePipeline pipeline,
+            Thread writer,
+            int n_total,
+            long t_start,
+            boolean b_complete,
+            ParseJournal journal)
+    {
+        if(null != pipeline) {  // waits until all read pages are stored, also after
+                                // the interrupt, since the writer uses the connection
+            boolean b_interrupted = Thread.interrupted();
+            try {
+                pipeline.finish();
+                writer.join();
+            } catch(InterruptedException ex) {
+                System.out.println("InterruptedException (parseAllPages.PageTableAll()): " + ex.getMessage());
+                b_interrupted = true;
+            }
+            if(b_interrupted)
+                Thread.currentThread().interrupt();
+        }
+
+        // stores the rest of batches, prints statistics of the batch writer
+        wikt_parsed_conn.closeBatchWriter();
+        
+        // writes the rest of rows and the load script
+        boolean b_bulk = null != wikt_parsed_conn.getBulkLoader();
+        wikt_parsed_conn.closeBulkLoader();
+        
+        // prints hit rates of the lookup cache
+        wikt_parsed_conn.closeLookupCache();
+        
+        if(!b_complete) {
+            System.out.println("Post-processing is skipped, since pages are not read to the end.");
+            return;
+        }
+        
+        if(null != journal) {
+            int n_unfinished = journal.finish();
+            System.out.println("Journal: " + journal);
+            
+            if(0 != n_unfinished) {
+                System.out.println("Post-processing is skipped, it will be done by the last of " + 
+                                   n_unfinished + " unfinished shards.");
+                return;
+            }
+        }
+        
+        if(b_bulk) {
+            System.out.println("\nPost-processing (statistics of languages and labels, table page_filter) " +
+                    "is skipped in the bulk-load mode, since the tables are empty until the load script is run.\n" +
+                    "Run it after the load script:\n" +
+                    "  run_wikt_parser.sh " + native_lang.getCode() + " 0 --post-process");
+        } else
+            postProcess(native_lang, wikt_parsed_conn);
         
         long  t_end;
+        float t_work;
         t_end  = System.currentTimeMillis();
         t_work = (t_end - t_start)/1000f; // in sec
         System.out.println("\n\nTime sec:" + t_work + 
                 "\nTotal pages: " + n_total);
     }
+    
+    /** Post-processing of the filled parsed database: statistics
+     * of languages (table lang) and labels, the table page_filter.
+     * Static maps (TLang, TLabel) should be created before.
+     */
+    public static void postProcess(LanguageType native_lang, Connect wikt_parsed_conn) {
+        
+        TLang.calcIndexStatistics(wikt_parsed_conn, native_lang);
+        
+        PageFilter.generate(wikt_parsed_conn);
+        
+        TLabel.createFastMaps(wikt_parsed_conn, native_lang);
+        TLabel.calcCounterStatistics(wikt_parsed_conn, native_lang);
+    }
+    
+    /** Prints number of parsed pages, elapsed and remaining time in minutes.
+     *
+     * @param n_cur number of the current page
+     * @param n_total total number of pages, 0 if it is unknown (XML dump),
+     *                then the remaining time is not printed
+     * @param t_start start time of parsing in milliseconds
+     * @param wikt_parsed_conn throughput of the tables is printed also
+     *                         in the batch-writer mode
+     */
+    static void printProgress(int n_cur, int n_total, long t_start, String page_title,
+                              Connect wikt_parsed_conn) {
+        
+        long    t_cur, t_remain;
+        
+        t_cur  = System.currentTimeMillis() - t_start;
+        t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
+                   // where time for 1 page = t_cur / n_cur 
+                   // in min, since /(60*1000)
+        t_cur = (long)(t_cur/(60f*1000f));
+        
+        if(n_total > 0)
+            System.out.println(n_cur + ": " + page_title + 
+                    ", duration: "  + t_cur +   // t_cur/(60f*1000f) + 
+                    " min, remain: " + t_remain +
+                    " min");
+        else
+            System.out.println(n_cur + ": " + page_title + 
+                    ", duration: "  + t_cur + " min");
+        
+        BatchWriter bw = wikt_parsed_conn.getBatchWriter();
+        if(null != bw)
+            bw.printThroughput();
+    }
 }
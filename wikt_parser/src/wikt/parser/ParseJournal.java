@@ -0,0 +1,239 @@
+/* ParseJournal.java - progress of the parsing of one range of page IDs (shard),
+ *                     it is stored in the parsed database.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.parser;
+
+import wikokit.base.wikipedia.sql.Connect;
+
+import java.sql.*;
+
+/** Durable journal of the sharded parsing: one row of the table
+ * 'parse_journal' per shard (range of page IDs of the Wiktionary table
+ * 'page'), the row contains ID of the last page stored to the parsed
+ * database.<br><br>
+ *
+ * The row is updated by the connection wikt_parsed_conn after the page
+ * is stored, so in the batch-writer mode the journal is committed in the
+ * same transaction as the rows of the pages, and the parsing is resumed
+ * exactly after the last committed page. In the auto-commit mode the page
+ * which was being stored during the crash is parsed again, so it could
+ * be stored twice.<br><br>
+ *
+ * Shards have different rows, so several shard processes can write
+ * to one parsed database concurrently. Rows of the dictionary tables,
+ * which are shared by pages of different shards (page, inflection,
+ * page_inflection, label, image, quot_*), have unique keys and are
+ * inserted by INSERT IGNORE, then the row inserted by other process is
+ * selected again (see e.g. TPage.getOrInsert()). The table 'wiki_text'
+ * has no unique key (the text is too long), so two processes could store
+ * the same text twice, each row is referred by the rows of its process.
+ * In the batch-writer mode the inserted keys are locked till the commit,
+ * so InnoDB can roll back the transaction of one shard on a deadlock: the
+ * error is printed and the pages of the transaction are absent, smaller
+ * commit_pages makes it less probable.
+ *
+ * @see PageTableAll#parseAllPagesByIDRange
+ */
+public class ParseJournal {
+
+    public final static String TABLE = "parse_journal";
+
+    private final static String SQL_MARK = "UPDATE parse_journal SET last_page_id=?, n_pages=n_pages+1 WHERE from_id=? AND to_id=?";
+
+    private final Connect connect;
+
+    /** True for MySQL, false for SQLite (the test database). */
+    private final boolean is_mysql;
+
+    /** Range of page IDs: from_id <= page_id < to_id, to_id is 0 if the range is not limited. */
+    private final int from_id, to_id;
+
+    /** ID of the last page, which was passed to mark(). */
+    private int last_page_id;
+
+    /** Number of pages parsed in this shard (in all runs). */
+    private int n_pages;
+
+    private ParseJournal(Connect _connect, boolean _is_mysql, int _from_id, int _to_id) {
+        connect = _connect;
+        is_mysql = _is_mysql;
+        from_id = _from_id;
+        to_id   = _to_id;
+    }
+
+    /** Gets ID of the last stored page, 0 if the shard is started first time. */
+    public int getLastPageID() {
+        return last_page_id;
+    }
+
+    /** Gets number of pages parsed in this shard (in all runs). */
+    public int getPagesNumber() {
+        return n_pages;
+    }
+
+    /** Creates the table 'parse_journal' (if it is absent), reads the row
+     * of the shard (or inserts it). Warns if the parsed database (MySQL)
+     * has no unique keys of the dictionary tables, i.e. it is created by
+     * the old script wikt_parsed_empty.sql.
+     *
+     * @param from_id   the first page ID of the shard
+     * @param to_id     the shard contains page IDs less than to_id, 0 - no limit
+     * @return null if the database is unavailable
+     */
+    public static ParseJournal open(Connect connect, int from_id, int to_id) {
+
+        StringBuilder str_sql = new StringBuilder();
+        try {
+            boolean is_mysql = "MySQL".equals(connect.conn.getMetaData().getDatabaseProductName());
+            ParseJournal journal = new ParseJournal(connect, is_mysql, from_id, to_id);
+            String t_int = is_mysql ? "INT(10) UNSIGNED" : "INTEGER";
+
+            Statement s = connect.conn.createStatement ();
+            try {
+                if(is_mysql) {
+                    str_sql.append("SHOW INDEX FROM page WHERE Key_name='page_title_UNIQUE'");
+                    ResultSet rs = s.executeQuery (str_sql.toString());
+                    try {
+                        if (!rs.next ())
+                            System.out.println("Warning (ParseJournal.open()): the table 'page' has no unique key page_title_UNIQUE, concurrent shard processes could insert duplicates, see wikt_parsed_empty.sql.");
+                    } finally {
+                        rs.close();
+                    }
+                }
+
+                str_sql.setLength(0);
+                str_sql.append("CREATE TABLE IF NOT EXISTS `parse_journal` (" +
+                    "`from_id` " + t_int + " NOT NULL," +
+                    "`to_id` " + t_int + " NOT NULL," +
+                    "`last_page_id` " + t_int + " NOT NULL," +
+                    "`n_pages` " + t_int + " NOT NULL," +
+                    "`is_finished` TINYINT(1) NOT NULL," +
+                    "PRIMARY KEY (`from_id`, `to_id`) )" +
+                    (is_mysql ? "ENGINE = InnoDB" : "")
+                );
+                s.execute(str_sql.toString());
+
+                str_sql.setLength(0);
+                str_sql.append("SELECT last_page_id,n_pages FROM parse_journal WHERE from_id=");
+                str_sql.append(from_id);
+                str_sql.append(" AND to_id=");
+                str_sql.append(to_id);
+                boolean b_found = false;
+                ResultSet rs = s.executeQuery (str_sql.toString());
+                try {
+                    if (rs.next ()) {
+                        journal.last_page_id = rs.getInt("last_page_id");
+                        journal.n_pages      = rs.getInt("n_pages");
+                        b_found = true;
+                    }
+                } finally {
+                    rs.close();
+                }
+
+                str_sql.setLength(0);
+                if(b_found) {       // the shard is parsed again
+                    str_sql.append("UPDATE parse_journal SET is_finished=0 WHERE from_id=");
+                    str_sql.append(from_id);
+                    str_sql.append(" AND to_id=");
+                    str_sql.append(to_id);
+                } else {
+                    str_sql.append("INSERT INTO parse_journal (from_id,to_id,last_page_id,n_pages,is_finished) VALUES (");
+                    str_sql.append(from_id);
+                    str_sql.append(",");
+                    str_sql.append(to_id);
+                    str_sql.append(",0,0,0)");
+                }
+                s.executeUpdate (str_sql.toString());
+            } finally {
+                s.close();
+            }
+            return journal;
+        } catch(SQLException ex) {
+            System.out.println("SQLException (ParseJournal.open()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /** Stores ID of the page, which is stored (or which is skipped).
+     * It should be called by the thread which stores pages (owns the connection),
+     * after Keeper.storeToDB().
+     */
+    public void mark(int page_id) {
+        try {
+            PreparedStatement ps = connect.prepare(SQL_MARK);
+            ps.setInt(1, page_id);
+            ps.setInt(2, from_id);
+            ps.setInt(3, to_id);
+            ps.executeUpdate();
+            last_page_id = page_id;
+            n_pages ++;
+        } catch(SQLException ex) {
+            System.out.println("SQLException (ParseJournal.mark()):: sql='" + SQL_MARK + "', page_id=" + page_id + " " + ex.getMessage());
+        }
+    }
+
+    /** Marks the shard as finished and counts other shards which are not
+     * finished yet, in one transaction: rows of all shards are locked
+     * (SELECT ... FOR UPDATE), so only the last of the shards finished at
+     * the same time gets 0. It should be called after the last commit
+     * (e.g. after closeBatchWriter()).
+     *
+     * @return number of other unfinished shards, -1 if the database is unavailable
+     */
+    public int finish() {
+        StringBuilder str_sql = new StringBuilder();
+        int n_unfinished = 0;
+        try {
+            Connection conn = connect.conn;
+            boolean b_autocommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                Statement s = conn.createStatement ();
+                try {
+                    str_sql.append("SELECT from_id,to_id,is_finished FROM parse_journal");
+                    if(is_mysql)
+                        str_sql.append(" FOR UPDATE");
+                    ResultSet rs = s.executeQuery (str_sql.toString());
+                    try {
+                        while (rs.next ()) {
+                            boolean b_this = from_id == rs.getInt("from_id") && to_id == rs.getInt("to_id");
+                            if(!b_this && 0 == rs.getInt("is_finished"))
+                                n_unfinished ++;
+                        }
+                    } finally {
+                        rs.close();
+                    }
+
+                    str_sql.setLength(0);
+                    str_sql.append("UPDATE parse_journal SET is_finished=1 WHERE from_id=");
+                    str_sql.append(from_id);
+                    str_sql.append(" AND to_id=");
+                    str_sql.append(to_id);
+                    s.executeUpdate (str_sql.toString());
+                } finally {
+                    s.close();
+                }
+                conn.commit();
+            } catch(SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(b_autocommit);
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (ParseJournal.finish()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
+            return -1;
+        }
+        return n_unfinished;
+    }
+
+    @Override
+    public String toString() {
+        return "shard [" + from_id + ", " + (0 == to_id ? "end" : "" + to_id) +
+               "), last page ID " + last_page_id + ", pages " + n_pages;
+    }
+}
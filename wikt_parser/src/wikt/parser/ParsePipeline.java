@@ -0,0 +1,326 @@
+/* ParsePipeline.java - multi-threaded parsing of all pages in the Wiktionary table 'page'.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.parser;
+
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.mrd.Keeper;
+import wikokit.base.wikt.word.WordBase;
+import wikokit.base.wikt.util.ParseMetrics;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/** Staged pipeline which parses Wiktionary entries in several threads:
+ * <PRE>
+ * reader (1 thread)  : page title -> wiki text      (wikt_conn or XML dump)
+ * parsers (N threads): wiki text  -> WordBase       (no database)
+ * writer (1 thread)  : WordBase   -> Keeper.storeToDB (wikt_parsed_conn)
+ * </PRE>
+ *
+ * Only the parsers work in parallel, since the connections are not shared
+ * between threads. The writer stores entries in the same order as
+ * the reader reads them (reorder buffer), so the IDs in the parsed database
+ * are the same as in the single-threaded run, and the value n_cur printed
+ * by the writer can be used as n_start_from to resume the parsing.
+ *
+ * The number of pages which are in the pipeline (read, but not stored yet)
+ * is bounded by the queue capacity.
+ */
+public class ParsePipeline {
+
+    /** Number of pages in the pipeline per one parser thread. */
+    private static final int PAGES_PER_THREAD = 64;
+
+    /** Page read from the source database, it is passed from stage to stage. */
+    private static class PageTask implements Comparable<PageTask> {
+
+        /** Number of the page in the table 'page' (starting from 1). */
+        final int n_cur;
+
+        /** ID of the page in the table 'page', 0 if it is unknown (XML dump). */
+        final int page_id;
+
+        final String page_title;
+
+        /** Revision of the page (page_latest) and the revision stored in the
+         * parsed database (0 if the page is new), for the incremental parsing. */
+        int rev_id, prev_rev_id;
+
+        /** Wiki text of the page, it is null after parsing. */
+        StringBuffer text;
+
+        /** Result of parsing, null if the page should not be stored. */
+        WordBase word;
+
+        /** Time of parsing (in nanoseconds) for ParseMetrics, 0 if the metrics are switched off. */
+        long parse_nanos;
+
+        PageTask(int _n_cur, int _page_id, String _page_title, StringBuffer _text) {
+            n_cur       = _n_cur;
+            page_id     = _page_id;
+            page_title  = _page_title;
+            text        = _text;
+        }
+
+        @Override
+        public int compareTo(PageTask other) {
+            return Integer.compare(n_cur, other.n_cur);
+        }
+    }
+
+    /** Marks the end of the stream of pages. */
+    private static final PageTask END_OF_PAGES = new PageTask(Integer.MAX_VALUE, 0, null, null);
+
+    private final LanguageType native_lang;
+    private final Connect wikt_parsed_conn;
+    private final int n_threads;
+
+    /** Pages read, waiting for the parser. */
+    private final BlockingQueue<PageTask> parse_queue;
+
+    /** Pages parsed, waiting for the writer. */
+    private final BlockingQueue<PageTask> store_queue;
+
+    /** Limits number of pages in the pipeline, since the reorder buffer
+     * of the writer is not bounded by queues. */
+    private final Semaphore in_flight;
+
+    /** Number of the first page (n_cur) which the writer waits for. */
+    private int n_next_to_store;
+
+    /** Progress of the sharded parsing, it is null if pages are not sharded. */
+    private ParseJournal journal;
+
+    /** Revisions of parsed pages, it is null if the parsing is not incremental. */
+    private PageRevision revisions;
+
+    public ParsePipeline(LanguageType _native_lang, Connect _wikt_parsed_conn,
+                         int _n_threads)
+    {
+        native_lang      = _native_lang;
+        wikt_parsed_conn = _wikt_parsed_conn;
+        n_threads        = _n_threads;
+
+        int capacity = n_threads * PAGES_PER_THREAD;
+        parse_queue = new ArrayBlockingQueue<PageTask>(capacity);
+        store_queue = new ArrayBlockingQueue<PageTask>(capacity);
+        in_flight   = new Semaphore(capacity);
+    }
+
+    /** Sets the journal, the writer marks the ID of each page in the
+     * journal after the page is stored. It should be called before start().
+     */
+    public void setJournal(ParseJournal _journal) {
+        journal = _journal;
+    }
+
+    /** Sets the revisions of parsed pages, the writer deletes data of the
+     * previous revision of the page before the page is stored and stores
+     * the new revision after it. It should be called before start().
+     */
+    public void setRevisions(PageRevision _revisions) {
+        revisions = _revisions;
+    }
+
+    /** Starts parser and writer threads.
+     *
+     * @param n_first number of the first page to be read (n_cur of the
+     *                first page which will be passed to put())
+     * @param n_total total number of pages, it is needed for progress messages
+     * @param t_start start time of parsing in milliseconds
+     * @return writer thread, it should be joined after finish()
+     */
+    public Thread start(int n_first, final int n_total, final long t_start) {
+
+        n_next_to_store = n_first;
+
+        for(int i=0; i<n_threads; i++) {
+            Thread parser = new Thread(new Runnable() {
+                @Override
+                public void run() { runParser(); }
+            }, "wikt-parser-" + i);
+            parser.setDaemon(true);
+            parser.start();
+        }
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() { runWriter(n_total, t_start); }
+        }, "wikt-writer");
+        writer.start();
+        return writer;
+    }
+
+    /** Reader stage: gets text of the article and passes it to parsers.
+     * It should be called in the thread which owns the connection wikt_conn.
+     *
+     * @param n_cur number of the page in the table 'page'
+     */
+    public void put(Connect wikt_conn, int n_cur, String page_title)
+                    throws InterruptedException
+    {
+        put(wikt_conn, n_cur, 0, page_title);
+    }
+    
+    /** Reader stage: gets text of the article and passes it to parsers.
+     *
+     * @param n_cur   number of the page in the table 'page'
+     * @param page_id ID of the page in the table 'page' (for the journal)
+     */
+    public void put(Connect wikt_conn, int n_cur, int page_id, String page_title)
+                    throws InterruptedException
+    {
+        long t = ParseMetrics.start();
+        StringBuffer text = new StringBuffer(
+                PageTableBase.getArticleText(wikt_conn, page_title));
+        ParseMetrics.stop("read", t);
+
+        in_flight.acquire();
+        parse_queue.put(new PageTask(n_cur, page_id, page_title, text));
+    }
+    
+    /** Reader stage of the incremental parsing: gets text of the changed
+     * (or new) article and passes it to parsers.
+     *
+     * @param n_cur       number of the changed page
+     * @param rev_id      revision of the page in the source database
+     * @param prev_rev_id revision stored in the parsed database, 0 if the page is new
+     * @see PageRevision#take(String, int)
+     */
+    public void put(Connect wikt_conn, int n_cur, String page_title,
+                    int rev_id, int prev_rev_id)
+                    throws InterruptedException
+    {
+        long t = ParseMetrics.start();
+        StringBuffer text = new StringBuffer(
+                PageTableBase.getArticleText(wikt_conn, page_title));
+        ParseMetrics.stop("read", t);
+
+        PageTask task = new PageTask(n_cur, 0, page_title, text);
+        task.rev_id      = rev_id;
+        task.prev_rev_id = prev_rev_id;
+
+        in_flight.acquire();
+        parse_queue.put(task);
+    }
+    
+    /** Reader stage: passes the text of the article (e.g. from XML dump)
+     * to parsers.
+     *
+     * @param n_cur number of the page
+     */
+    public void put(int n_cur, String page_title, StringBuffer text)
+                    throws InterruptedException
+    {
+        in_flight.acquire();
+        parse_queue.put(new PageTask(n_cur, 0, page_title, text));
+    }
+
+    /** Signals that all pages are read, parsers and writer will stop
+     * after the last page is stored. */
+    public void finish() throws InterruptedException {
+        for(int i=0; i<n_threads; i++)
+            parse_queue.put(END_OF_PAGES);
+    }
+
+    /** Parser stage: wiki text -> WordBase. */
+    private void runParser() {
+        try {
+            while(true) {
+                PageTask task = parse_queue.take();
+                if(END_OF_PAGES == task) {
+                    store_queue.put(END_OF_PAGES);
+                    return;
+                }
+
+                long t = ParseMetrics.start();
+                try {
+                    task.word = parse(task.page_title, task.text);
+                } catch(Throwable ex) {     // e.g. StackOverflowError on a deeply nested page,
+                                            // the task should be passed to the writer anyway
+                    System.out.println("Error in ParsePipeline.runParser(): page_title='" +
+                            task.page_title + "' " + ex.toString());
+                    task.word = null;
+                }
+                task.text = null;   // free memory
+                if(0 != t)
+                    task.parse_nanos = System.nanoTime() - t;
+                store_queue.put(task);
+            }
+        } catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Parses one page, it is called by parser threads. */
+    WordBase parse(String page_title, StringBuffer text) {
+        return WiktParser.parseWordBase(native_lang, page_title, text);
+    }
+
+    /** Writer stage: stores parsed words to the database in the order of n_cur. */
+    private void runWriter(int n_total, long t_start) {
+
+        PriorityQueue<PageTask> reorder = new PriorityQueue<PageTask>();
+        int n_finished_parsers = 0;
+        try {
+            while(n_finished_parsers < n_threads) {
+                PageTask task = store_queue.take();
+                if(END_OF_PAGES == task) {
+                    n_finished_parsers ++;
+                    continue;
+                }
+
+                reorder.add(task);
+                while(!reorder.isEmpty() && reorder.peek().n_cur == n_next_to_store) {
+                    store(reorder.poll(), n_total, t_start);
+                    n_next_to_store ++;
+                }
+            }
+
+            // pages which were not stored in order (it should be empty)
+            while(!reorder.isEmpty())
+                store(reorder.poll(), n_total, t_start);
+
+        } catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void store(PageTask task, int n_total, long t_start) {
+
+        if(0 == task.n_cur % 10000)
+            PageTableAll.printProgress(task.n_cur, n_total, t_start, task.page_title,
+                                       wikt_parsed_conn);
+
+        if(null != revisions)
+            revisions.deletePrevious(task.page_title, task.prev_rev_id, null != task.word);
+
+        if(null != task.word) {
+            long t = ParseMetrics.start();
+            try {
+                Keeper.storeToDB(wikt_parsed_conn, task.word, native_lang);
+            } catch(RuntimeException ex) {
+                System.out.println("Error in ParsePipeline.store(): page_title='" +
+                        task.page_title + "' n_cur=" + task.n_cur + " " + ex.toString());
+            }
+            task.word = null;
+            if(0 != t)
+                ParseMetrics.page(task.page_title, task.parse_nanos + System.nanoTime() - t);
+        }
+
+        // after the page, so it is parsed again after a crash
+        if(null != journal)
+            journal.mark(task.page_id);
+        if(null != revisions)
+            revisions.setRevision(task.page_title, task.rev_id, task.prev_rev_id);
+        in_flight.release();
+    }
+}
@@ -9,10 +9,12 @@ package wikt.parser;
 import java.util.*;
 
 import wikokit.base.wikt.word.WordBase;
+import wikokit.base.wikt.util.ParseMetrics;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.category.CategoryHyponyms;
 import wikokit.base.wikt.mrd.Keeper;
 import wikokit.base.wikt.sql.index.IndexForeign;
+import wikokit.base.wikt.sql.index.PageFilter;
 
 import wikokit.base.wikipedia.sql.PageTableBase;
 import wikokit.base.wikipedia.sql.Connect;
@@ -92,6 +94,9 @@ source ./wikt_parser/doc/wikt_parsed_empty.sql
         UtilSQL.deleteAllRecordsResetAutoIncrement(wikt_parsed_conn, "label_relation");
 
         UtilSQL.deleteAllRecordsResetAutoIncrement(wikt_parsed_conn, "index_native");
+        PageFilter.drop(wikt_parsed_conn); // generated after parsing
+        UtilSQL.dropTable(wikt_parsed_conn, ParseJournal.TABLE); // progress of the sharded parsing
+        UtilSQL.dropTable(wikt_parsed_conn, PageRevision.TABLE); // revisions of the incremental parsing
 
         IndexForeign.generateTables(wikt_parsed_conn, native_lang);
     }
@@ -213,34 +218,82 @@ source ./wikt_parser/doc/wikt_parsed_empty.sql
                     )
     {
         // gets Wiktionary article text
+        long t = ParseMetrics.start();
         StringBuffer str = new StringBuffer( //StringUtil.escapeCharDollar(
                 PageTableBase.getArticleText(wikt_conn, page_title));
+        ParseMetrics.stop("read", t);
 
+        parseWiktionaryEntry(native_lang, wikt_parsed_conn, page_title, str);
+    }
+    
+    /** Parses one article, the text is given (e.g. from XML dump).
+     *
+     * @param native_lang   native language in the Wiktionary,
+     *                       e.g. Russian language in Russian Wiktionary
+     * @param wikt_parsed_conn
+     * @param page_title
+     * @param str           wiki text of the article
+     */
+    public static void parseWiktionaryEntry(
+                    LanguageType native_lang,
+                    Connect wikt_parsed_conn,
+                    String page_title,
+                    StringBuffer str
+                    )
+    {
+        long t_start = ParseMetrics.start();
+        WordBase word = parseWordBase(native_lang, page_title, str);
+        if(null == word)
+            return;
+
+        // store results to tables: pos_term, meaning, synonyms...
+        Keeper.storeToDB(wikt_parsed_conn, word, native_lang);
+        
+        if(0 != t_start)
+            ParseMetrics.page(page_title, System.nanoTime() - t_start);
+        
+        str.setLength(0);
+        str = null;
+    }
+
+    /** Parses the text of one article, the database is not used here,
+     * so the function can be called by several threads in parallel.
+     * Time of parsing is added to the stage "parse" of ParseMetrics.
+     *
+     * @param native_lang   native language in the Wiktionary,
+     *                       e.g. Russian language in Russian Wiktionary
+     * @param page_title    title of the article (with underscores)
+     * @param str           wiki text of the article
+     * @return parsed word, or null if the article should not be stored
+     */
+    public static WordBase parseWordBase(
+                    LanguageType native_lang,
+                    String page_title,
+                    StringBuffer str
+                    )
+    {
         if(0 == str.length()) {
             //System.out.println("Error in WiktParser.parseWiktionaryEntry(): The article with the title '"+
             //        page_title + "' has no text in Wiktionary.");
-            return;
+            return null;
         }
 
         // converts "text_with_underscore" into the "text without underscore"
         page_title = page_title.replace("_", " ");
 
         // parses wiki text 'str', stores to the object 'word'
+        long t = ParseMetrics.start();
         WordBase word = new WordBase(page_title, native_lang, str);
+        ParseMetrics.stop("parse", t);
 
         if(word.hasOnlyTemplatesWithoutDefinitions())
-            return;
+            return null;
 
         if(word.isEmpty()) {
             System.out.println("Warning in WiktParser.parseWiktionaryEntry(): The article with the title '"+
                     page_title + "' after convert wiki to text: has no text.");
-            return;
+            return null;
         }
-
-        // store results to tables: pos_term, meaning, synonyms...
-        Keeper.storeToDB(wikt_parsed_conn, word, native_lang);
-        
-        str.setLength(0);
-        str = null;
+        return word;
     }
 }
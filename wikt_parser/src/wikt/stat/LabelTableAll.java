@@ -15,7 +15,8 @@ import java.util.Map;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.Statistics;
-import wikokit.base.wikt.api.WTMeaning;
+import wikokit.base.wikipedia.sql.UtilSQL;
+import wikokit.base.wikipedia.language.Encodings;
 import wikokit.base.wikt.constant.Label;
 import wikokit.base.wikt.constant.LabelCategory;
 import wikokit.base.wikt.constant.LabelCategoryLocal;
@@ -24,13 +25,9 @@ import wikokit.base.wikt.multi.en.name.LabelEn;
 import wikokit.base.wikt.multi.ru.name.LabelCategoryRu;
 import wikokit.base.wikt.multi.ru.name.LabelRu;
 import wikokit.base.wikt.sql.TLang;
-import wikokit.base.wikt.sql.TLangPOS;
-import wikokit.base.wikt.sql.TMeaning;
 import wikokit.base.wikt.sql.TPOS;
-import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikt.sql.label.TLabel;
 import wikokit.base.wikt.sql.label.TLabelCategory;
-import wikokit.base.wikt.sql.label.TLabelMeaning;
 import wikt.stat.printer.CommonPrinter;
 
 /** Context labels statistics in the database of the parsed Wiktionary. */
@@ -44,6 +41,9 @@ public class LabelTableAll {
     /** Number of meanings for each label: <label, example_words and counter). */
     private static Map<Label, ObjectWithWords> m_label_n = new HashMap<Label, ObjectWithWords>();
     private static int MAX_EXAMPLE_WORDS = 3;
+
+    /** Number of labels which are not counted by countLabels(). */
+    private static int n_unknown_lang_pos;
     
     
     /** Inner class which contains an object with a (small, example) list of words using this object.
@@ -103,9 +103,32 @@ public class LabelTableAll {
     } // eo class ObjectWithWords
     
     
+    /** Labels of meanings with language and title of the word, one row
+     * per record of the table 'label_meaning'. */
+    private static final String SQL_LABEL_MEANING_WORDS =
+        "SELECT lm.label_id AS label_id, lp.lang_id AS lang_id, lp.pos_id AS pos_id, p.page_title AS page_title FROM label_meaning lm " +
+        "JOIN meaning m ON m.id=lm.meaning_id " +
+        "JOIN lang_pos lp ON lp.id=m.lang_pos_id " +
+        "JOIN page p ON p.id=lp.page_id";
+
+    /** Number of meanings (with definitions) and number of meanings with
+     * known labels (and nonempty definitions) of each word (lang_pos), one row per word. */
+    private static final String SQL_LANG_POS_LABELED_MEANINGS =
+        "SELECT lp.id AS id, lp.lang_id AS lang_id, lp.pos_id AS pos_id, p.page_title AS page_title, " +
+        "COUNT(wt.id) AS n_meaning, " +
+        "COUNT(CASE WHEN wt.text<>'' THEN lm.meaning_id END) AS n_labeled FROM lang_pos lp " +
+        "JOIN page p ON p.id=lp.page_id " +
+        "LEFT JOIN meaning m ON m.lang_pos_id=lp.id " +
+        "LEFT JOIN wiki_text wt ON wt.id=m.wiki_text_id " +
+        "LEFT JOIN (SELECT DISTINCT meaning_id FROM label_meaning JOIN label ON label.id=label_id) lm ON lm.meaning_id=m.id " +
+        "GROUP BY lp.id, lp.lang_id, lp.pos_id, p.page_title ORDER BY lp.id";
+
     /** Counts number of labels, category_labels (m_category_n),...
-     * by selecting all records from the table 'quote' from the database of the parsed Wiktionary.<br><br>
-     * SELECT * FROM quote;
+     * by one query which joins the table 'label_meaning' with meanings,
+     * words and pages in the database of the parsed Wiktionary.<br><br>
+     * SELECT lm.label_id, lp.lang_id, lp.pos_id, p.page_title FROM label_meaning lm JOIN meaning m ...;
+     * Labels of meanings without word (lang_pos) or of words with unknown
+     * language or POS are not counted, they are Unknown (getUnknownLangPOSNumber()).
      *
      * @param connect   connection to the database of the parsed Wiktionary
      * @return map      from the language into a number of translation boxes
@@ -114,11 +137,9 @@ public class LabelTableAll {
     public static Map<LanguageType, Integer> countLabels (Connect wikt_parsed_conn) {
         // label_meaning -> meaning -> lang_pos -> lang -> count
 
-        Statement   s = null;
-        ResultSet   rs= null;
         long    t_start;
 
-        int n_unknown_lang_pos = 0; // translations into unknown languages
+        n_unknown_lang_pos = 0; // labels of words with unknown language or POS
 
         int n_total = Statistics.Count(wikt_parsed_conn, "label");
         t_start = System.currentTimeMillis();
@@ -135,77 +156,67 @@ public class LabelTableAll {
         
         // SELECT label_id, meaning_id FROM label_meaning, label WHERE id=label_id AND category_id IS NULL and counter>0 LIMIT 3;
         
-        try {
-            s = wikt_parsed_conn.conn.createStatement();
-            StringBuilder str_sql = new StringBuilder();
-            if(DEBUG)
-                str_sql.append("SELECT label_id, meaning_id FROM label_meaning LIMIT 5000");    // 10000 37000
-                //str_sql.append("SELECT label_id, meaning_id FROM label_meaning WHERE label_id=465");
-            else
-                str_sql.append("SELECT label_id, meaning_id FROM label_meaning");
-            
-            s.executeQuery (str_sql.toString());
-            rs = s.getResultSet ();
-            int n_cur = 0;
-            while (rs.next ())
-            {
-                n_cur ++;
-                int label_id = rs.getInt("label_id");                
-                
-                Label   label = id2label.get( label_id );
-                TMeaning    m = TMeaning.getByID(wikt_parsed_conn,  rs.getInt("meaning_id"));
-                
-                TLangPOS lang_pos = m.getLangPOS(wikt_parsed_conn);
-                TLang   tlang =     lang_pos.getLang();
+        StringBuilder str_sql = new StringBuilder();
+        str_sql.append(SQL_LABEL_MEANING_WORDS);
+        if(DEBUG)
+            str_sql.append(" LIMIT 5000");    // 10000 37000
 
-                LanguageType lang = tlang.getLanguage();
-                if(m_lang_n.containsKey(lang) ) {
-                    int n = m_lang_n.get(lang);
-                    m_lang_n.put(lang, n + 1);
-                } else
-                    m_lang_n.put(lang, 1);
+        int n_cur = 0;
+        try {
+            Statement s = UtilSQL.createStreamingStatement(wikt_parsed_conn);
+            try {
+                ResultSet rs = s.executeQuery (str_sql.toString());
+                try {
+                    while (rs.next ())
+                    {
+                        n_cur ++;
+                        int label_id = rs.getInt("label_id");
+                        Label   label = id2label.get( label_id );
+                        TLang   tlang = TLang.getTLangFast(rs.getInt("lang_id"));
+                        TPOS    tpos  = TPOS. getTPOSFast (rs.getInt("pos_id"));
+                        String page_title = Encodings.bytesToUTF8(rs.getBytes("page_title"));
+
+                        if(null == tlang || null == tpos) {     // see TLangPOS.getByID()
+                            n_unknown_lang_pos ++;
+                            continue;
+                        }
+                        LanguageType lang = tlang.getLanguage();
+                        if(m_lang_n.containsKey(lang) ) {
+                            int n = m_lang_n.get(lang);
+                            m_lang_n.put(lang, n + 1);
+                        } else
+                            m_lang_n.put(lang, 1);
+
+                        if(null != label) {
+                            ObjectWithWords.add(page_title, label, m_label_n);
+                        }
 
-                if(null == m) {
-                    System.out.println("Warning (LabelTableAll.countLabels()): there is label with label_id=" +label_id+ " with NULL meaning_id!");
-                    continue;
-                }
+                        if(DEBUG && 0 == n_cur % 1000) {   // % 100
+                            long    t_cur, t_remain;
 
-                if(null != lang_pos) {
-                    TPage tpage = lang_pos.getPage();
-                    String page_title = tpage.getPageTitle();
+                            t_cur  = System.currentTimeMillis() - t_start;
+                            t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
+                                       // where time for 1 page = t_cur / n_cur
+                                       // in min, since /(60*1000)
+                            t_cur = (long)(t_cur/(60f*1000f));
 
-                    if(null != label) {
-                        ObjectWithWords.add(page_title, label, m_label_n);
-                    }
-                    
-                    if(DEBUG && 0 == n_cur % 1000) {   // % 100
-                        //if(n_cur > 333)
-                          //  break;
-                        long    t_cur, t_remain;
-
-                        t_cur  = System.currentTimeMillis() - t_start;
-                        t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
-                                   // where time for 1 page = t_cur / n_cur
-                                   // in min, since /(60*1000)
-                        t_cur = (long)(t_cur/(60f*1000f));
-                        //t_cur = t_cur/(60f*1000f));
-
-                        if(null != tpage) {
-                            System.out.println(n_cur + ": " + tpage.getPageTitle() +
+                            System.out.println(n_cur + ": " + page_title +
                                 ", duration: "  + t_cur +   // t_cur/(60f*1000f) +
                                 " min, remain: " + t_remain +
                                 " min");
                         }
                     }
-                } else
-                    n_unknown_lang_pos ++;
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (LabelTableAll.countLabels()): " + ex.getMessage());
-        } finally {
-            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
-            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+            System.out.println("SQLException (LabelTableAll.countLabels()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
+        if(!DEBUG)  // labels of meanings without word (lang_pos) or page
+            n_unknown_lang_pos += Math.max(0, Statistics.Count(wikt_parsed_conn, "label_meaning") - n_cur);
 
         //long  t_end;
         //float   t_work;
@@ -228,6 +239,22 @@ public class LabelTableAll {
         return m_lang_n;
     }
 
+    /** Gets number of labels which belong to meanings without word (lang_pos)
+     * or to words with unknown language or POS, it is counted by the last call
+     * of countLabels(). */
+    public static int getUnknownLangPOSNumber() {
+        return n_unknown_lang_pos;
+    }
+
+    /** Gets number of meanings with the label counted by countLabels(),
+     * labels which are absent in the table 'label' are not counted. */
+    public static Map<Label, Integer> getLabelCounters() {
+        Map<Label, Integer> m = new HashMap<Label, Integer>(m_label_n.size());
+        for(ObjectWithWords s_w : m_label_n.values())
+            m.put(s_w.label, s_w.counter);
+        return m;
+    }
+
     /** Prints statistics about context labels added by hand.
      */
     private static void printLabelsAddedByHand (
@@ -481,6 +508,9 @@ public class LabelTableAll {
      * (1) Counts all words, writes to ar_labels_meanings and ar_labels_meanings_words.
      * (2) Counts ar_labels_meanings_noun, _verb, _adverb, _adjective only for one language: only_lang
      * <br><br>
+     * Numbers of meanings of all words are read by one query with GROUP BY
+     * (SQL_LANG_POS_LABELED_MEANINGS) in one pass.
+     * <br><br>
      *
      * @param connect   connection to the database of the parsed Wiktionary
      * // skip @param only_pos  only this POS words will be counted, 
@@ -504,27 +534,25 @@ public class LabelTableAll {
         t_start = System.currentTimeMillis();
 
         try {
-            s = wikt_parsed_conn.conn.createStatement ();
-            s.executeQuery ("SELECT id FROM lang_pos");
-            rs = s.getResultSet ();
+            s = UtilSQL.createStreamingStatement(wikt_parsed_conn);
+            rs = s.executeQuery (SQL_LANG_POS_LABELED_MEANINGS);
             int n_cur = 0;
             while (rs.next ())
             {
                 n_cur ++;
-                int id = rs.getInt("id");
-                TLangPOS lang_pos_not_recursive = TLangPOS.getByID (wikt_parsed_conn, id);// fields are not filled recursively
-                if(null == lang_pos_not_recursive)
+                TLang tlang = TLang.getTLangFast(rs.getInt("lang_id"));
+                TPOS  tpos  = TPOS. getTPOSFast (rs.getInt("pos_id"));
+                if(null == tlang || null == tpos)   // see TLangPOS.getByID()
                     continue;
-                LanguageType lang = lang_pos_not_recursive.getLang().getLanguage();
+                LanguageType lang = tlang.getLanguage();
                 
-                TPage tpage = lang_pos_not_recursive.getPage();
-                String page_title = tpage.getPageTitle();
+                String page_title = Encodings.bytesToUTF8(rs.getBytes("page_title"));
 
-                int n_meaning = WTMeaning.countMeanings(wikt_parsed_conn, lang_pos_not_recursive);
+                int n_meaning = rs.getInt("n_meaning");
                 if(0 == n_meaning)
                     continue;       // only meanings with nonempty definitions
 
-                POS p = lang_pos_not_recursive.getPOS().getPOS();
+                POS p = tpos.getPOS();
                 //if(null != only_pos && only_pos != p)   // only our POS should be counted :)
                 //    continue;
 
@@ -532,22 +560,7 @@ public class LabelTableAll {
                     System.out.print("\n" + page_title + ", meanings:" + n_meaning);
                     //System.out.print(", pos:" + p.toString());
 
-                int meanings_with_labels = 0;
-                TMeaning[] mm = TMeaning.get(wikt_parsed_conn, lang_pos_not_recursive);
-                for(TMeaning m : mm) {
-                    
-                    String meaning_text = m.getWikiTextString();
-                    if(0 == meaning_text.length())
-                        continue;
-                    
-                    if(DEBUG)
-                        System.out.print("\n    def: " + meaning_text);
-                    
-                    Label[] labels = TLabelMeaning.get(wikt_parsed_conn, m);
-                    
-                    if(null != labels && labels.length > 0)
-                        meanings_with_labels ++;
-                }
+                int meanings_with_labels = rs.getInt("n_labeled");
                 ar_labels_meanings       [meanings_with_labels] [n_meaning] ++;
                 ar_labels_meanings_words [meanings_with_labels] [n_meaning] = page_title;
                 
@@ -590,7 +603,7 @@ public class LabelTableAll {
                 
             } // eo while
         } catch(SQLException ex) {
-            System.err.println("SQLException (LabelTableAll.countLabelsForEachLangPOS()): " + ex.getMessage());
+            System.err.println("SQLException (LabelTableAll.countNumberOfMeaningsWithLabels()):: sql='" + SQL_LANG_POS_LABELED_MEANINGS + "' " + ex.getMessage());
         } finally {
             if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
             if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
@@ -598,6 +611,13 @@ public class LabelTableAll {
         
         // return ar_labels_meanings;
     }
+
+    /** Gets two-dimensional array filled by countNumberOfMeaningsWithLabels():
+     * [X][Y] = Z, where Z is number of words with Y meanings and X meanings with labels.
+     */
+    public static int[][] getNumberOfMeaningsWithLabels() {
+        return ar_labels_meanings;
+    }
     
     
     private static void printMeaningsLabelsTableNumbersAndTableWords (
@@ -0,0 +1,458 @@
+/* NameClusters.java - clusters of near-duplicate names (e.g. quote authors)
+ *                     by Jaro-Winkler similarity with blocking of candidate pairs.
+ *
+ * Copyright (c) 2020 Andrew Krizhanovsky <andrew.krizhanovsky at gmail.com>
+ * Distributed under EPL/LGPL/GPL/AL/BSD multi-license.
+ */
+
+package wikt.stat;
+
+import uk.ac.shef.wit.simmetrics.similaritymetrics.AbstractStringMetric;
+import uk.ac.shef.wit.simmetrics.similaritymetrics.JaroWinkler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Clusters of near-duplicate names: each name (in the order of the list)
+ * is compared with all previous names, if the maximum Jaro-Winkler similarity
+ * is greater than the threshold, then the name is added to the cluster
+ * of the nearest previous name. A new cluster is named by the name which
+ * creates it.<br><br>
+ *
+ * The similarity is calculated only for candidate pairs. Jaro-Winkler
+ * similarity of the names a and b is not greater than
+ * <PRE>
+ * J + 0.1*p*(1-J), where J &lt;= (c/|a| + c/|b| + 1)/3,
+ * </PRE>
+ * p is the length of the common prefix (at most 6), c is the number
+ * of common letters (intersection of the multisets of letters), so
+ * <UL><LI>pairs with the common prefix of 4 and more letters are taken from
+ *         the blocks of names with the same first 4 letters;</LI>
+ *     <LI>other pairs should have at least (3*J_min - 2)*|a| common letters,
+ *         they are found by the index of rare letters of the names
+ *         (prefix filtering).</LI></UL>
+ * The upper bound is checked before the similarity is calculated,
+ * candidate pairs are scored by several threads. The clusters are the same
+ * as in the comparison of each name with all previous names.<br><br>
+ *
+ * Usage:
+ * <PRE>
+ * NameClusters clusters = NameClusters.create(names, 0.87f, n_threads);
+ * Map&lt;String, String&gt; name_to_cluster = clusters.getNameToCluster();
+ * </PRE>
+ */
+public class NameClusters {
+
+    /** JaroWinkler has no state, so it is used by all threads. */
+    private final static AbstractStringMetric metric = new JaroWinkler();
+
+    /** Maximum length of the common prefix and its weight in JaroWinkler.getSimilarity(). */
+    private final static int MAX_PREFIX = 6;
+    private final static float PREFIX_SCALE = 0.1f;
+
+    /** Names with the same first BLOCK_PREFIX letters are compared with each other. */
+    private final static int BLOCK_PREFIX = 4;
+
+    /** Tolerance of the upper bound (the similarity is calculated in float). */
+    private final static double EPS = 1e-4;
+
+    /** Minimal number of names per thread, smaller lists are clustered
+     * in one thread, since the start of threads takes more time. */
+    private final static int MIN_NAMES_PER_THREAD = 1000;
+
+    /** Number of tasks per thread (next names have more previous names,
+     * so the tasks have different duration). */
+    private final static int TASKS_PER_THREAD = 8;
+
+    private final String[] names;
+
+    private final float threshold;
+
+    /** Letters of the names as ranks of tokens (letter, number of its occurrence
+     * in the name), tokens of one name are sorted by rank (rare tokens first). */
+    private final int[][] tokens;
+
+    /** Number of the first (rare) tokens of the name, which are indexed in 'postings'. */
+    private final int[] index_length;
+
+    /** Names (ascending) which have the token (rank) among their first index_length tokens. */
+    private final int[][] postings;
+
+    /** Names (ascending) with the same first BLOCK_PREFIX letters as the name,
+     * null if there are no such names. */
+    private final int[][] blocks;
+
+    /** The nearest previous name among candidates, -1 if there are no candidates. */
+    private final int[] nearest;
+
+    /** Similarity to the nearest previous name. */
+    private final float[] nearest_dist;
+
+    /** Previous names with the same maximum similarity (greater than threshold),
+     * null if there is only one such name. */
+    private final int[][] nearest_ties;
+
+    /** Union-find of clusters: parent of the name, the root of the tree is
+     * the name which created the cluster. */
+    private final int[] parent;
+
+    /** True if the name is in some cluster. */
+    private final boolean[] in_cluster;
+
+    private NameClusters(List<String> _names, float _threshold) {
+        names        = _names.toArray(new String[_names.size()]);
+        threshold    = _threshold;
+        int n = names.length;
+        tokens       = new int[n][];
+        index_length = new int[n];
+        blocks       = new int[n][];
+        nearest      = new int[n];
+        nearest_dist = new float[n];
+        nearest_ties = new int[n][];
+        parent       = new int[n];
+        in_cluster   = new boolean[n];
+        for(int i=0; i<n; i++)
+            parent[i] = i;
+
+        postings = createTokens();
+        createBlocks();
+    }
+
+    /** Clusters the names.
+     *
+     * @param names     different names in the order of adding
+     * @param threshold names are joined if the similarity is greater than the threshold
+     * @param n_threads number of threads, 1 - calculate in the current thread
+     */
+    public static NameClusters create(List<String> names, float threshold, int n_threads) {
+        NameClusters clusters = new NameClusters(names, threshold);
+        clusters.calcNearest(n_threads);
+        clusters.joinClusters();
+        return clusters;
+    }
+
+    /** Gets number of names. */
+    public int size() {
+        return names.length;
+    }
+
+    /** Gets the nearest previous name of the i-th name,
+     * "" if there are no candidates which could be similar. */
+    public String getNearestName(int i) {
+        return -1 == nearest[i] ? "" : names[nearest[i]];
+    }
+
+    /** Gets the similarity of the i-th name and the nearest previous name. */
+    public float getNearestSimilarity(int i) {
+        return nearest_dist[i];
+    }
+
+    /** Gets map from the names (which are in clusters) to the cluster names. */
+    public Map<String, String> getNameToCluster() {
+        Map<String, String> name_to_cluster = new HashMap<String, String>();
+        for(int i=0; i<names.length; i++) {
+            if(in_cluster[i])
+                name_to_cluster.put(names[i], names[find(i)]);
+        }
+        return name_to_cluster;
+    }
+
+    /** Fills 'tokens' and 'index_length', creates the index of rare tokens.
+     *
+     * @return postings, i.e. names by token rank
+     */
+    private int[][] createTokens() {
+
+        // token (occurrence << 16 | letter) -> number of names with this token
+        Map<Long, Integer> token_n = new HashMap<Long, Integer>();
+        long[][] keys = new long[names.length][];
+        for(int i=0; i<names.length; i++) {
+            String name = names[i];
+            Map<Character, Integer> letter_n = new HashMap<Character, Integer>();
+            keys[i] = new long[name.length()];
+            for(int k=0; k<name.length(); k++) {
+                char ch = name.charAt(k);
+                Integer occurrence = letter_n.get(ch);
+                occurrence = (null == occurrence) ? 0 : occurrence + 1;
+                letter_n.put(ch, occurrence);
+
+                long key = ((long)occurrence << 16) | ch;
+                keys[i][k] = key;
+                Integer n = token_n.get(key);
+                token_n.put(key, null == n ? 1 : n + 1);
+            }
+        }
+
+        // rank: rare tokens first
+        final Map<Long, Integer> token_n_final = token_n;
+        List<Long> order = new ArrayList<Long>(token_n.keySet());
+        order.sort(new Comparator<Long>() {
+            @Override
+            public int compare(Long a, Long b) {
+                int c = token_n_final.get(a).compareTo(token_n_final.get(b));
+                return 0 != c ? c : a.compareTo(b);
+            }
+        });
+        Map<Long, Integer> token_rank = new HashMap<Long, Integer>(order.size() * 2);
+        for(int r=0; r<order.size(); r++)
+            token_rank.put(order.get(r), r);
+
+        // pairs without the common prefix of BLOCK_PREFIX letters:
+        // JW <= J + 0.1*(BLOCK_PREFIX-1)*(1-J) > threshold, so J >= j_min,
+        // then c/|a| + c/|b| >= 3*j_min - 1 and c <= min(|a|, |b|) give c >= (3*j_min - 2)*|a|
+        double w = PREFIX_SCALE * (BLOCK_PREFIX - 1);
+        double j_min = (threshold - w) / (1.0 - w);
+        double min_overlap = 3*j_min - 2;
+
+        int[] postings_n = new int[order.size()];
+        for(int i=0; i<names.length; i++) {
+            int len = keys[i].length;
+            int[] t = new int[len];
+            for(int k=0; k<len; k++)
+                t[k] = token_rank.get(keys[i][k]);
+            Arrays.sort(t);
+            tokens[i] = t;
+
+            int overlap = Math.max(1, (int)Math.ceil(min_overlap * len - EPS));
+            index_length[i] = Math.max(0, len - overlap + 1);
+            for(int k=0; k<index_length[i]; k++)
+                postings_n[t[k]] ++;
+        }
+
+        int[][] result = new int[order.size()][];
+        for(int r=0; r<result.length; r++)
+            result[r] = new int[postings_n[r]];
+        Arrays.fill(postings_n, 0);
+        for(int i=0; i<names.length; i++) {
+            for(int k=0; k<index_length[i]; k++) {
+                int r = tokens[i][k];
+                result[r][postings_n[r] ++] = i;
+            }
+        }
+        return result;
+    }
+
+    /** Fills 'blocks': names with the same first BLOCK_PREFIX letters. */
+    private void createBlocks() {
+        Map<String, List<Integer>> prefix_to_names = new HashMap<String, List<Integer>>();
+        for(int i=0; i<names.length; i++) {
+            if(names[i].length() < BLOCK_PREFIX)
+                continue;
+            String prefix = names[i].substring(0, BLOCK_PREFIX);
+            List<Integer> block = prefix_to_names.get(prefix);
+            if(null == block) {
+                block = new ArrayList<Integer>();
+                prefix_to_names.put(prefix, block);
+            }
+            block.add(i);
+        }
+
+        for(List<Integer> block : prefix_to_names.values()) {
+            if(block.size() < 2)
+                continue;
+            int[] b = new int[block.size()];
+            for(int k=0; k<b.length; k++)
+                b[k] = block.get(k);
+            for(int i : b)
+                blocks[i] = b;
+        }
+    }
+
+    /** Counts common tokens of two names (sorted arrays of ranks). */
+    private static int countCommon(int[] a, int[] b) {
+        int c = 0;
+        int i = 0, j = 0;
+        while(i < a.length && j < b.length) {
+            if(a[i] == b[j]) {
+                c ++;
+                i ++;
+                j ++;
+            } else if(a[i] < b[j])
+                i ++;
+            else
+                j ++;
+        }
+        return c;
+    }
+
+    /** Gets upper bound of Jaro-Winkler similarity of the names i and j. */
+    private double getUpperBound(int i, int j) {
+        String a = names[i];
+        String b = names[j];
+
+        int max_p = Math.min(MAX_PREFIX, Math.min(a.length(), b.length()));
+        int p = 0;
+        while(p < max_p && a.charAt(p) == b.charAt(p))
+            p ++;
+
+        int c = countCommon(tokens[i], tokens[j]);
+        if(0 == c)
+            return 0;
+        double jaro = Math.min(1.0, ((double)c / a.length() + (double)c / b.length() + 1.0) / 3.0);
+        return jaro + PREFIX_SCALE * p * (1.0 - jaro);
+    }
+
+    /** Calculates the nearest previous name for the names from..to-1. */
+    private void calcNearest(int from, int to) {
+
+        int[] mark = new int[names.length];         // mark[j] == i+1 if j is a candidate for i
+        int[] candidates = new int[names.length];
+        List<Integer> max_names = new ArrayList<Integer>();
+
+        for(int i=from; i<to; i++) {
+            int n = 0;
+            if(null != blocks[i]) {
+                for(int j : blocks[i]) {
+                    if(j >= i)
+                        break;
+                    mark[j] = i + 1;
+                    candidates[n ++] = j;
+                }
+            }
+            for(int k=0; k<index_length[i]; k++) {
+                for(int j : postings[tokens[i][k]]) {
+                    if(j >= i)
+                        break;
+                    if(mark[j] != i + 1) {
+                        mark[j] = i + 1;
+                        candidates[n ++] = j;
+                    }
+                }
+            }
+
+            float max_dist = 0;
+            max_names.clear();
+            for(int k=0; k<n; k++) {
+                int j = candidates[k];
+                if(getUpperBound(i, j) < threshold - EPS)
+                    continue;
+
+                float dist = metric.getSimilarity(names[i], names[j]);
+                if(max_names.isEmpty() || dist > max_dist) {
+                    max_dist = dist;
+                    max_names.clear();
+                    max_names.add(j);
+                } else if(dist == max_dist)
+                    max_names.add(j);
+            }
+
+            nearest[i]      = max_names.isEmpty() ? -1 : max_names.get(0);
+            nearest_dist[i] = max_dist;
+            if(max_names.size() > 1 && max_dist > threshold) {
+                int[] ties = new int[max_names.size()];
+                for(int k=0; k<ties.length; k++)
+                    ties[k] = max_names.get(k);
+                nearest_ties[i] = ties;
+            }
+        }
+    }
+
+    /** Calculates the nearest previous names by several threads, each thread
+     * calculates its own part of the names. */
+    private void calcNearest(ExecutorService pool, int n_tasks) throws InterruptedException {
+
+        int n = names.length;
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(n_tasks);
+        for(int t=0; t<n_tasks; t++) {
+            final int from = (int)((long)n *  t    / n_tasks);
+            final int to   = (int)((long)n * (t+1) / n_tasks);
+            tasks.add(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    calcNearest(from, to);
+                    return null;
+                }
+            });
+        }
+        for(Future<Object> f : pool.invokeAll(tasks)) {
+            try {
+                f.get();
+            } catch(ExecutionException ex) {
+                throw new RuntimeException(ex.getCause());
+            }
+        }
+    }
+
+    /** Calculates the nearest previous name for all names. */
+    private void calcNearest(int n_threads) {
+
+        int n = names.length;
+        n_threads = Math.max(1, Math.min(n_threads, n / MIN_NAMES_PER_THREAD));
+        if(1 == n_threads) {
+            calcNearest(0, n);
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(n_threads);
+        try {
+            calcNearest(pool, n_threads * TASKS_PER_THREAD);
+        } catch(InterruptedException ex) {
+            System.out.println("Error in NameClusters.calcNearest(): interrupted, names are not clustered.");
+            Arrays.fill(nearest, -1);
+            Arrays.fill(nearest_dist, 0);
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Gets root of the cluster tree of the name i. */
+    private int find(int i) {
+        int root = i;
+        while(parent[root] != root)
+            root = parent[root];
+        while(parent[i] != root) {
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    /** Adds names to clusters of their nearest previous names (in the order of names).
+     *
+     * If several previous names have the same maximum similarity, then
+     * the first name in the order of keys of HashMap of previous names
+     * is taken, since the nearest name was searched in HashMap.keySet()
+     * in QuoteTableAll before.
+     */
+    private void joinClusters() {
+        Map<String, Integer> previous = new HashMap<String, Integer>();
+        for(int i=0; i<names.length; i++) {
+            if(nearest_dist[i] > threshold) {
+                if(null != nearest_ties[i])
+                    nearest[i] = getFirstName(previous, nearest_ties[i]);
+                int j = nearest[i];
+
+                if(in_cluster[j]) {
+                    parent[i] = find(j);
+                } else {            // new cluster, it is named by the name i
+                    parent[j] = i;
+                    in_cluster[j] = true;
+                }
+                in_cluster[i] = true;
+            }
+            previous.put(names[i], i);
+        }
+    }
+
+    /** Gets the first name (from the list 'ties') in the order of keys of the map. */
+    private int getFirstName(Map<String, Integer> previous, int[] ties) {
+        for(Integer j : previous.values()) {
+            for(int t : ties) {
+                if(t == j)
+                    return t;
+            }
+        }
+        return ties[0];
+    }
+}
@@ -8,21 +8,20 @@
 package wikt.stat;
 
 import wikokit.base.wikt.sql.TLang;
-import wikokit.base.wikt.sql.TLangPOS;
 import wikokit.base.wikt.sql.TPOS;
-import wikokit.base.wikt.sql.TPage;
 import wikt.stat.printer.POSAndPolysemyPrinter;
 import wikt.stat.printer.CommonPrinter;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.sql.Connect;
 import wikokit.base.wikipedia.sql.Statistics;
+import wikokit.base.wikipedia.sql.UtilSQL;
+import wikokit.base.wikipedia.language.Encodings;
 
 import wikokit.base.wikt.constant.POS;
 
 import java.sql.*;
 import java.util.HashMap;
 import java.util.Map;
-import wikokit.base.wikt.api.WTMeaning;
 
 
 /** Parts of speech statistics and data about
@@ -173,10 +172,21 @@ public class POSAndPolysemyTableAll {
     private static final Map<POS,POSStat> m_pos_sum_all_lang = new HashMap(POS.size());
 
     
+    /** Number of meanings (with definitions) of each word (lang_pos),
+     * one row per word, see WTMeaning.countMeanings(). */
+    private static final String SQL_LANG_POS_MEANINGS =
+        "SELECT lp.id AS id, lp.lang_id AS lang_id, lp.pos_id AS pos_id, p.page_title AS page_title, " +
+        "COUNT(wt.id) AS n_meaning FROM lang_pos lp " +
+        "JOIN page p ON p.id=lp.page_id " +
+        "LEFT JOIN meaning m ON m.lang_pos_id=lp.id " +
+        "LEFT JOIN wiki_text wt ON wt.id=m.wiki_text_id " +
+        "GROUP BY lp.id, lp.lang_id, lp.pos_id, p.page_title ORDER BY lp.id";
+
     /** Counts number of different POS, cycle for each LangPOS.
-     * .<br><br>
+     * Numbers of meanings of all words are read by one query with GROUP BY
+     * (SQL_LANG_POS_MEANINGS) in one pass.<br><br>
      *
-     * SELECT * FROM lang_pos;
+     * SELECT lp.id, ..., COUNT(wt.id) FROM lang_pos lp JOIN page p ... GROUP BY lp.id, ...;
      *
      * @param connect connection to the database of the parsed Wiktionary
      *
@@ -188,8 +198,6 @@ public class POSAndPolysemyTableAll {
                     LanguageType native_lang) {
         // lang_pos -> meaning -> count
 
-        Statement   s = null;
-        ResultSet   rs= null;
         long    t_start;
 
         // mean_histogram [0]
@@ -204,27 +212,27 @@ public class POSAndPolysemyTableAll {
         Map<LanguageType, Map<POS,POSStat>> m_lang_pos_pos_stat = new HashMap<LanguageType, Map<POS,POSStat>>();
         //                Map<POS,POSStat> m_pos_sum_all_lang
 
+        Statement   s = null;
+        ResultSet   rs= null;
         try {
-            s = wikt_parsed_conn.conn.createStatement ();
-            s.executeQuery ("SELECT id FROM lang_pos");
-            rs = s.getResultSet ();
+            s = UtilSQL.createStreamingStatement(wikt_parsed_conn);
+            rs = s.executeQuery (SQL_LANG_POS_MEANINGS);
             int n_cur = 0;
             while (rs.next ())
             {
                 n_cur ++;
-                int id = rs.getInt("id");
-                TLangPOS lang_pos_not_recursive = TLangPOS.getByID (wikt_parsed_conn, id);// fields are not filled recursively
-                if(null == lang_pos_not_recursive)
+                TLang tlang = TLang.getTLangFast(rs.getInt("lang_id"));
+                TPOS  tpos  = TPOS. getTPOSFast (rs.getInt("pos_id"));
+                if(null == tlang || null == tpos)   // see TLangPOS.getByID()
                     continue;
-                LanguageType lang = lang_pos_not_recursive.getLang().getLanguage();
+                LanguageType lang = tlang.getLanguage();
                 n_langpos_with_empty_meaning ++;
 
-                TPage tpage = lang_pos_not_recursive.getPage();
-                String page_title = tpage.getPageTitle();
+                String page_title = Encodings.bytesToUTF8(rs.getBytes("page_title"));
 
-                int n_meaning = WTMeaning.countMeanings(wikt_parsed_conn, lang_pos_not_recursive);
+                int n_meaning = rs.getInt("n_meaning");
                 if(DEBUG && lang == LanguageType.ru) {
-                    System.out.print("\n" + tpage.getPageTitle() + ", meanings:" + n_meaning);
+                    System.out.print("\n" + page_title + ", meanings:" + n_meaning);
                 }
                 
                 if(n_meaning < max_meanings) {
@@ -245,7 +253,7 @@ public class POSAndPolysemyTableAll {
                 if(n_meaning > 0)
                     n_nonempty_meaning ++;
 
-                POS p = lang_pos_not_recursive.getPOS().getPOS();
+                POS p = tpos.getPOS();
                 if(POS.unknown == p) {
                     n_unknown_pos__in_rich_words ++;
                     
@@ -313,7 +321,7 @@ public class POSAndPolysemyTableAll {
                 }
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (RelationTableAll.countRelationsHistogram()): " + ex.getMessage());
+            System.out.println("SQLException (POSAndPolysemyTableAll.countPOS()):: sql='" + SQL_LANG_POS_MEANINGS + "' " + ex.getMessage());
         } finally {
             if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
             if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
@@ -17,7 +17,6 @@ import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikipedia.sql.Statistics;
 import wikokit.base.wikipedia.sql.Connect;
 import wikt.stat.printer.CommonPrinter;
-import uk.ac.shef.wit.simmetrics.similaritymetrics.*;
 
 import wikokit.base.wikipedia.language.LanguageType;
 //import wikipedia.language.Encodings;
@@ -29,7 +28,6 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
 
 
 /** Quotes' statistics in the database of the parsed Wiktionary.
@@ -48,13 +46,12 @@ public class QuoteTableAll {
 
     /** The linear list of authors (the same as m_author_n.keys()),
      * it is required to store the order of adding of authors (for sorting and clustering). */
-    //private static List<String> l_author_n = new ArrayList<String>();
+    private static List<String> l_author_n = new ArrayList<String>();
 
     private static Map<String, String> author_to_cluster = new HashMap<String, String>();
 
     private static int MAX_EXAMPLE_WORDS = 3;
 
-    private static AbstractStringMetric metric = new JaroWinkler();
     private static float CLUSTER_THRESHOLD = 0.87F;
 
 
@@ -102,56 +99,20 @@ public class QuoteTableAll {
         /** Counter of using this Source, or Author, or Title in Wiktionary entries. */
         public int counter;
 
-        /** Distance from this->object_name to nearest another object_name. */
+        /** Distance from this->object_name to nearest another object_name,
+         * it is set by clusterAuthors(). */
         NearestWord nearest_word;
 
-        
-        /** Calculates shortest distance between source word and the set of words 'words'.
-         * Returns object NearestWord with shortest distance and the nearest word.
-         *
-         * Remark: nearest word has maximum distance.
-         */
-        private static NearestWord calcDistance(String source_word, Set<String> words)
-        {
-
-            float max_dist = 0;
-            String nearest_word = "";
-            boolean b_first = true;
-
-            if(0 == source_word.length() || 0 == words.size()) {
-                System.out.println("Warning (QuoteTableAll.ObjectWithWords.calcDistance()): source_word or words are empty!");
-                return new NearestWord (max_dist, nearest_word);
-            }
-
-            for(String w : words) {
-                float dist = metric.getSimilarity(source_word, w);
-                
-                if( b_first ) {
-                    b_first = false;
-                    max_dist = dist;
-                    nearest_word = w;
-                } else {
-                    if(dist > max_dist) {
-                        max_dist = dist;
-                        nearest_word = w;
-                        if(DEBUG && max_dist > CLUSTER_THRESHOLD)
-                            System.out.println("(QuoteTableAll.ObjectWithWords.calcDistance()): max dist("+source_word+
-                                            ", "+ w +")= "+max_dist);
-                    }
-                }
-            }
-            return new NearestWord (max_dist, nearest_word);
-        }
-
 
         /** Adds new quote object (source, or author...) to the map m;
          * if there is space (< MAX_EXAMPLE_WORDS), then add example word for this object.
+         *
+         * @param ordered_list  list of objects in the order of adding (for clustering), or null
          */
         private static void add(String page_title, 
                                 String _object_name, String _object_wikilink, // TQuotSource tsource, // String _source,
                                 Map<String, ObjectWithWords> m,
-                                Map<String, String> word_to_cluster)
-                                //List<String> ordered_list)
+                                List<String> ordered_list)
         {
             if(0 == _object_name.length()) {
                 System.out.println("Warning (QuoteTableAll.ObjectWithWords.add()): page=" +page_title+ " with empty _object_name!");
@@ -168,31 +129,8 @@ public class QuoteTableAll {
                 if(!s_w.example_words.contains(page_title))
                     s_w.example_words.add(page_title);
                 
-                /*if(null != ordered_list) {
+                if(null != ordered_list)
                     ordered_list.add(_object_name);
-                    s_w.nearest_word = calcDistance( _object_name, m.keySet());
-                }*/
-                if(null != word_to_cluster) {
-                    NearestWord nw = calcDistance( _object_name, m.keySet());
-                    s_w.nearest_word = nw;
-                    if(nw.dist > CLUSTER_THRESHOLD) {
-
-                        String cluster_name = "";
-                        String a = _object_name;
-                        String b = nw.nearest_name;
-                        if(!word_to_cluster.containsKey(a) && !word_to_cluster.containsKey(b)) {
-                            cluster_name = _object_name;
-                        } else if(word_to_cluster.containsKey(a)) {
-                            cluster_name = word_to_cluster.get(a);
-                        } else if(word_to_cluster.containsKey(b)) {
-                            cluster_name = word_to_cluster.get(b);
-                        }
-                        word_to_cluster.put(a, cluster_name);
-                        word_to_cluster.put(b, cluster_name);
-                        //System.out.println("(QuoteTableAll.ObjectWithWords.add()): page=" +page_title+ " cluster:"+cluster_name+
-                        //        " + two words: '"+a+"' (len="+a.length()+") and '"+b+"' (len="+b.length()+"); equals="+a.equalsIgnoreCase(b));
-                    }
-                }
                 m.put(_object_name, s_w);
 
             } else {
@@ -229,6 +167,23 @@ public class QuoteTableAll {
         return cluster_to_words;
     }
 
+    /** Splits authors (l_author_n) to clusters of similar names, fills
+     * author_to_cluster and nearest_word of authors (m_author_n).
+     * Each author is compared with the previous authors (in the order of adding),
+     * but only with the names which could be similar (see NameClusters).
+     */
+    private static void clusterAuthors()
+    {
+        int n_threads = Runtime.getRuntime().availableProcessors();
+        NameClusters clusters = NameClusters.create(l_author_n, CLUSTER_THRESHOLD, n_threads);
+
+        for(int i=0; i<clusters.size(); i++) {
+            ObjectWithWords s_w = m_author_n.get(l_author_n.get(i));
+            s_w.nearest_word = new NearestWord(clusters.getNearestSimilarity(i), clusters.getNearestName(i));
+        }
+        author_to_cluster.putAll(clusters.getNameToCluster());
+    }
+
     /** Counts number of quotes, authors, sources,...
      * by selecting all records from the table 'quote' from the database of the parsed Wiktionary.<br><br>
      * SELECT * FROM quote;
@@ -302,7 +257,7 @@ public class QuoteTableAll {
                         if(null != tquot_author) {
                             n_total_with_authors ++;
                             ObjectWithWords.add(page_title, tquot_author.getName(), tquot_author.getWikilink(), 
-                                                m_author_n, author_to_cluster); // l_author_n);
+                                                m_author_n, l_author_n);
                         }
                     }
                     
@@ -497,6 +452,7 @@ public class QuoteTableAll {
         Map<LanguageType, Integer> m = QuoteTableAll.countQuotes(wikt_parsed_conn);
         wikt_parsed_conn.Close();
 
+        clusterAuthors();
         Map<String, List<String>> cluster_to_authors = collectWordsToCluster(author_to_cluster); // author_to_cluster
         //private static Map<String, String> author_to_cluster = new HashMap<String, String>();
 
@@ -8,16 +8,15 @@ package wikt.stat;
 
 import wikokit.base.wikt.sql.TLang;
 import wikokit.base.wikt.sql.TLangPOS;
-import wikokit.base.wikt.sql.TMeaning;
 import wikokit.base.wikt.sql.TPOS;
 import wikokit.base.wikt.sql.TRelationType;
-import wikokit.base.wikt.sql.TPage;
 import wikokit.base.wikipedia.sql.Statistics;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.UtilSQL;
 import wikt.stat.printer.CommonPrinter;
 import wikokit.base.wikt.constant.Relation;
 import wikokit.base.wikipedia.language.LanguageType;
-import wikokit.base.wikt.api.WTRelation;
+import wikokit.base.wikipedia.language.Encodings;
 
 
 import java.sql.*;
@@ -62,11 +61,40 @@ public class RelationTableAll {
     /** Number of (Language & POS level) entries per language. **/
     private static final Map<LanguageType,Integer> m_lang_entries_number = new HashMap();
 
+    /** Number of relations which are not counted by countRelationsPerLanguage(). */
+    private static int n_unknown_lang_pos;
 
 
+
+    /** Number of relations per language and POS of the word and per type
+     * of relation, unknown languages, POS and types are skipped in Java. */
+    private static final String SQL_COUNT_PER_LANGUAGE =
+        "SELECT lp.lang_id AS lang_id, lp.pos_id AS pos_id, r.relation_type_id AS relation_type_id, COUNT(*) AS n FROM relation r " +
+        "JOIN meaning m ON m.id=r.meaning_id " +
+        "JOIN lang_pos lp ON lp.id=m.lang_pos_id GROUP BY lp.lang_id, lp.pos_id, r.relation_type_id";
+
+    /** Number of relations of each word (lang_pos) per type of relation:
+     * one row per pair (lang_pos, relation type), a word without relations
+     * has one row with relation_type_id=NULL and n=0. Rows of one word
+     * are neighbours (ORDER BY), so the result set is read by one pass. */
+    private static final String SQL_LANG_POS_RELATIONS =
+        "SELECT lp.id AS id, lp.lang_id AS lang_id, lp.pos_id AS pos_id, p.page_title AS page_title, " +
+        "r.relation_type_id AS relation_type_id, COUNT(r.id) AS n FROM lang_pos lp " +
+        "JOIN page p ON p.id=lp.page_id " +
+        "LEFT JOIN meaning m ON m.lang_pos_id=lp.id " +
+        "LEFT JOIN relation r ON r.meaning_id=m.id " +
+        "GROUP BY lp.id, lp.lang_id, lp.pos_id, p.page_title, r.relation_type_id ORDER BY lp.id";
+
     /** Counts number of semantic relations for each language
-     * by selecting all relations from the database of the parsed Wiktionary.<br><br>
-     * SELECT  FROM relation;
+     * by one query with GROUP BY (meanings and words are not read for each
+     * relation) from the database of the parsed Wiktionary.<br><br>
+     * SELECT lp.lang_id, lp.pos_id, r.relation_type_id, COUNT(*) FROM relation r JOIN meaning m ... GROUP BY lp.lang_id, lp.pos_id, r.relation_type_id;<br><br>
+     *
+     * The same relations are counted as by reading the relations one by one
+     * (TMeaning.getByID(), TRelationType): relations of unknown type and
+     * relations without meaning, or whose word (lang_pos) is absent or has
+     * unknown language or POS are not counted, they are Unknown
+     * (getUnknownLangPOSNumber() = total - counted).
      * 
      * @param connect connection to the database of the parsed Wiktionary
      * @return map of maps with number of synonyms (etc.) in English (etc.)
@@ -75,12 +103,10 @@ public class RelationTableAll {
                                                     Connect wikt_parsed_conn) {
         // lang -> relations -> count
 
-        Statement   s = null;
-        ResultSet   rs= null;
         long    t_start;
         float   t_work;
 
-        int n_unknown_lang_pos = 0; // relations which belong to words with unknown language and POS
+        int n_counted = 0;          // relations of known type of words with known language and POS
 
         int n_total = Statistics.Count(wikt_parsed_conn, "relation");
         System.out.println("Total relations: " + n_total);
@@ -89,77 +115,44 @@ public class RelationTableAll {
         Map<LanguageType, Map<Relation,Integer>> m_lang_rel_n = new HashMap<LanguageType, Map<Relation,Integer>>();
         
         try {
-            s = wikt_parsed_conn.conn.createStatement ();
-            StringBuilder str_sql = new StringBuilder();
-            str_sql.append("SELECT id,meaning_id,wiki_text_id,relation_type_id FROM relation");
-            s.executeQuery (str_sql.toString());
-            rs = s.getResultSet ();
-            int n_cur = 0;
-            while (rs.next ())
-            {
-                n_cur ++;
-                //int          id =                                     rs.getInt("id");
-                TMeaning      m = TMeaning.getByID(wikt_parsed_conn,    rs.getInt("meaning_id"));
-                //TWikiText    wt = TWikiText.getByID(wikt_parsed_conn, rs.getInt("wiki_text_id"));
-                TRelationType tr = TRelationType.getRelationFast(       rs.getInt("relation_type_id"));
-
-                if(null != m && null != tr) {
-                    TLangPOS lang_pos = m.getLangPOS(wikt_parsed_conn);
-                    Relation r        = tr.getRelation();
-                    assert(null != r);
-
-                    if(null != lang_pos) {
-                        TLang tlang = lang_pos.getLang();                        //TPOS tpos   = lang_pos.getPOS();  // future statistics
-                        
-                        if(null != tlang ) {
-                            LanguageType lang = lang_pos.getLang().getLanguage();
-
-                            Map<Relation,Integer>     rel_n = null;
-                            int                           n;
-                            if(m_lang_rel_n.containsKey(lang) ) {
-                                      rel_n =  m_lang_rel_n.get(lang);          // assert(null != rel_n);
-                                   if(rel_n.containsKey(        r)) {
-                                          n =         rel_n.get(r);
-                                                      rel_n.put(r, n + 1);
-                                   } else             rel_n.put(r, 1    );
-                            } else {
-                                                      rel_n = new HashMap<Relation,Integer>();
-                                                      rel_n.put(r, 1);
-                               m_lang_rel_n.put(lang, rel_n);
-                            }
-                            
-                            if(0 == n_cur % 1000) {   // % 100
-                                if(DEBUG && n_cur > 333)
-                                    break;
-                                long    t_cur, t_remain;
-
-                                t_cur  = System.currentTimeMillis() - t_start;
-                                t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
-                                           // where time for 1 page = t_cur / n_cur
-                                           // in min, since /(60*1000)
-                                t_cur = (long)(t_cur/(60f*1000f));
-                                //t_cur = t_cur/(60f*1000f));
-
-                                TPage tpage = lang_pos.getPage();
-                                if(null != tpage) {
-                                    System.out.println(n_cur + ": " + tpage.getPageTitle() +
-                                        ", duration: "  + t_cur +   // t_cur/(60f*1000f) +
-                                        " min, remain: " + t_remain +
-                                        " min");
-                                }
-                            }
+            Statement s = UtilSQL.createStreamingStatement(wikt_parsed_conn);
+            try {
+                ResultSet rs = s.executeQuery (SQL_COUNT_PER_LANGUAGE);
+                try {
+                    while (rs.next ())
+                    {
+                        TLang         tlang = TLang.getTLangFast(rs.getInt("lang_id"));
+                        TPOS          tpos  = TPOS. getTPOSFast (rs.getInt("pos_id"));
+                        TRelationType tr = TRelationType.getRelationFast(rs.getInt("relation_type_id"));
+                        int n = rs.getInt("n");
+
+                        if(null == tr || null == tlang || null == tpos)
+                            continue;
+                        n_counted += n;
+
+                        LanguageType lang = tlang.getLanguage();
+                        Relation r        = tr.getRelation();
+
+                        Map<Relation,Integer> rel_n = m_lang_rel_n.get(lang);
+                        if(null == rel_n) {
+                            rel_n = new HashMap<Relation,Integer>();
+                            m_lang_rel_n.put(lang, rel_n);
                         }
+                        if(rel_n.containsKey(r))
+                            n += rel_n.get(r);
+                        rel_n.put(r, n);
                     }
-
-                } else
-                    n_unknown_lang_pos ++;
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (RelationTableAll.countRelationsPerLanguage()): " + ex.getMessage());
-        } finally {
-            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
-            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+            System.out.println("SQLException (RelationTableAll.countRelationsPerLanguage()):: sql='" + SQL_COUNT_PER_LANGUAGE + "' " + ex.getMessage());
         }
+        // relations of unknown types, relations without meaning or known word (lang_pos)
+        n_unknown_lang_pos = Math.max(0, n_total - n_counted);
 
         long  t_end;
         t_end  = System.currentTimeMillis();
@@ -172,6 +165,13 @@ public class RelationTableAll {
         return m_lang_rel_n;
     }
 
+    /** Gets number of relations which are not counted by the last call
+     * of countRelationsPerLanguage(): relations of unknown type, without
+     * meaning, of words (lang_pos) absent or with unknown language or POS. */
+    public static int getUnknownLangPOSNumber() {
+        return n_unknown_lang_pos;
+    }
+
     /** Initialize (set to zero) number of entries for each language. */
     public static void initLangEntries () {
 
@@ -199,7 +199,9 @@ public class RelationTableAll {
      * (5) 'lang_pos_with_relations' number of lang_pos with semantic relations
      * .<br><br>
      * 
-     * SELECT * FROM lang_pos;
+     * Numbers of relations of all words are read by one query
+     * (SQL_LANG_POS_RELATIONS) in one pass, only the words rich in relations
+     * are read recursively (after the pass).
      *
      * @param connect connection to the database of the parsed Wiktionary
      *
@@ -227,118 +229,186 @@ public class RelationTableAll {
                     LanguageType native_lang,
                     int threshold_relations_foreign, int threshold_relations_native,
                     int threshold_type_relations) {
-        // lang_pos -> meaning -> relations -> count
+        // lang_pos -> relation type -> count
 
-        Statement   s = null;
-        ResultSet   rs= null;
         long    t_start;
 
         int n_unknown_pos__in_rich_words = 0; // number of words (with many relations) with unknown POS
         int n_total = Statistics.Count(wikt_parsed_conn, "lang_pos");
 
+        List<Integer> rich_lang_pos_id = new ArrayList<Integer>();
         t_start = System.currentTimeMillis();
 
         try {
-            s = wikt_parsed_conn.conn.createStatement ();
-            s.executeQuery ("SELECT id FROM lang_pos");
-            rs = s.getResultSet ();
-            int n_cur = 0;
-            while (rs.next ())
-            {
-                n_cur ++;
-                int id = rs.getInt("id");
-                TLangPOS lang_pos_not_recursive = TLangPOS.getByID (wikt_parsed_conn, id);// fields are not filled recursively
-                if(null == lang_pos_not_recursive)
-                    continue;
-                LanguageType lang = lang_pos_not_recursive.getLang().getLanguage();
-                incLangEntry(lang);
-                TPage tpage = lang_pos_not_recursive.getPage();
-                String page_title = tpage.getPageTitle();
-
-                int n_relation = WTRelation.getNumberByPageLang(wikt_parsed_conn, lang_pos_not_recursive);
-                int n_type_relation = 0;
-
-                if(n_relation > 1) {
-                    // there is a reason to calculate: number of types of semantic relations
-                    
-                    TLangPOS lang_pos = null;
-                    {   // calculate lang_pos with filled fields in order
-                        // to get number of meanings by getRecursive, etc.
-                        
-                        TLangPOS[] lang_pos_array = TLangPOS.getRecursive(wikt_parsed_conn, tpage);
-                        for(TLangPOS tlp : lang_pos_array) {
-                            if(tlp.getID() == id) {
-                                lang_pos = tlp;
-                                break;
+            Statement s = UtilSQL.createStreamingStatement(wikt_parsed_conn);
+            try {
+                ResultSet rs = s.executeQuery (SQL_LANG_POS_RELATIONS);
+                try {
+                    int n_cur = 0;
+                    WordRelations w = null; // the current word, its relations are summed up by several rows
+                    while (rs.next ())
+                    {
+                        int id = rs.getInt("id");
+                        if(null == w || w.id != id) {
+                            if(null != w && w.isKnown()) {
+                                n_cur ++;
+                                if(addWordRelations(w, native_lang,
+                                        threshold_relations_foreign, threshold_relations_native,
+                                        threshold_type_relations, rich_lang_pos_id))
+                                    n_unknown_pos__in_rich_words ++;
+
+                                if(0 == n_cur % 1000) {   // % 100
+                                    if(DEBUG && n_cur > 333) {
+                                        w = null;
+                                        break;
+                                    }
+                                    long    t_cur, t_remain;
+
+                                    t_cur  = System.currentTimeMillis() - t_start;
+                                    t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
+                                    t_cur = (long)(t_cur/(60f*1000f));
+
+                                    System.out.println(n_cur + ": " +
+                                        ", duration: "  + t_cur +   // t_cur/(60f*1000f) +
+                                        " min, remain: " + t_remain +
+                                        " min");
+                                }
                             }
+                            w = new WordRelations(id, TLang.getTLangFast(rs.getInt("lang_id")),
+                                                      TPOS. getTPOSFast (rs.getInt("pos_id")),
+                                                      Encodings.bytesToUTF8(rs.getBytes("page_title")));
                         }
+                        w.add(rs.getInt("relation_type_id"), rs.getInt("n"));
                     }
-                    assert(lang_pos != null);
-
-                    if(POS.unknown == lang_pos.getPOS().getPOS())
-                        n_unknown_pos__in_rich_words ++;
-
-                    boolean b_added = false;
-                    if((native_lang == lang && n_relation >= threshold_relations_native) ||
-                       (native_lang != lang && n_relation >= threshold_relations_foreign))
-                    {
-                        b_added = true;
-                        words_rich_in_relations.add(lang_pos);// List of the words with the maximum number of semantic relations.          
+                    if(null != w && w.isKnown()) {  // the last word
+                        if(addWordRelations(w, native_lang,
+                                threshold_relations_foreign, threshold_relations_native,
+                                threshold_type_relations, rich_lang_pos_id))
+                            n_unknown_pos__in_rich_words ++;
                     }
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
+            }
+        } catch(SQLException ex) {
+            System.out.println("SQLException (RelationTableAll.countRelationsHistogram()):: sql='" + SQL_LANG_POS_RELATIONS + "' " + ex.getMessage());
+        }
 
-                    {
-                        n_type_relation = lang_pos.countRelationTypes();
-                        if(n_type_relation >= threshold_type_relations && !b_added)
-                            words_rich_in_relations.add(lang_pos);
-
-                        if(n_type_relation < max_type_relation) {
-                            rel_type_histogram [n_type_relation] ++;
-                            
-                            if(null == m_relation_type_number [n_type_relation])
-                                 m_relation_type_number [n_type_relation] = new HashMap<Relation,Integer> ();
-                            lang_pos.addNumberOfRelationPerType(m_relation_type_number [n_type_relation]);
-                            
-                        } else
-                            System.out.println("Error (RelationTableAll.countRelationsHistogram()): n_types_relation=" +
-                                    n_type_relation + " > max_types_relation for the word=" + page_title);
-                    }
+        // calculate lang_pos with filled fields in order
+        // to print number of meanings by getRecursive, etc.
+        for(int id : rich_lang_pos_id) {
+            TLangPOS lang_pos_not_recursive = TLangPOS.getByID (wikt_parsed_conn, id);
+            if(null == lang_pos_not_recursive)
+                continue;
+
+            TLangPOS[] lang_pos_array = TLangPOS.getRecursive(wikt_parsed_conn, lang_pos_not_recursive.getPage());
+            for(TLangPOS tlp : lang_pos_array) {
+                if(tlp.getID() == id) {
+                    words_rich_in_relations.add(tlp);
+                    break;
                 }
-                if(1 == n_relation)
-                    n_type_relation = 1;
-                
-                if(n_relation < max_relation)
-                    rel_histogram [n_relation] ++;
-                else
-                    System.out.println("Error (RelationTableAll.countRelationsHistogram()): n_relation=" +
-                            n_relation + " > max_relation for the word=" + page_title);
+            }
+        }
 
-                if(n_relation > 0)
-                    lang_pos_with_relations ++;
+        System.out.println("\nNumber of words (with many relations) with unknown POS: " + n_unknown_pos__in_rich_words);
+    }
 
-                if(0 == n_cur % 1000) {   // % 100
-                    if(DEBUG && n_cur > 333)
-                        break;
+    /** Semantic relations of one word (lang_pos), which are summed up
+     * by rows of the query SQL_LANG_POS_RELATIONS. */
+    private static class WordRelations {
+        WordRelations(int _id, TLang _tlang, TPOS _tpos, String _page_title) {
+            id   = _id;
+            lang = null == _tlang ? null : _tlang.getLanguage();
+            pos  = null == _tpos  ? null : _tpos.getPOS();
+            page_title = _page_title;
+            n_relation = 0;
+            m_rel_n = new HashMap<Relation,Integer>();
+        }
 
-                    long    t_cur, t_remain;
+        /** ID of the word in the table lang_pos. */
+        int id;
+        LanguageType lang;
+        POS pos;
+        String page_title;
+
+        /** Number of relations of all types (unknown types too). */
+        int n_relation;
+
+        /** Number of relations per (known) type. */
+        Map<Relation,Integer> m_rel_n;
+
+        /** Adds number of relations of one type, n is 0 if the word
+         * has no relations (then relation_type_id is NULL). */
+        void add(int relation_type_id, int n) {
+            if(0 == n)
+                return;
+            n_relation += n;
+            TRelationType tr = TRelationType.getRelationFast(relation_type_id);
+            if(null != tr)              // unknown types are skipped, see TRelation.get()
+                m_rel_n.put(tr.getRelation(), n);
+        }
 
-                    t_cur  = System.currentTimeMillis() - t_start;
-                    t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
-                    t_cur = (long)(t_cur/(60f*1000f));
+        /** Returns false, if language or POS is unknown, the word is skipped
+         * then (see TLangPOS.getByID()). */
+        boolean isKnown() {
+            return null != lang && null != pos;
+        }
+    }
 
-                    System.out.println(n_cur + ": " +
-                        ", duration: "  + t_cur +   // t_cur/(60f*1000f) +
-                        " min, remain: " + t_remain +
-                        " min");
+    /** Adds the word to histograms, to the list of words rich in relations, etc.
+     * (see countRelationsHistogram()).
+     *
+     * @param rich_lang_pos_id list of IDs of the words rich in relations
+     * @return true if the word has more than one relation and unknown POS
+     */
+    private static boolean addWordRelations(WordRelations w,
+                    LanguageType native_lang,
+                    int threshold_relations_foreign, int threshold_relations_native,
+                    int threshold_type_relations,
+                    List<Integer> rich_lang_pos_id) {
+
+        boolean b_unknown_pos = false;
+        int n_relation      = w.n_relation;
+        int n_type_relation = w.m_rel_n.size();
+        incLangEntry(w.lang);
+
+        if(n_relation > 1) {
+            b_unknown_pos = POS.unknown == w.pos;
+
+            if((native_lang == w.lang && n_relation >= threshold_relations_native) ||
+               (native_lang != w.lang && n_relation >= threshold_relations_foreign) ||
+               n_type_relation >= threshold_type_relations)
+                rich_lang_pos_id.add(w.id);  // List of the words with the maximum number of semantic relations.
+
+            if(n_type_relation < max_type_relation) {
+                rel_type_histogram [n_type_relation] ++;
+
+                if(null == m_relation_type_number [n_type_relation])
+                     m_relation_type_number [n_type_relation] = new HashMap<Relation,Integer> ();
+                Map<Relation,Integer> m_result = m_relation_type_number [n_type_relation];
+                for(Relation r : w.m_rel_n.keySet()) {
+                    int add = w.m_rel_n.get(r);
+                    if(m_result.containsKey(r))
+                        add += m_result.get(r);
+                    m_result.put(r, add);
                 }
-            }
-        } catch(SQLException ex) {
-            System.out.println("SQLException (RelationTableAll.countRelationsHistogram()): " + ex.getMessage());
-        } finally {
-            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
-            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+            } else
+                System.out.println("Error (RelationTableAll.countRelationsHistogram()): n_types_relation=" +
+                        n_type_relation + " > max_types_relation for the word=" + w.page_title);
         }
 
-        System.out.println("\nNumber of words (with many relations) with unknown POS: " + n_unknown_pos__in_rich_words);
+        if(n_relation < max_relation)
+            rel_histogram [n_relation] ++;
+        else
+            System.out.println("Error (RelationTableAll.countRelationsHistogram()): n_relation=" +
+                    n_relation + " > max_relation for the word=" + w.page_title);
+
+        if(n_relation > 0)
+            lang_pos_with_relations ++;
+
+        return b_unknown_pos;
     }
 
 
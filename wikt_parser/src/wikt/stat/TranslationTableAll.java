@@ -7,13 +7,10 @@
 package wikt.stat;
 
 import wikokit.base.wikt.sql.TLang;
-import wikokit.base.wikt.sql.TLangPOS;
 import wikokit.base.wikt.sql.TPOS;
-import wikokit.base.wikt.sql.TPage;
-import wikokit.base.wikt.sql.TTranslation;
-import wikokit.base.wikt.sql.TTranslationEntry;
 import wikokit.base.wikipedia.sql.Statistics;
 import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.UtilSQL;
 import wikt.stat.printer.CommonPrinter;
 import wikokit.base.wikipedia.language.LanguageType;
 import wikokit.base.wikipedia.language.Encodings;
@@ -49,23 +46,53 @@ public class TranslationTableAll {
     // 6. average number of translation languages (for words which have at least one translation).
 
 
+    /** Number of translation boxes which belong to words with unknown
+     * language or POS, see countTranslationPerLanguage(). */
+    private static int n_unknown_lang_pos;
+
+    /** Number of translation entries per language of the entry and per
+     * language and POS of the word (lang_pos), the words with unknown
+     * language or POS are skipped in Java (TLang, TPOS). */
+    private static final String SQL_COUNT_PER_LANGUAGE =
+        "SELECT lp.lang_id AS lp_lang_id, lp.pos_id AS pos_id, te.lang_id AS lang_id, COUNT(*) AS n FROM translation_entry te " +
+        "JOIN wiki_text wt ON wt.id=te.wiki_text_id " +
+        "JOIN translation t ON t.id=te.translation_id " +
+        "JOIN lang_pos lp ON lp.id=t.lang_pos_id GROUP BY lp.lang_id, lp.pos_id, te.lang_id";
+
+    /** Number of translation boxes per language and POS of the word
+     * (lang_pos), lang_id and pos_id are NULL if the word is absent. */
+    private static final String SQL_COUNT_BOXES =
+        "SELECT lp.lang_id AS lang_id, lp.pos_id AS pos_id, COUNT(*) AS n FROM translation t " +
+        "LEFT JOIN lang_pos lp ON lp.id=t.lang_pos_id GROUP BY lp.lang_id, lp.pos_id";
+
+    /** Translation boxes of foreign words, the list of IDs of the native
+     * language and Translingual (mul) should be appended. */
+    private static final String SQL_FOREIGN_BOXES =
+        "SELECT lp.lang_id AS lang_id, p.page_title AS page_title FROM translation t " +
+        "JOIN lang_pos lp ON lp.id=t.lang_pos_id " +
+        "JOIN page p ON p.id=lp.page_id WHERE lp.lang_id NOT IN ";
+
     /** Counts number of translations of native word's meaning into each 
-     * foreign language by selecting all records from the table 'translation'
+     * foreign language by one query with GROUP BY (translation entries are
+     * not read for each record of the table 'translation')
      * from the database of the parsed Wiktionary.<br><br>
-     * SELECT * FROM translation;
+     * SELECT lp.lang_id, lp.pos_id, te.lang_id, COUNT(*) FROM translation_entry te JOIN translation t ... GROUP BY lp.lang_id, lp.pos_id, te.lang_id;<br><br>
+     *
+     * The same translations are counted as by reading the boxes one by one
+     * (TLangPOS.getByID(), TTranslationEntry.getByTranslation()):
+     * entries with unknown language or without text are skipped, boxes of
+     * the word (lang_pos) which is absent or has unknown language or POS are
+     * counted as Unknown (getUnknownLangPOSNumber()), their entries are skipped.
      *
      * @param connect   connection to the database of the parsed Wiktionary
      * @return map      from the language into a number of translation boxes
      *                  which contain synonyms, antonyms, etc. in English (etc.)
      */
     public static Map<LanguageType, Integer> countTranslationPerLanguage (Connect wikt_parsed_conn) {
-        // translation -> lang -> count
+        // translation_entry -> lang -> count
 
-        Statement   s = null;
-        ResultSet   rs= null;
         long    t_start;
-
-        int n_unknown_lang_pos = 0; // translations into unknown languages
+        n_unknown_lang_pos = 0;
 
         int n_total = Statistics.Count(wikt_parsed_conn, "translation");
         //System.out.println("Total translation boxes (translated meanings of words): " + n_total);
@@ -74,80 +101,64 @@ public class TranslationTableAll {
         Map<LanguageType, Integer> m_lang_n = new HashMap<LanguageType, Integer>();
         LanguageType native_lang = wikt_parsed_conn.getNativeLanguage();
 
+        StringBuilder str_sql = new StringBuilder();
         try {
-            s = wikt_parsed_conn.conn.createStatement ();
-            StringBuilder str_sql = new StringBuilder();
-                         // SELECT id,lang_pos_id,meaning_summary,meaning_id FROM translation
-            str_sql.append("SELECT id,lang_pos_id,meaning_summary FROM translation");
-            s.executeQuery (str_sql.toString());
-            rs = s.getResultSet ();
-            int n_cur = 0;
-            while (rs.next ())
-            {
-                n_cur ++;
-                int            id =                                     rs.getInt("id");
-                TLangPOS lang_pos = TLangPOS.getByID(wikt_parsed_conn,  rs.getInt("lang_pos_id"));
-                String meaning_summary = Encodings.bytesToUTF8(rs.getBytes("meaning_summary"));
-
-                TLang tlang = lang_pos.getLang();
-                LanguageType lt = tlang.getLanguage();  // see: Wiktionary:About Translingual
-                if(null != tlang && native_lang != lt && LanguageType.mul != lt) {
-                    System.out.print("Error (TranslationTableAll.countTranslationPerLanguage()): There is a translation box from a foreign language, code=" + tlang.getLanguage().getCode());
-                    TPage p = lang_pos.getPage();
-                    if(null != p)
-                        System.out.println(", page_title=" + p.getPageTitle());
+            Statement s = UtilSQL.createStreamingStatement(wikt_parsed_conn);
+            try {
+                // see: Wiktionary:About Translingual
+                str_sql.append(SQL_FOREIGN_BOXES);
+                str_sql.append("(").append(TLang.getIDFast(native_lang));
+                str_sql.append(",").append(TLang.getIDFast(LanguageType.mul)).append(")");
+                ResultSet rs = s.executeQuery (str_sql.toString());
+                try {
+                    while (rs.next ()) {
+                        TLang tlang = TLang.getTLangFast(rs.getInt("lang_id"));
+                        if(null != tlang)
+                            System.out.println("Error (TranslationTableAll.countTranslationPerLanguage()): There is a translation box from a foreign language, code=" + tlang.getLanguage().getCode() +
+                                               ", page_title=" + Encodings.bytesToUTF8(rs.getBytes("page_title")));
+                    }
+                } finally {
+                    rs.close();
                 }
 
-                if(null != lang_pos) {
-                    TTranslation trans = new TTranslation(id, lang_pos, meaning_summary, null); // meaning = null
-
-                    TTranslationEntry[] t_entries =
-                        TTranslationEntry.getByTranslation(wikt_parsed_conn, trans);
-
-                    for(TTranslationEntry entry : t_entries) {
-                        LanguageType lang = entry.getLang().getLanguage();
-                        if(m_lang_n.containsKey(lang) ) {
-                            int n = m_lang_n.get(lang);
-                            m_lang_n.put(lang, n + 1);
-                        } else
-                            m_lang_n.put(lang, 1);
+                str_sql.setLength(0);
+                str_sql.append(SQL_COUNT_PER_LANGUAGE);
+                rs = s.executeQuery (str_sql.toString());
+                try {
+                    while (rs.next ()) {
+                        TLang tlang = TLang.getTLangFast(rs.getInt("lang_id"));
+                        if(null == tlang || !isKnown(rs.getInt("lp_lang_id"), rs.getInt("pos_id")))
+                            continue;
+                        LanguageType lang = tlang.getLanguage();
+                        int n = rs.getInt("n");
+                        if(m_lang_n.containsKey(lang) )
+                            n += m_lang_n.get(lang);
+                        m_lang_n.put(lang, n);
                     }
+                } finally {
+                    rs.close();
+                }
 
-                    if(DEBUG && 0 == n_cur % 1000) {   // % 100
-                        //if(n_cur > 333)
-                          //  break;
-                        long    t_cur, t_remain;
-
-                        t_cur  = System.currentTimeMillis() - t_start;
-                        t_remain = (long)((n_total - n_cur) * t_cur/(60f*1000f*(float)(n_cur)));
-                                   // where time for 1 page = t_cur / n_cur
-                                   // in min, since /(60*1000)
-                        t_cur = (long)(t_cur/(60f*1000f));
-                        //t_cur = t_cur/(60f*1000f));
-
-                        TPage tpage = lang_pos.getPage();
-                        if(null != tpage) {
-                            System.out.println(n_cur + ": " + tpage.getPageTitle() +
-                                ", duration: "  + t_cur +   // t_cur/(60f*1000f) +
-                                " min, remain: " + t_remain +
-                                " min");
-                        }
+                str_sql.setLength(0);
+                str_sql.append(SQL_COUNT_BOXES);
+                rs = s.executeQuery (str_sql.toString());
+                try {
+                    while (rs.next ()) {
+                        if(!isKnown(rs.getInt("lang_id"), rs.getInt("pos_id")))
+                            n_unknown_lang_pos += rs.getInt("n");
                     }
-                } else
-                    n_unknown_lang_pos ++;
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                s.close();
             }
         } catch(SQLException ex) {
-            System.out.println("SQLException (TranslationTableAll.countTranslationPerLanguage()): " + ex.getMessage());
-        } finally {
-            if (rs != null) {   try { rs.close(); } catch (SQLException sqlEx) { }  rs = null; }
-            if (s != null)  {   try { s.close();  } catch (SQLException sqlEx) { }  s = null;  }
+            System.out.println("SQLException (TranslationTableAll.countTranslationPerLanguage()):: sql='" + str_sql.toString() + "' " + ex.getMessage());
         }
 
-        //long  t_end;
-        //float   t_work;
-        //t_end  = System.currentTimeMillis();
-        //t_work = (t_end - t_start)/1000f; // in sec
-        System.out.println(//"\nTime sec:" + t_work +
+        float t_work = (System.currentTimeMillis() - t_start)/1000f; // in sec
+        System.out.println("\nTime sec:" + t_work +
             "\nTotal translation boxes (translated meanings of words): " + n_total +
             "\n\nUnknown<ref>'''Unknown''' - words which have translations but have unknown language code and POS</ref>: "
             + n_unknown_lang_pos);
@@ -155,6 +166,20 @@ public class TranslationTableAll {
         return m_lang_n;
     }
 
+    /** Returns false if the language or POS of the word (lang_pos) is
+     * unknown or the word is absent (IDs are 0), see TLangPOS.getByID(). */
+    private static boolean isKnown(int lang_id, int pos_id) {
+        return lang_id > 0 && pos_id > 0 &&
+               null != TLang.getTLangFast(lang_id) && null != TPOS.getTPOSFast(pos_id);
+    }
+
+    /** Gets number of translation boxes which belong to words (lang_pos)
+     * absent or with unknown language or POS, it is counted by the last call
+     * of countTranslationPerLanguage(). */
+    public static int getUnknownLangPOSNumber() {
+        return n_unknown_lang_pos;
+    }
+
     public static void main(String[] args) {
 
         // Connect to wikt_parsed database
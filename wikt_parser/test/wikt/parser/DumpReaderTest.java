@@ -0,0 +1,149 @@
+
+package wikt.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.stream.XMLStreamException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+public class DumpReaderTest {
+
+    /** Small dump: articles, a talk page, a template, a redirect, a page without &lt;ns&gt;. */
+    private final static String DUMP =
+        "<mediawiki xmlns=\"http://www.mediawiki.org/xml/export-0.10/\" version=\"0.10\" xml:lang=\"ru\">\n" +
+        "  <siteinfo>\n" +
+        "    <sitename>Викисловарь</sitename>\n" +
+        "    <namespaces><namespace key=\"0\" case=\"case-sensitive\" /><namespace key=\"1\">Обсуждение</namespace></namespaces>\n" +
+        "  </siteinfo>\n" +
+        "  <page>\n" +
+        "    <title>дом</title>\n" +
+        "    <ns>0</ns>\n" +
+        "    <id>1</id>\n" +
+        "    <revision><id>10</id><text xml:space=\"preserve\">= {{-ru-}} =\n[[кров]] &amp; [[жильё]]</text></revision>\n" +
+        "  </page>\n" +
+        "  <page>\n" +
+        "    <title>Обсуждение:дом</title>\n" +
+        "    <ns>1</ns>\n" +
+        "    <id>2</id>\n" +
+        "    <revision><id>11</id><text xml:space=\"preserve\">talk</text></revision>\n" +
+        "  </page>\n" +
+        "  <page>\n" +
+        "    <title>домик</title>\n" +
+        "    <ns>0</ns>\n" +
+        "    <id>3</id>\n" +
+        "    <redirect title=\"дом\" />\n" +
+        "    <revision><id>12</id><text xml:space=\"preserve\">#REDIRECT [[дом]]</text></revision>\n" +
+        "  </page>\n" +
+        "  <page>\n" +
+        "    <title>Шаблон:сущ ru</title>\n" +
+        "    <ns>10</ns>\n" +
+        "    <id>4</id>\n" +
+        "    <revision><id>13</id><text xml:space=\"preserve\">{{{1}}}</text></revision>\n" +
+        "  </page>\n" +
+        "  <page>\n" +
+        "    <title>empty</title>\n" +
+        "    <ns>0</ns>\n" +
+        "    <id>5</id>\n" +
+        "    <revision><id>14</id><text xml:space=\"preserve\" /></revision>\n" +
+        "  </page>\n" +
+        "  <page>\n" +
+        "    <title>old dump</title>\n" +
+        "    <id>6</id>\n" +
+        "    <revision><id>15</id><text xml:space=\"preserve\">old text</text></revision>\n" +
+        "  </page>\n" +
+        "</mediawiki>\n";
+
+    public File dir;
+
+    public DumpReaderTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("dump_reader_test").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if(null != files)
+            for(File f : files)
+                f.delete();
+        dir.delete();
+    }
+
+    private File writeDump(String filename, boolean b_gzip) throws IOException {
+        File f = new File(dir, filename);
+        OutputStream out = new FileOutputStream(f);
+        if(b_gzip)
+            out = new GZIPOutputStream(out);
+        try {
+            out.write(DUMP.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            out.close();
+        }
+        return f;
+    }
+
+    /** Checks that only articles (namespace 0, not redirects) are returned. */
+    private void checkArticles(File f) throws IOException, XMLStreamException {
+        DumpReader dump = new DumpReader(f.getPath());
+        dump.open();
+        try {
+            assertTrue(dump.next(true));
+            assertEquals("дом", dump.getPageTitle());
+            assertEquals("= {{-ru-}} =\n[[кров]] & [[жильё]]", dump.getText().toString());
+
+            assertTrue(dump.next(true));
+            assertEquals("empty", dump.getPageTitle());
+            assertEquals("", dump.getText().toString());
+
+            assertTrue(dump.next(true));
+            assertEquals("old dump", dump.getPageTitle());
+            assertEquals("old text", dump.getText().toString());
+
+            assertFalse(dump.next(true));
+            assertEquals(6, dump.getPagesRead());
+        } finally {
+            dump.close();
+        }
+    }
+
+    @Test
+    public void testNext_namespace_redirect() throws IOException, XMLStreamException {
+        System.out.println("next_namespace_redirect");
+        checkArticles(writeDump("pages-articles.xml", false));
+    }
+
+    @Test
+    public void testNext_gzip() throws IOException, XMLStreamException {
+        System.out.println("next_gzip");
+        checkArticles(writeDump("pages-articles.xml.gz", true));
+    }
+
+    @Test
+    public void testNext_without_text() throws IOException, XMLStreamException {
+        System.out.println("next_without_text");
+        DumpReader dump = new DumpReader(writeDump("pages-articles.xml", false).getPath());
+        dump.open();
+        try {
+            int n = 0;
+            while(dump.next(false)) {
+                assertNull(dump.getText());
+                n ++;
+            }
+            assertEquals(3, n);
+        } finally {
+            dump.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+
+package wikt.parser;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.TPOS;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+public class PageRevisionTest {
+
+    public Connect      conn;   // SQLite file database
+    public Connection   reader; // second connection, it sees only committed rows
+    public File         file;
+
+    public PageRevisionTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("page_revision_test", ".sqlite");
+        Class.forName("org.sqlite.JDBC");
+        conn = open();
+        Statement s = conn.conn.createStatement();
+        try {
+            s.execute("CREATE TABLE page (id INTEGER PRIMARY KEY AUTOINCREMENT, page_title TEXT, word_count INTEGER, " +
+                      "wiki_link_count INTEGER, is_in_wiktionary INTEGER, is_redirect INTEGER, redirect_target TEXT)");
+            s.execute("CREATE TABLE lang (id INTEGER PRIMARY KEY, code TEXT, name TEXT, n_foreign_POS INTEGER, n_translations INTEGER)");
+            s.execute("CREATE TABLE part_of_speech (id INTEGER PRIMARY KEY, name TEXT)");
+            s.execute("CREATE TABLE lang_pos (id INTEGER PRIMARY KEY AUTOINCREMENT, page_id INTEGER, lang_id INTEGER, " +
+                      "pos_id INTEGER, etymology_n INTEGER, lemma TEXT)");
+            s.execute("CREATE TABLE meaning (id INTEGER PRIMARY KEY, lang_pos_id INTEGER, meaning_n INTEGER, wiki_text_id INTEGER)");
+            s.execute("CREATE TABLE translation (id INTEGER PRIMARY KEY, lang_pos_id INTEGER, meaning_summary TEXT, meaning_id INTEGER)");
+            s.execute("CREATE TABLE index_native (page_id INTEGER, page_title TEXT, has_definition INTEGER)");
+
+            s.execute("INSERT INTO lang VALUES (1,'ru','Russian',0,0)");
+            s.execute("INSERT INTO part_of_speech VALUES (1,'noun')");
+        } finally {
+            s.close();
+        }
+        TLang.createFastMaps(conn);
+        TPOS.createFastMaps(conn);
+        reader = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        conn.Close();
+        reader.close();
+        file.delete();
+    }
+
+    private Connect open() throws SQLException {
+        Connect c = new Connect();
+        c.conn = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+        c.enc.SetEncodings("UTF8", "UTF8", "UTF8");
+        return c;
+    }
+
+    /** Counts rows which are visible for the second connection. */
+    private int countCommitted(String table) throws SQLException {
+        Statement s = reader.createStatement();
+        try {
+            ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM " + table);
+            rs.next();
+            return rs.getInt(1);
+        } finally {
+            s.close();
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        Statement s = conn.conn.createStatement();
+        try {
+            s.execute(sql);
+        } finally {
+            s.close();
+        }
+    }
+
+    /** Stores the page as the incremental parsing does, the row of the
+     * table 'lang_pos' is written instead of Keeper.storeToDB(). */
+    private void storePage(PageRevision revisions, String page_title, int rev_id, int prev_rev_id) throws SQLException {
+        revisions.deletePrevious(page_title, prev_rev_id, true);
+        execute("INSERT INTO lang_pos (page_id,lang_id,pos_id,etymology_n,lemma) VALUES (1,1,1,0,'')");
+        revisions.setRevision(page_title, rev_id, prev_rev_id);
+    }
+
+    @Test
+    public void testTake() throws SQLException {
+        System.out.println("take");
+
+        PageRevision revisions = PageRevision.open(conn, LanguageType.ru);
+        assertNotNull(revisions);
+        assertEquals(0, revisions.take("apple", 5));
+        assertEquals(0, revisions.take("pear", 7));
+        storePage(revisions, "apple", 5, 0);
+        storePage(revisions, "pear",  7, 0);
+
+        revisions = PageRevision.open(conn, LanguageType.ru);
+        assertEquals(5, revisions.take("apple", 5));    // unchanged
+        assertEquals(7, revisions.take("pear", 8));     // changed
+        assertEquals(0, revisions.take("plum", 1));     // new
+        assertEquals(1, revisions.getUnchangedNumber());
+        assertEquals(1, revisions.getChangedNumber());
+        assertEquals(1, revisions.getAddedNumber());
+
+        storePage(revisions, "pear", 8, 7);
+        assertEquals(8, PageRevision.open(conn, LanguageType.ru).take("pear", 8));
+    }
+
+    /** In the auto-commit mode the page and its revision are committed
+     * by setRevision(), the page which was not committed is parsed again. */
+    @Test
+    public void testSetRevision_commit() throws SQLException {
+        System.out.println("setRevision_commit");
+
+        PageRevision revisions = PageRevision.open(conn, LanguageType.ru);
+        revisions.take("apple", 5);
+        revisions.deletePrevious("apple", 0, true);
+        assertFalse(conn.conn.getAutoCommit());
+        execute("INSERT INTO lang_pos (page_id,lang_id,pos_id,etymology_n,lemma) VALUES (1,1,1,0,'')");
+        assertEquals(0, countCommitted("lang_pos"));
+
+        revisions.setRevision("apple", 5, 0);
+        assertTrue(conn.conn.getAutoCommit());
+        assertEquals(1, countCommitted("lang_pos"));
+        assertEquals(1, countCommitted("page_revision"));
+
+        // the crash after the page is stored, before the revision is stored
+        revisions = PageRevision.open(conn, LanguageType.ru);
+        revisions.take("apple", 6);
+        revisions.deletePrevious("apple", 5, true);
+        conn.Close();
+
+        conn = open();
+        assertEquals(5, PageRevision.open(conn, LanguageType.ru).take("apple", 6));
+    }
+
+    /** In the batch-writer mode the revision is committed by the batch writer. */
+    @Test
+    public void testSetRevision_batch() throws SQLException {
+        System.out.println("setRevision_batch");
+
+        PageRevision revisions = PageRevision.open(conn, LanguageType.ru);
+        conn.conn.setAutoCommit(false);
+        storePage(revisions, "apple", 5, 0);
+        assertFalse(conn.conn.getAutoCommit());
+        assertEquals(0, countCommitted("page_revision"));
+
+        conn.conn.commit();
+        assertEquals(1, countCommitted("lang_pos"));
+        assertEquals(1, countCommitted("page_revision"));
+    }
+
+    /** The first incremental parsing of the database parsed fully (without
+     * revisions): the data of the page parsed before are deleted. */
+    @Test
+    public void testDeletePrevious_first_run() throws SQLException {
+        System.out.println("deletePrevious_first_run");
+
+        execute("INSERT INTO page (id,page_title,word_count,wiki_link_count,is_in_wiktionary,is_redirect) VALUES (1,'apple',0,0,1,0)");
+        execute("INSERT INTO lang_pos (page_id,lang_id,pos_id,etymology_n,lemma) VALUES (1,1,1,0,'')");
+        execute("INSERT INTO lang_pos (page_id,lang_id,pos_id,etymology_n,lemma) VALUES (1,1,1,1,'')");
+        execute("INSERT INTO index_native VALUES (1,'apple',1)");
+
+        PageRevision revisions = PageRevision.open(conn, LanguageType.ru);
+        assertEquals(0, revisions.take("apple", 5));
+        storePage(revisions, "apple", 5, 0);
+        assertEquals(1, countCommitted("lang_pos"));
+        assertEquals(0, countCommitted("index_native"));
+        assertEquals(5, PageRevision.open(conn, LanguageType.ru).take("apple", 5));
+    }
+
+    @Test
+    public void testDeleteRemoved() throws SQLException {
+        System.out.println("deleteRemoved");
+
+        PageRevision revisions = PageRevision.open(conn, LanguageType.ru);
+        storePage(revisions, "apple", 5, 0);
+        storePage(revisions, "pear",  7, 0);
+
+        revisions = PageRevision.open(conn, LanguageType.ru);
+        revisions.take("apple", 5);
+        assertEquals(1, revisions.deleteRemoved());     // pear is absent in the new dump
+        assertEquals(1, revisions.getRemovedNumber());
+
+        revisions = PageRevision.open(conn, LanguageType.ru);
+        assertEquals(5, revisions.take("apple", 5));
+        assertEquals(0, revisions.take("pear", 7));
+    }
+}
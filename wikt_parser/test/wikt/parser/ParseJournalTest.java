@@ -0,0 +1,116 @@
+
+package wikt.parser;
+
+import wikokit.base.wikipedia.sql.Connect;
+
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+public class ParseJournalTest {
+
+    public Connect  conn;   // SQLite in-memory parsed database
+
+    public ParseJournalTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+        conn = new Connect();
+        conn.conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @After
+    public void tearDown() {
+        conn.Close();
+    }
+
+    /** Gets the field is_finished of the row of the shard, -1 if the row is absent. */
+    private int getIsFinished(int from_id, int to_id) throws SQLException {
+        Statement s = conn.conn.createStatement();
+        try {
+            ResultSet rs = s.executeQuery("SELECT is_finished FROM parse_journal WHERE from_id=" + from_id + " AND to_id=" + to_id);
+            return rs.next() ? rs.getInt("is_finished") : -1;
+        } finally {
+            s.close();
+        }
+    }
+
+    @Test
+    public void testOpen_resume() throws SQLException {
+        System.out.println("open_resume");
+
+        ParseJournal journal = ParseJournal.open(conn, 1, 100);
+        assertNotNull(journal);
+        assertEquals(0, journal.getLastPageID());
+        assertEquals(0, journal.getPagesNumber());
+        assertEquals(0, getIsFinished(1, 100));
+
+        journal.mark(5);
+        journal.mark(7);
+        assertEquals(7, journal.getLastPageID());
+        assertEquals(2, journal.getPagesNumber());
+
+        // the parsing is resumed after the last marked page
+        journal = ParseJournal.open(conn, 1, 100);
+        assertEquals(7, journal.getLastPageID());
+        assertEquals(2, journal.getPagesNumber());
+
+        // other shard has its own row
+        ParseJournal other = ParseJournal.open(conn, 100, 0);
+        assertEquals(0, other.getLastPageID());
+        assertEquals(0, other.getPagesNumber());
+        other.mark(150);
+        assertEquals(7, ParseJournal.open(conn, 1, 100).getLastPageID());
+        assertEquals(150, ParseJournal.open(conn, 100, 0).getLastPageID());
+    }
+
+    /** Post-processing is done by the last finished shard only,
+     * the shard parsed again is unfinished. */
+    @Test
+    public void testFinish() throws SQLException {
+        System.out.println("finish");
+
+        ParseJournal a = ParseJournal.open(conn, 1, 100);
+        ParseJournal b = ParseJournal.open(conn, 100, 0);
+
+        assertEquals(1, a.finish());        // b is not finished
+        assertEquals(1, getIsFinished(1, 100));
+        assertEquals(0, b.finish());
+        assertEquals(1, getIsFinished(100, 0));
+
+        assertEquals(0, a.finish());        // finished again, b is finished
+
+        a = ParseJournal.open(conn, 1, 100);// a is resumed
+        assertEquals(0, getIsFinished(1, 100));
+        assertEquals(1, b.finish());
+        assertEquals(0, a.finish());
+    }
+
+    /** finish() commits its transaction and restores the auto-commit mode. */
+    @Test
+    public void testFinish_autocommit() throws SQLException {
+        System.out.println("finish_autocommit");
+
+        ParseJournal journal = ParseJournal.open(conn, 1, 0);
+        assertTrue(conn.conn.getAutoCommit());
+        assertEquals(0, journal.finish());
+        assertTrue(conn.conn.getAutoCommit());
+
+        conn.conn.setAutoCommit(false);
+        journal.mark(3);
+        assertEquals(0, journal.finish());
+        assertFalse(conn.conn.getAutoCommit());
+        conn.conn.rollback();               // the mark and the finish are committed
+        conn.conn.setAutoCommit(true);
+        assertEquals(1, getIsFinished(1, 0));
+        assertEquals(3, ParseJournal.open(conn, 1, 0).getLastPageID());
+    }
+}
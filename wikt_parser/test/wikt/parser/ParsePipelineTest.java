@@ -0,0 +1,64 @@
+
+package wikt.parser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikt.word.WordBase;
+
+
+public class ParsePipelineTest {
+
+    public ParsePipelineTest() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /** Pipeline with the parser which throws Error on some pages,
+     * pages are not stored (parse returns null), so the database is not needed. */
+    private static class ThrowingPipeline extends ParsePipeline {
+        int n_parsed;
+
+        ThrowingPipeline(int n_threads) {
+            super(LanguageType.ru, null, n_threads);
+        }
+
+        @Override
+        WordBase parse(String page_title, StringBuffer text) {
+            synchronized(this) {
+                n_parsed ++;
+            }
+            if(page_title.startsWith("stack"))
+                throw new StackOverflowError();
+            if(page_title.startsWith("runtime"))
+                throw new IllegalStateException();
+            return null;
+        }
+    }
+
+    @Test
+    public void testRunParser_throwable() throws InterruptedException {
+        System.out.println("runParser_throwable");
+
+        int n_threads = 2;
+        ThrowingPipeline pipeline = new ThrowingPipeline(n_threads);
+        Thread writer = pipeline.start(1, 6, System.currentTimeMillis());
+
+        String[] titles = {"a", "stack 1", "b", "runtime", "stack 2", "c"};
+        for(int i=0; i<titles.length; i++)
+            pipeline.put(i + 1, titles[i], new StringBuffer("text"));
+        pipeline.finish();
+
+        writer.join(10000);
+        assertFalse(writer.isAlive());
+        assertEquals(titles.length, pipeline.n_parsed);
+    }
+}
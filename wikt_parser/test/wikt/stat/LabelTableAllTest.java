@@ -0,0 +1,238 @@
+
+package wikt.stat;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikipedia.sql.PageTableBase;
+import wikokit.base.wikt.constant.Label;
+import wikokit.base.wikt.constant.LabelCategory;
+import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.TLangPOS;
+import wikokit.base.wikt.sql.TMeaning;
+import wikokit.base.wikt.sql.TPOS;
+import wikokit.base.wikt.sql.label.TLabel;
+import wikokit.base.wikt.sql.label.TLabelCategory;
+import wikokit.base.wikt.sql.label.TLabelMeaning;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/** Compares the statistics calculated by joined and GROUP BY queries with
+ * the statistics calculated by reading labels and words one by one (as it
+ * was done before), the small SQLite database contains words (lang_pos) with
+ * unknown language or POS, meanings without text or with empty text,
+ * unknown labels and labels of absent meanings. */
+public class LabelTableAllTest {
+
+    public Connect  conn;
+    public File     dir;        // Connect.OpenSQLite() opens files in the directory "sqlite"
+    public boolean  b_dir_created;
+
+    private final static String DB = "label_table_all_test.sqlite";
+
+    public LabelTableAllTest() {
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        dir = new File("sqlite");
+        b_dir_created = dir.mkdir();
+        conn = new Connect();
+        conn.OpenSQLite(DB, LanguageType.ru, false);
+
+        Statement s = conn.conn.createStatement();
+        try {
+            s.execute("CREATE TABLE page (id INTEGER PRIMARY KEY, page_title TEXT, word_count INTEGER, wiki_link_count INTEGER, " +
+                      "is_in_wiktionary INTEGER, is_redirect INTEGER, redirect_target TEXT)");
+            s.execute("CREATE TABLE lang (id INTEGER PRIMARY KEY, code TEXT, name TEXT, n_foreign_POS INTEGER, n_translations INTEGER)");
+            s.execute("CREATE TABLE part_of_speech (id INTEGER PRIMARY KEY, name TEXT)");
+            s.execute("CREATE TABLE lang_pos (id INTEGER PRIMARY KEY, page_id INTEGER, lang_id INTEGER, pos_id INTEGER, etymology_n INTEGER, lemma TEXT)");
+            s.execute("CREATE TABLE meaning (id INTEGER PRIMARY KEY, lang_pos_id INTEGER, meaning_n INTEGER, wiki_text_id INTEGER)");
+            s.execute("CREATE TABLE wiki_text (id INTEGER PRIMARY KEY, text TEXT, wikified_text TEXT)");
+            s.execute("CREATE TABLE label_category (id INTEGER PRIMARY KEY, name TEXT, parent_category_id INTEGER)");
+            s.execute("CREATE TABLE label (id INTEGER PRIMARY KEY, short_name TEXT, name TEXT, category_id INTEGER, counter INTEGER, added_by_hand INTEGER)");
+            s.execute("CREATE TABLE label_meaning (label_id INTEGER, meaning_id INTEGER)");
+
+            s.execute("INSERT INTO lang VALUES (1,'ru','Russian',0,0)");
+            s.execute("INSERT INTO lang VALUES (2,'en','English',0,0)");
+            s.execute("INSERT INTO lang VALUES (3,'mul','Translingual',0,0)");
+            s.execute("INSERT INTO part_of_speech VALUES (1,'noun')");
+            s.execute("INSERT INTO part_of_speech VALUES (2,'verb')");
+            s.execute("INSERT INTO wiki_text VALUES (1,'t1','')");
+            s.execute("INSERT INTO wiki_text VALUES (2,'t2','')");
+            s.execute("INSERT INTO wiki_text VALUES (3,'','')");
+        } finally {
+            s.close();
+        }
+
+        // all categories and all labels of Russian Wiktionary, labels are "added by hand"
+        PreparedStatement ps = conn.conn.prepareStatement("INSERT INTO label_category (name) VALUES (?)");
+        try {
+            for(LabelCategory lc : LabelCategory.getAllLabelCats()) {
+                ps.setString(1, lc.getName());
+                ps.execute();
+            }
+        } finally {
+            ps.close();
+        }
+        TLang.createFastMaps(conn);
+        TPOS.createFastMaps(conn);
+        TLabelCategory.createFastMaps(conn);
+
+        ps = conn.conn.prepareStatement("INSERT INTO label (short_name,category_id,counter,added_by_hand) VALUES (?,?,0,1)");
+        try {
+            for(Label label : Label.getAllLabels(LanguageType.ru)) {
+                ps.setString(1, PageTableBase.convertToSafeStringEncodeToDBWunderscore(conn, label.getShortName()));
+                ps.setInt(2, TLabelCategory.getIDFast(LabelCategory.usage));
+                ps.execute();
+            }
+        } finally {
+            ps.close();
+        }
+        TLabel.createFastMaps(conn, LanguageType.ru);
+
+        // 5 known labels, label 99999 is unknown
+        List<Integer> label_ids = new ArrayList<Integer>();
+        for(int label_id : TLabel.getAllID2Labels().keySet())
+            if(label_ids.size() < 5)
+                label_ids.add(label_id);
+        label_ids.add(99999);
+
+        s = conn.conn.createStatement();
+        try {
+            // language 9 and POS 9 are unknown, wiki_text 99 is absent
+            Random r = new Random(24);
+            int meaning_id = 1;
+            for(int page_id=1; page_id<=30; page_id++) {
+                s.execute("INSERT INTO page VALUES (" + page_id + ",'w" + page_id + "',0,0,1,0,NULL)");
+                for(int j=0; j<2; j++) {
+                    int lang_pos_id = page_id * 10 + j;
+                    int lang_id = 0 == r.nextInt(8) ? 9 : 1 + r.nextInt(3);
+                    int pos_id  = 0 == r.nextInt(8) ? 9 : 1 + r.nextInt(2);
+                    s.execute("INSERT INTO lang_pos VALUES (" + lang_pos_id + "," + page_id + "," + lang_id + "," + pos_id + ",0,'')");
+                    for(int k=r.nextInt(5); k>0; k--) {
+                        int wiki_text_id = 0 == r.nextInt(8) ? 0 : (0 == r.nextInt(8) ? 99 : 1 + r.nextInt(3));
+                        s.execute("INSERT INTO meaning VALUES (" + meaning_id + "," + lang_pos_id + "," + k + "," + wiki_text_id + ")");
+                        for(int label_id : label_ids)
+                            if(0 == r.nextInt(5))
+                                s.execute("INSERT INTO label_meaning VALUES (" + label_id + "," + meaning_id + ")");
+                        meaning_id ++;
+                    }
+                }
+            }
+            // meaning of the absent word, label without meaning
+            s.execute("INSERT INTO meaning VALUES (" + meaning_id + ",77777,1,1)");
+            s.execute("INSERT INTO label_meaning VALUES (" + label_ids.get(0) + "," + meaning_id + ")");
+            s.execute("INSERT INTO label_meaning VALUES (" + label_ids.get(1) + ",88888)");
+        } finally {
+            s.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        conn.Close();
+        new File(dir, DB).delete();
+        if(b_dir_created)
+            dir.delete();
+    }
+
+    /** Counts labels one by one: label_meaning -> meaning -> lang_pos. */
+    private Map<LanguageType, Integer> countLabelsByRow(Map<Label, Integer> m_label_n, int[] n_unknown) throws SQLException {
+        Map<LanguageType, Integer> m_lang_n = new HashMap<LanguageType, Integer>();
+        Statement s = conn.conn.createStatement();
+        try {
+            ResultSet rs = s.executeQuery("SELECT label_id, meaning_id FROM label_meaning");
+            while (rs.next ()) {
+                Label    label = TLabel.getAllID2Labels().get(rs.getInt("label_id"));
+                TMeaning m     = TMeaning.getByID(conn, rs.getInt("meaning_id"));
+                if(null == m) {
+                    n_unknown[0] ++;
+                    continue;
+                }
+                LanguageType lang = m.getLangPOS(conn).getLang().getLanguage();
+                Integer n = m_lang_n.get(lang);
+                m_lang_n.put(lang, null == n ? 1 : n + 1);
+
+                if(null != label) {
+                    n = m_label_n.get(label);
+                    m_label_n.put(label, null == n ? 1 : n + 1);
+                }
+            }
+            rs.close();
+        } finally {
+            s.close();
+        }
+        return m_lang_n;
+    }
+
+    /** Counts meanings and meanings with labels word by word: lang_pos -> meanings -> labels. */
+    private int[][] countNumberOfMeaningsWithLabelsByRow() throws SQLException {
+        int[][] ar = new int[LabelTableAll.MAX_MEANINGS][LabelTableAll.MAX_MEANINGS];
+        Statement s = conn.conn.createStatement();
+        try {
+            ResultSet rs = s.executeQuery("SELECT id FROM lang_pos");
+            while (rs.next ()) {
+                TLangPOS lang_pos = TLangPOS.getByID(conn, rs.getInt("id"));
+                if(null == lang_pos)
+                    continue;
+                int n_meaning = 0, n_labeled = 0;
+                for(TMeaning m : TMeaning.get(conn, lang_pos)) {
+                    if(null == m.getWikiText())
+                        continue;
+                    n_meaning ++;
+                    if(m.getWikiTextString().length() > 0 && TLabelMeaning.get(conn, m).length > 0)
+                        n_labeled ++;
+                }
+                if(n_meaning > 0)
+                    ar[n_labeled][n_meaning] ++;
+            }
+            rs.close();
+        } finally {
+            s.close();
+        }
+        return ar;
+    }
+
+    @Test
+    public void testCountLabels() throws SQLException {
+        System.out.println("countLabels");
+
+        int[] n_unknown = new int[1];
+        Map<Label, Integer> expected_labels = new HashMap<Label, Integer>();
+        Map<LanguageType, Integer> expected = countLabelsByRow(expected_labels, n_unknown);
+        assertTrue(n_unknown[0] > 2);
+        assertEquals(5, expected_labels.size());
+        assertTrue(expected.containsKey(LanguageType.ru));
+
+        assertEquals(expected, LabelTableAll.countLabels(conn));
+        assertEquals(n_unknown[0], LabelTableAll.getUnknownLangPOSNumber());
+        assertEquals(expected_labels, LabelTableAll.getLabelCounters());
+    }
+
+    @Test
+    public void testCountNumberOfMeaningsWithLabels() throws SQLException {
+        System.out.println("countNumberOfMeaningsWithLabels");
+
+        int[][] expected = countNumberOfMeaningsWithLabelsByRow();
+        assertTrue(expected[0][1] > 0);
+        assertTrue(expected[1][2] > 0);
+
+        LabelTableAll.countNumberOfMeaningsWithLabels(conn, LanguageType.ru);
+        assertEquals(Arrays.deepToString(expected), Arrays.deepToString(LabelTableAll.getNumberOfMeaningsWithLabels()));
+    }
+}
@@ -0,0 +1,139 @@
+
+package wikt.stat;
+
+import uk.ac.shef.wit.simmetrics.similaritymetrics.AbstractStringMetric;
+import uk.ac.shef.wit.simmetrics.similaritymetrics.JaroWinkler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/** Compares the clusters with the clusters of the brute-force comparison
+ * of each name with all previous names (it was done in QuoteTableAll). */
+public class NameClustersTest {
+
+    private final static AbstractStringMetric metric = new JaroWinkler();
+
+    private final static float THRESHOLD = 0.87f;
+
+    private final static String ALPHABET = "абвгдеёжзийклмнопрстуфхцчшщыэюяАБВГДЕКЛМНПРСТ .-";
+
+    public NameClustersTest() {
+    }
+
+    /** Clusters names by comparison of each name with all previous names,
+     * previous names are taken in the order of keys of HashMap. */
+    private static Map<String, String> createByBruteForce(List<String> names, float threshold) {
+        Map<String, Boolean> previous = new HashMap<String, Boolean>();
+        Map<String, String> name_to_cluster = new HashMap<String, String>();
+        for(String a : names) {
+            float max_dist = 0;
+            String b = null;
+            for(String w : previous.keySet()) {
+                float dist = metric.getSimilarity(a, w);
+                if(null == b || dist > max_dist) {
+                    max_dist = dist;
+                    b = w;
+                }
+            }
+            if(null != b && max_dist > threshold) {
+                String cluster = name_to_cluster.containsKey(b) ? name_to_cluster.get(b) : a;
+                name_to_cluster.put(a, cluster);
+                name_to_cluster.put(b, cluster);
+            }
+            previous.put(a, Boolean.TRUE);
+        }
+        return name_to_cluster;
+    }
+
+    /** Generates different names: random strings and initials with surnames,
+     * and their copies with several random edits. */
+    private static List<String> generateNames(int n, long seed) {
+        String[] first = {"Александр", "Михаил", "Лев", "Фёдор", "Иван", "Анна"};
+        String[] last  = {"Пушкин", "Толстой", "Достоевский", "Чехов", "Гоголь", "Лермонтов", "Ахматова", "Булгаков"};
+        Random r = new Random(seed);
+
+        List<String> base = new ArrayList<String>();
+        for(int i=0; i<n/3; i++) {
+            StringBuilder s = new StringBuilder();
+            for(int k=3 + r.nextInt(12); k>0; k--)
+                s.append(ALPHABET.charAt(r.nextInt(ALPHABET.length())));
+            if(0 == r.nextInt(3))
+                base.add(first[r.nextInt(first.length)].charAt(0) + ". " + last[r.nextInt(last.length)] + s.substring(0, 3));
+            else
+                base.add(s.toString());
+        }
+
+        Set<String> names = new LinkedHashSet<String>();
+        while(names.size() < n) {
+            StringBuilder s = new StringBuilder(base.get(r.nextInt(base.size())));
+            for(int e=r.nextInt(3); e>0 && s.length()>1; e--) {
+                int pos = r.nextInt(s.length());
+                switch(r.nextInt(3)) {
+                    case 0:  s.setCharAt(pos, ALPHABET.charAt(r.nextInt(ALPHABET.length()))); break;
+                    case 1:  s.deleteCharAt(pos); break;
+                    default: s.insert(pos, ALPHABET.charAt(r.nextInt(ALPHABET.length())));
+                }
+            }
+            names.add(s.toString());
+        }
+        return new ArrayList<String>(names);
+    }
+
+    @Test
+    public void testCreate_random() {
+        System.out.println("create_random");
+
+        for(long seed=1; seed<=3; seed++) {
+            List<String> names = generateNames(600, seed);
+            Map<String, String> expected = createByBruteForce(names, THRESHOLD);
+            assertTrue(expected.size() > 100);
+            assertEquals(expected, NameClusters.create(names, THRESHOLD, 1).getNameToCluster());
+        }
+    }
+
+    /** Several threads calculate the nearest names of different parts of the list. */
+    @Test
+    public void testCreate_threads() {
+        System.out.println("create_threads");
+
+        List<String> names = generateNames(2500, 4);
+        Map<String, String> expected = createByBruteForce(names, THRESHOLD);
+        assertEquals(expected, NameClusters.create(names, THRESHOLD, 4).getNameToCluster());
+    }
+
+    /** The last name of each triple is equally similar to two previous names,
+     * which are not similar to each other, so it is added to the cluster
+     * of the first of them in the order of keys of HashMap. */
+    @Test
+    public void testCreate_tie() {
+        System.out.println("create_tie");
+
+        String[][] triples = {{"ПМшкин А.нС.", "Пашксн А. С.", "Пушкин А. С."},
+                              {"ГоГоль н. В.", "ГоАоль Н.дВ.", "Гоголь Н. В."}};
+        for(String[] t : triples) {
+            assertEquals(metric.getSimilarity(t[2], t[0]), metric.getSimilarity(t[2], t[1]), 0f);
+            assertTrue(metric.getSimilarity(t[2], t[0]) > THRESHOLD);
+            assertTrue(metric.getSimilarity(t[0], t[1]) <= THRESHOLD);
+        }
+
+        // the first two names of the triple in both orders
+        for(int k=0; k<2; k++) {
+            List<String> names = new ArrayList<String>();
+            for(String[] t : triples)
+                names.addAll(Arrays.asList(t[k], t[1 - k], t[2]));
+
+            Map<String, String> expected = createByBruteForce(names, THRESHOLD);
+            assertEquals(4, expected.size());
+            assertEquals(expected, NameClusters.create(names, THRESHOLD, 1).getNameToCluster());
+        }
+    }
+}
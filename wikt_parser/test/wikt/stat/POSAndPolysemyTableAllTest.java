@@ -0,0 +1,161 @@
+
+package wikt.stat;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.api.WTMeaning;
+import wikokit.base.wikt.constant.POS;
+import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.TLangPOS;
+import wikokit.base.wikt.sql.TPOS;
+import wikt.stat.POSAndPolysemyTableAll.POSStat;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/** Compares the statistics calculated by the GROUP BY query with the
+ * statistics calculated by reading words (lang_pos) and their meanings one
+ * by one (as it was done before), the small SQLite database contains words
+ * with unknown language or POS and meanings without text. */
+public class POSAndPolysemyTableAllTest {
+
+    public Connect  conn;
+    public File     dir;        // Connect.OpenSQLite() opens files in the directory "sqlite"
+    public boolean  b_dir_created;
+
+    private final static String DB = "pos_and_polysemy_table_all_test.sqlite";
+
+    public POSAndPolysemyTableAllTest() {
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        dir = new File("sqlite");
+        b_dir_created = dir.mkdir();
+        conn = new Connect();
+        conn.OpenSQLite(DB, LanguageType.ru, false);
+
+        Statement s = conn.conn.createStatement();
+        try {
+            s.execute("CREATE TABLE page (id INTEGER PRIMARY KEY, page_title TEXT, word_count INTEGER, wiki_link_count INTEGER, " +
+                      "is_in_wiktionary INTEGER, is_redirect INTEGER, redirect_target TEXT)");
+            s.execute("CREATE TABLE lang (id INTEGER PRIMARY KEY, code TEXT, name TEXT, n_foreign_POS INTEGER, n_translations INTEGER)");
+            s.execute("CREATE TABLE part_of_speech (id INTEGER PRIMARY KEY, name TEXT)");
+            s.execute("CREATE TABLE lang_pos (id INTEGER PRIMARY KEY, page_id INTEGER, lang_id INTEGER, pos_id INTEGER, etymology_n INTEGER, lemma TEXT)");
+            s.execute("CREATE TABLE meaning (id INTEGER PRIMARY KEY, lang_pos_id INTEGER, meaning_n INTEGER, wiki_text_id INTEGER)");
+            s.execute("CREATE TABLE wiki_text (id INTEGER PRIMARY KEY, text TEXT, wikified_text TEXT)");
+
+            s.execute("INSERT INTO lang VALUES (1,'ru','Russian',0,0)");
+            s.execute("INSERT INTO lang VALUES (2,'en','English',0,0)");
+            s.execute("INSERT INTO lang VALUES (3,'mul','Translingual',0,0)");
+            s.execute("INSERT INTO part_of_speech VALUES (1,'noun')");
+            s.execute("INSERT INTO part_of_speech VALUES (2,'verb')");
+            s.execute("INSERT INTO part_of_speech VALUES (3,'unknown')");
+            s.execute("INSERT INTO wiki_text VALUES (1,'t1','')");
+            s.execute("INSERT INTO wiki_text VALUES (2,'','')");
+
+            // language 9 and POS 9 are unknown, wiki_text 99 is absent
+            Random r = new Random(24);
+            int meaning_id = 1;
+            for(int page_id=1; page_id<=40; page_id++) {
+                s.execute("INSERT INTO page VALUES (" + page_id + ",'w" + page_id + "',0,0,1,0,NULL)");
+                for(int j=0; j<2; j++) {
+                    int lang_pos_id = page_id * 10 + j;
+                    int lang_id = 0 == r.nextInt(8) ? 9 : 1 + r.nextInt(3);
+                    int pos_id  = 0 == r.nextInt(8) ? 9 : 1 + r.nextInt(3);
+                    s.execute("INSERT INTO lang_pos VALUES (" + lang_pos_id + "," + page_id + "," + lang_id + "," + pos_id + ",0,'')");
+                    for(int k=r.nextInt(6); k>0; k--) {
+                        int wiki_text_id = 0 == r.nextInt(6) ? 0 : (0 == r.nextInt(6) ? 99 : 1 + r.nextInt(2));
+                        s.execute("INSERT INTO meaning VALUES (" + (meaning_id ++) + "," + lang_pos_id + "," + k + "," + wiki_text_id + ")");
+                    }
+                }
+            }
+            // meaning of the absent word
+            s.execute("INSERT INTO meaning VALUES (" + meaning_id + ",77777,1,1)");
+        } finally {
+            s.close();
+        }
+        TLang.createFastMaps(conn);
+        TPOS.createFastMaps(conn);
+    }
+
+    @After
+    public void tearDown() {
+        conn.Close();
+        new File(dir, DB).delete();
+        if(b_dir_created)
+            dir.delete();
+    }
+
+    /** Counts meanings word by word: lang_pos -> meanings. */
+    private Map<LanguageType, Map<POS,POSStat>> countPOSByRow() throws SQLException {
+        Map<LanguageType, Map<POS,POSStat>> m_lang_pos_stat = new HashMap<LanguageType, Map<POS,POSStat>>();
+        Statement s = conn.conn.createStatement();
+        try {
+            ResultSet rs = s.executeQuery("SELECT id FROM lang_pos");
+            while (rs.next ()) {
+                TLangPOS lang_pos = TLangPOS.getByID(conn, rs.getInt("id"));
+                if(null == lang_pos)
+                    continue;
+                int n_meaning = WTMeaning.countMeanings(conn, lang_pos);
+                POS p = lang_pos.getPOS().getPOS();
+                if(POS.unknown == p || 0 == n_meaning)
+                    continue;
+
+                LanguageType lang = lang_pos.getLang().getLanguage();
+                Map<POS,POSStat> m_pos_stat = m_lang_pos_stat.get(lang);
+                if(null == m_pos_stat) {
+                    m_pos_stat = new HashMap<POS,POSStat>();
+                    m_lang_pos_stat.put(lang, m_pos_stat);
+                }
+                POSStat ps = m_pos_stat.get(p);
+                if(null == ps) {
+                    ps = new POSStat();
+                    m_pos_stat.put(p, ps);
+                }
+                ps.addPOS(n_meaning, lang_pos.getPage().getPageTitle());
+            }
+            rs.close();
+        } finally {
+            s.close();
+        }
+        return m_lang_pos_stat;
+    }
+
+    /** Gets statistics as strings, POSStat has no equals(). */
+    private static Map<LanguageType, Map<POS,String>> toString(Map<LanguageType, Map<POS,POSStat>> m_lang_pos_stat) {
+        Map<LanguageType, Map<POS,String>> m = new HashMap<LanguageType, Map<POS,String>>();
+        for(Map.Entry<LanguageType, Map<POS,POSStat>> e : m_lang_pos_stat.entrySet()) {
+            Map<POS,String> m_pos = new HashMap<POS,String>();
+            for(Map.Entry<POS,POSStat> e_pos : e.getValue().entrySet()) {
+                POSStat ps = e_pos.getValue();
+                m_pos.put(e_pos.getKey(), ps.getNumberOfUniquesStrings() + " " + ps.getNumberOfWordSensePairs() + " " +
+                          ps.getMonosemous() + " " + ps.getPolysemousWords() + " " + ps.getPolysemousSenses() + " " +
+                          ps.getWikifiedWordWithMaxSenses());
+            }
+            m.put(e.getKey(), m_pos);
+        }
+        return m;
+    }
+
+    @Test
+    public void testCountPOS() throws SQLException {
+        System.out.println("countPOS");
+
+        Map<LanguageType, Map<POS,POSStat>> expected = countPOSByRow();
+        assertEquals(3, expected.size());
+        assertEquals(2, expected.get(LanguageType.ru).size());
+
+        assertEquals(toString(expected), toString(POSAndPolysemyTableAll.countPOS(conn, LanguageType.ru)));
+    }
+}
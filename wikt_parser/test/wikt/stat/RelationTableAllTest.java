@@ -0,0 +1,148 @@
+
+package wikt.stat;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.constant.Relation;
+import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.TMeaning;
+import wikokit.base.wikt.sql.TPOS;
+import wikokit.base.wikt.sql.TRelationType;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/** Compares the statistics calculated by GROUP BY queries with the
+ * statistics calculated by reading relations one by one (as it was done
+ * before), the small SQLite database contains unknown languages, POS,
+ * types of relations and rows without meaning or word (lang_pos). */
+public class RelationTableAllTest {
+
+    public Connect  conn;
+    public File     dir;        // Connect.OpenSQLite() opens files in the directory "sqlite"
+    public boolean  b_dir_created;
+
+    private final static String DB = "relation_table_all_test.sqlite";
+
+    public RelationTableAllTest() {
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        dir = new File("sqlite");
+        b_dir_created = dir.mkdir();
+        conn = new Connect();
+        conn.OpenSQLite(DB, LanguageType.ru, false);
+
+        Statement s = conn.conn.createStatement();
+        try {
+            s.execute("CREATE TABLE page (id INTEGER PRIMARY KEY, page_title TEXT, word_count INTEGER, wiki_link_count INTEGER, " +
+                      "is_in_wiktionary INTEGER, is_redirect INTEGER, redirect_target TEXT)");
+            s.execute("CREATE TABLE lang (id INTEGER PRIMARY KEY, code TEXT, name TEXT, n_foreign_POS INTEGER, n_translations INTEGER)");
+            s.execute("CREATE TABLE part_of_speech (id INTEGER PRIMARY KEY, name TEXT)");
+            s.execute("CREATE TABLE relation_type (id INTEGER PRIMARY KEY, name TEXT)");
+            s.execute("CREATE TABLE lang_pos (id INTEGER PRIMARY KEY, page_id INTEGER, lang_id INTEGER, pos_id INTEGER, etymology_n INTEGER, lemma TEXT)");
+            s.execute("CREATE TABLE meaning (id INTEGER PRIMARY KEY, lang_pos_id INTEGER, meaning_n INTEGER, wiki_text_id INTEGER)");
+            s.execute("CREATE TABLE wiki_text (id INTEGER PRIMARY KEY, text TEXT, wikified_text TEXT)");
+            s.execute("CREATE TABLE relation (id INTEGER PRIMARY KEY, meaning_id INTEGER, wiki_text_id INTEGER, relation_type_id INTEGER, meaning_summary TEXT)");
+
+            s.execute("INSERT INTO lang VALUES (1,'ru','Russian',0,0)");
+            s.execute("INSERT INTO lang VALUES (2,'en','English',0,0)");
+            s.execute("INSERT INTO lang VALUES (3,'mul','Translingual',0,0)");
+            s.execute("INSERT INTO part_of_speech VALUES (1,'noun')");
+            s.execute("INSERT INTO part_of_speech VALUES (2,'verb')");
+            s.execute("INSERT INTO relation_type VALUES (1,'synonyms')");
+            s.execute("INSERT INTO relation_type VALUES (2,'antonyms')");
+            s.execute("INSERT INTO wiki_text VALUES (1,'t','')");
+
+            // language 9, POS 9, relation type 9 are unknown
+            Random r = new Random(24);
+            int meaning_id = 1, relation_id = 1;
+            for(int page_id=1; page_id<=30; page_id++) {
+                s.execute("INSERT INTO page VALUES (" + page_id + ",'w" + page_id + "',0,0,1,0,NULL)");
+                for(int j=0; j<3; j++) {
+                    int lang_pos_id = page_id * 10 + j;
+                    int lang_id = 0 == r.nextInt(8) ? 9 : 1 + r.nextInt(3);
+                    int pos_id  = 0 == r.nextInt(8) ? 9 : 1 + r.nextInt(2);
+                    s.execute("INSERT INTO lang_pos VALUES (" + lang_pos_id + "," + page_id + "," + lang_id + "," + pos_id + ",0,'')");
+                    for(int k=r.nextInt(3); k>0; k--) {
+                        s.execute("INSERT INTO meaning VALUES (" + meaning_id + "," + lang_pos_id + "," + k + ",1)");
+                        for(int n=r.nextInt(4); n>0; n--)
+                            s.execute("INSERT INTO relation VALUES (" + (relation_id ++) + "," + meaning_id + ",1," +
+                                      (0 == r.nextInt(10) ? 9 : 1 + r.nextInt(2)) + ",NULL)");
+                        meaning_id ++;
+                    }
+                }
+            }
+            // meaning of the absent word, relation without meaning
+            s.execute("INSERT INTO meaning VALUES (" + meaning_id + ",77777,1,1)");
+            s.execute("INSERT INTO relation VALUES (" + (relation_id ++) + "," + meaning_id + ",1,1,NULL)");
+            s.execute("INSERT INTO relation VALUES (" + (relation_id ++) + ",88888,1,1,NULL)");
+        } finally {
+            s.close();
+        }
+        TLang.createFastMaps(conn);
+        TPOS.createFastMaps(conn);
+        TRelationType.createFastMaps(conn);
+    }
+
+    @After
+    public void tearDown() {
+        conn.Close();
+        new File(dir, DB).delete();
+        if(b_dir_created)
+            dir.delete();
+    }
+
+    /** Counts relations one by one: relation -> meaning -> lang_pos. */
+    private Map<LanguageType, Map<Relation,Integer>> countRelationsPerLanguageByRow(int[] n_unknown) throws SQLException {
+        Map<LanguageType, Map<Relation,Integer>> m_lang_rel_n = new HashMap<LanguageType, Map<Relation,Integer>>();
+        Statement s = conn.conn.createStatement();
+        try {
+            ResultSet rs = s.executeQuery("SELECT meaning_id,relation_type_id FROM relation");
+            while (rs.next ()) {
+                TMeaning      m  = TMeaning.getByID(conn, rs.getInt("meaning_id"));
+                TRelationType tr = TRelationType.getRelationFast(rs.getInt("relation_type_id"));
+                if(null == m || null == tr) {
+                    n_unknown[0] ++;
+                    continue;
+                }
+                LanguageType lang = m.getLangPOS(conn).getLang().getLanguage();
+                Map<Relation,Integer> rel_n = m_lang_rel_n.get(lang);
+                if(null == rel_n) {
+                    rel_n = new HashMap<Relation,Integer>();
+                    m_lang_rel_n.put(lang, rel_n);
+                }
+                Integer n = rel_n.get(tr.getRelation());
+                rel_n.put(tr.getRelation(), null == n ? 1 : n + 1);
+            }
+            rs.close();
+        } finally {
+            s.close();
+        }
+        return m_lang_rel_n;
+    }
+
+    @Test
+    public void testCountRelationsPerLanguage() throws SQLException {
+        System.out.println("countRelationsPerLanguage");
+
+        int[] n_unknown = new int[1];
+        Map<LanguageType, Map<Relation,Integer>> expected = countRelationsPerLanguageByRow(n_unknown);
+        assertTrue(n_unknown[0] > 2);
+        assertTrue(expected.containsKey(LanguageType.ru));
+
+        assertEquals(expected, RelationTableAll.countRelationsPerLanguage(conn));
+        assertEquals(n_unknown[0], RelationTableAll.getUnknownLangPOSNumber());
+    }
+}
@@ -0,0 +1,144 @@
+
+package wikt.stat;
+
+import wikokit.base.wikipedia.language.LanguageType;
+import wikokit.base.wikipedia.sql.Connect;
+import wikokit.base.wikt.sql.TLang;
+import wikokit.base.wikt.sql.TLangPOS;
+import wikokit.base.wikt.sql.TPOS;
+import wikokit.base.wikt.sql.TTranslation;
+import wikokit.base.wikt.sql.TTranslationEntry;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/** Compares the statistics calculated by GROUP BY queries with the
+ * statistics calculated by reading translation boxes one by one (as it was
+ * done before), the small SQLite database contains words (lang_pos) with
+ * unknown language or POS, entries in unknown languages or without text,
+ * and a box without word. */
+public class TranslationTableAllTest {
+
+    public Connect  conn;
+    public File     dir;        // Connect.OpenSQLite() opens files in the directory "sqlite"
+    public boolean  b_dir_created;
+
+    private final static String DB = "translation_table_all_test.sqlite";
+
+    public TranslationTableAllTest() {
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        dir = new File("sqlite");
+        b_dir_created = dir.mkdir();
+        conn = new Connect();
+        conn.OpenSQLite(DB, LanguageType.ru, false);
+
+        Statement s = conn.conn.createStatement();
+        try {
+            s.execute("CREATE TABLE page (id INTEGER PRIMARY KEY, page_title TEXT, word_count INTEGER, wiki_link_count INTEGER, " +
+                      "is_in_wiktionary INTEGER, is_redirect INTEGER, redirect_target TEXT)");
+            s.execute("CREATE TABLE lang (id INTEGER PRIMARY KEY, code TEXT, name TEXT, n_foreign_POS INTEGER, n_translations INTEGER)");
+            s.execute("CREATE TABLE part_of_speech (id INTEGER PRIMARY KEY, name TEXT)");
+            s.execute("CREATE TABLE lang_pos (id INTEGER PRIMARY KEY, page_id INTEGER, lang_id INTEGER, pos_id INTEGER, etymology_n INTEGER, lemma TEXT)");
+            s.execute("CREATE TABLE wiki_text (id INTEGER PRIMARY KEY, text TEXT, wikified_text TEXT)");
+            s.execute("CREATE TABLE translation (id INTEGER PRIMARY KEY, lang_pos_id INTEGER, meaning_summary TEXT, meaning_id INTEGER)");
+            s.execute("CREATE TABLE translation_entry (id INTEGER PRIMARY KEY, translation_id INTEGER, lang_id INTEGER, wiki_text_id INTEGER)");
+
+            s.execute("INSERT INTO lang VALUES (1,'ru','Russian',0,0)");
+            s.execute("INSERT INTO lang VALUES (2,'en','English',0,0)");
+            s.execute("INSERT INTO lang VALUES (3,'de','German',0,0)");
+            s.execute("INSERT INTO lang VALUES (4,'mul','Translingual',0,0)");
+            s.execute("INSERT INTO part_of_speech VALUES (1,'noun')");
+            s.execute("INSERT INTO part_of_speech VALUES (2,'verb')");
+            for(int i=1; i<=10; i++)
+                s.execute("INSERT INTO wiki_text VALUES (" + i + ",'t" + i + "','')");
+
+            // language 9 and POS 9 are unknown, wiki_text 99 is absent
+            Random r = new Random(24);
+            int translation_id = 1, entry_id = 1;
+            for(int page_id=1; page_id<=30; page_id++) {
+                s.execute("INSERT INTO page VALUES (" + page_id + ",'w" + page_id + "',0,0,1,0,NULL)");
+                for(int j=0; j<2; j++) {
+                    int lang_pos_id = page_id * 10 + j;
+                    int lang_id = 0 == r.nextInt(6) ? 9 : (0 == r.nextInt(4) ? 4 : 1);  // native, mul or unknown
+                    int pos_id  = 0 == r.nextInt(6) ? 9 : 1 + r.nextInt(2);
+                    s.execute("INSERT INTO lang_pos VALUES (" + lang_pos_id + "," + page_id + "," + lang_id + "," + pos_id + ",0,'')");
+                    if(0 == r.nextInt(3))
+                        continue;
+                    s.execute("INSERT INTO translation VALUES (" + translation_id + "," + lang_pos_id + ",'',0)");
+                    for(int n=r.nextInt(5); n>0; n--)
+                        s.execute("INSERT INTO translation_entry VALUES (" + (entry_id ++) + "," + translation_id + "," +
+                                  (0 == r.nextInt(8) ? 9 : 1 + r.nextInt(4)) + "," +
+                                  (0 == r.nextInt(8) ? 99 : 1 + r.nextInt(10)) + ")");
+                    translation_id ++;
+                }
+            }
+            // box without word
+            s.execute("INSERT INTO translation VALUES (" + translation_id + ",77777,'',0)");
+            s.execute("INSERT INTO translation_entry VALUES (" + (entry_id ++) + "," + translation_id + ",2,1)");
+        } finally {
+            s.close();
+        }
+        TLang.createFastMaps(conn);
+        TPOS.createFastMaps(conn);
+    }
+
+    @After
+    public void tearDown() {
+        conn.Close();
+        new File(dir, DB).delete();
+        if(b_dir_created)
+            dir.delete();
+    }
+
+    /** Counts translations one by one: translation box -> lang_pos, entries. */
+    private Map<LanguageType, Integer> countTranslationPerLanguageByRow(int[] n_unknown) throws SQLException {
+        Map<LanguageType, Integer> m_lang_n = new HashMap<LanguageType, Integer>();
+        Statement s = conn.conn.createStatement();
+        try {
+            ResultSet rs = s.executeQuery("SELECT id,lang_pos_id FROM translation");
+            while (rs.next ()) {
+                TLangPOS lang_pos = TLangPOS.getByID(conn, rs.getInt("lang_pos_id"));
+                if(null == lang_pos) {
+                    n_unknown[0] ++;
+                    continue;
+                }
+                TTranslation trans = new TTranslation(rs.getInt("id"), lang_pos, "", null);
+                for(TTranslationEntry entry : TTranslationEntry.getByTranslation(conn, trans)) {
+                    LanguageType lang = entry.getLang().getLanguage();
+                    Integer n = m_lang_n.get(lang);
+                    m_lang_n.put(lang, null == n ? 1 : n + 1);
+                }
+            }
+            rs.close();
+        } finally {
+            s.close();
+        }
+        return m_lang_n;
+    }
+
+    @Test
+    public void testCountTranslationPerLanguage() throws SQLException {
+        System.out.println("countTranslationPerLanguage");
+
+        int[] n_unknown = new int[1];
+        Map<LanguageType, Integer> expected = countTranslationPerLanguageByRow(n_unknown);
+        assertTrue(n_unknown[0] > 1);
+        assertTrue(expected.containsKey(LanguageType.en));
+
+        assertEquals(expected, TranslationTableAll.countTranslationPerLanguage(conn));
+        assertEquals(n_unknown[0], TranslationTableAll.getUnknownLangPOSNumber());
+    }
+}